@@ -21,6 +21,7 @@ public class ConfigurationCompilerExecution implements Serializable {
     private int filterServiceMaxFilterWidth = 16;
     private boolean enabledDeclaredExprValueCache = true;
     private FilterIndexPlanning filterIndexPlanning = FilterIndexPlanning.ADVANCED;
+    private boolean enabledSlidingAggregation = true;
 
     /**
      * Returns the maximum width for breaking up "or" expression in filters to
@@ -78,6 +79,26 @@ public class ConfigurationCompilerExecution implements Serializable {
         this.filterIndexPlanning = filterIndexPlanning;
     }
 
+    /**
+     * Returns indicator whether min/max aggregations over a single length or time window, which removes events in the
+     * order they arrived, use a sliding (monotonic deque) aggregation instead of a sorted set (true by default)
+     *
+     * @return indicator
+     */
+    public boolean isEnabledSlidingAggregation() {
+        return enabledSlidingAggregation;
+    }
+
+    /**
+     * Sets indicator whether min/max aggregations over a single length or time window, which removes events in the
+     * order they arrived, use a sliding (monotonic deque) aggregation instead of a sorted set (true by default)
+     *
+     * @param enabledSlidingAggregation indicator
+     */
+    public void setEnabledSlidingAggregation(boolean enabledSlidingAggregation) {
+        this.enabledSlidingAggregation = enabledSlidingAggregation;
+    }
+
     /**
      * Controls the level of planning of filter indexes from filter expressions.
      */
@@ -102,6 +102,7 @@ public class ConfigurationCompilerParser {
             compiler.getExecution().setFilterServiceMaxFilterWidth(Integer.parseInt(filterServiceMaxFilterWidthStr));
         }
         parseOptionalBoolean(element, "enable-declared-expr-value-cache", b -> compiler.getExecution().setEnabledDeclaredExprValueCache(b));
+        parseOptionalBoolean(element, "enable-sliding-aggregation", b -> compiler.getExecution().setEnabledSlidingAggregation(b));
 
         String filterIndexPlanningStr = getOptionalAttribute(element, "filter-index-planning");
         if (filterIndexPlanningStr != null) {
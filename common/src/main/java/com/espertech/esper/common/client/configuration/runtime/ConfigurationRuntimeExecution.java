@@ -11,6 +11,7 @@
 package com.espertech.esper.common.client.configuration.runtime;
 
 import com.espertech.esper.common.client.util.FilterServiceProfile;
+import com.espertech.esper.common.client.util.SchedulingServiceProfile;
 
 import java.io.Serializable;
 
@@ -25,7 +26,12 @@ public class ConfigurationRuntimeExecution implements Serializable {
     private boolean fairlock;
     private boolean disableLocking;
     private FilterServiceProfile filterServiceProfile = FilterServiceProfile.READMOSTLY;
+    private SchedulingServiceProfile schedulingServiceProfile = SchedulingServiceProfile.SORTED;
     private int declaredExprValueCacheSize = 1;
+    private int filterIndexCompileThreshold;
+    private long filterIndexReorderInterval;
+    private boolean filterIndexInBitmap;
+    private boolean filterMetrics;
 
     /**
      * Ctor - sets up defaults.
@@ -113,6 +119,24 @@ public class ConfigurationRuntimeExecution implements Serializable {
         this.filterServiceProfile = filterServiceProfile;
     }
 
+    /**
+     * Returns the scheduling service profile for tuning schedule operations.
+     *
+     * @return scheduling service profile
+     */
+    public SchedulingServiceProfile getSchedulingServiceProfile() {
+        return schedulingServiceProfile;
+    }
+
+    /**
+     * Set the scheduling service profile for tuning schedule operations.
+     *
+     * @param schedulingServiceProfile scheduling service profile
+     */
+    public void setSchedulingServiceProfile(SchedulingServiceProfile schedulingServiceProfile) {
+        this.schedulingServiceProfile = schedulingServiceProfile;
+    }
+
     /**
      * Returns the cache size for declared expression values
      *
@@ -131,6 +155,99 @@ public class ConfigurationRuntimeExecution implements Serializable {
         this.declaredExprValueCacheSize = declaredExprValueCacheSize;
     }
 
+    /**
+     * Returns the number of events of an event type that the runtime evaluates against the filter index tree of the event type,
+     * without any filter being added or removed for the event type, after which the runtime compiles the filter index tree
+     * and evaluates events using the compiled form until filters change.
+     * The default is zero and indicates that filter index trees are not compiled.
+     *
+     * @return threshold or zero when not compiling
+     */
+    public int getFilterIndexCompileThreshold() {
+        return filterIndexCompileThreshold;
+    }
+
+    /**
+     * Sets the number of events of an event type that the runtime evaluates against the filter index tree of the event type,
+     * without any filter being added or removed for the event type, after which the runtime compiles the filter index tree
+     * and evaluates events using the compiled form until filters change.
+     * Set to zero (the default) to not compile filter index trees.
+     *
+     * @param filterIndexCompileThreshold threshold or zero when not compiling
+     */
+    public void setFilterIndexCompileThreshold(int filterIndexCompileThreshold) {
+        this.filterIndexCompileThreshold = filterIndexCompileThreshold;
+    }
+
+    /**
+     * Returns the number of events that the runtime evaluates against filter index trees after which the runtime
+     * reorders the filter index tree of each event type so that the most selective filter parameters are looked up first,
+     * or zero (the default) when not reordering.
+     *
+     * @return interval or zero when not reordering
+     */
+    public long getFilterIndexReorderInterval() {
+        return filterIndexReorderInterval;
+    }
+
+    /**
+     * Sets the number of events that the runtime evaluates against filter index trees after which the runtime
+     * reorders the filter index tree of each event type so that the most selective filter parameters are looked up first.
+     * The runtime counts, for each filter index, the events evaluated and the number of filter constants matching.
+     * Set to zero (the default) to not reorder filter index trees.
+     *
+     * @param filterIndexReorderInterval interval or zero when not reordering
+     */
+    public void setFilterIndexReorderInterval(long filterIndexReorderInterval) {
+        this.filterIndexReorderInterval = filterIndexReorderInterval;
+    }
+
+    /**
+     * Returns true when the runtime indexes filter parameters using the in and not-in operators
+     * by bitmaps of filter ids per value, or false (the default) when indexing by lists of filters per value.
+     *
+     * @return indicator whether in and not-in filter indexes use bitmaps
+     */
+    public boolean isFilterIndexInBitmap() {
+        return filterIndexInBitmap;
+    }
+
+    /**
+     * Set to true to have the runtime index filter parameters using the in and not-in operators
+     * by bitmaps of filter ids per value. Matching an event then iterates the bitmap of the event property value
+     * (in) or the difference of all filters and that bitmap (not-in), which performs better than
+     * the default when there are many filters that each have large in-lists.
+     * The default is false.
+     *
+     * @param filterIndexInBitmap indicator whether in and not-in filter indexes use bitmaps
+     */
+    public void setFilterIndexInBitmap(boolean filterIndexInBitmap) {
+        this.filterIndexInBitmap = filterIndexInBitmap;
+    }
+
+    /**
+     * Returns true when the runtime measures, per event type, the evaluation time and counts, per filter index,
+     * the lookups, or false (the default) when only counting events evaluated and filters matched per event type.
+     *
+     * @return indicator whether filter metrics are enabled
+     */
+    public boolean isFilterMetrics() {
+        return filterMetrics;
+    }
+
+    /**
+     * The runtime always counts, per event type, the events evaluated against filter index trees and the filters matched.
+     * Set to true to have the runtime also measure, per event type, the evaluation time and count, per filter index,
+     * the lookups and the number of filter constants matching. The counters are available through
+     * {@link com.espertech.esper.common.client.metric.EPMetricsService}.
+     * Measuring time and counting lookups adds to the cost of evaluating each event. The default is false.
+     *
+     * @param filterMetrics indicator whether filter metrics are enabled
+     */
+    public void setFilterMetrics(boolean filterMetrics) {
+        this.filterMetrics = filterMetrics;
+    }
+
     /**
      * Returns false (the default) if the runtime does not consider insert-into event-precedence,
      * or true to enable insert-into event-precedence execution order of inserted events.
@@ -13,6 +13,9 @@ package com.espertech.esper.common.client.configuration.runtime;
 import com.espertech.esper.common.client.configuration.ConfigurationException;
 import com.espertech.esper.common.client.util.FilterServiceProfile;
 import com.espertech.esper.common.client.util.Locking;
+import com.espertech.esper.common.client.util.RingBufferWaitStrategy;
+import com.espertech.esper.common.client.util.RuntimeLockType;
+import com.espertech.esper.common.client.util.SchedulingServiceProfile;
 import com.espertech.esper.common.client.util.TimeSourceType;
 import com.espertech.esper.common.client.util.UndeployRethrowPolicy;
 import com.espertech.esper.common.internal.collection.Pair;
@@ -87,10 +90,27 @@ public class ConfigurationRuntimeParser {
             runtime.getExecution().setFilterServiceProfile(profile);
         }
 
+        String schedulingServiceProfileStr = getOptionalAttribute(parentElement, "scheduling-service-profile");
+        if (schedulingServiceProfileStr != null) {
+            SchedulingServiceProfile profile = SchedulingServiceProfile.valueOf(schedulingServiceProfileStr.toUpperCase(Locale.ENGLISH));
+            runtime.getExecution().setSchedulingServiceProfile(profile);
+        }
+
         String declExprValueCacheSizeStr = getOptionalAttribute(parentElement, "declared-expr-value-cache-size");
         if (declExprValueCacheSizeStr != null) {
             runtime.getExecution().setDeclaredExprValueCacheSize(Integer.parseInt(declExprValueCacheSizeStr));
         }
+
+        String filterIndexCompileThresholdStr = getOptionalAttribute(parentElement, "filter-index-compile-threshold");
+        if (filterIndexCompileThresholdStr != null) {
+            runtime.getExecution().setFilterIndexCompileThreshold(Integer.parseInt(filterIndexCompileThresholdStr));
+        }
+        String filterIndexReorderIntervalStr = getOptionalAttribute(parentElement, "filter-index-reorder-interval");
+        if (filterIndexReorderIntervalStr != null) {
+            runtime.getExecution().setFilterIndexReorderInterval(Long.parseLong(filterIndexReorderIntervalStr));
+        }
+        parseOptionalBoolean(parentElement, "filter-index-in-bitmap", b -> runtime.getExecution().setFilterIndexInBitmap(b));
+        parseOptionalBoolean(parentElement, "filter-metrics", b -> runtime.getExecution().setFilterMetrics(b));
     }
 
     private static void handleExpression(ConfigurationRuntime runtime, Element element) {
@@ -260,6 +280,10 @@ public class ConfigurationRuntimeParser {
 
     private static void handleThreading(ConfigurationRuntime runtime, Element element) {
         parseOptionalBoolean(element, "runtime-fairlock", b -> runtime.getThreading().setRuntimeFairlock(b));
+        String runtimeLockType = getOptionalAttribute(element, "runtime-lock-type");
+        if (runtimeLockType != null) {
+            runtime.getThreading().setRuntimeLockType(RuntimeLockType.valueOf(runtimeLockType.toUpperCase(Locale.ENGLISH)));
+        }
 
         DOMElementIterator nodeIterator = new DOMElementIterator(element.getChildNodes());
         while (nodeIterator.hasNext()) {
@@ -328,6 +352,16 @@ public class ConfigurationRuntimeParser {
                 runtime.getThreading().setThreadPoolInbound(result.isEnabled());
                 runtime.getThreading().setThreadPoolInboundNumThreads(result.getNumThreads());
                 runtime.getThreading().setThreadPoolInboundCapacity(result.getCapacity());
+
+                DOMElementIterator keyIterator = new DOMElementIterator(subElement.getChildNodes());
+                while (keyIterator.hasNext()) {
+                    Element keyElement = keyIterator.next();
+                    if (keyElement.getNodeName().equals("key-property")) {
+                        String eventTypeName = getRequiredAttribute(keyElement, "event-type-name");
+                        String propertyName = getRequiredAttribute(keyElement, "property-name");
+                        runtime.getThreading().addThreadPoolInboundKeyProperty(eventTypeName, propertyName);
+                    }
+                }
             }
             if (subElement.getNodeName().equals("threadpool-outbound")) {
                 ThreadPoolConfig result = parseThreadPoolConfig(subElement);
@@ -347,6 +381,18 @@ public class ConfigurationRuntimeParser {
                 runtime.getThreading().setThreadPoolRouteExecNumThreads(result.getNumThreads());
                 runtime.getThreading().setThreadPoolRouteExecCapacity(result.getCapacity());
             }
+            if (subElement.getNodeName().equals("threadpool-timershard")) {
+                ThreadPoolConfig result = parseThreadPoolConfig(subElement);
+                runtime.getThreading().setThreadPoolTimerShard(result.isEnabled());
+                runtime.getThreading().setThreadPoolTimerShardNumThreads(result.getNumThreads());
+            }
+            if (subElement.getNodeName().equals("threadpool-ringbuffer")) {
+                parseAttrEnabled(subElement, flag -> runtime.getThreading().setThreadPoolRingBuffer(flag));
+                String waitStrategy = getOptionalAttribute(subElement, "wait-strategy");
+                if (waitStrategy != null) {
+                    runtime.getThreading().setThreadPoolRingBufferWaitStrategy(RingBufferWaitStrategy.valueOf(waitStrategy.toUpperCase(Locale.ENGLISH)));
+                }
+            }
         }
     }
 
@@ -11,8 +11,12 @@
 package com.espertech.esper.common.client.configuration.runtime;
 
 import com.espertech.esper.common.client.util.Locking;
+import com.espertech.esper.common.client.util.RingBufferWaitStrategy;
+import com.espertech.esper.common.client.util.RuntimeLockType;
 
 import java.io.Serializable;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 /**
  * Holds threading settings.
@@ -47,8 +51,14 @@ public class ConfigurationRuntimeThreading implements Serializable {
     private Integer threadPoolInboundCapacity;
     private Integer threadPoolRouteExecCapacity;
     private Integer threadPoolOutboundCapacity;
+    private Map<String, String> threadPoolInboundKeyProperties;
+    private boolean isThreadPoolRingBuffer;
+    private RingBufferWaitStrategy threadPoolRingBufferWaitStrategy;
+    private boolean isThreadPoolTimerShard;
+    private int threadPoolTimerShardNumThreads;
 
     private boolean runtimeFairlock;
+    private RuntimeLockType runtimeLockType;
 
     /**
      * Ctor - sets up defaults.
@@ -78,6 +88,14 @@ public class ConfigurationRuntimeThreading implements Serializable {
         threadPoolInboundNumThreads = 2;
         threadPoolRouteExecNumThreads = 2;
         threadPoolOutboundNumThreads = 2;
+
+        threadPoolInboundKeyProperties = new LinkedHashMap<>();
+        isThreadPoolRingBuffer = false;
+        threadPoolRingBufferWaitStrategy = RingBufferWaitStrategy.PARK;
+        isThreadPoolTimerShard = false;
+        threadPoolTimerShardNumThreads = 2;
+
+        runtimeLockType = RuntimeLockType.REENTRANT;
     }
 
     /**
@@ -463,6 +481,127 @@ public class ConfigurationRuntimeThreading implements Serializable {
         this.threadPoolOutboundCapacity = capacity;
     }
 
+    /**
+     * Returns the key property per event type name for key-affine inbound threading.
+     *
+     * @return map of event type name and key property name
+     */
+    public Map<String, String> getThreadPoolInboundKeyProperties() {
+        return threadPoolInboundKeyProperties;
+    }
+
+    /**
+     * Sets the key property per event type name for key-affine inbound threading.
+     *
+     * @param threadPoolInboundKeyProperties map of event type name and key property name
+     */
+    public void setThreadPoolInboundKeyProperties(Map<String, String> threadPoolInboundKeyProperties) {
+        this.threadPoolInboundKeyProperties = threadPoolInboundKeyProperties;
+    }
+
+    /**
+     * Adds a key property for an event type, for key-affine inbound threading.
+     * <p>
+     * When inbound threading is enabled and at least one key property is defined, the inbound thread pool
+     * consists of lanes each having a single thread and its own queue. The number of lanes is the inbound number of threads.
+     * Events of an event type that has a key property are assigned to a lane by the hash code of the key property value,
+     * so that events with the same key are processed in the order sent and by the same thread.
+     * Events of other event types are assigned to lanes in a round-robin fashion.
+     * </p>
+     *
+     * @param eventTypeName event type name
+     * @param propertyName  key property name
+     */
+    public void addThreadPoolInboundKeyProperty(String eventTypeName, String propertyName) {
+        threadPoolInboundKeyProperties.put(eventTypeName, propertyName);
+    }
+
+    /**
+     * Returns true to indicate that the inbound, outbound, route execution and timer execution thread pools
+     * use a pre-allocated ring buffer with batching consumers instead of a blocking queue (default is false).
+     *
+     * @return indicator whether thread pools use a ring buffer
+     */
+    public boolean isThreadPoolRingBuffer() {
+        return isThreadPoolRingBuffer;
+    }
+
+    /**
+     * Set to true to indicate that the inbound, outbound, route execution and timer execution thread pools
+     * use a pre-allocated ring buffer with batching consumers instead of a blocking queue (default is false).
+     * <p>
+     * The ring buffer size is the thread pool capacity rounded up to the next power of two, or 65536 when no capacity is defined.
+     * </p>
+     *
+     * @param threadPoolRingBuffer indicator whether thread pools use a ring buffer
+     */
+    public void setThreadPoolRingBuffer(boolean threadPoolRingBuffer) {
+        isThreadPoolRingBuffer = threadPoolRingBuffer;
+    }
+
+    /**
+     * Returns the wait strategy for ring buffer consumers and producers (default is park).
+     *
+     * @return wait strategy
+     */
+    public RingBufferWaitStrategy getThreadPoolRingBufferWaitStrategy() {
+        return threadPoolRingBufferWaitStrategy;
+    }
+
+    /**
+     * Sets the wait strategy for ring buffer consumers and producers (default is park).
+     *
+     * @param threadPoolRingBufferWaitStrategy wait strategy
+     */
+    public void setThreadPoolRingBufferWaitStrategy(RingBufferWaitStrategy threadPoolRingBufferWaitStrategy) {
+        this.threadPoolRingBufferWaitStrategy = threadPoolRingBufferWaitStrategy;
+    }
+
+    /**
+     * Returns true for sharded timer execution enabled, the default is false for not enabled.
+     *
+     * @return indicator whether sharded timer execution is enabled
+     */
+    public boolean isThreadPoolTimerShard() {
+        return isThreadPoolTimerShard;
+    }
+
+    /**
+     * Set to true for sharded timer execution enabled, the default is false for not enabled.
+     * <p>
+     * When enabled, the schedules that are due for a time advance are divided into shards by statement agent instance
+     * and the shards are evaluated in parallel by the threads of a timer shard thread pool.
+     * Each agent instance processes its schedules in order by a single thread. Processing of the time advance returns
+     * when all shards have been processed, including listener dispatch and any events routed by each shard.
+     * </p>
+     * <p>
+     * Takes precedence over timer execution threading. Not applicable when prioritized execution is enabled.
+     * </p>
+     *
+     * @param threadPoolTimerShard indicator whether sharded timer execution is enabled
+     */
+    public void setThreadPoolTimerShard(boolean threadPoolTimerShard) {
+        isThreadPoolTimerShard = threadPoolTimerShard;
+    }
+
+    /**
+     * Returns the number of threads and therefore shards for sharded timer execution.
+     *
+     * @return number of threads
+     */
+    public int getThreadPoolTimerShardNumThreads() {
+        return threadPoolTimerShardNumThreads;
+    }
+
+    /**
+     * Sets the number of threads and therefore shards for sharded timer execution.
+     *
+     * @param num number of threads
+     */
+    public void setThreadPoolTimerShardNumThreads(int num) {
+        this.threadPoolTimerShardNumThreads = num;
+    }
+
     /**
      * Returns true if the runtime-level lock is configured as a fair lock (default is false).
      * <p>
@@ -489,6 +628,32 @@ public class ConfigurationRuntimeThreading implements Serializable {
         this.runtimeFairlock = runtimeFairlock;
     }
 
+    /**
+     * Returns the type of the runtime-level lock (default is reentrant).
+     * <p>
+     * This lock coordinates
+     * event processing threads (threads that send events) with threads that
+     * perform administrative functions (threads that start or destroy statements, for example).
+     *
+     * @return lock type
+     */
+    public RuntimeLockType getRuntimeLockType() {
+        return runtimeLockType;
+    }
+
+    /**
+     * Sets the type of the runtime-level lock (default is reentrant).
+     * <p>
+     * Use {@link RuntimeLockType#PERTHREAD} with many threads sending events so that event processing threads
+     * do not contend on the lock. Deploying and undeploying then waits for all event processing threads to
+     * complete their current event.
+     *
+     * @param runtimeLockType lock type
+     */
+    public void setRuntimeLockType(RuntimeLockType runtimeLockType) {
+        this.runtimeLockType = runtimeLockType;
+    }
+
     /**
      * In multithreaded environments, this setting controls whether named window dispatches to named window consumers preserve
      * the order of events inserted and removed such that statements that consume a named windows delta stream
@@ -84,6 +84,19 @@ public interface EPMetricsService {
      */
     void iterateStatementGroups(Consumer<EPMetricsStatementGroup> consumer);
 
+    /**
+     * Iterate the filter evaluation metrics per event type, for the event types that have filters.
+     * <p>
+     *     The number of events evaluated and filters matched are always counted. The evaluation time and the counters
+     *     per filter index are maintained only when filter metrics are enabled by the runtime execution configuration,
+     *     see {@link com.espertech.esper.common.client.configuration.runtime.ConfigurationRuntimeExecution#setFilterMetrics(boolean)},
+     *     and are zero otherwise. They do not require metrics reporting to be enabled.
+     *     This takes a snapshot of the counters and of the filter index trees under the filter service read lock.
+     * </p>
+     * @param consumer of event type filter metrics
+     */
+    void iterateFilterMetrics(Consumer<FilterEventTypeMetric> consumer);
+
     /**
      * Returns the current runtime metric.
      * <p>
@@ -0,0 +1,109 @@
+/*
+ ***************************************************************************************
+ *  Copyright (C) 2006 EsperTech, Inc. All rights reserved.                            *
+ *  http://www.espertech.com/esper                                                     *
+ *  http://www.espertech.com                                                           *
+ *  ---------------------------------------------------------------------------------- *
+ *  The software in this package is published under the terms of the GPL license       *
+ *  a copy of which has been included with this distribution in the license.txt file.  *
+ ***************************************************************************************
+ */
+package com.espertech.esper.common.client.metric;
+
+import java.util.List;
+
+/**
+ * Reports the filter evaluation counters of an event type, in the query API for filter metrics.
+ * <p>
+ * The counters for events evaluated, handles matched and evaluation time are cumulative since runtime initialization
+ * or the last reset of the filter service statistics. Events are counted for their own event type, including
+ * the matches of filters for any supertypes.
+ * </p>
+ */
+public class FilterEventTypeMetric {
+    private final String eventTypeName;
+    private final long numEventsEvaluated;
+    private final long numMatches;
+    private final long evaluationTimeNanos;
+    private final List<FilterIndexMetric> indexes;
+
+    /**
+     * Ctor.
+     * @param eventTypeName       event type name
+     * @param numEventsEvaluated  number of events evaluated
+     * @param numMatches          number of filter handles matched
+     * @param evaluationTimeNanos wall time spent evaluating in nanoseconds
+     * @param indexes             filter parameter indexes of the filter index tree of the event type
+     */
+    public FilterEventTypeMetric(String eventTypeName, long numEventsEvaluated, long numMatches, long evaluationTimeNanos, List<FilterIndexMetric> indexes) {
+        this.eventTypeName = eventTypeName;
+        this.numEventsEvaluated = numEventsEvaluated;
+        this.numMatches = numMatches;
+        this.evaluationTimeNanos = evaluationTimeNanos;
+        this.indexes = indexes;
+    }
+
+    /**
+     * Returns the event type name
+     * @return event type name
+     */
+    public String getEventTypeName() {
+        return eventTypeName;
+    }
+
+    /**
+     * Returns the number of events of the type that were evaluated
+     * @return number of events evaluated
+     */
+    public long getNumEventsEvaluated() {
+        return numEventsEvaluated;
+    }
+
+    /**
+     * Returns the number of filter handles that matched events of the type
+     * @return number of matches
+     */
+    public long getNumMatches() {
+        return numMatches;
+    }
+
+    /**
+     * Returns the wall time spent evaluating events of the type, in nanoseconds
+     * @return evaluation time
+     */
+    public long getEvaluationTimeNanos() {
+        return evaluationTimeNanos;
+    }
+
+    /**
+     * Returns the number of lookups of all indexes of the filter index tree of the event type, which is the
+     * number of index nodes visited by events
+     * @return number of index lookups
+     */
+    public long getNumIndexLookups() {
+        long count = 0;
+        for (FilterIndexMetric index : indexes) {
+            count += index.getNumLookups();
+        }
+        return count;
+    }
+
+    /**
+     * Returns the filter parameter indexes of the filter index tree of the event type
+     * @return indexes
+     */
+    public List<FilterIndexMetric> getIndexes() {
+        return indexes;
+    }
+
+    public String toString() {
+        return "FilterEventTypeMetric{" +
+            "eventTypeName='" + eventTypeName + '\'' +
+            ", numEventsEvaluated=" + numEventsEvaluated +
+            ", numMatches=" + numMatches +
+            ", evaluationTimeNanos=" + evaluationTimeNanos +
+            ", numIndexLookups=" + getNumIndexLookups() +
+            ", indexes=" + indexes +
+            '}';
+    }
+}
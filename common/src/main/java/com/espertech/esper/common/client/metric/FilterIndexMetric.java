@@ -0,0 +1,100 @@
+/*
+ ***************************************************************************************
+ *  Copyright (C) 2006 EsperTech, Inc. All rights reserved.                            *
+ *  http://www.espertech.com/esper                                                     *
+ *  http://www.espertech.com                                                           *
+ *  ---------------------------------------------------------------------------------- *
+ *  The software in this package is published under the terms of the GPL license       *
+ *  a copy of which has been included with this distribution in the license.txt file.  *
+ ***************************************************************************************
+ */
+package com.espertech.esper.common.client.metric;
+
+/**
+ * Reports the counters of a filter parameter index, in the query API for filter metrics.
+ * <p>
+ * The counters are approximate as threads may increment concurrently, and start at zero when the filter index tree
+ * of the event type is rebuilt.
+ * </p>
+ */
+public class FilterIndexMetric {
+    private final String expression;
+    private final String filterOperator;
+    private final int size;
+    private final long numLookups;
+    private final long numForwarded;
+
+    /**
+     * Ctor.
+     * @param expression     indexed expression
+     * @param filterOperator filter operator name
+     * @param size           number of filter parameter constants in the index
+     * @param numLookups     number of events that the index evaluated
+     * @param numForwarded   number of times that the index passed an event to the evaluator of a matching constant
+     */
+    public FilterIndexMetric(String expression, String filterOperator, int size, long numLookups, long numForwarded) {
+        this.expression = expression;
+        this.filterOperator = filterOperator;
+        this.size = size;
+        this.numLookups = numLookups;
+        this.numForwarded = numForwarded;
+    }
+
+    /**
+     * Returns the indexed expression, typically the event property name
+     * @return expression
+     */
+    public String getExpression() {
+        return expression;
+    }
+
+    /**
+     * Returns the filter operator name, such as EQUAL or GREATER
+     * @return filter operator
+     */
+    public String getFilterOperator() {
+        return filterOperator;
+    }
+
+    /**
+     * Returns the number of filter parameter constants in the index
+     * @return size
+     */
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * Returns the number of events that the index evaluated
+     * @return number of lookups
+     */
+    public long getNumLookups() {
+        return numLookups;
+    }
+
+    /**
+     * Returns the number of times that the index passed an event to the evaluator of a matching constant
+     * @return number forwarded
+     */
+    public long getNumForwarded() {
+        return numForwarded;
+    }
+
+    /**
+     * Returns the average number of evaluators that the index passed an event to, or -1 if the index did not evaluate events
+     * @return average fan-out
+     */
+    public double getFanOut() {
+        return numLookups == 0 ? -1 : (double) numForwarded / numLookups;
+    }
+
+    public String toString() {
+        return "FilterIndexMetric{" +
+            "expression='" + expression + '\'' +
+            ", filterOperator=" + filterOperator +
+            ", size=" + size +
+            ", numLookups=" + numLookups +
+            ", numForwarded=" + numForwarded +
+            '}';
+    }
+}
@@ -22,5 +22,11 @@ public enum FilterServiceProfile {
     /**
      * For very dynamic filters that come and go in a highly threaded environment.
      */
-    READWRITE
+    READWRITE,
+
+    /**
+     * For very dynamic filters that come and go while many threads send events, evaluates events without locking
+     * against a published copy of the filter indexes.
+     */
+    READCOPYUPDATE
 }
@@ -0,0 +1,31 @@
+/*
+ ***************************************************************************************
+ *  Copyright (C) 2006 EsperTech, Inc. All rights reserved.                            *
+ *  http://www.espertech.com/esper                                                     *
+ *  http://www.espertech.com                                                           *
+ *  ---------------------------------------------------------------------------------- *
+ *  The software in this package is published under the terms of the GPL license       *
+ *  a copy of which has been included with this distribution in the license.txt file.  *
+ ***************************************************************************************
+ */
+package com.espertech.esper.common.client.util;
+
+/**
+ * Enumeration of the techniques that ring-buffer threading consumers and producers use to wait for work or for free capacity.
+ */
+public enum RingBufferWaitStrategy {
+    /**
+     * Busy-spin, keeps the thread on the CPU and provides the lowest latency at the cost of fully using a core per waiting thread.
+     */
+    BUSY_SPIN,
+
+    /**
+     * Yield the thread, good for low latency when there are more cores than busy threads.
+     */
+    YIELD,
+
+    /**
+     * Park the thread for a short time, the default, trading some latency for not consuming CPU when idle.
+     */
+    PARK
+}
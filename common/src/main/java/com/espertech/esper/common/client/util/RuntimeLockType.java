@@ -0,0 +1,29 @@
+/*
+ ***************************************************************************************
+ *  Copyright (C) 2006 EsperTech, Inc. All rights reserved.                            *
+ *  http://www.espertech.com/esper                                                     *
+ *  http://www.espertech.com                                                           *
+ *  ---------------------------------------------------------------------------------- *
+ *  The software in this package is published under the terms of the GPL license       *
+ *  a copy of which has been included with this distribution in the license.txt file.  *
+ ***************************************************************************************
+ */
+package com.espertech.esper.common.client.util;
+
+/**
+ * Type of the runtime-wide event processing read-write lock that coordinates event processing threads
+ * with threads that deploy and undeploy.
+ */
+public enum RuntimeLockType {
+    /**
+     * Lock based on {@link java.util.concurrent.locks.ReentrantReadWriteLock}, the default.
+     */
+    REENTRANT,
+
+    /**
+     * Lock that keeps a read-lock counter per thread so that acquiring and releasing the read lock does not write
+     * to memory shared with other event processing threads, for use with many threads sending events.
+     * Acquiring the write lock waits for all read locks to be released and is more expensive.
+     */
+    PERTHREAD
+}
@@ -0,0 +1,26 @@
+/*
+ ***************************************************************************************
+ *  Copyright (C) 2006 EsperTech, Inc. All rights reserved.                            *
+ *  http://www.espertech.com/esper                                                     *
+ *  http://www.espertech.com                                                           *
+ *  ---------------------------------------------------------------------------------- *
+ *  The software in this package is published under the terms of the GPL license       *
+ *  a copy of which has been included with this distribution in the license.txt file.  *
+ ***************************************************************************************
+ */
+package com.espertech.esper.common.client.util;
+
+/**
+ * Scheduling service profile.
+ */
+public enum SchedulingServiceProfile {
+    /**
+     * Schedules kept in a sorted map by time, the default.
+     */
+    SORTED,
+
+    /**
+     * Schedules kept in a hierarchical timing wheel, for a large number of schedules that come and go frequently.
+     */
+    TIMINGWHEEL
+}
@@ -0,0 +1,170 @@
+/*
+ ***************************************************************************************
+ *  Copyright (C) 2006 EsperTech, Inc. All rights reserved.                            *
+ *  http://www.espertech.com/esper                                                     *
+ *  http://www.espertech.com                                                           *
+ *  ---------------------------------------------------------------------------------- *
+ *  The software in this package is published under the terms of the GPL license       *
+ *  a copy of which has been included with this distribution in the license.txt file.  *
+ ***************************************************************************************
+ */
+package com.espertech.esper.common.internal.collection;
+
+import com.espertech.esper.common.client.type.EPTypeClass;
+
+import java.util.Arrays;
+
+/**
+ * Minimum or maximum of the values of a sliding window that removes values in the same order they were added,
+ * such as a length or time window, based on a monotonic deque that stores values and a reference counter for each value.
+ * <p>
+ * Adding a value first drops the values at the end of the deque that cannot become the minimum (or maximum) anymore, as they
+ * leave the window before the added value. Removing the value at the front of the deque decreases its reference counter.
+ * Adding and removing therefore take amortized constant time and the deque only holds the values that can still become
+ * the minimum (or maximum), instead of all values of the window.
+ * <p>
+ * Values must be removed in the order they were added, a value that is not at the front of the deque has already been dropped.
+ */
+public class SlidingMinMaxDeque<K> {
+    public final static EPTypeClass EPTYPE = new EPTypeClass(SlidingMinMaxDeque.class);
+
+    private final boolean max;
+    private Object[] values;
+    private int[] counts;
+    private int head;
+    private int size;
+
+    /**
+     * Constructor.
+     *
+     * @param max true for maximum, false for minimum
+     */
+    public SlidingMinMaxDeque(boolean max) {
+        this.max = max;
+        this.values = new Object[8];
+        this.counts = new int[8];
+    }
+
+    /**
+     * Add a value that is the latest value of the window.
+     *
+     * @param value to add
+     */
+    public void add(K value) {
+        while (size > 0) {
+            int last = (head + size - 1) & (values.length - 1);
+            int compared = compare(value, values[last]);
+            if (compared == 0) {
+                counts[last]++;
+                return;
+            }
+            if (compared > 0) {
+                break;
+            }
+            values[last] = null;
+            size--;
+        }
+        addLast(value, 1);
+    }
+
+    /**
+     * Remove a value that is the oldest value of the window.
+     *
+     * @param value to remove
+     */
+    public void remove(K value) {
+        if (size == 0 || compare(value, values[head]) != 0) {
+            return;
+        }
+        if (--counts[head] == 0) {
+            values[head] = null;
+            head = (head + 1) & (values.length - 1);
+            size--;
+        }
+    }
+
+    /**
+     * Returns the minimum (or maximum) value or null if there are no values.
+     *
+     * @return min or max value
+     */
+    public K getValue() {
+        return size == 0 ? null : (K) values[head];
+    }
+
+    /**
+     * Clear out the collection.
+     */
+    public void clear() {
+        Arrays.fill(values, null);
+        head = 0;
+        size = 0;
+    }
+
+    public boolean isMax() {
+        return max;
+    }
+
+    /**
+     * Returns the number of distinct values held.
+     *
+     * @return size
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns a value held, the first value being the current minimum (or maximum).
+     *
+     * @param index position starting at zero
+     * @return value
+     */
+    public K getValueAt(int index) {
+        return (K) values[(head + index) & (values.length - 1)];
+    }
+
+    /**
+     * Returns the reference count of a value held.
+     *
+     * @param index position starting at zero
+     * @return reference count
+     */
+    public int getCountAt(int index) {
+        return counts[(head + index) & (values.length - 1)];
+    }
+
+    /**
+     * Append a value with the given number of references, for use when reading the state. The value must come after the last value held.
+     *
+     * @param value value
+     * @param count number of references
+     */
+    public void addLast(K value, int count) {
+        if (size == values.length) {
+            grow();
+        }
+        int tail = (head + size) & (values.length - 1);
+        values[tail] = value;
+        counts[tail] = count;
+        size++;
+    }
+
+    private int compare(Object value, Object other) {
+        int compared = ((Comparable) value).compareTo(other);
+        return max ? -compared : compared;
+    }
+
+    private void grow() {
+        Object[] newValues = new Object[values.length * 2];
+        int[] newCounts = new int[counts.length * 2];
+        for (int i = 0; i < size; i++) {
+            int index = (head + i) & (values.length - 1);
+            newValues[i] = values[index];
+            newCounts[i] = counts[index];
+        }
+        values = newValues;
+        counts = newCounts;
+        head = 0;
+    }
+}
@@ -0,0 +1,397 @@
+/*
+ ***************************************************************************************
+ *  Copyright (C) 2006 EsperTech, Inc. All rights reserved.                            *
+ *  http://www.espertech.com/esper                                                     *
+ *  http://www.espertech.com                                                           *
+ *  ---------------------------------------------------------------------------------- *
+ *  The software in this package is published under the terms of the GPL license       *
+ *  a copy of which has been included with this distribution in the license.txt file.  *
+ ***************************************************************************************
+ */
+package com.espertech.esper.common.internal.collection;
+
+import com.espertech.esper.common.client.type.EPTypeClass;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Sorted collection of double values that keeps duplicates, based on a B+ tree that keeps the values in primitive
+ * double arrays at the leaves and keeps the number of values of each subtree at the inner nodes.
+ * <p>
+ * Adding a value, removing a value, obtaining the value at a given index and obtaining the rank of a value
+ * each take O(log n) and do not box values.
+ * <p>
+ * NaN values are ignored.
+ */
+public class SortedDoubleTree {
+    public final static EPTypeClass EPTYPE = new EPTypeClass(SortedDoubleTree.class);
+
+    private final static int LEAF_CAPACITY = 64;
+    private final static int INNER_CAPACITY = 32;
+
+    private Node root;
+
+    /**
+     * Constructor.
+     */
+    public SortedDoubleTree() {
+        root = new Leaf();
+    }
+
+    /**
+     * Clear out the collection.
+     */
+    public void clear() {
+        root = new Leaf();
+    }
+
+    /**
+     * Returns the number of items in the collection.
+     *
+     * @return size
+     */
+    public int size() {
+        return root.count;
+    }
+
+    /**
+     * Returns the value at a given index, the first value being the smallest value.
+     *
+     * @param index for which to return value for
+     * @return value at index
+     */
+    public double getValue(int index) {
+        if (index < 0 || index >= root.count) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for size " + root.count);
+        }
+        Node node = root;
+        while (node instanceof Inner) {
+            Inner inner = (Inner) node;
+            int i = 0;
+            while (index >= inner.children[i].count) {
+                index -= inner.children[i].count;
+                i++;
+            }
+            node = inner.children[i];
+        }
+        return ((Leaf) node).values[index];
+    }
+
+    /**
+     * Returns the number of values that are less than the value provided.
+     *
+     * @param value value
+     * @return rank
+     */
+    public int rank(double value) {
+        int rank = 0;
+        Node node = root;
+        while (node instanceof Inner) {
+            Inner inner = (Inner) node;
+            int i = 0;
+            while (i < inner.size && inner.maxes[i] < value) {
+                rank += inner.children[i].count;
+                i++;
+            }
+            if (i == inner.size) {
+                return rank;
+            }
+            node = inner.children[i];
+        }
+        Leaf leaf = (Leaf) node;
+        return rank + lowerBound(leaf.values, leaf.count, value);
+    }
+
+    /**
+     * Add a value to the collection.
+     *
+     * @param value is the double-type value to add
+     */
+    public void add(double value) {
+        if (Double.isNaN(value)) {
+            return;
+        }
+        Node split = insert(root, value);
+        if (split != null) {
+            Inner newRoot = new Inner();
+            newRoot.append(root);
+            newRoot.append(split);
+            root = newRoot;
+        }
+    }
+
+    /**
+     * Remove a value from the collection.
+     *
+     * @param value to remove
+     */
+    public void remove(double value) {
+        if (Double.isNaN(value) || root.count == 0) {
+            return;
+        }
+        delete(root, value);
+        while (root instanceof Inner && ((Inner) root).size == 1) {
+            root = ((Inner) root).children[0];
+        }
+        if (root.count == 0) {
+            root = new Leaf();
+        }
+    }
+
+    /**
+     * Returns the values in ascending order.
+     *
+     * @return values
+     */
+    public double[] toArray() {
+        double[] result = new double[root.count];
+        copyValues(root, result, 0);
+        return result;
+    }
+
+    /**
+     * NOTE: Code-generation-invoked method, method name and parameter order matters
+     *
+     * @param output output
+     * @param tree   values
+     * @throws IOException io error
+     */
+    public static void writePoints(DataOutput output, SortedDoubleTree tree) throws IOException {
+        double[] values = tree.toArray();
+        output.writeInt(values.length);
+        for (double value : values) {
+            output.writeDouble(value);
+        }
+    }
+
+    /**
+     * NOTE: Code-generation-invoked method, method name and parameter order matters
+     *
+     * @param input input
+     * @return points
+     * @throws IOException io error
+     */
+    public static SortedDoubleTree readPoints(DataInput input) throws IOException {
+        SortedDoubleTree tree = new SortedDoubleTree();
+        int size = input.readInt();
+        for (int i = 0; i < size; i++) {
+            tree.add(input.readDouble());
+        }
+        return tree;
+    }
+
+    private static Node insert(Node node, double value) {
+        node.count++;
+        if (node instanceof Leaf) {
+            Leaf leaf = (Leaf) node;
+            int index = upperBound(leaf.values, leaf.count - 1, value);
+            System.arraycopy(leaf.values, index, leaf.values, index + 1, leaf.count - 1 - index);
+            leaf.values[index] = value;
+            return leaf.count > LEAF_CAPACITY ? leaf.split() : null;
+        }
+
+        Inner inner = (Inner) node;
+        int index = inner.childIndex(value);
+        if (index == inner.size) {
+            index = inner.size - 1;
+        }
+        Node split = insert(inner.children[index], value);
+        inner.maxes[index] = inner.children[index].max();
+        if (split == null) {
+            return null;
+        }
+        inner.insertChild(index + 1, split);
+        return inner.size > INNER_CAPACITY ? inner.split() : null;
+    }
+
+    private static boolean delete(Node node, double value) {
+        if (node instanceof Leaf) {
+            Leaf leaf = (Leaf) node;
+            int index = lowerBound(leaf.values, leaf.count, value);
+            if (index == leaf.count || leaf.values[index] != value) {
+                return false;
+            }
+            System.arraycopy(leaf.values, index + 1, leaf.values, index, leaf.count - index - 1);
+            leaf.count--;
+            return true;
+        }
+
+        // the first child with a largest value at or above the value holds the first occurrence of the value, if any
+        Inner inner = (Inner) node;
+        int index = inner.childIndex(value);
+        if (index == inner.size) {
+            return false;
+        }
+        Node child = inner.children[index];
+        if (!delete(child, value)) {
+            return false;
+        }
+        inner.count--;
+        if (child.count == 0) {
+            inner.removeChild(index);
+            return true;
+        }
+        inner.maxes[index] = child.max();
+        if (child.isUnderfull()) {
+            if (index + 1 < inner.size) {
+                inner.mergeIfFits(index);
+            } else if (index > 0) {
+                inner.mergeIfFits(index - 1);
+            }
+        }
+        return true;
+    }
+
+    private static int copyValues(Node node, double[] result, int offset) {
+        if (node instanceof Leaf) {
+            Leaf leaf = (Leaf) node;
+            System.arraycopy(leaf.values, 0, result, offset, leaf.count);
+            return offset + leaf.count;
+        }
+        Inner inner = (Inner) node;
+        for (int i = 0; i < inner.size; i++) {
+            offset = copyValues(inner.children[i], result, offset);
+        }
+        return offset;
+    }
+
+    private static int lowerBound(double[] values, int count, double value) {
+        int low = 0;
+        int high = count;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (values[mid] < value) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static int upperBound(double[] values, int count, double value) {
+        int low = 0;
+        int high = count;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (values[mid] <= value) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private abstract static class Node {
+        protected int count;
+
+        abstract double max();
+
+        abstract boolean isUnderfull();
+    }
+
+    private final static class Leaf extends Node {
+        private double[] values = new double[LEAF_CAPACITY + 1];
+
+        double max() {
+            return values[count - 1];
+        }
+
+        boolean isUnderfull() {
+            return count < LEAF_CAPACITY / 4;
+        }
+
+        Leaf split() {
+            Leaf right = new Leaf();
+            int half = count >> 1;
+            right.count = count - half;
+            System.arraycopy(values, half, right.values, 0, right.count);
+            count = half;
+            return right;
+        }
+    }
+
+    private final static class Inner extends Node {
+        private Node[] children = new Node[INNER_CAPACITY + 1];
+        private double[] maxes = new double[INNER_CAPACITY + 1];
+        private int size;
+
+        double max() {
+            return maxes[size - 1];
+        }
+
+        boolean isUnderfull() {
+            return size < INNER_CAPACITY / 4;
+        }
+
+        int childIndex(double value) {
+            int i = 0;
+            while (i < size && maxes[i] < value) {
+                i++;
+            }
+            return i;
+        }
+
+        void append(Node child) {
+            children[size] = child;
+            maxes[size] = child.max();
+            count += child.count;
+            size++;
+        }
+
+        void insertChild(int index, Node child) {
+            System.arraycopy(children, index, children, index + 1, size - index);
+            System.arraycopy(maxes, index, maxes, index + 1, size - index);
+            children[index] = child;
+            maxes[index] = child.max();
+            size++;
+        }
+
+        void removeChild(int index) {
+            System.arraycopy(children, index + 1, children, index, size - index - 1);
+            System.arraycopy(maxes, index + 1, maxes, index, size - index - 1);
+            size--;
+            children[size] = null;
+        }
+
+        void mergeIfFits(int index) {
+            Node left = children[index];
+            Node right = children[index + 1];
+            if (left instanceof Leaf) {
+                Leaf leftLeaf = (Leaf) left;
+                Leaf rightLeaf = (Leaf) right;
+                if (leftLeaf.count + rightLeaf.count > LEAF_CAPACITY) {
+                    return;
+                }
+                System.arraycopy(rightLeaf.values, 0, leftLeaf.values, leftLeaf.count, rightLeaf.count);
+                leftLeaf.count += rightLeaf.count;
+            } else {
+                Inner leftInner = (Inner) left;
+                Inner rightInner = (Inner) right;
+                if (leftInner.size + rightInner.size > INNER_CAPACITY) {
+                    return;
+                }
+                for (int i = 0; i < rightInner.size; i++) {
+                    leftInner.append(rightInner.children[i]);
+                }
+            }
+            maxes[index] = left.max();
+            removeChild(index + 1);
+        }
+
+        Inner split() {
+            Inner right = new Inner();
+            int half = size >> 1;
+            for (int i = half; i < size; i++) {
+                right.append(children[i]);
+                children[i] = null;
+            }
+            size = half;
+            count -= right.count;
+            return right;
+        }
+    }
+}
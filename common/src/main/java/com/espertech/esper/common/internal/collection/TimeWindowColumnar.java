@@ -0,0 +1,362 @@
+/*
+ ***************************************************************************************
+ *  Copyright (C) 2006 EsperTech, Inc. All rights reserved.                            *
+ *  http://www.espertech.com/esper                                                     *
+ *  http://www.espertech.com                                                           *
+ *  ---------------------------------------------------------------------------------- *
+ *  The software in this package is published under the terms of the GPL license       *
+ *  a copy of which has been included with this distribution in the license.txt file.  *
+ ***************************************************************************************
+ */
+package com.espertech.esper.common.internal.collection;
+
+import com.espertech.esper.common.client.EventBean;
+import com.espertech.esper.common.internal.view.core.DataWindowViewFactory;
+import com.espertech.esper.common.internal.view.core.ViewDataVisitor;
+
+import java.util.*;
+
+/**
+ * Container for events per timestamp, same as {@link TimeWindow}, that keeps timestamps and events in two parallel
+ * ring buffers, a primitive long array of timestamps and an array of events, instead of an object per time slot.
+ * <p>
+ * Each event added is assigned the next sequence number. The ring position of an event is its sequence number
+ * masked by the ring capacity, which is a power of two and doubles when the ring is full and halves when
+ * the ring is mostly empty after expiry.
+ * Removing an event leaves a null entry that is skipped by expiry and iteration and that is dropped when it
+ * becomes the oldest entry. When removal is supported, a reverse index maps each event to its sequence number
+ * using open addressing on primitive arrays.
+ * <p>
+ * Expiry counts the events to expire first and returns them as an array of that size, so that no
+ * intermediate collection is allocated.
+ * <p>
+ * It is assumed that the timestamp passed to the add method is ascending.
+ */
+public final class TimeWindowColumnar implements Iterable<EventBean> {
+    private static final int INITIAL_CAPACITY = 16;
+    private static final int MIN_SHRINK_CAPACITY = 1024;
+
+    private long[] timestamps;
+    private EventBean[] events;
+    private int mask;
+    private long head;
+    private long tail;
+    private int size;
+    private final ReverseIndex reverseIndex;
+
+    /**
+     * Ctor.
+     *
+     * @param isSupportRemoveStream true to indicate the time window should support effective removal of events
+     *                              in the window based on the remove stream events received, or false to not accomodate removal at all
+     */
+    public TimeWindowColumnar(boolean isSupportRemoveStream) {
+        this.timestamps = new long[INITIAL_CAPACITY];
+        this.events = new EventBean[INITIAL_CAPACITY];
+        this.mask = INITIAL_CAPACITY - 1;
+        this.reverseIndex = isSupportRemoveStream ? new ReverseIndex() : null;
+    }
+
+    /**
+     * Adjust expiry dates.
+     *
+     * @param delta delta to adjust for
+     */
+    public void adjust(long delta) {
+        for (long seq = head; seq < tail; seq++) {
+            timestamps[(int) seq & mask] += delta;
+        }
+    }
+
+    /**
+     * Adds event to the time window for the specified timestamp.
+     *
+     * @param timestamp - the time slot for the event
+     * @param bean      - event to add
+     */
+    public void add(long timestamp, EventBean bean) {
+        if (tail - head == timestamps.length) {
+            resize(timestamps.length << 1);
+        }
+        int slot = (int) tail & mask;
+        timestamps[slot] = timestamp;
+        events[slot] = bean;
+        if (reverseIndex != null) {
+            reverseIndex.put(bean, tail);
+        }
+        tail++;
+        size++;
+    }
+
+    /**
+     * Removes the event from the window, if remove stream handling is enabled.
+     *
+     * @param theEvent to remove
+     */
+    public void remove(EventBean theEvent) {
+        if (reverseIndex == null) {
+            throw new UnsupportedOperationException("Time window does not accept event removal");
+        }
+        long seq = reverseIndex.remove(theEvent);
+        if (seq < head) {
+            return;
+        }
+        int slot = (int) seq & mask;
+        EventBean existing = events[slot];
+        if (existing != null && existing.equals(theEvent)) {
+            events[slot] = null;
+            size--;
+            dropRemovedOldest();
+        }
+    }
+
+    /**
+     * Return and remove events with a timestamp earlier (less) then the timestamp passed in,
+     * returning the events expired.
+     *
+     * @param expireBefore is the timestamp from which on to keep events in the window
+     * @return events expired and removed from the window in the order added, or null if none expired
+     */
+    public EventBean[] expireEvents(long expireBefore) {
+        if (head == tail || timestamps[(int) head & mask] >= expireBefore) {
+            return null;
+        }
+
+        // determine the end of the expired range and the number of events within
+        long end = head;
+        int count = 0;
+        while (end < tail && timestamps[(int) end & mask] < expireBefore) {
+            if (events[(int) end & mask] != null) {
+                count++;
+            }
+            end++;
+        }
+
+        EventBean[] expired = count == 0 ? null : new EventBean[count];
+        int index = 0;
+        for (long seq = head; seq < end; seq++) {
+            int slot = (int) seq & mask;
+            EventBean bean = events[slot];
+            if (bean != null) {
+                expired[index++] = bean;
+                events[slot] = null;
+                if (reverseIndex != null) {
+                    reverseIndex.remove(bean);
+                }
+            }
+        }
+        head = end;
+        size -= count;
+        dropRemovedOldest();
+
+        if (timestamps.length > MIN_SHRINK_CAPACITY && tail - head < timestamps.length >>> 2) {
+            resize(timestamps.length >>> 1);
+        }
+        return expired;
+    }
+
+    /**
+     * Returns event iterator.
+     *
+     * @return iterator over events currently in window
+     */
+    public Iterator<EventBean> iterator() {
+        return new TimeWindowColumnarIterator();
+    }
+
+    /**
+     * Returns the oldest timestamp in the collection if there is at least one entry,
+     * else it returns null if the window is empty.
+     *
+     * @return null if empty, oldest timestamp if not empty
+     */
+    public Long getOldestTimestamp() {
+        if (head == tail) {
+            return null;
+        }
+        return timestamps[(int) head & mask];
+    }
+
+    /**
+     * Returns true if the window is currently empty.
+     *
+     * @return true if empty, false if not
+     */
+    public boolean isEmpty() {
+        return head == tail;
+    }
+
+    /**
+     * Returns the number of events in the window.
+     *
+     * @return number of events
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the number of entries of the reverse index, for testing purposes.
+     *
+     * @return number of entries or -1 when removal is not supported
+     */
+    public int getReverseIndexSize() {
+        return reverseIndex == null ? -1 : reverseIndex.count;
+    }
+
+    public void visitView(ViewDataVisitor viewDataVisitor, DataWindowViewFactory viewFactory) {
+        // provide the same time slot structure as the time window
+        ArrayDeque<TimeWindowPair> window = new ArrayDeque<>();
+        TimeWindowPair last = null;
+        for (long seq = head; seq < tail; seq++) {
+            int slot = (int) seq & mask;
+            EventBean bean = events[slot];
+            if (bean == null) {
+                continue;
+            }
+            if (last != null && last.getTimestamp() == timestamps[slot]) {
+                if (last.getEventHolder() instanceof List) {
+                    ((List<EventBean>) last.getEventHolder()).add(bean);
+                } else {
+                    List<EventBean> list = new ArrayList<>(4);
+                    list.add((EventBean) last.getEventHolder());
+                    list.add(bean);
+                    last.setEventHolder(list);
+                }
+                continue;
+            }
+            last = new TimeWindowPair(timestamps[slot], bean);
+            window.add(last);
+        }
+        viewDataVisitor.visitPrimary(window, false, viewFactory.getViewName(), size);
+    }
+
+    private void dropRemovedOldest() {
+        while (head < tail && events[(int) head & mask] == null) {
+            head++;
+        }
+    }
+
+    private void resize(int capacity) {
+        long[] newTimestamps = new long[capacity];
+        EventBean[] newEvents = new EventBean[capacity];
+        int newMask = capacity - 1;
+        for (long seq = head; seq < tail; seq++) {
+            newTimestamps[(int) seq & newMask] = timestamps[(int) seq & mask];
+            newEvents[(int) seq & newMask] = events[(int) seq & mask];
+        }
+        timestamps = newTimestamps;
+        events = newEvents;
+        mask = newMask;
+    }
+
+    private class TimeWindowColumnarIterator implements Iterator<EventBean> {
+        private long seq = head;
+
+        TimeWindowColumnarIterator() {
+            skipRemoved();
+        }
+
+        public boolean hasNext() {
+            return seq < tail;
+        }
+
+        public EventBean next() {
+            if (seq >= tail) {
+                throw new NoSuchElementException();
+            }
+            EventBean bean = events[(int) seq & mask];
+            seq++;
+            skipRemoved();
+            return bean;
+        }
+
+        private void skipRemoved() {
+            while (seq < tail && events[(int) seq & mask] == null) {
+                seq++;
+            }
+        }
+    }
+
+    /**
+     * Map of event to sequence number, by open addressing with linear probing.
+     */
+    private static final class ReverseIndex {
+        private EventBean[] keys = new EventBean[INITIAL_CAPACITY];
+        private long[] values = new long[INITIAL_CAPACITY];
+        private int count;
+
+        void put(EventBean key, long value) {
+            if ((count + 1) * 2 > keys.length) {
+                rehash(keys.length << 1);
+            }
+            int mask = keys.length - 1;
+            int slot = spread(key.hashCode()) & mask;
+            while (keys[slot] != null) {
+                if (keys[slot] == key || keys[slot].equals(key)) {
+                    values[slot] = value;
+                    return;
+                }
+                slot = (slot + 1) & mask;
+            }
+            keys[slot] = key;
+            values[slot] = value;
+            count++;
+        }
+
+        long remove(EventBean key) {
+            int mask = keys.length - 1;
+            int slot = spread(key.hashCode()) & mask;
+            while (keys[slot] != null) {
+                if (keys[slot] == key || keys[slot].equals(key)) {
+                    long value = values[slot];
+                    delete(slot);
+                    count--;
+                    return value;
+                }
+                slot = (slot + 1) & mask;
+            }
+            return -1;
+        }
+
+        private void delete(int slot) {
+            // shift back following entries of the same probe sequence
+            int mask = keys.length - 1;
+            int hole = slot;
+            int next = (slot + 1) & mask;
+            while (keys[next] != null) {
+                int ideal = spread(keys[next].hashCode()) & mask;
+                if (((next - ideal) & mask) >= ((next - hole) & mask)) {
+                    keys[hole] = keys[next];
+                    values[hole] = values[next];
+                    hole = next;
+                }
+                next = (next + 1) & mask;
+            }
+            keys[hole] = null;
+        }
+
+        private void rehash(int capacity) {
+            EventBean[] oldKeys = keys;
+            long[] oldValues = values;
+            keys = new EventBean[capacity];
+            values = new long[capacity];
+            int mask = capacity - 1;
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldKeys[i] == null) {
+                    continue;
+                }
+                int slot = spread(oldKeys[i].hashCode()) & mask;
+                while (keys[slot] != null) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+
+        private static int spread(int hash) {
+            return hash ^ (hash >>> 16);
+        }
+    }
+}
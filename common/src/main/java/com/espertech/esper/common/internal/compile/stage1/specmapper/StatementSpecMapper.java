@@ -25,6 +25,8 @@ import com.espertech.esper.common.internal.epl.agg.access.linear.AggregationAcce
 import com.espertech.esper.common.internal.epl.enummethod.dot.ExprLambdaGoesNode;
 import com.espertech.esper.common.internal.epl.expression.agg.accessagg.ExprAggMultiFunctionCountMinSketchNode;
 import com.espertech.esper.common.internal.epl.expression.agg.accessagg.ExprAggMultiFunctionLinearAccessNode;
+import com.espertech.esper.common.internal.epl.expression.agg.accessagg.ExprAggMultiFunctionHyperLogLogNode;
+import com.espertech.esper.common.internal.epl.expression.agg.accessagg.ExprAggMultiFunctionQuantileSketchNode;
 import com.espertech.esper.common.internal.epl.expression.agg.accessagg.ExprAggMultiFunctionSortedMinMaxByNode;
 import com.espertech.esper.common.internal.epl.expression.agg.accessagg.ExprPlugInMultiFunctionAggNode;
 import com.espertech.esper.common.internal.epl.expression.agg.method.*;
@@ -2241,12 +2243,23 @@ public class StatementSpecMapper {
             return new AvgProjectionExpression(sub.isDistinct());
         } else if (expr instanceof ExprNthAggNode) {
             return new PlugInProjectionExpression("nth", false);
+        } else if (expr instanceof ExprPercentileNode) {
+            ExprPercentileNode percentile = (ExprPercentileNode) expr;
+            return new PlugInProjectionExpression(percentile.getAggregationFunctionName(), percentile.isDistinct());
         } else if (expr instanceof ExprBetweenNode) {
             ExprBetweenNode between = (ExprBetweenNode) expr;
             return new BetweenExpression(between.isLowEndpointIncluded(), between.isHighEndpointIncluded(), between.isNotBetween());
         } else if (expr instanceof ExprAggMultiFunctionCountMinSketchNode) {
             ExprAggMultiFunctionCountMinSketchNode cmsNode = (ExprAggMultiFunctionCountMinSketchNode) expr;
             return new PlugInProjectionExpression(cmsNode.getAggregationFunctionName(), false);
+        } else if (expr instanceof ExprAggMultiFunctionQuantileSketchNode) {
+            ExprAggMultiFunctionQuantileSketchNode quantileSketchNode = (ExprAggMultiFunctionQuantileSketchNode) expr;
+            return new PlugInProjectionExpression(quantileSketchNode.getAggregationFunctionName(), false);
+        } else if (expr instanceof ExprAggMultiFunctionHyperLogLogNode) {
+            ExprAggMultiFunctionHyperLogLogNode hyperLogLogNode = (ExprAggMultiFunctionHyperLogLogNode) expr;
+            return new PlugInProjectionExpression(hyperLogLogNode.getAggregationFunctionName(), false);
+        } else if (expr instanceof ExprApproxDistinctNode) {
+            return new PlugInProjectionExpression("approxDistinct", false);
         } else if (expr instanceof ExprBitWiseNode) {
             ExprBitWiseNode node = (ExprBitWiseNode) expr;
             return new BitwiseOpExpression(node.getBitWiseOpEnum());
@@ -0,0 +1,94 @@
+/*
+ ***************************************************************************************
+ *  Copyright (C) 2006 EsperTech, Inc. All rights reserved.                            *
+ *  http://www.espertech.com/esper                                                     *
+ *  http://www.espertech.com                                                           *
+ *  ---------------------------------------------------------------------------------- *
+ *  The software in this package is published under the terms of the GPL license       *
+ *  a copy of which has been included with this distribution in the license.txt file.  *
+ ***************************************************************************************
+ */
+package com.espertech.esper.common.internal.compile.stage2;
+
+import com.espertech.esper.common.client.EventType;
+import com.espertech.esper.common.internal.epl.expression.core.ExprValidationException;
+import com.espertech.esper.common.internal.epl.pattern.core.EvalForgeNode;
+import com.espertech.esper.common.internal.epl.pattern.filter.EvalFilterForgeNode;
+import com.espertech.esper.common.internal.event.core.EventTypeUtility;
+import com.espertech.esper.common.internal.filterspec.FilterOperator;
+import com.espertech.esper.common.internal.filterspec.FilterSpecParamEventPropForge;
+
+import java.util.List;
+
+/**
+ * Plans the pattern-level correlation index for pattern filters such as "every a=A -&gt; b=B(id=a.id)".
+ * <p>
+ * A correlated filter node registers a single filter with the filter service for all its active state nodes and
+ * dispatches matching events by a hash lookup of the correlation key. A filter node is correlated when its filter
+ * compares only event properties to properties of prior tagged events using equals, when the pattern does not
+ * consume events, and when the filter event type is unrelated to the event types of all other filters of the pattern
+ * so that an event that starts a state node cannot also be dispatched to that state node.
+ * <p>
+ * Requires the "patterncorrelate" filter index hint. A correlated filter receives all events of its type, so
+ * without the hint the filter service equals-index keeps discarding events that do not match any waiting state node.
+ */
+public class FilterSpecCompilerCorrelationUtil {
+    public static void assignCorrelated(EvalForgeNode evalForgeNode, StatementRawInfo raw) throws ExprValidationException {
+        if (!FilterSpecCompilerIndexPlannerHelper.hasHint(FilterSpecCompilerIndexPlannerHint.PATTERNCORRELATE, raw)) {
+            return;
+        }
+        List<EvalFilterForgeNode> filterNodes = EvalNodeUtil.recursiveAnalyzeChildNodes(evalForgeNode).getFilterNodes();
+        if (filterNodes.size() < 2) {
+            return;
+        }
+        for (EvalFilterForgeNode filterNode : filterNodes) {
+            if (filterNode.getConsumptionLevel() != null) {
+                return;
+            }
+        }
+        for (EvalFilterForgeNode filterNode : filterNodes) {
+            if (isCorrelationFilter(filterNode.getFilterSpecCompiled()) && isTypeUnrelated(filterNode, filterNodes)) {
+                filterNode.setCorrelated(true);
+            }
+        }
+    }
+
+    private static boolean isCorrelationFilter(FilterSpecCompiled filterSpec) {
+        if (filterSpec == null || filterSpec.getOptionalPropertyEvaluator() != null) {
+            return false;
+        }
+        FilterSpecPlanForge plan = filterSpec.getParameters();
+        if (plan.getPaths().length != 1 || plan.getFilterConfirm() != null || plan.getFilterNegate() != null) {
+            return false;
+        }
+        FilterSpecPlanPathForge path = plan.getPaths()[0];
+        if (path.getPathNegate() != null || path.getTriplets().length == 0) {
+            return false;
+        }
+        for (FilterSpecPlanPathTripletForge triplet : path.getTriplets()) {
+            if (triplet.getTripletConfirm() != null ||
+                triplet.getParam().getClass() != FilterSpecParamEventPropForge.class ||
+                triplet.getParam().getFilterOperator() != FilterOperator.EQUAL) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isTypeUnrelated(EvalFilterForgeNode filterNode, List<EvalFilterForgeNode> filterNodes) {
+        EventType type = filterNode.getFilterSpecCompiled().getFilterForEventType();
+        for (EvalFilterForgeNode other : filterNodes) {
+            if (other == filterNode) {
+                continue;
+            }
+            if (other.getFilterSpecCompiled() == null) {
+                return false;
+            }
+            EventType otherType = other.getFilterSpecCompiled().getFilterForEventType();
+            if (EventTypeUtility.isTypeOrSubTypeOf(type, otherType) || EventTypeUtility.isTypeOrSubTypeOf(otherType, type)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
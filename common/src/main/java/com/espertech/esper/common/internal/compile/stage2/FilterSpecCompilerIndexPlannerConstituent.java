@@ -32,6 +32,8 @@ import static com.espertech.esper.common.internal.compile.stage2.FilterSpecCompi
 import static com.espertech.esper.common.internal.compile.stage2.FilterSpecCompilerIndexPlannerOrToInRewrite.rewriteOrToInIfApplicable;
 import static com.espertech.esper.common.internal.compile.stage2.FilterSpecCompilerIndexPlannerPlugInSingleRow.handlePlugInSingleRow;
 import static com.espertech.esper.common.internal.compile.stage2.FilterSpecCompilerIndexPlannerRange.handleRangeNode;
+import static com.espertech.esper.common.internal.compile.stage2.FilterSpecCompilerIndexPlannerStringPattern.handleLikeNode;
+import static com.espertech.esper.common.internal.compile.stage2.FilterSpecCompilerIndexPlannerStringPattern.handleRegexpNode;
 
 /**
  * Helper to compile (validate and optimize) filter expressions as used in pattern and filter-based streams.
@@ -91,6 +93,20 @@ public class FilterSpecCompilerIndexPlannerConstituent {
             }
         }
 
+        if (constituent instanceof ExprLikeNode) {
+            FilterSpecParamForge param = handleLikeNode((ExprLikeNode) constituent, raw);
+            if (param != null) {
+                return new FilterSpecPlanPathTripletForge(param, null);
+            }
+        }
+
+        if (constituent instanceof ExprRegexpNode) {
+            FilterSpecParamForge param = handleRegexpNode((ExprRegexpNode) constituent, raw);
+            if (param != null) {
+                return new FilterSpecPlanPathTripletForge(param, null);
+            }
+        }
+
         if (constituent instanceof ExprPlugInSingleRowNode) {
             FilterSpecParamForge param = handlePlugInSingleRow((ExprPlugInSingleRowNode) constituent);
             if (param != null) {
@@ -276,6 +276,10 @@ public class FilterSpecCompilerIndexPlannerHelper {
         if (config == ConfigurationCompilerExecution.FilterIndexPlanning.ADVANCED) {
             return true;
         }
+        return hasHint(requiredHint, raw);
+    }
+
+    protected static boolean hasHint(FilterSpecCompilerIndexPlannerHint requiredHint, StatementRawInfo raw) throws ExprValidationException {
         List<String> hints = HintEnum.FILTERINDEX.getHintAssignedValues(raw.getAnnotations());
         if (hints == null) {
             return false;
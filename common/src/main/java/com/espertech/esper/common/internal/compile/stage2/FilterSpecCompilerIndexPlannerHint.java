@@ -14,7 +14,9 @@ public enum FilterSpecCompilerIndexPlannerHint {
     LKUPCOMPOSITE("lkupcomposite"),
     VALUECOMPOSITE("valuecomposite"),
     BOOLCOMPOSITE("boolcomposite"),
-    CONDITIONS("condition");
+    CONDITIONS("condition"),
+    STRINGPATTERN("stringpattern"),
+    PATTERNCORRELATE("patterncorrelate");
 
     private final String nameLowercase;
 
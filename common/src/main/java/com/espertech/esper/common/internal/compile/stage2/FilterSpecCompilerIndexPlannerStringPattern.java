@@ -0,0 +1,71 @@
+/*
+ ***************************************************************************************
+ *  Copyright (C) 2006 EsperTech, Inc. All rights reserved.                            *
+ *  http://www.espertech.com/esper                                                     *
+ *  http://www.espertech.com                                                           *
+ *  ---------------------------------------------------------------------------------- *
+ *  The software in this package is published under the terms of the GPL license       *
+ *  a copy of which has been included with this distribution in the license.txt file.  *
+ ***************************************************************************************
+ */
+package com.espertech.esper.common.internal.compile.stage2;
+
+import com.espertech.esper.common.client.type.EPTypeClass;
+import com.espertech.esper.common.internal.epl.expression.core.ExprFilterOptimizableNode;
+import com.espertech.esper.common.internal.epl.expression.core.ExprFilterSpecLookupableForge;
+import com.espertech.esper.common.internal.epl.expression.core.ExprNode;
+import com.espertech.esper.common.internal.epl.expression.core.ExprValidationException;
+import com.espertech.esper.common.internal.epl.expression.ops.ExprLikeNode;
+import com.espertech.esper.common.internal.epl.expression.ops.ExprRegexpNode;
+import com.espertech.esper.common.internal.filterspec.FilterOperator;
+import com.espertech.esper.common.internal.filterspec.FilterSpecParamConstantForge;
+import com.espertech.esper.common.internal.filterspec.FilterSpecParamForge;
+
+import static com.espertech.esper.common.internal.compile.stage2.FilterSpecCompilerIndexPlannerHelper.hasHint;
+
+/**
+ * Plans the like and regexp filter indexes for "prop like 'constant'" and "prop regexp 'constant'" of a string-type
+ * property, when the statement has the "stringpattern" filter index hint. The indexes match any number of patterns
+ * with a single scan of the property value instead of evaluating each pattern.
+ */
+public class FilterSpecCompilerIndexPlannerStringPattern {
+    protected static FilterSpecParamForge handleLikeNode(ExprLikeNode constituent, StatementRawInfo raw) throws ExprValidationException {
+        // the index supports the default escape character only
+        if (constituent.isNot() || constituent.getChildNodes().length != 2) {
+            return null;
+        }
+        return handleStringPattern(constituent, FilterOperator.LIKE, raw);
+    }
+
+    protected static FilterSpecParamForge handleRegexpNode(ExprRegexpNode constituent, StatementRawInfo raw) throws ExprValidationException {
+        if (constituent.isNot()) {
+            return null;
+        }
+        return handleStringPattern(constituent, FilterOperator.REGEXP, raw);
+    }
+
+    private static FilterSpecParamForge handleStringPattern(ExprNode constituent, FilterOperator op, StatementRawInfo raw) throws ExprValidationException {
+        if (!hasHint(FilterSpecCompilerIndexPlannerHint.STRINGPATTERN, raw)) {
+            return null;
+        }
+        ExprNode left = constituent.getChildNodes()[0];
+        ExprNode right = constituent.getChildNodes()[1];
+        if (!(left instanceof ExprFilterOptimizableNode) || !right.getForge().getForgeConstantType().isCompileTimeConstant()) {
+            return null;
+        }
+        ExprFilterOptimizableNode filterOptimizableNode = (ExprFilterOptimizableNode) left;
+        if (!filterOptimizableNode.getFilterLookupEligible()) {
+            return null;
+        }
+        ExprFilterSpecLookupableForge lookupable = filterOptimizableNode.getFilterLookupable();
+        EPTypeClass returnType = lookupable.getReturnType();
+        if (returnType == null || returnType.getType() != String.class) {
+            return null;
+        }
+        Object pattern = right.getForge().getExprEvaluator().evaluate(null, true, null);
+        if (!(pattern instanceof String)) {
+            return null;
+        }
+        return new FilterSpecParamConstantForge(lookupable, op, pattern);
+    }
+}
@@ -174,6 +174,7 @@ public class StreamSpecCompiler {
         EvalRootForgeNode root = new EvalRootForgeNode(services.isAttachPatternText(), top, statementRawInfo.getAnnotations());
         List<StmtClassForgeableFactory> additionalForgeables = new ArrayList<>();
         recursiveCompile(top, tags, allowDuplicateTags, nodeStack, allTagNamesOrdered, streamNum, additionalForgeables, statementRawInfo, services);
+        FilterSpecCompilerCorrelationUtil.assignCorrelated(top, statementRawInfo);
 
         PatternCompileHook hook = (PatternCompileHook) ClasspathImportUtil.getAnnotationHook(statementRawInfo.getAnnotations(), HookType.INTERNAL_PATTERNCOMPILE, PatternCompileHook.class, services.getClasspathImportServiceCompileTime());
         if (hook != null) {
@@ -36,6 +36,17 @@ public class StatementForgeMethodSelectUtil {
         return result;
     }
 
+    protected static boolean[] getRemoveInInsertOrder(boolean[] isNamedWindow, List<ViewFactoryForge>[] views) {
+        boolean[] result = new boolean[views.length];
+        for (int i = 0; i < views.length; i++) {
+            if (isNamedWindow[i]) {
+                continue;
+            }
+            result[i] = ViewFactoryForgeUtil.isRemoveInInsertOrder(views[i]);
+        }
+        return result;
+    }
+
     static String[] determineStreamNames(StreamSpecCompiled[] streams) {
         String[] streamNames = new String[streams.length];
         for (int i = 0; i < streams.length; i++) {
@@ -64,7 +64,6 @@ import com.espertech.esper.common.internal.epl.resultset.core.*;
 import com.espertech.esper.common.internal.epl.rowrecog.core.RowRecogNFAViewFactoryForge;
 import com.espertech.esper.common.internal.epl.rowrecog.core.RowRecogNFAViewPlanUtil;
 import com.espertech.esper.common.internal.epl.rowrecog.core.RowRecogPlan;
-import com.espertech.esper.common.internal.epl.streamtype.StreamTypeService;
 import com.espertech.esper.common.internal.epl.streamtype.StreamTypeServiceImpl;
 import com.espertech.esper.common.internal.epl.subselect.*;
 import com.espertech.esper.common.internal.epl.table.compiletime.TableMetaData;
@@ -288,7 +287,8 @@ public class StmtForgeMethodSelectUtil {
 
         boolean[] hasIStreamOnly = getHasIStreamOnly(isNamedWindow, viewForges);
         boolean optionalStreamsIfAny = OuterJoinAnalyzer.optionalStreamsIfAny(statementSpec.getRaw().getOuterJoinDescList());
-        StreamTypeService typeService = new StreamTypeServiceImpl(streamEventTypes, streamNames, hasIStreamOnly, false, optionalStreamsIfAny);
+        StreamTypeServiceImpl typeService = new StreamTypeServiceImpl(streamEventTypes, streamNames, hasIStreamOnly, false, optionalStreamsIfAny);
+        typeService.setRemoveInInsertOrder(getRemoveInInsertOrder(isNamedWindow, viewForges));
 
         // Validate views that require validation, specifically streams that don't have
         // sub-views such as DB SQL joins
@@ -20,6 +20,7 @@ import com.espertech.esper.common.internal.context.util.EPStatementHandleCallbac
 import com.espertech.esper.common.internal.filterspec.FilterSpecActivatable;
 import com.espertech.esper.common.internal.filterspec.FilterValueSetParam;
 import com.espertech.esper.common.internal.filtersvc.FilterHandleCallback;
+import com.espertech.esper.common.internal.filtersvc.FilterServiceEntry;
 
 import java.util.Collection;
 
@@ -41,9 +42,6 @@ public class ContextControllerHashFilterEntry implements FilterHandleCallback, C
         this.filterHandle = new EPStatementHandleCallbackFilter(agentInstanceContext.getEpStatementAgentInstanceHandle(), this);
         FilterValueSetParam[][] addendum = ContextManagerUtil.computeAddendumNonStmt(parentPartitionKeys, item.getFilterSpecActivatable(), callback.getRealization());
         this.filterValueSet = item.getFilterSpecActivatable().getValueSet(null, addendum, agentInstanceContext, agentInstanceContext.getStatementContextFilterEvalEnv());
-        agentInstanceContext.getFilterService().add(item.getFilterSpecActivatable().getFilterForEventType(), filterValueSet, filterHandle);
-        long filtersVersion = agentInstanceContext.getFilterService().getFiltersVersion();
-        agentInstanceContext.getEpStatementAgentInstanceHandle().getStatementFilterVersion().setStmtFilterVersion(filtersVersion);
     }
 
     public void matchFound(EventBean theEvent, Collection<FilterHandleCallback> allStmtMatches) {
@@ -58,11 +56,8 @@ public class ContextControllerHashFilterEntry implements FilterHandleCallback, C
         return callback.getAgentInstanceContextCreate().getStatementContext().getStatementId();
     }
 
-    public void destroy() {
-        AgentInstanceContext agentInstanceContext = callback.getAgentInstanceContextCreate();
-        agentInstanceContext.getFilterService().remove(filterHandle, item.getFilterSpecActivatable().getFilterForEventType(), filterValueSet);
-        long filtersVersion = agentInstanceContext.getFilterService().getFiltersVersion();
-        agentInstanceContext.getEpStatementAgentInstanceHandle().getStatementFilterVersion().setStmtFilterVersion(filtersVersion);
+    public FilterServiceEntry getFilterServiceEntry() {
+        return new FilterServiceEntry(item.getFilterSpecActivatable().getFilterForEventType(), filterValueSet, filterHandle);
     }
 
     public EPStatementHandleCallbackFilter getFilterHandle() {
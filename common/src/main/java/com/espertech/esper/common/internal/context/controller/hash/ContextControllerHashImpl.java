@@ -15,10 +15,14 @@ import com.espertech.esper.common.internal.collection.IntSeqKey;
 import com.espertech.esper.common.internal.context.controller.core.ContextControllerFilterEntry;
 import com.espertech.esper.common.internal.context.mgr.ContextManagerRealization;
 import com.espertech.esper.common.internal.context.mgr.ContextPartitionInstantiationResult;
+import com.espertech.esper.common.internal.context.util.AgentInstanceContext;
 import com.espertech.esper.common.internal.context.util.AgentInstanceTransferServices;
 import com.espertech.esper.common.internal.context.util.AgentInstanceUtil;
+import com.espertech.esper.common.internal.filtersvc.FilterServiceEntry;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
 import java.util.Map;
 import java.util.function.BiConsumer;
 
@@ -42,16 +46,25 @@ public class ContextControllerHashImpl extends ContextControllerHash {
 
         ContextControllerDetailHashItem[] hashItems = factory.getHashSpec().getItems();
         ContextControllerFilterEntry[] filterEntries = new ContextControllerFilterEntry[hashItems.length];
-
+        List<FilterServiceEntry> entries = new ArrayList<>(hashItems.length);
         for (int i = 0; i < hashItems.length; i++) {
-            ContextControllerDetailHashItem item = hashItems[i];
-            filterEntries[i] = new ContextControllerHashFilterEntry(this, path, item, parentPartitionKeys);
+            ContextControllerHashFilterEntry filterEntry = new ContextControllerHashFilterEntry(this, path, hashItems[i], parentPartitionKeys);
+            filterEntries[i] = filterEntry;
+            entries.add(filterEntry.getFilterServiceEntry());
+        }
 
-            if (optionalTriggeringEvent != null) {
-                boolean match = AgentInstanceUtil.evaluateFilterForStatement(optionalTriggeringEvent, realization.getAgentInstanceContextCreate(), filterEntries[i].getFilterHandle());
+        // start the filters of all hash items in a single filter change
+        AgentInstanceContext agentInstanceContext = realization.getAgentInstanceContextCreate();
+        agentInstanceContext.getFilterService().addAll(entries);
+        long filtersVersion = agentInstanceContext.getFilterService().getFiltersVersion();
+        agentInstanceContext.getEpStatementAgentInstanceHandle().getStatementFilterVersion().setStmtFilterVersion(filtersVersion);
+
+        if (optionalTriggeringEvent != null) {
+            for (int i = 0; i < hashItems.length; i++) {
+                boolean match = AgentInstanceUtil.evaluateFilterForStatement(optionalTriggeringEvent, agentInstanceContext, filterEntries[i].getFilterHandle());
 
                 if (match) {
-                    matchFound(item, optionalTriggeringEvent, path);
+                    matchFound(hashItems[i], optionalTriggeringEvent, path);
                 }
             }
         }
@@ -67,11 +80,17 @@ public class ContextControllerHashImpl extends ContextControllerHash {
             return;
         }
 
+        // stop the filters of all hash items in a single filter change
         ContextControllerFilterEntry[] filters = hashSvc.mgmtGetFilters(path);
         if (filters != null) {
+            List<FilterServiceEntry> entries = new ArrayList<>(filters.length);
             for (ContextControllerFilterEntry callback : filters) {
-                ((ContextControllerHashFilterEntry) callback).destroy();
+                entries.add(((ContextControllerHashFilterEntry) callback).getFilterServiceEntry());
             }
+            AgentInstanceContext agentInstanceContext = realization.getAgentInstanceContextCreate();
+            agentInstanceContext.getFilterService().removeAll(entries);
+            long filtersVersion = agentInstanceContext.getFilterService().getFiltersVersion();
+            agentInstanceContext.getEpStatementAgentInstanceHandle().getStatementFilterVersion().setStmtFilterVersion(filtersVersion);
         }
 
         Collection<Integer> subpathOrCPIds = hashSvc.deactivate(path);
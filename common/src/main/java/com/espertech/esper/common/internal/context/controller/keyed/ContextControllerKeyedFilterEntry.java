@@ -19,6 +19,7 @@ import com.espertech.esper.common.internal.context.util.EPStatementHandleCallbac
 import com.espertech.esper.common.internal.filterspec.FilterSpecActivatable;
 import com.espertech.esper.common.internal.filterspec.FilterValueSetParam;
 import com.espertech.esper.common.internal.filtersvc.FilterHandleCallback;
+import com.espertech.esper.common.internal.filtersvc.FilterServiceEntry;
 
 public abstract class ContextControllerKeyedFilterEntry implements FilterHandleCallback, ContextControllerFilterEntry {
 
@@ -37,7 +38,12 @@ public abstract class ContextControllerKeyedFilterEntry implements FilterHandleC
         this.parentPartitionKeys = parentPartitionKeys;
     }
 
-    public abstract void destroy();
+    /**
+     * Stop the filter, returning the filter for removal from the filter service by the caller.
+     *
+     * @return filter to remove or null if not started
+     */
+    public abstract FilterServiceEntry destroy();
 
     protected void start(FilterSpecActivatable activatable) {
         if (filterHandle != null) {
@@ -52,16 +58,14 @@ public abstract class ContextControllerKeyedFilterEntry implements FilterHandleC
         agentInstanceContext.getEpStatementAgentInstanceHandle().getStatementFilterVersion().setStmtFilterVersion(filtersVersion);
     }
 
-    protected void stop(FilterSpecActivatable activatable) {
+    protected FilterServiceEntry stop(FilterSpecActivatable activatable) {
         if (filterHandle == null) {
-            return;
+            return null;
         }
-        AgentInstanceContext agentInstanceContext = callback.getAgentInstanceContextCreate();
-        agentInstanceContext.getFilterService().remove(filterHandle, activatable.getFilterForEventType(), filterValueSet);
-        long filtersVersion = agentInstanceContext.getFilterService().getFiltersVersion();
-        agentInstanceContext.getEpStatementAgentInstanceHandle().getStatementFilterVersion().setStmtFilterVersion(filtersVersion);
+        FilterServiceEntry entry = new FilterServiceEntry(activatable.getFilterForEventType(), filterValueSet, filterHandle);
         filterHandle = null;
         filterValueSet = null;
+        return entry;
     }
 
     public boolean isSubSelect() {
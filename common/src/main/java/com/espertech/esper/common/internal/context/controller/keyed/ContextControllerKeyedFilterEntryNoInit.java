@@ -13,6 +13,7 @@ package com.espertech.esper.common.internal.context.controller.keyed;
 import com.espertech.esper.common.client.EventBean;
 import com.espertech.esper.common.internal.collection.IntSeqKey;
 import com.espertech.esper.common.internal.filtersvc.FilterHandleCallback;
+import com.espertech.esper.common.internal.filtersvc.FilterServiceEntry;
 
 import java.util.Collection;
 
@@ -27,7 +28,7 @@ public class ContextControllerKeyedFilterEntryNoInit extends ContextControllerKe
         callback.matchFound(item, theEvent, controllerPath, item.getAliasName());
     }
 
-    public void destroy() {
-        stop(item.getFilterSpecActivatable());
+    public FilterServiceEntry destroy() {
+        return stop(item.getFilterSpecActivatable());
     }
 }
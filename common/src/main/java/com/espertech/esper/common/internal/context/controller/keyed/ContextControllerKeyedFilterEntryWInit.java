@@ -14,6 +14,7 @@ import com.espertech.esper.common.client.EventBean;
 import com.espertech.esper.common.internal.collection.IntSeqKey;
 import com.espertech.esper.common.internal.context.controller.condition.ContextConditionDescriptorFilter;
 import com.espertech.esper.common.internal.filtersvc.FilterHandleCallback;
+import com.espertech.esper.common.internal.filtersvc.FilterServiceEntry;
 
 import java.util.Collection;
 
@@ -31,7 +32,7 @@ public class ContextControllerKeyedFilterEntryWInit extends ContextControllerKey
         callback.matchFound(item, theEvent, controllerPath, initCond.getOptionalFilterAsName());
     }
 
-    public void destroy() {
-        stop(initCond.getFilterSpecActivatable());
+    public FilterServiceEntry destroy() {
+        return stop(initCond.getFilterSpecActivatable());
     }
 }
@@ -17,13 +17,16 @@ import com.espertech.esper.common.internal.context.controller.core.ContextContro
 import com.espertech.esper.common.internal.context.mgr.ContextManagerRealization;
 import com.espertech.esper.common.internal.context.mgr.ContextPartitionInstantiationResult;
 import com.espertech.esper.common.internal.context.util.AgentInstance;
+import com.espertech.esper.common.internal.context.util.AgentInstanceContext;
 import com.espertech.esper.common.internal.context.util.AgentInstanceTransferServices;
 import com.espertech.esper.common.internal.context.util.AgentInstanceUtil;
 import com.espertech.esper.common.internal.context.util.FilterFaultHandler;
 import com.espertech.esper.common.internal.event.core.EventBeanTypedEventFactory;
 import com.espertech.esper.common.internal.filterspec.MatchedEventMap;
+import com.espertech.esper.common.internal.filtersvc.FilterServiceEntry;
 import com.espertech.esper.common.internal.util.CollectionUtil;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
@@ -48,9 +51,21 @@ public class ContextControllerKeyedImpl extends ContextControllerKeyed {
         if (path.length() != factory.getFactoryEnv().getNestingLevel() - 1) {
             throw new IllegalStateException("Unrecognized controller path");
         }
+
+        // stop the filters of all keyed items in a single filter change
         ContextControllerFilterEntry[] filters = keyedSvc.mgmtGetFilters(path);
+        List<FilterServiceEntry> entries = new ArrayList<>(filters.length);
         for (ContextControllerFilterEntry callback : filters) {
-            ((ContextControllerKeyedFilterEntry) callback).destroy();
+            FilterServiceEntry entry = ((ContextControllerKeyedFilterEntry) callback).destroy();
+            if (entry != null) {
+                entries.add(entry);
+            }
+        }
+        if (!entries.isEmpty()) {
+            AgentInstanceContext agentInstanceContext = realization.getAgentInstanceContextCreate();
+            agentInstanceContext.getFilterService().removeAll(entries);
+            long filtersVersion = agentInstanceContext.getFilterService().getFiltersVersion();
+            agentInstanceContext.getEpStatementAgentInstanceHandle().getStatementFilterVersion().setStmtFilterVersion(filtersVersion);
         }
 
         if (factory.getKeyedSpec().getOptionalTermination() != null) {
@@ -0,0 +1,39 @@
+/*
+ ***************************************************************************************
+ *  Copyright (C) 2006 EsperTech, Inc. All rights reserved.                            *
+ *  http://www.espertech.com/esper                                                     *
+ *  http://www.espertech.com                                                           *
+ *  ---------------------------------------------------------------------------------- *
+ *  The software in this package is published under the terms of the GPL license       *
+ *  a copy of which has been included with this distribution in the license.txt file.  *
+ ***************************************************************************************
+ */
+package com.espertech.esper.common.internal.epl.agg.access.hyperloglog;
+
+import com.espertech.esper.common.internal.epl.agg.core.AggregationAccessorForge;
+import com.espertech.esper.common.internal.epl.agg.core.AggregationAccessorForgeGetCodegenContext;
+
+import static com.espertech.esper.common.internal.bytecodemodel.model.expression.CodegenExpressionBuilder.constantNull;
+
+/**
+ * The value of a HyperLogLog table column is the state itself, so that the approxDistinct aggregation function can
+ * union the states of multiple rows.
+ */
+public class AggregationAccessorForgeHyperLogLog implements AggregationAccessorForge {
+    public void getValueCodegen(AggregationAccessorForgeGetCodegenContext context) {
+        AggregationStateHyperLogLogForge stateForge = (AggregationStateHyperLogLogForge) context.getAccessStateForge();
+        context.getMethod().getBlock().methodReturn(stateForge.aggregator.getState());
+    }
+
+    public void getEnumerableEventsCodegen(AggregationAccessorForgeGetCodegenContext context) {
+        context.getMethod().getBlock().methodReturn(constantNull());
+    }
+
+    public void getEnumerableEventCodegen(AggregationAccessorForgeGetCodegenContext context) {
+        context.getMethod().getBlock().methodReturn(constantNull());
+    }
+
+    public void getEnumerableScalarCodegen(AggregationAccessorForgeGetCodegenContext context) {
+        context.getMethod().getBlock().methodReturn(constantNull());
+    }
+}
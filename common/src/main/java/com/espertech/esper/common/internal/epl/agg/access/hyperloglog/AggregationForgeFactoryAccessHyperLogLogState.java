@@ -0,0 +1,65 @@
+/*
+ ***************************************************************************************
+ *  Copyright (C) 2006 EsperTech, Inc. All rights reserved.                            *
+ *  http://www.espertech.com/esper                                                     *
+ *  http://www.espertech.com                                                           *
+ *  ---------------------------------------------------------------------------------- *
+ *  The software in this package is published under the terms of the GPL license       *
+ *  a copy of which has been included with this distribution in the license.txt file.  *
+ ***************************************************************************************
+ */
+package com.espertech.esper.common.internal.epl.agg.access.hyperloglog;
+
+import com.espertech.esper.common.client.hook.aggmultifunc.AggregationMultiFunctionStateKey;
+import com.espertech.esper.common.client.type.EPType;
+import com.espertech.esper.common.internal.epl.agg.access.core.AggregationAgentForge;
+import com.espertech.esper.common.internal.epl.agg.access.core.AggregationForgeFactoryAccessBase;
+import com.espertech.esper.common.internal.epl.agg.core.AggregationAccessorForge;
+import com.espertech.esper.common.internal.epl.agg.core.AggregationPortableValidation;
+import com.espertech.esper.common.internal.epl.agg.core.AggregationStateFactoryForge;
+import com.espertech.esper.common.internal.epl.approx.hyperloglog.HyperLogLogAggState;
+import com.espertech.esper.common.internal.epl.expression.agg.accessagg.ExprAggMultiFunctionHyperLogLogNode;
+import com.espertech.esper.common.internal.epl.expression.agg.base.ExprAggregateNodeBase;
+import com.espertech.esper.common.internal.settings.ClasspathImportService;
+
+public class AggregationForgeFactoryAccessHyperLogLogState extends AggregationForgeFactoryAccessBase {
+    private final ExprAggMultiFunctionHyperLogLogNode parent;
+    private final AggregationStateHyperLogLogForge stateFactory;
+
+    public AggregationForgeFactoryAccessHyperLogLogState(ExprAggMultiFunctionHyperLogLogNode parent, AggregationStateHyperLogLogForge stateFactory) {
+        this.parent = parent;
+        this.stateFactory = stateFactory;
+    }
+
+    public EPType getResultType() {
+        return HyperLogLogAggState.EPTYPE;
+    }
+
+    public AggregationMultiFunctionStateKey getAggregationStateKey(boolean isMatchRecognize) {
+        throw new UnsupportedOperationException("State key not available as always used with tables");
+    }
+
+    public AggregationStateFactoryForge getAggregationStateFactory(boolean isMatchRecognize, boolean join) {
+        // For match-recognize we don't allow
+        if (isMatchRecognize) {
+            throw new IllegalStateException("HyperLogLog is not supported for match-recognize");
+        }
+        return stateFactory;
+    }
+
+    public AggregationAccessorForge getAccessorForge() {
+        return new AggregationAccessorForgeHyperLogLog();
+    }
+
+    public ExprAggregateNodeBase getAggregationExpression() {
+        return parent;
+    }
+
+    public AggregationAgentForge getAggregationStateAgent(ClasspathImportService classpathImportService, String statementName) {
+        throw new UnsupportedOperationException("Agent not available for state-function");
+    }
+
+    public AggregationPortableValidation getAggregationPortableValidation() {
+        return new AggregationPortableValidationHyperLogLog();
+    }
+}
@@ -0,0 +1,52 @@
+/*
+ ***************************************************************************************
+ *  Copyright (C) 2006 EsperTech, Inc. All rights reserved.                            *
+ *  http://www.espertech.com/esper                                                     *
+ *  http://www.espertech.com                                                           *
+ *  ---------------------------------------------------------------------------------- *
+ *  The software in this package is published under the terms of the GPL license       *
+ *  a copy of which has been included with this distribution in the license.txt file.  *
+ ***************************************************************************************
+ */
+package com.espertech.esper.common.internal.epl.agg.access.hyperloglog;
+
+import com.espertech.esper.common.client.hook.aggmultifunc.AggregationMultiFunctionMethodDesc;
+import com.espertech.esper.common.client.type.EPTypeClass;
+import com.espertech.esper.common.internal.bytecodemodel.base.CodegenClassScope;
+import com.espertech.esper.common.internal.bytecodemodel.base.CodegenMethodScope;
+import com.espertech.esper.common.internal.bytecodemodel.model.expression.CodegenExpression;
+import com.espertech.esper.common.internal.context.aifactory.core.ModuleTableInitializeSymbol;
+import com.espertech.esper.common.internal.epl.agg.core.AggregationForgeFactory;
+import com.espertech.esper.common.internal.epl.agg.core.AggregationPortableValidation;
+import com.espertech.esper.common.internal.epl.agg.core.AggregationValidationUtil;
+import com.espertech.esper.common.internal.epl.approx.hyperloglog.HyperLogLogAggMethod;
+import com.espertech.esper.common.internal.epl.expression.core.ExprNode;
+import com.espertech.esper.common.internal.epl.expression.core.ExprValidationContext;
+import com.espertech.esper.common.internal.epl.expression.core.ExprValidationException;
+
+import static com.espertech.esper.common.internal.bytecodemodel.model.expression.CodegenExpressionBuilder.newInstance;
+import static com.espertech.esper.common.internal.epl.expression.agg.accessagg.ExprAggMultiFunctionHyperLogLogNode.MSG_NAME;
+
+public class AggregationPortableValidationHyperLogLog implements AggregationPortableValidation {
+    public final static EPTypeClass EPTYPE = new EPTypeClass(AggregationPortableValidationHyperLogLog.class);
+
+    public void validateIntoTableCompatible(String tableExpression, AggregationPortableValidation intoTableAgg, String intoExpression, AggregationForgeFactory factory) throws ExprValidationException {
+        AggregationValidationUtil.validateAggregationType(this, tableExpression, intoTableAgg, intoExpression);
+    }
+
+    public CodegenExpression make(CodegenMethodScope parent, ModuleTableInitializeSymbol symbols, CodegenClassScope classScope) {
+        return newInstance(AggregationPortableValidationHyperLogLog.EPTYPE);
+    }
+
+    public boolean isAggregationMethod(String name, ExprNode[] parameters, ExprValidationContext validationContext) {
+        return HyperLogLogAggMethod.fromNameMayMatch(name) != null;
+    }
+
+    public AggregationMultiFunctionMethodDesc validateAggregationMethod(ExprValidationContext validationContext, String aggMethodName, ExprNode[] params) throws ExprValidationException {
+        HyperLogLogAggMethod aggMethod = HyperLogLogAggMethod.fromNameMayMatch(aggMethodName);
+        if (params.length != 0) {
+            throw new ExprValidationException(MSG_NAME + " aggregation function '" + aggMethod.getMethodName() + "' requires no parameter expressions");
+        }
+        return new AggregationMultiFunctionMethodDesc(new AggregationMethodHyperLogLogEstimateForge(), null, null, null);
+    }
+}
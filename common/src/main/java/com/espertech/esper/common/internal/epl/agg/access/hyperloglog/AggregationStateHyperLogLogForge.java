@@ -0,0 +1,44 @@
+/*
+ ***************************************************************************************
+ *  Copyright (C) 2006 EsperTech, Inc. All rights reserved.                            *
+ *  http://www.espertech.com/esper                                                     *
+ *  http://www.espertech.com                                                           *
+ *  ---------------------------------------------------------------------------------- *
+ *  The software in this package is published under the terms of the GPL license       *
+ *  a copy of which has been included with this distribution in the license.txt file.  *
+ ***************************************************************************************
+ */
+package com.espertech.esper.common.internal.epl.agg.access.hyperloglog;
+
+import com.espertech.esper.common.internal.bytecodemodel.base.CodegenClassScope;
+import com.espertech.esper.common.internal.bytecodemodel.base.CodegenMethodScope;
+import com.espertech.esper.common.internal.bytecodemodel.model.expression.CodegenExpression;
+import com.espertech.esper.common.internal.epl.agg.core.AggregationStateFactoryForge;
+import com.espertech.esper.common.internal.epl.agg.core.AggregatorAccess;
+import com.espertech.esper.common.internal.epl.approx.hyperloglog.HyperLogLogSpecForge;
+import com.espertech.esper.common.internal.epl.expression.agg.accessagg.ExprAggMultiFunctionHyperLogLogNode;
+import com.espertech.esper.common.internal.epl.expression.core.ExprNode;
+
+public class AggregationStateHyperLogLogForge implements AggregationStateFactoryForge {
+    protected final ExprAggMultiFunctionHyperLogLogNode parent;
+    protected final HyperLogLogSpecForge specification;
+    protected final AggregatorAccessHyperLogLog aggregator;
+
+    public AggregationStateHyperLogLogForge(ExprAggMultiFunctionHyperLogLogNode parent, HyperLogLogSpecForge specification) {
+        this.parent = parent;
+        this.specification = specification;
+        this.aggregator = new AggregatorAccessHyperLogLog(this);
+    }
+
+    public AggregatorAccess getAggregator() {
+        return aggregator;
+    }
+
+    public CodegenExpression codegenGetAccessTableState(int column, CodegenMethodScope parent, CodegenClassScope classScope) {
+        return AggregatorAccessHyperLogLog.codegenGetAccessTableState(column, parent, classScope);
+    }
+
+    public ExprNode getExpression() {
+        return parent;
+    }
+}
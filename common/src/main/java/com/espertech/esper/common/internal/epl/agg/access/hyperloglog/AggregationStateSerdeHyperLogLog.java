@@ -0,0 +1,77 @@
+/*
+ ***************************************************************************************
+ *  Copyright (C) 2006 EsperTech, Inc. All rights reserved.                            *
+ *  http://www.espertech.com/esper                                                     *
+ *  http://www.espertech.com                                                           *
+ *  ---------------------------------------------------------------------------------- *
+ *  The software in this package is published under the terms of the GPL license       *
+ *  a copy of which has been included with this distribution in the license.txt file.  *
+ ***************************************************************************************
+ */
+package com.espertech.esper.common.internal.epl.agg.access.hyperloglog;
+
+import com.espertech.esper.common.internal.epl.approx.hyperloglog.HyperLogLogAggState;
+import com.espertech.esper.common.internal.epl.approx.hyperloglog.HyperLogLogState;
+import com.espertech.esper.common.internal.fabric.FabricTypeCollector;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+public class AggregationStateSerdeHyperLogLog {
+    private final static short SERDE_VERSION = 1;
+
+    /**
+     * NOTE: Code-generation-invoked method, method name and parameter order matters
+     *
+     * @param output out
+     * @param state  state
+     * @throws IOException when there is a write exception
+     */
+    public static void writeHyperLogLog(DataOutput output, HyperLogLogAggState state) throws IOException {
+        writeState(output, state.getState());
+    }
+
+    /**
+     * NOTE: Code-generation-invoked method, method name and parameter order matters
+     *
+     * @param input in
+     * @return state
+     * @throws IOException when there is a read exception
+     */
+    public static HyperLogLogAggState readHyperLogLog(DataInput input) throws IOException {
+        return new HyperLogLogAggState(readState(input));
+    }
+
+    /**
+     * NOTE: Code-generation-invoked method, method name and parameter order matters
+     *
+     * @param output out
+     * @param state  state
+     * @throws IOException when there is a write exception
+     */
+    public static void writeState(DataOutput output, HyperLogLogState state) throws IOException {
+        output.writeShort(SERDE_VERSION);
+        output.writeByte(state.getPrecision());
+        output.write(state.getRegisters());
+    }
+
+    /**
+     * NOTE: Code-generation-invoked method, method name and parameter order matters
+     *
+     * @param input in
+     * @return state
+     * @throws IOException when there is a read exception
+     */
+    public static HyperLogLogState readState(DataInput input) throws IOException {
+        input.readShort(); // version
+        int precision = input.readByte();
+        byte[] registers = new byte[1 << precision];
+        input.readFully(registers);
+        return new HyperLogLogState(precision, registers);
+    }
+
+    public static void appendFormat(FabricTypeCollector collector, int precision) {
+        collector.hyperLogLog(precision);
+    }
+}
@@ -0,0 +1,45 @@
+/*
+ ***************************************************************************************
+ *  Copyright (C) 2006 EsperTech, Inc. All rights reserved.                            *
+ *  http://www.espertech.com/esper                                                     *
+ *  http://www.espertech.com                                                           *
+ *  ---------------------------------------------------------------------------------- *
+ *  The software in this package is published under the terms of the GPL license       *
+ *  a copy of which has been included with this distribution in the license.txt file.  *
+ ***************************************************************************************
+ */
+package com.espertech.esper.common.internal.epl.agg.access.quantilesketch;
+
+import com.espertech.esper.common.client.type.EPTypeClass;
+import com.espertech.esper.common.client.type.EPTypePremade;
+import com.espertech.esper.common.internal.bytecodemodel.base.CodegenClassScope;
+import com.espertech.esper.common.internal.bytecodemodel.base.CodegenMethod;
+import com.espertech.esper.common.internal.bytecodemodel.base.CodegenMethodScope;
+import com.espertech.esper.common.internal.bytecodemodel.model.expression.CodegenExpression;
+import com.espertech.esper.common.internal.context.aifactory.core.SAIFFInitializeSymbol;
+import com.espertech.esper.common.internal.epl.agg.core.AggregationMethodForge;
+import com.espertech.esper.common.internal.epl.expression.core.ExprNode;
+import com.espertech.esper.common.internal.epl.expression.core.ExprNodeUtilityCodegen;
+
+import static com.espertech.esper.common.internal.bytecodemodel.model.expression.CodegenExpressionBuilder.*;
+
+public class AggregationMethodQuantileSketchQuantileForge implements AggregationMethodForge {
+    private final ExprNode quantileEval;
+
+    public AggregationMethodQuantileSketchQuantileForge(ExprNode quantileEval) {
+        this.quantileEval = quantileEval;
+    }
+
+    public EPTypeClass getResultType() {
+        return EPTypePremade.DOUBLEBOXED.getEPType();
+    }
+
+    public CodegenExpression codegenCreateReader(CodegenMethodScope parent, SAIFFInitializeSymbol symbols, CodegenClassScope classScope) {
+        CodegenMethod method = parent.makeChild(AggregationMethodQuantileSketchQuantile.EPTYPE, this.getClass(), classScope);
+        method.getBlock()
+                .declareVarNewInstance(AggregationMethodQuantileSketchQuantile.EPTYPE, "strat")
+                .exprDotMethod(ref("strat"), "setQuantileEval", ExprNodeUtilityCodegen.codegenEvaluator(quantileEval.getForge(), method, this.getClass(), classScope))
+                .methodReturn(ref("strat"));
+        return localMethod(method);
+    }
+}
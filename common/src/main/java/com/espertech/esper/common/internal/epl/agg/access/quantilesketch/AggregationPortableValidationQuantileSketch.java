@@ -0,0 +1,79 @@
+/*
+ ***************************************************************************************
+ *  Copyright (C) 2006 EsperTech, Inc. All rights reserved.                            *
+ *  http://www.espertech.com/esper                                                     *
+ *  http://www.espertech.com                                                           *
+ *  ---------------------------------------------------------------------------------- *
+ *  The software in this package is published under the terms of the GPL license       *
+ *  a copy of which has been included with this distribution in the license.txt file.  *
+ ***************************************************************************************
+ */
+package com.espertech.esper.common.internal.epl.agg.access.quantilesketch;
+
+import com.espertech.esper.common.client.hook.aggmultifunc.AggregationMultiFunctionMethodDesc;
+import com.espertech.esper.common.client.type.EPTypeClass;
+import com.espertech.esper.common.internal.bytecodemodel.base.CodegenClassScope;
+import com.espertech.esper.common.internal.bytecodemodel.base.CodegenMethodScope;
+import com.espertech.esper.common.internal.bytecodemodel.model.expression.CodegenExpression;
+import com.espertech.esper.common.internal.context.aifactory.core.ModuleTableInitializeSymbol;
+import com.espertech.esper.common.internal.epl.agg.core.AggregationForgeFactory;
+import com.espertech.esper.common.internal.epl.agg.core.AggregationMethodForge;
+import com.espertech.esper.common.internal.epl.agg.core.AggregationPortableValidation;
+import com.espertech.esper.common.internal.epl.agg.core.AggregationValidationUtil;
+import com.espertech.esper.common.internal.epl.approx.quantilesketch.QuantileSketchAggMethod;
+import com.espertech.esper.common.internal.epl.expression.core.*;
+import com.espertech.esper.common.internal.util.ClassHelperPrint;
+import com.espertech.esper.common.internal.util.JavaClassHelper;
+
+import static com.espertech.esper.common.internal.bytecodemodel.model.expression.CodegenExpressionBuilder.newInstance;
+import static com.espertech.esper.common.internal.epl.expression.agg.accessagg.ExprAggMultiFunctionQuantileSketchNode.MSG_NAME;
+
+public class AggregationPortableValidationQuantileSketch implements AggregationPortableValidation {
+    public final static EPTypeClass EPTYPE = new EPTypeClass(AggregationPortableValidationQuantileSketch.class);
+
+    public void validateIntoTableCompatible(String tableExpression, AggregationPortableValidation intoTableAgg, String intoExpression, AggregationForgeFactory factory) throws ExprValidationException {
+        AggregationValidationUtil.validateAggregationType(this, tableExpression, intoTableAgg, intoExpression);
+
+        if (factory instanceof AggregationForgeFactoryAccessQuantileSketchAdd) {
+            AggregationForgeFactoryAccessQuantileSketchAdd add = (AggregationForgeFactoryAccessQuantileSketchAdd) factory;
+            Class clazz = add.getAddEvaluatorReturnType().getType();
+            if (!JavaClassHelper.isNumeric(clazz)) {
+                throw new ExprValidationException("Mismatching parameter return type, expected a numeric type but received " + ClassHelperPrint.getClassNameFullyQualPretty(clazz));
+            }
+        }
+    }
+
+    public CodegenExpression make(CodegenMethodScope parent, ModuleTableInitializeSymbol symbols, CodegenClassScope classScope) {
+        return newInstance(AggregationPortableValidationQuantileSketch.EPTYPE);
+    }
+
+    public boolean isAggregationMethod(String name, ExprNode[] parameters, ExprValidationContext validationContext) {
+        return QuantileSketchAggMethod.fromNameMayMatch(name) != null;
+    }
+
+    public AggregationMultiFunctionMethodDesc validateAggregationMethod(ExprValidationContext validationContext, String aggMethodName, ExprNode[] params) throws ExprValidationException {
+        QuantileSketchAggMethod aggMethod = QuantileSketchAggMethod.fromNameMayMatch(aggMethodName);
+        AggregationMethodForge forge;
+        if (aggMethod == QuantileSketchAggMethod.QUANTILE) {
+            if (params.length != 1) {
+                throw new ExprValidationException(getMessagePrefix(aggMethod) + "requires a single parameter expression");
+            }
+            ExprNodeUtilityValidate.getValidatedSubtree(ExprNodeOrigin.AGGPARAM, params, validationContext);
+            ExprNode quantileEval = params[0];
+            if (!JavaClassHelper.isNumeric(quantileEval.getForge().getEvaluationType())) {
+                throw new ExprValidationException(getMessagePrefix(aggMethod) + "requires a numeric quantile parameter expression");
+            }
+            forge = new AggregationMethodQuantileSketchQuantileForge(quantileEval);
+        } else {
+            if (params.length != 0) {
+                throw new ExprValidationException(getMessagePrefix(aggMethod) + "requires a no parameter expressions");
+            }
+            forge = new AggregationMethodQuantileSketchCountForge();
+        }
+        return new AggregationMultiFunctionMethodDesc(forge, null, null, null);
+    }
+
+    private String getMessagePrefix(QuantileSketchAggMethod aggType) {
+        return MSG_NAME + " aggregation function '" + aggType.getMethodName() + "' ";
+    }
+}
@@ -0,0 +1,81 @@
+/*
+ ***************************************************************************************
+ *  Copyright (C) 2006 EsperTech, Inc. All rights reserved.                            *
+ *  http://www.espertech.com/esper                                                     *
+ *  http://www.espertech.com                                                           *
+ *  ---------------------------------------------------------------------------------- *
+ *  The software in this package is published under the terms of the GPL license       *
+ *  a copy of which has been included with this distribution in the license.txt file.  *
+ ***************************************************************************************
+ */
+package com.espertech.esper.common.internal.epl.agg.access.quantilesketch;
+
+import com.espertech.esper.common.internal.epl.approx.quantilesketch.QuantileSketchAggState;
+import com.espertech.esper.common.internal.epl.approx.quantilesketch.QuantileSketchSpec;
+import com.espertech.esper.common.internal.epl.approx.quantilesketch.QuantileSketchSpecForge;
+import com.espertech.esper.common.internal.epl.approx.quantilesketch.QuantileSketchState;
+import com.espertech.esper.common.internal.fabric.FabricTypeCollector;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+public class AggregationStateSerdeQuantileSketch {
+    private final static short SERDE_VERSION = 1;
+
+    /**
+     * NOTE: Code-generation-invoked method, method name and parameter order matters
+     *
+     * @param output out
+     * @param state  state
+     * @throws IOException when there is a write exception
+     */
+    public static void writeQuantileSketch(DataOutput output, QuantileSketchAggState state) throws IOException {
+        writeState(output, state.getState());
+    }
+
+    /**
+     * NOTE: Code-generation-invoked method, method name and parameter order matters
+     *
+     * @param input in
+     * @param spec  spec
+     * @return state
+     * @throws IOException when there is a read exception
+     */
+    public static QuantileSketchAggState readQuantileSketch(DataInput input, QuantileSketchSpec spec) throws IOException {
+        return new QuantileSketchAggState(readState(input, spec.getCompression()));
+    }
+
+    private static void writeState(DataOutput output, QuantileSketchState value) throws IOException {
+        output.writeShort(SERDE_VERSION);
+        QuantileSketchState state = value.getFlushed();
+        output.writeDouble(state.getMin());
+        output.writeDouble(state.getMax());
+        int count = state.getCentroidCount();
+        double[] mean = state.getMean();
+        double[] weight = state.getWeight();
+        output.writeInt(count);
+        for (int i = 0; i < count; i++) {
+            output.writeDouble(mean[i]);
+            output.writeDouble(weight[i]);
+        }
+    }
+
+    private static QuantileSketchState readState(DataInput input, double compression) throws IOException {
+        input.readShort(); // version
+        double min = input.readDouble();
+        double max = input.readDouble();
+        int count = input.readInt();
+        double[] mean = new double[count];
+        double[] weight = new double[count];
+        for (int i = 0; i < count; i++) {
+            mean[i] = input.readDouble();
+            weight[i] = input.readDouble();
+        }
+        return new QuantileSketchState(compression, mean, weight, count, min, max);
+    }
+
+    public static void appendFormat(FabricTypeCollector collector, QuantileSketchSpecForge spec) {
+        collector.quantileSketch(spec);
+    }
+}
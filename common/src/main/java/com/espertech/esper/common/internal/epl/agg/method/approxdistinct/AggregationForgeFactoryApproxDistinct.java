@@ -0,0 +1,74 @@
+/*
+ ***************************************************************************************
+ *  Copyright (C) 2006 EsperTech, Inc. All rights reserved.                            *
+ *  http://www.espertech.com/esper                                                     *
+ *  http://www.espertech.com                                                           *
+ *  ---------------------------------------------------------------------------------- *
+ *  The software in this package is published under the terms of the GPL license       *
+ *  a copy of which has been included with this distribution in the license.txt file.  *
+ ***************************************************************************************
+ */
+package com.espertech.esper.common.internal.epl.agg.method.approxdistinct;
+
+import com.espertech.esper.common.client.EventType;
+import com.espertech.esper.common.client.type.EPType;
+import com.espertech.esper.common.client.type.EPTypeClass;
+import com.espertech.esper.common.client.type.EPTypePremade;
+import com.espertech.esper.common.internal.epl.agg.core.AggregationPortableValidation;
+import com.espertech.esper.common.internal.epl.agg.method.core.AggregationForgeFactoryBase;
+import com.espertech.esper.common.internal.epl.agg.method.core.AggregatorMethod;
+import com.espertech.esper.common.internal.epl.expression.agg.base.ExprAggregateNodeBase;
+import com.espertech.esper.common.internal.epl.expression.agg.method.ExprApproxDistinctNode;
+import com.espertech.esper.common.internal.epl.expression.agg.method.ExprMethodAggUtil;
+import com.espertech.esper.common.internal.epl.expression.core.ExprForge;
+import com.espertech.esper.common.internal.epl.expression.core.ExprNode;
+import com.espertech.esper.common.internal.epl.expression.core.ExprValidationException;
+
+public class AggregationForgeFactoryApproxDistinct extends AggregationForgeFactoryBase {
+    protected final ExprApproxDistinctNode parent;
+    protected final EPTypeClass aggregatedValueType;
+    protected final int precision;
+    protected final boolean union;
+    private final AggregatorMethod aggregator;
+
+    public AggregationForgeFactoryApproxDistinct(ExprApproxDistinctNode parent, EPTypeClass aggregatedValueType, int precision, boolean union) {
+        this.parent = parent;
+        this.aggregatedValueType = aggregatedValueType;
+        this.precision = precision;
+        this.union = union;
+        aggregator = new AggregatorApproxDistinct(this, parent.getOptionalFilter() != null, parent.getOptionalFilter());
+    }
+
+    public EPType getResultType() {
+        return EPTypePremade.LONGPRIMITIVE.getEPType();
+    }
+
+    public AggregatorMethod getAggregator() {
+        return aggregator;
+    }
+
+    public ExprAggregateNodeBase getAggregationExpression() {
+        return parent;
+    }
+
+    public ExprForge[] getMethodAggregationForge(boolean join, EventType[] typesPerStream) throws ExprValidationException {
+        // the precision is a constant and not an aggregated value
+        return ExprMethodAggUtil.getDefaultForges(new ExprNode[]{parent.getPositionalParams()[0]}, join, typesPerStream);
+    }
+
+    public AggregationPortableValidation getAggregationPortableValidation() {
+        return new AggregationPortableValidationApproxDistinct(parent.getOptionalFilter() != null, aggregatedValueType, precision);
+    }
+
+    public ExprApproxDistinctNode getParent() {
+        return parent;
+    }
+
+    public int getPrecision() {
+        return precision;
+    }
+
+    public boolean isUnion() {
+        return union;
+    }
+}
@@ -0,0 +1,98 @@
+/*
+ ***************************************************************************************
+ *  Copyright (C) 2006 EsperTech, Inc. All rights reserved.                            *
+ *  http://www.espertech.com/esper                                                     *
+ *  http://www.espertech.com                                                           *
+ *  ---------------------------------------------------------------------------------- *
+ *  The software in this package is published under the terms of the GPL license       *
+ *  a copy of which has been included with this distribution in the license.txt file.  *
+ ***************************************************************************************
+ */
+package com.espertech.esper.common.internal.epl.agg.method.approxdistinct;
+
+import com.espertech.esper.common.client.type.EPType;
+import com.espertech.esper.common.internal.bytecodemodel.base.CodegenClassScope;
+import com.espertech.esper.common.internal.bytecodemodel.base.CodegenMemberCol;
+import com.espertech.esper.common.internal.bytecodemodel.base.CodegenMethod;
+import com.espertech.esper.common.internal.bytecodemodel.core.CodegenCtor;
+import com.espertech.esper.common.internal.bytecodemodel.model.expression.CodegenExpression;
+import com.espertech.esper.common.internal.bytecodemodel.model.expression.CodegenExpressionMember;
+import com.espertech.esper.common.internal.bytecodemodel.model.expression.CodegenExpressionRef;
+import com.espertech.esper.common.internal.epl.agg.access.hyperloglog.AggregationStateSerdeHyperLogLog;
+import com.espertech.esper.common.internal.epl.agg.method.core.AggregatorMethodWDistinctWFilterWValueBase;
+import com.espertech.esper.common.internal.epl.approx.hyperloglog.HyperLogLogAggState;
+import com.espertech.esper.common.internal.epl.approx.hyperloglog.HyperLogLogState;
+import com.espertech.esper.common.internal.epl.expression.codegen.ExprForgeCodegenSymbol;
+import com.espertech.esper.common.internal.epl.expression.core.ExprForge;
+import com.espertech.esper.common.internal.epl.expression.core.ExprNode;
+import com.espertech.esper.common.internal.fabric.FabricTypeCollector;
+
+import static com.espertech.esper.common.internal.bytecodemodel.model.expression.CodegenExpressionBuilder.*;
+import static com.espertech.esper.common.internal.epl.agg.method.core.AggregatorCodegenUtil.rowDotMember;
+
+/**
+ * Approximate distinct count using HyperLogLog. When the aggregated values are HyperLogLog table column states,
+ * the aggregator computes the union of the states.
+ */
+public class AggregatorApproxDistinct extends AggregatorMethodWDistinctWFilterWValueBase {
+    private final AggregationForgeFactoryApproxDistinct factory;
+    private CodegenExpressionMember hll;
+
+    public AggregatorApproxDistinct(AggregationForgeFactoryApproxDistinct factory, boolean hasFilter, ExprNode optionalFilter) {
+        super(null, null, hasFilter, optionalFilter);
+        this.factory = factory;
+    }
+
+    public void initForgeFiltered(int col, CodegenCtor rowCtor, CodegenMemberCol membersColumnized, CodegenClassScope classScope) {
+        hll = membersColumnized.addMember(col, HyperLogLogState.EPTYPE, "hll");
+        rowCtor.getBlock().assignRef(hll, makeState());
+    }
+
+    protected void applyEvalEnterNonNull(CodegenExpressionRef value, EPType valueType, CodegenMethod method, ExprForgeCodegenSymbol symbols, ExprForge[] forges, CodegenClassScope classScope) {
+        applyEnter(value, method);
+    }
+
+    protected void applyTableEnterNonNull(CodegenExpressionRef value, EPType[] evaluationTypes, CodegenMethod method, CodegenClassScope classScope) {
+        applyEnter(value, method);
+    }
+
+    protected void applyEvalLeaveNonNull(CodegenExpressionRef value, EPType valueType, CodegenMethod method, ExprForgeCodegenSymbol symbols, ExprForge[] forges, CodegenClassScope classScope) {
+        // no-op, validation disallows a remove stream
+    }
+
+    protected void applyTableLeaveNonNull(CodegenExpressionRef value, EPType[] evaluationTypes, CodegenMethod method, CodegenClassScope classScope) {
+        // no-op, validation disallows a remove stream
+    }
+
+    protected void clearWODistinct(CodegenMethod method, CodegenClassScope classScope) {
+        method.getBlock().assignRef(hll, makeState());
+    }
+
+    public void getValueCodegen(CodegenMethod method, CodegenClassScope classScope) {
+        method.getBlock().methodReturn(exprDotMethod(hll, "estimate"));
+    }
+
+    protected void writeWODistinct(CodegenExpressionRef row, int col, CodegenExpressionRef output, CodegenExpressionRef unitKey, CodegenExpressionRef writer, CodegenMethod method, CodegenClassScope classScope) {
+        method.getBlock().staticMethod(AggregationStateSerdeHyperLogLog.class, "writeState", output, rowDotMember(row, hll));
+    }
+
+    protected void readWODistinct(CodegenExpressionRef row, int col, CodegenExpressionRef input, CodegenExpressionRef unitKey, CodegenMethod method, CodegenClassScope classScope) {
+        method.getBlock().assignRef(rowDotMember(row, hll), staticMethod(AggregationStateSerdeHyperLogLog.class, "readState", input));
+    }
+
+    protected void appendFormatWODistinct(FabricTypeCollector collector) {
+        AggregationStateSerdeHyperLogLog.appendFormat(collector, factory.getPrecision());
+    }
+
+    private void applyEnter(CodegenExpressionRef value, CodegenMethod method) {
+        if (factory.isUnion()) {
+            method.getBlock().exprDotMethod(hll, "merge", exprDotMethod(cast(HyperLogLogAggState.EPTYPE, value), "getState"));
+        } else {
+            method.getBlock().exprDotMethod(hll, "add", value);
+        }
+    }
+
+    private CodegenExpression makeState() {
+        return newInstance(HyperLogLogState.EPTYPE, constant(factory.getPrecision()));
+    }
+}
@@ -19,7 +19,7 @@ import com.espertech.esper.common.internal.bytecodemodel.base.CodegenMethod;
 import com.espertech.esper.common.internal.bytecodemodel.core.CodegenCtor;
 import com.espertech.esper.common.internal.bytecodemodel.model.expression.CodegenExpressionMember;
 import com.espertech.esper.common.internal.bytecodemodel.model.expression.CodegenExpressionRef;
-import com.espertech.esper.common.internal.collection.SortedDoubleVector;
+import com.espertech.esper.common.internal.collection.SortedDoubleTree;
 import com.espertech.esper.common.internal.epl.agg.method.core.AggregatorMethodWDistinctWFilterWValueBase;
 import com.espertech.esper.common.internal.epl.expression.codegen.ExprForgeCodegenSymbol;
 import com.espertech.esper.common.internal.epl.expression.core.ExprForge;
@@ -39,8 +39,8 @@ public class AggregatorMedian extends AggregatorMethodWDistinctWFilterWValueBase
     }
 
     public void initForgeFiltered(int col, CodegenCtor rowCtor, CodegenMemberCol membersColumnized, CodegenClassScope classScope) {
-        vector = membersColumnized.addMember(col, SortedDoubleVector.EPTYPE, "vector");
-        rowCtor.getBlock().assignRef(vector, newInstance(SortedDoubleVector.EPTYPE));
+        vector = membersColumnized.addMember(col, SortedDoubleTree.EPTYPE, "vector");
+        rowCtor.getBlock().assignRef(vector, newInstance(SortedDoubleTree.EPTYPE));
     }
 
     protected void applyEvalEnterNonNull(CodegenExpressionRef value, EPType valueType, CodegenMethod method, ExprForgeCodegenSymbol symbols, ExprForge[] forges, CodegenClassScope classScope) {
@@ -69,16 +69,16 @@ public class AggregatorMedian extends AggregatorMethodWDistinctWFilterWValueBase
 
     protected void writeWODistinct(CodegenExpressionRef row, int col, CodegenExpressionRef output, CodegenExpressionRef unitKey, CodegenExpressionRef writer, CodegenMethod method, CodegenClassScope classScope) {
         method.getBlock()
-                .staticMethod(SortedDoubleVector.class, "writePoints", output, rowDotMember(row, vector));
+                .staticMethod(SortedDoubleTree.class, "writePoints", output, rowDotMember(row, vector));
     }
 
     protected void readWODistinct(CodegenExpressionRef row, int col, CodegenExpressionRef input, CodegenExpressionRef unitKey, CodegenMethod method, CodegenClassScope classScope) {
         method.getBlock()
-                .assignRef(rowDotMember(row, vector), staticMethod(SortedDoubleVector.class, "readPoints", input));
+                .assignRef(rowDotMember(row, vector), staticMethod(SortedDoubleTree.class, "readPoints", input));
     }
 
     protected void appendFormatWODistinct(FabricTypeCollector collector) {
-        collector.sortedDoubleVector();
+        collector.sortedDoubleTree();
     }
 
     /**
@@ -87,7 +87,7 @@ public class AggregatorMedian extends AggregatorMethodWDistinctWFilterWValueBase
      * @param vector vector
      * @return value
      */
-    public static Object medianCompute(SortedDoubleVector vector) {
+    public static Object medianCompute(SortedDoubleTree vector) {
         if (vector.size() == 0) {
             return null;
         }
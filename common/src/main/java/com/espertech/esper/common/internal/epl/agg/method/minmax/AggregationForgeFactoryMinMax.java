@@ -27,20 +27,24 @@ public class AggregationForgeFactoryMinMax extends AggregationForgeFactoryBase {
     protected final ExprMinMaxAggrNode parent;
     protected final EPTypeClass type;
     protected final boolean hasDataWindows;
+    protected final boolean sliding;
     protected final DataInputOutputSerdeForge serde;
     protected final DataInputOutputSerdeForge distinctSerde;
     private final AggregatorMethod aggregator;
 
-    public AggregationForgeFactoryMinMax(ExprMinMaxAggrNode parent, EPTypeClass type, boolean hasDataWindows, DataInputOutputSerdeForge serde, DataInputOutputSerdeForge distinctSerde) {
+    public AggregationForgeFactoryMinMax(ExprMinMaxAggrNode parent, EPTypeClass type, boolean hasDataWindows, boolean sliding, DataInputOutputSerdeForge serde, DataInputOutputSerdeForge distinctSerde) {
         this.parent = parent;
         this.type = type;
         this.hasDataWindows = hasDataWindows;
+        this.sliding = sliding;
         this.serde = serde;
         this.distinctSerde = distinctSerde;
 
         EPTypeClass distinctType = !parent.isDistinct() ? null : type;
         if (!hasDataWindows) {
             aggregator = new AggregatorMinMaxEver(this, distinctType, distinctSerde, parent.isHasFilter(), parent.getOptionalFilter(), serde);
+        } else if (sliding) {
+            aggregator = new AggregatorMinMaxSliding(this, parent.isHasFilter(), parent.getOptionalFilter());
         } else {
             aggregator = new AggregatorMinMax(this, distinctType, distinctSerde, parent.isHasFilter(), parent.getOptionalFilter());
         }
@@ -29,6 +29,7 @@ import com.espertech.esper.common.internal.epl.expression.core.ExprNode;
 import com.espertech.esper.common.internal.fabric.FabricTypeCollector;
 import com.espertech.esper.common.internal.serde.compiletime.resolve.DataInputOutputSerdeForge;
 import com.espertech.esper.common.internal.serde.compiletime.sharable.CodegenSharableSerdeClassTyped;
+import com.espertech.esper.common.internal.util.JavaClassHelper;
 
 import java.util.function.Consumer;
 
@@ -40,28 +41,49 @@ import static com.espertech.esper.common.internal.epl.expression.core.MinMaxType
 
 /**
  * Min/max aggregator for all values, not considering events leaving the aggregation (i.e. ever).
+ * <p>
+ * For numeric values the current min/max is kept as a primitive and compared using the static compare method
+ * of the boxed type, so that entering a primitive value does not box.
+ * </p>
  */
 public class AggregatorMinMaxEver extends AggregatorMethodWDistinctWFilterWValueBase {
     private final AggregationForgeFactoryMinMax factory;
+    private final EPTypeClass primitiveType;
     private CodegenExpressionMember currentMinMax;
+    private CodegenExpressionMember hasMinMax;
     private CodegenExpressionField serdeField;
 
     public AggregatorMinMaxEver(AggregationForgeFactoryMinMax factory, EPTypeClass optionalDistinctValueType, DataInputOutputSerdeForge optionalDistinctSerde, boolean hasFilter, ExprNode optionalFilter, DataInputOutputSerdeForge serde) {
         super(optionalDistinctValueType, optionalDistinctSerde, hasFilter, optionalFilter);
         this.factory = factory;
+        this.primitiveType = getPrimitiveComparable(factory.type);
     }
 
     public void initForgeFiltered(int col, CodegenCtor rowCtor, CodegenMemberCol membersColumnized, CodegenClassScope classScope) {
-        currentMinMax = membersColumnized.addMember(col, EPTypePremade.COMPARABLE.getEPType(), "currentMinMax");
+        if (primitiveType != null) {
+            currentMinMax = membersColumnized.addMember(col, primitiveType, "currentMinMax");
+            hasMinMax = membersColumnized.addMember(col, EPTypePremade.BOOLEANPRIMITIVE.getEPType(), "hasMinMax");
+        } else {
+            currentMinMax = membersColumnized.addMember(col, EPTypePremade.COMPARABLE.getEPType(), "currentMinMax");
+        }
         this.serdeField = classScope.addOrGetFieldSharable(new CodegenSharableSerdeClassTyped(CodegenSharableSerdeClassTyped.CodegenSharableSerdeName.VALUE_NULLABLE, factory.type, factory.serde, classScope));
     }
 
     protected void applyEvalEnterNonNull(CodegenExpressionRef value, EPType valueType, CodegenMethod method, ExprForgeCodegenSymbol symbols, ExprForge[] forges, CodegenClassScope classScope) {
-        method.getBlock().apply(enterConsumer(value));
+        if (primitiveType != null) {
+            CodegenExpression unboxed = ((EPTypeClass) valueType).getType().isPrimitive() ? value : unbox(value);
+            method.getBlock().apply(enterConsumerPrimitive(unboxed));
+        } else {
+            method.getBlock().apply(enterConsumer(value));
+        }
     }
 
     protected void applyTableEnterNonNull(CodegenExpressionRef value, EPType[] evaluationTypes, CodegenMethod method, CodegenClassScope classScope) {
-        method.getBlock().apply(enterConsumer(cast(EPTypePremade.COMPARABLE.getEPType(), value)));
+        if (primitiveType != null) {
+            method.getBlock().apply(enterConsumerPrimitive(unbox(cast(JavaClassHelper.getBoxedType(primitiveType), value))));
+        } else {
+            method.getBlock().apply(enterConsumer(cast(EPTypePremade.COMPARABLE.getEPType(), value)));
+        }
     }
 
     @Override
@@ -83,19 +105,44 @@ public class AggregatorMinMaxEver extends AggregatorMethodWDistinctWFilterWValue
     }
 
     protected void clearWODistinct(CodegenMethod method, CodegenClassScope classScope) {
-        method.getBlock().assignRef(currentMinMax, constantNull());
+        if (primitiveType != null) {
+            method.getBlock().assignRef(hasMinMax, constantFalse());
+        } else {
+            method.getBlock().assignRef(currentMinMax, constantNull());
+        }
     }
 
     public void getValueCodegen(CodegenMethod method, CodegenClassScope classScope) {
+        if (primitiveType != null) {
+            method.getBlock().ifCondition(not(hasMinMax)).blockReturn(constantNull());
+        }
         method.getBlock().methodReturn(currentMinMax);
     }
 
     protected void writeWODistinct(CodegenExpressionRef row, int col, CodegenExpressionRef output, CodegenExpressionRef unitKey, CodegenExpressionRef writer, CodegenMethod method, CodegenClassScope classScope) {
-        method.getBlock().expression(writeNullable(rowDotMember(row, currentMinMax), serdeField, output, unitKey, writer, classScope));
+        if (primitiveType != null) {
+            // the serialized form is the nullable boxed value, same as for non-primitive values
+            method.getBlock().ifCondition(rowDotMember(row, hasMinMax))
+                .expression(writeNullable(staticMethod(JavaClassHelper.getBoxedType(primitiveType).getType(), "valueOf", rowDotMember(row, currentMinMax)), serdeField, output, unitKey, writer, classScope))
+                .ifElse()
+                .expression(writeNullable(constantNull(), serdeField, output, unitKey, writer, classScope));
+        } else {
+            method.getBlock().expression(writeNullable(rowDotMember(row, currentMinMax), serdeField, output, unitKey, writer, classScope));
+        }
     }
 
     protected void readWODistinct(CodegenExpressionRef row, int col, CodegenExpressionRef input, CodegenExpressionRef unitKey, CodegenMethod method, CodegenClassScope classScope) {
-        method.getBlock().assignRef(rowDotMember(row, currentMinMax), cast(EPTypePremade.COMPARABLE.getEPType(), readNullable(serdeField, input, unitKey, classScope)));
+        if (primitiveType != null) {
+            // the read method is shared by the columns of the row
+            EPTypeClass boxedType = JavaClassHelper.getBoxedType(primitiveType);
+            String minmaxRef = "minmax" + col;
+            method.getBlock().declareVar(boxedType, minmaxRef, cast(boxedType, readNullable(serdeField, input, unitKey, classScope)))
+                .assignRef(rowDotMember(row, hasMinMax), notEqualsNull(ref(minmaxRef)))
+                .ifCondition(rowDotMember(row, hasMinMax))
+                .assignRef(rowDotMember(row, currentMinMax), unbox(ref(minmaxRef)));
+        } else {
+            method.getBlock().assignRef(rowDotMember(row, currentMinMax), cast(EPTypePremade.COMPARABLE.getEPType(), readNullable(serdeField, input, unitKey, classScope)));
+        }
     }
 
     protected void appendFormatWODistinct(FabricTypeCollector collector) {
@@ -109,4 +156,27 @@ public class AggregatorMinMaxEver extends AggregatorMethodWDistinctWFilterWValue
                 .ifCondition(relational(exprDotMethod(currentMinMax, "compareTo", valueComparableTyped), factory.getParent().getMinMaxTypeEnum() == MAX ? LT : GT, constant(0)))
                 .assignRef(currentMinMax, valueComparableTyped);
     }
+
+    private Consumer<CodegenBlock> enterConsumerPrimitive(CodegenExpression unboxed) {
+        Class boxed = JavaClassHelper.getBoxedType(primitiveType).getType();
+        return block -> block.declareVar(primitiveType, "minmax", unboxed)
+                .ifCondition(not(hasMinMax))
+                .assignRef(currentMinMax, ref("minmax"))
+                .assignRef(hasMinMax, constantTrue())
+                .blockReturnNoValue()
+                .ifCondition(relational(staticMethod(boxed, "compare", currentMinMax, ref("minmax")), factory.getParent().getMinMaxTypeEnum() == MAX ? LT : GT, constant(0)))
+                .assignRef(currentMinMax, ref("minmax"));
+    }
+
+    private CodegenExpression unbox(CodegenExpression boxedValue) {
+        return exprDotMethod(boxedValue, primitiveType.getType().getName() + "Value");
+    }
+
+    private static EPTypeClass getPrimitiveComparable(EPTypeClass type) {
+        Class boxed = JavaClassHelper.getBoxedType(type).getType();
+        if (boxed == Integer.class || boxed == Long.class || boxed == Double.class || boxed == Float.class || boxed == Short.class || boxed == Byte.class) {
+            return JavaClassHelper.getPrimitiveType(type);
+        }
+        return null;
+    }
 }
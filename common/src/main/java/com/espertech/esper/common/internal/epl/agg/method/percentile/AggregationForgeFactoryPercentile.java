@@ -0,0 +1,73 @@
+/*
+ ***************************************************************************************
+ *  Copyright (C) 2006 EsperTech, Inc. All rights reserved.                            *
+ *  http://www.espertech.com/esper                                                     *
+ *  http://www.espertech.com                                                           *
+ *  ---------------------------------------------------------------------------------- *
+ *  The software in this package is published under the terms of the GPL license       *
+ *  a copy of which has been included with this distribution in the license.txt file.  *
+ ***************************************************************************************
+ */
+package com.espertech.esper.common.internal.epl.agg.method.percentile;
+
+import com.espertech.esper.common.client.EventType;
+import com.espertech.esper.common.client.type.EPType;
+import com.espertech.esper.common.client.type.EPTypeClass;
+import com.espertech.esper.common.client.type.EPTypePremade;
+import com.espertech.esper.common.internal.epl.agg.core.AggregationPortableValidation;
+import com.espertech.esper.common.internal.epl.agg.method.core.AggregationForgeFactoryBase;
+import com.espertech.esper.common.internal.epl.agg.method.core.AggregatorMethod;
+import com.espertech.esper.common.internal.epl.expression.agg.base.ExprAggregateNodeBase;
+import com.espertech.esper.common.internal.epl.expression.agg.method.ExprMethodAggUtil;
+import com.espertech.esper.common.internal.epl.expression.agg.method.ExprPercentileNode;
+import com.espertech.esper.common.internal.epl.expression.core.ExprForge;
+import com.espertech.esper.common.internal.epl.expression.core.ExprNode;
+import com.espertech.esper.common.internal.epl.expression.core.ExprValidationException;
+import com.espertech.esper.common.internal.serde.compiletime.resolve.DataInputOutputSerdeForge;
+
+public class AggregationForgeFactoryPercentile extends AggregationForgeFactoryBase {
+    protected final ExprPercentileNode parent;
+    protected final EPTypeClass aggregatedValueType;
+    protected final DataInputOutputSerdeForge distinctSerde;
+    protected final double[] percents;
+    private final AggregatorMethod aggregator;
+
+    public AggregationForgeFactoryPercentile(ExprPercentileNode parent, EPTypeClass aggregatedValueType, DataInputOutputSerdeForge distinctSerde, double[] percents) {
+        this.parent = parent;
+        this.aggregatedValueType = aggregatedValueType;
+        this.distinctSerde = distinctSerde;
+        this.percents = percents;
+
+        EPTypeClass distinctType = !parent.isDistinct() ? null : aggregatedValueType;
+        aggregator = new AggregatorPercentile(this, distinctType, distinctSerde, parent.getOptionalFilter() != null, parent.getOptionalFilter());
+    }
+
+    public EPType getResultType() {
+        return parent.isMultiple() ? EPTypePremade.DOUBLEBOXEDARRAY.getEPType() : EPTypePremade.DOUBLEBOXED.getEPType();
+    }
+
+    public AggregatorMethod getAggregator() {
+        return aggregator;
+    }
+
+    public ExprAggregateNodeBase getAggregationExpression() {
+        return parent;
+    }
+
+    public ExprForge[] getMethodAggregationForge(boolean join, EventType[] typesPerStream) throws ExprValidationException {
+        // the percents are constants and not aggregated values
+        return ExprMethodAggUtil.getDefaultForges(new ExprNode[]{parent.getPositionalParams()[0]}, join, typesPerStream);
+    }
+
+    public AggregationPortableValidation getAggregationPortableValidation() {
+        return new AggregationPortableValidationPercentile(parent.isDistinct(), parent.getOptionalFilter() != null, aggregatedValueType, percents);
+    }
+
+    public ExprPercentileNode getParent() {
+        return parent;
+    }
+
+    public double[] getPercents() {
+        return percents;
+    }
+}
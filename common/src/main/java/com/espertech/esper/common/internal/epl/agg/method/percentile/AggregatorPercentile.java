@@ -0,0 +1,84 @@
+/*
+ ***************************************************************************************
+ *  Copyright (C) 2006 EsperTech, Inc. All rights reserved.                            *
+ *  http://www.espertech.com/esper                                                     *
+ *  http://www.espertech.com                                                           *
+ *  ---------------------------------------------------------------------------------- *
+ *  The software in this package is published under the terms of the GPL license       *
+ *  a copy of which has been included with this distribution in the license.txt file.  *
+ ***************************************************************************************
+ */
+package com.espertech.esper.common.internal.epl.agg.method.percentile;
+
+import com.espertech.esper.common.client.type.EPTypeClass;
+import com.espertech.esper.common.internal.bytecodemodel.base.CodegenClassScope;
+import com.espertech.esper.common.internal.bytecodemodel.base.CodegenMethod;
+import com.espertech.esper.common.internal.collection.SortedDoubleTree;
+import com.espertech.esper.common.internal.epl.agg.method.median.AggregatorMedian;
+import com.espertech.esper.common.internal.epl.expression.core.ExprNode;
+import com.espertech.esper.common.internal.serde.compiletime.resolve.DataInputOutputSerdeForge;
+
+import static com.espertech.esper.common.internal.bytecodemodel.model.expression.CodegenExpressionBuilder.constant;
+import static com.espertech.esper.common.internal.bytecodemodel.model.expression.CodegenExpressionBuilder.staticMethod;
+
+public class AggregatorPercentile extends AggregatorMedian {
+    private final AggregationForgeFactoryPercentile factory;
+
+    public AggregatorPercentile(AggregationForgeFactoryPercentile factory, EPTypeClass optionalDistinctValueType, DataInputOutputSerdeForge optionalDistinctSerde, boolean hasFilter, ExprNode optionalFilter) {
+        super(optionalDistinctValueType, optionalDistinctSerde, hasFilter, optionalFilter);
+        this.factory = factory;
+    }
+
+    public void getValueCodegen(CodegenMethod method, CodegenClassScope classScope) {
+        double[] percents = factory.getPercents();
+        if (factory.getParent().isMultiple()) {
+            method.getBlock().methodReturn(staticMethod(AggregatorPercentile.class, "percentilesCompute", vector, constant(percents)));
+        } else {
+            method.getBlock().methodReturn(staticMethod(AggregatorPercentile.class, "percentileCompute", vector, constant(percents[0])));
+        }
+    }
+
+    /**
+     * NOTE: Code-generation-invoked method, method name and parameter order matters
+     *
+     * @param vector  values
+     * @param percent percentile between 0 and 100
+     * @return value
+     */
+    public static Double percentileCompute(SortedDoubleTree vector, double percent) {
+        if (vector.size() == 0) {
+            return null;
+        }
+        return percentile(vector, percent);
+    }
+
+    /**
+     * NOTE: Code-generation-invoked method, method name and parameter order matters
+     *
+     * @param vector   values
+     * @param percents percentiles between 0 and 100
+     * @return values
+     */
+    public static Double[] percentilesCompute(SortedDoubleTree vector, double[] percents) {
+        if (vector.size() == 0) {
+            return null;
+        }
+        Double[] result = new Double[percents.length];
+        for (int i = 0; i < percents.length; i++) {
+            result[i] = percentile(vector, percents[i]);
+        }
+        return result;
+    }
+
+    private static double percentile(SortedDoubleTree vector, double percent) {
+        // interpolate linearly between the closest ranks, the 50th percentile is the median
+        double position = (vector.size() - 1) * percent / 100d;
+        int lower = (int) Math.floor(position);
+        int upper = (int) Math.ceil(position);
+        double lowerValue = vector.getValue(lower);
+        if (lower == upper) {
+            return lowerValue;
+        }
+        return lowerValue + (vector.getValue(upper) - lowerValue) * (position - lower);
+    }
+}
@@ -0,0 +1,50 @@
+/*
+ ***************************************************************************************
+ *  Copyright (C) 2006 EsperTech, Inc. All rights reserved.                            *
+ *  http://www.espertech.com/esper                                                     *
+ *  http://www.espertech.com                                                           *
+ *  ---------------------------------------------------------------------------------- *
+ *  The software in this package is published under the terms of the GPL license       *
+ *  a copy of which has been included with this distribution in the license.txt file.  *
+ ***************************************************************************************
+ */
+package com.espertech.esper.common.internal.epl.approx.hyperloglog;
+
+import com.espertech.esper.common.client.EventBean;
+import com.espertech.esper.common.client.hook.aggmultifunc.AggregationMultiFunctionState;
+import com.espertech.esper.common.client.type.EPTypeClass;
+import com.espertech.esper.common.internal.epl.expression.core.ExprEvaluatorContext;
+
+public class HyperLogLogAggState implements AggregationMultiFunctionState {
+    public final static EPTypeClass EPTYPE = new EPTypeClass(HyperLogLogAggState.class);
+
+    protected final HyperLogLogState state;
+
+    public HyperLogLogAggState(HyperLogLogState state) {
+        this.state = state;
+    }
+
+    public void applyEnter(EventBean[] eventsPerStream, ExprEvaluatorContext exprEvaluatorContext) {
+        throw new UnsupportedOperationException("values are added through the add method");
+    }
+
+    public void applyLeave(EventBean[] eventsPerStream, ExprEvaluatorContext exprEvaluatorContext) {
+        throw new UnsupportedOperationException();
+    }
+
+    public void add(Object value) {
+        state.add(value);
+    }
+
+    public Long estimate() {
+        return state.estimate();
+    }
+
+    public void clear() {
+        throw new UnsupportedOperationException();
+    }
+
+    public HyperLogLogState getState() {
+        return state;
+    }
+}
@@ -0,0 +1,31 @@
+/*
+ ***************************************************************************************
+ *  Copyright (C) 2006 EsperTech, Inc. All rights reserved.                            *
+ *  http://www.espertech.com/esper                                                     *
+ *  http://www.espertech.com                                                           *
+ *  ---------------------------------------------------------------------------------- *
+ *  The software in this package is published under the terms of the GPL license       *
+ *  a copy of which has been included with this distribution in the license.txt file.  *
+ ***************************************************************************************
+ */
+package com.espertech.esper.common.internal.epl.approx.hyperloglog;
+
+import com.espertech.esper.common.client.type.EPTypeClass;
+
+public class HyperLogLogSpec {
+    public final static EPTypeClass EPTYPE = new EPTypeClass(HyperLogLogSpec.class);
+
+    private int precision;
+
+    public int getPrecision() {
+        return precision;
+    }
+
+    public void setPrecision(int precision) {
+        this.precision = precision;
+    }
+
+    public HyperLogLogAggState makeAggState() {
+        return new HyperLogLogAggState(new HyperLogLogState(precision));
+    }
+}
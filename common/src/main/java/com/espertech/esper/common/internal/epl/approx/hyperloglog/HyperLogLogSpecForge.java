@@ -0,0 +1,46 @@
+/*
+ ***************************************************************************************
+ *  Copyright (C) 2006 EsperTech, Inc. All rights reserved.                            *
+ *  http://www.espertech.com/esper                                                     *
+ *  http://www.espertech.com                                                           *
+ *  ---------------------------------------------------------------------------------- *
+ *  The software in this package is published under the terms of the GPL license       *
+ *  a copy of which has been included with this distribution in the license.txt file.  *
+ ***************************************************************************************
+ */
+package com.espertech.esper.common.internal.epl.approx.hyperloglog;
+
+import com.espertech.esper.common.client.type.EPTypeClass;
+import com.espertech.esper.common.internal.bytecodemodel.base.CodegenClassScope;
+import com.espertech.esper.common.internal.bytecodemodel.base.CodegenMethod;
+import com.espertech.esper.common.internal.bytecodemodel.base.CodegenMethodScope;
+import com.espertech.esper.common.internal.bytecodemodel.model.expression.CodegenExpression;
+
+import static com.espertech.esper.common.internal.bytecodemodel.model.expression.CodegenExpressionBuilder.*;
+
+public class HyperLogLogSpecForge {
+    public final static EPTypeClass EPTYPE = new EPTypeClass(HyperLogLogSpecForge.class);
+
+    private int precision;
+
+    public HyperLogLogSpecForge(int precision) {
+        this.precision = precision;
+    }
+
+    public int getPrecision() {
+        return precision;
+    }
+
+    public void setPrecision(int precision) {
+        this.precision = precision;
+    }
+
+    public CodegenExpression codegenMake(CodegenMethodScope parent, CodegenClassScope classScope) {
+        CodegenMethod method = parent.makeChild(HyperLogLogSpec.EPTYPE, this.getClass(), classScope);
+        method.getBlock()
+                .declareVarNewInstance(HyperLogLogSpec.EPTYPE, "spec")
+                .exprDotMethod(ref("spec"), "setPrecision", constant(precision))
+                .methodReturn(ref("spec"));
+        return localMethod(method);
+    }
+}
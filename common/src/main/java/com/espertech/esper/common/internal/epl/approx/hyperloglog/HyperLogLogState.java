@@ -0,0 +1,233 @@
+/*
+ ***************************************************************************************
+ *  Copyright (C) 2006 EsperTech, Inc. All rights reserved.                            *
+ *  http://www.espertech.com/esper                                                     *
+ *  http://www.espertech.com                                                           *
+ *  ---------------------------------------------------------------------------------- *
+ *  The software in this package is published under the terms of the GPL license       *
+ *  a copy of which has been included with this distribution in the license.txt file.  *
+ ***************************************************************************************
+ */
+package com.espertech.esper.common.internal.epl.approx.hyperloglog;
+
+import com.espertech.esper.common.client.type.EPTypeClass;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Approximate count of distinct values with bounded memory, based on HyperLogLog.
+ * <p>
+ * Each value is hashed to 64 bits. The first precision-many bits select one of 2^precision registers and each
+ * register keeps the largest position of the first one-bit among the remaining bits. The number of distinct values
+ * is estimated from the registers using the improved raw estimator by Ertl, which does not require bias correction
+ * and is accurate for small and large counts. The relative standard error is about 1.04/sqrt(2^precision).
+ * <p>
+ * States can be merged and the result is equivalent to a state that had all values of both states added.
+ * When merging states of different precision the result has the lower precision.
+ */
+public class HyperLogLogState {
+    public final static EPTypeClass EPTYPE = new EPTypeClass(HyperLogLogState.class);
+
+    public final static int PRECISION_MIN = 4;
+    public final static int PRECISION_MAX = 18;
+
+    private int precision;
+    private byte[] registers;
+
+    /**
+     * Ctor.
+     *
+     * @param precision number of bits to select a register, between 4 and 18
+     */
+    public HyperLogLogState(int precision) {
+        if (precision < PRECISION_MIN || precision > PRECISION_MAX) {
+            throw new IllegalArgumentException("Precision must be between " + PRECISION_MIN + " and " + PRECISION_MAX + " but received " + precision);
+        }
+        this.precision = precision;
+        this.registers = new byte[1 << precision];
+    }
+
+    /**
+     * Ctor.
+     *
+     * @param precision precision
+     * @param registers registers, the length must be 2^precision
+     */
+    public HyperLogLogState(int precision, byte[] registers) {
+        this.precision = precision;
+        this.registers = registers;
+    }
+
+    /**
+     * Add a value.
+     *
+     * @param value to add, ignores null
+     */
+    public void add(Object value) {
+        if (value != null) {
+            addHash(hash(value));
+        }
+    }
+
+    /**
+     * Add a value by its 64-bit hash.
+     *
+     * @param hash hash
+     */
+    public void addHash(long hash) {
+        int index = (int) (hash >>> (64 - precision));
+        // the marker bit limits the position to the number of remaining bits plus one
+        long remaining = (hash << precision) | (1L << (precision - 1));
+        byte rank = (byte) (Long.numberOfLeadingZeros(remaining) + 1);
+        if (rank > registers[index]) {
+            registers[index] = rank;
+        }
+    }
+
+    /**
+     * Add all values of another state.
+     *
+     * @param other state to merge
+     */
+    public void merge(HyperLogLogState other) {
+        if (other.precision < precision) {
+            registers = fold(registers, precision, other.precision);
+            precision = other.precision;
+        }
+        byte[] otherRegisters = other.precision == precision ? other.registers : fold(other.registers, other.precision, precision);
+        for (int i = 0; i < registers.length; i++) {
+            if (otherRegisters[i] > registers[i]) {
+                registers[i] = otherRegisters[i];
+            }
+        }
+    }
+
+    /**
+     * Returns the approximate number of distinct values.
+     *
+     * @return estimate
+     */
+    public long estimate() {
+        int q = 64 - precision;
+        int[] histogram = new int[q + 2];
+        for (byte register : registers) {
+            histogram[register]++;
+        }
+        int m = registers.length;
+        if (histogram[0] == m) {
+            return 0;
+        }
+        double z = m * tau(1 - (double) histogram[q + 1] / m);
+        for (int k = q; k >= 1; k--) {
+            z += histogram[k];
+            z *= 0.5;
+        }
+        z += m * sigma((double) histogram[0] / m);
+        return Math.round(m / (2 * Math.log(2)) * m / z);
+    }
+
+    public void clear() {
+        Arrays.fill(registers, (byte) 0);
+    }
+
+    public int getPrecision() {
+        return precision;
+    }
+
+    public byte[] getRegisters() {
+        return registers;
+    }
+
+    /**
+     * Returns the 64-bit hash of a value. Integral numbers hash the same regardless of their type.
+     *
+     * @param value value
+     * @return hash
+     */
+    public static long hash(Object value) {
+        if (value instanceof String) {
+            return hashBytes(((String) value).getBytes(StandardCharsets.UTF_8));
+        }
+        if (value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte) {
+            return mix(((Number) value).longValue());
+        }
+        if (value instanceof Double || value instanceof Float) {
+            return mix(Double.doubleToLongBits(((Number) value).doubleValue()));
+        }
+        if (value instanceof byte[]) {
+            return hashBytes((byte[]) value);
+        }
+        return mix(value.hashCode());
+    }
+
+    private static long hashBytes(byte[] bytes) {
+        // FNV-1a followed by the finalizer of MurmurHash3 for avalanche
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : bytes) {
+            hash ^= b & 0xff;
+            hash *= 0x100000001b3L;
+        }
+        return mix(hash);
+    }
+
+    private static long mix(long value) {
+        long h = value;
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    private static byte[] fold(byte[] registers, int fromPrecision, int toPrecision) {
+        int shift = fromPrecision - toPrecision;
+        byte[] folded = new byte[1 << toPrecision];
+        for (int i = 0; i < registers.length; i++) {
+            if (registers[i] == 0) {
+                continue;
+            }
+            // the low bits of the index become the leading bits of the remaining hash bits
+            int dropped = i & ((1 << shift) - 1);
+            int rank = dropped != 0 ? Integer.numberOfLeadingZeros(dropped) - (32 - shift) + 1 : shift + registers[i];
+            int index = i >>> shift;
+            if (rank > folded[index]) {
+                folded[index] = (byte) rank;
+            }
+        }
+        return folded;
+    }
+
+    private static double sigma(double x) {
+        if (x == 1) {
+            return Double.POSITIVE_INFINITY;
+        }
+        double y = 1;
+        double z = x;
+        double zPrev;
+        do {
+            x *= x;
+            zPrev = z;
+            z += x * y;
+            y += y;
+        } while (z != zPrev);
+        return z;
+    }
+
+    private static double tau(double x) {
+        if (x == 0 || x == 1) {
+            return 0;
+        }
+        double y = 1;
+        double z = 1 - x;
+        double zPrev;
+        do {
+            x = Math.sqrt(x);
+            zPrev = z;
+            y *= 0.5;
+            z -= Math.pow(1 - x, 2) * y;
+        } while (z != zPrev);
+        return z / 3;
+    }
+}
@@ -0,0 +1,38 @@
+/*
+ ***************************************************************************************
+ *  Copyright (C) 2006 EsperTech, Inc. All rights reserved.                            *
+ *  http://www.espertech.com/esper                                                     *
+ *  http://www.espertech.com                                                           *
+ *  ---------------------------------------------------------------------------------- *
+ *  The software in this package is published under the terms of the GPL license       *
+ *  a copy of which has been included with this distribution in the license.txt file.  *
+ ***************************************************************************************
+ */
+package com.espertech.esper.common.internal.epl.approx.quantilesketch;
+
+import java.util.Locale;
+
+public enum QuantileSketchAggMethod {
+    QUANTILE("quantile"),
+    COUNT("count");
+
+    private final String funcName;
+
+    private QuantileSketchAggMethod(String funcName) {
+        this.funcName = funcName;
+    }
+
+    public String getMethodName() {
+        return funcName;
+    }
+
+    public static QuantileSketchAggMethod fromNameMayMatch(String name) {
+        String nameLower = name.toLowerCase(Locale.ENGLISH);
+        for (QuantileSketchAggMethod value : QuantileSketchAggMethod.values()) {
+            if (value.funcName.toLowerCase(Locale.ENGLISH).equals(nameLower)) {
+                return value;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,67 @@
+/*
+ ***************************************************************************************
+ *  Copyright (C) 2006 EsperTech, Inc. All rights reserved.                            *
+ *  http://www.espertech.com/esper                                                     *
+ *  http://www.espertech.com                                                           *
+ *  ---------------------------------------------------------------------------------- *
+ *  The software in this package is published under the terms of the GPL license       *
+ *  a copy of which has been included with this distribution in the license.txt file.  *
+ ***************************************************************************************
+ */
+package com.espertech.esper.common.internal.epl.approx.quantilesketch;
+
+import com.espertech.esper.common.client.EventBean;
+import com.espertech.esper.common.client.hook.aggmultifunc.AggregationMultiFunctionState;
+import com.espertech.esper.common.client.type.EPTypeClass;
+import com.espertech.esper.common.internal.epl.expression.core.ExprEvaluatorContext;
+
+public class QuantileSketchAggState implements AggregationMultiFunctionState {
+    public final static EPTypeClass EPTYPE = new EPTypeClass(QuantileSketchAggState.class);
+
+    protected final QuantileSketchState state;
+
+    public QuantileSketchAggState(QuantileSketchState state) {
+        this.state = state;
+    }
+
+    public void applyEnter(EventBean[] eventsPerStream, ExprEvaluatorContext exprEvaluatorContext) {
+        throw new UnsupportedOperationException("values are added through the add method");
+    }
+
+    public void applyLeave(EventBean[] eventsPerStream, ExprEvaluatorContext exprEvaluatorContext) {
+        throw new UnsupportedOperationException();
+    }
+
+    public void add(Object value) {
+        state.add(((Number) value).doubleValue());
+    }
+
+    /**
+     * Returns the approximate value at the quantile.
+     *
+     * @param quantile quantile between 0 and 1
+     * @return value or null when there are no values, or when the quantile is null or outside of 0 and 1
+     */
+    public Double quantile(Object quantile) {
+        if (quantile == null) {
+            return null;
+        }
+        double q = ((Number) quantile).doubleValue();
+        if (!(q >= 0 && q <= 1) || state.getCount() == 0) {
+            return null;
+        }
+        return state.quantile(q);
+    }
+
+    public Long count() {
+        return state.getCount();
+    }
+
+    public void clear() {
+        throw new UnsupportedOperationException();
+    }
+
+    public QuantileSketchState getState() {
+        return state;
+    }
+}
@@ -0,0 +1,31 @@
+/*
+ ***************************************************************************************
+ *  Copyright (C) 2006 EsperTech, Inc. All rights reserved.                            *
+ *  http://www.espertech.com/esper                                                     *
+ *  http://www.espertech.com                                                           *
+ *  ---------------------------------------------------------------------------------- *
+ *  The software in this package is published under the terms of the GPL license       *
+ *  a copy of which has been included with this distribution in the license.txt file.  *
+ ***************************************************************************************
+ */
+package com.espertech.esper.common.internal.epl.approx.quantilesketch;
+
+import com.espertech.esper.common.client.type.EPTypeClass;
+
+public class QuantileSketchSpec {
+    public final static EPTypeClass EPTYPE = new EPTypeClass(QuantileSketchSpec.class);
+
+    private double compression;
+
+    public double getCompression() {
+        return compression;
+    }
+
+    public void setCompression(double compression) {
+        this.compression = compression;
+    }
+
+    public QuantileSketchAggState makeAggState() {
+        return new QuantileSketchAggState(new QuantileSketchState(compression));
+    }
+}
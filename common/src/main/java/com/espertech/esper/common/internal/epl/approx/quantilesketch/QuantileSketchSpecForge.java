@@ -0,0 +1,46 @@
+/*
+ ***************************************************************************************
+ *  Copyright (C) 2006 EsperTech, Inc. All rights reserved.                            *
+ *  http://www.espertech.com/esper                                                     *
+ *  http://www.espertech.com                                                           *
+ *  ---------------------------------------------------------------------------------- *
+ *  The software in this package is published under the terms of the GPL license       *
+ *  a copy of which has been included with this distribution in the license.txt file.  *
+ ***************************************************************************************
+ */
+package com.espertech.esper.common.internal.epl.approx.quantilesketch;
+
+import com.espertech.esper.common.client.type.EPTypeClass;
+import com.espertech.esper.common.internal.bytecodemodel.base.CodegenClassScope;
+import com.espertech.esper.common.internal.bytecodemodel.base.CodegenMethod;
+import com.espertech.esper.common.internal.bytecodemodel.base.CodegenMethodScope;
+import com.espertech.esper.common.internal.bytecodemodel.model.expression.CodegenExpression;
+
+import static com.espertech.esper.common.internal.bytecodemodel.model.expression.CodegenExpressionBuilder.*;
+
+public class QuantileSketchSpecForge {
+    public final static EPTypeClass EPTYPE = new EPTypeClass(QuantileSketchSpecForge.class);
+
+    private double compression;
+
+    public QuantileSketchSpecForge(double compression) {
+        this.compression = compression;
+    }
+
+    public double getCompression() {
+        return compression;
+    }
+
+    public void setCompression(double compression) {
+        this.compression = compression;
+    }
+
+    public CodegenExpression codegenMake(CodegenMethodScope parent, CodegenClassScope classScope) {
+        CodegenMethod method = parent.makeChild(QuantileSketchSpec.EPTYPE, this.getClass(), classScope);
+        method.getBlock()
+                .declareVarNewInstance(QuantileSketchSpec.EPTYPE, "spec")
+                .exprDotMethod(ref("spec"), "setCompression", constant(compression))
+                .methodReturn(ref("spec"));
+        return localMethod(method);
+    }
+}
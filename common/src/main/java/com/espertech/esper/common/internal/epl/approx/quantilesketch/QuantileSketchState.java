@@ -0,0 +1,316 @@
+/*
+ ***************************************************************************************
+ *  Copyright (C) 2006 EsperTech, Inc. All rights reserved.                            *
+ *  http://www.espertech.com/esper                                                     *
+ *  http://www.espertech.com                                                           *
+ *  ---------------------------------------------------------------------------------- *
+ *  The software in this package is published under the terms of the GPL license       *
+ *  a copy of which has been included with this distribution in the license.txt file.  *
+ ***************************************************************************************
+ */
+package com.espertech.esper.common.internal.epl.approx.quantilesketch;
+
+import java.util.Arrays;
+
+/**
+ * Approximate quantiles of double values with bounded memory, based on the merging t-digest.
+ * <p>
+ * Values are collected in a buffer. When the buffer is full the buffered values are sorted and merged with
+ * the existing centroids, each centroid being a mean and a weight. Centroids are only combined while the
+ * combined centroid stays within a unit of the arcsine scale function, so that centroids near the tails
+ * hold few values and quantiles near 0 and 1 are most accurate. The number of centroids is bounded by about the
+ * compression and does not depend on the number of values.
+ * <p>
+ * States can be merged, the result is equivalent to a state that had all values of both states added.
+ * <p>
+ * Only adding values, merging into this state and flushing change the state. Reading quantiles and the count
+ * does not change the state, so that concurrent reads that exclude writers are safe. When values are buffered,
+ * reads compute over a flushed copy.
+ */
+public class QuantileSketchState {
+    private final double compression;
+    private double[] mean;
+    private double[] weight;
+    private int centroidCount;
+    private double totalWeight;
+    private final double[] buffer;
+    private int bufferCount;
+    private double min = Double.POSITIVE_INFINITY;
+    private double max = Double.NEGATIVE_INFINITY;
+
+    /**
+     * Ctor.
+     *
+     * @param compression compression, higher values use more memory and are more accurate
+     */
+    public QuantileSketchState(double compression) {
+        this.compression = compression;
+        int capacity = 2 * (int) Math.ceil(compression) + 10;
+        this.mean = new double[capacity];
+        this.weight = new double[capacity];
+        this.buffer = new double[Math.max(32, 5 * (int) Math.ceil(compression))];
+    }
+
+    /**
+     * Ctor.
+     *
+     * @param compression   compression
+     * @param mean          centroid means in ascending order
+     * @param weight        centroid weights
+     * @param centroidCount number of centroids
+     * @param min           smallest value
+     * @param max           largest value
+     */
+    public QuantileSketchState(double compression, double[] mean, double[] weight, int centroidCount, double min, double max) {
+        this(compression);
+        if (centroidCount > this.mean.length) {
+            this.mean = new double[centroidCount];
+            this.weight = new double[centroidCount];
+        }
+        System.arraycopy(mean, 0, this.mean, 0, centroidCount);
+        System.arraycopy(weight, 0, this.weight, 0, centroidCount);
+        this.centroidCount = centroidCount;
+        for (int i = 0; i < centroidCount; i++) {
+            totalWeight += weight[i];
+        }
+        this.min = min;
+        this.max = max;
+    }
+
+    /**
+     * Add a value.
+     *
+     * @param value to add
+     */
+    public void add(double value) {
+        if (Double.isNaN(value)) {
+            return;
+        }
+        if (bufferCount == buffer.length) {
+            flush();
+        }
+        buffer[bufferCount++] = value;
+        min = Math.min(min, value);
+        max = Math.max(max, value);
+    }
+
+    /**
+     * Add all values of another state.
+     *
+     * @param other state to merge
+     */
+    public void merge(QuantileSketchState other) {
+        QuantileSketchState flushed = other.getFlushed();
+        flush();
+        if (flushed.centroidCount == 0) {
+            return;
+        }
+        compress(flushed.mean, flushed.weight, flushed.centroidCount, flushed.totalWeight);
+        min = Math.min(min, flushed.min);
+        max = Math.max(max, flushed.max);
+    }
+
+    /**
+     * Returns the approximate value at the quantile.
+     *
+     * @param q quantile between 0 and 1
+     * @return value or NaN when there are no values
+     */
+    public double quantile(double q) {
+        if (q < 0 || q > 1) {
+            throw new IllegalArgumentException("Quantile must be between 0 and 1 but received " + q);
+        }
+        return getFlushed().quantileFlushed(q);
+    }
+
+    /**
+     * Returns this state when no values are buffered, or otherwise a copy of this state with the buffered values
+     * merged into the centroids. Does not change this state.
+     *
+     * @return state without buffered values
+     */
+    public QuantileSketchState getFlushed() {
+        if (bufferCount == 0) {
+            return this;
+        }
+        QuantileSketchState copy = new QuantileSketchState(compression, mean, weight, centroidCount, min, max);
+        System.arraycopy(buffer, 0, copy.buffer, 0, bufferCount);
+        copy.bufferCount = bufferCount;
+        copy.flush();
+        return copy;
+    }
+
+    private double quantileFlushed(double q) {
+        int n = centroidCount;
+        if (n == 0) {
+            return Double.NaN;
+        }
+
+        // at the boundaries return min or max, near the boundaries interpolate knowing that a single value was min or max
+        double index = q * totalWeight;
+        if (index < 1) {
+            return min;
+        }
+        if (weight[0] > 1 && index < weight[0] / 2) {
+            return min + (index - 1) / (weight[0] / 2 - 1) * (mean[0] - min);
+        }
+        if (index > totalWeight - 1) {
+            return max;
+        }
+        if (weight[n - 1] > 1 && totalWeight - index <= weight[n - 1] / 2) {
+            return max - (totalWeight - index - 1) / (weight[n - 1] / 2 - 1) * (max - mean[n - 1]);
+        }
+
+        // interpolate between the centers of the neighboring centroids, a centroid of weight one is exact
+        double weightSoFar = weight[0] / 2;
+        for (int i = 0; i < n - 1; i++) {
+            double dw = (weight[i] + weight[i + 1]) / 2;
+            if (weightSoFar + dw > index) {
+                double leftUnit = 0;
+                if (weight[i] == 1) {
+                    if (index - weightSoFar < 0.5) {
+                        return mean[i];
+                    }
+                    leftUnit = 0.5;
+                }
+                double rightUnit = 0;
+                if (weight[i + 1] == 1) {
+                    if (weightSoFar + dw - index <= 0.5) {
+                        return mean[i + 1];
+                    }
+                    rightUnit = 0.5;
+                }
+                double z1 = index - weightSoFar - leftUnit;
+                double z2 = weightSoFar + dw - index - rightUnit;
+                return weightedAverage(mean[i], z2, mean[i + 1], z1);
+            }
+            weightSoFar += dw;
+        }
+        return max;
+    }
+
+    /**
+     * Returns the number of values added.
+     *
+     * @return count
+     */
+    public long getCount() {
+        return (long) totalWeight + bufferCount;
+    }
+
+    public double getCompression() {
+        return compression;
+    }
+
+    /**
+     * Merges buffered values into the centroids.
+     */
+    public void flush() {
+        if (bufferCount == 0) {
+            return;
+        }
+        Arrays.sort(buffer, 0, bufferCount);
+        compress(buffer, null, bufferCount, bufferCount);
+        bufferCount = 0;
+    }
+
+    /**
+     * Returns the number of centroids, not including buffered values, see {@link #getFlushed()}.
+     *
+     * @return centroid count
+     */
+    public int getCentroidCount() {
+        return centroidCount;
+    }
+
+    public double[] getMean() {
+        return mean;
+    }
+
+    public double[] getWeight() {
+        return weight;
+    }
+
+    public double getMin() {
+        return min;
+    }
+
+    public double getMax() {
+        return max;
+    }
+
+    private void compress(double[] addMean, double[] addWeight, int addCount, double addTotal) {
+        double total = totalWeight + addTotal;
+        double[] newMean = new double[mean.length];
+        double[] newWeight = new double[newMean.length];
+        int newCount = 0;
+
+        int i = 0;
+        int j = 0;
+        double curMean;
+        double curWeight;
+        if (j == addCount || (i < centroidCount && mean[i] <= addMean[j])) {
+            curMean = mean[i];
+            curWeight = weight[i++];
+        } else {
+            curMean = addMean[j];
+            curWeight = addWeight == null ? 1 : addWeight[j];
+            j++;
+        }
+        double weightSoFar = 0;
+        double kStart = scale(0);
+
+        while (i < centroidCount || j < addCount) {
+            double itemMean;
+            double itemWeight;
+            if (j == addCount || (i < centroidCount && mean[i] <= addMean[j])) {
+                itemMean = mean[i];
+                itemWeight = weight[i++];
+            } else {
+                itemMean = addMean[j];
+                itemWeight = addWeight == null ? 1 : addWeight[j];
+                j++;
+            }
+
+            double proposed = curWeight + itemWeight;
+            if (scale((weightSoFar + proposed) / total) - kStart <= 1) {
+                curWeight = proposed;
+                curMean += (itemMean - curMean) * itemWeight / curWeight;
+            } else {
+                if (newCount == newMean.length) {
+                    newMean = Arrays.copyOf(newMean, newCount * 2);
+                    newWeight = Arrays.copyOf(newWeight, newCount * 2);
+                }
+                newMean[newCount] = curMean;
+                newWeight[newCount++] = curWeight;
+                weightSoFar += curWeight;
+                kStart = scale(weightSoFar / total);
+                curMean = itemMean;
+                curWeight = itemWeight;
+            }
+        }
+        if (newCount == newMean.length) {
+            newMean = Arrays.copyOf(newMean, newCount * 2);
+            newWeight = Arrays.copyOf(newWeight, newCount * 2);
+        }
+        newMean[newCount] = curMean;
+        newWeight[newCount++] = curWeight;
+
+        mean = newMean;
+        weight = newWeight;
+        centroidCount = newCount;
+        totalWeight = total;
+    }
+
+    private double scale(double q) {
+        return compression * Math.asin(Math.max(-1, Math.min(1, 2 * q - 1))) / (2 * Math.PI);
+    }
+
+    private static double weightedAverage(double x1, double w1, double x2, double w2) {
+        if (w1 + w2 <= 0) {
+            return (x1 + x2) / 2;
+        }
+        double result = (x1 * w1 + x2 * w2) / (w1 + w2);
+        return Math.max(Math.min(x1, x2), Math.min(result, Math.max(x1, x2)));
+    }
+}
@@ -0,0 +1,207 @@
+/*
+ ***************************************************************************************
+ *  Copyright (C) 2006 EsperTech, Inc. All rights reserved.                            *
+ *  http://www.espertech.com/esper                                                     *
+ *  http://www.espertech.com                                                           *
+ *  ---------------------------------------------------------------------------------- *
+ *  The software in this package is published under the terms of the GPL license       *
+ *  a copy of which has been included with this distribution in the license.txt file.  *
+ ***************************************************************************************
+ */
+package com.espertech.esper.common.internal.epl.expression.agg.accessagg;
+
+import com.espertech.esper.common.client.EventBean;
+import com.espertech.esper.common.client.EventType;
+import com.espertech.esper.common.client.type.EPType;
+import com.espertech.esper.common.client.type.EPTypeClass;
+import com.espertech.esper.common.client.type.EPTypeNull;
+import com.espertech.esper.common.client.type.EPTypePremade;
+import com.espertech.esper.common.client.util.StatementType;
+import com.espertech.esper.common.internal.bytecodemodel.base.CodegenClassScope;
+import com.espertech.esper.common.internal.bytecodemodel.base.CodegenMethodScope;
+import com.espertech.esper.common.internal.bytecodemodel.model.expression.CodegenExpression;
+import com.espertech.esper.common.internal.compile.stage2.StatementRawInfo;
+import com.espertech.esper.common.internal.compile.stage3.StatementCompileTimeServices;
+import com.espertech.esper.common.internal.epl.agg.access.hyperloglog.AggregationForgeFactoryAccessHyperLogLogAdd;
+import com.espertech.esper.common.internal.epl.agg.access.hyperloglog.AggregationForgeFactoryAccessHyperLogLogState;
+import com.espertech.esper.common.internal.epl.agg.access.hyperloglog.AggregationStateHyperLogLogForge;
+import com.espertech.esper.common.internal.epl.agg.core.AggregationForgeFactory;
+import com.espertech.esper.common.internal.epl.approx.hyperloglog.HyperLogLogAggType;
+import com.espertech.esper.common.internal.epl.approx.hyperloglog.HyperLogLogSpecForge;
+import com.espertech.esper.common.internal.epl.approx.hyperloglog.HyperLogLogState;
+import com.espertech.esper.common.internal.epl.expression.agg.base.ExprAggregateNode;
+import com.espertech.esper.common.internal.epl.expression.agg.base.ExprAggregateNodeBase;
+import com.espertech.esper.common.internal.epl.expression.codegen.ExprForgeCodegenSymbol;
+import com.espertech.esper.common.internal.epl.expression.core.*;
+
+import java.util.Collection;
+import java.util.Map;
+
+import static com.espertech.esper.common.internal.bytecodemodel.model.expression.CodegenExpressionBuilder.constantNull;
+
+/**
+ * Represents the HyperLogLog aggregate function, an approximate mergeable distinct-count summary
+ * for use with tables.
+ */
+public class ExprAggMultiFunctionHyperLogLogNode extends ExprAggregateNodeBase implements ExprAggMultiFunctionNode, ExprEnumerationEval {
+
+    private static final int DEFAULT_PRECISION = 14;
+
+    public static final String MSG_NAME = "HyperLogLog";
+    private static final String NAME_PRECISION = "precision";
+
+    private final HyperLogLogAggType aggType;
+    private AggregationForgeFactory forgeFactory;
+
+    public ExprAggMultiFunctionHyperLogLogNode(boolean distinct, HyperLogLogAggType aggType) {
+        super(distinct);
+        this.aggType = aggType;
+    }
+
+    public AggregationForgeFactory validateAggregationChild(ExprValidationContext validationContext) throws ExprValidationException {
+        if (isDistinct()) {
+            throw new ExprValidationException(getMessagePrefix() + "is not supported with distinct");
+        }
+
+        // for declaration, validate the specification and return the state factory
+        if (aggType == HyperLogLogAggType.STATE) {
+            if (validationContext.getStatementRawInfo().getStatementType() != StatementType.CREATE_TABLE) {
+                throw new ExprValidationException(getMessagePrefix() + "can only be used in create-table statements");
+            }
+            HyperLogLogSpecForge specification = validateSpecification(validationContext);
+            AggregationStateHyperLogLogForge stateFactory = new AggregationStateHyperLogLogForge(this, specification);
+            forgeFactory = new AggregationForgeFactoryAccessHyperLogLogState(this, stateFactory);
+            return forgeFactory;
+        }
+
+        if (validationContext.getStatementRawInfo().getIntoTableName() == null) {
+            throw new ExprValidationException(getMessagePrefix() + "can only be used with into-table");
+        }
+        if (positionalParams.length != 1) {
+            throw new ExprValidationException(getMessagePrefix() + "requires a single parameter expression");
+        }
+        ExprNodeUtilityValidate.getValidatedSubtree(ExprNodeOrigin.AGGPARAM, this.getChildNodes(), validationContext);
+
+        ExprForge addEvaluator = getChildNodes()[0].getForge();
+        EPType addEvaluatorReturnType = addEvaluator.getEvaluationType();
+        if (addEvaluatorReturnType == EPTypeNull.INSTANCE) {
+            throw new ExprValidationException("Invalid null-type parameter");
+        }
+
+        forgeFactory = new AggregationForgeFactoryAccessHyperLogLogAdd(this, addEvaluator, (EPTypeClass) addEvaluatorReturnType);
+        return forgeFactory;
+    }
+
+    public ExprEnumerationEval getExprEvaluatorEnumeration() {
+        return this;
+    }
+
+    public String getAggregationFunctionName() {
+        return aggType.getFuncName();
+    }
+
+    public final boolean equalsNodeAggregateMethodOnly(ExprAggregateNode node) {
+        return false;
+    }
+
+    public HyperLogLogAggType getAggType() {
+        return aggType;
+    }
+
+    public EventType getEventTypeCollection(StatementRawInfo statementRawInfo, StatementCompileTimeServices compileTimeServices) throws ExprValidationException {
+        return null;
+    }
+
+    public Collection<EventBean> evaluateGetROCollectionEvents(EventBean[] eventsPerStream, boolean isNewData, ExprEvaluatorContext context) {
+        return null;
+    }
+
+    public EPTypeClass getComponentTypeCollection() throws ExprValidationException {
+        return null;
+    }
+
+    public Collection evaluateGetROCollectionScalar(EventBean[] eventsPerStream, boolean isNewData, ExprEvaluatorContext context) {
+        return null;
+    }
+
+    public CodegenExpression evaluateGetROCollectionScalarCodegen(CodegenMethodScope codegenMethodScope, ExprForgeCodegenSymbol exprSymbol, CodegenClassScope codegenClassScope) {
+        return null;
+    }
+
+    public CodegenExpression evaluateGetROCollectionEventsCodegen(CodegenMethodScope codegenMethodScope, ExprForgeCodegenSymbol exprSymbol, CodegenClassScope codegenClassScope) {
+        return constantNull();
+    }
+
+    public EventType getEventTypeSingle(StatementRawInfo statementRawInfo, StatementCompileTimeServices compileTimeServices) throws ExprValidationException {
+        return null;
+    }
+
+    public EventBean evaluateGetEventBean(EventBean[] eventsPerStream, boolean isNewData, ExprEvaluatorContext context) {
+        return null;
+    }
+
+    public CodegenExpression evaluateGetEventBeanCodegen(CodegenMethodScope codegenMethodScope, ExprForgeCodegenSymbol exprSymbol, CodegenClassScope codegenClassScope) {
+        return constantNull();
+    }
+
+    @Override
+    protected boolean isExprTextWildcardWhenNoParams() {
+        return false;
+    }
+
+    private HyperLogLogSpecForge validateSpecification(final ExprValidationContext exprValidationContext) throws ExprValidationException {
+        // default specification
+        final HyperLogLogSpecForge spec = new HyperLogLogSpecForge(DEFAULT_PRECISION);
+
+        // no parameters
+        if (this.getChildNodes().length == 0) {
+            return spec;
+        }
+
+        // check expected parameter type: a json object
+        if (this.getChildNodes().length > 1 || !(this.getChildNodes()[0] instanceof ExprConstantNode)) {
+            throw getDeclaredWrongParameterExpr();
+        }
+        ExprConstantNode constantNode = (ExprConstantNode) this.getChildNodes()[0];
+        Object value = constantNode.getConstantValue();
+        if (!(value instanceof Map)) {
+            throw getDeclaredWrongParameterExpr();
+        }
+
+        // define what to populate
+        PopulateFieldWValueDescriptor[] descriptors = new PopulateFieldWValueDescriptor[]{
+            new PopulateFieldWValueDescriptor(NAME_PRECISION, EPTypePremade.INTEGERBOXED.getEPType(), HyperLogLogSpecForge.EPTYPE, new PopulateFieldValueSetter() {
+                public void set(Object value) throws ExprValidationException {
+                    if (value != null) {
+                        int precision = (Integer) value;
+                        if (precision < HyperLogLogState.PRECISION_MIN || precision > HyperLogLogState.PRECISION_MAX) {
+                            throw new ExprValidationException(getMessagePrefix() + "requires a precision between " + HyperLogLogState.PRECISION_MIN + " and " + HyperLogLogState.PRECISION_MAX + " but received " + precision);
+                        }
+                        spec.setPrecision(precision);
+                    }
+                }
+            }, true),
+        };
+
+        // populate from json, validates incorrect names, coerces types
+        PopulateUtil.populateSpecCheckParameters(descriptors, (Map<String, Object>) value, spec, ExprNodeOrigin.AGGPARAM, exprValidationContext);
+
+        return spec;
+    }
+
+    public ExprValidationException getDeclaredWrongParameterExpr() throws ExprValidationException {
+        return new ExprValidationException(getMessagePrefix() + "expects either no parameter or a single json parameter object");
+    }
+
+    protected boolean isFilterExpressionAsLastParameter() {
+        return false;
+    }
+
+    public AggregationForgeFactory getAggregationForgeFactory() {
+        return forgeFactory;
+    }
+
+    private String getMessagePrefix() {
+        return MSG_NAME + " aggregation function '" + aggType.getFuncName() + "' ";
+    }
+}
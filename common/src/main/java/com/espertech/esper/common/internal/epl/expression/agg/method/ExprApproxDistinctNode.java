@@ -0,0 +1,91 @@
+/*
+ ***************************************************************************************
+ *  Copyright (C) 2006 EsperTech, Inc. All rights reserved.                            *
+ *  http://www.espertech.com/esper                                                     *
+ *  http://www.espertech.com                                                           *
+ *  ---------------------------------------------------------------------------------- *
+ *  The software in this package is published under the terms of the GPL license       *
+ *  a copy of which has been included with this distribution in the license.txt file.  *
+ ***************************************************************************************
+ */
+package com.espertech.esper.common.internal.epl.expression.agg.method;
+
+import com.espertech.esper.common.client.type.EPType;
+import com.espertech.esper.common.client.type.EPTypeClass;
+import com.espertech.esper.common.client.type.EPTypeNull;
+import com.espertech.esper.common.client.util.StatementType;
+import com.espertech.esper.common.internal.epl.agg.core.AggregationForgeFactory;
+import com.espertech.esper.common.internal.epl.agg.method.approxdistinct.AggregationForgeFactoryApproxDistinct;
+import com.espertech.esper.common.internal.epl.approx.hyperloglog.HyperLogLogAggState;
+import com.espertech.esper.common.internal.epl.approx.hyperloglog.HyperLogLogState;
+import com.espertech.esper.common.internal.epl.expression.agg.base.ExprAggregateNode;
+import com.espertech.esper.common.internal.epl.expression.agg.base.ExprAggregateNodeBase;
+import com.espertech.esper.common.internal.epl.expression.core.ExprNode;
+import com.espertech.esper.common.internal.epl.expression.core.ExprNodeUtilityAggregation;
+import com.espertech.esper.common.internal.epl.expression.core.ExprValidationContext;
+import com.espertech.esper.common.internal.epl.expression.core.ExprValidationException;
+import com.espertech.esper.common.internal.util.JavaClassHelper;
+
+/**
+ * Represents the approxDistinct(...) aggregate function is an expression tree, an approximate distinct count
+ * based on HyperLogLog.
+ */
+public class ExprApproxDistinctNode extends ExprAggregateNodeBase {
+    public static final int DEFAULT_PRECISION = 14;
+
+    public ExprApproxDistinctNode(boolean distinct) {
+        super(distinct);
+    }
+
+    public AggregationForgeFactory validateAggregationChild(ExprValidationContext validationContext) throws ExprValidationException {
+        String message = "The approxDistinct aggregation function requires an expression returning aggregation values and an optional integer precision constant between " +
+            HyperLogLogState.PRECISION_MIN + " and " + HyperLogLogState.PRECISION_MAX;
+        if (positionalParams.length == 0 || positionalParams.length > 2) {
+            throw new ExprValidationException(message);
+        }
+        if (isDistinct) {
+            throw new ExprValidationException("Aggregation function '" + getAggregationFunctionName() + "' does not allow distinct");
+        }
+
+        ExprNode child = positionalParams[0];
+        EPType childType = child.getForge().getEvaluationType();
+        if (childType == null || childType == EPTypeNull.INSTANCE) {
+            throw new ExprValidationException("Invalid null-type parameter");
+        }
+
+        int precision = DEFAULT_PRECISION;
+        if (positionalParams.length == 2) {
+            ExprNode param = positionalParams[1];
+            if (!param.getForge().getForgeConstantType().isCompileTimeConstant() || !JavaClassHelper.isNumericNonFP(param.getForge().getEvaluationType())) {
+                throw new ExprValidationException(message);
+            }
+            Number num = (Number) param.getForge().getExprEvaluator().evaluate(null, true, null);
+            if (num == null || num.intValue() < HyperLogLogState.PRECISION_MIN || num.intValue() > HyperLogLogState.PRECISION_MAX) {
+                throw new ExprValidationException(message);
+            }
+            precision = num.intValue();
+        }
+
+        // HyperLogLog cannot remove values
+        if (validationContext.getStatementType() != StatementType.CREATE_TABLE &&
+            ExprNodeUtilityAggregation.hasRemoveStreamForAggregations(child, validationContext.getStreamTypeService(), validationContext.isResettingAggregations())) {
+            throw new ExprValidationException("The approxDistinct aggregation function does not support a remove stream, it requires streams without data windows");
+        }
+
+        EPTypeClass valueType = (EPTypeClass) childType;
+        boolean union = HyperLogLogAggState.EPTYPE.equals(valueType);
+        return new AggregationForgeFactoryApproxDistinct(this, valueType, precision, union);
+    }
+
+    public String getAggregationFunctionName() {
+        return "approxDistinct";
+    }
+
+    public final boolean equalsNodeAggregateMethodOnly(ExprAggregateNode node) {
+        return node instanceof ExprApproxDistinctNode;
+    }
+
+    protected boolean isFilterExpressionAsLastParameter() {
+        return false;
+    }
+}
@@ -17,6 +17,7 @@ import com.espertech.esper.common.internal.epl.agg.method.minmax.AggregationForg
 import com.espertech.esper.common.internal.epl.expression.agg.base.ExprAggregateNode;
 import com.espertech.esper.common.internal.epl.expression.agg.base.ExprAggregateNodeBase;
 import com.espertech.esper.common.internal.epl.expression.core.*;
+import com.espertech.esper.common.internal.epl.streamtype.StreamTypeService;
 import com.espertech.esper.common.internal.serde.compiletime.resolve.DataInputOutputSerdeForge;
 
 /**
@@ -68,7 +69,20 @@ public class ExprMinMaxAggrNode extends ExprAggregateNodeBase {
         EPTypeClass evaluationType = (EPTypeClass) child.getForge().getEvaluationType();
         DataInputOutputSerdeForge serde = validationContext.getSerdeResolver().serdeForAggregation(evaluationType, validationContext.getStatementRawInfo());
         DataInputOutputSerdeForge distinctSerde = isDistinct ? validationContext.getSerdeResolver().serdeForAggregationDistinct(evaluationType, validationContext.getStatementRawInfo()) : null;
-        return new AggregationForgeFactoryMinMax(this, evaluationType, hasDataWindows, serde, distinctSerde);
+        boolean sliding = hasDataWindows && isSlidingApplicable(validationContext);
+        return new AggregationForgeFactoryMinMax(this, evaluationType, hasDataWindows, sliding, serde, distinctSerde);
+    }
+
+    private boolean isSlidingApplicable(ExprValidationContext validationContext) {
+        if (isDistinct || validationContext.getStatementType() == StatementType.CREATE_TABLE) {
+            return false;
+        }
+        if (!validationContext.getStatementCompileTimeService().getConfiguration().getCompiler().getExecution().isEnabledSlidingAggregation()) {
+            return false;
+        }
+        StreamTypeService streamTypeService = validationContext.getStreamTypeService();
+        boolean[] removeInInsertOrder = streamTypeService.getRemoveInInsertOrder();
+        return streamTypeService.getEventTypes().length == 1 && removeInInsertOrder != null && removeInInsertOrder[0];
     }
 
     public final boolean equalsNodeAggregateMethodOnly(ExprAggregateNode node) {
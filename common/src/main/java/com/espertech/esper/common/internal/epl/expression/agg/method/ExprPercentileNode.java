@@ -0,0 +1,95 @@
+/*
+ ***************************************************************************************
+ *  Copyright (C) 2006 EsperTech, Inc. All rights reserved.                            *
+ *  http://www.espertech.com/esper                                                     *
+ *  http://www.espertech.com                                                           *
+ *  ---------------------------------------------------------------------------------- *
+ *  The software in this package is published under the terms of the GPL license       *
+ *  a copy of which has been included with this distribution in the license.txt file.  *
+ ***************************************************************************************
+ */
+package com.espertech.esper.common.internal.epl.expression.agg.method;
+
+import com.espertech.esper.common.client.type.EPType;
+import com.espertech.esper.common.client.type.EPTypeClass;
+import com.espertech.esper.common.internal.epl.agg.core.AggregationForgeFactory;
+import com.espertech.esper.common.internal.epl.agg.method.percentile.AggregationForgeFactoryPercentile;
+import com.espertech.esper.common.internal.epl.expression.agg.base.ExprAggregateNode;
+import com.espertech.esper.common.internal.epl.expression.agg.base.ExprAggregateNodeBase;
+import com.espertech.esper.common.internal.epl.expression.core.ExprNode;
+import com.espertech.esper.common.internal.epl.expression.core.ExprValidationContext;
+import com.espertech.esper.common.internal.epl.expression.core.ExprValidationException;
+import com.espertech.esper.common.internal.serde.compiletime.resolve.DataInputOutputSerdeForge;
+import com.espertech.esper.common.internal.util.JavaClassHelper;
+
+/**
+ * Represents the percentile(...) and percentiles(...) aggregate functions is an expression tree.
+ * As for median(...), null and NaN values are not aggregated.
+ */
+public class ExprPercentileNode extends ExprAggregateNodeBase {
+    private final boolean multiple;
+
+    /**
+     * Ctor.
+     *
+     * @param distinct - flag indicating unique or non-unique value aggregation
+     * @param multiple - false for a single percentile, true for multiple percentiles
+     */
+    public ExprPercentileNode(boolean distinct, boolean multiple) {
+        super(distinct);
+        this.multiple = multiple;
+    }
+
+    public AggregationForgeFactory validateAggregationChild(ExprValidationContext validationContext) throws ExprValidationException {
+        String message = multiple ?
+            "The percentiles aggregation function requires an expression returning aggregation values and one or more numeric percentile constants between 0 and 100" :
+            "The percentile aggregation function requires two parameters, an expression returning aggregation values and a numeric percentile constant between 0 and 100";
+        if (positionalParams.length < 2 || (!multiple && positionalParams.length != 2)) {
+            throw new ExprValidationException(message);
+        }
+
+        ExprNode child = positionalParams[0];
+        EPType childType = child.getForge().getEvaluationType();
+        if (!JavaClassHelper.isNumeric(childType)) {
+            throw new ExprValidationException("Implicit conversion from datatype '" +
+                (childType == null ? "null" : childType.getTypeName()) +
+                "' to numeric is not allowed for aggregation function '" + getAggregationFunctionName() + "'");
+        }
+
+        double[] percents = new double[positionalParams.length - 1];
+        for (int i = 1; i < positionalParams.length; i++) {
+            ExprNode param = positionalParams[i];
+            if (!param.getForge().getForgeConstantType().isCompileTimeConstant() || !JavaClassHelper.isNumeric(param.getForge().getEvaluationType())) {
+                throw new ExprValidationException(message);
+            }
+            Number num = (Number) param.getForge().getExprEvaluator().evaluate(null, true, null);
+            if (num == null || !(num.doubleValue() >= 0 && num.doubleValue() <= 100)) {
+                throw new ExprValidationException(message);
+            }
+            percents[i - 1] = num.doubleValue();
+        }
+
+        EPTypeClass valueType = (EPTypeClass) childType;
+        DataInputOutputSerdeForge distinctSerde = isDistinct ? validationContext.getSerdeResolver().serdeForAggregationDistinct(valueType, validationContext.getStatementRawInfo()) : null;
+        return new AggregationForgeFactoryPercentile(this, valueType, distinctSerde, percents);
+    }
+
+    public String getAggregationFunctionName() {
+        return multiple ? "percentiles" : "percentile";
+    }
+
+    public boolean isMultiple() {
+        return multiple;
+    }
+
+    public final boolean equalsNodeAggregateMethodOnly(ExprAggregateNode node) {
+        if (!(node instanceof ExprPercentileNode)) {
+            return false;
+        }
+        return ((ExprPercentileNode) node).multiple == multiple;
+    }
+
+    protected boolean isFilterExpressionAsLastParameter() {
+        return false;
+    }
+}
@@ -13,6 +13,8 @@ package com.espertech.esper.common.internal.epl.expression.core;
 import com.espertech.esper.common.internal.bytecodemodel.base.CodegenClassScope;
 import com.espertech.esper.common.internal.bytecodemodel.base.CodegenMethodScope;
 import com.espertech.esper.common.internal.bytecodemodel.model.expression.CodegenExpression;
+import com.espertech.esper.common.internal.event.bean.getter.ReflectionPropFieldGetter;
+import com.espertech.esper.common.internal.event.bean.getter.ReflectionPropMethodGetter;
 import com.espertech.esper.common.internal.event.core.EventPropertyValueGetterForge;
 
 public class ExprEventEvaluatorForgeFromProp implements ExprEventEvaluatorForge {
@@ -25,4 +27,14 @@ public class ExprEventEvaluatorForgeFromProp implements ExprEventEvaluatorForge
     public CodegenExpression eventBeanWithCtxGet(CodegenExpression beanExpression, CodegenExpression ctxExpression, CodegenMethodScope parent, CodegenClassScope classScope) {
         return getter.eventBeanGetCodegen(beanExpression, parent, classScope);
     }
+
+    /**
+     * Returns indicator whether the getter reads a field or method of the underlying object directly,
+     * so that the code returns the declared type of the property and never null for a primitive property.
+     *
+     * @return indicator
+     */
+    public boolean isUnderlyingTyped() {
+        return getter instanceof ReflectionPropMethodGetter || getter instanceof ReflectionPropFieldGetter;
+    }
 }
@@ -0,0 +1,23 @@
+/*
+ ***************************************************************************************
+ *  Copyright (C) 2006 EsperTech, Inc. All rights reserved.                            *
+ *  http://www.espertech.com/esper                                                     *
+ *  http://www.espertech.com                                                           *
+ *  ---------------------------------------------------------------------------------- *
+ *  The software in this package is published under the terms of the GPL license       *
+ *  a copy of which has been included with this distribution in the license.txt file.  *
+ ***************************************************************************************
+ */
+package com.espertech.esper.common.internal.epl.expression.core;
+
+import com.espertech.esper.common.client.EventBean;
+import com.espertech.esper.common.client.type.EPTypeClass;
+
+/**
+ * Event evaluator for an event property of primitive long or int type that can also return the value without boxing.
+ */
+public interface ExprEventEvaluatorLong extends ExprEventEvaluator {
+    EPTypeClass EPTYPE = new EPTypeClass(ExprEventEvaluatorLong.class);
+
+    long evalLong(EventBean event, ExprEvaluatorContext ctx);
+}
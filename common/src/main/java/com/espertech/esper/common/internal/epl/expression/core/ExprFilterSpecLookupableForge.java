@@ -33,6 +33,7 @@ public class ExprFilterSpecLookupableForge {
     protected final EPTypeClass returnType;
     protected final boolean isNonPropertyGetter;
     protected final DataInputOutputSerdeForge valueSerde;
+    protected final Class primitiveEvalType;
 
     public ExprFilterSpecLookupableForge(String expression, ExprEventEvaluatorForge optionalEventEvalForge, ExprForge optionalExprForge, EPTypeClass returnType, boolean isNonPropertyGetter, DataInputOutputSerdeForge valueSerde) {
         // prefixing the expression ensures the expression resolves to either the event-eval or the expr-eval
@@ -46,6 +47,7 @@ public class ExprFilterSpecLookupableForge {
         this.returnType = JavaClassHelper.getBoxedType(returnType); // For type consistency for recovery and serde define as boxed type
         this.isNonPropertyGetter = isNonPropertyGetter;
         this.valueSerde = valueSerde;
+        this.primitiveEvalType = getPrimitiveEvalType(optionalEventEvalForge, returnType);
     }
 
     public EPTypeClass getReturnType() {
@@ -61,10 +63,19 @@ public class ExprFilterSpecLookupableForge {
 
         CodegenExpression singleEventEvalExpr = constantNull();
         if (optionalEventEvalForge != null) {
-            CodegenExpressionNewAnonymousClass anonymous = newAnonymousClass(method.getBlock(), ExprEventEvaluator.EPTYPE);
+            boolean isDouble = primitiveEvalType == double.class;
+            EPTypeClass evalType = primitiveEvalType == null ? ExprEventEvaluator.EPTYPE : (isDouble ? ExprEventEvaluatorDouble.EPTYPE : ExprEventEvaluatorLong.EPTYPE);
+            CodegenExpressionNewAnonymousClass anonymous = newAnonymousClass(method.getBlock(), evalType);
             CodegenMethod eval = CodegenMethod.makeParentNode(EPTypePremade.OBJECT.getEPType(), this.getClass(), classScope).addParam(CodegenNamedParam.from(EventBean.EPTYPE, "bean", ExprEvaluatorContext.EPTYPE, "ctx"));
             anonymous.addMethod("eval", eval);
             eval.getBlock().methodReturn(optionalEventEvalForge.eventBeanWithCtxGet(ref("bean"), ref("ctx"), method, classScope));
+            if (primitiveEvalType != null) {
+                // same value without boxing, for primitive-keyed filter indexes
+                EPTypeClass primitiveType = isDouble ? EPTypePremade.DOUBLEPRIMITIVE.getEPType() : EPTypePremade.LONGPRIMITIVE.getEPType();
+                CodegenMethod evalPrimitive = CodegenMethod.makeParentNode(primitiveType, this.getClass(), classScope).addParam(CodegenNamedParam.from(EventBean.EPTYPE, "bean", ExprEvaluatorContext.EPTYPE, "ctx"));
+                anonymous.addMethod(isDouble ? "evalDouble" : "evalLong", evalPrimitive);
+                evalPrimitive.getBlock().methodReturn(optionalEventEvalForge.eventBeanWithCtxGet(ref("bean"), ref("ctx"), method, classScope));
+            }
             singleEventEvalExpr = anonymous;
         }
 
@@ -86,6 +97,14 @@ public class ExprFilterSpecLookupableForge {
         return method;
     }
 
+    private static Class getPrimitiveEvalType(ExprEventEvaluatorForge eventEvalForge, EPTypeClass returnType) {
+        if (!(eventEvalForge instanceof ExprEventEvaluatorForgeFromProp) || !((ExprEventEvaluatorForgeFromProp) eventEvalForge).isUnderlyingTyped() || returnType == null) {
+            return null;
+        }
+        Class type = returnType.getType();
+        return type == long.class || type == int.class || type == double.class ? type : null;
+    }
+
     public boolean equals(Object o) {
         if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
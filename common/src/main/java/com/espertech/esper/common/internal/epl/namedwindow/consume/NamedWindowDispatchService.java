@@ -37,6 +37,13 @@ public interface NamedWindowDispatchService {
      */
     boolean dispatch();
 
+    /**
+     * Returns indicator whether the current thread has named window results waiting to be dispatched.
+     *
+     * @return true for pending dispatches
+     */
+    boolean isDispatchPending();
+
     /**
      * Destroy service.
      */
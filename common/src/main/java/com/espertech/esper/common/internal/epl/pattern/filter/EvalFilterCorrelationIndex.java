@@ -0,0 +1,203 @@
+/*
+ ***************************************************************************************
+ *  Copyright (C) 2006 EsperTech, Inc. All rights reserved.                            *
+ *  http://www.espertech.com/esper                                                     *
+ *  http://www.espertech.com                                                           *
+ *  ---------------------------------------------------------------------------------- *
+ *  The software in this package is published under the terms of the GPL license       *
+ *  a copy of which has been included with this distribution in the license.txt file.  *
+ ***************************************************************************************
+ */
+package com.espertech.esper.common.internal.epl.pattern.filter;
+
+import com.espertech.esper.common.client.EventBean;
+import com.espertech.esper.common.client.util.HashableMultiKey;
+import com.espertech.esper.common.internal.context.util.AgentInstanceContext;
+import com.espertech.esper.common.internal.context.util.EPStatementHandleCallbackFilter;
+import com.espertech.esper.common.internal.epl.expression.core.ExprFilterSpecLookupable;
+import com.espertech.esper.common.internal.filterspec.FilterSpecActivatable;
+import com.espertech.esper.common.internal.filterspec.FilterSpecParam;
+import com.espertech.esper.common.internal.filterspec.FilterValueSetParam;
+import com.espertech.esper.common.internal.filterspec.MatchedEventMap;
+import com.espertech.esper.common.internal.filtersvc.FilterHandleCallback;
+import com.espertech.esper.common.internal.filtersvc.FilterService;
+
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Pattern-level correlation index for a correlated filter node such as "b=B(id=a.id)" in "every a=A -&gt; b=B(id=a.id)".
+ * <p>
+ * Instead of each state node registering its own filter with the filter service, the index registers a single filter
+ * for all active state nodes of the filter node, upon the first state node starting, and removes it upon the last
+ * state node stopping. Matching events are dispatched by hash lookup of the correlation key, i.e. the values of the
+ * filter event properties, to the waiting state nodes in the order the state nodes started.
+ * As a filter with equals-operator never matches a null value, an event with a null correlation key value does not match.
+ */
+public class EvalFilterCorrelationIndex implements FilterHandleCallback {
+    private final EvalFilterNode evalFilterNode;
+    private final EPStatementHandleCallbackFilter handle;
+    private final Map<Object, Object> nodesByKey = new HashMap<>();
+    private ExprFilterSpecLookupable[] lookupables;
+    private FilterValueSetParam[][] filterValues;
+    private FilterService registeredWith;
+    private int numNodes;
+
+    public EvalFilterCorrelationIndex(EvalFilterNode evalFilterNode) {
+        this.evalFilterNode = evalFilterNode;
+        this.handle = new EPStatementHandleCallbackFilter(evalFilterNode.getContext().getAgentInstanceContext().getEpStatementAgentInstanceHandle(), this);
+        FilterValueSetParam[][] addendum = evalFilterNode.getAddendumFilters();
+        this.filterValues = addendum != null ? addendum : new FilterValueSetParam[][]{FilterSpecParam.EMPTY_VALUE_ARRAY};
+    }
+
+    /**
+     * Add a state node, registering the filter when the state node is the first.
+     *
+     * @param node       state node
+     * @param beginState prior tagged events
+     * @return correlation key to provide to remove
+     */
+    public Object add(EvalFilterStateNode node, MatchedEventMap beginState) {
+        AgentInstanceContext agentInstanceContext = evalFilterNode.getContext().getAgentInstanceContext();
+        FilterValueSetParam[][] values = evalFilterNode.getFactoryNode().getFilterSpec().getValueSet(beginState, null, agentInstanceContext, agentInstanceContext.getStatementContextFilterEvalEnv());
+        FilterValueSetParam[] params = values[0];
+        if (lookupables == null) {
+            lookupables = new ExprFilterSpecLookupable[params.length];
+            for (int i = 0; i < params.length; i++) {
+                lookupables[i] = params[i].getLookupable();
+            }
+        }
+        Object key;
+        if (params.length == 1) {
+            key = params[0].getFilterForValue();
+        } else {
+            Object[] keys = new Object[params.length];
+            for (int i = 0; i < params.length; i++) {
+                keys[i] = params[i].getFilterForValue();
+            }
+            key = new HashableMultiKey(keys);
+        }
+
+        Object existing = nodesByKey.get(key);
+        if (existing == null) {
+            nodesByKey.put(key, node);
+        } else if (existing instanceof ArrayDeque) {
+            ((ArrayDeque<EvalFilterStateNode>) existing).add(node);
+        } else {
+            ArrayDeque<EvalFilterStateNode> nodes = new ArrayDeque<>(4);
+            nodes.add((EvalFilterStateNode) existing);
+            nodes.add(node);
+            nodesByKey.put(key, nodes);
+        }
+
+        numNodes++;
+        if (numNodes == 1) {
+            registeredWith = evalFilterNode.getContext().getFilterService();
+            registeredWith.add(evalFilterNode.getFactoryNode().getFilterSpec().getFilterForEventType(), filterValues, handle);
+            updateFilterVersion(registeredWith);
+        }
+        return key;
+    }
+
+    /**
+     * Remove a state node, removing the filter when the state node is the last.
+     *
+     * @param node state node
+     * @param key  correlation key as returned by add
+     */
+    public void remove(EvalFilterStateNode node, Object key) {
+        Object existing = nodesByKey.get(key);
+        if (existing == null) {
+            return;
+        }
+        if (existing instanceof ArrayDeque) {
+            ArrayDeque<EvalFilterStateNode> nodes = (ArrayDeque<EvalFilterStateNode>) existing;
+            if (!nodes.remove(node)) {
+                return;
+            }
+            if (nodes.size() == 1) {
+                nodesByKey.put(key, nodes.getFirst());
+            }
+        } else if (existing == node) {
+            nodesByKey.remove(key);
+        } else {
+            return;
+        }
+
+        numNodes--;
+        if (numNodes == 0) {
+            FilterService filterService = registeredWith;
+            registeredWith = null;
+            filterService.remove(handle, evalFilterNode.getFactoryNode().getFilterSpec().getFilterForEventType(), filterValues);
+            updateFilterVersion(filterService);
+        }
+    }
+
+    /**
+     * Move the filter to another filter service, if registered and not already moved.
+     *
+     * @param target target filter service
+     */
+    public void transfer(FilterService target) {
+        if (registeredWith == null || registeredWith == target) {
+            return;
+        }
+        FilterSpecActivatable filterSpec = evalFilterNode.getFactoryNode().getFilterSpec();
+        registeredWith.remove(handle, filterSpec.getFilterForEventType(), filterValues);
+        target.add(filterSpec.getFilterForEventType(), filterValues, handle);
+        registeredWith = target;
+    }
+
+    public void matchFound(EventBean theEvent, Collection<FilterHandleCallback> allStmtMatches) {
+        AgentInstanceContext agentInstanceContext = evalFilterNode.getContext().getAgentInstanceContext();
+        Object key;
+        if (lookupables.length == 1) {
+            key = lookupables[0].getEval().eval(theEvent, agentInstanceContext);
+            if (key == null) {
+                return;
+            }
+        } else {
+            Object[] keys = new Object[lookupables.length];
+            for (int i = 0; i < lookupables.length; i++) {
+                keys[i] = lookupables[i].getEval().eval(theEvent, agentInstanceContext);
+                if (keys[i] == null) {
+                    return;
+                }
+            }
+            key = new HashableMultiKey(keys);
+        }
+
+        Object found = nodesByKey.get(key);
+        if (found == null) {
+            return;
+        }
+        if (found instanceof ArrayDeque) {
+            // state nodes may stop or start as a result of the match
+            EvalFilterStateNode[] nodes = ((ArrayDeque<EvalFilterStateNode>) found).toArray(new EvalFilterStateNode[0]);
+            for (EvalFilterStateNode node : nodes) {
+                node.matchFound(theEvent, allStmtMatches);
+            }
+        } else {
+            ((EvalFilterStateNode) found).matchFound(theEvent, allStmtMatches);
+        }
+    }
+
+    public boolean isSubSelect() {
+        return false;
+    }
+
+    public EPStatementHandleCallbackFilter getHandle() {
+        return handle;
+    }
+
+    public int getNumNodes() {
+        return numNodes;
+    }
+
+    private void updateFilterVersion(FilterService filterService) {
+        long filtersVersion = filterService.getFiltersVersion();
+        evalFilterNode.getContext().getAgentInstanceContext().getEpStatementAgentInstanceHandle().getStatementFilterVersion().setStmtFilterVersion(filtersVersion);
+    }
+}
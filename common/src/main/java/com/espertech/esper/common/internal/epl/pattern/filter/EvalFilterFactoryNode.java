@@ -27,6 +27,7 @@ public class EvalFilterFactoryNode extends EvalFactoryNodeBase {
     private String eventAsName;
     private Integer consumptionLevel;
     private int eventAsTagNumber;
+    private boolean correlated;
 
     public void setFilterSpec(FilterSpecActivatable filterSpec) {
         this.filterSpec = filterSpec;
@@ -44,6 +45,10 @@ public class EvalFilterFactoryNode extends EvalFactoryNodeBase {
         this.eventAsTagNumber = eventAsTagNumber;
     }
 
+    public void setCorrelated(boolean correlated) {
+        this.correlated = correlated;
+    }
+
     public EvalNode makeEvalNode(PatternAgentInstanceContext agentInstanceContext, EvalNode parentNode) {
         return new EvalFilterNode(agentInstanceContext, this);
     }
@@ -64,6 +69,10 @@ public class EvalFilterFactoryNode extends EvalFactoryNodeBase {
         return eventAsTagNumber;
     }
 
+    public boolean isCorrelated() {
+        return correlated;
+    }
+
     public boolean isStateful() {
         return false;
     }
@@ -40,6 +40,7 @@ public class EvalFilterForgeNode extends EvalForgeNodeBase {
     private final Integer consumptionLevel;
 
     private int eventAsTagNumber = -1;
+    private boolean correlated;
 
     /**
      * Constructor.
@@ -121,6 +122,19 @@ public class EvalFilterForgeNode extends EvalForgeNodeBase {
         this.eventAsTagNumber = eventAsTagNumber;
     }
 
+    /**
+     * Returns indicator whether the filter uses the pattern-level correlation index.
+     *
+     * @return correlated indicator
+     */
+    public boolean isCorrelated() {
+        return correlated;
+    }
+
+    public void setCorrelated(boolean correlated) {
+        this.correlated = correlated;
+    }
+
     public boolean isStateful() {
         return false;
     }
@@ -163,7 +177,8 @@ public class EvalFilterForgeNode extends EvalForgeNodeBase {
                 .exprDotMethod(ref("node"), "setFilterSpec", localMethod(filterSpec.makeCodegen(method, symbols, classScope)))
                 .exprDotMethod(ref("node"), "setEventAsName", constant(eventAsName))
                 .exprDotMethod(ref("node"), "setConsumptionLevel", constant(consumptionLevel))
-                .exprDotMethod(ref("node"), "setEventAsTagNumber", constant(eventAsTagNumber));
+                .exprDotMethod(ref("node"), "setEventAsTagNumber", constant(eventAsTagNumber))
+                .exprDotMethod(ref("node"), "setCorrelated", constant(correlated));
     }
 
     public void collectSelfFilterAndSchedule(Function<Short, CallbackAttribution> callbackAttribution, List<FilterSpecTracked> filters, List<ScheduleHandleTracked> schedules) {
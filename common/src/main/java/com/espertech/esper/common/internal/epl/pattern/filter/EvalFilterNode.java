@@ -25,6 +25,7 @@ import org.slf4j.LoggerFactory;
 public class EvalFilterNode extends EvalNodeBase {
     protected final EvalFilterFactoryNode factoryNode;
     private final FilterValueSetParam[][] addendumFilters;
+    private final EvalFilterCorrelationIndex correlationIndex;
 
     public EvalFilterNode(PatternAgentInstanceContext context, EvalFilterFactoryNode factoryNode) {
         super(context);
@@ -43,6 +44,7 @@ public class EvalFilterNode extends EvalNodeBase {
             }
         }
         this.addendumFilters = addendum;
+        this.correlationIndex = factoryNode.isCorrelated() && context.getConsumptionHandler() == null ? new EvalFilterCorrelationIndex(this) : null;
     }
 
     public EvalFilterFactoryNode getFactoryNode() {
@@ -53,6 +55,10 @@ public class EvalFilterNode extends EvalNodeBase {
         return addendumFilters;
     }
 
+    public EvalFilterCorrelationIndex getCorrelationIndex() {
+        return correlationIndex;
+    }
+
     public EvalStateNode newState(Evaluator parentNode) {
         if (getContext().getConsumptionHandler() != null) {
             return new EvalFilterStateNodeConsumeImpl(parentNode, this);
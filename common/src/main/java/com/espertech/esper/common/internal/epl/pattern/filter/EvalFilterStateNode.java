@@ -33,6 +33,7 @@ public class EvalFilterStateNode extends EvalStateNode implements FilterHandleCa
     protected boolean isStarted;
     protected EPStatementHandleCallbackFilter handle;
     protected MatchedEventMap beginState;
+    protected Object correlationKey;
 
     /**
      * Constructor.
@@ -65,6 +66,14 @@ public class EvalFilterStateNode extends EvalStateNode implements FilterHandleCa
         // Start the filter
         isStarted = true;
 
+        EvalFilterCorrelationIndex correlationIndex = evalFilterNode.getCorrelationIndex();
+        if (correlationIndex != null) {
+            handle = correlationIndex.getHandle();
+            correlationKey = correlationIndex.add(this, beginState);
+            agentInstanceContext.getInstrumentationProvider().aPatternFilterStart();
+            return;
+        }
+
         FilterService filterService = evalFilterNode.getContext().getFilterService();
         handle = new EPStatementHandleCallbackFilter(evalFilterNode.getContext().getAgentInstanceContext().getEpStatementAgentInstanceHandle(), this);
         FilterSpecActivatable filterSpec = evalFilterNode.getFactoryNode().getFilterSpec();
@@ -187,6 +196,16 @@ public class EvalFilterStateNode extends EvalStateNode implements FilterHandleCa
     }
 
     private void stopFiltering() {
+        EvalFilterCorrelationIndex correlationIndex = evalFilterNode.getCorrelationIndex();
+        if (correlationIndex != null) {
+            if (handle != null) {
+                correlationIndex.remove(this, correlationKey);
+            }
+            handle = null;
+            correlationKey = null;
+            isStarted = false;
+            return;
+        }
         AgentInstanceContext agentInstanceContext = evalFilterNode.getContext().getAgentInstanceContext();
         FilterSpecActivatable filterSpec = evalFilterNode.getFactoryNode().getFilterSpec();
         FilterValueSetParam[][] filterValues = filterSpec.getValueSet(beginState, evalFilterNode.getAddendumFilters(), agentInstanceContext, agentInstanceContext.getStatementContextFilterEvalEnv());
@@ -205,6 +224,10 @@ public class EvalFilterStateNode extends EvalStateNode implements FilterHandleCa
         if (handle == null) {
             return;
         }
+        if (evalFilterNode.getCorrelationIndex() != null) {
+            evalFilterNode.getCorrelationIndex().transfer(services.getTargetFilterService());
+            return;
+        }
         FilterSpecActivatable filterSpec = evalFilterNode.getFactoryNode().getFilterSpec();
         FilterValueSetParam[][] filterValues = filterSpec.getValueSet(beginState, evalFilterNode.getAddendumFilters(), services.getAgentInstanceContext(), services.getAgentInstanceContext().getStatementContextFilterEvalEnv());
         if (filterValues != null) {
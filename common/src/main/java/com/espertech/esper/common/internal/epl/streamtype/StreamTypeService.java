@@ -116,6 +116,14 @@ public interface StreamTypeService {
      */
     public boolean[] getIStreamOnly();
 
+    /**
+     * Returns true for each stream whose data window removes events in the same order that events were added,
+     * or null when not known.
+     *
+     * @return true for streams that remove events in insertion order, or null when not known
+     */
+    public boolean[] getRemoveInInsertOrder();
+
     public int getStreamNumForStreamName(String streamWildcard);
 
     public boolean isOnDemandStreams();
@@ -34,6 +34,7 @@ public class StreamTypeServiceImpl implements StreamTypeService {
     private boolean isOnDemandStreams;
     private boolean hasTableTypes;
     private boolean optionalStreams;
+    private boolean[] removeInInsertOrder;
 
     /**
      * Ctor.
@@ -137,6 +138,14 @@ public class StreamTypeServiceImpl implements StreamTypeService {
         return isIStreamOnly;
     }
 
+    public boolean[] getRemoveInInsertOrder() {
+        return removeInInsertOrder;
+    }
+
+    public void setRemoveInInsertOrder(boolean[] removeInInsertOrder) {
+        this.removeInInsertOrder = removeInInsertOrder;
+    }
+
     public boolean getOptionalStreams() {
         return optionalStreams;
     }
@@ -14,6 +14,7 @@ import com.espertech.esper.common.client.EventType;
 import com.espertech.esper.common.internal.epl.agg.core.AggregationForgeFactory;
 import com.espertech.esper.common.internal.epl.agg.core.AggregationStateFactoryForge;
 import com.espertech.esper.common.internal.epl.approx.countminsketch.CountMinSketchSpecForge;
+import com.espertech.esper.common.internal.epl.approx.quantilesketch.QuantileSketchSpecForge;
 import com.espertech.esper.common.internal.serde.compiletime.resolve.DataInputOutputSerdeForge;
 
 public interface FabricTypeCollector {
@@ -21,7 +22,9 @@ public interface FabricTypeCollector {
     void refCountedSetOfDouble();
     void serde(DataInputOutputSerdeForge serde);
     void sortedDoubleVector();
+    void sortedDoubleTree();
     void sortedRefCountedSet(DataInputOutputSerdeForge serde);
+    void slidingMinMaxDeque(DataInputOutputSerdeForge serde);
     void serdeObjectArrayMayNullNull(DataInputOutputSerdeForge[] criteriaSerdes);
     void serdeNullableEvent(EventType eventType);
     void treeMapEventsMayDeque(DataInputOutputSerdeForge[] criteriaSerdes, EventType eventType);
@@ -34,6 +37,8 @@ public interface FabricTypeCollector {
     void bigDecimal();
     void bigInteger();
     void countMinSketch(CountMinSketchSpecForge spec);
+    void quantileSketch(QuantileSketchSpecForge spec);
+    void hyperLogLog(int precision);
     void plugInAggregation(Class serde);
 
     static void collect(AggregationForgeFactory[] methodFactories, AggregationStateFactoryForge[] accessFactories, FabricTypeCollector collector) {
@@ -124,7 +124,17 @@ public enum FilterOperator {
     /**
      * Boolean expression filter operator
      */
-    BOOLEAN_EXPRESSION("boolean_expr");
+    BOOLEAN_EXPRESSION("boolean_expr"),
+
+    /**
+     * Like-pattern using the 'like' operator with the default escape character
+     */
+    LIKE("like"),
+
+    /**
+     * Regular expression using the 'regexp' operator
+     */
+    REGEXP("regexp");
 
     private String textualOp;
 
@@ -70,6 +70,24 @@ public interface FilterService {
      */
     public void remove(FilterHandle callback, EventType eventType, FilterValueSetParam[][] valueSet);
 
+    /**
+     * Add filters as a single change, for use when starting many filters at once such as when starting
+     * many context partitions. The filters are applied grouped by event type
+     * under a single write lock.
+     *
+     * @param entries filters to add
+     */
+    public void addAll(Collection<FilterServiceEntry> entries);
+
+    /**
+     * Remove filters as a single change, for use when stopping many filters at once such as when stopping
+     * many context partitions. The filters are removed grouped by event type
+     * under a single write lock.
+     *
+     * @param entries filters to remove
+     */
+    public void removeAll(Collection<FilterServiceEntry> entries);
+
     /**
      * Return a count of the number of events evaluated by this service.
      *
@@ -18,6 +18,7 @@ import com.espertech.esper.common.internal.bytecodemodel.base.CodegenFieldSharab
 import com.espertech.esper.common.internal.bytecodemodel.model.expression.CodegenExpression;
 import com.espertech.esper.common.internal.serde.compiletime.resolve.DataInputOutputSerdeForge;
 import com.espertech.esper.common.internal.serde.serdeset.additional.DIORefCountedSet;
+import com.espertech.esper.common.internal.serde.serdeset.additional.DIOSlidingMinMaxDeque;
 import com.espertech.esper.common.internal.serde.serdeset.additional.DIOSortedRefCountedSet;
 
 import static com.espertech.esper.common.internal.bytecodemodel.model.expression.CodegenExpressionBuilder.newInstance;
@@ -47,6 +48,8 @@ public class CodegenSharableSerdeClassTyped implements CodegenFieldSharable {
             return newInstance(DIORefCountedSet.EPTYPE, serde);
         } else if (name == CodegenSharableSerdeName.SORTEDREFCOUNTEDSET) {
             return newInstance(DIOSortedRefCountedSet.EPTYPE, serde);
+        } else if (name == CodegenSharableSerdeName.SLIDINGMINMAXDEQUE) {
+            return newInstance(DIOSlidingMinMaxDeque.EPTYPE, serde);
         } else {
             throw new IllegalArgumentException("Unrecognized name " + name);
         }
@@ -55,7 +58,8 @@ public class CodegenSharableSerdeClassTyped implements CodegenFieldSharable {
     public enum CodegenSharableSerdeName {
         VALUE_NULLABLE("valueNullable"),
         REFCOUNTEDSET("refCountedSet"),
-        SORTEDREFCOUNTEDSET("sortedRefCountedSet");
+        SORTEDREFCOUNTEDSET("sortedRefCountedSet"),
+        SLIDINGMINMAXDEQUE("slidingMinMaxDeque");
 
         private final String methodName;
 
@@ -0,0 +1,49 @@
+/*
+ ***************************************************************************************
+ *  Copyright (C) 2006 EsperTech, Inc. All rights reserved.                            *
+ *  http://www.espertech.com/esper                                                     *
+ *  http://www.espertech.com                                                           *
+ *  ---------------------------------------------------------------------------------- *
+ *  The software in this package is published under the terms of the GPL license       *
+ *  a copy of which has been included with this distribution in the license.txt file.  *
+ ***************************************************************************************
+ */
+package com.espertech.esper.common.internal.serde.serdeset.additional;
+
+import com.espertech.esper.common.client.serde.DataInputOutputSerde;
+import com.espertech.esper.common.client.serde.EventBeanCollatedWriter;
+import com.espertech.esper.common.client.type.EPTypeClass;
+import com.espertech.esper.common.internal.collection.SlidingMinMaxDeque;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+public class DIOSlidingMinMaxDeque implements DataInputOutputSerde<SlidingMinMaxDeque<Object>> {
+    public final static EPTypeClass EPTYPE = new EPTypeClass(DIOSlidingMinMaxDeque.class);
+
+    private final DataInputOutputSerde inner;
+
+    public DIOSlidingMinMaxDeque(DataInputOutputSerde inner) {
+        this.inner = inner;
+    }
+
+    public void write(SlidingMinMaxDeque<Object> deque, DataOutput output, byte[] unitKey, EventBeanCollatedWriter writer) throws IOException {
+        output.writeBoolean(deque.isMax());
+        output.writeInt(deque.size());
+        for (int i = 0; i < deque.size(); i++) {
+            inner.write(deque.getValueAt(i), output, unitKey, writer);
+            output.writeInt(deque.getCountAt(i));
+        }
+    }
+
+    public SlidingMinMaxDeque<Object> read(DataInput input, byte[] unitKey) throws IOException {
+        SlidingMinMaxDeque<Object> deque = new SlidingMinMaxDeque<>(input.readBoolean());
+        int size = input.readInt();
+        for (int i = 0; i < size; i++) {
+            Object value = inner.read(input, unitKey);
+            deque.addLast(value, input.readInt());
+        }
+        return deque;
+    }
+}
@@ -16,8 +16,12 @@ import com.espertech.esper.common.client.type.EPType;
 import com.espertech.esper.common.internal.collection.Pair;
 import com.espertech.esper.common.internal.epl.agg.access.linear.AggregationAccessorLinearType;
 import com.espertech.esper.common.internal.epl.approx.countminsketch.CountMinSketchAggType;
+import com.espertech.esper.common.internal.epl.approx.hyperloglog.HyperLogLogAggType;
+import com.espertech.esper.common.internal.epl.approx.quantilesketch.QuantileSketchAggType;
 import com.espertech.esper.common.internal.epl.expression.agg.accessagg.ExprAggMultiFunctionCountMinSketchNode;
 import com.espertech.esper.common.internal.epl.expression.agg.accessagg.ExprAggMultiFunctionLinearAccessNode;
+import com.espertech.esper.common.internal.epl.expression.agg.accessagg.ExprAggMultiFunctionHyperLogLogNode;
+import com.espertech.esper.common.internal.epl.expression.agg.accessagg.ExprAggMultiFunctionQuantileSketchNode;
 import com.espertech.esper.common.internal.epl.expression.agg.accessagg.ExprAggMultiFunctionSortedMinMaxByNode;
 import com.espertech.esper.common.internal.epl.expression.agg.method.*;
 import com.espertech.esper.common.internal.epl.expression.core.ExprCurrentEvaluationContextNode;
@@ -225,6 +229,15 @@ public class ClasspathImportServiceCompileTimeImpl extends ClasspathImportServic
         if (nameLowerCase.equals("leaving")) {
             return new ExprLeavingAggNode(isDistinct);
         }
+        if (nameLowerCase.equals("percentile")) {
+            return new ExprPercentileNode(isDistinct, false);
+        }
+        if (nameLowerCase.equals("percentiles")) {
+            return new ExprPercentileNode(isDistinct, true);
+        }
+        if (nameLowerCase.equals("approxdistinct")) {
+            return new ExprApproxDistinctNode(isDistinct);
+        }
         if (nameLowerCase.equals("maxby")) {
             return new ExprAggMultiFunctionSortedMinMaxByNode(true, false, false);
         }
@@ -244,6 +257,14 @@ public class ClasspathImportServiceCompileTimeImpl extends ClasspathImportServic
         if (cmsType != null) {
             return new ExprAggMultiFunctionCountMinSketchNode(isDistinct, cmsType);
         }
+        QuantileSketchAggType quantileSketchType = QuantileSketchAggType.fromNameMayMatch(nameLowerCase);
+        if (quantileSketchType != null) {
+            return new ExprAggMultiFunctionQuantileSketchNode(isDistinct, quantileSketchType);
+        }
+        HyperLogLogAggType hyperLogLogType = HyperLogLogAggType.fromNameMayMatch(nameLowerCase);
+        if (hyperLogLogType != null) {
+            return new ExprAggMultiFunctionHyperLogLogNode(isDistinct, hyperLogLogType);
+        }
         return null;
     }
 
@@ -10,15 +10,17 @@
  */
 package com.espertech.esper.common.internal.util;
 
+import com.espertech.esper.common.client.util.RuntimeLockType;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 /**
- * Simple read-write lock based on {@link java.util.concurrent.locks.ReentrantReadWriteLock} that associates a
- * name with the lock and traces read/write locking and unlocking.
+ * Simple read-write lock based on {@link java.util.concurrent.locks.ReentrantReadWriteLock}, or on
+ * {@link PerThreadReadWriteLock}, that associates a name with the lock and traces read/write locking and unlocking.
  */
 public class ManagedReadWriteLock {
     private static final Logger log = LoggerFactory.getLogger(ManagedReadWriteLock.class);
@@ -48,7 +50,7 @@ public class ManagedReadWriteLock {
      */
     public final static String RELEASED_TEXT = "Freed   ";
 
-    private final ReentrantReadWriteLock lock;
+    private final ReadWriteLock lock;
     private final String name;
 
     /**
@@ -58,8 +60,19 @@ public class ManagedReadWriteLock {
      * @param isFair true if a fair lock, false if not
      */
     public ManagedReadWriteLock(String name, boolean isFair) {
+        this(name, isFair, RuntimeLockType.REENTRANT);
+    }
+
+    /**
+     * Ctor.
+     *
+     * @param name     of lock
+     * @param isFair   true if a fair lock, false if not
+     * @param lockType type of lock
+     */
+    public ManagedReadWriteLock(String name, boolean isFair, RuntimeLockType lockType) {
         this.name = name;
-        this.lock = new ReentrantReadWriteLock(isFair);
+        this.lock = lockType == RuntimeLockType.PERTHREAD ? new PerThreadReadWriteLock(isFair) : new ReentrantReadWriteLock(isFair);
     }
 
     /**
@@ -147,7 +160,7 @@ public class ManagedReadWriteLock {
         }
     }
 
-    public ReentrantReadWriteLock getLock() {
+    public ReadWriteLock getLock() {
         return lock;
     }
 }
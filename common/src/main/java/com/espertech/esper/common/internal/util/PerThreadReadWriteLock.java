@@ -0,0 +1,269 @@
+/*
+ ***************************************************************************************
+ *  Copyright (C) 2006 EsperTech, Inc. All rights reserved.                            *
+ *  http://www.espertech.com/esper                                                     *
+ *  http://www.espertech.com                                                           *
+ *  ---------------------------------------------------------------------------------- *
+ *  The software in this package is published under the terms of the GPL license       *
+ *  a copy of which has been included with this distribution in the license.txt file.  *
+ ***************************************************************************************
+ */
+package com.espertech.esper.common.internal.util;
+
+import java.lang.ref.WeakReference;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Read-write lock that keeps a read-lock counter per thread, so that acquiring and releasing the read lock
+ * does not write to a cache line shared with other reading threads.
+ * <p>
+ * A reading thread increments its own counter and then checks whether a writer is active. A writer
+ * first marks itself active and then waits until the counters of all threads are zero. Readers that find
+ * a writer active undo their increment and wait for the writer to release the lock.
+ * </p>
+ * <p>
+ * Both the read lock and the write lock are reentrant and the thread holding the write lock may acquire the read lock.
+ * Conditions are not supported.
+ * </p>
+ */
+public class PerThreadReadWriteLock implements ReadWriteLock {
+    private static final long DRAIN_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(20);
+
+    private final ReentrantLock writerLock;
+    private final ConcurrentLinkedQueue<ReaderCell> cells = new ConcurrentLinkedQueue<>();
+    private final ThreadLocal<ReaderCell> cellThreadLocal = ThreadLocal.withInitial(this::register);
+    private final ReadLock readLock = new ReadLock();
+    private final WriteLock writeLock = new WriteLock();
+    private volatile boolean writerActive;
+
+    /**
+     * Ctor.
+     *
+     * @param isFair true for writers to acquire the write lock in the order of arrival
+     */
+    public PerThreadReadWriteLock(boolean isFair) {
+        this.writerLock = new ReentrantLock(isFair);
+    }
+
+    public Lock readLock() {
+        return readLock;
+    }
+
+    public Lock writeLock() {
+        return writeLock;
+    }
+
+    /**
+     * Returns the number of read locks held by all threads.
+     *
+     * @return read lock count
+     */
+    public int getReadLockCount() {
+        int count = 0;
+        for (ReaderCell cell : cells) {
+            count += cell.count;
+        }
+        return count;
+    }
+
+    /**
+     * Returns indicator whether the write lock is held by any thread.
+     *
+     * @return indicator
+     */
+    public boolean isWriteLocked() {
+        return writerLock.isLocked();
+    }
+
+    /**
+     * Returns indicator whether the write lock is held by the current thread.
+     *
+     * @return indicator
+     */
+    public boolean isWriteLockedByCurrentThread() {
+        return writerLock.isHeldByCurrentThread();
+    }
+
+    public String toString() {
+        return "PerThreadReadWriteLock@" + Integer.toHexString(hashCode()) + " readers=" + getReadLockCount() + " writeLocked=" + isWriteLocked();
+    }
+
+    private ReaderCell register() {
+        ReaderCell cell = new ReaderCell(Thread.currentThread());
+        cells.add(cell);
+        return cell;
+    }
+
+    private boolean tryAcquireRead(ReaderCell cell) {
+        // reentrant acquisition, or acquisition by the writer, never waits for the writer
+        if (cell.count > 0 || writerLock.isHeldByCurrentThread()) {
+            cell.count++;
+            return true;
+        }
+        cell.count = 1;
+        if (!writerActive) {
+            return true;
+        }
+        cell.count = 0;
+        return false;
+    }
+
+    private static long deadlineNanos(long timeoutNanos) {
+        // zero indicates no deadline
+        long deadline = System.nanoTime() + timeoutNanos;
+        return deadline == 0 ? 1 : deadline;
+    }
+
+    /**
+     * Wait for read locks of all threads to be released.
+     *
+     * @param deadlineNanos deadline or zero for no deadline
+     * @return true when drained, false when the deadline passed
+     */
+    private boolean awaitReadersDrained(long deadlineNanos) {
+        int spins = 0;
+        while (true) {
+            boolean drained = true;
+            for (Iterator<ReaderCell> it = cells.iterator(); it.hasNext(); ) {
+                ReaderCell cell = it.next();
+                if (cell.count != 0) {
+                    drained = false;
+                    break;
+                }
+                if (cell.thread.get() == null) {
+                    it.remove();
+                }
+            }
+            if (drained) {
+                return true;
+            }
+            if (deadlineNanos != 0 && System.nanoTime() - deadlineNanos >= 0) {
+                return false;
+            }
+            if (spins++ < 100) {
+                Thread.yield();
+            } else {
+                LockSupport.parkNanos(DRAIN_PARK_NANOS);
+            }
+        }
+    }
+
+    private boolean acquireWrite(long deadlineNanos) {
+        if (writerLock.getHoldCount() > 1) {
+            return true;
+        }
+        // same as for a reentrant read-write lock, a thread holding the read lock cannot upgrade and waits for the deadline
+        writerActive = true;
+        if (awaitReadersDrained(deadlineNanos)) {
+            return true;
+        }
+        writerActive = false;
+        writerLock.unlock();
+        return false;
+    }
+
+    private final class ReadLock implements Lock {
+        public void lock() {
+            ReaderCell cell = cellThreadLocal.get();
+            while (!tryAcquireRead(cell)) {
+                // wait for the writer to complete
+                writerLock.lock();
+                writerLock.unlock();
+            }
+        }
+
+        public void lockInterruptibly() throws InterruptedException {
+            ReaderCell cell = cellThreadLocal.get();
+            while (!tryAcquireRead(cell)) {
+                writerLock.lockInterruptibly();
+                writerLock.unlock();
+            }
+        }
+
+        public boolean tryLock() {
+            return tryAcquireRead(cellThreadLocal.get());
+        }
+
+        public boolean tryLock(long time, TimeUnit unit) throws InterruptedException {
+            long deadline = System.nanoTime() + unit.toNanos(time);
+            ReaderCell cell = cellThreadLocal.get();
+            while (!tryAcquireRead(cell)) {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0 || !writerLock.tryLock(remaining, TimeUnit.NANOSECONDS)) {
+                    return false;
+                }
+                writerLock.unlock();
+            }
+            return true;
+        }
+
+        public void unlock() {
+            ReaderCell cell = cellThreadLocal.get();
+            if (cell.count <= 0) {
+                throw new IllegalMonitorStateException("Read lock not held by the current thread");
+            }
+            cell.count--;
+        }
+
+        public Condition newCondition() {
+            throw new UnsupportedOperationException("Conditions are not supported");
+        }
+    }
+
+    private final class WriteLock implements Lock {
+        public void lock() {
+            writerLock.lock();
+            acquireWrite(0);
+        }
+
+        public void lockInterruptibly() throws InterruptedException {
+            writerLock.lockInterruptibly();
+            acquireWrite(0);
+        }
+
+        public boolean tryLock() {
+            if (!writerLock.tryLock()) {
+                return false;
+            }
+            return acquireWrite(deadlineNanos(0));
+        }
+
+        public boolean tryLock(long time, TimeUnit unit) throws InterruptedException {
+            long deadline = deadlineNanos(unit.toNanos(time));
+            if (!writerLock.tryLock(time, unit)) {
+                return false;
+            }
+            return acquireWrite(deadline);
+        }
+
+        public void unlock() {
+            if (writerLock.getHoldCount() == 1) {
+                writerActive = false;
+            }
+            writerLock.unlock();
+        }
+
+        public Condition newCondition() {
+            throw new UnsupportedOperationException("Conditions are not supported");
+        }
+    }
+
+    private static final class ReaderCell {
+        // padding to keep the counters of different threads on different cache lines
+        private long p1, p2, p3, p4, p5, p6, p7;
+        private volatile int count;
+        private long q1, q2, q3, q4, q5, q6, q7;
+        private final WeakReference<Thread> thread;
+
+        ReaderCell(Thread thread) {
+            this.thread = new WeakReference<>(thread);
+        }
+    }
+}
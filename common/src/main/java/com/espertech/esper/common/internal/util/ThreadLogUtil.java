@@ -13,6 +13,7 @@ package com.espertech.esper.common.internal.util;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 
@@ -94,6 +95,23 @@ public class ThreadLogUtil {
         write(lockAction + " " + getLockInfo(lock));
     }
 
+    /**
+     * Logs the lock and action.
+     *
+     * @param lockAction is the action towards the lock
+     * @param lock       is the lock instance
+     */
+    public static void traceLock(String lockAction, ReadWriteLock lock) {
+        if (!ENABLED_TRACE) {
+            return;
+        }
+        if (lock instanceof ReentrantReadWriteLock) {
+            traceLock(lockAction, (ReentrantReadWriteLock) lock);
+            return;
+        }
+        write(lockAction + " " + lock);
+    }
+
     private static String getLockInfo(ReentrantLock lock) {
         String lockid = "Lock@" + Integer.toHexString(lock.hashCode());
         return "lock " + lockid + " held=" + lock.getHoldCount() + " isHeldMe=" + lock.isHeldByCurrentThread() +
@@ -29,6 +29,10 @@ import com.espertech.esper.common.internal.util.IntArrayUtil;
 import com.espertech.esper.common.internal.view.groupwin.GroupByViewFactoryForge;
 import com.espertech.esper.common.internal.view.groupwin.MergeViewFactoryForge;
 import com.espertech.esper.common.internal.view.intersect.IntersectViewFactoryForge;
+import com.espertech.esper.common.internal.view.length.LengthWindowViewForge;
+import com.espertech.esper.common.internal.view.lengthbatch.LengthBatchViewForge;
+import com.espertech.esper.common.internal.view.timebatch.TimeBatchViewForge;
+import com.espertech.esper.common.internal.view.timewin.TimeWindowViewForge;
 import com.espertech.esper.common.internal.view.union.UnionViewFactoryForge;
 
 import java.util.ArrayList;
@@ -401,4 +405,20 @@ public class ViewFactoryForgeUtil {
         }
         return false;
     }
+
+    /**
+     * Returns true when the views consist of a single data window that removes events in the same order that events
+     * were added, such as a length window or time window.
+     *
+     * @param views views
+     * @return indicator
+     */
+    public static boolean isRemoveInInsertOrder(List<ViewFactoryForge> views) {
+        if (views.size() != 1) {
+            return false;
+        }
+        ViewFactoryForge view = views.get(0);
+        return view instanceof LengthWindowViewForge || view instanceof TimeWindowViewForge ||
+            view instanceof LengthBatchViewForge || view instanceof TimeBatchViewForge;
+    }
 }
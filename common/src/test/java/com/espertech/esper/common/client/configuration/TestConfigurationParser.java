@@ -66,6 +66,7 @@ public class TestConfigurationParser extends TestCase {
         assertEquals(16, compiler.getExecution().getFilterServiceMaxFilterWidth());
         assertEquals(ConfigurationCompilerExecution.FilterIndexPlanning.ADVANCED, compiler.getExecution().getFilterIndexPlanning());
         assertTrue(compiler.getExecution().isEnabledDeclaredExprValueCache());
+        assertTrue(compiler.getExecution().isEnabledSlidingAggregation());
         ConfigurationCompilerByteCode byteCode = compiler.getByteCode();
         assertFalse(byteCode.isIncludeComments());
         assertFalse(byteCode.isIncludeDebugSymbols());
@@ -121,10 +122,16 @@ public class TestConfigurationParser extends TestCase {
         assertEquals(2, runtime.getThreading().getThreadPoolRouteExecNumThreads());
         assertEquals(2, runtime.getThreading().getThreadPoolTimerExecNumThreads());
         assertNull(runtime.getThreading().getThreadPoolInboundCapacity());
+        assertTrue(runtime.getThreading().getThreadPoolInboundKeyProperties().isEmpty());
         assertNull(runtime.getThreading().getThreadPoolOutboundCapacity());
         assertNull(runtime.getThreading().getThreadPoolRouteExecCapacity());
         assertNull(runtime.getThreading().getThreadPoolTimerExecCapacity());
+        assertFalse(runtime.getThreading().isThreadPoolRingBuffer());
+        assertEquals(RingBufferWaitStrategy.PARK, runtime.getThreading().getThreadPoolRingBufferWaitStrategy());
+        assertFalse(runtime.getThreading().isThreadPoolTimerShard());
+        assertEquals(2, runtime.getThreading().getThreadPoolTimerShardNumThreads());
         assertFalse(runtime.getThreading().isRuntimeFairlock());
+        assertEquals(RuntimeLockType.REENTRANT, runtime.getThreading().getRuntimeLockType());
         assertFalse(runtime.getMetricsReporting().isJmxRuntimeMetrics());
         assertTrue(runtime.getThreading().isNamedWindowConsumerDispatchPreserveOrder());
         assertEquals(Long.MAX_VALUE, runtime.getThreading().getNamedWindowConsumerDispatchTimeout());
@@ -143,7 +150,12 @@ public class TestConfigurationParser extends TestCase {
         assertFalse(runtime.getExecution().isPrecedenceEnabled());
         assertFalse(runtime.getExecution().isDisableLocking());
         assertEquals(FilterServiceProfile.READMOSTLY, runtime.getExecution().getFilterServiceProfile());
+        assertEquals(SchedulingServiceProfile.SORTED, runtime.getExecution().getSchedulingServiceProfile());
         assertEquals(1, runtime.getExecution().getDeclaredExprValueCacheSize());
+        assertEquals(0, runtime.getExecution().getFilterIndexCompileThreshold());
+        assertEquals(0, runtime.getExecution().getFilterIndexReorderInterval());
+        assertFalse(runtime.getExecution().isFilterIndexInBitmap());
+        assertFalse(runtime.getExecution().isFilterMetrics());
         assertTrue(runtime.getExpression().isSelfSubselectPreeval());
         assertEquals(TimeZone.getDefault(), runtime.getExpression().getTimeZone());
         assertNull(runtime.getExceptionHandling().getHandlerFactories());
@@ -514,6 +526,7 @@ public class TestConfigurationParser extends TestCase {
         assertEquals(100, compiler.getExecution().getFilterServiceMaxFilterWidth());
         assertEquals(ConfigurationCompilerExecution.FilterIndexPlanning.NONE, compiler.getExecution().getFilterIndexPlanning());
         assertFalse(compiler.getExecution().isEnabledDeclaredExprValueCache());
+        assertFalse(compiler.getExecution().isEnabledSlidingAggregation());
 
         assertTrue(compiler.getLanguage().isSortUsingCollator());
 
@@ -562,10 +575,16 @@ public class TestConfigurationParser extends TestCase {
         assertEquals(3, runtime.getThreading().getThreadPoolTimerExecNumThreads());
         assertEquals(4, runtime.getThreading().getThreadPoolRouteExecNumThreads());
         assertEquals(1000, (int) runtime.getThreading().getThreadPoolInboundCapacity());
+        assertEquals(Collections.singletonMap("MyKeyedEvent", "account"), runtime.getThreading().getThreadPoolInboundKeyProperties());
         assertEquals(1500, (int) runtime.getThreading().getThreadPoolOutboundCapacity());
         assertNull(runtime.getThreading().getThreadPoolTimerExecCapacity());
         assertEquals(2000, (int) runtime.getThreading().getThreadPoolRouteExecCapacity());
+        assertTrue(runtime.getThreading().isThreadPoolRingBuffer());
+        assertEquals(RingBufferWaitStrategy.YIELD, runtime.getThreading().getThreadPoolRingBufferWaitStrategy());
+        assertTrue(runtime.getThreading().isThreadPoolTimerShard());
+        assertEquals(5, runtime.getThreading().getThreadPoolTimerShardNumThreads());
         assertTrue(runtime.getThreading().isRuntimeFairlock());
+        assertEquals(RuntimeLockType.PERTHREAD, runtime.getThreading().getRuntimeLockType());
 
         assertFalse(runtime.getThreading().isInternalTimerEnabled());
         assertEquals(1234567, runtime.getThreading().getInternalTimerMsecResolution());
@@ -601,7 +620,12 @@ public class TestConfigurationParser extends TestCase {
         assertTrue(runtime.getExecution().isFairlock());
         assertTrue(runtime.getExecution().isDisableLocking());
         assertEquals(FilterServiceProfile.READWRITE, runtime.getExecution().getFilterServiceProfile());
+        assertEquals(SchedulingServiceProfile.TIMINGWHEEL, runtime.getExecution().getSchedulingServiceProfile());
         assertEquals(101, runtime.getExecution().getDeclaredExprValueCacheSize());
+        assertEquals(1000, runtime.getExecution().getFilterIndexCompileThreshold());
+        assertEquals(50000, runtime.getExecution().getFilterIndexReorderInterval());
+        assertTrue(runtime.getExecution().isFilterIndexInBitmap());
+        assertTrue(runtime.getExecution().isFilterMetrics());
 
         ConfigurationRuntimeMetricsReporting metrics = runtime.getMetricsReporting();
         assertTrue(metrics.isEnableMetricsReporting());
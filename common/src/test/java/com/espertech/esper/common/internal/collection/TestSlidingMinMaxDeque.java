@@ -0,0 +1,94 @@
+/*
+ ***************************************************************************************
+ *  Copyright (C) 2006 EsperTech, Inc. All rights reserved.                            *
+ *  http://www.espertech.com/esper                                                     *
+ *  http://www.espertech.com                                                           *
+ *  ---------------------------------------------------------------------------------- *
+ *  The software in this package is published under the terms of the GPL license       *
+ *  a copy of which has been included with this distribution in the license.txt file.  *
+ ***************************************************************************************
+ */
+package com.espertech.esper.common.internal.collection;
+
+import junit.framework.TestCase;
+
+import java.util.ArrayDeque;
+import java.util.Random;
+
+public class TestSlidingMinMaxDeque extends TestCase {
+
+    public void testMinMaxValue() {
+        SlidingMinMaxDeque<String> min = new SlidingMinMaxDeque<>(false);
+        SlidingMinMaxDeque<String> max = new SlidingMinMaxDeque<>(true);
+        assertNull(min.getValue());
+        assertNull(max.getValue());
+
+        String[] values = new String[]{"c", "a", "d", "a", "b"};
+        for (String value : values) {
+            min.add(value);
+            max.add(value);
+        }
+        assertEquals("ad", min.getValue() + max.getValue());
+        assertEquals(2, min.size());
+        assertEquals(2, max.size());
+
+        String[] expected = new String[]{"ad", "ad", "ab", "bb"};
+        for (int i = 0; i < expected.length; i++) {
+            min.remove(values[i]);
+            max.remove(values[i]);
+            assertEquals(expected[i], min.getValue() + max.getValue());
+        }
+        min.remove("b");
+        max.remove("b");
+        assertNull(min.getValue());
+        assertNull(max.getValue());
+        assertEquals(0, min.size());
+    }
+
+    public void testClearAndReadState() {
+        SlidingMinMaxDeque<Integer> min = new SlidingMinMaxDeque<>(false);
+        for (int i = 0; i < 20; i++) {
+            min.add(i);
+        }
+        assertEquals(20, min.size());
+        min.clear();
+        assertNull(min.getValue());
+
+        min.add(5);
+        min.add(5);
+        min.add(7);
+        SlidingMinMaxDeque<Integer> copy = new SlidingMinMaxDeque<>(min.isMax());
+        for (int i = 0; i < min.size(); i++) {
+            copy.addLast(min.getValueAt(i), min.getCountAt(i));
+        }
+        copy.remove(5);
+        assertEquals(5, (int) copy.getValue());
+        copy.remove(5);
+        assertEquals(7, (int) copy.getValue());
+    }
+
+    public void testRandomWindow() {
+        Random random = new Random(1);
+        SlidingMinMaxDeque<Integer> min = new SlidingMinMaxDeque<>(false);
+        SlidingMinMaxDeque<Integer> max = new SlidingMinMaxDeque<>(true);
+        SortedRefCountedSet<Integer> reference = new SortedRefCountedSet<>();
+        ArrayDeque<Integer> window = new ArrayDeque<>();
+
+        for (int i = 0; i < 10000; i++) {
+            int windowSize = 1 + random.nextInt(50);
+            while (window.size() >= windowSize) {
+                Integer removed = window.removeFirst();
+                min.remove(removed);
+                max.remove(removed);
+                reference.remove(removed);
+            }
+            Integer value = random.nextInt(100);
+            window.addLast(value);
+            min.add(value);
+            max.add(value);
+            reference.add(value);
+            assertEquals(reference.minValue(), min.getValue());
+            assertEquals(reference.maxValue(), max.getValue());
+        }
+    }
+}
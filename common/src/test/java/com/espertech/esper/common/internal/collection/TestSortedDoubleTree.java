@@ -0,0 +1,142 @@
+/*
+ ***************************************************************************************
+ *  Copyright (C) 2006 EsperTech, Inc. All rights reserved.                            *
+ *  http://www.espertech.com/esper                                                     *
+ *  http://www.espertech.com                                                           *
+ *  ---------------------------------------------------------------------------------- *
+ *  The software in this package is published under the terms of the GPL license       *
+ *  a copy of which has been included with this distribution in the license.txt file.  *
+ ***************************************************************************************
+ */
+package com.espertech.esper.common.internal.collection;
+
+import junit.framework.TestCase;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+public class TestSortedDoubleTree extends TestCase {
+    private SortedDoubleTree tree;
+
+    public void setUp() {
+        tree = new SortedDoubleTree();
+    }
+
+    public void testAddRemove() {
+        assertEquals(0, tree.size());
+
+        tree.add(5);
+        tree.add(1);
+        tree.add(0);
+        tree.add(-1);
+        tree.add(1);
+        tree.add(0.5);
+        compare(new double[]{-1, 0, 0.5, 1, 1, 5});
+
+        tree.remove(1);
+        compare(new double[]{-1, 0, 0.5, 1, 5});
+
+        tree.remove(-1);
+        tree.add(5);
+        compare(new double[]{0, 0.5, 1, 5, 5});
+
+        tree.remove(5);
+        tree.remove(5);
+        compare(new double[]{0, 0.5, 1});
+
+        tree.add(99);
+        tree.remove(99);
+        tree.remove(99);
+        tree.remove(2);
+        compare(new double[]{0, 0.5, 1});
+
+        tree.add(Double.NaN);
+        tree.remove(Double.NaN);
+        compare(new double[]{0, 0.5, 1});
+
+        tree.clear();
+        compare(new double[0]);
+    }
+
+    public void testRank() {
+        for (int i = 0; i < 1000; i++) {
+            tree.add(i % 100);
+        }
+        assertEquals(0, tree.rank(0));
+        assertEquals(10, tree.rank(1));
+        assertEquals(10, tree.rank(0.5));
+        assertEquals(990, tree.rank(99));
+        assertEquals(1000, tree.rank(100));
+        assertEquals(0, tree.rank(-1));
+    }
+
+    public void testRandom() {
+        Random random = new Random(1);
+        List<Double> reference = new ArrayList<>();
+        for (int i = 0; i < 20000; i++) {
+            boolean add = reference.isEmpty() || random.nextInt(10) < (i < 10000 ? 6 : 4);
+            if (add) {
+                double value = random.nextInt(500);
+                tree.add(value);
+                int index = 0;
+                while (index < reference.size() && reference.get(index) <= value) {
+                    index++;
+                }
+                reference.add(index, value);
+            } else {
+                double value = reference.get(random.nextInt(reference.size()));
+                tree.remove(value);
+                reference.remove(value);
+            }
+            assertEquals(reference.size(), tree.size());
+            if (i % 97 == 0) {
+                compare(reference);
+                double probe = random.nextInt(500);
+                int rank = 0;
+                while (rank < reference.size() && reference.get(rank) < probe) {
+                    rank++;
+                }
+                assertEquals(rank, tree.rank(probe));
+            }
+        }
+
+        while (!reference.isEmpty()) {
+            double value = reference.remove(0);
+            tree.remove(value);
+        }
+        compare(reference);
+    }
+
+    public void testReadWrite() throws IOException {
+        for (int i = 0; i < 500; i++) {
+            tree.add(500 - i);
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        SortedDoubleTree.writePoints(new DataOutputStream(bytes), tree);
+        SortedDoubleTree read = SortedDoubleTree.readPoints(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+        assertTrue(Arrays.equals(tree.toArray(), read.toArray()));
+    }
+
+    private void compare(List<Double> expected) {
+        double[] values = new double[expected.size()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = expected.get(i);
+        }
+        compare(values);
+    }
+
+    private void compare(double[] expected) {
+        assertEquals(expected.length, tree.size());
+        for (int i = 0; i < expected.length; i++) {
+            assertEquals(expected[i], tree.getValue(i));
+        }
+        assertTrue(Arrays.equals(expected, tree.toArray()));
+    }
+}
@@ -0,0 +1,189 @@
+/*
+ ***************************************************************************************
+ *  Copyright (C) 2006 EsperTech, Inc. All rights reserved.                            *
+ *  http://www.espertech.com/esper                                                     *
+ *  http://www.espertech.com                                                           *
+ *  ---------------------------------------------------------------------------------- *
+ *  The software in this package is published under the terms of the GPL license       *
+ *  a copy of which has been included with this distribution in the license.txt file.  *
+ ***************************************************************************************
+ */
+package com.espertech.esper.common.internal.collection;
+
+import com.espertech.esper.common.client.EventBean;
+import com.espertech.esper.common.internal.support.SupportBean;
+import com.espertech.esper.common.internal.supportunit.event.SupportEventBeanFactory;
+import junit.framework.TestCase;
+
+import java.util.*;
+
+public class TestTimeWindowColumnar extends TestCase {
+    private final TimeWindowColumnar window = new TimeWindowColumnar(false);
+    private final TimeWindowColumnar windowRemovable = new TimeWindowColumnar(true);
+    private final EventBean[] beans = new EventBean[6];
+
+    public void setUp() {
+        for (int i = 0; i < beans.length; i++) {
+            beans[i] = createBean();
+        }
+    }
+
+    public void testAdd() {
+        assertNull(window.getOldestTimestamp());
+        assertTrue(window.isEmpty());
+
+        window.add(19, beans[0]);
+        assertEquals(19L, (long) window.getOldestTimestamp());
+        assertFalse(window.isEmpty());
+        window.add(19, beans[1]);
+        window.add(20, beans[2]);
+        window.add(20, beans[3]);
+        window.add(21, beans[4]);
+        window.add(22, beans[5]);
+        assertEquals(19L, (long) window.getOldestTimestamp());
+        assertEquals(6, window.size());
+
+        assertNull(window.expireEvents(19));
+
+        EventBean[] expired = window.expireEvents(20);
+        assertTrue(Arrays.equals(new EventBean[]{beans[0], beans[1]}, expired));
+
+        expired = window.expireEvents(21);
+        assertTrue(Arrays.equals(new EventBean[]{beans[2], beans[3]}, expired));
+        assertFalse(window.isEmpty());
+        assertEquals(21L, (long) window.getOldestTimestamp());
+
+        expired = window.expireEvents(23);
+        assertTrue(Arrays.equals(new EventBean[]{beans[4], beans[5]}, expired));
+        assertTrue(window.isEmpty());
+        assertNull(window.getOldestTimestamp());
+        assertEquals(0, window.size());
+
+        assertNull(window.expireEvents(23));
+
+        try {
+            window.remove(beans[0]);
+            fail();
+        } catch (UnsupportedOperationException ex) {
+            // expected
+        }
+    }
+
+    public void testAddRemove() {
+        windowRemovable.add(19, beans[0]);
+        windowRemovable.add(19, beans[1]);
+        windowRemovable.add(20, beans[2]);
+        windowRemovable.add(20, beans[3]);
+        windowRemovable.add(21, beans[4]);
+        windowRemovable.add(22, beans[5]);
+
+        windowRemovable.remove(beans[4]);
+        windowRemovable.remove(beans[0]);
+        windowRemovable.remove(beans[3]);
+        windowRemovable.remove(beans[3]);
+        assertEquals(3, windowRemovable.size());
+        assertEquals(19L, (long) windowRemovable.getOldestTimestamp());
+        assertEquals(Arrays.asList(beans[1], beans[2], beans[5]), toList(windowRemovable.iterator()));
+
+        assertNull(windowRemovable.expireEvents(19));
+
+        EventBean[] expired = windowRemovable.expireEvents(20);
+        assertTrue(Arrays.equals(new EventBean[]{beans[1]}, expired));
+
+        expired = windowRemovable.expireEvents(21);
+        assertTrue(Arrays.equals(new EventBean[]{beans[2]}, expired));
+        assertFalse(windowRemovable.isEmpty());
+        assertEquals(22L, (long) windowRemovable.getOldestTimestamp());
+
+        assertNull(windowRemovable.expireEvents(22));
+
+        expired = windowRemovable.expireEvents(23);
+        assertTrue(Arrays.equals(new EventBean[]{beans[5]}, expired));
+        assertTrue(windowRemovable.isEmpty());
+        assertNull(windowRemovable.getOldestTimestamp());
+
+        assertEquals(0, windowRemovable.getReverseIndexSize());
+    }
+
+    public void testAdjust() {
+        window.add(10, beans[0]);
+        window.add(20, beans[1]);
+        window.adjust(5);
+        assertEquals(15L, (long) window.getOldestTimestamp());
+        assertNull(window.expireEvents(15));
+        assertTrue(Arrays.equals(new EventBean[]{beans[0]}, window.expireEvents(16)));
+    }
+
+    public void testGrowShrink() {
+        EventBean[] many = new EventBean[5000];
+        for (int i = 0; i < many.length; i++) {
+            many[i] = createBean();
+            windowRemovable.add(i, many[i]);
+        }
+        windowRemovable.remove(many[4000]);
+        EventBean[] expired = windowRemovable.expireEvents(4500);
+        assertEquals(4499, expired.length);
+        assertSame(many[3999], expired[3999]);
+        assertSame(many[4001], expired[4000]);
+        assertEquals(500, windowRemovable.size());
+        assertEquals(500, windowRemovable.getReverseIndexSize());
+        assertEquals(4500L, (long) windowRemovable.getOldestTimestamp());
+
+        windowRemovable.add(5000, many[0]);
+        List<EventBean> remaining = toList(windowRemovable.iterator());
+        assertEquals(501, remaining.size());
+        assertSame(many[4500], remaining.get(0));
+        assertSame(many[0], remaining.get(500));
+    }
+
+    public void testSameAsTimeWindow() {
+        Random random = new Random(1);
+        TimeWindow reference = new TimeWindow(true);
+        List<EventBean> inWindow = new ArrayList<>();
+
+        long time = 0;
+        for (int step = 0; step < 50000; step++) {
+            int action = random.nextInt(10);
+            if (action < 5) {
+                time += random.nextInt(3);
+                EventBean bean = createBean();
+                reference.add(time, bean);
+                windowRemovable.add(time, bean);
+                inWindow.add(bean);
+            } else if (action < 7) {
+                if (!inWindow.isEmpty()) {
+                    EventBean bean = inWindow.remove(random.nextInt(inWindow.size()));
+                    reference.remove(bean);
+                    windowRemovable.remove(bean);
+                }
+            } else {
+                long expireBefore = time - random.nextInt(random.nextInt(10) == 0 ? 2 : 200);
+                ArrayDeque<EventBean> expected = reference.expireEvents(expireBefore);
+                EventBean[] received = windowRemovable.expireEvents(expireBefore);
+                if (expected == null || expected.isEmpty()) {
+                    assertNull(received);
+                } else {
+                    assertEquals(new ArrayList<>(expected), Arrays.asList(received));
+                    inWindow.removeAll(expected);
+                }
+            }
+            assertEquals(inWindow.size(), windowRemovable.size());
+            assertEquals(inWindow.size(), windowRemovable.getReverseIndexSize());
+            if (step % 1000 == 0) {
+                assertEquals(toList(reference.iterator()), toList(windowRemovable.iterator()));
+            }
+        }
+    }
+
+    private static List<EventBean> toList(Iterator<EventBean> it) {
+        List<EventBean> list = new ArrayList<>();
+        while (it.hasNext()) {
+            list.add(it.next());
+        }
+        return list;
+    }
+
+    private EventBean createBean() {
+        return SupportEventBeanFactory.createObject(new SupportBean());
+    }
+}
@@ -0,0 +1,130 @@
+/*
+ ***************************************************************************************
+ *  Copyright (C) 2006 EsperTech, Inc. All rights reserved.                            *
+ *  http://www.espertech.com/esper                                                     *
+ *  http://www.espertech.com                                                           *
+ *  ---------------------------------------------------------------------------------- *
+ *  The software in this package is published under the terms of the GPL license       *
+ *  a copy of which has been included with this distribution in the license.txt file.  *
+ ***************************************************************************************
+ */
+package com.espertech.esper.common.internal.epl.approx.hyperloglog;
+
+import com.espertech.esper.common.internal.epl.agg.access.hyperloglog.AggregationStateSerdeHyperLogLog;
+import junit.framework.TestCase;
+
+import java.io.*;
+import java.util.Arrays;
+
+public class TestHyperLogLogState extends TestCase {
+
+    public void testEmptyAndSmall() {
+        HyperLogLogState state = new HyperLogLogState(14);
+        assertEquals(0, state.estimate());
+
+        for (int i = 0; i < 10; i++) {
+            state.add("E" + i);
+            state.add("E" + i);
+            state.add(null);
+        }
+        assertEquals(10, state.estimate());
+
+        state.clear();
+        assertEquals(0, state.estimate());
+    }
+
+    public void testAccuracy() {
+        for (int precision : new int[]{10, 14}) {
+            HyperLogLogState state = new HyperLogLogState(precision);
+            int count = 100000;
+            for (int i = 0; i < count; i++) {
+                state.add((long) i);
+                state.add("S" + i);
+            }
+            double stdError = 1.04 / Math.sqrt(1 << precision);
+            assertEstimate(2 * count, state.estimate(), 4 * stdError);
+        }
+    }
+
+    public void testNumericTypes() {
+        HyperLogLogState state = new HyperLogLogState(12);
+        state.add(1);
+        state.add(1L);
+        state.add((short) 1);
+        state.add(1.5d);
+        state.add(new byte[]{1, 2});
+        assertEquals(3, state.estimate());
+    }
+
+    public void testMerge() {
+        HyperLogLogState all = new HyperLogLogState(14);
+        HyperLogLogState[] parts = new HyperLogLogState[4];
+        for (int i = 0; i < parts.length; i++) {
+            parts[i] = new HyperLogLogState(14);
+        }
+        for (int i = 0; i < 50000; i++) {
+            all.add(i);
+            parts[i % parts.length].add(i);
+            parts[(i + 1) % parts.length].add(i);
+        }
+        HyperLogLogState merged = new HyperLogLogState(14);
+        for (HyperLogLogState part : parts) {
+            merged.merge(part);
+        }
+        assertTrue(Arrays.equals(all.getRegisters(), merged.getRegisters()));
+        assertEquals(all.estimate(), merged.estimate());
+    }
+
+    public void testMergeFoldPrecision() {
+        HyperLogLogState low = new HyperLogLogState(10);
+        HyperLogLogState high = new HyperLogLogState(14);
+        HyperLogLogState expected = new HyperLogLogState(10);
+        for (int i = 0; i < 20000; i++) {
+            (i % 2 == 0 ? low : high).add(i);
+            expected.add(i);
+        }
+
+        HyperLogLogState target = new HyperLogLogState(14);
+        target.merge(high);
+        target.merge(low);
+        assertEquals(10, target.getPrecision());
+        assertTrue(Arrays.equals(expected.getRegisters(), target.getRegisters()));
+
+        low.merge(high);
+        assertEquals(10, low.getPrecision());
+        assertTrue(Arrays.equals(expected.getRegisters(), low.getRegisters()));
+    }
+
+    public void testSerde() throws IOException {
+        HyperLogLogState state = new HyperLogLogState(8);
+        for (int i = 0; i < 1000; i++) {
+            state.add(i);
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        AggregationStateSerdeHyperLogLog.writeState(new DataOutputStream(bytes), state);
+        HyperLogLogState read = AggregationStateSerdeHyperLogLog.readState(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+        assertEquals(8, read.getPrecision());
+        assertTrue(Arrays.equals(state.getRegisters(), read.getRegisters()));
+        assertEquals(state.estimate(), read.estimate());
+    }
+
+    public void testInvalidPrecision() {
+        try {
+            new HyperLogLogState(HyperLogLogState.PRECISION_MIN - 1);
+            fail();
+        } catch (IllegalArgumentException ex) {
+            // expected
+        }
+        try {
+            new HyperLogLogState(HyperLogLogState.PRECISION_MAX + 1);
+            fail();
+        } catch (IllegalArgumentException ex) {
+            // expected
+        }
+    }
+
+    private static void assertEstimate(long expected, long actual, double relativeError) {
+        double error = Math.abs(actual - expected) / (double) expected;
+        assertTrue("expected " + expected + " actual " + actual, error <= relativeError);
+    }
+}
@@ -0,0 +1,139 @@
+/*
+ ***************************************************************************************
+ *  Copyright (C) 2006 EsperTech, Inc. All rights reserved.                            *
+ *  http://www.espertech.com/esper                                                     *
+ *  http://www.espertech.com                                                           *
+ *  ---------------------------------------------------------------------------------- *
+ *  The software in this package is published under the terms of the GPL license       *
+ *  a copy of which has been included with this distribution in the license.txt file.  *
+ ***************************************************************************************
+ */
+package com.espertech.esper.common.internal.epl.approx.quantilesketch;
+
+import junit.framework.TestCase;
+
+import java.util.*;
+
+public class TestQuantileSketchState extends TestCase {
+
+    public void testSmallExact() {
+        QuantileSketchState state = new QuantileSketchState(100);
+        assertTrue(Double.isNaN(state.quantile(0.5)));
+
+        for (int i = 5; i >= 1; i--) {
+            state.add(i);
+        }
+        assertEquals(5, state.getCount());
+        assertEquals(1d, state.quantile(0));
+        assertEquals(3d, state.quantile(0.5));
+        assertEquals(5d, state.quantile(1));
+
+        state.add(Double.NaN);
+        assertEquals(5, state.getCount());
+    }
+
+    public void testAccuracy() {
+        Random random = new Random(1234);
+        double[] values = new double[100000];
+        QuantileSketchState state = new QuantileSketchState(100);
+        for (int i = 0; i < values.length; i++) {
+            values[i] = random.nextGaussian() * 10;
+            state.add(values[i]);
+        }
+        Arrays.sort(values);
+        assertEquals(values.length, state.getCount());
+        assertTrue(state.getCentroidCount() <= 2 * 100 + 10);
+        assertEquals(values[0], state.quantile(0));
+        assertEquals(values[values.length - 1], state.quantile(1));
+
+        for (double q : new double[]{0.001, 0.01, 0.1, 0.25, 0.5, 0.75, 0.9, 0.99, 0.999}) {
+            assertRank(values, q, state.quantile(q), 0.005);
+        }
+    }
+
+    public void testMerge() {
+        Random random = new Random(4321);
+        double[] values = new double[50000];
+        QuantileSketchState all = new QuantileSketchState(100);
+        QuantileSketchState[] parts = new QuantileSketchState[5];
+        for (int i = 0; i < parts.length; i++) {
+            parts[i] = new QuantileSketchState(100);
+        }
+        for (int i = 0; i < values.length; i++) {
+            values[i] = random.nextDouble() * 1000;
+            parts[i % parts.length].add(values[i]);
+        }
+        for (QuantileSketchState part : parts) {
+            all.merge(part);
+        }
+        Arrays.sort(values);
+        assertEquals(values.length, all.getCount());
+        assertEquals(values[0], all.quantile(0));
+        for (double q : new double[]{0.01, 0.5, 0.99}) {
+            assertRank(values, q, all.quantile(q), 0.01);
+        }
+    }
+
+    public void testRestore() {
+        QuantileSketchState state = new QuantileSketchState(50);
+        for (int i = 0; i < 10000; i++) {
+            state.add(i);
+        }
+        state.flush();
+        QuantileSketchState restored = new QuantileSketchState(50, state.getMean(), state.getWeight(), state.getCentroidCount(), state.getMin(), state.getMax());
+        assertEquals(state.getCount(), restored.getCount());
+        for (double q : new double[]{0, 0.1, 0.5, 0.9, 1}) {
+            assertEquals(state.quantile(q), restored.quantile(q));
+        }
+    }
+
+    public void testConcurrentReads() throws Exception {
+        QuantileSketchState state = new QuantileSketchState(100);
+        QuantileSketchState reference = new QuantileSketchState(100);
+        Random random = new Random(99);
+        for (int i = 0; i < 10007; i++) {
+            double value = random.nextDouble() * 100;
+            state.add(value);
+            reference.add(value);
+        }
+        double[] quantiles = new double[]{0, 0.01, 0.25, 0.5, 0.75, 0.99, 1};
+        double[] expected = new double[quantiles.length];
+        for (int i = 0; i < quantiles.length; i++) {
+            expected[i] = reference.quantile(quantiles[i]);
+        }
+        int centroidCount = state.getCentroidCount();
+        double[] mean = state.getMean();
+
+        // readers must not change the state, including the buffered values
+        int numThreads = 4;
+        List<Throwable> failures = Collections.synchronizedList(new ArrayList<>());
+        Thread[] threads = new Thread[numThreads];
+        for (int t = 0; t < numThreads; t++) {
+            threads[t] = new Thread(() -> {
+                try {
+                    for (int loop = 0; loop < 2000; loop++) {
+                        int index = loop % quantiles.length;
+                        assertEquals(expected[index], state.quantile(quantiles[index]));
+                        assertEquals(10007, state.getCount());
+                    }
+                } catch (Throwable t1) {
+                    failures.add(t1);
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertTrue(failures.toString(), failures.isEmpty());
+        assertEquals(centroidCount, state.getCentroidCount());
+        assertSame(mean, state.getMean());
+    }
+
+    private static void assertRank(double[] sorted, double q, double value, double tolerance) {
+        int index = Arrays.binarySearch(sorted, value);
+        int rank = index >= 0 ? index : -index - 1;
+        double actual = rank / (double) sorted.length;
+        assertTrue("quantile " + q + " value " + value + " has rank " + actual, Math.abs(actual - q) <= tolerance);
+    }
+}
@@ -73,6 +73,10 @@ public class SupportStreamTypeSvc3Stream implements StreamTypeService {
         return new boolean[10];
     }
 
+    public boolean[] getRemoveInInsertOrder() {
+        return null;
+    }
+
     public int getStreamNumForStreamName(String streamName) {
         return impl.getStreamNumForStreamName(streamName);
     }
@@ -0,0 +1,163 @@
+/*
+ ***************************************************************************************
+ *  Copyright (C) 2006 EsperTech, Inc. All rights reserved.                            *
+ *  http://www.espertech.com/esper                                                     *
+ *  http://www.espertech.com                                                           *
+ *  ---------------------------------------------------------------------------------- *
+ *  The software in this package is published under the terms of the GPL license       *
+ *  a copy of which has been included with this distribution in the license.txt file.  *
+ ***************************************************************************************
+ */
+package com.espertech.esper.common.internal.util;
+
+import junit.framework.TestCase;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+public class TestPerThreadReadWriteLock extends TestCase {
+
+    public void testReentrant() throws Exception {
+        PerThreadReadWriteLock lock = new PerThreadReadWriteLock(false);
+        lock.readLock().lock();
+        lock.readLock().lock();
+        assertEquals(2, lock.getReadLockCount());
+        lock.readLock().unlock();
+        lock.readLock().unlock();
+        assertEquals(0, lock.getReadLockCount());
+
+        lock.writeLock().lock();
+        lock.writeLock().lock();
+        assertTrue(lock.isWriteLockedByCurrentThread());
+        lock.readLock().lock();
+        lock.readLock().unlock();
+        lock.writeLock().unlock();
+        assertTrue(lock.isWriteLocked());
+        lock.writeLock().unlock();
+        assertFalse(lock.isWriteLocked());
+
+        try {
+            lock.readLock().unlock();
+            fail();
+        } catch (IllegalMonitorStateException ex) {
+            // expected
+        }
+    }
+
+    public void testWriterWaitsForReaders() throws Exception {
+        PerThreadReadWriteLock lock = new PerThreadReadWriteLock(false);
+        lock.readLock().lock();
+
+        AtomicBoolean acquired = new AtomicBoolean();
+        Thread writer = new Thread(() -> {
+            lock.writeLock().lock();
+            acquired.set(true);
+            lock.writeLock().unlock();
+        });
+        writer.start();
+        Thread.sleep(100);
+        assertFalse(acquired.get());
+
+        // a reentrant read does not wait for the pending writer
+        lock.readLock().lock();
+        lock.readLock().unlock();
+
+        lock.readLock().unlock();
+        writer.join(10000);
+        assertTrue(acquired.get());
+    }
+
+    public void testReaderWaitsForWriter() throws Exception {
+        PerThreadReadWriteLock lock = new PerThreadReadWriteLock(false);
+        lock.writeLock().lock();
+
+        CountDownLatch latch = new CountDownLatch(1);
+        Thread reader = new Thread(() -> {
+            assertFalse(lock.readLock().tryLock());
+            lock.readLock().lock();
+            lock.readLock().unlock();
+            latch.countDown();
+        });
+        reader.start();
+        assertFalse(latch.await(100, TimeUnit.MILLISECONDS));
+
+        lock.writeLock().unlock();
+        assertTrue(latch.await(10, TimeUnit.SECONDS));
+    }
+
+    public void testTryWriteLockTimeout() throws Exception {
+        PerThreadReadWriteLock lock = new PerThreadReadWriteLock(false);
+        CountDownLatch locked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Thread reader = new Thread(() -> {
+            lock.readLock().lock();
+            locked.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                throw new RuntimeException(e);
+            }
+            lock.readLock().unlock();
+        });
+        reader.start();
+        locked.await();
+
+        assertFalse(lock.writeLock().tryLock(50, TimeUnit.MILLISECONDS));
+        assertFalse(lock.isWriteLocked());
+
+        // readers are not blocked after a failed attempt
+        assertTrue(lock.readLock().tryLock());
+        lock.readLock().unlock();
+
+        release.countDown();
+        reader.join();
+        assertTrue(lock.writeLock().tryLock(10, TimeUnit.SECONDS));
+        lock.writeLock().unlock();
+    }
+
+    public void testMultithreaded() throws Exception {
+        PerThreadReadWriteLock lock = new PerThreadReadWriteLock(false);
+        int[] shared = new int[2];
+        AtomicBoolean failed = new AtomicBoolean();
+        int numReaders = 4;
+        int numIterations = 20000;
+
+        Thread[] threads = new Thread[numReaders + 1];
+        for (int i = 0; i < numReaders; i++) {
+            threads[i] = new Thread(() -> {
+                for (int j = 0; j < numIterations; j++) {
+                    lock.readLock().lock();
+                    try {
+                        if (shared[0] != shared[1]) {
+                            failed.set(true);
+                        }
+                    } finally {
+                        lock.readLock().unlock();
+                    }
+                }
+            });
+        }
+        threads[numReaders] = new Thread(() -> {
+            for (int j = 0; j < 200; j++) {
+                lock.writeLock().lock();
+                try {
+                    shared[0]++;
+                    Thread.yield();
+                    shared[1]++;
+                } finally {
+                    lock.writeLock().unlock();
+                }
+            }
+        });
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join(60000);
+        }
+        assertFalse(failed.get());
+        assertEquals(200, shared[0]);
+        assertEquals(0, lock.getReadLockCount());
+    }
+}
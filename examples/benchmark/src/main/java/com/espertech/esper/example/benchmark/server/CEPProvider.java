@@ -13,12 +13,16 @@ package com.espertech.esper.example.benchmark.server;
 import com.espertech.esper.common.client.EPCompiled;
 import com.espertech.esper.common.client.EventBean;
 import com.espertech.esper.common.client.configuration.Configuration;
+import com.espertech.esper.common.client.util.RingBufferWaitStrategy;
+import com.espertech.esper.common.client.util.SchedulingServiceProfile;
 import com.espertech.esper.compiler.client.CompilerArguments;
 import com.espertech.esper.compiler.client.EPCompileException;
 import com.espertech.esper.compiler.client.EPCompilerProvider;
 import com.espertech.esper.example.benchmark.MarketData;
 import com.espertech.esper.runtime.client.*;
 
+import java.util.Locale;
+
 /**
  * A factory and interface to wrap ESP/CEP runtime dependency in a single space
  *
@@ -90,6 +94,26 @@ public class CEPProvider {
             } catch (ClassNotFoundException e) {
             }
 
+            // Inbound threading - if requested, either queue-based or ring-buffer-based
+            String inbound = System.getProperty("esper.benchmark.inbound");
+            if (inbound != null) {
+                configuration.getRuntime().getThreading().setThreadPoolInbound(true);
+                configuration.getRuntime().getThreading().setThreadPoolInboundNumThreads(Integer.getInteger("esper.benchmark.inbound.threads", 2));
+                if (inbound.equalsIgnoreCase("ringbuffer")) {
+                    configuration.getRuntime().getThreading().setThreadPoolRingBuffer(true);
+                    String waitStrategy = System.getProperty("esper.benchmark.inbound.wait", RingBufferWaitStrategy.PARK.name());
+                    configuration.getRuntime().getThreading().setThreadPoolRingBufferWaitStrategy(RingBufferWaitStrategy.valueOf(waitStrategy.toUpperCase(Locale.ENGLISH)));
+                }
+                System.out.println("=== Inbound threading using " + inbound + " ===");
+            }
+
+            // Scheduling service - if requested, either sorted or timing wheel
+            String scheduling = System.getProperty("esper.benchmark.scheduling");
+            if (scheduling != null) {
+                configuration.getRuntime().getExecution().setSchedulingServiceProfile(SchedulingServiceProfile.valueOf(scheduling.toUpperCase(Locale.ENGLISH)));
+                System.out.println("=== Scheduling service using " + scheduling + " ===");
+            }
+
             runtime = EPRuntimeProvider.getRuntime("benchmark", configuration);
             updateListener = new MyUpdateListener();
             subscriber = new MySubscriber();
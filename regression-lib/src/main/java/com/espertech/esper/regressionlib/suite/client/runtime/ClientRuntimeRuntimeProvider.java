@@ -15,7 +15,9 @@ import com.espertech.esper.common.client.EPException;
 import com.espertech.esper.common.client.configuration.Configuration;
 import com.espertech.esper.common.client.configuration.ConfigurationException;
 import com.espertech.esper.common.client.scopetest.EPAssertionUtil;
+import com.espertech.esper.common.client.util.RuntimeLockType;
 import com.espertech.esper.common.internal.support.SupportBean;
+import com.espertech.esper.common.internal.util.PerThreadReadWriteLock;
 import com.espertech.esper.compiler.client.CompilerArguments;
 import com.espertech.esper.compiler.client.EPCompileException;
 import com.espertech.esper.compiler.client.EPCompilerProvider;
@@ -31,6 +33,7 @@ import java.util.Collections;
 import java.util.EnumSet;
 import java.util.List;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 import static org.junit.Assert.*;
 
@@ -149,6 +152,59 @@ public class ClientRuntimeRuntimeProvider {
         }
     }
 
+    public static class ClientRuntimeLockTypePerThread {
+        public void run(Configuration config) {
+            config.getRuntime().getThreading().setInternalTimerEnabled(false);
+            config.getRuntime().getThreading().setRuntimeLockType(RuntimeLockType.PERTHREAD);
+            config.getCommon().addEventType(SupportBean.class);
+            EPRuntime runtime = EPRuntimeProvider.getRuntime(this.getClass().getSimpleName(), config);
+            assertTrue(runtime.getRuntimeInstanceWideLock() instanceof PerThreadReadWriteLock);
+
+            EPCompiled compiledCount;
+            EPCompiled compiledOther;
+            try {
+                compiledCount = EPCompilerProvider.getCompiler().compile("@name('count') select * from SupportBean", new CompilerArguments(config));
+                compiledOther = EPCompilerProvider.getCompiler().compile("select * from SupportBean(intPrimitive > 0)", new CompilerArguments(config));
+            } catch (EPCompileException e) {
+                throw new RuntimeException(e);
+            }
+
+            AtomicLong count = new AtomicLong();
+            try {
+                runtime.getDeploymentService().deploy(compiledCount).getStatements()[0].addListener((newEvents, oldEvents, statement, rt) -> count.addAndGet(newEvents.length));
+            } catch (EPDeployException e) {
+                throw new RuntimeException(e);
+            }
+
+            int numThreads = 4;
+            int numEvents = 2000;
+            Thread[] senders = new Thread[numThreads];
+            for (int i = 0; i < numThreads; i++) {
+                senders[i] = new Thread(() -> {
+                    for (int j = 0; j < numEvents; j++) {
+                        runtime.getEventService().sendEventBean(new SupportBean("E", j), "SupportBean");
+                    }
+                });
+                senders[i].start();
+            }
+
+            try {
+                for (int i = 0; i < 20; i++) {
+                    EPDeployment deployment = runtime.getDeploymentService().deploy(compiledOther);
+                    runtime.getDeploymentService().undeploy(deployment.getDeploymentId());
+                }
+                for (Thread sender : senders) {
+                    sender.join();
+                }
+            } catch (EPDeployException | EPUndeployException | InterruptedException e) {
+                throw new RuntimeException(e);
+            }
+
+            assertEquals(numThreads * numEvents, count.get());
+            runtime.destroy();
+        }
+    }
+
     public static class ClientRuntimeMicrosecondInvalid {
         public void run(Configuration config) {
             config.getRuntime().getThreading().setInternalTimerEnabled(true);
@@ -0,0 +1,149 @@
+/*
+ ***************************************************************************************
+ *  Copyright (C) 2006 EsperTech, Inc. All rights reserved.                            *
+ *  http://www.espertech.com/esper                                                     *
+ *  http://www.espertech.com                                                           *
+ *  ---------------------------------------------------------------------------------- *
+ *  The software in this package is published under the terms of the GPL license       *
+ *  a copy of which has been included with this distribution in the license.txt file.  *
+ ***************************************************************************************
+ */
+package com.espertech.esper.regressionlib.suite.client.runtime;
+
+import com.espertech.esper.common.client.EventBean;
+import com.espertech.esper.common.client.json.minimaljson.JsonObject;
+import com.espertech.esper.regressionlib.framework.RegressionEnvironment;
+import com.espertech.esper.regressionlib.framework.RegressionExecution;
+import com.espertech.esper.regressionlib.framework.RegressionFlag;
+import com.espertech.esper.runtime.client.EPRuntime;
+import com.espertech.esper.runtime.client.EPStatement;
+import com.espertech.esper.runtime.client.EPUndeployException;
+import com.espertech.esper.runtime.client.UpdateListener;
+
+import java.util.*;
+
+import static com.espertech.esper.regressionlib.suite.client.runtime.ClientRuntimeListener.*;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class ClientRuntimeSendEventBatch {
+
+    public static List<RegressionExecution> executions() {
+        List<RegressionExecution> execs = new ArrayList<>();
+        execs.add(new ClientRuntimeSendEventBatchUnderlyingTypes());
+        execs.add(new ClientRuntimeSendEventBatchInsertIntoPerEvent());
+        execs.add(new ClientRuntimeSendEventBatchEmpty());
+        execs.add(new ClientRuntimeSendEventBatchListenerUndeploys());
+        return execs;
+    }
+
+    private static class ClientRuntimeSendEventBatchUnderlyingTypes implements RegressionExecution {
+        public void run(RegressionEnvironment env) {
+            String epl =
+                "@name('bean') select ident from " + BEAN_TYPENAME + ";\n" +
+                    "@name('map') select ident from " + MAP_TYPENAME + ";\n" +
+                    "@name('oa') select ident from " + OA_TYPENAME + ";\n" +
+                    "@public @buseventtype create json schema JsonEvent(ident string);\n" +
+                    "@name('json') select ident from JsonEvent;\n";
+            env.compileDeploy(epl).addListener("bean").addListener("map").addListener("oa").addListener("json");
+            String[] fields = new String[]{"ident"};
+            Object[][] expected = new Object[][]{{"E1"}, {"E2"}, {"E3"}};
+
+            env.eventService().sendEventObjectArrayBatch(Arrays.asList(new Object[]{"E1"}, new Object[]{"E2"}, new Object[]{"E3"}), OA_TYPENAME);
+            env.assertPropsPerRowNewFlattened("oa", fields, expected);
+
+            List<Map<String, Object>> maps = new ArrayList<>();
+            for (String ident : "E1,E2,E3".split(",")) {
+                maps.add(Collections.singletonMap("ident", ident));
+            }
+            env.eventService().sendEventMapBatch(maps, MAP_TYPENAME);
+            env.assertPropsPerRowNewFlattened("map", fields, expected);
+
+            env.eventService().sendEventBeanBatch(Arrays.asList(new RoutedBeanEvent("E1"), new RoutedBeanEvent("E2"), new RoutedBeanEvent("E3")), BEAN_TYPENAME);
+            env.assertPropsPerRowNewFlattened("bean", fields, expected);
+
+            List<String> jsons = new ArrayList<>();
+            for (String ident : "E1,E2,E3".split(",")) {
+                jsons.add(new JsonObject().add("ident", ident).toString());
+            }
+            env.eventService().sendEventJsonBatch(jsons, "JsonEvent");
+            env.assertPropsPerRowNewFlattened("json", fields, expected);
+
+            env.undeployAll();
+        }
+
+        public EnumSet<RegressionFlag> flags() {
+            return EnumSet.of(RegressionFlag.RUNTIMEOPS);
+        }
+    }
+
+    private static class ClientRuntimeSendEventBatchInsertIntoPerEvent implements RegressionExecution {
+        public void run(RegressionEnvironment env) {
+            String epl =
+                "@name('a') select ident from " + OA_TYPENAME + ";\n" +
+                    "insert into MyStream select ident from " + OA_TYPENAME + ";\n" +
+                    "@name('b') select ident from MyStream;\n";
+            env.compileDeploy(epl);
+            List<String> received = new ArrayList<>();
+            UpdateListener listener = new UpdateListener() {
+                public void update(EventBean[] newEvents, EventBean[] oldEvents, EPStatement statement, EPRuntime runtime) {
+                    received.add(statement.getName() + ":" + newEvents[0].get("ident"));
+                }
+            };
+            env.statement("a").addListener(listener);
+            env.statement("b").addListener(listener);
+
+            env.eventService().sendEventObjectArrayBatch(Arrays.asList(new Object[]{"E1"}, new Object[]{"E2"}), OA_TYPENAME);
+            assertEquals(Arrays.asList("a:E1", "b:E1", "a:E2", "b:E2"), received);
+
+            env.undeployAll();
+        }
+
+        public EnumSet<RegressionFlag> flags() {
+            return EnumSet.of(RegressionFlag.RUNTIMEOPS);
+        }
+    }
+
+    private static class ClientRuntimeSendEventBatchEmpty implements RegressionExecution {
+        public void run(RegressionEnvironment env) {
+            env.compileDeploy("@name('s0') select ident from " + OA_TYPENAME).addListener("s0");
+
+            env.eventService().sendEventObjectArrayBatch(Collections.emptyList(), OA_TYPENAME);
+            env.assertListenerNotInvoked("s0");
+
+            env.undeployAll();
+        }
+
+        public EnumSet<RegressionFlag> flags() {
+            return EnumSet.of(RegressionFlag.RUNTIMEOPS);
+        }
+    }
+
+    private static class ClientRuntimeSendEventBatchListenerUndeploys implements RegressionExecution {
+        public void run(RegressionEnvironment env) {
+            env.compileDeploy("@name('s0') select ident from " + OA_TYPENAME);
+            List<String> received = new ArrayList<>();
+            env.statement("s0").addListener(new UpdateListener() {
+                public void update(EventBean[] newEvents, EventBean[] oldEvents, EPStatement statement, EPRuntime runtime) {
+                    received.add((String) newEvents[0].get("ident"));
+                    try {
+                        runtime.getDeploymentService().undeploy(statement.getDeploymentId());
+                    } catch (EPUndeployException ex) {
+                        throw new RuntimeException(ex);
+                    }
+                }
+            });
+
+            // the listener undeploys while the batch is being processed
+            env.eventService().sendEventObjectArrayBatch(Arrays.asList(new Object[]{"E1"}, new Object[]{"E2"}), OA_TYPENAME);
+            assertEquals(Collections.singletonList("E1"), received);
+            assertNull(env.statement("s0"));
+
+            env.undeployAll();
+        }
+
+        public EnumSet<RegressionFlag> flags() {
+            return EnumSet.of(RegressionFlag.RUNTIMEOPS);
+        }
+    }
+}
@@ -0,0 +1,151 @@
+/*
+ ***************************************************************************************
+ *  Copyright (C) 2006 EsperTech, Inc. All rights reserved.                            *
+ *  http://www.espertech.com/esper                                                     *
+ *  http://www.espertech.com                                                           *
+ *  ---------------------------------------------------------------------------------- *
+ *  The software in this package is published under the terms of the GPL license       *
+ *  a copy of which has been included with this distribution in the license.txt file.  *
+ ***************************************************************************************
+ */
+package com.espertech.esper.regressionlib.suite.client.runtime;
+
+import com.espertech.esper.common.client.EPException;
+import com.espertech.esper.common.client.EventBean;
+import com.espertech.esper.common.client.configuration.Configuration;
+import com.espertech.esper.common.internal.support.SupportBean;
+import com.espertech.esper.regressionlib.framework.RegressionEnvironment;
+import com.espertech.esper.regressionlib.framework.RegressionExecutionWithConfigure;
+import com.espertech.esper.regressionlib.framework.RegressionFlag;
+import com.espertech.esper.runtime.client.EPRuntime;
+import com.espertech.esper.runtime.client.EPRuntimeProvider;
+import com.espertech.esper.runtime.client.EPStatement;
+import com.espertech.esper.runtime.client.UpdateListener;
+import com.espertech.esper.runtime.internal.kernel.service.EPRuntimeSPI;
+import com.espertech.esper.runtime.internal.kernel.thread.ThreadingServiceImpl;
+
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class ClientRuntimeThreadedConfigInboundKeyAffine implements RegressionExecutionWithConfigure {
+    private final static int NUM_KEYS = 8;
+    private final static int NUM_EVENTS_PER_KEY = 200;
+
+    public void configure(Configuration configuration) {
+        configuration.getRuntime().getThreading().setInternalTimerEnabled(false);
+        configuration.getRuntime().getThreading().setThreadPoolInbound(true);
+        configuration.getRuntime().getThreading().setThreadPoolInboundNumThreads(4);
+        configuration.getRuntime().getThreading().addThreadPoolInboundKeyProperty("SupportBean", "theString");
+        configuration.getCommon().addEventType("SupportBean", SupportBean.class);
+        configuration.getCommon().addEventType("MyMap", new HashMap<>());
+    }
+
+    public EnumSet<RegressionFlag> flags() {
+        return EnumSet.of(RegressionFlag.RUNTIMEOPS);
+    }
+
+    public void run(RegressionEnvironment env) {
+        KeyThreadListener listener = new KeyThreadListener();
+        env.compileDeploy("@name('s0') select theString, intPrimitive from SupportBean").statement("s0").addListener(listener);
+        MapCountListener listenerMap = new MapCountListener();
+        env.compileDeploy("@name('s1') select * from MyMap").statement("s1").addListener(listenerMap);
+
+        for (int i = 0; i < NUM_EVENTS_PER_KEY; i++) {
+            for (int key = 0; key < NUM_KEYS; key++) {
+                env.sendEventBean(new SupportBean("K" + key, i));
+            }
+            env.sendEventMap(new HashMap<>(), "MyMap");
+        }
+
+        long deadline = System.currentTimeMillis() + 10000;
+        while ((listener.getCount() < NUM_KEYS * NUM_EVENTS_PER_KEY || listenerMap.getCount() < NUM_EVENTS_PER_KEY) && System.currentTimeMillis() < deadline) {
+            try {
+                Thread.sleep(10);
+            } catch (InterruptedException e) {
+                throw new RuntimeException(e);
+            }
+        }
+        assertEquals(NUM_KEYS * NUM_EVENTS_PER_KEY, listener.getCount());
+        assertEquals(NUM_EVENTS_PER_KEY, listenerMap.getCount());
+
+        EPRuntimeSPI spi = (EPRuntimeSPI) env.runtime();
+        ThreadingServiceImpl threadingService = (ThreadingServiceImpl) spi.getServicesContext().getThreadingService();
+        assertNull(threadingService.getInboundQueue());
+        assertNull(threadingService.getInboundThreadPool());
+        assertEquals(4, threadingService.getInboundLanes().getNumLanes());
+        assertEquals(0, threadingService.getInboundLanes().size());
+
+        for (int key = 0; key < NUM_KEYS; key++) {
+            String theString = "K" + key;
+            assertEquals(1, listener.getThreads(theString).size());
+            List<Integer> values = listener.getValues(theString);
+            assertEquals(NUM_EVENTS_PER_KEY, values.size());
+            for (int i = 0; i < NUM_EVENTS_PER_KEY; i++) {
+                assertEquals(i, (int) values.get(i));
+            }
+        }
+
+        env.undeployAll();
+
+        runAssertionInvalidKeyProperty();
+    }
+
+    private static void runAssertionInvalidKeyProperty() {
+        Configuration configuration = new Configuration();
+        configuration.getCommon().addEventType("SupportBean", SupportBean.class);
+        configuration.getRuntime().getThreading().setThreadPoolInbound(true);
+        configuration.getRuntime().getThreading().addThreadPoolInboundKeyProperty("SupportBean", "dummy");
+        String uri = ClientRuntimeThreadedConfigInboundKeyAffine.class.getSimpleName() + "_invalid";
+        try {
+            EPRuntimeProvider.getRuntime(uri, configuration);
+            fail();
+        } catch (EPException ex) {
+            assertTrue(ex.getMessage(), ex.getMessage().contains("Key property 'dummy' for key-affine inbound threading is not a property of event type 'SupportBean'"));
+        } finally {
+            EPRuntime runtime = EPRuntimeProvider.getExistingRuntime(uri);
+            if (runtime != null) {
+                runtime.destroy();
+            }
+        }
+    }
+
+    private static class KeyThreadListener implements UpdateListener {
+        private final Map<String, Set<Thread>> threads = new HashMap<>();
+        private final Map<String, List<Integer>> values = new HashMap<>();
+        private int count;
+
+        public synchronized void update(EventBean[] newEvents, EventBean[] oldEvents, EPStatement statement, EPRuntime runtime) {
+            for (EventBean event : newEvents) {
+                String theString = (String) event.get("theString");
+                threads.computeIfAbsent(theString, k -> new HashSet<>()).add(Thread.currentThread());
+                values.computeIfAbsent(theString, k -> new ArrayList<>()).add((Integer) event.get("intPrimitive"));
+                count++;
+            }
+        }
+
+        public synchronized int getCount() {
+            return count;
+        }
+
+        public synchronized Set<Thread> getThreads(String theString) {
+            return threads.get(theString);
+        }
+
+        public synchronized List<Integer> getValues(String theString) {
+            return values.get(theString);
+        }
+    }
+
+    private static class MapCountListener implements UpdateListener {
+        private int count;
+
+        public synchronized void update(EventBean[] newEvents, EventBean[] oldEvents, EPStatement statement, EPRuntime runtime) {
+            count += newEvents.length;
+        }
+
+        public synchronized int getCount() {
+            return count;
+        }
+    }
+}
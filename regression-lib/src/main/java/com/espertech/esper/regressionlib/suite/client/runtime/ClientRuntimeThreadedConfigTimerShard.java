@@ -0,0 +1,115 @@
+/*
+ ***************************************************************************************
+ *  Copyright (C) 2006 EsperTech, Inc. All rights reserved.                            *
+ *  http://www.espertech.com/esper                                                     *
+ *  http://www.espertech.com                                                           *
+ *  ---------------------------------------------------------------------------------- *
+ *  The software in this package is published under the terms of the GPL license       *
+ *  a copy of which has been included with this distribution in the license.txt file.  *
+ ***************************************************************************************
+ */
+package com.espertech.esper.regressionlib.suite.client.runtime;
+
+import com.espertech.esper.common.client.EventBean;
+import com.espertech.esper.common.client.configuration.Configuration;
+import com.espertech.esper.common.internal.support.SupportBean;
+import com.espertech.esper.regressionlib.framework.RegressionEnvironment;
+import com.espertech.esper.regressionlib.framework.RegressionExecutionWithConfigure;
+import com.espertech.esper.regressionlib.framework.RegressionFlag;
+import com.espertech.esper.runtime.client.EPRuntime;
+import com.espertech.esper.runtime.client.EPStatement;
+import com.espertech.esper.runtime.client.UpdateListener;
+import com.espertech.esper.runtime.internal.kernel.service.EPRuntimeSPI;
+import com.espertech.esper.runtime.internal.kernel.thread.ThreadingTimerShards;
+
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class ClientRuntimeThreadedConfigTimerShard implements RegressionExecutionWithConfigure {
+    private final static int NUM_KEYS = 64;
+    private final static int NUM_EVENTS_PER_KEY = 5;
+
+    @Override
+    public boolean enableHATest() {
+        return false;
+    }
+
+    public void configure(Configuration configuration) {
+        configuration.getRuntime().getThreading().setInternalTimerEnabled(false);
+        configuration.getRuntime().getThreading().setThreadPoolTimerShard(true);
+        configuration.getRuntime().getThreading().setThreadPoolTimerShardNumThreads(4);
+        configuration.getCommon().addEventType("SupportBean", SupportBean.class);
+    }
+
+    public EnumSet<RegressionFlag> flags() {
+        return EnumSet.of(RegressionFlag.RUNTIMEOPS);
+    }
+
+    public void run(RegressionEnvironment env) {
+        EPRuntimeSPI spi = (EPRuntimeSPI) env.runtime();
+        ThreadingTimerShards timerShards = spi.getServicesContext().getThreadingService().getTimerShards();
+        assertEquals(4, timerShards.getNumShards());
+
+        env.advanceTime(0);
+        String epl = "create context SegmentedByString partition by theString from SupportBean;\n" +
+            "@name('s0') context SegmentedByString select irstream theString, intPrimitive from SupportBean#time(1 sec);\n";
+        env.compileDeploy(epl);
+        ExpiryListener listener = new ExpiryListener();
+        env.statement("s0").addListener(listener);
+
+        for (int i = 0; i < NUM_EVENTS_PER_KEY; i++) {
+            for (int key = 0; key < NUM_KEYS; key++) {
+                env.sendEventBean(new SupportBean("K" + key, i));
+            }
+        }
+        assertEquals(0, listener.getCount());
+
+        // all partitions expire at the same time, advancing time returns when all shards are processed
+        env.advanceTime(1000);
+        assertEquals(NUM_KEYS * NUM_EVENTS_PER_KEY, listener.getCount());
+
+        for (int key = 0; key < NUM_KEYS; key++) {
+            List<Integer> values = listener.getValues("K" + key);
+            assertEquals(NUM_EVENTS_PER_KEY, values.size());
+            for (int i = 0; i < NUM_EVENTS_PER_KEY; i++) {
+                assertEquals(i, (int) values.get(i));
+            }
+        }
+        for (Thread thread : listener.getThreads()) {
+            assertTrue(thread.getName(), thread.getName().contains("TimerShard"));
+        }
+        assertEquals(0, timerShards.getPool().getQueue().size());
+
+        env.undeployAll();
+    }
+
+    private static class ExpiryListener implements UpdateListener {
+        private final Map<String, List<Integer>> values = new HashMap<>();
+        private final Set<Thread> threads = new HashSet<>();
+        private int count;
+
+        public synchronized void update(EventBean[] newEvents, EventBean[] oldEvents, EPStatement statement, EPRuntime runtime) {
+            if (oldEvents == null) {
+                return;
+            }
+            threads.add(Thread.currentThread());
+            for (EventBean event : oldEvents) {
+                values.computeIfAbsent((String) event.get("theString"), k -> new ArrayList<>()).add((Integer) event.get("intPrimitive"));
+                count++;
+            }
+        }
+
+        public synchronized int getCount() {
+            return count;
+        }
+
+        public synchronized List<Integer> getValues(String theString) {
+            return values.get(theString);
+        }
+
+        public synchronized Set<Thread> getThreads() {
+            return threads;
+        }
+    }
+}
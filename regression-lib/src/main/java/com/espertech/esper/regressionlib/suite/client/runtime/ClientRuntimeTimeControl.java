@@ -10,6 +10,8 @@
  */
 package com.espertech.esper.regressionlib.suite.client.runtime;
 
+import com.espertech.esper.common.client.scopetest.EPAssertionUtil;
+import com.espertech.esper.common.internal.support.SupportBean;
 import com.espertech.esper.common.internal.util.DeploymentIdNamePair;
 import com.espertech.esper.regressionlib.framework.RegressionEnvironment;
 import com.espertech.esper.regressionlib.framework.RegressionExecution;
@@ -26,6 +28,7 @@ public class ClientRuntimeTimeControl {
         List<RegressionExecution> execs = new ArrayList<>();
         execs.add(new ClientRuntimeSendTimeSpan());
         execs.add(new ClientRuntimeNextScheduledTime());
+        execs.add(new ClientRuntimeSendTimeSpanCatchUp());
         return execs;
     }
 
@@ -133,6 +136,30 @@ public class ClientRuntimeTimeControl {
         }
     }
 
+    private static class ClientRuntimeSendTimeSpanCatchUp implements RegressionExecution {
+        public void run(RegressionEnvironment env) {
+            env.advanceTime(0);
+            env.compileDeploy("@name('s0') select irstream theString from SupportBean#time(1 sec)").addListener("s0");
+
+            env.sendEventBean(new SupportBean("E1", 1));
+            env.advanceTime(100);
+            env.sendEventBean(new SupportBean("E2", 2));
+            env.advanceTime(200);
+            env.listenerReset("s0");
+
+            // both events expire in the same tick, ticks at which no schedule is due are skipped
+            env.advanceTimeSpan(5000, 1000);
+            env.assertListener("s0", listener -> {
+                assertEquals(5000, env.eventService().getCurrentTime());
+                assertEquals(1, listener.getOldDataList().size());
+                EPAssertionUtil.assertPropsPerRow(listener.getOldDataList().get(0), "theString".split(","), new Object[][]{{"E1"}, {"E2"}});
+                listener.reset();
+            });
+
+            env.undeployAll();
+        }
+    }
+
     private static void assertSchedules(Map<DeploymentIdNamePair, Long> schedules, Object[][] expected) {
         assertEquals(expected.length, schedules.size());
 
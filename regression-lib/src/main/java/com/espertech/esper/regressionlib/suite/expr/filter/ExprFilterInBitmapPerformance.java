@@ -0,0 +1,101 @@
+/*
+ ***************************************************************************************
+ *  Copyright (C) 2006 EsperTech, Inc. All rights reserved.                            *
+ *  http://www.espertech.com/esper                                                     *
+ *  http://www.espertech.com                                                           *
+ *  ---------------------------------------------------------------------------------- *
+ *  The software in this package is published under the terms of the GPL license       *
+ *  a copy of which has been included with this distribution in the license.txt file.  *
+ ***************************************************************************************
+ */
+package com.espertech.esper.regressionlib.suite.expr.filter;
+
+import com.espertech.esper.common.client.EPCompiled;
+import com.espertech.esper.common.internal.support.SupportBean;
+import com.espertech.esper.regressionlib.framework.RegressionEnvironment;
+import com.espertech.esper.regressionlib.framework.RegressionExecution;
+import com.espertech.esper.regressionlib.framework.RegressionFlag;
+import com.espertech.esper.regressionlib.support.util.SupportCountListener;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Measures in and not-in filters with large in-lists, for comparing the default filter indexes
+ * to the bitmap filter indexes of the runtime execution configuration.
+ */
+public class ExprFilterInBitmapPerformance {
+    private static final Logger log = LoggerFactory.getLogger(ExprFilterInBitmapPerformance.class);
+
+    public static Collection<RegressionExecution> executions() {
+        ArrayList<RegressionExecution> executions = new ArrayList<>();
+        executions.add(new ExprFilterInBitmapPerf("in", 1));
+        executions.add(new ExprFilterInBitmapPerf("not in", ExprFilterInBitmapPerf.NUM_STATEMENTS - 1));
+        return executions;
+    }
+
+    private static class ExprFilterInBitmapPerf implements RegressionExecution {
+        private static final int NUM_STATEMENTS = 200;
+        private static final int IN_LIST_SIZE = 100;
+        private static final int NUM_EVENTS = 5000;
+
+        private final String operator;
+        private final int matchesPerEvent;
+
+        public ExprFilterInBitmapPerf(String operator, int matchesPerEvent) {
+            this.operator = operator;
+            this.matchesPerEvent = matchesPerEvent;
+        }
+
+        @Override
+        public EnumSet<RegressionFlag> flags() {
+            return EnumSet.of(RegressionFlag.EXCLUDEWHENINSTRUMENTED, RegressionFlag.PERFORMANCE);
+        }
+
+        public void run(RegressionEnvironment env) {
+            // each value is in the in-list of exactly one statement
+            StringWriter module = new StringWriter();
+            for (int i = 0; i < NUM_STATEMENTS; i++) {
+                module.append("@name('s").append(Integer.toString(i)).append("') select * from SupportBean(intPrimitive ").append(operator).append(" (");
+                for (int j = 0; j < IN_LIST_SIZE; j++) {
+                    module.append(j == 0 ? "" : ",").append(Integer.toString(i + j * NUM_STATEMENTS));
+                }
+                module.append("));\n");
+            }
+            EPCompiled compiled = env.compile(module.toString());
+            env.deploy(compiled);
+
+            SupportCountListener listener = new SupportCountListener();
+            for (int i = 0; i < NUM_STATEMENTS; i++) {
+                env.statement("s" + i).addListener(listener);
+            }
+
+            Random random = new Random(1);
+            long start = System.currentTimeMillis();
+            for (int i = 0; i < NUM_EVENTS; i++) {
+                env.sendEventBean(new SupportBean("E", random.nextInt(NUM_STATEMENTS * IN_LIST_SIZE)));
+            }
+            long delta = System.currentTimeMillis() - start;
+            log.info("Filter '" + operator + "' with " + NUM_STATEMENTS + " statements of " + IN_LIST_SIZE + " values each, " + NUM_EVENTS + " events, delta " + delta + " msec");
+
+            assertEquals(NUM_EVENTS * matchesPerEvent, listener.getCountNew());
+            assertTrue("Delta=" + delta, delta < 5000);
+
+            env.undeployAll();
+        }
+
+        public String name() {
+            return this.getClass().getSimpleName() + "{" +
+                "operator='" + operator + '\'' +
+                '}';
+        }
+    }
+}
@@ -0,0 +1,122 @@
+/*
+ ***************************************************************************************
+ *  Copyright (C) 2006 EsperTech, Inc. All rights reserved.                            *
+ *  http://www.espertech.com/esper                                                     *
+ *  http://www.espertech.com                                                           *
+ *  ---------------------------------------------------------------------------------- *
+ *  The software in this package is published under the terms of the GPL license       *
+ *  a copy of which has been included with this distribution in the license.txt file.  *
+ ***************************************************************************************
+ */
+package com.espertech.esper.regressionlib.suite.expr.filter;
+
+import com.espertech.esper.common.internal.filterspec.FilterOperator;
+import com.espertech.esper.common.internal.support.SupportBean;
+import com.espertech.esper.regressionlib.framework.RegressionEnvironment;
+import com.espertech.esper.regressionlib.framework.RegressionExecution;
+
+import java.util.ArrayList;
+import java.util.Collection;
+
+import static com.espertech.esper.common.internal.filterspec.FilterOperator.LIKE;
+import static com.espertech.esper.common.internal.filterspec.FilterOperator.REGEXP;
+import static com.espertech.esper.regressionlib.support.filter.SupportFilterOptimizableHelper.hasFilterIndexPlanBasicOrMore;
+import static com.espertech.esper.regressionlib.support.filter.SupportFilterServiceHelper.assertFilterSvcSingle;
+import static com.espertech.esper.regressionlib.support.filter.SupportFilterServiceHelper.getFilterSvcSingle;
+import static org.junit.Assert.assertNotEquals;
+
+public class ExprFilterOptimizableStringPattern {
+    private final static String HINT = "@Hint('filterindex(stringpattern)') ";
+
+    public static Collection<RegressionExecution> executions() {
+        ArrayList<RegressionExecution> executions = new ArrayList<>();
+        executions.add(new ExprFilterOptStringPatternLike());
+        executions.add(new ExprFilterOptStringPatternRegexp());
+        executions.add(new ExprFilterOptStringPatternNoHint());
+        return executions;
+    }
+
+    private static class ExprFilterOptStringPatternLike implements RegressionExecution {
+        public void run(RegressionEnvironment env) {
+            String[] names = new String[]{"exact", "prefix", "suffix", "contained", "other"};
+            String[] patterns = new String[]{"abc", "abc%", "%xyz", "%mid%", "a_c%"};
+            for (int i = 0; i < names.length; i++) {
+                deploy(env, names[i], "theString like '" + patterns[i] + "'", LIKE);
+            }
+
+            sendSBAssert(env, "abc", names, true, true, false, false, true);
+            sendSBAssert(env, "abcxyz", names, false, true, true, false, true);
+            sendSBAssert(env, "midmidxyz", names, false, false, true, true, false);
+            sendSBAssert(env, "axcmid", names, false, false, false, true, true);
+            sendSBAssert(env, "ab", names, false, false, false, false, false);
+
+            env.milestone(0);
+
+            // removing a pattern leaves the other patterns of the index
+            env.undeployModuleContaining("prefix");
+            env.undeployModuleContaining("contained");
+            String[] remaining = new String[]{"exact", "suffix", "other"};
+            sendSBAssert(env, "abcmidxyz", remaining, false, true, true);
+            sendSBAssert(env, "abc", remaining, true, false, true);
+
+            // adding a pattern again
+            deploy(env, "contained", "theString like '%mid%'", LIKE);
+            sendSBAssert(env, "abcmidxyz", new String[]{"exact", "suffix", "other", "contained"}, false, true, true, true);
+
+            env.undeployAll();
+        }
+    }
+
+    private static class ExprFilterOptStringPatternRegexp implements RegressionExecution {
+        public void run(RegressionEnvironment env) {
+            String[] names = new String[]{"literal", "anchored", "unfiltered"};
+            String[] patterns = new String[]{".*test.*", "ab[0-9]+", "[a-c]+"};
+            for (int i = 0; i < names.length; i++) {
+                deploy(env, names[i], "theString regexp '" + patterns[i] + "'", REGEXP);
+            }
+
+            sendSBAssert(env, "a test", names, true, false, false);
+            sendSBAssert(env, "ab12", names, false, true, false);
+            sendSBAssert(env, "abc", names, false, false, true);
+            sendSBAssert(env, "xyz", names, false, false, false);
+
+            env.milestone(0);
+
+            env.undeployModuleContaining("literal");
+            sendSBAssert(env, "ab12", new String[]{"anchored", "unfiltered"}, true, false);
+            sendSBAssert(env, "testtest", new String[]{"anchored", "unfiltered"}, false, false);
+
+            deploy(env, "literal", "theString regexp '.*test.*'", REGEXP);
+            sendSBAssert(env, "testtest", names, true, false, false);
+
+            env.undeployAll();
+        }
+    }
+
+    private static class ExprFilterOptStringPatternNoHint implements RegressionExecution {
+        public void run(RegressionEnvironment env) {
+            env.compileDeploy("@name('s0') select * from SupportBean(theString like 'abc%')").addListener("s0");
+            if (hasFilterIndexPlanBasicOrMore(env)) {
+                env.assertStatement("s0", statement -> assertNotEquals(LIKE, getFilterSvcSingle(statement).getOp()));
+            }
+            sendSBAssert(env, "abcd", new String[]{"s0"}, true);
+            sendSBAssert(env, "xabc", new String[]{"s0"}, false);
+
+            env.undeployAll();
+        }
+    }
+
+    private static void deploy(RegressionEnvironment env, String name, String filter, FilterOperator op) {
+        env.compileDeploy(HINT + "@name('" + name + "') select * from SupportBean(" + filter + ")").addListener(name);
+        if (hasFilterIndexPlanBasicOrMore(env)) {
+            assertFilterSvcSingle(env, name, "theString", op);
+        }
+    }
+
+    private static void sendSBAssert(RegressionEnvironment env, String theString, String[] names, boolean... received) {
+        env.sendEventBean(new SupportBean(theString, 0));
+        for (int i = 0; i < names.length; i++) {
+            env.assertListenerInvokedFlag(names[i], received[i], "value '" + theString + "' statement " + names[i]);
+        }
+    }
+}
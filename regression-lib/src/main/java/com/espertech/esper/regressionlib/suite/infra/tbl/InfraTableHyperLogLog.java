@@ -0,0 +1,136 @@
+/*
+ ***************************************************************************************
+ *  Copyright (C) 2006 EsperTech, Inc. All rights reserved.                            *
+ *  http://www.espertech.com/esper                                                     *
+ *  http://www.espertech.com                                                           *
+ *  ---------------------------------------------------------------------------------- *
+ *  The software in this package is published under the terms of the GPL license       *
+ *  a copy of which has been included with this distribution in the license.txt file.  *
+ ***************************************************************************************
+ */
+package com.espertech.esper.regressionlib.suite.infra.tbl;
+
+import com.espertech.esper.common.client.fireandforget.EPFireAndForgetQueryResult;
+import com.espertech.esper.common.internal.support.SupportBean;
+import com.espertech.esper.common.internal.support.SupportBean_S0;
+import com.espertech.esper.regressionlib.framework.RegressionEnvironment;
+import com.espertech.esper.regressionlib.framework.RegressionExecution;
+import com.espertech.esper.regressionlib.framework.RegressionPath;
+
+import java.util.ArrayList;
+import java.util.Collection;
+
+import static org.junit.Assert.assertTrue;
+
+/**
+ * NOTE: More table-related tests in "nwtable"
+ */
+public class InfraTableHyperLogLog {
+    public static Collection<RegressionExecution> executions() {
+        ArrayList<RegressionExecution> execs = new ArrayList<>();
+        execs.add(new InfraApproxDistinctGrouped());
+        execs.add(new InfraApproxDistinctLarge());
+        execs.add(new InfraHyperLogLogTableUnion());
+        execs.add(new InfraInvalid());
+        return execs;
+    }
+
+    private static class InfraApproxDistinctGrouped implements RegressionExecution {
+        public void run(RegressionEnvironment env) {
+            String epl = "@name('s0') select theString as c0, approxDistinct(intPrimitive) as c1 from SupportBean group by theString";
+            env.compileDeploy(epl).addListener("s0");
+
+            env.sendEventBean(new SupportBean("A", 1));
+            env.assertPropsNew("s0", "c0,c1".split(","), new Object[]{"A", 1L});
+
+            env.sendEventBean(new SupportBean("A", 1));
+            env.assertPropsNew("s0", "c0,c1".split(","), new Object[]{"A", 1L});
+
+            env.milestone(0);
+
+            env.sendEventBean(new SupportBean("B", 1));
+            env.assertPropsNew("s0", "c0,c1".split(","), new Object[]{"B", 1L});
+
+            env.sendEventBean(new SupportBean("A", 2));
+            env.assertPropsNew("s0", "c0,c1".split(","), new Object[]{"A", 2L});
+
+            env.undeployAll();
+        }
+    }
+
+    private static class InfraApproxDistinctLarge implements RegressionExecution {
+        public void run(RegressionEnvironment env) {
+            String epl = "@name('s0') select approxDistinct(intPrimitive, 12) as c0 from SupportBean output last every 20000 events";
+            env.compileDeploy(epl).addListener("s0");
+
+            for (int i = 0; i < 20000; i++) {
+                env.sendEventBean(new SupportBean("E", i % 10000));
+            }
+            env.assertEventNew("s0", event -> assertEstimate(10000, (Long) event.get("c0")));
+
+            env.undeployAll();
+        }
+    }
+
+    private static class InfraHyperLogLogTableUnion implements RegressionExecution {
+        public void run(RegressionEnvironment env) {
+            RegressionPath path = new RegressionPath();
+            String epl =
+                "@public create table MyHll(k string primary key, users hyperLogLog({precision: 12}));\n" +
+                    "into table MyHll select hyperLogLogAdd(intPrimitive) as users from SupportBean group by theString;\n" +
+                    "@name('s0') select MyHll[p00].users.estimate() as c0 from SupportBean_S0;\n";
+            env.compileDeploy(epl, path).addListener("s0");
+
+            for (int i = 0; i < 3000; i++) {
+                env.sendEventBean(new SupportBean("A", i));
+            }
+
+            env.milestone(0);
+
+            for (int i = 2000; i < 5000; i++) {
+                env.sendEventBean(new SupportBean("B", i));
+            }
+
+            env.sendEventBean(new SupportBean_S0(0, "A"));
+            env.assertEventNew("s0", event -> assertEstimate(3000, (Long) event.get("c0")));
+
+            env.sendEventBean(new SupportBean_S0(0, "B"));
+            env.assertEventNew("s0", event -> assertEstimate(3000, (Long) event.get("c0")));
+
+            // union across all groups of the table
+            env.assertThat(() -> {
+                EPFireAndForgetQueryResult result = env.compileExecuteFAF("select approxDistinct(users) as c0 from MyHll", path);
+                assertEstimate(5000, (Long) result.getArray()[0].get("c0"));
+            });
+
+            env.undeployAll();
+        }
+    }
+
+    private static class InfraInvalid implements RegressionExecution {
+        public void run(RegressionEnvironment env) {
+            RegressionPath path = new RegressionPath();
+            env.compileDeploy("@public create table MyHll(users hyperLogLog())", path);
+
+            env.tryInvalidCompile(path, "select hyperLogLog() from SupportBean",
+                "Failed to validate select-clause expression 'hyperLogLog()': HyperLogLog aggregation function 'hyperLogLog' can only be used in create-table statements [");
+            env.tryInvalidCompile(path, "create table MyTable(users hyperLogLog({precision:3}))",
+                "Failed to validate table-column expression 'hyperLogLog({precision=3})': HyperLogLog aggregation function 'hyperLogLog' requires a precision between 4 and 18 but received 3 [");
+            env.tryInvalidCompile(path, "select hyperLogLogAdd(intPrimitive) from SupportBean",
+                "Failed to validate select-clause expression 'hyperLogLogAdd(intPrimitive)': HyperLogLog aggregation function 'hyperLogLogAdd' can only be used with into-table");
+            env.tryInvalidCompile(path, "select MyHll.users.estimate(1) from SupportBean",
+                "Failed to validate select-clause expression 'MyHll.users.estimate(1)': HyperLogLog aggregation function 'estimate' requires no parameter expressions [");
+
+            env.tryInvalidCompile("select approxDistinct(intPrimitive) from SupportBean#length(2)",
+                "Failed to validate select-clause expression 'approxDistinct(intPrimitive)': The approxDistinct aggregation function does not support a remove stream, it requires streams without data windows [");
+            env.tryInvalidCompile("select approxDistinct(intPrimitive, 3) from SupportBean",
+                "Failed to validate select-clause expression 'approxDistinct(intPrimitive,3)': The approxDistinct aggregation function requires an expression returning aggregation values and an optional integer precision constant between 4 and 18 [");
+
+            env.undeployAll();
+        }
+    }
+
+    private static void assertEstimate(long expected, long actual) {
+        assertTrue("expected " + expected + " actual " + actual, Math.abs(actual - expected) <= expected * 0.1);
+    }
+}
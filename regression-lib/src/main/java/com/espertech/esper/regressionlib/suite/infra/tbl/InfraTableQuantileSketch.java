@@ -0,0 +1,133 @@
+/*
+ ***************************************************************************************
+ *  Copyright (C) 2006 EsperTech, Inc. All rights reserved.                            *
+ *  http://www.espertech.com/esper                                                     *
+ *  http://www.espertech.com                                                           *
+ *  ---------------------------------------------------------------------------------- *
+ *  The software in this package is published under the terms of the GPL license       *
+ *  a copy of which has been included with this distribution in the license.txt file.  *
+ ***************************************************************************************
+ */
+package com.espertech.esper.regressionlib.suite.infra.tbl;
+
+import com.espertech.esper.common.internal.support.SupportBean;
+import com.espertech.esper.common.internal.support.SupportBean_S0;
+import com.espertech.esper.regressionlib.framework.RegressionEnvironment;
+import com.espertech.esper.regressionlib.framework.RegressionExecution;
+import com.espertech.esper.regressionlib.framework.RegressionPath;
+
+import java.util.ArrayList;
+import java.util.Collection;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * NOTE: More table-related tests in "nwtable"
+ */
+public class InfraTableQuantileSketch {
+    public static Collection<RegressionExecution> executions() {
+        ArrayList<RegressionExecution> execs = new ArrayList<>();
+        execs.add(new InfraQuantileUngrouped());
+        execs.add(new InfraQuantileGrouped());
+        execs.add(new InfraInvalid());
+        return execs;
+    }
+
+    private static class InfraQuantileUngrouped implements RegressionExecution {
+        public void run(RegressionEnvironment env) {
+            RegressionPath path = new RegressionPath();
+            String epl =
+                "@public create table MyQuantile(qs quantileSketch());\n" +
+                    "into table MyQuantile select quantileSketchAdd(intPrimitive) as qs from SupportBean;\n" +
+                    "@name('s0') select MyQuantile.qs.quantile(0) as q0, MyQuantile.qs.quantile(0.5) as q50, MyQuantile.qs.quantile(1) as q100, " +
+                    "MyQuantile.qs.quantile(2) as qinvalid, MyQuantile.qs.count() as cnt from SupportBean_S0;\n";
+            env.compileDeploy(epl, path).addListener("s0");
+
+            for (int i = 1; i <= 50; i++) {
+                env.sendEventBean(new SupportBean("E", i));
+            }
+
+            env.milestone(0);
+
+            for (int i = 51; i <= 100; i++) {
+                env.sendEventBean(new SupportBean("E", i));
+            }
+            env.sendEventBean(new SupportBean_S0(0));
+            env.assertEventNew("s0", event -> {
+                assertEquals(1d, event.get("q0"));
+                assertEquals(100d, event.get("q100"));
+                assertNull(event.get("qinvalid"));
+                assertEquals(100L, event.get("cnt"));
+                double median = (Double) event.get("q50");
+                assertTrue("median " + median, Math.abs(median - 50.5) <= 1);
+            });
+
+            // test subquery
+            String eplSubquery = "@name('subq') select (select qs.quantile(1) from MyQuantile) as c0 from SupportBean_S0";
+            env.compileDeploy(eplSubquery, path).addListener("subq");
+
+            env.milestone(1);
+
+            env.sendEventBean(new SupportBean_S0(0));
+            env.assertEqualsNew("subq", "c0", 100d);
+
+            env.undeployAll();
+        }
+    }
+
+    private static class InfraQuantileGrouped implements RegressionExecution {
+        public void run(RegressionEnvironment env) {
+            RegressionPath path = new RegressionPath();
+            String epl =
+                "@public create table MyQuantileGrouped(k string primary key, qs quantileSketch({compression: 50}));\n" +
+                    "into table MyQuantileGrouped select quantileSketchAdd(intPrimitive) as qs from SupportBean group by theString;\n" +
+                    "@name('s0') select MyQuantileGrouped[p00].qs.quantile(0.5) as c0 from SupportBean_S0;\n";
+            env.compileDeploy(epl, path).addListener("s0");
+
+            env.sendEventBean(new SupportBean("A", 10));
+            env.sendEventBean(new SupportBean("A", 30));
+            env.sendEventBean(new SupportBean("B", 5));
+
+            env.milestone(0);
+
+            env.sendEventBean(new SupportBean("A", 20));
+            env.sendEventBean(new SupportBean_S0(0, "A"));
+            env.assertEqualsNew("s0", "c0", 20d);
+
+            env.sendEventBean(new SupportBean_S0(0, "B"));
+            env.assertEqualsNew("s0", "c0", 5d);
+
+            env.sendEventBean(new SupportBean_S0(0, "C"));
+            env.assertEqualsNew("s0", "c0", null);
+
+            env.undeployAll();
+        }
+    }
+
+    private static class InfraInvalid implements RegressionExecution {
+        public void run(RegressionEnvironment env) {
+            RegressionPath path = new RegressionPath();
+            env.compileDeploy("@public create table MyQS(qs quantileSketch())", path);
+
+            env.tryInvalidCompile(path, "select quantileSketch() from SupportBean",
+                "Failed to validate select-clause expression 'quantileSketch()': Quantile-sketch aggregation function 'quantileSketch' can only be used in create-table statements [");
+            env.tryInvalidCompile(path, "create table MyTable(qs quantileSketch(5))",
+                "Failed to validate table-column expression 'quantileSketch(5)': Quantile-sketch aggregation function 'quantileSketch' expects either no parameter or a single json parameter object [");
+            env.tryInvalidCompile(path, "create table MyTable(qs quantileSketch({xxx:3}))",
+                "Failed to validate table-column expression 'quantileSketch({xxx=3})': Unrecognized parameter 'xxx' [");
+            env.tryInvalidCompile(path, "create table MyTable(qs quantileSketch({compression:0}))",
+                "Failed to validate table-column expression 'quantileSketch({compression=0})': Quantile-sketch aggregation function 'quantileSketch' requires a compression of at least 1 but received 0.0 [");
+
+            env.tryInvalidCompile(path, "select quantileSketchAdd(intPrimitive) from SupportBean",
+                "Failed to validate select-clause expression 'quantileSketchAdd(intPrimitive)': Quantile-sketch aggregation function 'quantileSketchAdd' can only be used with into-table");
+            env.tryInvalidCompile(path, "into table MyQS select quantileSketchAdd(theString) as qs from SupportBean",
+                "Failed to validate select-clause expression 'quantileSketchAdd(theString)': Quantile-sketch aggregation function 'quantileSketchAdd' requires a numeric parameter expression [");
+            env.tryInvalidCompile(path, "select MyQS.qs.quantile() from SupportBean",
+                "Failed to validate select-clause expression 'MyQS.qs.quantile()': Quantile-sketch aggregation function 'quantile' requires a single parameter expression [");
+
+            env.undeployAll();
+        }
+    }
+}
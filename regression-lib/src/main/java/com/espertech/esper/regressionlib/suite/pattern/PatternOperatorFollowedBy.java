@@ -12,9 +12,11 @@ package com.espertech.esper.regressionlib.suite.pattern;
 
 import com.espertech.esper.common.client.EventBean;
 import com.espertech.esper.common.internal.support.SupportBean;
+import com.espertech.esper.common.internal.support.SupportBean_S0;
 import com.espertech.esper.regressionlib.framework.RegressionEnvironment;
 import com.espertech.esper.regressionlib.framework.RegressionExecution;
 import com.espertech.esper.regressionlib.support.bean.*;
+import com.espertech.esper.regressionlib.support.filter.SupportFilterServiceHelper;
 import com.espertech.esper.regressionlib.support.patternassert.*;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -40,6 +42,7 @@ public class PatternOperatorFollowedBy {
         execs.add(new PatternFollowedEveryMultiple());
         execs.add(new PatternFilterGreaterThen());
         execs.add(new PatternFollowedOrPermFalse());
+        execs.add(new PatternFollowedByCorrelated());
         return execs;
     }
 
@@ -480,6 +483,80 @@ public class PatternOperatorFollowedBy {
         return -1;
     }
 
+    private static class PatternFollowedByCorrelated implements RegressionExecution {
+        public void run(RegressionEnvironment env) {
+            String[] fields = "a.theString,b.id".split(",");
+            env.compileDeploy("@name('s0') @Hint('filterindex(patterncorrelate)') select * from pattern [every a=SupportBean -> b=SupportBean_S0(id=a.intPrimitive)]").addListener("s0");
+
+            env.sendEventBean(new SupportBean("E1", 1));
+            env.sendEventBean(new SupportBean("E2", 2));
+            env.sendEventBean(new SupportBean("E3", 1));
+            env.assertStatement("s0", statement -> assertEquals(1, SupportFilterServiceHelper.getFilterSvcCount(statement, "SupportBean_S0")));
+
+            env.milestone(0);
+
+            env.sendEventBean(new SupportBean_S0(2));
+            env.assertPropsPerRowLastNew("s0", fields, new Object[][]{{"E2", 2}});
+
+            env.sendEventBean(new SupportBean_S0(1));
+            env.assertPropsPerRowLastNew("s0", fields, new Object[][]{{"E1", 1}, {"E3", 1}});
+
+            env.sendEventBean(new SupportBean_S0(1));
+            env.sendEventBean(new SupportBean_S0(3));
+            env.assertListenerNotInvoked("s0");
+
+            env.sendEventBean(new SupportBean("E4", 1));
+            env.sendEventBean(new SupportBean_S0(1));
+            env.assertPropsPerRowLastNew("s0", fields, new Object[][]{{"E4", 1}});
+
+            env.undeployAll();
+
+            // without the hint each waiting state node has its own filter
+            env.compileDeploy("@name('s0') select * from pattern [every a=SupportBean -> b=SupportBean_S0(id=a.intPrimitive)]").addListener("s0");
+            env.sendEventBean(new SupportBean("E1", 1));
+            env.sendEventBean(new SupportBean("E2", 2));
+            env.assertStatement("s0", statement -> assertEquals(2, SupportFilterServiceHelper.getFilterSvcCount(statement, "SupportBean_S0")));
+            env.sendEventBean(new SupportBean_S0(2));
+            env.assertPropsPerRowLastNew("s0", fields, new Object[][]{{"E2", 2}});
+            env.undeployAll();
+
+            // composite key, null does not match
+            fields = "a.theString,b.id,b.p00".split(",");
+            env.compileDeploy("@name('s0') @Hint('filterindex(patterncorrelate)') select * from pattern [every a=SupportBean -> b=SupportBean_S0(id=a.intPrimitive, p00=a.theString)]").addListener("s0");
+
+            env.sendEventBean(new SupportBean("E1", 1));
+            env.sendEventBean(new SupportBean(null, 1));
+
+            env.milestone(1);
+
+            env.sendEventBean(new SupportBean_S0(1, "E2"));
+            env.sendEventBean(new SupportBean_S0(1, null));
+            env.assertListenerNotInvoked("s0");
+
+            env.sendEventBean(new SupportBean_S0(1, "E1"));
+            env.assertPropsPerRowLastNew("s0", fields, new Object[][]{{"E1", 1, "E1"}});
+
+            env.undeployAll();
+
+            // guard ends the waiting
+            env.advanceTime(0);
+            fields = "a.theString,b.id".split(",");
+            env.compileDeploy("@name('s0') @Hint('filterindex(patterncorrelate)') select * from pattern [every a=SupportBean -> (b=SupportBean_S0(id=a.intPrimitive) where timer:within(10 sec))]").addListener("s0");
+
+            env.sendEventBean(new SupportBean("E1", 1));
+            env.advanceTime(5000);
+            env.sendEventBean(new SupportBean("E2", 1));
+
+            env.milestone(2);
+
+            env.advanceTime(10000);
+            env.sendEventBean(new SupportBean_S0(1));
+            env.assertPropsPerRowLastNew("s0", fields, new Object[][]{{"E2", 1}});
+
+            env.undeployAll();
+        }
+    }
+
     private static SupportCallEvent sendEvent(RegressionEnvironment env, long callId, String source, String destination, long startTime, long endTime) {
         SupportCallEvent theEvent = new SupportCallEvent(callId, source, destination, startTime, endTime);
         env.sendEventBean(theEvent, SupportCallEvent.class.getSimpleName());
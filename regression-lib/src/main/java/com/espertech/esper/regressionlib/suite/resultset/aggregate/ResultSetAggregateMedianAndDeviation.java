@@ -11,10 +11,12 @@
 package com.espertech.esper.regressionlib.suite.resultset.aggregate;
 
 import com.espertech.esper.common.client.EventBean;
+import com.espertech.esper.common.client.scopetest.EPAssertionUtil;
 import com.espertech.esper.common.client.soda.*;
 import com.espertech.esper.common.internal.util.SerializableObjectCopier;
 import com.espertech.esper.regressionlib.framework.RegressionEnvironment;
 import com.espertech.esper.regressionlib.framework.RegressionExecution;
+import com.espertech.esper.regressionlib.framework.RegressionPath;
 import com.espertech.esper.regressionlib.support.bean.SupportBeanString;
 import com.espertech.esper.regressionlib.support.bean.SupportMarketDataBean;
 
@@ -34,6 +36,9 @@ public class ResultSetAggregateMedianAndDeviation {
         execs.add(new ResultSetAggregateStmt());
         execs.add(new ResultSetAggregateStmtJoinOM());
         execs.add(new ResultSetAggregateStmtJoin());
+        execs.add(new ResultSetAggregatePercentile(false));
+        execs.add(new ResultSetAggregatePercentile(true));
+        execs.add(new ResultSetAggregatePercentileIntoTable());
         return execs;
     }
 
@@ -245,6 +250,80 @@ public class ResultSetAggregateMedianAndDeviation {
         });
     }
 
+    private static class ResultSetAggregatePercentile implements RegressionExecution {
+        private final boolean soda;
+
+        public ResultSetAggregatePercentile(boolean soda) {
+            this.soda = soda;
+        }
+
+        public void run(RegressionEnvironment env) {
+            String epl = "@name('s0') select median(price) as med, percentile(price, 50) as p50, percentile(price, 90) as p90, " +
+                "percentiles(price, 0, 25, 100) as ps, percentile(price, 50, filter: symbol != 'X') as pf " +
+                "from SupportMarketDataBean#length(3)";
+            env.compileDeploy(soda, epl).addListener("s0");
+
+            sendAssertPercentile(env, "A", 10, new Object[]{10d, 10d, 10d, 10d}, new Double[]{10d, 10d, 10d});
+            sendAssertPercentile(env, "X", 20, new Object[]{15d, 15d, 19d, 10d}, new Double[]{10d, 12.5d, 20d});
+
+            env.milestone(0);
+
+            sendAssertPercentile(env, "B", 30, new Object[]{20d, 20d, 28d, 20d}, new Double[]{10d, 15d, 30d});
+            sendAssertPercentile(env, "C", 40, new Object[]{30d, 30d, 38d, 35d}, new Double[]{20d, 25d, 40d});
+
+            env.undeployAll();
+        }
+
+        private static void sendAssertPercentile(RegressionEnvironment env, String symbol, double price, Object[] expected, Double[] expectedPercentiles) {
+            sendEvent(env, symbol, price);
+            env.assertEventNew("s0", event -> {
+                EPAssertionUtil.assertProps(event, "med,p50,p90,pf".split(","), expected);
+                assertArrayEquals(expectedPercentiles, (Double[]) event.get("ps"));
+            });
+        }
+
+        public String name() {
+            return this.getClass().getSimpleName() + "{" +
+                "soda=" + soda +
+                '}';
+        }
+    }
+
+    private static class ResultSetAggregatePercentileIntoTable implements RegressionExecution {
+        public void run(RegressionEnvironment env) {
+            RegressionPath path = new RegressionPath();
+            String epl = "@public create table MyPercentileTable(k string primary key, med median(double), p90 percentile(double, 90), ps percentiles(double, 0, 50));\n" +
+                "into table MyPercentileTable select median(price) as med, percentile(price, 90) as p90, percentiles(price, 0, 50) as ps " +
+                "from SupportMarketDataBean group by symbol;\n" +
+                "@name('s0') select MyPercentileTable[theString].med as med, MyPercentileTable[theString].p90 as p90, MyPercentileTable[theString].ps as ps from SupportBeanString;\n";
+            env.compileDeploy(epl, path).addListener("s0");
+
+            sendEvent(env, "A", 10);
+            sendEvent(env, "A", 30);
+            sendEvent(env, "B", 5);
+
+            env.milestone(0);
+
+            // NaN values are ignored, same as for median prior to the order-statistic tree
+            sendEvent(env, "A", Double.NaN);
+            sendEvent(env, "A", 20);
+            sendAssertPercentileTable(env, "A", 20d, 28d, new Double[]{10d, 20d});
+            sendAssertPercentileTable(env, "B", 5d, 5d, new Double[]{5d, 5d});
+            sendAssertPercentileTable(env, "C", null, null, null);
+
+            env.undeployAll();
+        }
+
+        private static void sendAssertPercentileTable(RegressionEnvironment env, String key, Double med, Double p90, Double[] ps) {
+            env.sendEventBean(new SupportBeanString(key));
+            env.assertEventNew("s0", event -> {
+                assertEquals(med, event.get("med"));
+                assertEquals(p90, event.get("p90"));
+                assertArrayEquals(ps, (Double[]) event.get("ps"));
+            });
+        }
+    }
+
     private static void sendEvent(RegressionEnvironment env, String symbol, double price) {
         SupportMarketDataBean bean = new SupportMarketDataBean(symbol, price, 0L, null);
         env.sendEventBean(bean);
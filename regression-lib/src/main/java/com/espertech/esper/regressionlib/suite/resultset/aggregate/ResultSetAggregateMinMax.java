@@ -22,7 +22,9 @@ import org.slf4j.LoggerFactory;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.EnumSet;
+import java.util.LinkedList;
 import java.util.Random;
 
 public class ResultSetAggregateMinMax {
@@ -33,6 +35,11 @@ public class ResultSetAggregateMinMax {
         execs.add(new ResultSetAggregateMemoryMinHaving());
         execs.add(new ResultSetAggregateMinMaxNamedWindowWEver(false));
         execs.add(new ResultSetAggregateMinMaxNamedWindowWEver(true));
+        execs.add(new ResultSetAggregateMinMaxSlidingWindow("#length(3)"));
+        execs.add(new ResultSetAggregateMinMaxSlidingWindow("#length_batch(3)"));
+        execs.add(new ResultSetAggregateMinMaxSlidingWindowRandom());
+        execs.add(new ResultSetAggregateMinMaxEverPrimitive());
+        execs.add(new ResultSetAggregateMinMaxEverIntoTable());
         return execs;
     }
 
@@ -84,6 +91,137 @@ public class ResultSetAggregateMinMax {
         }
     }
 
+    private static class ResultSetAggregateMinMaxSlidingWindow implements RegressionExecution {
+        private final String window;
+
+        public ResultSetAggregateMinMaxSlidingWindow(String window) {
+            this.window = window;
+        }
+
+        public void run(RegressionEnvironment env) {
+            String[] fields = "lower,upper,lowerf".split(",");
+            String epl = "@name('s0') select min(intPrimitive) as lower, max(intPrimitive) as upper, " +
+                "min(intPrimitive, theString != 'X') as lowerf from SupportBean" + window;
+            env.compileDeploy(epl).addListener("s0");
+            boolean batch = window.contains("batch");
+
+            sendAssert(env, fields, "E1", 4, batch ? null : new Object[]{4, 4, 4});
+            sendAssert(env, fields, "X", 2, batch ? null : new Object[]{2, 4, 4});
+
+            env.milestone(0);
+
+            sendAssert(env, fields, "E3", 7, new Object[]{2, 7, 4});
+            sendAssert(env, fields, "E4", 5, batch ? null : new Object[]{2, 7, 5});
+
+            env.milestone(1);
+
+            sendAssert(env, fields, "E5", 5, batch ? null : new Object[]{5, 7, 5});
+            sendAssert(env, fields, "E6", 1, new Object[]{1, 5, 1});
+
+            env.undeployAll();
+        }
+
+        private void sendAssert(RegressionEnvironment env, String[] fields, String theString, int intPrimitive, Object[] expected) {
+            env.sendEventBean(new SupportBean(theString, intPrimitive));
+            if (expected == null) {
+                env.assertListenerNotInvoked("s0");
+            } else {
+                env.assertPropsNew("s0", fields, expected);
+            }
+        }
+
+        public String name() {
+            return this.getClass().getSimpleName() + "{" +
+                "window='" + window + '\'' +
+                '}';
+        }
+    }
+
+    private static class ResultSetAggregateMinMaxSlidingWindowRandom implements RegressionExecution {
+        public void run(RegressionEnvironment env) {
+            String[] fields = "lower,upper".split(",");
+            String epl = "@name('s0') select min(intPrimitive) as lower, max(intPrimitive) as upper from SupportBean#length(10)";
+            env.compileDeploy(epl).addListener("s0");
+
+            Random random = new Random(1);
+            LinkedList<Integer> window = new LinkedList<>();
+            for (int i = 0; i < 200; i++) {
+                int value = random.nextInt(20);
+                window.addLast(value);
+                if (window.size() > 10) {
+                    window.removeFirst();
+                }
+                env.sendEventBean(new SupportBean("E" + i, value));
+                env.assertPropsNew("s0", fields, new Object[]{Collections.min(window), Collections.max(window)});
+            }
+
+            env.undeployAll();
+        }
+    }
+
+    private static class ResultSetAggregateMinMaxEverPrimitive implements RegressionExecution {
+        public void run(RegressionEnvironment env) {
+            String[] fields = "c0,c1,c2,c3,c4,c5".split(",");
+            String epl = "@name('s0') select theString as c0, minever(intPrimitive) as c1, maxever(intPrimitive) as c2, " +
+                "maxever(longBoxed) as c3, minever(doublePrimitive) as c4, maxever(doublePrimitive) as c5 " +
+                "from SupportBean group by theString";
+            env.compileDeploy(epl).addListener("s0");
+
+            sendEvent(env, "A", 5, null, 1.5);
+            env.assertPropsNew("s0", fields, new Object[]{"A", 5, 5, null, 1.5, 1.5});
+
+            env.milestone(0);
+
+            sendEvent(env, "A", 3, 10L, -2.5);
+            env.assertPropsNew("s0", fields, new Object[]{"A", 3, 5, 10L, -2.5, 1.5});
+
+            sendEvent(env, "B", 1, 2L, 0d);
+            env.assertPropsNew("s0", fields, new Object[]{"B", 1, 1, 2L, 0d, 0d});
+
+            env.milestone(1);
+
+            sendEvent(env, "A", 8, null, Double.NaN);
+            env.assertPropsNew("s0", fields, new Object[]{"A", 3, 8, 10L, -2.5, Double.NaN});
+
+            sendEvent(env, "A", 4, 7L, 1d);
+            env.assertPropsNew("s0", fields, new Object[]{"A", 3, 8, 10L, -2.5, Double.NaN});
+
+            env.undeployAll();
+        }
+
+        private static void sendEvent(RegressionEnvironment env, String theString, int intPrimitive, Long longBoxed, double doublePrimitive) {
+            SupportBean sb = new SupportBean(theString, intPrimitive);
+            sb.setLongBoxed(longBoxed);
+            sb.setDoublePrimitive(doublePrimitive);
+            env.sendEventBean(sb);
+        }
+    }
+
+    private static class ResultSetAggregateMinMaxEverIntoTable implements RegressionExecution {
+        public void run(RegressionEnvironment env) {
+            String[] fields = "c0,c1".split(",");
+            RegressionPath path = new RegressionPath();
+            String epl = "@public create table MyTableMinMaxEver(k string primary key, lowerever minever(int), upperever maxever(int));\n" +
+                "into table MyTableMinMaxEver select minever(intPrimitive) as lowerever, maxever(intPrimitive) as upperever from SupportBean group by theString;\n" +
+                "@name('s0') select MyTableMinMaxEver[p00].lowerever as c0, MyTableMinMaxEver[p00].upperever as c1 from SupportBean_S0;\n";
+            env.compileDeploy(epl, path).addListener("s0");
+
+            env.sendEventBean(new SupportBean("A", 5));
+            env.sendEventBean(new SupportBean("A", 2));
+
+            env.milestone(0);
+
+            env.sendEventBean(new SupportBean("A", 9));
+            env.sendEventBean(new SupportBean_S0(0, "A"));
+            env.assertPropsNew("s0", fields, new Object[]{2, 9});
+
+            env.sendEventBean(new SupportBean_S0(0, "B"));
+            env.assertPropsNew("s0", fields, new Object[]{null, null});
+
+            env.undeployAll();
+        }
+    }
+
     private static class ResultSetAggregateMinMaxNoDataWindowSubquery implements RegressionExecution {
         public void run(RegressionEnvironment env) {
 
@@ -11,6 +11,7 @@
 package com.espertech.esper.regressionrun.suite.client;
 
 import com.espertech.esper.common.client.configuration.Configuration;
+import com.espertech.esper.common.client.util.FilterServiceProfile;
 import com.espertech.esper.regressionlib.suite.client.deploy.*;
 import com.espertech.esper.common.internal.support.SupportBean;
 import com.espertech.esper.common.internal.support.SupportBean_S0;
@@ -77,6 +78,12 @@ public class TestSuiteClientDeploy extends TestCase {
         RegressionRunner.run(session, ClientDeployListDependencies.executions());
     }
 
+    public void testClientDeployFilterServiceReadCopyUpdate() {
+        session.getConfiguration().getRuntime().getExecution().setFilterServiceProfile(FilterServiceProfile.READCOPYUPDATE);
+        RegressionRunner.run(session, ClientDeployUndeploy.executions());
+        RegressionRunner.run(session, ClientDeployRollout.executions());
+    }
+
     private void configure(Configuration configuration) {
         for (Class clazz : new Class[]{SupportBean.class, SupportBean_S0.class}) {
             configuration.getCommon().addEventType(clazz);
@@ -52,6 +52,11 @@ public class TestSuiteClientRuntimeWConfig extends TestCase {
         new ClientRuntimeRuntimeProvider.ClientRuntimeMicrosecondInvalid().run(config);
     }
 
+    public void testClientRuntimeLockTypePerThread() {
+        Configuration config = SupportConfigFactory.getConfiguration();
+        new ClientRuntimeRuntimeProvider.ClientRuntimeLockTypePerThread().run(config);
+    }
+
     public void testClientRuntimeAnnotationImportInvalid() {
         RegressionSession session = RegressionRunner.session();
         session.getConfiguration().getCommon().addAnnotationImport(SupportEnum.class);
@@ -65,6 +70,14 @@ public class TestSuiteClientRuntimeWConfig extends TestCase {
         RegressionRunner.runConfigurable(new ClientRuntimeThreadedConfigInbound());
     }
 
+    public void testClientRuntimeThreadedConfigInboundRingBuffer() {
+        RegressionRunner.runConfigurable(new ClientRuntimeThreadedConfigInboundRingBuffer());
+    }
+
+    public void testClientRuntimeThreadedConfigInboundKeyAffine() {
+        RegressionRunner.runConfigurable(new ClientRuntimeThreadedConfigInboundKeyAffine());
+    }
+
     public void testClientRuntimeThreadedConfigInboundFastShutdown() {
         RegressionRunner.runConfigurable(new ClientRuntimeThreadedConfigInboundFastShutdown());
     }
@@ -81,6 +94,10 @@ public class TestSuiteClientRuntimeWConfig extends TestCase {
         RegressionRunner.runConfigurable(new ClientRuntimeThreadedConfigTimer());
     }
 
+    public void testClientRuntimeThreadedConfigTimerShard() {
+        RegressionRunner.runConfigurable(new ClientRuntimeThreadedConfigTimerShard());
+    }
+
     public void testClientRuntimeClockTypeRuntime() {
         new ClientRuntimeTimeControlClockType().run(SupportConfigFactory.getConfiguration());
     }
@@ -143,12 +143,34 @@ public class TestSuiteExprFilterWConfig extends TestCase {
         runAssertionFilter(FilterIndexPlanning.ADVANCED, ExprFilterOptimizableValueLimitedExpr.executions());
     }
 
+    public void testExprFilterOptimizableStringPatternNone() {
+        runAssertionFilter(FilterIndexPlanning.NONE, ExprFilterOptimizableStringPattern.executions());
+    }
+
+    public void testExprFilterOptimizableStringPatternBasic() {
+        runAssertionFilter(FilterIndexPlanning.BASIC, ExprFilterOptimizableStringPattern.executions());
+    }
+
+    public void testExprFilterOptimizableStringPatternAdvanced() {
+        runAssertionFilter(FilterIndexPlanning.ADVANCED, ExprFilterOptimizableStringPattern.executions());
+    }
+
     public void testExprFilterWhereClauseNoDataWindowPerformance() {
         runAssertionFilter(FilterIndexPlanning.NONE, ExprFilterWhereClauseNoDataWindowPerformance.executions());
         runAssertionFilter(FilterIndexPlanning.BASIC, ExprFilterWhereClauseNoDataWindowPerformance.executions());
         runAssertionFilter(FilterIndexPlanning.ADVANCED, ExprFilterWhereClauseNoDataWindowPerformance.executions());
     }
 
+    public void testExprFilterInBitmapPerformance() {
+        for (boolean inBitmap : new boolean[]{false, true}) {
+            RegressionSession session = RegressionRunner.session();
+            configure(session.getConfiguration());
+            session.getConfiguration().getRuntime().getExecution().setFilterIndexInBitmap(inBitmap);
+            RegressionRunner.run(session, ExprFilterInBitmapPerformance.executions());
+            session.destroy();
+        }
+    }
+
     public void testExprFilterOptimizable() {
         runAssertionFilter(FilterIndexPlanning.NONE, ExprFilterOptimizable.executions());
         runAssertionFilter(FilterIndexPlanning.BASIC, ExprFilterOptimizable.executions());
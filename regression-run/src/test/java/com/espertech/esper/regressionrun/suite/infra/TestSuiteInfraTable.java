@@ -73,6 +73,14 @@ public class TestSuiteInfraTable extends TestCase {
         RegressionRunner.run(session, InfraTableCountMinSketch.executions());
     }
 
+    public void testInfraTableQuantileSketch() {
+        RegressionRunner.run(session, InfraTableQuantileSketch.executions());
+    }
+
+    public void testInfraTableHyperLogLog() {
+        RegressionRunner.run(session, InfraTableHyperLogLog.executions());
+    }
+
     public void testInfraTableAccessDotMethod() {
         RegressionRunner.run(session, InfraTableAccessDotMethod.executions());
     }
@@ -13,6 +13,7 @@ package com.espertech.esper.runtime.client;
 import com.espertech.esper.common.client.EPException;
 import org.w3c.dom.Node;
 
+import java.util.Collection;
 import java.util.Map;
 
 /**
@@ -102,4 +103,61 @@ public interface EPEventServiceSendEvent {
      * @throws EPException is thrown when the processing of the event lead to an error, including for Json parsing problems
      */
     void sendEventJson(String json, String jsonEventTypeName);
+
+    /**
+     * Send a batch of object arrays containing event property values to the runtime.
+     * <p>
+     * The runtime processes the events in the order provided and with the same semantics as calling {@link #sendEventObjectArray(Object[], String)}
+     * for each event, i.e. insert-into and routed events as well as listener and subscriber dispatch
+     * for an event complete before the next event of the batch is processed.
+     * The runtime wraps all events of the batch before processing the first event and looks up thread-local state once for the batch.
+     * </p>
+     * <p>
+     * When the processing of an event leads to an error the remaining events of the batch are not processed.
+     * </p>
+     *
+     * @param events        - collection of arrays that contain event property values
+     * @param eventTypeName - event type name
+     * @throws EPException - when the processing of an event leads to an error
+     */
+    void sendEventObjectArrayBatch(Collection<Object[]> events, String eventTypeName);
+
+    /**
+     * Send a batch of events represented by objects to the runtime.
+     * <p>
+     * Processes each event as {@link #sendEventBean(Object, String)} does,
+     * see {@link #sendEventObjectArrayBatch(Collection, String)}.
+     * </p>
+     *
+     * @param events        is the collection of events to sent to the runtime
+     * @param eventTypeName event type name
+     * @throws EPException is thrown when the processing of an event lead to an error
+     */
+    void sendEventBeanBatch(Collection<?> events, String eventTypeName);
+
+    /**
+     * Send a batch of maps containing event property values to the runtime.
+     * <p>
+     * Processes each event as {@link #sendEventMap(Map, String)} does,
+     * see {@link #sendEventObjectArrayBatch(Collection, String)}.
+     * </p>
+     *
+     * @param events        - collection of maps that contain event property values
+     * @param eventTypeName - event type name
+     * @throws EPException - when the processing of an event leads to an error
+     */
+    void sendEventMapBatch(Collection<Map<String, Object>> events, String eventTypeName);
+
+    /**
+     * Send a batch of events represented by String JSON to the runtime.
+     * <p>
+     * Processes each event as {@link #sendEventJson(String, String)} does,
+     * see {@link #sendEventObjectArrayBatch(Collection, String)}.
+     * </p>
+     *
+     * @param events            is the collection of JSON events to sent to the runtime
+     * @param jsonEventTypeName event type name
+     * @throws EPException is thrown when the processing of an event lead to an error, including for Json parsing problems
+     */
+    void sendEventJsonBatch(Collection<String> events, String jsonEventTypeName);
 }
@@ -54,6 +54,12 @@ public interface EPEventServiceTimeControl {
      * For externally controlling the time within a runtime.
      * </p>
      * <p>
+     * Time advances in ticks of the resolution. All schedules that are due within the same tick, across all statements, are
+     * evaluated together at the end of the tick, with one dispatch per statement agent instance, and ticks at which no schedule
+     * is due are skipped. This is suitable for catching up when replaying historical data, where a coarser resolution trades
+     * timer precision for throughput.
+     * </p>
+     * <p>
      * External clocking must be first be enabled by configuration {@link com.espertech.esper.common.client.configuration.runtime.ConfigurationRuntimeThreading#setInternalTimerEnabled(boolean)} passing false
      * or by calling {@link #clockExternal()}.
      * </p>
@@ -15,9 +15,12 @@ import com.espertech.esper.common.client.EventType;
 import com.espertech.esper.common.client.meta.EventTypeIdPair;
 import com.espertech.esper.common.internal.epl.expression.core.ExprEvaluatorContext;
 import com.espertech.esper.common.internal.filtersvc.FilterHandle;
+import com.espertech.esper.runtime.internal.metrics.instrumentation.InstrumentationHelper;
 
 import java.util.*;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.locks.ReadWriteLock;
+import java.util.function.Function;
 
 /**
  * Mapping of event type to a tree-like structure
@@ -27,14 +30,63 @@ import java.util.concurrent.locks.ReadWriteLock;
  * and (2) asking the subtree for this event type to evaluate the event.
  * <p>
  * The class performs all the locking required for multithreaded access.
+ * <p>
+ * When a compile threshold is provided, the subtree of an event type is compiled into a {@link FilterCompiledPlan}
+ * after the given number of events of the event type were evaluated without a change to the subtree.
+ * The plan is used for evaluation until the subtree changes, and evaluation uses the subtree
+ * until the threshold is reached again. Compiling requires that no changes to the subtree take place
+ * during evaluation.
+ * <p>
+ * When a stats resolver is provided, the filter evaluation counters of an event type are resolved once
+ * when the event type is added and events of the event type count their evaluation without a further lookup.
+ * The evaluation time is measured only when filter metrics are enabled by the settings.
  */
 public class EventTypeIndex implements EventEvaluator {
-    private Map<EventType, FilterHandleSetNode> eventTypes;
+    private Map<EventType, TypeEntry> eventTypes;
     private ReadWriteLock eventTypesRWLock;
+    private final int compileThreshold;
+    private final boolean inBitmap;
+    private final boolean countLookups;
+    private final boolean timed;
+    private final Function<EventType, FilterEventTypeStats> statsResolver;
 
     public EventTypeIndex(FilterServiceGranularLockFactory lockFactory) {
-        eventTypes = new HashMap<EventType, FilterHandleSetNode>();
+        this(lockFactory, FilterServiceSettings.DEFAULT, null);
+    }
+
+    /**
+     * Ctor.
+     *
+     * @param lockFactory   lock factory
+     * @param settings      filter service settings providing the compile threshold, the use of bitmap indexes and whether indexes count lookups
+     * @param statsResolver provides the filter evaluation counters of an event type, or null to not count evaluations
+     */
+    public EventTypeIndex(FilterServiceGranularLockFactory lockFactory, FilterServiceSettings settings, Function<EventType, FilterEventTypeStats> statsResolver) {
+        eventTypes = new HashMap<EventType, TypeEntry>();
         eventTypesRWLock = lockFactory.obtainNew();
+        this.compileThreshold = settings.getCompileThreshold();
+        this.inBitmap = settings.isInBitmap();
+        this.countLookups = settings.isCountLookups();
+        this.timed = settings.isMetrics();
+        this.statsResolver = statsResolver;
+    }
+
+    /**
+     * Returns indicator whether filter index trees use bitmap indexes for in and not-in filter parameters.
+     *
+     * @return indicator
+     */
+    public boolean isInBitmap() {
+        return inBitmap;
+    }
+
+    /**
+     * Returns indicator whether the indexes of filter index trees count lookups.
+     *
+     * @return indicator
+     */
+    public boolean isCountLookups() {
+        return countLookups;
     }
 
     /**
@@ -44,6 +96,33 @@ public class EventTypeIndex implements EventEvaluator {
         eventTypes.clear();
     }
 
+    /**
+     * Indicate that the subtree for the event type changed, discarding any compiled plan for the event type.
+     *
+     * @param eventType event type
+     */
+    public void invalidate(EventType eventType) {
+        if (compileThreshold <= 0) {
+            return;
+        }
+        TypeEntry entry = getEntry(eventType);
+        if (entry != null) {
+            entry.plan = null;
+            entry.numEvaluated = 0;
+        }
+    }
+
+    /**
+     * Returns the compiled plan for the event type, if any.
+     *
+     * @param eventType event type
+     * @return plan or null if not compiled
+     */
+    public FilterCompiledPlan getCompiledPlan(EventType eventType) {
+        TypeEntry entry = getEntry(eventType);
+        return entry == null ? null : entry.plan;
+    }
+
     public Map<EventTypeIdPair, Map<Integer, List<FilterItem[]>>> getTraverseStatement(Set<Integer> statementIds) {
         ArrayDeque<FilterItem> evaluatorStack = new ArrayDeque<>();
         Map<Integer, List<FilterItem[]>> filters = new HashMap<>();
@@ -61,8 +140,8 @@ public class EventTypeIndex implements EventEvaluator {
             }
         };
 
-        for (Map.Entry<EventType, FilterHandleSetNode> entry : eventTypes.entrySet()) {
-            entry.getValue().getTraverseStatement(traverse, statementIds, evaluatorStack);
+        for (Map.Entry<EventType, TypeEntry> entry : eventTypes.entrySet()) {
+            entry.getValue().rootNode.getTraverseStatement(traverse, statementIds, evaluatorStack);
             if (!filters.isEmpty()) {
                 filtersPerType.put(entry.getKey().getMetadata().getEventTypeIdPair(), new HashMap<>(filters));
                 filters.clear();
@@ -88,12 +167,28 @@ public class EventTypeIndex implements EventEvaluator {
             if (eventTypes.containsKey(eventType)) {
                 throw new IllegalStateException("Event type already in index, add not performed, type=" + eventType);
             }
-            eventTypes.put(eventType, rootNode);
+            eventTypes.put(eventType, new TypeEntry(rootNode, statsResolver == null ? null : statsResolver.apply(eventType)));
         } finally {
             eventTypesRWLock.writeLock().unlock();
         }
     }
 
+    /**
+     * Replace the root node of the subtree of an event type, discarding any compiled plan for the event type.
+     *
+     * @param eventType is the event type
+     * @param rootNode  is the new root node of the subtree for filter constant indizes and callbacks
+     */
+    public void replace(EventType eventType, FilterHandleSetNode rootNode) {
+        eventTypesRWLock.writeLock().lock();
+        try {
+            TypeEntry existing = eventTypes.get(eventType);
+            FilterEventTypeStats stats = existing != null ? existing.stats : (statsResolver == null ? null : statsResolver.apply(eventType));
+            eventTypes.put(eventType, new TypeEntry(rootNode, stats));
+        } finally {
+            eventTypesRWLock.writeLock().unlock();
+        }
+    }
 
     public void removeType(EventType type) {
         eventTypesRWLock.writeLock().lock();
@@ -111,27 +206,84 @@ public class EventTypeIndex implements EventEvaluator {
      * @return the subtree's root node
      */
     public FilterHandleSetNode get(EventType eventType) {
-        eventTypesRWLock.readLock().lock();
-        FilterHandleSetNode result = eventTypes.get(eventType);
-        eventTypesRWLock.readLock().unlock();
+        TypeEntry entry = getEntry(eventType);
+        return entry == null ? null : entry.rootNode;
+    }
 
-        return result;
+    /**
+     * Returns the event types that have a filter index tree.
+     *
+     * @return event types
+     */
+    public Set<EventType> getEventTypes() {
+        eventTypesRWLock.readLock().lock();
+        try {
+            return new LinkedHashSet<>(eventTypes.keySet());
+        } finally {
+            eventTypesRWLock.readLock().unlock();
+        }
     }
 
     public void matchEvent(EventBean theEvent, Collection<FilterHandle> matches, ExprEvaluatorContext ctx) {
         EventType eventType = theEvent.getEventType();
+        TypeEntry entry = getEntry(eventType);
+        FilterEventTypeStats stats = entry == null ? null : entry.stats;
+        if (stats == null) {
+            matchEventTypes(eventType, entry, theEvent, matches, ctx);
+            return;
+        }
 
-        // Attempt to match exact type
-        matchType(eventType, theEvent, matches, ctx);
+        int numMatchesBefore = matches.size();
+        if (!timed) {
+            matchEventTypes(eventType, entry, theEvent, matches, ctx);
+            stats.count(1, matches.size() - numMatchesBefore, 0);
+            return;
+        }
+        long startNanos = System.nanoTime();
+        matchEventTypes(eventType, entry, theEvent, matches, ctx);
+        stats.count(1, matches.size() - numMatchesBefore, System.nanoTime() - startNanos);
+    }
 
-        // No supertype means we are done
-        if (eventType.getSuperTypes() == null) {
+    /**
+     * Match a block of events, evaluating consecutive events of the same event type together.
+     *
+     * @param events  events
+     * @param count   number of events to match
+     * @param matches per-event collections of matching filter callbacks
+     * @param ctx     evaluator context
+     */
+    public void matchEvents(EventBean[] events, int count, Collection<FilterHandle>[] matches, ExprEvaluatorContext ctx) {
+        if (InstrumentationHelper.ENABLED) {
+            for (int i = 0; i < count; i++) {
+                matchEvent(events[i], matches[i], ctx);
+            }
             return;
         }
 
-        for (Iterator<EventType> it = eventType.getDeepSuperTypes(); it.hasNext(); ) {
-            EventType superType = it.next();
-            matchType(superType, theEvent, matches, ctx);
+        int start = 0;
+        while (start < count) {
+            EventType eventType = events[start].getEventType();
+            int end = start + 1;
+            while (end < count && events[end].getEventType() == eventType) {
+                end++;
+            }
+
+            TypeEntry entry = getEntry(eventType);
+            FilterEventTypeStats stats = entry == null ? null : entry.stats;
+            if (stats == null) {
+                matchEventTypesBlock(eventType, entry, events, start, end, matches, ctx);
+            } else if (!timed) {
+                int numMatchesBefore = countMatches(matches, start, end);
+                matchEventTypesBlock(eventType, entry, events, start, end, matches, ctx);
+                stats.count(end - start, countMatches(matches, start, end) - numMatchesBefore, 0);
+            } else {
+                // the evaluation time of the block is attributed to its events evenly
+                int numMatchesBefore = countMatches(matches, start, end);
+                long startNanos = System.nanoTime();
+                matchEventTypesBlock(eventType, entry, events, start, end, matches, ctx);
+                stats.count(end - start, countMatches(matches, start, end) - numMatchesBefore, System.nanoTime() - startNanos);
+            }
+            start = end;
         }
     }
 
@@ -149,9 +301,10 @@ public class EventTypeIndex implements EventEvaluator {
         int count = 0;
         eventTypesRWLock.readLock().lock();
         try {
-            for (Map.Entry<EventType, FilterHandleSetNode> entry : eventTypes.entrySet()) {
-                count += entry.getValue().getFilterCallbackCount();
-                for (FilterParamIndexBase index : entry.getValue().getIndizes()) {
+            for (Map.Entry<EventType, TypeEntry> entry : eventTypes.entrySet()) {
+                FilterHandleSetNode rootNode = entry.getValue().rootNode;
+                count += rootNode.getFilterCallbackCount();
+                for (FilterParamIndexBase index : rootNode.getIndizes()) {
                     count += index.sizeExpensive();
                 }
             }
@@ -161,21 +314,127 @@ public class EventTypeIndex implements EventEvaluator {
         return count;
     }
 
-    private void matchType(EventType eventType, EventBean eventBean, Collection<FilterHandle> matches, ExprEvaluatorContext ctx) {
+    private void matchEventTypes(EventType eventType, TypeEntry entry, EventBean theEvent, Collection<FilterHandle> matches, ExprEvaluatorContext ctx) {
+        // Attempt to match exact type
+        matchType(entry, theEvent, matches, ctx);
+
+        // No supertype means we are done
+        if (eventType.getSuperTypes() == null) {
+            return;
+        }
+
+        for (Iterator<EventType> it = eventType.getDeepSuperTypes(); it.hasNext(); ) {
+            EventType superType = it.next();
+            matchType(getEntry(superType), theEvent, matches, ctx);
+        }
+    }
+
+    private void matchEventTypesBlock(EventType eventType, TypeEntry entry, EventBean[] events, int from, int to, Collection<FilterHandle>[] matches, ExprEvaluatorContext ctx) {
+        matchTypeBlock(entry, events, from, to, matches, ctx);
+        if (eventType.getSuperTypes() != null) {
+            for (Iterator<EventType> it = eventType.getDeepSuperTypes(); it.hasNext(); ) {
+                EventType superType = it.next();
+                matchTypeBlock(getEntry(superType), events, from, to, matches, ctx);
+            }
+        }
+    }
+
+    private TypeEntry getEntry(EventType eventType) {
         eventTypesRWLock.readLock().lock();
-        FilterHandleSetNode rootNode = null;
         try {
-            rootNode = eventTypes.get(eventType);
+            return eventTypes.get(eventType);
         } finally {
             eventTypesRWLock.readLock().unlock();
         }
+    }
 
-        // If the top class node is null, no filters have yet been registered for this event type.
-        // In this case, log a message and done.
-        if (rootNode == null) {
+    private void matchType(TypeEntry entry, EventBean eventBean, Collection<FilterHandle> matches, ExprEvaluatorContext ctx) {
+        // If the entry is null, no filters have yet been registered for this event type.
+        if (entry == null) {
+            return;
+        }
+        FilterHandleSetNode rootNode = entry.rootNode;
+
+        if (compileThreshold <= 0 || InstrumentationHelper.ENABLED) {
+            rootNode.matchEvent(eventBean, matches, ctx);
+            return;
+        }
+
+        FilterCompiledPlan plan = entry.plan;
+        if (plan != null && plan.getRootNode() == rootNode) {
+            plan.matchEvent(eventBean, matches, ctx);
             return;
         }
 
         rootNode.matchEvent(eventBean, matches, ctx);
+
+        // the count is approximate as threads may increment concurrently
+        if (++entry.numEvaluated >= compileThreshold) {
+            entry.compile();
+        }
+    }
+
+    private void matchTypeBlock(TypeEntry entry, EventBean[] events, int from, int to, Collection<FilterHandle>[] matches, ExprEvaluatorContext ctx) {
+        if (entry == null) {
+            return;
+        }
+        if (to - from == 1) {
+            matchType(entry, events[from], matches[from], ctx);
+            return;
+        }
+        FilterHandleSetNode rootNode = entry.rootNode;
+
+        if (compileThreshold <= 0) {
+            rootNode.matchEvents(events, from, to, matches, ctx);
+            return;
+        }
+
+        FilterCompiledPlan plan = entry.plan;
+        if (plan != null && plan.getRootNode() == rootNode) {
+            for (int i = from; i < to; i++) {
+                plan.matchEvent(events[i], matches[i], ctx);
+            }
+            return;
+        }
+
+        rootNode.matchEvents(events, from, to, matches, ctx);
+
+        // the count is approximate as threads may increment concurrently
+        entry.numEvaluated += to - from;
+        if (entry.numEvaluated >= compileThreshold) {
+            entry.compile();
+        }
+    }
+
+    private static int countMatches(Collection<FilterHandle>[] matches, int from, int to) {
+        int count = 0;
+        for (int i = from; i < to; i++) {
+            count += matches[i].size();
+        }
+        return count;
+    }
+
+    private static class TypeEntry {
+        private final FilterHandleSetNode rootNode;
+        private final FilterEventTypeStats stats;
+        private volatile FilterCompiledPlan plan;
+        private int numEvaluated;
+        private final AtomicBoolean compiling = new AtomicBoolean();
+
+        private TypeEntry(FilterHandleSetNode rootNode, FilterEventTypeStats stats) {
+            this.rootNode = rootNode;
+            this.stats = stats;
+        }
+
+        private void compile() {
+            if (!compiling.compareAndSet(false, true)) {
+                return;
+            }
+            try {
+                plan = FilterCompiledPlan.compile(rootNode);
+            } finally {
+                compiling.set(false);
+            }
+        }
     }
 }
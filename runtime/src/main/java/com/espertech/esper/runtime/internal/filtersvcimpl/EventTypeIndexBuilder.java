@@ -15,6 +15,7 @@ import com.espertech.esper.common.client.meta.EventTypeIdPair;
 import com.espertech.esper.common.internal.filterspec.FilterSpecParam;
 import com.espertech.esper.common.internal.filterspec.FilterValueSetParam;
 import com.espertech.esper.common.internal.filtersvc.FilterHandle;
+import com.espertech.esper.common.internal.filtersvc.FilterServiceEntry;
 
 import java.util.List;
 import java.util.Map;
@@ -62,26 +63,25 @@ public class EventTypeIndexBuilder {
      * @param eventType      event type
      */
     public final void add(EventType eventType, FilterValueSetParam[][] valueSet, FilterHandle filterCallback, FilterServiceGranularLockFactory lockFactory) {
+        FilterHandleSetNode rootNode = getOrCreateRootNode(eventType, lockFactory);
 
-        // Check if a filter tree exists for this event type
-        FilterHandleSetNode rootNode = eventTypeIndex.get(eventType);
+        // Now add to tree
+        IndexTreeBuilderAdd.add(valueSet, filterCallback, rootNode, lockFactory, eventTypeIndex.isInBitmap(), eventTypeIndex.isCountLookups());
+    }
 
-        // Make sure we have a root node
-        if (rootNode == null) {
-            callbacksLock.lock();
-            try {
-                rootNode = eventTypeIndex.get(eventType);
-                if (rootNode == null) {
-                    rootNode = new FilterHandleSetNode(lockFactory.obtainNew());
-                    eventTypeIndex.add(eventType, rootNode);
-                }
-            } finally {
-                callbacksLock.unlock();
-            }
+    /**
+     * Add filters of the same event type to the event type index structure, and to the filter subtree.
+     * Throws an IllegalStateException exception if a callback is already registered.
+     *
+     * @param eventType   event type
+     * @param entries     filters of the event type
+     * @param lockFactory lock factory
+     */
+    public final void add(EventType eventType, List<FilterServiceEntry> entries, FilterServiceGranularLockFactory lockFactory) {
+        FilterHandleSetNode rootNode = getOrCreateRootNode(eventType, lockFactory);
+        for (FilterServiceEntry entry : entries) {
+            IndexTreeBuilderAdd.add(entry.getValueSet(), entry.getHandle(), rootNode, lockFactory, eventTypeIndex.isInBitmap(), eventTypeIndex.isCountLookups());
         }
-
-        // Now add to tree
-        IndexTreeBuilderAdd.add(valueSet, filterCallback, rootNode, lockFactory);
     }
 
     /**
@@ -105,7 +105,50 @@ public class EventTypeIndexBuilder {
         }
     }
 
+    /**
+     * Remove filters of the same event type from the given index node.
+     *
+     * @param eventType event type
+     * @param entries   filters of the event type
+     */
+    public final void remove(EventType eventType, List<FilterServiceEntry> entries) {
+        FilterHandleSetNode rootNode = eventTypeIndex.get(eventType);
+        if (rootNode == null) {
+            return;
+        }
+        for (FilterServiceEntry entry : entries) {
+            FilterValueSetParam[][] valueSet = entry.getValueSet();
+            if (valueSet.length == 0) {
+                IndexTreeBuilderRemove.remove(eventType, entry.getHandle(), FilterSpecParam.EMPTY_VALUE_ARRAY, rootNode);
+            } else {
+                for (int i = 0; i < valueSet.length; i++) {
+                    IndexTreeBuilderRemove.remove(eventType, entry.getHandle(), valueSet[i], rootNode);
+                }
+            }
+        }
+    }
+
     public boolean isSupportsTakeApply() {
         return false;
     }
+
+    private FilterHandleSetNode getOrCreateRootNode(EventType eventType, FilterServiceGranularLockFactory lockFactory) {
+        // Check if a filter tree exists for this event type
+        FilterHandleSetNode rootNode = eventTypeIndex.get(eventType);
+
+        // Make sure we have a root node
+        if (rootNode == null) {
+            callbacksLock.lock();
+            try {
+                rootNode = eventTypeIndex.get(eventType);
+                if (rootNode == null) {
+                    rootNode = new FilterHandleSetNode(lockFactory.obtainNew());
+                    eventTypeIndex.add(eventType, rootNode);
+                }
+            } finally {
+                callbacksLock.unlock();
+            }
+        }
+        return rootNode;
+    }
 }
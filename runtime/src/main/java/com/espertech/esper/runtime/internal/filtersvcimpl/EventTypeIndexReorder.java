@@ -0,0 +1,256 @@
+/*
+ ***************************************************************************************
+ *  Copyright (C) 2006 EsperTech, Inc. All rights reserved.                            *
+ *  http://www.espertech.com/esper                                                     *
+ *  http://www.espertech.com                                                           *
+ *  ---------------------------------------------------------------------------------- *
+ *  The software in this package is published under the terms of the GPL license       *
+ *  a copy of which has been included with this distribution in the license.txt file.  *
+ ***************************************************************************************
+ */
+package com.espertech.esper.runtime.internal.filtersvcimpl;
+
+import com.espertech.esper.common.client.EventType;
+import com.espertech.esper.common.internal.collection.Pair;
+import com.espertech.esper.common.internal.filterspec.FilterOperator;
+import com.espertech.esper.common.internal.filterspec.FilterValueSetParam;
+import com.espertech.esper.common.internal.filtersvc.FilterHandle;
+
+import java.util.*;
+
+/**
+ * Orders the filter parameters of the filters of each event type by selectivity, so that the filter index tree
+ * of an event type first looks up the filter parameters that pass events to the fewest evaluators.
+ * <p>
+ * The filter service registers each filter with this class. Each filter index counts the events that it evaluates
+ * and the evaluators that it passes events to, see {@link FilterParamIndexBase#getFanOut()}.
+ * After the given number of evaluated events the filter service asks to compute the average fan-out of
+ * each lookupable expression and filter operator from the filter index tree of each event type.
+ * When the order of the filter parameters changes for any filter of an event type, the filter service rebuilds
+ * the filter index tree of the event type by adding the filters with their filter parameters ordered by fan-out,
+ * lowest fan-out first. Boolean expressions remain last. Newly-added filters use the same order.
+ * <p>
+ * Events evaluated by a compiled plan of an event type are not counted by the filter indexes.
+ * The fan-out of a filter parameter is only considered once its filter index evaluated a minimum number of events.
+ * <p>
+ * The class is not thread-safe, the filter service must hold its write lock.
+ */
+public final class EventTypeIndexReorder {
+    private final static int MIN_LOOKUPS = 100;
+
+    private final long interval;
+    private final Map<EventType, TypeState> types = new HashMap<>();
+    private volatile long nextReorder;
+    private volatile long numReorders;
+
+    /**
+     * Ctor.
+     *
+     * @param interval number of events evaluated after which to compute fan-out and reorder
+     */
+    public EventTypeIndexReorder(long interval) {
+        this.interval = interval;
+        this.nextReorder = interval;
+    }
+
+    /**
+     * Returns true if the number of evaluated events reached the next reorder.
+     *
+     * @param numEventsEvaluated number of events evaluated
+     * @return indicator
+     */
+    public boolean isDue(long numEventsEvaluated) {
+        return numEventsEvaluated >= nextReorder;
+    }
+
+    /**
+     * Schedule the next reorder after the interval.
+     *
+     * @param numEventsEvaluated number of events evaluated
+     */
+    public void reset(long numEventsEvaluated) {
+        nextReorder = numEventsEvaluated + interval;
+    }
+
+    /**
+     * Returns the number of times that the filter parameters of the filters of an event type were reordered.
+     *
+     * @return count
+     */
+    public long getNumReorders() {
+        return numReorders;
+    }
+
+    public void add(EventType eventType, FilterValueSetParam[][] valueSet, FilterHandle filterCallback) {
+        types.computeIfAbsent(eventType, type -> new TypeState()).filters.put(filterCallback, valueSet);
+    }
+
+    public void remove(EventType eventType, FilterHandle filterCallback) {
+        TypeState state = types.get(eventType);
+        if (state == null) {
+            return;
+        }
+        state.filters.remove(filterCallback);
+        if (state.filters.isEmpty()) {
+            types.remove(eventType);
+        }
+    }
+
+    public void removeType(EventType eventType) {
+        types.remove(eventType);
+    }
+
+    /**
+     * Returns the filter parameters of each path of the value set in the order of the last reorder of the event type.
+     *
+     * @param eventType event type
+     * @param valueSet  filter parameters
+     * @return ordered filter parameters, or the same value set if the event type was not reordered
+     */
+    public FilterValueSetParam[][] order(EventType eventType, FilterValueSetParam[][] valueSet) {
+        TypeState state = types.get(eventType);
+        if (state == null || state.applied == null) {
+            return valueSet;
+        }
+        return sort(valueSet, state.applied);
+    }
+
+    /**
+     * Returns the average fan-out by lookupable expression and filter operator as last computed for the event type.
+     *
+     * @param eventType event type
+     * @return fan-out
+     */
+    public Map<Pair<String, FilterOperator>, Double> getFanOut(EventType eventType) {
+        TypeState state = types.get(eventType);
+        return state == null ? Collections.emptyMap() : Collections.unmodifiableMap(state.fanOut);
+    }
+
+    /**
+     * Compute the average fan-out from the filter index tree of each event type and return, for each event type for
+     * which the order of filter parameters changes, the filters with their filter parameters in the new order.
+     *
+     * @param index              filter index trees
+     * @param numEventsEvaluated number of events evaluated
+     * @return filters per event type, in the order of registration
+     */
+    public Map<EventType, Map<FilterHandle, FilterValueSetParam[][]>> reorder(EventTypeIndex index, long numEventsEvaluated) {
+        reset(numEventsEvaluated);
+        Map<EventType, Map<FilterHandle, FilterValueSetParam[][]>> reordered = null;
+        for (Map.Entry<EventType, TypeState> entry : types.entrySet()) {
+            FilterHandleSetNode rootNode = index.get(entry.getKey());
+            if (rootNode == null) {
+                continue;
+            }
+            TypeState state = entry.getValue();
+            collectFanOut(rootNode, state);
+            if (!isOrderChanged(state)) {
+                continue;
+            }
+
+            state.applied = new HashMap<>(state.fanOut);
+            Map<FilterHandle, FilterValueSetParam[][]> filters = new LinkedHashMap<>();
+            for (Map.Entry<FilterHandle, FilterValueSetParam[][]> filter : state.filters.entrySet()) {
+                filters.put(filter.getKey(), sort(filter.getValue(), state.applied));
+            }
+            if (reordered == null) {
+                reordered = new LinkedHashMap<>();
+            }
+            reordered.put(entry.getKey(), filters);
+            numReorders++;
+        }
+        return reordered == null ? Collections.emptyMap() : reordered;
+    }
+
+    /**
+     * Replace the filter index tree of the event type by a tree built from the filters.
+     *
+     * @param index       filter index trees
+     * @param eventType   event type
+     * @param filters     filters
+     * @param lockFactory lock factory
+     */
+    public static void rebuild(EventTypeIndex index, EventType eventType, Map<FilterHandle, FilterValueSetParam[][]> filters, FilterServiceGranularLockFactory lockFactory) {
+        FilterHandleSetNode rootNode = new FilterHandleSetNode(lockFactory.obtainNew());
+        for (Map.Entry<FilterHandle, FilterValueSetParam[][]> filter : filters.entrySet()) {
+            IndexTreeBuilderAdd.add(filter.getValue(), filter.getKey(), rootNode, lockFactory, index.isInBitmap(), index.isCountLookups());
+        }
+        index.replace(eventType, rootNode);
+    }
+
+    private static void collectFanOut(FilterHandleSetNode rootNode, TypeState state) {
+        Set<Integer> statementIds = new HashSet<>();
+        for (FilterHandle filterCallback : state.filters.keySet()) {
+            statementIds.add(filterCallback.getStatementId());
+        }
+
+        // the same index can be on the path of many filters
+        Set<FilterParamIndexLookupableBase> indexes = Collections.newSetFromMap(new IdentityHashMap<>());
+        rootNode.getTraverseStatement((stack, filterHandle) -> {
+            for (FilterItem item : stack) {
+                if (item.getIndex() instanceof FilterParamIndexLookupableBase) {
+                    indexes.add((FilterParamIndexLookupableBase) item.getIndex());
+                }
+            }
+        }, statementIds, new ArrayDeque<>());
+
+        Map<Pair<String, FilterOperator>, long[]> counts = new HashMap<>();
+        for (FilterParamIndexLookupableBase index : indexes) {
+            long[] count = counts.computeIfAbsent(new Pair<>(index.getLookupable().getExpression(), index.getFilterOperator()), key -> new long[2]);
+            count[0] += index.getNumLookups();
+            count[1] += index.getNumForwarded();
+        }
+        for (Map.Entry<Pair<String, FilterOperator>, long[]> entry : counts.entrySet()) {
+            long[] count = entry.getValue();
+            if (count[0] >= MIN_LOOKUPS) {
+                state.fanOut.put(entry.getKey(), (double) count[1] / count[0]);
+            }
+        }
+    }
+
+    private static boolean isOrderChanged(TypeState state) {
+        for (FilterValueSetParam[][] valueSet : state.filters.values()) {
+            for (FilterValueSetParam[] path : valueSet) {
+                FilterValueSetParam[] current = state.applied == null ? path : sort(path, state.applied);
+                FilterValueSetParam[] next = sort(path, state.fanOut);
+                for (int i = 0; i < path.length; i++) {
+                    if (current[i] != next[i]) {
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    private static FilterValueSetParam[][] sort(FilterValueSetParam[][] valueSet, Map<Pair<String, FilterOperator>, Double> fanOut) {
+        FilterValueSetParam[][] sorted = new FilterValueSetParam[valueSet.length][];
+        for (int i = 0; i < valueSet.length; i++) {
+            sorted[i] = sort(valueSet[i], fanOut);
+        }
+        return sorted;
+    }
+
+    private static FilterValueSetParam[] sort(FilterValueSetParam[] path, Map<Pair<String, FilterOperator>, Double> fanOut) {
+        FilterValueSetParam[] sorted = path.clone();
+        if (sorted.length > 1) {
+            // the sort is stable, parameters of the same fan-out remain in the order provided
+            Arrays.sort(sorted, Comparator.comparingDouble(param -> getFanOut(param, fanOut)));
+        }
+        return sorted;
+    }
+
+    private static double getFanOut(FilterValueSetParam param, Map<Pair<String, FilterOperator>, Double> fanOut) {
+        if (param.getFilterOperator() == FilterOperator.BOOLEAN_EXPRESSION) {
+            return Double.MAX_VALUE;
+        }
+        Double value = fanOut.get(new Pair<>(param.getLookupable().getExpression(), param.getFilterOperator()));
+        return value == null ? 1d : value;
+    }
+
+    private static class TypeState {
+        private final Map<FilterHandle, FilterValueSetParam[][]> filters = new LinkedHashMap<>();
+        private final Map<Pair<String, FilterOperator>, Double> fanOut = new HashMap<>();
+        private Map<Pair<String, FilterOperator>, Double> applied;
+    }
+}
@@ -0,0 +1,314 @@
+/*
+ ***************************************************************************************
+ *  Copyright (C) 2006 EsperTech, Inc. All rights reserved.                            *
+ *  http://www.espertech.com/esper                                                     *
+ *  http://www.espertech.com                                                           *
+ *  ---------------------------------------------------------------------------------- *
+ *  The software in this package is published under the terms of the GPL license       *
+ *  a copy of which has been included with this distribution in the license.txt file.  *
+ ***************************************************************************************
+ */
+package com.espertech.esper.runtime.internal.filtersvcimpl;
+
+import com.espertech.esper.common.client.EventBean;
+import com.espertech.esper.common.internal.epl.expression.core.ExprEvaluatorContext;
+import com.espertech.esper.common.internal.epl.expression.core.ExprFilterSpecLookupable;
+import com.espertech.esper.common.internal.filtersvc.FilterHandle;
+
+import java.util.*;
+
+/**
+ * Compiled form of the filter index tree of an event type, for use in place of the tree when the tree does not change.
+ * <p>
+ * Compiling flattens filter handle set nodes into arrays of filter handles and child evaluators and copies the
+ * equals, is and not-equals indexes, including those keyed by primitive values, into maps and arrays that do not
+ * require locking. Each event property (lookupable) that compiled indexes use is assigned a slot and is read at most
+ * once per event. The slots are held by the {@link FilterCompiledPlanScratch} that the evaluation context provides
+ * for the thread, see {@link FilterCompiledPlanScratchProvider}.
+ * All other indexes are evaluated by the index itself.
+ * <p>
+ * Compiled indexes count lookups against the index they were compiled from, same as the index would, so that reordering
+ * by selectivity and filter metrics see the traffic evaluated by the plan.
+ * <p>
+ * The plan represents the tree at the time of compilation. It is the responsibility of the caller to no longer use the plan
+ * once the tree changed.
+ */
+public final class FilterCompiledPlan {
+    private final FilterHandleSetNode rootNode;
+    private final FilterCompiledEvaluator root;
+    private final int numValueSlots;
+    private final int numCompiledIndexes;
+
+    private FilterCompiledPlan(FilterHandleSetNode rootNode, FilterCompiledEvaluator root, int numValueSlots, int numCompiledIndexes) {
+        this.rootNode = rootNode;
+        this.root = root;
+        this.numValueSlots = numValueSlots;
+        this.numCompiledIndexes = numCompiledIndexes;
+    }
+
+    /**
+     * Compile the filter index tree.
+     *
+     * @param rootNode root node of the tree for an event type
+     * @return plan
+     */
+    public static FilterCompiledPlan compile(FilterHandleSetNode rootNode) {
+        Compiler compiler = new Compiler();
+        FilterCompiledEvaluator root = compiler.compile(rootNode);
+        return new FilterCompiledPlan(rootNode, root, compiler.lookupables.size(), compiler.numCompiledIndexes);
+    }
+
+    /**
+     * Evaluate the event, adding matching filter handles.
+     *
+     * @param theEvent event
+     * @param matches  matches
+     * @param ctx      evaluation context
+     */
+    public void matchEvent(EventBean theEvent, Collection<FilterHandle> matches, ExprEvaluatorContext ctx) {
+        FilterCompiledPlanScratch values = ctx instanceof FilterCompiledPlanScratchProvider ? ((FilterCompiledPlanScratchProvider) ctx).getFilterCompiledPlanScratch() : null;
+        if (values == null || values.isInUse()) {
+            values = new FilterCompiledPlanScratch();  // no scratch provided or evaluation of a plan is already in progress on this thread
+        }
+        values.begin(theEvent, ctx, numValueSlots);
+        try {
+            root.matchEvent(values, matches);
+        } finally {
+            values.clear();
+        }
+    }
+
+    /**
+     * Returns the root node of the tree that was compiled.
+     *
+     * @return root node
+     */
+    public FilterHandleSetNode getRootNode() {
+        return rootNode;
+    }
+
+    /**
+     * Returns the number of event property value slots.
+     *
+     * @return slots
+     */
+    public int getNumValueSlots() {
+        return numValueSlots;
+    }
+
+    /**
+     * Returns the number of indexes that are compiled, not counting indexes that evaluate by themselves.
+     *
+     * @return count
+     */
+    public int getNumCompiledIndexes() {
+        return numCompiledIndexes;
+    }
+
+    /**
+     * Compiled evaluator.
+     */
+    interface FilterCompiledEvaluator {
+        void matchEvent(FilterCompiledPlanScratch values, Collection<FilterHandle> matches);
+    }
+
+    private static final class Compiler {
+        private final List<ExprFilterSpecLookupable> lookupables = new ArrayList<>();
+        private final Map<ExprFilterSpecLookupable, Integer> slots = new HashMap<>();
+        private int numCompiledIndexes;
+
+        private FilterCompiledEvaluator compile(EventEvaluator evaluator) {
+            if (evaluator instanceof FilterHandleSetNode) {
+                FilterHandleSetNode node = (FilterHandleSetNode) evaluator;
+                FilterHandle[] handles = node.getCallbackSet().toArray(new FilterHandle[0]);
+                List<FilterParamIndexBase> indizes = node.getIndizes();
+                FilterCompiledEvaluator[] children = new FilterCompiledEvaluator[indizes.size()];
+                int count = 0;
+                for (FilterParamIndexBase index : indizes) {
+                    children[count++] = compile(index);
+                }
+                return new CompiledNode(handles, children);
+            }
+            if (evaluator instanceof FilterParamIndexEquals || evaluator instanceof FilterParamIndexEqualsIs) {
+                FilterParamIndexEqualsBase index = (FilterParamIndexEqualsBase) evaluator;
+                Map<Object, FilterCompiledEvaluator> map = new HashMap<>();
+                for (Map.Entry<Object, EventEvaluator> entry : index.constantsMap.entrySet()) {
+                    map.put(entry.getKey(), compile(entry.getValue()));
+                }
+                numCompiledIndexes++;
+                return new CompiledEquals(index, slot(index.getLookupable()), index.getLookupable(), evaluator instanceof FilterParamIndexEqualsIs, map);
+            }
+            if (evaluator instanceof FilterParamIndexEqualsPrimitive) {
+                FilterParamIndexEqualsPrimitive index = (FilterParamIndexEqualsPrimitive) evaluator;
+                FilterPrimitiveKeyMap<FilterCompiledEvaluator> map = new FilterPrimitiveKeyMap<>(index.getKeyClass());
+                index.getConstantsMap().forEach((key, value) -> map.put(key, compile(value)));
+                numCompiledIndexes++;
+                return new CompiledEqualsPrimitive(index, slot(index.getLookupable()), index.getLookupable(), map);
+            }
+            if (evaluator instanceof FilterParamIndexNotEqualsPrimitive) {
+                FilterParamIndexNotEqualsPrimitive index = (FilterParamIndexNotEqualsPrimitive) evaluator;
+                List<Object> keys = new ArrayList<>();
+                List<FilterCompiledEvaluator> children = new ArrayList<>();
+                index.getConstantsMap().forEach((key, value) -> {
+                    if (key != null) {
+                        keys.add(key);
+                        children.add(compile(value));
+                    }
+                });
+                numCompiledIndexes++;
+                return new CompiledNotEquals(index, slot(index.getLookupable()), index.getLookupable(), keys.toArray(), children.toArray(new FilterCompiledEvaluator[0]));
+            }
+            if (evaluator instanceof FilterParamIndexNotEquals) {
+                FilterParamIndexNotEquals index = (FilterParamIndexNotEquals) evaluator;
+                List<Object> keys = new ArrayList<>();
+                List<FilterCompiledEvaluator> children = new ArrayList<>();
+                for (Map.Entry<Object, EventEvaluator> entry : index.constantsMap.entrySet()) {
+                    if (entry.getKey() == null) {
+                        continue;   // null-value cannot match, not even null
+                    }
+                    keys.add(entry.getKey());
+                    children.add(compile(entry.getValue()));
+                }
+                numCompiledIndexes++;
+                return new CompiledNotEquals(index, slot(index.getLookupable()), index.getLookupable(), keys.toArray(), children.toArray(new FilterCompiledEvaluator[0]));
+            }
+            return new Interpreted(evaluator);
+        }
+
+        private int slot(ExprFilterSpecLookupable lookupable) {
+            if (lookupable.isNonPropertyEval()) {
+                return -1;
+            }
+            Integer slot = slots.get(lookupable);
+            if (slot == null) {
+                slot = lookupables.size();
+                lookupables.add(lookupable);
+                slots.put(lookupable, slot);
+            }
+            return slot;
+        }
+    }
+
+    private static final class CompiledNode implements FilterCompiledEvaluator {
+        private final FilterHandle[] handles;
+        private final FilterCompiledEvaluator[] children;
+
+        CompiledNode(FilterHandle[] handles, FilterCompiledEvaluator[] children) {
+            this.handles = handles;
+            this.children = children;
+        }
+
+        public void matchEvent(FilterCompiledPlanScratch values, Collection<FilterHandle> matches) {
+            for (FilterCompiledEvaluator child : children) {
+                child.matchEvent(values, matches);
+            }
+            for (FilterHandle handle : handles) {
+                matches.add(handle);
+            }
+        }
+    }
+
+    private static final class CompiledEquals implements FilterCompiledEvaluator {
+        private final FilterParamIndexBase index;
+        private final int slot;
+        private final ExprFilterSpecLookupable lookupable;
+        private final boolean matchNull;
+        private final Map<Object, FilterCompiledEvaluator> map;
+
+        CompiledEquals(FilterParamIndexBase index, int slot, ExprFilterSpecLookupable lookupable, boolean matchNull, Map<Object, FilterCompiledEvaluator> map) {
+            this.index = index;
+            this.slot = slot;
+            this.lookupable = lookupable;
+            this.matchNull = matchNull;
+            this.map = map;
+        }
+
+        public void matchEvent(FilterCompiledPlanScratch values, Collection<FilterHandle> matches) {
+            Object value = values.get(slot, lookupable);
+            if (value == null && !matchNull) {
+                index.countLookup(0);
+                return;
+            }
+            FilterCompiledEvaluator evaluator = map.get(value);
+            if (evaluator == null) {
+                index.countLookup(0);
+                return;
+            }
+            index.countLookup(1);
+            evaluator.matchEvent(values, matches);
+        }
+    }
+
+    private static final class CompiledEqualsPrimitive implements FilterCompiledEvaluator {
+        private final FilterParamIndexBase index;
+        private final int slot;
+        private final ExprFilterSpecLookupable lookupable;
+        private final FilterPrimitiveKeyMap<FilterCompiledEvaluator> map;
+
+        CompiledEqualsPrimitive(FilterParamIndexBase index, int slot, ExprFilterSpecLookupable lookupable, FilterPrimitiveKeyMap<FilterCompiledEvaluator> map) {
+            this.index = index;
+            this.slot = slot;
+            this.lookupable = lookupable;
+            this.map = map;
+        }
+
+        public void matchEvent(FilterCompiledPlanScratch values, Collection<FilterHandle> matches) {
+            Object value = values.get(slot, lookupable);
+            if (value == null) {
+                index.countLookup(0);
+                return;
+            }
+            FilterCompiledEvaluator evaluator = map.isPrimitiveKey(value) ? map.getPrimitive(map.toPrimitiveKey(value)) : map.get(value);
+            if (evaluator == null) {
+                index.countLookup(0);
+                return;
+            }
+            index.countLookup(1);
+            evaluator.matchEvent(values, matches);
+        }
+    }
+
+    private static final class CompiledNotEquals implements FilterCompiledEvaluator {
+        private final FilterParamIndexBase index;
+        private final int slot;
+        private final ExprFilterSpecLookupable lookupable;
+        private final Object[] keys;
+        private final FilterCompiledEvaluator[] evaluators;
+
+        CompiledNotEquals(FilterParamIndexBase index, int slot, ExprFilterSpecLookupable lookupable, Object[] keys, FilterCompiledEvaluator[] evaluators) {
+            this.index = index;
+            this.slot = slot;
+            this.lookupable = lookupable;
+            this.keys = keys;
+            this.evaluators = evaluators;
+        }
+
+        public void matchEvent(FilterCompiledPlanScratch values, Collection<FilterHandle> matches) {
+            Object value = values.get(slot, lookupable);
+            if (value == null) {
+                index.countLookup(0);
+                return;
+            }
+            int forwarded = 0;
+            for (int i = 0; i < keys.length; i++) {
+                if (!keys[i].equals(value)) {
+                    evaluators[i].matchEvent(values, matches);
+                    forwarded++;
+                }
+            }
+            index.countLookup(forwarded);
+        }
+    }
+
+    private static final class Interpreted implements FilterCompiledEvaluator {
+        private final EventEvaluator evaluator;
+
+        Interpreted(EventEvaluator evaluator) {
+            this.evaluator = evaluator;
+        }
+
+        public void matchEvent(FilterCompiledPlanScratch values, Collection<FilterHandle> matches) {
+            evaluator.matchEvent(values.getEvent(), matches, values.getCtx());
+        }
+    }
+}
@@ -0,0 +1,71 @@
+/*
+ ***************************************************************************************
+ *  Copyright (C) 2006 EsperTech, Inc. All rights reserved.                            *
+ *  http://www.espertech.com/esper                                                     *
+ *  http://www.espertech.com                                                           *
+ *  ---------------------------------------------------------------------------------- *
+ *  The software in this package is published under the terms of the GPL license       *
+ *  a copy of which has been included with this distribution in the license.txt file.  *
+ ***************************************************************************************
+ */
+package com.espertech.esper.runtime.internal.filtersvcimpl;
+
+import com.espertech.esper.common.client.EventBean;
+import com.espertech.esper.common.internal.epl.expression.core.ExprEvaluatorContext;
+import com.espertech.esper.common.internal.epl.expression.core.ExprFilterSpecLookupable;
+
+import java.util.Arrays;
+
+/**
+ * Event and the event property values read so far when evaluating a {@link FilterCompiledPlan}.
+ * A thread reuses its scratch for each event and for any plan, the value slots grow to the largest plan evaluated.
+ */
+public final class FilterCompiledPlanScratch {
+    private static final Object UNRESOLVED = new Object();
+
+    private Object[] values = new Object[0];
+    private int numSlots;
+    private EventBean theEvent;
+    private ExprEvaluatorContext ctx;
+
+    boolean isInUse() {
+        return theEvent != null;
+    }
+
+    void begin(EventBean theEvent, ExprEvaluatorContext ctx, int numSlots) {
+        if (values.length < numSlots) {
+            values = new Object[numSlots];
+        }
+        Arrays.fill(values, 0, numSlots, UNRESOLVED);
+        this.numSlots = numSlots;
+        this.theEvent = theEvent;
+        this.ctx = ctx;
+    }
+
+    void clear() {
+        Arrays.fill(values, 0, numSlots, null);
+        numSlots = 0;
+        theEvent = null;
+        ctx = null;
+    }
+
+    EventBean getEvent() {
+        return theEvent;
+    }
+
+    ExprEvaluatorContext getCtx() {
+        return ctx;
+    }
+
+    Object get(int slot, ExprFilterSpecLookupable lookupable) {
+        if (slot == -1) {
+            return lookupable.getEval().eval(theEvent, ctx);
+        }
+        Object value = values[slot];
+        if (value == UNRESOLVED) {
+            value = lookupable.getEval().eval(theEvent, ctx);
+            values[slot] = value;
+        }
+        return value;
+    }
+}
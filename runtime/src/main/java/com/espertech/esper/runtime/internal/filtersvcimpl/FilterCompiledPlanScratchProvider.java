@@ -0,0 +1,18 @@
+/*
+ ***************************************************************************************
+ *  Copyright (C) 2006 EsperTech, Inc. All rights reserved.                            *
+ *  http://www.espertech.com/esper                                                     *
+ *  http://www.espertech.com                                                           *
+ *  ---------------------------------------------------------------------------------- *
+ *  The software in this package is published under the terms of the GPL license       *
+ *  a copy of which has been included with this distribution in the license.txt file.  *
+ ***************************************************************************************
+ */
+package com.espertech.esper.runtime.internal.filtersvcimpl;
+
+/**
+ * Implemented by the per-thread evaluation context of event processing to provide the thread's scratch for compiled filter plans.
+ */
+public interface FilterCompiledPlanScratchProvider {
+    FilterCompiledPlanScratch getFilterCompiledPlanScratch();
+}
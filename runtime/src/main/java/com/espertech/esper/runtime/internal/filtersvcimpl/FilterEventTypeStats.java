@@ -0,0 +1,56 @@
+/*
+ ***************************************************************************************
+ *  Copyright (C) 2006 EsperTech, Inc. All rights reserved.                            *
+ *  http://www.espertech.com/esper                                                     *
+ *  http://www.espertech.com                                                           *
+ *  ---------------------------------------------------------------------------------- *
+ *  The software in this package is published under the terms of the GPL license       *
+ *  a copy of which has been included with this distribution in the license.txt file.  *
+ ***************************************************************************************
+ */
+package com.espertech.esper.runtime.internal.filtersvcimpl;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Cumulative filter evaluation counters of an event type.
+ * <p>
+ * The counters are striped so that threads evaluating events concurrently increment separate cells
+ * and do not contend or lock. Reading a counter sums the cells.
+ */
+public final class FilterEventTypeStats {
+    private final LongAdder numEventsEvaluated = new LongAdder();
+    private final LongAdder numMatches = new LongAdder();
+    private final LongAdder evaluationTimeNanos = new LongAdder();
+
+    /**
+     * Count evaluated events.
+     *
+     * @param numEvents  number of events evaluated
+     * @param matches    number of filter handles matched
+     * @param deltaNanos evaluation time
+     */
+    public void count(int numEvents, int matches, long deltaNanos) {
+        numEventsEvaluated.add(numEvents);
+        numMatches.add(matches);
+        evaluationTimeNanos.add(deltaNanos);
+    }
+
+    public long getNumEventsEvaluated() {
+        return numEventsEvaluated.sum();
+    }
+
+    public long getNumMatches() {
+        return numMatches.sum();
+    }
+
+    public long getEvaluationTimeNanos() {
+        return evaluationTimeNanos.sum();
+    }
+
+    public void reset() {
+        numEventsEvaluated.reset();
+        numMatches.reset();
+        evaluationTimeNanos.reset();
+    }
+}
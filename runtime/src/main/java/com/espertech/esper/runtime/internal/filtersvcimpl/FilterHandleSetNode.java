@@ -116,6 +116,35 @@ public final class FilterHandleSetNode implements EventEvaluator, FilterHandleSi
         }
     }
 
+    /**
+     * Evaluate a block of events of the same event type. Each index evaluates all events of the block
+     * before the next index. The matches for each event are the same as obtained by {@link #matchEvent}.
+     *
+     * @param events  events
+     * @param from    position of the first event of the block, inclusive
+     * @param to      position of the last event of the block, exclusive
+     * @param matches per-event collections of callbacks to add to for any matches found
+     * @param ctx     evaluator context
+     */
+    public final void matchEvents(EventBean[] events, int from, int to, Collection<FilterHandle>[] matches, ExprEvaluatorContext ctx) {
+        nodeRWLock.readLock().lock();
+        try {
+            for (FilterParamIndexBase index : indizes) {
+                index.matchEvents(events, from, to, matches, ctx);
+            }
+
+            if (!callbackSet.isEmpty()) {
+                for (int i = from; i < to; i++) {
+                    for (FilterHandle filterCallback : callbackSet) {
+                        matches[i].add(filterCallback);
+                    }
+                }
+            }
+        } finally {
+            nodeRWLock.readLock().unlock();
+        }
+    }
+
     /**
      * Returns an indication whether the filter callback exists in this node.
      * NOTE: the client to this method must use the read-write lock of this object to lock, if required by the client
@@ -181,9 +210,16 @@ public final class FilterHandleSetNode implements EventEvaluator, FilterHandleSi
         return callbackSet;
     }
 
+    /**
+     * Traverse the filters of the given statements, or of all statements when the statement ids are null.
+     *
+     * @param traverse       receives each filter handle and the filter items leading to it
+     * @param statementIds   statement ids or null for all statements
+     * @param evaluatorStack filter items leading to this node
+     */
     public void getTraverseStatement(EventTypeIndexTraverse traverse, Set<Integer> statementIds, ArrayDeque<FilterItem> evaluatorStack) {
         for (FilterHandle filterHandle : callbackSet) {
-            if (statementIds.contains(filterHandle.getStatementId())) {
+            if (statementIds == null || statementIds.contains(filterHandle.getStatementId())) {
                 traverse.add(evaluatorStack, filterHandle);
             }
         }
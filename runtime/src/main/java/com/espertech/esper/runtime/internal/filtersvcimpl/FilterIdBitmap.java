@@ -0,0 +1,262 @@
+/*
+ ***************************************************************************************
+ *  Copyright (C) 2006 EsperTech, Inc. All rights reserved.                            *
+ *  http://www.espertech.com/esper                                                     *
+ *  http://www.espertech.com                                                           *
+ *  ---------------------------------------------------------------------------------- *
+ *  The software in this package is published under the terms of the GPL license       *
+ *  a copy of which has been included with this distribution in the license.txt file.  *
+ ***************************************************************************************
+ */
+package com.espertech.esper.runtime.internal.filtersvcimpl;
+
+import com.espertech.esper.common.client.EventBean;
+import com.espertech.esper.common.internal.epl.expression.core.ExprEvaluatorContext;
+import com.espertech.esper.common.internal.filtersvc.FilterHandle;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.function.IntConsumer;
+
+/**
+ * Set of filter ids, for use by the bitmap in and not-in filter parameter indexes that assign dense ids to the filters.
+ * <p>
+ * The set keeps a sorted array of ids while that takes less memory than a bitmap of the largest id, and a bitmap
+ * otherwise, converting as ids are added and removed. Iteration visits ids in ascending order and does not allocate.
+ * <p>
+ * The set is not thread-safe, the calling index must provide for locking.
+ */
+public final class FilterIdBitmap {
+    private int[] ids = new int[2];
+    private long[] words;
+    private int size;
+
+    /**
+     * Add the id.
+     *
+     * @param id non-negative id
+     * @return true if added, false if already present
+     */
+    public boolean add(int id) {
+        if (words != null) {
+            int word = id >>> 6;
+            if (word >= words.length) {
+                words = Arrays.copyOf(words, Math.max(word + 1, words.length * 2));
+            }
+            long bit = 1L << id;
+            if ((words[word] & bit) != 0) {
+                return false;
+            }
+            words[word] |= bit;
+            size++;
+            return true;
+        }
+        int pos = Arrays.binarySearch(ids, 0, size, id);
+        if (pos >= 0) {
+            return false;
+        }
+        pos = -(pos + 1);
+        if (size == ids.length) {
+            ids = Arrays.copyOf(ids, size * 2);
+        }
+        System.arraycopy(ids, pos, ids, pos + 1, size - pos);
+        ids[pos] = id;
+        size++;
+        // an array of ids takes 4 bytes per id and a bitmap 8 bytes per 64 ids
+        if (size > 2 * numWords(ids[size - 1])) {
+            toBitmap();
+        }
+        return true;
+    }
+
+    /**
+     * Remove the id.
+     *
+     * @param id id
+     * @return true if removed, false if not present
+     */
+    public boolean remove(int id) {
+        if (words != null) {
+            int word = id >>> 6;
+            long bit = 1L << id;
+            if (word >= words.length || (words[word] & bit) == 0) {
+                return false;
+            }
+            words[word] &= ~bit;
+            size--;
+            if (size < words.length / 2) {
+                toArray();
+            }
+            return true;
+        }
+        int pos = Arrays.binarySearch(ids, 0, size, id);
+        if (pos < 0) {
+            return false;
+        }
+        System.arraycopy(ids, pos + 1, ids, pos, size - pos - 1);
+        size--;
+        return true;
+    }
+
+    public boolean contains(int id) {
+        if (words != null) {
+            int word = id >>> 6;
+            return word < words.length && (words[word] & (1L << id)) != 0;
+        }
+        return Arrays.binarySearch(ids, 0, size, id) >= 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Returns true when the ids are kept in a bitmap.
+     *
+     * @return indicator
+     */
+    public boolean isBitmap() {
+        return words != null;
+    }
+
+    /**
+     * Returns the smallest non-negative id that is not in the set.
+     *
+     * @return id
+     */
+    public int firstAbsent() {
+        if (words != null) {
+            for (int i = 0; i < words.length; i++) {
+                if (words[i] != -1L) {
+                    return i * 64 + Long.numberOfTrailingZeros(~words[i]);
+                }
+            }
+            return words.length * 64;
+        }
+        for (int i = 0; i < size; i++) {
+            if (ids[i] != i) {
+                return i;
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Visit all ids in ascending order.
+     *
+     * @param consumer consumer
+     */
+    public void forEach(IntConsumer consumer) {
+        if (words != null) {
+            for (int i = 0; i < words.length; i++) {
+                long word = words[i];
+                while (word != 0) {
+                    consumer.accept(i * 64 + Long.numberOfTrailingZeros(word));
+                    word &= word - 1;
+                }
+            }
+            return;
+        }
+        for (int i = 0; i < size; i++) {
+            consumer.accept(ids[i]);
+        }
+    }
+
+    /**
+     * Evaluate the event against the evaluators of all ids.
+     *
+     * @param evaluators evaluators by id
+     * @param theEvent   event
+     * @param matches    matches
+     * @param ctx        evaluation context
+     * @return number of evaluators
+     */
+    public int matchEvent(EventEvaluator[] evaluators, EventBean theEvent, Collection<FilterHandle> matches, ExprEvaluatorContext ctx) {
+        if (words != null) {
+            for (int i = 0; i < words.length; i++) {
+                long word = words[i];
+                while (word != 0) {
+                    evaluators[i * 64 + Long.numberOfTrailingZeros(word)].matchEvent(theEvent, matches, ctx);
+                    word &= word - 1;
+                }
+            }
+            return size;
+        }
+        for (int i = 0; i < size; i++) {
+            evaluators[ids[i]].matchEvent(theEvent, matches, ctx);
+        }
+        return size;
+    }
+
+    /**
+     * Evaluate the event against the evaluators of all ids that are not in the excluded set.
+     *
+     * @param excluded   ids to exclude
+     * @param evaluators evaluators by id
+     * @param theEvent   event
+     * @param matches    matches
+     * @param ctx        evaluation context
+     * @return number of evaluators
+     */
+    public int matchEventAndNot(FilterIdBitmap excluded, EventEvaluator[] evaluators, EventBean theEvent, Collection<FilterHandle> matches, ExprEvaluatorContext ctx) {
+        int count = 0;
+        if (words != null) {
+            long[] excludedWords = excluded.words;
+            for (int i = 0; i < words.length; i++) {
+                long word = words[i];
+                if (excludedWords != null && i < excludedWords.length) {
+                    word &= ~excludedWords[i];
+                }
+                while (word != 0) {
+                    int id = i * 64 + Long.numberOfTrailingZeros(word);
+                    word &= word - 1;
+                    if (excludedWords == null && excluded.contains(id)) {
+                        continue;
+                    }
+                    evaluators[id].matchEvent(theEvent, matches, ctx);
+                    count++;
+                }
+            }
+            return count;
+        }
+        for (int i = 0; i < size; i++) {
+            int id = ids[i];
+            if (!excluded.contains(id)) {
+                evaluators[id].matchEvent(theEvent, matches, ctx);
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private void toBitmap() {
+        long[] bitmap = new long[numWords(ids[size - 1])];
+        for (int i = 0; i < size; i++) {
+            bitmap[ids[i] >>> 6] |= 1L << ids[i];
+        }
+        words = bitmap;
+        ids = null;
+    }
+
+    private void toArray() {
+        int[] array = new int[Math.max(2, size)];
+        int count = 0;
+        for (int i = 0; i < words.length; i++) {
+            long word = words[i];
+            while (word != 0) {
+                array[count++] = i * 64 + Long.numberOfTrailingZeros(word);
+                word &= word - 1;
+            }
+        }
+        ids = array;
+        words = null;
+    }
+
+    private static int numWords(int maxId) {
+        return (maxId >>> 6) + 1;
+    }
+}
@@ -10,9 +10,14 @@
  */
 package com.espertech.esper.runtime.internal.filtersvcimpl;
 
+import com.espertech.esper.common.client.EventBean;
+import com.espertech.esper.common.internal.epl.expression.core.ExprEvaluatorContext;
 import com.espertech.esper.common.internal.filterspec.FilterOperator;
+import com.espertech.esper.common.internal.filtersvc.FilterHandle;
 import com.espertech.esper.common.internal.filtersvc.FilterHandleSize;
 
+import java.util.Collection;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.concurrent.locks.ReadWriteLock;
 
 /**
@@ -27,6 +32,8 @@ import java.util.concurrent.locks.ReadWriteLock;
  */
 public abstract class FilterParamIndexBase implements EventEvaluator, FilterHandleSize {
     private final FilterOperator filterOperator;
+    private LongAdder numLookups;
+    private LongAdder numForwarded;
 
     /**
      * Constructor.
@@ -93,6 +100,22 @@ public abstract class FilterParamIndexBase implements EventEvaluator, FilterHand
      */
     public abstract ReadWriteLock getReadWriteLock();
 
+    /**
+     * Evaluate a block of events, adding the matches of each event to the collection at the same position.
+     * Implementations may override to evaluate the block with fewer lock acquisitions than evaluating each event.
+     *
+     * @param events  events
+     * @param from    position of the first event, inclusive
+     * @param to      position of the last event, exclusive
+     * @param matches per-event collections of matching filter callbacks
+     * @param ctx     evaluator context
+     */
+    public void matchEvents(EventBean[] events, int from, int to, Collection<FilterHandle>[] matches, ExprEvaluatorContext ctx) {
+        for (int i = from; i < to; i++) {
+            matchEvent(events[i], matches[i], ctx);
+        }
+    }
+
     /**
      * Returns the filter operator that the index matches for.
      *
@@ -102,6 +125,70 @@ public abstract class FilterParamIndexBase implements EventEvaluator, FilterHand
         return filterOperator;
     }
 
+    /**
+     * Returns the number of events that the index evaluated, or zero if the index does not count lookups.
+     *
+     * @return number of lookups
+     */
+    public final long getNumLookups() {
+        return numLookups == null ? 0 : numLookups.sum();
+    }
+
+    /**
+     * Returns the number of times that the index passed an event to the evaluator of a matching filter constant,
+     * or zero if the index does not count lookups.
+     *
+     * @return number of evaluators that events were passed to
+     */
+    public final long getNumForwarded() {
+        return numForwarded == null ? 0 : numForwarded.sum();
+    }
+
+    /**
+     * Returns the average number of evaluators that the index passed an event to, or -1 if the index
+     * did not evaluate events or does not count lookups.
+     *
+     * @return average fan-out
+     */
+    public final double getFanOut() {
+        long lookups = getNumLookups();
+        return lookups == 0 ? -1 : (double) getNumForwarded() / lookups;
+    }
+
+    /**
+     * Returns indicator whether the index counts lookups.
+     *
+     * @return indicator
+     */
+    public final boolean isCountLookups() {
+        return numLookups != null;
+    }
+
+    /**
+     * Have the index count lookups, for use by reordering by selectivity and by filter metrics.
+     * Must be called before the index is made visible to evaluating threads.
+     */
+    final void enableCountLookups() {
+        numLookups = new LongAdder();
+        numForwarded = new LongAdder();
+    }
+
+    /**
+     * Count the evaluation of an event by the index. Does nothing if the index does not count lookups.
+     *
+     * @param forwarded number of evaluators that the event was passed to
+     */
+    protected final void countLookup(int forwarded) {
+        LongAdder lookups = numLookups;
+        if (lookups == null) {
+            return;
+        }
+        lookups.increment();
+        if (forwarded != 0) {
+            numForwarded.add(forwarded);
+        }
+    }
+
     public int getFilterCallbackCount() {
         return sizeExpensive();
     }
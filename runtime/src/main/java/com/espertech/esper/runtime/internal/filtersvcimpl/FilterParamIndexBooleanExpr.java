@@ -72,6 +72,7 @@ public final class FilterParamIndexBooleanExpr extends FilterParamIndexBase {
             InstrumentationHelper.get().qFilterBoolean(this);
         }
 
+        int forwarded = 0;
         constantsMapRWLock.readLock().lock();
         try {
             if (InstrumentationHelper.ENABLED) {
@@ -83,12 +84,14 @@ public final class FilterParamIndexBooleanExpr extends FilterParamIndexBase {
                     InstrumentationHelper.get().aFilterBooleanExpr(result);
                     if (result) {
                         evals.getValue().matchEvent(theEvent, matches, ctx);
+                        forwarded++;
                     }
                 }
             } else {
                 for (Map.Entry<ExprNodeAdapterBase, EventEvaluator> evals : evaluatorsMap.entrySet()) {
                     if (evals.getKey().evaluate(theEvent)) {
                         evals.getValue().matchEvent(theEvent, matches, ctx);
+                        forwarded++;
                     }
                 }
             }
@@ -96,6 +99,7 @@ public final class FilterParamIndexBooleanExpr extends FilterParamIndexBase {
             constantsMapRWLock.readLock().unlock();
         }
 
+        countLookup(forwarded);
         if (InstrumentationHelper.ENABLED) {
             InstrumentationHelper.get().aFilterBoolean();
         }
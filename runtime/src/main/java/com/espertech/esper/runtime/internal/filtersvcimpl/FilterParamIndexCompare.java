@@ -91,92 +91,64 @@ public final class FilterParamIndexCompare extends FilterParamIndexLookupableBas
             InstrumentationHelper.get().qFilterReverseIndex(this, propertyValue);
         }
 
-        if (propertyValue == null) {
-            if (InstrumentationHelper.ENABLED) {
-                InstrumentationHelper.get().aFilterReverseIndex(false);
-            }
-            return;
-        }
-
         // A undefine lower bound indicates an empty index
-        if (lowerBounds == null) {
-            if (InstrumentationHelper.ENABLED) {
-                InstrumentationHelper.get().aFilterReverseIndex(false);
-            }
-            return;
-        }
-
-        FilterOperator filterOperator = this.getFilterOperator();
-        Double propertyValueDouble = ((Number) propertyValue).doubleValue();
-
         // Based on current lower and upper bounds check if the property value falls outside - shortcut submap generation
-        if ((filterOperator == FilterOperator.GREATER) && (propertyValueDouble <= lowerBounds)) {
-            if (InstrumentationHelper.ENABLED) {
-                InstrumentationHelper.get().aFilterReverseIndex(false);
-            }
-            return;
-        } else if ((filterOperator == FilterOperator.GREATER_OR_EQUAL) && (propertyValueDouble < lowerBounds)) {
-            if (InstrumentationHelper.ENABLED) {
-                InstrumentationHelper.get().aFilterReverseIndex(false);
-            }
-            return;
-        } else if ((filterOperator == FilterOperator.LESS) && (propertyValueDouble >= upperBounds)) {
-            if (InstrumentationHelper.ENABLED) {
-                InstrumentationHelper.get().aFilterReverseIndex(false);
-            }
-            return;
-        } else if ((filterOperator == FilterOperator.LESS_OR_EQUAL) && (propertyValueDouble > upperBounds)) {
+        if (propertyValue == null || isOutOfBounds(propertyValue)) {
             if (InstrumentationHelper.ENABLED) {
                 InstrumentationHelper.get().aFilterReverseIndex(false);
             }
+            countLookup(0);
             return;
         }
 
+        int forwarded;
         // Look up in table
         constantsMapRWLock.readLock().lock();
         try {
+            forwarded = matchValue(propertyValue, theEvent, matches, ctx);
+        } finally {
+            constantsMapRWLock.readLock().unlock();
+        }
 
-            // Get the head or tail end of the map depending on comparison type
-            Map<Object, EventEvaluator> subMap;
-
-            if ((filterOperator == FilterOperator.GREATER) ||
-                    (filterOperator == FilterOperator.GREATER_OR_EQUAL)) {
-                // At the head of the map are those with a lower numeric constants
-                subMap = constantsMap.headMap(propertyValue);
-            } else {
-                subMap = constantsMap.tailMap(propertyValue);
-            }
-
-            // All entries in the subMap are elgibile, with an exception
-            EventEvaluator exactEquals = null;
-            if (filterOperator == FilterOperator.LESS) {
-                exactEquals = constantsMap.get(propertyValue);
-            }
+        countLookup(forwarded);
+        if (InstrumentationHelper.ENABLED) {
+            InstrumentationHelper.get().aFilterReverseIndex(null);
+        }
+    }
 
-            for (EventEvaluator matcher : subMap.values()) {
-                // For the LESS comparison type we ignore the exactly equal case
-                // The subMap is sorted ascending, thus the exactly equals case is the first
-                if (exactEquals != null) {
-                    exactEquals = null;
-                    continue;
-                }
+    public void matchEvents(EventBean[] events, int from, int to, Collection<FilterHandle>[] matches, ExprEvaluatorContext ctx) {
+        if (InstrumentationHelper.ENABLED) {
+            super.matchEvents(events, from, to, matches, ctx);
+            return;
+        }
 
-                matcher.matchEvent(theEvent, matches, ctx);
+        // Extract the property values of the block and check bounds before taking the lock once for the block
+        Object[] propertyValues = new Object[to - from];
+        boolean lookup = false;
+        for (int i = from; i < to; i++) {
+            Object propertyValue = lookupable.getEval().eval(events[i], ctx);
+            if (propertyValue == null || isOutOfBounds(propertyValue)) {
+                countLookup(0);
+                continue;
             }
+            propertyValues[i - from] = propertyValue;
+            lookup = true;
+        }
+        if (!lookup) {
+            return;
+        }
 
-            if (filterOperator == FilterOperator.GREATER_OR_EQUAL) {
-                EventEvaluator matcher = constantsMap.get(propertyValue);
-                if (matcher != null) {
-                    matcher.matchEvent(theEvent, matches, ctx);
+        constantsMapRWLock.readLock().lock();
+        try {
+            for (int i = from; i < to; i++) {
+                Object propertyValue = propertyValues[i - from];
+                if (propertyValue != null) {
+                    countLookup(matchValue(propertyValue, events[i], matches[i], ctx));
                 }
             }
         } finally {
             constantsMapRWLock.readLock().unlock();
         }
-
-        if (InstrumentationHelper.ENABLED) {
-            InstrumentationHelper.get().aFilterReverseIndex(null);
-        }
     }
 
     public void getTraverseStatement(EventTypeIndexTraverse traverse, Set<Integer> statementIds, ArrayDeque<FilterItem> evaluatorStack) {
@@ -187,6 +159,65 @@ public final class FilterParamIndexCompare extends FilterParamIndexLookupableBas
         }
     }
 
+    private boolean isOutOfBounds(Object propertyValue) {
+        if (lowerBounds == null) {
+            return true;
+        }
+        FilterOperator filterOperator = this.getFilterOperator();
+        double propertyValueDouble = ((Number) propertyValue).doubleValue();
+        if (filterOperator == FilterOperator.GREATER) {
+            return propertyValueDouble <= lowerBounds;
+        } else if (filterOperator == FilterOperator.GREATER_OR_EQUAL) {
+            return propertyValueDouble < lowerBounds;
+        } else if (filterOperator == FilterOperator.LESS) {
+            return propertyValueDouble >= upperBounds;
+        }
+        return propertyValueDouble > upperBounds;
+    }
+
+    private int matchValue(Object propertyValue, EventBean theEvent, Collection<FilterHandle> matches, ExprEvaluatorContext ctx) {
+        FilterOperator filterOperator = this.getFilterOperator();
+        int forwarded = 0;
+
+        // Get the head or tail end of the map depending on comparison type
+        Map<Object, EventEvaluator> subMap;
+
+        if ((filterOperator == FilterOperator.GREATER) ||
+                (filterOperator == FilterOperator.GREATER_OR_EQUAL)) {
+            // At the head of the map are those with a lower numeric constants
+            subMap = constantsMap.headMap(propertyValue);
+        } else {
+            subMap = constantsMap.tailMap(propertyValue);
+        }
+
+        // All entries in the subMap are elgibile, with an exception
+        EventEvaluator exactEquals = null;
+        if (filterOperator == FilterOperator.LESS) {
+            exactEquals = constantsMap.get(propertyValue);
+        }
+
+        for (EventEvaluator matcher : subMap.values()) {
+            // For the LESS comparison type we ignore the exactly equal case
+            // The subMap is sorted ascending, thus the exactly equals case is the first
+            if (exactEquals != null) {
+                exactEquals = null;
+                continue;
+            }
+
+            matcher.matchEvent(theEvent, matches, ctx);
+            forwarded++;
+        }
+
+        if (filterOperator == FilterOperator.GREATER_OR_EQUAL) {
+            EventEvaluator matcher = constantsMap.get(propertyValue);
+            if (matcher != null) {
+                matcher.matchEvent(theEvent, matches, ctx);
+                forwarded++;
+            }
+        }
+        return forwarded;
+    }
+
     private void updateBounds() {
         if (constantsMap.isEmpty()) {
             lowerBounds = null;
@@ -78,11 +78,13 @@ public final class FilterParamIndexCompareString extends FilterParamIndexLookupa
             if (InstrumentationHelper.ENABLED) {
                 InstrumentationHelper.get().aFilterReverseIndex(false);
             }
+            countLookup(0);
             return;
         }
 
         FilterOperator filterOperator = this.getFilterOperator();
 
+        int forwarded = 0;
         // Look up in table
         constantsMapRWLock.readLock().lock();
         try {
@@ -113,18 +115,21 @@ public final class FilterParamIndexCompareString extends FilterParamIndexLookupa
                 }
 
                 matcher.matchEvent(theEvent, matches, ctx);
+                forwarded++;
             }
 
             if (filterOperator == FilterOperator.GREATER_OR_EQUAL) {
                 EventEvaluator matcher = constantsMap.get(propertyValue);
                 if (matcher != null) {
                     matcher.matchEvent(theEvent, matches, ctx);
+                    forwarded++;
                 }
             }
         } finally {
             constantsMapRWLock.readLock().unlock();
         }
 
+        countLookup(forwarded);
         if (InstrumentationHelper.ENABLED) {
             InstrumentationHelper.get().aFilterReverseIndex(null);
         }
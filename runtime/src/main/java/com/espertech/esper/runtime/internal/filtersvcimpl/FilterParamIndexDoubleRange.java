@@ -13,7 +13,6 @@ package com.espertech.esper.runtime.internal.filtersvcimpl;
 import com.espertech.esper.common.client.EventBean;
 import com.espertech.esper.common.internal.epl.expression.core.ExprEvaluatorContext;
 import com.espertech.esper.common.internal.epl.expression.core.ExprFilterSpecLookupable;
-import com.espertech.esper.common.internal.filterspec.DoubleRange;
 import com.espertech.esper.common.internal.filterspec.FilterOperator;
 import com.espertech.esper.common.internal.filtersvc.FilterHandle;
 import com.espertech.esper.runtime.internal.metrics.instrumentation.InstrumentationHelper;
@@ -21,21 +20,24 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.Collection;
-import java.util.Map;
-import java.util.SortedMap;
 import java.util.concurrent.locks.ReadWriteLock;
 
 /**
  * Index for filter parameter constants for the range operators (range open/closed/half).
- * The implementation is based on the SortedMap implementation of TreeMap and stores only expression
+ * The implementation is based on an interval tree of the ranges and stores only expression
  * parameter values of type DoubleRange.
  */
 public final class FilterParamIndexDoubleRange extends FilterParamIndexDoubleRangeBase {
+    private final boolean includeMin;
+    private final boolean includeMax;
+
     public FilterParamIndexDoubleRange(ExprFilterSpecLookupable lookupable, ReadWriteLock readWriteLock, FilterOperator filterOperator) {
         super(lookupable, readWriteLock, filterOperator);
         if (!(filterOperator.isRangeOperator())) {
             throw new IllegalArgumentException("Invalid filter operator " + filterOperator);
         }
+        includeMin = filterOperator == FilterOperator.RANGE_CLOSED || filterOperator == FilterOperator.RANGE_HALF_OPEN;
+        includeMax = filterOperator == FilterOperator.RANGE_CLOSED || filterOperator == FilterOperator.RANGE_HALF_CLOSED;
     }
 
     public final void matchEvent(EventBean theEvent, Collection<FilterHandle> matches, ExprEvaluatorContext ctx) {
@@ -48,54 +50,15 @@ public final class FilterParamIndexDoubleRange extends FilterParamIndexDoubleRan
             if (InstrumentationHelper.ENABLED) {
                 InstrumentationHelper.get().aFilterReverseIndex(false);
             }
+            countLookup(0);
             return;
         }
 
-        double attributeValue = ((Number) objAttributeValue).doubleValue();
-
-        DoubleRange rangeStart = new DoubleRange(attributeValue - largestRangeValueDouble, attributeValue);
-        DoubleRange rangeEnd = new DoubleRange(attributeValue, Double.MAX_VALUE);
+        Double attributeValue = toRangeValue(objAttributeValue);
 
-        SortedMap<DoubleRange, EventEvaluator> subMap = ranges.subMap(rangeStart, rangeEnd);
+        int forwarded = attributeValue == null ? 0 : ranges.matchContaining(attributeValue, includeMin, includeMax, theEvent, matches, ctx);
 
-        // For not including either endpoint
-        // A bit awkward to duplicate the loop code, however better than checking the boolean many times over
-        // This may be a bit of an early performance optimization - the optimizer after all may do this better
-        if (this.getFilterOperator() == FilterOperator.RANGE_OPEN) {
-            // include neither endpoint
-            for (Map.Entry<DoubleRange, EventEvaluator> entry : subMap.entrySet()) {
-                if ((attributeValue > entry.getKey().getMin()) &&
-                        (attributeValue < entry.getKey().getMax())) {
-                    entry.getValue().matchEvent(theEvent, matches, ctx);
-                }
-            }
-        } else if (this.getFilterOperator() == FilterOperator.RANGE_CLOSED) {
-            // include all endpoints
-            for (Map.Entry<DoubleRange, EventEvaluator> entry : subMap.entrySet()) {
-                if ((attributeValue >= entry.getKey().getMin()) &&
-                        (attributeValue <= entry.getKey().getMax())) {
-                    entry.getValue().matchEvent(theEvent, matches, ctx);
-                }
-            }
-        } else if (this.getFilterOperator() == FilterOperator.RANGE_HALF_CLOSED) {
-            // include high endpoint not low endpoint
-            for (Map.Entry<DoubleRange, EventEvaluator> entry : subMap.entrySet()) {
-                if ((attributeValue > entry.getKey().getMin()) &&
-                        (attributeValue <= entry.getKey().getMax())) {
-                    entry.getValue().matchEvent(theEvent, matches, ctx);
-                }
-            }
-        } else if (this.getFilterOperator() == FilterOperator.RANGE_HALF_OPEN) {
-            // include low endpoint not high endpoint
-            for (Map.Entry<DoubleRange, EventEvaluator> entry : subMap.entrySet()) {
-                if ((attributeValue >= entry.getKey().getMin()) &&
-                        (attributeValue < entry.getKey().getMax())) {
-                    entry.getValue().matchEvent(theEvent, matches, ctx);
-                }
-            }
-        } else {
-            throw new IllegalStateException("Invalid filter operator " + this.getFilterOperator());
-        }
+        countLookup(forwarded);
         if (InstrumentationHelper.ENABLED) {
             InstrumentationHelper.get().aFilterReverseIndex(null);
         }
@@ -15,27 +15,25 @@ import com.espertech.esper.common.internal.filterspec.DoubleRange;
 import com.espertech.esper.common.internal.filterspec.FilterOperator;
 
 import java.util.ArrayDeque;
-import java.util.Map;
 import java.util.Set;
-import java.util.TreeMap;
 import java.util.concurrent.locks.ReadWriteLock;
 
 /**
  * Index for filter parameter constants for the range operators (range open/closed/half).
- * The implementation is based on the SortedMap implementation of TreeMap and stores only expression
+ * The implementation is based on an interval tree of the ranges and stores only expression
  * parameter values of type DoubleRange.
  */
 public abstract class FilterParamIndexDoubleRangeBase extends FilterParamIndexLookupableBase {
-    protected final TreeMap<DoubleRange, EventEvaluator> ranges;
+    private final static Double ZERO = 0d;
+
+    protected final RangeIntervalTree<DoubleRange, Double> ranges;
     protected EventEvaluator rangesNullEndpoints;
     private final ReadWriteLock rangesRWLock;
 
-    protected double largestRangeValueDouble = Double.MIN_VALUE;
-
     protected FilterParamIndexDoubleRangeBase(ExprFilterSpecLookupable lookupable, ReadWriteLock readWriteLock, FilterOperator filterOperator) {
         super(filterOperator, lookupable);
 
-        ranges = new TreeMap<>(DoubleRangeComparator.INSTANCE);
+        ranges = new RangeIntervalTree<>();
         rangesRWLock = readWriteLock;
     }
 
@@ -63,10 +61,6 @@ public abstract class FilterParamIndexDoubleRangeBase extends FilterParamIndexLo
             return;
         }
 
-        if (Math.abs(range.getMax() - range.getMin()) > largestRangeValueDouble) {
-            largestRangeValueDouble = Math.abs(range.getMax() - range.getMin());
-        }
-
         ranges.put(range, matcher);
     }
 
@@ -92,11 +86,29 @@ public abstract class FilterParamIndexDoubleRangeBase extends FilterParamIndexLo
         return rangesRWLock;
     }
 
+    /**
+     * Returns the value for matching against the ranges. Comparing the same as for double values,
+     * negative zero is the same as zero and NaN is neither within nor outside of any range.
+     *
+     * @param objAttributeValue non-null number
+     * @return value or null for NaN
+     */
+    protected static Double toRangeValue(Object objAttributeValue) {
+        double value = ((Number) objAttributeValue).doubleValue();
+        if (Double.isNaN(value)) {
+            return null;
+        }
+        if (value == 0) {
+            return ZERO;
+        }
+        return objAttributeValue instanceof Double ? (Double) objAttributeValue : value;
+    }
+
     public void getTraverseStatement(EventTypeIndexTraverse traverse, Set<Integer> statementIds, ArrayDeque<FilterItem> evaluatorStack) {
-        for (Map.Entry<DoubleRange, EventEvaluator> entry : ranges.entrySet()) {
-            evaluatorStack.add(new FilterItem(lookupable.getExpression(), getFilterOperator(), entry.getKey(), this));
-            entry.getValue().getTraverseStatement(traverse, statementIds, evaluatorStack);
+        ranges.forEach((range, evaluator) -> {
+            evaluatorStack.add(new FilterItem(lookupable.getExpression(), getFilterOperator(), range, this));
+            evaluator.getTraverseStatement(traverse, statementIds, evaluatorStack);
             evaluatorStack.removeLast();
-        }
+        });
     }
 }
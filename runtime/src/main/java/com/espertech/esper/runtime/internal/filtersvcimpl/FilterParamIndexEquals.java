@@ -39,6 +39,7 @@ public final class FilterParamIndexEquals extends FilterParamIndexEqualsBase {
             if (InstrumentationHelper.ENABLED) {
                 InstrumentationHelper.get().aFilterReverseIndex(false);
             }
+            countLookup(0);
             return;
         }
 
@@ -56,12 +57,48 @@ public final class FilterParamIndexEquals extends FilterParamIndexEqualsBase {
             if (InstrumentationHelper.ENABLED) {
                 InstrumentationHelper.get().aFilterReverseIndex(false);
             }
+            countLookup(0);
             return;
         }
 
         if (InstrumentationHelper.ENABLED) {
             InstrumentationHelper.get().aFilterReverseIndex(true);
         }
+        countLookup(1);
         evaluator.matchEvent(theEvent, matches, ctx);
     }
+
+    public void matchEvents(EventBean[] events, int from, int to, Collection<FilterHandle>[] matches, ExprEvaluatorContext ctx) {
+        if (InstrumentationHelper.ENABLED) {
+            super.matchEvents(events, from, to, matches, ctx);
+            return;
+        }
+
+        // Extract the attribute values of the block and look up the evaluators taking the lock once
+        EventEvaluator[] evaluators = new EventEvaluator[to - from];
+        Object[] attributeValues = new Object[to - from];
+        for (int i = from; i < to; i++) {
+            attributeValues[i - from] = lookupable.getEval().eval(events[i], ctx);
+        }
+        constantsMapRWLock.readLock().lock();
+        try {
+            for (int i = 0; i < attributeValues.length; i++) {
+                if (attributeValues[i] != null) {
+                    evaluators[i] = constantsMap.get(attributeValues[i]);
+                }
+            }
+        } finally {
+            constantsMapRWLock.readLock().unlock();
+        }
+
+        for (int i = from; i < to; i++) {
+            EventEvaluator evaluator = evaluators[i - from];
+            if (evaluator == null) {
+                countLookup(0);
+                continue;
+            }
+            countLookup(1);
+            evaluator.matchEvent(events[i], matches[i], ctx);
+        }
+    }
 }
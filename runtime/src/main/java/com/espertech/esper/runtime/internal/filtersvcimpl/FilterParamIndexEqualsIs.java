@@ -48,12 +48,14 @@ public final class FilterParamIndexEqualsIs extends FilterParamIndexEqualsBase {
             if (InstrumentationHelper.ENABLED) {
                 InstrumentationHelper.get().aFilterReverseIndex(false);
             }
+            countLookup(0);
             return;
         }
 
         if (InstrumentationHelper.ENABLED) {
             InstrumentationHelper.get().aFilterReverseIndex(true);
         }
+        countLookup(1);
         evaluator.matchEvent(theEvent, matches, ctx);
     }
 }
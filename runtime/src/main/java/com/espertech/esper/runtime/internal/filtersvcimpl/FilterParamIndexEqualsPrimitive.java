@@ -0,0 +1,151 @@
+/*
+ ***************************************************************************************
+ *  Copyright (C) 2006 EsperTech, Inc. All rights reserved.                            *
+ *  http://www.espertech.com/esper                                                     *
+ *  http://www.espertech.com                                                           *
+ *  ---------------------------------------------------------------------------------- *
+ *  The software in this package is published under the terms of the GPL license       *
+ *  a copy of which has been included with this distribution in the license.txt file.  *
+ ***************************************************************************************
+ */
+package com.espertech.esper.runtime.internal.filtersvcimpl;
+
+import com.espertech.esper.common.client.EventBean;
+import com.espertech.esper.common.internal.epl.expression.core.ExprEvaluatorContext;
+import com.espertech.esper.common.internal.epl.expression.core.ExprFilterSpecLookupable;
+import com.espertech.esper.common.internal.filterspec.FilterOperator;
+import com.espertech.esper.common.internal.filtersvc.FilterHandle;
+import com.espertech.esper.runtime.internal.metrics.instrumentation.InstrumentationHelper;
+
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+
+/**
+ * Index for filter parameter constants to match using the equals (=) operator, for long, int and double event properties.
+ * The implementation is based on a map of primitive keys.
+ */
+public final class FilterParamIndexEqualsPrimitive extends FilterParamIndexLookupableBase {
+    private final FilterPrimitiveKeyMap<EventEvaluator> constantsMap;
+    private final ReadWriteLock constantsMapRWLock;
+    private final FilterPrimitiveKeyEval keyEval;
+
+    public FilterParamIndexEqualsPrimitive(ExprFilterSpecLookupable lookupable, ReadWriteLock readWriteLock, Class keyClass) {
+        super(FilterOperator.EQUAL, lookupable);
+        constantsMap = new FilterPrimitiveKeyMap<>(keyClass);
+        constantsMapRWLock = readWriteLock;
+        keyEval = FilterPrimitiveKeyMap.getKeyEval(lookupable, keyClass);
+    }
+
+    public final EventEvaluator get(Object filterConstant) {
+        return constantsMap.get(filterConstant);
+    }
+
+    public final void put(Object filterConstant, EventEvaluator evaluator) {
+        constantsMap.put(filterConstant, evaluator);
+    }
+
+    public final void remove(Object filterConstant) {
+        constantsMap.remove(filterConstant);
+    }
+
+    public final int sizeExpensive() {
+        return constantsMap.size();
+    }
+
+    public boolean isEmpty() {
+        return constantsMap.isEmpty();
+    }
+
+    public final ReadWriteLock getReadWriteLock() {
+        return constantsMapRWLock;
+    }
+
+    public final void matchEvent(EventBean theEvent, Collection<FilterHandle> matches, ExprEvaluatorContext ctx) {
+        if (keyEval != null && !InstrumentationHelper.ENABLED) {
+            long key = keyEval.evalKey(theEvent, ctx);
+            EventEvaluator evaluator;
+            constantsMapRWLock.readLock().lock();
+            try {
+                evaluator = constantsMap.getPrimitive(key);
+            } finally {
+                constantsMapRWLock.readLock().unlock();
+            }
+            if (evaluator == null) {
+                countLookup(0);
+                return;
+            }
+            countLookup(1);
+            evaluator.matchEvent(theEvent, matches, ctx);
+            return;
+        }
+
+        Object attributeValue = lookupable.getEval().eval(theEvent, ctx);
+        if (InstrumentationHelper.ENABLED) {
+            InstrumentationHelper.get().qFilterReverseIndex(this, attributeValue);
+        }
+
+        if (attributeValue == null) {   //  null cannot match, not even null: requires use of "is"
+            if (InstrumentationHelper.ENABLED) {
+                InstrumentationHelper.get().aFilterReverseIndex(false);
+            }
+            countLookup(0);
+            return;
+        }
+
+        // Look up by primitive key
+        EventEvaluator evaluator = null;
+        constantsMapRWLock.readLock().lock();
+        try {
+            if (constantsMap.isPrimitiveKey(attributeValue)) {
+                evaluator = constantsMap.getPrimitive(constantsMap.toPrimitiveKey(attributeValue));
+            } else {
+                evaluator = constantsMap.get(attributeValue);
+            }
+        } finally {
+            constantsMapRWLock.readLock().unlock();
+        }
+
+        // No listener found for the value, return
+        if (evaluator == null) {
+            if (InstrumentationHelper.ENABLED) {
+                InstrumentationHelper.get().aFilterReverseIndex(false);
+            }
+            countLookup(0);
+            return;
+        }
+
+        if (InstrumentationHelper.ENABLED) {
+            InstrumentationHelper.get().aFilterReverseIndex(true);
+        }
+        countLookup(1);
+        evaluator.matchEvent(theEvent, matches, ctx);
+    }
+
+    /**
+     * Returns the key class.
+     *
+     * @return boxed key class
+     */
+    public Class getKeyClass() {
+        return constantsMap.getKeyClass();
+    }
+
+    /**
+     * Returns the constants. The calling class must make sure that access to the constants is protected.
+     *
+     * @return constants
+     */
+    public FilterPrimitiveKeyMap<EventEvaluator> getConstantsMap() {
+        return constantsMap;
+    }
+
+    public void getTraverseStatement(EventTypeIndexTraverse traverse, Set<Integer> statementIds, ArrayDeque<FilterItem> evaluatorStack) {
+        constantsMap.forEach((key, evaluator) -> {
+            evaluatorStack.add(new FilterItem(lookupable.getExpression(), getFilterOperator(), key, this));
+            evaluator.getTraverseStatement(traverse, statementIds, evaluatorStack);
+            evaluatorStack.removeLast();
+        });
+    }
+}
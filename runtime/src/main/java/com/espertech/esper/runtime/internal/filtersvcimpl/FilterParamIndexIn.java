@@ -110,9 +110,11 @@ public final class FilterParamIndexIn extends FilterParamIndexLookupableBase {
             if (InstrumentationHelper.ENABLED) {
                 InstrumentationHelper.get().aFilterReverseIndex(false);
             }
+            countLookup(0);
             return;
         }
 
+        int forwarded = 0;
         // Look up in hashtable
         constantsMapRWLock.readLock().lock();
         List<EventEvaluator> evaluators = constantsMap.get(attributeValue);
@@ -123,17 +125,20 @@ public final class FilterParamIndexIn extends FilterParamIndexLookupableBase {
             if (InstrumentationHelper.ENABLED) {
                 InstrumentationHelper.get().aFilterReverseIndex(false);
             }
+            countLookup(0);
             return;
         }
 
         try {
             for (EventEvaluator evaluator : evaluators) {
                 evaluator.matchEvent(theEvent, matches, ctx);
+                forwarded++;
             }
         } finally {
             constantsMapRWLock.readLock().unlock();
         }
 
+        countLookup(forwarded);
         if (InstrumentationHelper.ENABLED) {
             InstrumentationHelper.get().aFilterReverseIndex(null);
         }
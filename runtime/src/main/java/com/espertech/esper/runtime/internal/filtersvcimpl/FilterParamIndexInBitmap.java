@@ -0,0 +1,63 @@
+/*
+ ***************************************************************************************
+ *  Copyright (C) 2006 EsperTech, Inc. All rights reserved.                            *
+ *  http://www.espertech.com/esper                                                     *
+ *  http://www.espertech.com                                                           *
+ *  ---------------------------------------------------------------------------------- *
+ *  The software in this package is published under the terms of the GPL license       *
+ *  a copy of which has been included with this distribution in the license.txt file.  *
+ ***************************************************************************************
+ */
+package com.espertech.esper.runtime.internal.filtersvcimpl;
+
+import com.espertech.esper.common.client.EventBean;
+import com.espertech.esper.common.internal.epl.expression.core.ExprEvaluatorContext;
+import com.espertech.esper.common.internal.epl.expression.core.ExprFilterSpecLookupable;
+import com.espertech.esper.common.internal.filterspec.FilterOperator;
+import com.espertech.esper.common.internal.filtersvc.FilterHandle;
+import com.espertech.esper.runtime.internal.metrics.instrumentation.InstrumentationHelper;
+
+import java.util.Collection;
+import java.util.concurrent.locks.ReadWriteLock;
+
+/**
+ * Index for filter parameter constants to match using the 'in' operator to match against a supplied set of values
+ * (i.e. multiple possible exact matches).
+ * The implementation keeps a bitmap of filter ids per value, see {@link FilterParamIndexInBitmapBase}.
+ */
+public final class FilterParamIndexInBitmap extends FilterParamIndexInBitmapBase {
+    public FilterParamIndexInBitmap(ExprFilterSpecLookupable lookupable, ReadWriteLock readWriteLock) {
+        super(lookupable, readWriteLock, FilterOperator.IN_LIST_OF_VALUES);
+    }
+
+    public final void matchEvent(EventBean theEvent, Collection<FilterHandle> matches, ExprEvaluatorContext ctx) {
+        Object attributeValue = lookupable.getEval().eval(theEvent, ctx);
+        if (InstrumentationHelper.ENABLED) {
+            InstrumentationHelper.get().qFilterReverseIndex(this, attributeValue);
+        }
+
+        if (attributeValue == null) {
+            if (InstrumentationHelper.ENABLED) {
+                InstrumentationHelper.get().aFilterReverseIndex(false);
+            }
+            countLookup(0);
+            return;
+        }
+
+        int forwarded = 0;
+        constantsMapRWLock.readLock().lock();
+        try {
+            FilterIdBitmap ids = constantsMap.get(attributeValue);
+            if (ids != null) {
+                forwarded = ids.matchEvent(evaluatorsById, theEvent, matches, ctx);
+            }
+        } finally {
+            constantsMapRWLock.readLock().unlock();
+        }
+
+        countLookup(forwarded);
+        if (InstrumentationHelper.ENABLED) {
+            InstrumentationHelper.get().aFilterReverseIndex(forwarded > 0);
+        }
+    }
+}
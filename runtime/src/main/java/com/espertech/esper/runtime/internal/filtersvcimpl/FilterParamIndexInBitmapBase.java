@@ -0,0 +1,115 @@
+/*
+ ***************************************************************************************
+ *  Copyright (C) 2006 EsperTech, Inc. All rights reserved.                            *
+ *  http://www.espertech.com/esper                                                     *
+ *  http://www.espertech.com                                                           *
+ *  ---------------------------------------------------------------------------------- *
+ *  The software in this package is published under the terms of the GPL license       *
+ *  a copy of which has been included with this distribution in the license.txt file.  *
+ ***************************************************************************************
+ */
+package com.espertech.esper.runtime.internal.filtersvcimpl;
+
+import com.espertech.esper.common.client.util.HashableMultiKey;
+import com.espertech.esper.common.internal.epl.expression.core.ExprFilterSpecLookupable;
+import com.espertech.esper.common.internal.filterspec.FilterOperator;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+
+/**
+ * Index for filter parameter constants to match using the 'in' or 'not in' operator against a supplied set of values,
+ * that assigns a dense id to each set of values and keeps, for each value, a {@link FilterIdBitmap} of the ids
+ * of the sets that contain the value.
+ */
+public abstract class FilterParamIndexInBitmapBase extends FilterParamIndexLookupableBase {
+    protected final Map<Object, FilterIdBitmap> constantsMap;
+    protected final FilterIdBitmap allIds;
+    protected EventEvaluator[] evaluatorsById;
+    private final Map<HashableMultiKey, Integer> filterIds;
+    protected final ReadWriteLock constantsMapRWLock;
+
+    protected FilterParamIndexInBitmapBase(ExprFilterSpecLookupable lookupable, ReadWriteLock readWriteLock, FilterOperator filterOperator) {
+        super(filterOperator, lookupable);
+
+        constantsMap = new HashMap<Object, FilterIdBitmap>();
+        allIds = new FilterIdBitmap();
+        evaluatorsById = new EventEvaluator[8];
+        filterIds = new HashMap<HashableMultiKey, Integer>();
+        constantsMapRWLock = readWriteLock;
+    }
+
+    public final EventEvaluator get(Object filterConstant) {
+        Integer id = filterIds.get(filterConstant);
+        return id == null ? null : evaluatorsById[id];
+    }
+
+    public final void put(Object filterConstant, EventEvaluator evaluator) {
+        HashableMultiKey keys = (HashableMultiKey) filterConstant;
+        Integer existing = filterIds.get(keys);
+        if (existing != null) {
+            evaluatorsById[existing] = evaluator;
+            return;
+        }
+
+        // reuse the smallest free id so that the ids remain dense
+        int id = allIds.firstAbsent();
+        if (id >= evaluatorsById.length) {
+            evaluatorsById = Arrays.copyOf(evaluatorsById, Math.max(id + 1, evaluatorsById.length * 2));
+        }
+        evaluatorsById[id] = evaluator;
+        allIds.add(id);
+        filterIds.put(keys, id);
+
+        for (Object keyValue : keys.getKeys()) {
+            FilterIdBitmap ids = constantsMap.get(keyValue);
+            if (ids == null) {
+                ids = new FilterIdBitmap();
+                constantsMap.put(keyValue, ids);
+            }
+            ids.add(id);
+        }
+    }
+
+    public final void remove(Object filterConstant) {
+        HashableMultiKey keys = (HashableMultiKey) filterConstant;
+        Integer id = filterIds.remove(keys);
+        if (id == null) {
+            return;
+        }
+        for (Object keyValue : keys.getKeys()) {
+            FilterIdBitmap ids = constantsMap.get(keyValue);
+            // could be removed already as same-value constants existed
+            if (ids != null && ids.remove(id) && ids.isEmpty()) {
+                constantsMap.remove(keyValue);
+            }
+        }
+        allIds.remove(id);
+        evaluatorsById[id] = null;
+    }
+
+    public final int sizeExpensive() {
+        return constantsMap.size();
+    }
+
+    public boolean isEmpty() {
+        return filterIds.isEmpty();
+    }
+
+    public final ReadWriteLock getReadWriteLock() {
+        return constantsMapRWLock;
+    }
+
+    public void getTraverseStatement(EventTypeIndexTraverse traverse, Set<Integer> statementIds, ArrayDeque<FilterItem> evaluatorStack) {
+        for (Map.Entry<HashableMultiKey, Integer> entry : filterIds.entrySet()) {
+            EventEvaluator evaluator = evaluatorsById[entry.getValue()];
+            evaluatorStack.add(new FilterItem(lookupable.getExpression(), getFilterOperator(), entry.getKey(), this));
+            evaluator.getTraverseStatement(traverse, statementIds, evaluatorStack);
+            evaluatorStack.removeLast();
+        }
+    }
+}
@@ -0,0 +1,178 @@
+/*
+ ***************************************************************************************
+ *  Copyright (C) 2006 EsperTech, Inc. All rights reserved.                            *
+ *  http://www.espertech.com/esper                                                     *
+ *  http://www.espertech.com                                                           *
+ *  ---------------------------------------------------------------------------------- *
+ *  The software in this package is published under the terms of the GPL license       *
+ *  a copy of which has been included with this distribution in the license.txt file.  *
+ ***************************************************************************************
+ */
+package com.espertech.esper.runtime.internal.filtersvcimpl;
+
+import com.espertech.esper.common.client.EventBean;
+import com.espertech.esper.common.client.util.HashableMultiKey;
+import com.espertech.esper.common.internal.epl.expression.core.ExprEvaluatorContext;
+import com.espertech.esper.common.internal.epl.expression.core.ExprFilterSpecLookupable;
+import com.espertech.esper.common.internal.filterspec.FilterOperator;
+import com.espertech.esper.common.internal.filtersvc.FilterHandle;
+import com.espertech.esper.runtime.internal.metrics.instrumentation.InstrumentationHelper;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+
+/**
+ * Index for filter parameter constants to match using the 'in' operator to match against a supplied set of values
+ * (i.e. multiple possible exact matches), for long, int and double event properties.
+ * The implementation is based on a map of primitive keys.
+ */
+public final class FilterParamIndexInPrimitive extends FilterParamIndexLookupableBase {
+    private final FilterPrimitiveKeyMap<List<EventEvaluator>> constantsMap;
+    private final Map<HashableMultiKey, EventEvaluator> evaluatorsMap;
+    private final ReadWriteLock constantsMapRWLock;
+    private final FilterPrimitiveKeyEval keyEval;
+
+    public FilterParamIndexInPrimitive(ExprFilterSpecLookupable lookupable, ReadWriteLock readWriteLock, Class keyClass) {
+        super(FilterOperator.IN_LIST_OF_VALUES, lookupable);
+
+        constantsMap = new FilterPrimitiveKeyMap<>(keyClass);
+        evaluatorsMap = new HashMap<HashableMultiKey, EventEvaluator>();
+        constantsMapRWLock = readWriteLock;
+        keyEval = FilterPrimitiveKeyMap.getKeyEval(lookupable, keyClass);
+    }
+
+    public final EventEvaluator get(Object filterConstant) {
+        HashableMultiKey keyValues = (HashableMultiKey) filterConstant;
+        return evaluatorsMap.get(keyValues);
+    }
+
+    public final void put(Object filterConstant, EventEvaluator evaluator) {
+        // Store evaluator keyed to set of values
+        HashableMultiKey keys = (HashableMultiKey) filterConstant;
+
+        // make sure to remove the old evaluator for this constant
+        EventEvaluator oldEvaluator = evaluatorsMap.put(keys, evaluator);
+
+        // Store each value to match against in Map with it's evaluator as a list
+        Object[] keyValues = keys.getKeys();
+        for (int i = 0; i < keyValues.length; i++) {
+            List<EventEvaluator> evaluators = constantsMap.get(keyValues[i]);
+            if (evaluators == null) {
+                evaluators = new ArrayList<EventEvaluator>(2);
+                constantsMap.put(keyValues[i], evaluators);
+            } else {
+                if (oldEvaluator != null) {
+                    evaluators.remove(oldEvaluator);
+                }
+            }
+            evaluators.add(evaluator);
+        }
+    }
+
+    public final void remove(Object filterConstant) {
+        HashableMultiKey keys = (HashableMultiKey) filterConstant;
+
+        // remove the mapping of value set to evaluator
+        EventEvaluator eval = evaluatorsMap.remove(keys);
+
+        Object[] keyValues = keys.getKeys();
+        for (int i = 0; i < keyValues.length; i++) {
+            List<EventEvaluator> evaluators = constantsMap.get(keyValues[i]);
+            if (evaluators != null) {
+                // could be removed already as same-value constants existed
+                evaluators.remove(eval);
+                if (evaluators.isEmpty()) {
+                    constantsMap.remove(keyValues[i]);
+                }
+            }
+        }
+    }
+
+    public final int sizeExpensive() {
+        return constantsMap.size();
+    }
+
+    public boolean isEmpty() {
+        return constantsMap.isEmpty();
+    }
+
+    public final ReadWriteLock getReadWriteLock() {
+        return constantsMapRWLock;
+    }
+
+    public final void matchEvent(EventBean theEvent, Collection<FilterHandle> matches, ExprEvaluatorContext ctx) {
+        if (keyEval != null && !InstrumentationHelper.ENABLED) {
+            long key = keyEval.evalKey(theEvent, ctx);
+            int forwarded = 0;
+            constantsMapRWLock.readLock().lock();
+            try {
+                List<EventEvaluator> evaluators = constantsMap.getPrimitive(key);
+                if (evaluators != null) {
+                    for (int i = 0; i < evaluators.size(); i++) {
+                        evaluators.get(i).matchEvent(theEvent, matches, ctx);
+                        forwarded++;
+                    }
+                }
+            } finally {
+                constantsMapRWLock.readLock().unlock();
+            }
+            countLookup(forwarded);
+            return;
+        }
+
+        Object attributeValue = lookupable.getEval().eval(theEvent, ctx);
+        if (InstrumentationHelper.ENABLED) {
+            InstrumentationHelper.get().qFilterReverseIndex(this, attributeValue);
+        }
+
+        if (attributeValue == null) {
+            if (InstrumentationHelper.ENABLED) {
+                InstrumentationHelper.get().aFilterReverseIndex(false);
+            }
+            countLookup(0);
+            return;
+        }
+
+        int forwarded = 0;
+        // Look up by primitive key
+        constantsMapRWLock.readLock().lock();
+        List<EventEvaluator> evaluators;
+        if (constantsMap.isPrimitiveKey(attributeValue)) {
+            evaluators = constantsMap.getPrimitive(constantsMap.toPrimitiveKey(attributeValue));
+        } else {
+            evaluators = constantsMap.get(attributeValue);
+        }
+
+        // No listener found for the value, return
+        if (evaluators == null) {
+            constantsMapRWLock.readLock().unlock();
+            if (InstrumentationHelper.ENABLED) {
+                InstrumentationHelper.get().aFilterReverseIndex(false);
+            }
+            countLookup(0);
+            return;
+        }
+
+        try {
+            for (int i = 0; i < evaluators.size(); i++) {
+                evaluators.get(i).matchEvent(theEvent, matches, ctx);
+                forwarded++;
+            }
+        } finally {
+            constantsMapRWLock.readLock().unlock();
+        }
+
+        countLookup(forwarded);
+        if (InstrumentationHelper.ENABLED) {
+            InstrumentationHelper.get().aFilterReverseIndex(null);
+        }
+    }
+
+    public void getTraverseStatement(EventTypeIndexTraverse traverse, Set<Integer> statementIds, ArrayDeque<FilterItem> evaluatorStack) {
+        for (Map.Entry<HashableMultiKey, EventEvaluator> entry : evaluatorsMap.entrySet()) {
+            evaluatorStack.add(new FilterItem(lookupable.getExpression(), getFilterOperator(), entry.getValue(), this));
+            entry.getValue().getTraverseStatement(traverse, statementIds, evaluatorStack);
+            evaluatorStack.removeLast();
+        }
+    }
+}
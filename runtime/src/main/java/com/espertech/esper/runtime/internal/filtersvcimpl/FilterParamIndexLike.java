@@ -0,0 +1,276 @@
+/*
+ ***************************************************************************************
+ *  Copyright (C) 2006 EsperTech, Inc. All rights reserved.                            *
+ *  http://www.espertech.com/esper                                                     *
+ *  http://www.espertech.com                                                           *
+ *  ---------------------------------------------------------------------------------- *
+ *  The software in this package is published under the terms of the GPL license       *
+ *  a copy of which has been included with this distribution in the license.txt file.  *
+ ***************************************************************************************
+ */
+package com.espertech.esper.runtime.internal.filtersvcimpl;
+
+import com.espertech.esper.common.client.EventBean;
+import com.espertech.esper.common.internal.epl.expression.core.ExprEvaluatorContext;
+import com.espertech.esper.common.internal.epl.expression.core.ExprFilterSpecLookupable;
+import com.espertech.esper.common.internal.filterspec.FilterOperator;
+import com.espertech.esper.common.internal.filtersvc.FilterHandle;
+import com.espertech.esper.common.internal.util.LikeUtil;
+import com.espertech.esper.runtime.internal.metrics.instrumentation.InstrumentationHelper;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+
+/**
+ * Index for filter parameter constants to match using the like operator, for like-patterns that use the default
+ * escape character.
+ * <p>
+ * Patterns without the underscore wildcard that are an exact value, a prefix ("abc%"), a suffix ("%abc") or
+ * a contained value ("%abc%") are kept in a hash map respectively a trie of prefixes, of suffixes and
+ * of contained values. For each event the index looks up the exact value and scans the event property
+ * value once for each trie, independent of the number of patterns. All other patterns are evaluated one after another.
+ */
+public final class FilterParamIndexLike extends FilterParamIndexLookupableBase {
+    private static final FilterStringKeywordTrieVisitor<EventEvaluator> FORWARD = (evaluator, text, theEvent, matches, ctx) -> {
+        evaluator.matchEvent(theEvent, matches, ctx);
+        return 1;
+    };
+
+    private final Map<Object, EventEvaluator> patterns = new HashMap<>();
+    private final Map<String, EventEvaluator> exact = new HashMap<>();
+    private final FilterStringKeywordTrie<EventEvaluator> prefixes = new FilterStringKeywordTrie<>(false);
+    private final FilterStringKeywordTrie<EventEvaluator> suffixes = new FilterStringKeywordTrie<>(true);
+    private final FilterStringKeywordTrie<EventEvaluator> contained = new FilterStringKeywordTrie<>(false);
+    private final Map<String, LikeEvaluator> others = new LinkedHashMap<>();
+    private final ReadWriteLock patternsRWLock;
+
+    public FilterParamIndexLike(ExprFilterSpecLookupable lookupable, ReadWriteLock readWriteLock) {
+        super(FilterOperator.LIKE, lookupable);
+        this.patternsRWLock = readWriteLock;
+    }
+
+    public EventEvaluator get(Object filterConstant) {
+        return patterns.get(filterConstant);
+    }
+
+    public void put(Object filterConstant, EventEvaluator evaluator) {
+        String pattern = (String) filterConstant;
+        boolean replaced = patterns.put(pattern, evaluator) != null;
+        LikeEvaluator other = others.get(pattern);
+        if (other != null) {
+            other.evaluator = evaluator;
+            return;
+        }
+        LikePattern parsed = LikePattern.parse(pattern);
+        // an equivalent pattern such as "%a%%" for an indexed "%a%" is evaluated one after another
+        if (parsed.kind == LikePattern.Kind.OTHER || (!replaced && getLiteral(parsed) != null)) {
+            others.put(pattern, new LikeEvaluator(new LikeUtil(pattern, '\\', false), evaluator));
+            return;
+        }
+        switch (parsed.kind) {
+            case EXACT:
+                exact.put(parsed.literal, evaluator);
+                break;
+            case PREFIX:
+                prefixes.put(parsed.literal, evaluator);
+                break;
+            case SUFFIX:
+                suffixes.put(parsed.literal, evaluator);
+                break;
+            default:
+                contained.put(parsed.literal, evaluator);
+        }
+    }
+
+    public void remove(Object filterConstant) {
+        String pattern = (String) filterConstant;
+        if (patterns.remove(pattern) == null) {
+            return;
+        }
+        if (others.remove(pattern) != null) {
+            return;
+        }
+        LikePattern parsed = LikePattern.parse(pattern);
+        switch (parsed.kind) {
+            case EXACT:
+                exact.remove(parsed.literal);
+                break;
+            case PREFIX:
+                prefixes.remove(parsed.literal);
+                break;
+            case SUFFIX:
+                suffixes.remove(parsed.literal);
+                break;
+            default:
+                contained.remove(parsed.literal);
+        }
+    }
+
+    public int sizeExpensive() {
+        return patterns.size();
+    }
+
+    public boolean isEmpty() {
+        return patterns.isEmpty();
+    }
+
+    public ReadWriteLock getReadWriteLock() {
+        return patternsRWLock;
+    }
+
+    public void matchEvent(EventBean theEvent, Collection<FilterHandle> matches, ExprEvaluatorContext ctx) {
+        Object attributeValue = lookupable.getEval().eval(theEvent, ctx);
+        if (InstrumentationHelper.ENABLED) {
+            InstrumentationHelper.get().qFilterReverseIndex(this, attributeValue);
+        }
+
+        if (attributeValue == null) {
+            if (InstrumentationHelper.ENABLED) {
+                InstrumentationHelper.get().aFilterReverseIndex(false);
+            }
+            countLookup(0);
+            return;
+        }
+
+        String value = (String) attributeValue;
+        int forwarded = 0;
+        patternsRWLock.readLock().lock();
+        try {
+            EventEvaluator evaluator = exact.get(value);
+            if (evaluator != null) {
+                evaluator.matchEvent(theEvent, matches, ctx);
+                forwarded++;
+            }
+            if (!prefixes.isEmpty()) {
+                forwarded += prefixes.matchPrefixes(value, FORWARD, theEvent, matches, ctx);
+            }
+            if (!suffixes.isEmpty()) {
+                forwarded += suffixes.matchPrefixes(value, FORWARD, theEvent, matches, ctx);
+            }
+            if (!contained.isEmpty()) {
+                forwarded += contained.matchContained(value, FORWARD, theEvent, matches, ctx);
+            }
+            for (LikeEvaluator other : others.values()) {
+                if (other.likeUtil.compare(value)) {
+                    other.evaluator.matchEvent(theEvent, matches, ctx);
+                    forwarded++;
+                }
+            }
+        } finally {
+            patternsRWLock.readLock().unlock();
+        }
+
+        countLookup(forwarded);
+        if (InstrumentationHelper.ENABLED) {
+            InstrumentationHelper.get().aFilterReverseIndex(forwarded > 0);
+        }
+    }
+
+    public void getTraverseStatement(EventTypeIndexTraverse traverse, Set<Integer> statementIds, ArrayDeque<FilterItem> evaluatorStack) {
+        for (Map.Entry<Object, EventEvaluator> entry : patterns.entrySet()) {
+            evaluatorStack.add(new FilterItem(lookupable.getExpression(), getFilterOperator(), entry.getKey(), this));
+            entry.getValue().getTraverseStatement(traverse, statementIds, evaluatorStack);
+            evaluatorStack.removeLast();
+        }
+    }
+
+    private EventEvaluator getLiteral(LikePattern parsed) {
+        switch (parsed.kind) {
+            case EXACT:
+                return exact.get(parsed.literal);
+            case PREFIX:
+                return prefixes.get(parsed.literal);
+            case SUFFIX:
+                return suffixes.get(parsed.literal);
+            default:
+                return contained.get(parsed.literal);
+        }
+    }
+
+    private static final class LikeEvaluator {
+        private final LikeUtil likeUtil;
+        private EventEvaluator evaluator;
+
+        LikeEvaluator(LikeUtil likeUtil, EventEvaluator evaluator) {
+            this.likeUtil = likeUtil;
+            this.evaluator = evaluator;
+        }
+    }
+
+    /**
+     * Like-pattern classified by its wildcards, for use by the like filter parameter index.
+     */
+    static final class LikePattern {
+        enum Kind {
+            EXACT,
+            PREFIX,
+            SUFFIX,
+            CONTAINED,
+            OTHER
+        }
+
+        private final Kind kind;
+        private final String literal;
+
+        private LikePattern(Kind kind, String literal) {
+            this.kind = kind;
+            this.literal = literal;
+        }
+
+        Kind getKind() {
+            return kind;
+        }
+
+        String getLiteral() {
+            return literal;
+        }
+
+        /**
+         * Classify a like-pattern that uses the default escape character.
+         *
+         * @param pattern pattern
+         * @return classified pattern
+         */
+        static LikePattern parse(String pattern) {
+            boolean leadingPercent = false;
+            boolean trailingPercent = false;
+            StringBuilder literal = new StringBuilder(pattern.length());
+            int length = pattern.length();
+            for (int i = 0; i < length; i++) {
+                char c = pattern.charAt(i);
+                if (c == '\\') {
+                    if (trailingPercent) {
+                        return new LikePattern(Kind.OTHER, null);
+                    }
+                    if (i + 1 < length) {
+                        literal.append(pattern.charAt(++i));
+                    }
+                } else if (c == '_') {
+                    return new LikePattern(Kind.OTHER, null);
+                } else if (c == '%') {
+                    if (literal.length() == 0 && !trailingPercent) {
+                        leadingPercent = true;
+                    } else {
+                        trailingPercent = true;
+                    }
+                } else {
+                    if (trailingPercent) {
+                        return new LikePattern(Kind.OTHER, null);
+                    }
+                    literal.append(c);
+                }
+            }
+            if (leadingPercent && trailingPercent) {
+                return new LikePattern(Kind.CONTAINED, literal.toString());
+            }
+            if (leadingPercent) {
+                // a pattern consisting only of the percent wildcard matches any value
+                return new LikePattern(literal.length() == 0 ? Kind.PREFIX : Kind.SUFFIX, literal.toString());
+            }
+            if (trailingPercent) {
+                return new LikePattern(Kind.PREFIX, literal.toString());
+            }
+            return new LikePattern(Kind.EXACT, literal.toString());
+        }
+    }
+}
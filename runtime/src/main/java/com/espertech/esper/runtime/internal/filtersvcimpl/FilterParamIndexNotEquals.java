@@ -40,9 +40,11 @@ public final class FilterParamIndexNotEquals extends FilterParamIndexNotEqualsBa
             if (InstrumentationHelper.ENABLED) {
                 InstrumentationHelper.get().aFilterReverseIndex(false);
             }
+            countLookup(0);
             return;
         }
 
+        int forwarded = 0;
         // Look up in hashtable
         constantsMapRWLock.readLock().lock();
         try {
@@ -53,12 +55,14 @@ public final class FilterParamIndexNotEquals extends FilterParamIndexNotEqualsBa
 
                 if (!entry.getKey().equals(attributeValue)) {
                     entry.getValue().matchEvent(theEvent, matches, ctx);
+                    forwarded++;
                 }
             }
         } finally {
             constantsMapRWLock.readLock().unlock();
         }
 
+        countLookup(forwarded);
         if (InstrumentationHelper.ENABLED) {
             InstrumentationHelper.get().aFilterReverseIndex(null);
         }
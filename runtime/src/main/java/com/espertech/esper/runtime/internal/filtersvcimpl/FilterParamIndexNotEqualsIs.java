@@ -36,6 +36,7 @@ public final class FilterParamIndexNotEqualsIs extends FilterParamIndexNotEquals
             InstrumentationHelper.get().qFilterReverseIndex(this, attributeValue);
         }
 
+        int forwarded = 0;
         // Look up in hashtable
         constantsMapRWLock.readLock().lock();
         try {
@@ -43,18 +44,21 @@ public final class FilterParamIndexNotEqualsIs extends FilterParamIndexNotEquals
                 if (entry.getKey() == null) {
                     if (attributeValue != null) {
                         entry.getValue().matchEvent(theEvent, matches, ctx);
+                        forwarded++;
                     }
                     continue;
                 }
 
                 if (!entry.getKey().equals(attributeValue)) {
                     entry.getValue().matchEvent(theEvent, matches, ctx);
+                    forwarded++;
                 }
             }
         } finally {
             constantsMapRWLock.readLock().unlock();
         }
 
+        countLookup(forwarded);
         if (InstrumentationHelper.ENABLED) {
             InstrumentationHelper.get().aFilterReverseIndex(null);
         }
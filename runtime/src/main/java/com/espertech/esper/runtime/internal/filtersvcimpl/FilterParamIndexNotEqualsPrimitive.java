@@ -0,0 +1,151 @@
+/*
+ ***************************************************************************************
+ *  Copyright (C) 2006 EsperTech, Inc. All rights reserved.                            *
+ *  http://www.espertech.com/esper                                                     *
+ *  http://www.espertech.com                                                           *
+ *  ---------------------------------------------------------------------------------- *
+ *  The software in this package is published under the terms of the GPL license       *
+ *  a copy of which has been included with this distribution in the license.txt file.  *
+ ***************************************************************************************
+ */
+package com.espertech.esper.runtime.internal.filtersvcimpl;
+
+import com.espertech.esper.common.client.EventBean;
+import com.espertech.esper.common.internal.epl.expression.core.ExprEvaluatorContext;
+import com.espertech.esper.common.internal.epl.expression.core.ExprFilterSpecLookupable;
+import com.espertech.esper.common.internal.filterspec.FilterOperator;
+import com.espertech.esper.common.internal.filtersvc.FilterHandle;
+import com.espertech.esper.runtime.internal.metrics.instrumentation.InstrumentationHelper;
+
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+
+/**
+ * Index for filter parameter constants to match using the not-equals (!=) operator, for long, int and double event properties.
+ * The implementation is based on a map of primitive keys.
+ */
+public final class FilterParamIndexNotEqualsPrimitive extends FilterParamIndexLookupableBase {
+    private final FilterPrimitiveKeyMap<EventEvaluator> constantsMap;
+    private final ReadWriteLock constantsMapRWLock;
+    private final FilterPrimitiveKeyEval keyEval;
+
+    public FilterParamIndexNotEqualsPrimitive(ExprFilterSpecLookupable lookupable, ReadWriteLock readWriteLock, Class keyClass) {
+        super(FilterOperator.NOT_EQUAL, lookupable);
+        constantsMap = new FilterPrimitiveKeyMap<>(keyClass);
+        constantsMapRWLock = readWriteLock;
+        keyEval = FilterPrimitiveKeyMap.getKeyEval(lookupable, keyClass);
+    }
+
+    public final EventEvaluator get(Object filterConstant) {
+        return constantsMap.get(filterConstant);
+    }
+
+    public final void put(Object filterConstant, EventEvaluator evaluator) {
+        constantsMap.put(filterConstant, evaluator);
+    }
+
+    public final void remove(Object filterConstant) {
+        constantsMap.remove(filterConstant);
+    }
+
+    public final int sizeExpensive() {
+        return constantsMap.size();
+    }
+
+    public boolean isEmpty() {
+        return constantsMap.isEmpty();
+    }
+
+    public final ReadWriteLock getReadWriteLock() {
+        return constantsMapRWLock;
+    }
+
+    public final void matchEvent(EventBean theEvent, Collection<FilterHandle> matches, ExprEvaluatorContext ctx) {
+        if (keyEval != null && !InstrumentationHelper.ENABLED) {
+            countLookup(matchNotEquals(true, keyEval.evalKey(theEvent, ctx), null, theEvent, matches, ctx));
+            return;
+        }
+
+        Object attributeValue = lookupable.getEval().eval(theEvent, ctx);
+        if (InstrumentationHelper.ENABLED) {
+            InstrumentationHelper.get().qFilterReverseIndex(this, attributeValue);
+        }
+
+        if (attributeValue == null) {   // null cannot match any other value, not even null (use "is" or "is not", i.e. null != null returns null)
+            if (InstrumentationHelper.ENABLED) {
+                InstrumentationHelper.get().aFilterReverseIndex(false);
+            }
+            countLookup(0);
+            return;
+        }
+
+        // a value not of the key class is not equal to any primitive key
+        boolean primitive = constantsMap.isPrimitiveKey(attributeValue);
+        long key = primitive ? constantsMap.toPrimitiveKey(attributeValue) : 0;
+        countLookup(matchNotEquals(primitive, key, attributeValue, theEvent, matches, ctx));
+        if (InstrumentationHelper.ENABLED) {
+            InstrumentationHelper.get().aFilterReverseIndex(null);
+        }
+    }
+
+    private int matchNotEquals(boolean primitive, long key, Object attributeValue, EventBean theEvent, Collection<FilterHandle> matches, ExprEvaluatorContext ctx) {
+        int forwarded = 0;
+        constantsMapRWLock.readLock().lock();
+        try {
+            int capacity = constantsMap.getCapacity();
+            for (int i = 0; i < capacity; i++) {
+                EventEvaluator evaluator = constantsMap.getValueAt(i);
+                if (evaluator != null && (!primitive || constantsMap.getPrimitiveKeyAt(i) != key)) {
+                    evaluator.matchEvent(theEvent, matches, ctx);
+                    forwarded++;
+                }
+            }
+
+            // other keys are never of the key class and are not equal to a primitive key
+            Map<Object, EventEvaluator> otherKeys = constantsMap.getOtherKeys();
+            if (otherKeys != null) {
+                for (Map.Entry<Object, EventEvaluator> entry : otherKeys.entrySet()) {
+                    if (entry.getKey() == null) {
+                        continue;   // null-value cannot match, not even null (use "is" or "is not", i.e. null != null returns null)
+                    }
+                    if (primitive || !entry.getKey().equals(attributeValue)) {
+                        entry.getValue().matchEvent(theEvent, matches, ctx);
+                        forwarded++;
+                    }
+                }
+            }
+        } finally {
+            constantsMapRWLock.readLock().unlock();
+        }
+        return forwarded;
+    }
+
+    /**
+     * Returns the key class.
+     *
+     * @return boxed key class
+     */
+    public Class getKeyClass() {
+        return constantsMap.getKeyClass();
+    }
+
+    /**
+     * Returns the constants. The calling class must make sure that access to the constants is protected.
+     *
+     * @return constants
+     */
+    public FilterPrimitiveKeyMap<EventEvaluator> getConstantsMap() {
+        return constantsMap;
+    }
+
+    public void getTraverseStatement(EventTypeIndexTraverse traverse, Set<Integer> statementIds, ArrayDeque<FilterItem> evaluatorStack) {
+        constantsMap.forEach((key, evaluator) -> {
+            evaluatorStack.add(new FilterItem(lookupable.getExpression(), getFilterOperator(), key, this));
+            evaluator.getTraverseStatement(traverse, statementIds, evaluatorStack);
+            evaluatorStack.removeLast();
+        });
+    }
+}
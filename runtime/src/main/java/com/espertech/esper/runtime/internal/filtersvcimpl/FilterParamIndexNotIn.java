@@ -105,6 +105,7 @@ public final class FilterParamIndexNotIn extends FilterParamIndexLookupableBase
             if (InstrumentationHelper.ENABLED) {
                 InstrumentationHelper.get().aFilterReverseIndex(false);
             }
+            countLookup(0);
             return;
         }
 
@@ -121,6 +122,7 @@ public final class FilterParamIndexNotIn extends FilterParamIndexLookupableBase
             } finally {
                 constantsMapRWLock.readLock().unlock();
             }
+            countLookup(evaluatorsSet.size());
             if (InstrumentationHelper.ENABLED) {
                 InstrumentationHelper.get().aFilterReverseIndex(true);
             }
@@ -133,20 +135,25 @@ public final class FilterParamIndexNotIn extends FilterParamIndexLookupableBase
             if (InstrumentationHelper.ENABLED) {
                 InstrumentationHelper.get().aFilterReverseIndex(false);
             }
+            countLookup(0);
             return;
         }
 
         // handle partial matches: loop through all evaluators and see which one should not be matching, match all else
+        int forwarded = 0;
         try {
             for (EventEvaluator eval : evaluatorsSet) {
                 if (!(evalNotMatching.contains(eval))) {
                     eval.matchEvent(theEvent, matches, ctx);
+                    forwarded++;
                 }
             }
         } finally {
             constantsMapRWLock.readLock().unlock();
         }
 
+        countLookup(forwarded);
+
         if (InstrumentationHelper.ENABLED) {
             InstrumentationHelper.get().aFilterReverseIndex(null);
         }
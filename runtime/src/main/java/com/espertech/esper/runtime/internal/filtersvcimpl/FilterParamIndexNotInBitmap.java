@@ -0,0 +1,68 @@
+/*
+ ***************************************************************************************
+ *  Copyright (C) 2006 EsperTech, Inc. All rights reserved.                            *
+ *  http://www.espertech.com/esper                                                     *
+ *  http://www.espertech.com                                                           *
+ *  ---------------------------------------------------------------------------------- *
+ *  The software in this package is published under the terms of the GPL license       *
+ *  a copy of which has been included with this distribution in the license.txt file.  *
+ ***************************************************************************************
+ */
+package com.espertech.esper.runtime.internal.filtersvcimpl;
+
+import com.espertech.esper.common.client.EventBean;
+import com.espertech.esper.common.internal.epl.expression.core.ExprEvaluatorContext;
+import com.espertech.esper.common.internal.epl.expression.core.ExprFilterSpecLookupable;
+import com.espertech.esper.common.internal.filterspec.FilterOperator;
+import com.espertech.esper.common.internal.filtersvc.FilterHandle;
+import com.espertech.esper.runtime.internal.metrics.instrumentation.InstrumentationHelper;
+
+import java.util.Collection;
+import java.util.concurrent.locks.ReadWriteLock;
+
+/**
+ * Index for filter parameter constants to match using the 'not in' operator to match against a
+ * all other values then the supplied set of values.
+ * The implementation keeps a bitmap of filter ids per value and matches the difference of all filter ids
+ * and the filter ids of the value, see {@link FilterParamIndexInBitmapBase}.
+ */
+public final class FilterParamIndexNotInBitmap extends FilterParamIndexInBitmapBase {
+    public FilterParamIndexNotInBitmap(ExprFilterSpecLookupable lookupable, ReadWriteLock readWriteLock) {
+        super(lookupable, readWriteLock, FilterOperator.NOT_IN_LIST_OF_VALUES);
+    }
+
+    public final void matchEvent(EventBean theEvent, Collection<FilterHandle> matches, ExprEvaluatorContext ctx) {
+        Object attributeValue = lookupable.getEval().eval(theEvent, ctx);
+        if (InstrumentationHelper.ENABLED) {
+            InstrumentationHelper.get().qFilterReverseIndex(this, attributeValue);
+        }
+
+        if (attributeValue == null) {
+            if (InstrumentationHelper.ENABLED) {
+                InstrumentationHelper.get().aFilterReverseIndex(false);
+            }
+            countLookup(0);
+            return;
+        }
+
+        int forwarded;
+        constantsMapRWLock.readLock().lock();
+        try {
+            FilterIdBitmap excluded = constantsMap.get(attributeValue);
+            if (excluded == null) {
+                forwarded = allIds.matchEvent(evaluatorsById, theEvent, matches, ctx);
+            } else if (excluded.size() == allIds.size()) {
+                forwarded = 0;
+            } else {
+                forwarded = allIds.matchEventAndNot(excluded, evaluatorsById, theEvent, matches, ctx);
+            }
+        } finally {
+            constantsMapRWLock.readLock().unlock();
+        }
+
+        countLookup(forwarded);
+        if (InstrumentationHelper.ENABLED) {
+            InstrumentationHelper.get().aFilterReverseIndex(forwarded > 0);
+        }
+    }
+}
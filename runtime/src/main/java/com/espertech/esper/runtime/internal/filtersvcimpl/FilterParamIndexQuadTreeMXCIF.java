@@ -57,7 +57,10 @@ public class FilterParamIndexQuadTreeMXCIF extends FilterParamIndexLookupableBas
         double y = ((Number) advancedIndex.getY().get(theEvent)).doubleValue();
         double width = ((Number) advancedIndex.getWidth().get(theEvent)).doubleValue();
         double height = ((Number) advancedIndex.getHeight().get(theEvent)).doubleValue();
+        // the quad tree passes the event to the nodes of the matching filters, count the matching filters instead
+        int sizeBefore = matches.size();
         MXCIFQuadTreeFilterIndexCollect.collectRange(quadTree, x, y, width, height, theEvent, matches, COLLECTOR, ctx);
+        countLookup(matches.size() - sizeBefore);
 
         if (InstrumentationHelper.ENABLED) {
             InstrumentationHelper.get().aFilterReverseIndex(null);
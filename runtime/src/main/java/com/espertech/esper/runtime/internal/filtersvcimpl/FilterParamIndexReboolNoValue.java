@@ -77,7 +77,10 @@ public class FilterParamIndexReboolNoValue extends FilterParamIndexLookupableBas
         }
         Boolean result = (Boolean) lookupable.getExpr().evaluate(events, true, ctx);
         if (result != null && result) {
+            countLookup(1);
             eventEvaluator.matchEvent(theEvent, matches, ctx);
+        } else {
+            countLookup(0);
         }
         if (InstrumentationHelper.ENABLED) {
             InstrumentationHelper.get().aFilterReverseIndex(result);
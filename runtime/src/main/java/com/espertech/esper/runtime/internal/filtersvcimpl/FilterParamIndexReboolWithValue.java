@@ -28,6 +28,7 @@ public final class FilterParamIndexReboolWithValue extends FilterParamIndexEqual
 
     public final void matchEvent(EventBean theEvent, Collection<FilterHandle> matches, ExprEvaluatorContext ctx) {
         EventBean[] events = new EventBean[] {theEvent};
+        int forwarded = 0;
         for (Map.Entry<Object, EventEvaluator> entry : constantsMap.entrySet()) {
             ctx.setFilterReboolConstant(entry.getKey());
             if (InstrumentationHelper.ENABLED) {
@@ -36,10 +37,12 @@ public final class FilterParamIndexReboolWithValue extends FilterParamIndexEqual
             Boolean result = (Boolean) lookupable.getExpr().evaluate(events, true, ctx);
             if (result != null && result) {
                 entry.getValue().matchEvent(theEvent, matches, ctx);
+                forwarded++;
             }
             if (InstrumentationHelper.ENABLED) {
                 InstrumentationHelper.get().aFilterReverseIndex(result);
             }
         }
+        countLookup(forwarded);
     }
 }
@@ -0,0 +1,326 @@
+/*
+ ***************************************************************************************
+ *  Copyright (C) 2006 EsperTech, Inc. All rights reserved.                            *
+ *  http://www.espertech.com/esper                                                     *
+ *  http://www.espertech.com                                                           *
+ *  ---------------------------------------------------------------------------------- *
+ *  The software in this package is published under the terms of the GPL license       *
+ *  a copy of which has been included with this distribution in the license.txt file.  *
+ ***************************************************************************************
+ */
+package com.espertech.esper.runtime.internal.filtersvcimpl;
+
+import com.espertech.esper.common.client.EventBean;
+import com.espertech.esper.common.internal.epl.expression.core.ExprEvaluatorContext;
+import com.espertech.esper.common.internal.epl.expression.core.ExprFilterSpecLookupable;
+import com.espertech.esper.common.internal.filterspec.FilterOperator;
+import com.espertech.esper.common.internal.filtersvc.FilterHandle;
+import com.espertech.esper.runtime.internal.metrics.instrumentation.InstrumentationHelper;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.regex.Pattern;
+
+/**
+ * Index for filter parameter constants to match using the regexp operator.
+ * <p>
+ * For each regular expression the index determines a literal that any matching value must contain, see
+ * {@link #getRequiredLiteral(String)}. The literals are kept in a trie. For each event the index scans the
+ * event property value once to find the literals that the value contains, and only evaluates the regular expressions
+ * of these literals as well as the regular expressions that have no such literal.
+ */
+public final class FilterParamIndexRegexp extends FilterParamIndexLookupableBase {
+    private static final String PREDEFINED_CLASSES_AND_BOUNDARIES = "dDsSwWhHvVbBAGZzRX";
+    private static final FilterStringKeywordTrieVisitor<List<RegexpEvaluator>> CANDIDATES = (candidates, text, theEvent, matches, ctx) -> {
+        int count = 0;
+        for (int i = 0; i < candidates.size(); i++) {
+            count += candidates.get(i).match(text, theEvent, matches, ctx);
+        }
+        return count;
+    };
+
+    private final Map<Object, RegexpEvaluator> patterns = new HashMap<>();
+    private final FilterStringKeywordTrie<List<RegexpEvaluator>> literals = new FilterStringKeywordTrie<>(false);
+    private final List<RegexpEvaluator> unfiltered = new ArrayList<>();
+    private final ReadWriteLock patternsRWLock;
+
+    public FilterParamIndexRegexp(ExprFilterSpecLookupable lookupable, ReadWriteLock readWriteLock) {
+        super(FilterOperator.REGEXP, lookupable);
+        this.patternsRWLock = readWriteLock;
+    }
+
+    public EventEvaluator get(Object filterConstant) {
+        RegexpEvaluator regexp = patterns.get(filterConstant);
+        return regexp == null ? null : regexp.evaluator;
+    }
+
+    public void put(Object filterConstant, EventEvaluator evaluator) {
+        String text = (String) filterConstant;
+        RegexpEvaluator existing = patterns.get(text);
+        if (existing != null) {
+            existing.evaluator = evaluator;
+            return;
+        }
+        RegexpEvaluator regexp = new RegexpEvaluator(Pattern.compile(text), getRequiredLiteral(text), evaluator);
+        patterns.put(text, regexp);
+        if (regexp.literal == null) {
+            unfiltered.add(regexp);
+            return;
+        }
+        List<RegexpEvaluator> list = literals.get(regexp.literal);
+        if (list == null) {
+            list = new ArrayList<>(2);
+            literals.put(regexp.literal, list);
+        }
+        list.add(regexp);
+    }
+
+    public void remove(Object filterConstant) {
+        RegexpEvaluator regexp = patterns.remove(filterConstant);
+        if (regexp == null) {
+            return;
+        }
+        if (regexp.literal == null) {
+            unfiltered.remove(regexp);
+            return;
+        }
+        List<RegexpEvaluator> list = literals.get(regexp.literal);
+        list.remove(regexp);
+        if (list.isEmpty()) {
+            literals.remove(regexp.literal);
+        }
+    }
+
+    public int sizeExpensive() {
+        return patterns.size();
+    }
+
+    public boolean isEmpty() {
+        return patterns.isEmpty();
+    }
+
+    public ReadWriteLock getReadWriteLock() {
+        return patternsRWLock;
+    }
+
+    public void matchEvent(EventBean theEvent, Collection<FilterHandle> matches, ExprEvaluatorContext ctx) {
+        Object attributeValue = lookupable.getEval().eval(theEvent, ctx);
+        if (InstrumentationHelper.ENABLED) {
+            InstrumentationHelper.get().qFilterReverseIndex(this, attributeValue);
+        }
+
+        if (attributeValue == null) {
+            if (InstrumentationHelper.ENABLED) {
+                InstrumentationHelper.get().aFilterReverseIndex(false);
+            }
+            countLookup(0);
+            return;
+        }
+
+        String value = (String) attributeValue;
+        int forwarded = 0;
+        patternsRWLock.readLock().lock();
+        try {
+            if (!literals.isEmpty()) {
+                forwarded += literals.matchContained(value, CANDIDATES, theEvent, matches, ctx);
+            }
+            for (RegexpEvaluator regexp : unfiltered) {
+                forwarded += regexp.match(value, theEvent, matches, ctx);
+            }
+        } finally {
+            patternsRWLock.readLock().unlock();
+        }
+
+        countLookup(forwarded);
+        if (InstrumentationHelper.ENABLED) {
+            InstrumentationHelper.get().aFilterReverseIndex(forwarded > 0);
+        }
+    }
+
+    public void getTraverseStatement(EventTypeIndexTraverse traverse, Set<Integer> statementIds, ArrayDeque<FilterItem> evaluatorStack) {
+        for (Map.Entry<Object, RegexpEvaluator> entry : patterns.entrySet()) {
+            evaluatorStack.add(new FilterItem(lookupable.getExpression(), getFilterOperator(), entry.getKey(), this));
+            entry.getValue().evaluator.getTraverseStatement(traverse, statementIds, evaluatorStack);
+            evaluatorStack.removeLast();
+        }
+    }
+
+    /**
+     * Returns the longest literal that any value matching the regular expression must contain, or null if
+     * there is no such literal or the regular expression uses constructs that are not analyzed, such as
+     * alternatives outside of groups or inline flags.
+     *
+     * @param regex regular expression
+     * @return literal or null
+     */
+    static String getRequiredLiteral(String regex) {
+        if (regex.contains("(?") || regex.contains("\\Q")) {
+            return null;
+        }
+        String best = null;
+        StringBuilder run = new StringBuilder();
+        int length = regex.length();
+        int i = 0;
+        while (i < length) {
+            char c = regex.charAt(i);
+            char literal;
+            if (c == '\\') {
+                if (i + 1 >= length) {
+                    return null;
+                }
+                char escaped = regex.charAt(i + 1);
+                if (Character.isLetterOrDigit(escaped)) {
+                    if (PREDEFINED_CLASSES_AND_BOUNDARIES.indexOf(escaped) == -1) {
+                        // back-reference, code point, control character or property
+                        return null;
+                    }
+                    best = longer(best, run);
+                    i = skipQuantifier(regex, i + 2);
+                    continue;
+                }
+                literal = escaped;
+                i += 2;
+            } else if (c == '[') {
+                best = longer(best, run);
+                i = skipQuantifier(regex, skipCharacterClass(regex, i));
+                continue;
+            } else if (c == '(') {
+                best = longer(best, run);
+                int end = skipGroup(regex, i);
+                if (end < 0) {
+                    return null;
+                }
+                i = skipQuantifier(regex, end);
+                continue;
+            } else if (c == '.' || c == '^' || c == '$') {
+                best = longer(best, run);
+                i = skipQuantifier(regex, i + 1);
+                continue;
+            } else if (c == '|' || c == ')' || c == '*' || c == '+' || c == '?' || c == '{') {
+                return null;
+            } else {
+                literal = c;
+                i++;
+            }
+
+            char next = i < length ? regex.charAt(i) : '\0';
+            if (next == '*' || next == '?' || next == '{') {
+                // optional or counted character
+                best = longer(best, run);
+                i = skipQuantifier(regex, i);
+            } else if (next == '+') {
+                // repeated character, the run cannot continue past the repetition
+                run.append(literal);
+                best = longer(best, run);
+                i = skipQuantifier(regex, i);
+            } else {
+                run.append(literal);
+            }
+        }
+        return longer(best, run);
+    }
+
+    private static String longer(String best, StringBuilder run) {
+        String result = best;
+        if (run.length() > 0 && (best == null || run.length() > best.length())) {
+            result = run.toString();
+        }
+        run.setLength(0);
+        return result;
+    }
+
+    private static int skipQuantifier(String regex, int i) {
+        if (i >= regex.length()) {
+            return i;
+        }
+        char c = regex.charAt(i);
+        if (c == '{') {
+            int end = regex.indexOf('}', i);
+            i = end < 0 ? regex.length() : end + 1;
+        } else if (c == '*' || c == '+' || c == '?') {
+            i++;
+        } else {
+            return i;
+        }
+        // lazy or possessive quantifier
+        if (i < regex.length() && (regex.charAt(i) == '?' || regex.charAt(i) == '+')) {
+            i++;
+        }
+        return i;
+    }
+
+    private static int skipCharacterClass(String regex, int i) {
+        int depth = 0;
+        int length = regex.length();
+        while (i < length) {
+            char c = regex.charAt(i);
+            if (c == '\\') {
+                i += 2;
+                continue;
+            }
+            if (c == '[') {
+                depth++;
+                // a closing bracket that directly follows the opening bracket or negation is part of the class
+                if (i + 1 < length && regex.charAt(i + 1) == '^') {
+                    i++;
+                }
+                if (i + 1 < length && regex.charAt(i + 1) == ']') {
+                    i++;
+                }
+            } else if (c == ']') {
+                depth--;
+                if (depth == 0) {
+                    return i + 1;
+                }
+            }
+            i++;
+        }
+        return length;
+    }
+
+    private static int skipGroup(String regex, int i) {
+        int depth = 0;
+        int length = regex.length();
+        while (i < length) {
+            char c = regex.charAt(i);
+            if (c == '\\') {
+                i += 2;
+                continue;
+            }
+            if (c == '[') {
+                i = skipCharacterClass(regex, i);
+                continue;
+            }
+            if (c == '(') {
+                depth++;
+            } else if (c == ')') {
+                depth--;
+                if (depth == 0) {
+                    return i + 1;
+                }
+            }
+            i++;
+        }
+        return -1;
+    }
+
+    private static final class RegexpEvaluator {
+        private final Pattern pattern;
+        private final String literal;
+        private EventEvaluator evaluator;
+
+        RegexpEvaluator(Pattern pattern, String literal, EventEvaluator evaluator) {
+            this.pattern = pattern;
+            this.literal = literal;
+            this.evaluator = evaluator;
+        }
+
+        int match(String value, EventBean theEvent, Collection<FilterHandle> matches, ExprEvaluatorContext ctx) {
+            if (!pattern.matcher(value).matches()) {
+                return 0;
+            }
+            evaluator.matchEvent(theEvent, matches, ctx);
+            return 1;
+        }
+    }
+}
@@ -15,27 +15,29 @@ import com.espertech.esper.common.client.EventBean;
 import com.espertech.esper.common.internal.epl.expression.core.ExprEvaluatorContext;
 import com.espertech.esper.common.internal.epl.expression.core.ExprFilterSpecLookupable;
 import com.espertech.esper.common.internal.filterspec.FilterOperator;
-import com.espertech.esper.common.internal.filterspec.StringRange;
 import com.espertech.esper.common.internal.filtersvc.FilterHandle;
 import com.espertech.esper.runtime.internal.metrics.instrumentation.InstrumentationHelper;
 
 import java.util.Collection;
-import java.util.Map;
-import java.util.SortedMap;
 import java.util.concurrent.locks.ReadWriteLock;
 
 /**
  * Index for filter parameter constants for the range operators (range open/closed/half).
- * The implementation is based on the SortedMap implementation of TreeMap and stores only expression
- * parameter values of type DoubleRange.
+ * The implementation is based on an interval tree of the ranges and stores only expression
+ * parameter values of type StringRange.
  */
 public final class FilterParamIndexStringRange extends FilterParamIndexStringRangeBase {
+    private final boolean includeMin;
+    private final boolean includeMax;
+
     public FilterParamIndexStringRange(ExprFilterSpecLookupable lookupable, ReadWriteLock readWriteLock, FilterOperator filterOperator) {
         super(lookupable, readWriteLock, filterOperator);
 
         if (!(filterOperator.isRangeOperator())) {
             throw new IllegalArgumentException("Invalid filter operator " + filterOperator);
         }
+        includeMin = filterOperator == FilterOperator.RANGE_CLOSED || filterOperator == FilterOperator.RANGE_HALF_OPEN;
+        includeMax = filterOperator == FilterOperator.RANGE_CLOSED || filterOperator == FilterOperator.RANGE_HALF_CLOSED;
     }
 
     public final void matchEvent(EventBean theEvent, Collection<FilterHandle> matches, ExprEvaluatorContext ctx) {
@@ -48,50 +50,15 @@ public final class FilterParamIndexStringRange extends FilterParamIndexStringRan
             if (InstrumentationHelper.ENABLED) {
                 InstrumentationHelper.get().aFilterReverseIndex(false);
             }
+            countLookup(0);
             return;
         }
 
         String attributeValue = (String) objAttributeValue;
 
-        StringRange rangeStart = new StringRange(null, attributeValue);
-        StringRange rangeEnd = new StringRange(attributeValue, null);
-        SortedMap<StringRange, EventEvaluator> subMap = ranges.subMap(rangeStart, true, rangeEnd, true);
-
-        // For not including either endpoint
-        // A bit awkward to duplicate the loop code, however better than checking the boolean many times over
-        // This may be a bit of an early performance optimization - the optimizer after all may do this better
-        if (this.getFilterOperator() == FilterOperator.RANGE_OPEN) {
-            // include neither endpoint
-            for (Map.Entry<StringRange, EventEvaluator> entry : subMap.entrySet()) {
-                if (entry.getKey().getMin().compareTo(attributeValue) < 0 && entry.getKey().getMax().compareTo(attributeValue) > 0) {
-                    entry.getValue().matchEvent(theEvent, matches, ctx);
-                }
-            }
-        } else if (this.getFilterOperator() == FilterOperator.RANGE_CLOSED) {
-            // include all endpoints
-            for (Map.Entry<StringRange, EventEvaluator> entry : subMap.entrySet()) {
-                if (entry.getKey().getMin().compareTo(attributeValue) <= 0 && entry.getKey().getMax().compareTo(attributeValue) >= 0) {
-                    entry.getValue().matchEvent(theEvent, matches, ctx);
-                }
-            }
-        } else if (this.getFilterOperator() == FilterOperator.RANGE_HALF_CLOSED) {
-            // include high endpoint not low endpoint
-            for (Map.Entry<StringRange, EventEvaluator> entry : subMap.entrySet()) {
-                if (entry.getKey().getMin().compareTo(attributeValue) < 0 && entry.getKey().getMax().compareTo(attributeValue) >= 0) {
-                    entry.getValue().matchEvent(theEvent, matches, ctx);
-                }
-            }
-        } else if (this.getFilterOperator() == FilterOperator.RANGE_HALF_OPEN) {
-            // include low endpoint not high endpoint
-            for (Map.Entry<StringRange, EventEvaluator> entry : subMap.entrySet()) {
-                if (entry.getKey().getMin().compareTo(attributeValue) <= 0 && entry.getKey().getMax().compareTo(attributeValue) > 0) {
-                    entry.getValue().matchEvent(theEvent, matches, ctx);
-                }
-            }
-        } else {
-            throw new IllegalStateException("Invalid filter operator " + this.getFilterOperator());
-        }
+        int forwarded = ranges.matchContaining(attributeValue, includeMin, includeMax, theEvent, matches, ctx);
 
+        countLookup(forwarded);
         if (InstrumentationHelper.ENABLED) {
             InstrumentationHelper.get().aFilterReverseIndex(null);
         }
@@ -16,20 +16,18 @@ import com.espertech.esper.common.internal.filterspec.FilterOperator;
 import com.espertech.esper.common.internal.filterspec.StringRange;
 
 import java.util.ArrayDeque;
-import java.util.Map;
 import java.util.Set;
-import java.util.TreeMap;
 import java.util.concurrent.locks.ReadWriteLock;
 
 public abstract class FilterParamIndexStringRangeBase extends FilterParamIndexLookupableBase {
-    protected final TreeMap<StringRange, EventEvaluator> ranges;
+    protected final RangeIntervalTree<StringRange, String> ranges;
     protected EventEvaluator rangesNullEndpoints;
     private final ReadWriteLock rangesRWLock;
 
     protected FilterParamIndexStringRangeBase(ExprFilterSpecLookupable lookupable, ReadWriteLock readWriteLock, FilterOperator filterOperator) {
         super(filterOperator, lookupable);
 
-        ranges = new TreeMap<>(StringRangeComparator.INSTANCE);
+        ranges = new RangeIntervalTree<>();
         rangesRWLock = readWriteLock;
     }
 
@@ -84,10 +82,10 @@ public abstract class FilterParamIndexStringRangeBase extends FilterParamIndexLo
     }
 
     public void getTraverseStatement(EventTypeIndexTraverse traverse, Set<Integer> statementIds, ArrayDeque<FilterItem> evaluatorStack) {
-        for (Map.Entry<StringRange, EventEvaluator> entry : ranges.entrySet()) {
-            evaluatorStack.add(new FilterItem(lookupable.getExpression(), getFilterOperator(), entry.getKey(), this));
-            entry.getValue().getTraverseStatement(traverse, statementIds, evaluatorStack);
+        ranges.forEach((range, evaluator) -> {
+            evaluatorStack.add(new FilterItem(lookupable.getExpression(), getFilterOperator(), range, this));
+            evaluator.getTraverseStatement(traverse, statementIds, evaluatorStack);
             evaluatorStack.removeLast();
-        }
+        });
     }
 }
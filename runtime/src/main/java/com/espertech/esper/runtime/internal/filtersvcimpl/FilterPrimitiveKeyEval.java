@@ -0,0 +1,22 @@
+/*
+ ***************************************************************************************
+ *  Copyright (C) 2006 EsperTech, Inc. All rights reserved.                            *
+ *  http://www.espertech.com/esper                                                     *
+ *  http://www.espertech.com                                                           *
+ *  ---------------------------------------------------------------------------------- *
+ *  The software in this package is published under the terms of the GPL license       *
+ *  a copy of which has been included with this distribution in the license.txt file.  *
+ ***************************************************************************************
+ */
+package com.espertech.esper.runtime.internal.filtersvcimpl;
+
+import com.espertech.esper.common.client.EventBean;
+import com.espertech.esper.common.internal.epl.expression.core.ExprEvaluatorContext;
+
+/**
+ * Returns the primitive key of {@link FilterPrimitiveKeyMap} for the event property value of an event, without boxing the value.
+ * See {@link FilterPrimitiveKeyMap#getKeyEval}.
+ */
+public interface FilterPrimitiveKeyEval {
+    long evalKey(EventBean theEvent, ExprEvaluatorContext ctx);
+}
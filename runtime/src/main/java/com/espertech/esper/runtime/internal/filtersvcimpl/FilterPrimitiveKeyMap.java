@@ -0,0 +1,311 @@
+/*
+ ***************************************************************************************
+ *  Copyright (C) 2006 EsperTech, Inc. All rights reserved.                            *
+ *  http://www.espertech.com/esper                                                     *
+ *  http://www.espertech.com                                                           *
+ *  ---------------------------------------------------------------------------------- *
+ *  The software in this package is published under the terms of the GPL license       *
+ *  a copy of which has been included with this distribution in the license.txt file.  *
+ ***************************************************************************************
+ */
+package com.espertech.esper.runtime.internal.filtersvcimpl;
+
+import com.espertech.esper.common.client.type.EPTypeClass;
+import com.espertech.esper.common.internal.epl.expression.core.ExprEventEvaluator;
+import com.espertech.esper.common.internal.epl.expression.core.ExprEventEvaluatorDouble;
+import com.espertech.esper.common.internal.epl.expression.core.ExprEventEvaluatorLong;
+import com.espertech.esper.common.internal.epl.expression.core.ExprFilterSpecLookupable;
+import com.espertech.esper.common.internal.util.JavaClassHelper;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.BiConsumer;
+
+/**
+ * Map for filter constants of a long, int or double event property that keeps keys as primitive long values in an
+ * open-addressing table, for use by filter indexes in place of a hash map of boxed keys.
+ * <p>
+ * Double keys are kept as their bit pattern so that key equality is the same as for {@link Double#equals(Object)}.
+ * Keys that are null or not of the key class can never equal an event property value and
+ * are kept in a separate hash map.
+ * <p>
+ * The map is not thread-safe, the calling index must provide for locking.
+ */
+public final class FilterPrimitiveKeyMap<V> {
+    private static final int INITIAL_CAPACITY = 8;
+
+    private final Class keyClass;
+    private long[] keys;
+    private Object[] values;
+    private int size;
+    private Map<Object, V> otherKeys;
+
+    /**
+     * Ctor.
+     *
+     * @param keyClass boxed key class, one of Long, Integer or Double
+     */
+    public FilterPrimitiveKeyMap(Class keyClass) {
+        this.keyClass = keyClass;
+        this.keys = new long[INITIAL_CAPACITY];
+        this.values = new Object[INITIAL_CAPACITY];
+    }
+
+    /**
+     * Returns the boxed key class to use for the type of an event property, or null if the type is not a long, int or
+     * double type.
+     *
+     * @param type event property type
+     * @return key class or null when the map cannot be used
+     */
+    public static Class getKeyClass(EPTypeClass type) {
+        if (type == null) {
+            return null;
+        }
+        Class boxed = JavaClassHelper.getBoxedType(type.getType());
+        if (boxed == Long.class || boxed == Integer.class || boxed == Double.class) {
+            return boxed;
+        }
+        return null;
+    }
+
+    /**
+     * Returns the evaluator of the primitive key of the event property value, or null when the lookupable does not
+     * provide the value without boxing.
+     *
+     * @param lookupable lookupable
+     * @param keyClass   boxed key class, one of Long, Integer or Double
+     * @return key evaluator or null
+     */
+    public static FilterPrimitiveKeyEval getKeyEval(ExprFilterSpecLookupable lookupable, Class keyClass) {
+        ExprEventEvaluator eval = lookupable.getEval();
+        if ((keyClass == Long.class || keyClass == Integer.class) && eval instanceof ExprEventEvaluatorLong) {
+            ExprEventEvaluatorLong evalLong = (ExprEventEvaluatorLong) eval;
+            return evalLong::evalLong;
+        }
+        if (keyClass == Double.class && eval instanceof ExprEventEvaluatorDouble) {
+            ExprEventEvaluatorDouble evalDouble = (ExprEventEvaluatorDouble) eval;
+            return (theEvent, ctx) -> Double.doubleToLongBits(evalDouble.evalDouble(theEvent, ctx));
+        }
+        return null;
+    }
+
+    /**
+     * Returns the boxed key class.
+     *
+     * @return key class
+     */
+    public Class getKeyClass() {
+        return keyClass;
+    }
+
+    /**
+     * Returns true if the value is a non-null value of the key class and can be looked up by its primitive key.
+     *
+     * @param value value
+     * @return indicator
+     */
+    public boolean isPrimitiveKey(Object value) {
+        return value != null && value.getClass() == keyClass;
+    }
+
+    /**
+     * Returns the primitive key for a value of the key class.
+     *
+     * @param value value of key class
+     * @return primitive key
+     */
+    public long toPrimitiveKey(Object value) {
+        if (keyClass == Long.class) {
+            return (Long) value;
+        }
+        if (keyClass == Integer.class) {
+            return (Integer) value;
+        }
+        return Double.doubleToLongBits((Double) value);
+    }
+
+    public V get(Object key) {
+        if (!isPrimitiveKey(key)) {
+            return otherKeys == null ? null : otherKeys.get(key);
+        }
+        return getPrimitive(toPrimitiveKey(key));
+    }
+
+    /**
+     * Lookup by primitive key.
+     *
+     * @param key primitive key
+     * @return value or null if not found
+     */
+    public V getPrimitive(long key) {
+        int mask = keys.length - 1;
+        int slot = spread(key) & mask;
+        while (values[slot] != null) {
+            if (keys[slot] == key) {
+                return (V) values[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+        return null;
+    }
+
+    public V put(Object key, V value) {
+        if (!isPrimitiveKey(key)) {
+            if (otherKeys == null) {
+                otherKeys = new HashMap<>();
+            }
+            return otherKeys.put(key, value);
+        }
+        if ((size + 1) * 2 > keys.length) {
+            rehash(keys.length << 1);
+        }
+        long primitive = toPrimitiveKey(key);
+        int mask = keys.length - 1;
+        int slot = spread(primitive) & mask;
+        while (values[slot] != null) {
+            if (keys[slot] == primitive) {
+                V existing = (V) values[slot];
+                values[slot] = value;
+                return existing;
+            }
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = primitive;
+        values[slot] = value;
+        size++;
+        return null;
+    }
+
+    public V remove(Object key) {
+        if (!isPrimitiveKey(key)) {
+            return otherKeys == null ? null : otherKeys.remove(key);
+        }
+        long primitive = toPrimitiveKey(key);
+        int mask = keys.length - 1;
+        int slot = spread(primitive) & mask;
+        while (values[slot] != null) {
+            if (keys[slot] == primitive) {
+                V existing = (V) values[slot];
+                delete(slot);
+                size--;
+                return existing;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return null;
+    }
+
+    public int size() {
+        return size + (otherKeys == null ? 0 : otherKeys.size());
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /**
+     * Returns the number of slots of the primitive key table, for use with {@link #getPrimitiveKeyAt(int)} and {@link #getValueAt(int)}.
+     *
+     * @return number of slots
+     */
+    public int getCapacity() {
+        return keys.length;
+    }
+
+    /**
+     * Returns the primitive key at the slot.
+     *
+     * @param slot slot
+     * @return key, undefined for slots that have no value
+     */
+    public long getPrimitiveKeyAt(int slot) {
+        return keys[slot];
+    }
+
+    /**
+     * Returns the value at the slot.
+     *
+     * @param slot slot
+     * @return value or null for an empty slot
+     */
+    public V getValueAt(int slot) {
+        return (V) values[slot];
+    }
+
+    /**
+     * Returns the keys that are null or not of the key class and their values.
+     *
+     * @return map or null if there are none
+     */
+    public Map<Object, V> getOtherKeys() {
+        return otherKeys == null || otherKeys.isEmpty() ? null : otherKeys;
+    }
+
+    /**
+     * Visit all keys, as boxed keys, and values.
+     *
+     * @param consumer consumer
+     */
+    public void forEach(BiConsumer<Object, V> consumer) {
+        for (int i = 0; i < keys.length; i++) {
+            if (values[i] != null) {
+                consumer.accept(toBoxedKey(keys[i]), (V) values[i]);
+            }
+        }
+        if (otherKeys != null) {
+            otherKeys.forEach(consumer);
+        }
+    }
+
+    private Object toBoxedKey(long key) {
+        if (keyClass == Long.class) {
+            return key;
+        }
+        if (keyClass == Integer.class) {
+            return (int) key;
+        }
+        return Double.longBitsToDouble(key);
+    }
+
+    private void delete(int slot) {
+        // shift back following entries of the same probe sequence
+        int mask = keys.length - 1;
+        int hole = slot;
+        int next = (slot + 1) & mask;
+        while (values[next] != null) {
+            int ideal = spread(keys[next]) & mask;
+            if (((next - ideal) & mask) >= ((next - hole) & mask)) {
+                keys[hole] = keys[next];
+                values[hole] = values[next];
+                hole = next;
+            }
+            next = (next + 1) & mask;
+        }
+        values[hole] = null;
+    }
+
+    private void rehash(int capacity) {
+        long[] oldKeys = keys;
+        Object[] oldValues = values;
+        keys = new long[capacity];
+        values = new Object[capacity];
+        int mask = capacity - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldValues[i] == null) {
+                continue;
+            }
+            int slot = spread(oldKeys[i]) & mask;
+            while (values[slot] != null) {
+                slot = (slot + 1) & mask;
+            }
+            keys[slot] = oldKeys[i];
+            values[slot] = oldValues[i];
+        }
+    }
+
+    private static int spread(long key) {
+        long hash = key * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32));
+    }
+}
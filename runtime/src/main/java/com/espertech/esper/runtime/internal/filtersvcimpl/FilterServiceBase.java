@@ -13,9 +13,12 @@ package com.espertech.esper.runtime.internal.filtersvcimpl;
 import com.espertech.esper.common.client.EventBean;
 import com.espertech.esper.common.client.EventType;
 import com.espertech.esper.common.client.meta.EventTypeIdPair;
+import com.espertech.esper.common.client.metric.FilterEventTypeMetric;
+import com.espertech.esper.common.client.metric.FilterIndexMetric;
 import com.espertech.esper.common.internal.epl.expression.core.ExprEvaluatorContext;
 import com.espertech.esper.common.internal.filterspec.FilterValueSetParam;
 import com.espertech.esper.common.internal.filtersvc.FilterHandle;
+import com.espertech.esper.common.internal.filtersvc.FilterServiceEntry;
 import com.espertech.esper.common.internal.metrics.audit.AuditPath;
 import com.espertech.esper.runtime.internal.metrics.instrumentation.InstrumentationHelper;
 import com.espertech.esper.runtime.internal.metrics.jmx.JmxGetter;
@@ -24,6 +27,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArraySet;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.locks.LockSupport;
@@ -42,13 +46,25 @@ public abstract class FilterServiceBase implements FilterServiceSPI {
     private final AtomicLong numEventsEvaluated = new AtomicLong();
     private volatile long filtersVersion = 1;
     private final CopyOnWriteArraySet<FilterServiceListener> filterServiceListeners;
-
-    protected FilterServiceBase(FilterServiceGranularLockFactory lockFactory, int stageId) {
+    private final EventTypeIndexReorder reorder;
+    private final Map<EventType, FilterEventTypeStats> statsByType = new ConcurrentHashMap<>();
+    private final FilterServiceSettings settings;
+
+    /**
+     * Ctor.
+     *
+     * @param lockFactory lock factory
+     * @param stageId     stage id
+     * @param settings    settings
+     */
+    protected FilterServiceBase(FilterServiceGranularLockFactory lockFactory, int stageId, FilterServiceSettings settings) {
         this.lockFactory = lockFactory;
         this.stageId = stageId;
-        eventTypeIndex = new EventTypeIndex(lockFactory);
+        this.settings = settings;
+        eventTypeIndex = makeEventTypeIndex();
         indexBuilder = new EventTypeIndexBuilder(eventTypeIndex);
         filterServiceListeners = new CopyOnWriteArraySet<FilterServiceListener>();
+        reorder = settings.getReorderInterval() > 0 ? new EventTypeIndexReorder(settings.getReorderInterval()) : null;
     }
 
     public long getFiltersVersion() {
@@ -66,7 +82,13 @@ public abstract class FilterServiceBase implements FilterServiceSPI {
             InstrumentationHelper.get().qFilterAdd(eventType, valueSet, filterCallback);
         }
 
-        indexBuilder.add(eventType, valueSet, filterCallback, lockFactory);
+        FilterValueSetParam[][] ordered = valueSet;
+        if (reorder != null) {
+            reorder.add(eventType, valueSet, filterCallback);
+            ordered = reorder.order(eventType, valueSet);
+        }
+        indexBuilder.add(eventType, ordered, filterCallback, lockFactory);
+        eventTypeIndex.invalidate(eventType);
         filtersVersion++;
 
         if (InstrumentationHelper.ENABLED) {
@@ -80,6 +102,10 @@ public abstract class FilterServiceBase implements FilterServiceSPI {
         }
 
         indexBuilder.remove(filterCallback, eventType, valueSet);
+        eventTypeIndex.invalidate(eventType);
+        if (reorder != null) {
+            reorder.remove(eventType, filterCallback);
+        }
         filtersVersion++;
 
         if (InstrumentationHelper.ENABLED) {
@@ -87,16 +113,91 @@ public abstract class FilterServiceBase implements FilterServiceSPI {
         }
     }
 
+    protected void addAllInternal(Collection<FilterServiceEntry> entries) {
+        if (entries.isEmpty()) {
+            return;
+        }
+        // instrumentation reports per filter
+        if (InstrumentationHelper.ENABLED) {
+            for (FilterServiceEntry entry : entries) {
+                addInternal(entry.getEventType(), entry.getValueSet(), entry.getHandle());
+            }
+            return;
+        }
+        for (Map.Entry<EventType, List<FilterServiceEntry>> byType : groupForAdd(entries).entrySet()) {
+            indexBuilder.add(byType.getKey(), byType.getValue(), lockFactory);
+            eventTypeIndex.invalidate(byType.getKey());
+        }
+        filtersVersion++;
+    }
+
+    protected void removeAllInternal(Collection<FilterServiceEntry> entries) {
+        if (entries.isEmpty()) {
+            return;
+        }
+        // instrumentation reports per filter
+        if (InstrumentationHelper.ENABLED) {
+            for (FilterServiceEntry entry : entries) {
+                removeInternal(entry.getHandle(), entry.getEventType(), entry.getValueSet());
+            }
+            return;
+        }
+        for (Map.Entry<EventType, List<FilterServiceEntry>> byType : groupForRemove(entries).entrySet()) {
+            indexBuilder.remove(byType.getKey(), byType.getValue());
+            eventTypeIndex.invalidate(byType.getKey());
+        }
+        filtersVersion++;
+    }
+
+    /**
+     * Returns the filters to add grouped by event type, so that the root node of each event type is looked up
+     * and its compiled plan discarded once. Applies the filter parameter order by selectivity when reordering.
+     * The caller must hold the write lock.
+     *
+     * @param entries filters to add
+     * @return filters by event type
+     */
+    protected final Map<EventType, List<FilterServiceEntry>> groupForAdd(Collection<FilterServiceEntry> entries) {
+        Collection<FilterServiceEntry> ordered = entries;
+        if (reorder != null) {
+            List<FilterServiceEntry> list = new ArrayList<>(entries.size());
+            for (FilterServiceEntry entry : entries) {
+                reorder.add(entry.getEventType(), entry.getValueSet(), entry.getHandle());
+                list.add(new FilterServiceEntry(entry.getEventType(), reorder.order(entry.getEventType(), entry.getValueSet()), entry.getHandle()));
+            }
+            ordered = list;
+        }
+        return groupByEventType(ordered);
+    }
+
+    /**
+     * Returns the filters to remove grouped by event type. The caller must hold the write lock.
+     *
+     * @param entries filters to remove
+     * @return filters by event type
+     */
+    protected final Map<EventType, List<FilterServiceEntry>> groupForRemove(Collection<FilterServiceEntry> entries) {
+        if (reorder != null) {
+            for (FilterServiceEntry entry : entries) {
+                reorder.remove(entry.getEventType(), entry.getHandle());
+            }
+        }
+        return groupByEventType(entries);
+    }
+
     protected long evaluateInternal(EventBean theEvent, Collection<FilterHandle> matches, ExprEvaluatorContext ctx) {
+        return evaluateInternal(eventTypeIndex, filtersVersion, theEvent, matches, ctx);
+    }
+
+    protected long evaluateInternal(EventTypeIndex index, long version, EventBean theEvent, Collection<FilterHandle> matches, ExprEvaluatorContext ctx) {
         if (InstrumentationHelper.ENABLED) {
             InstrumentationHelper.get().qFilter(theEvent);
         }
 
-        long version = filtersVersion;
         numEventsEvaluated.incrementAndGet();
 
         // Finds all matching filters and return their callbacks.
-        retryableMatchEvent(theEvent, matches, ctx);
+        retryableMatchEvent(index, theEvent, matches, ctx);
 
         if ((AuditPath.isAuditEnabled) && (!filterServiceListeners.isEmpty())) {
             for (FilterServiceListener listener : filterServiceListeners) {
@@ -111,14 +212,44 @@ public abstract class FilterServiceBase implements FilterServiceSPI {
         return version;
     }
 
+    protected long evaluateInternal(EventBean[] events, int count, Collection<FilterHandle>[] matches, ExprEvaluatorContext ctx) {
+        return evaluateInternal(eventTypeIndex, filtersVersion, events, count, matches, ctx);
+    }
+
+    protected long evaluateInternal(EventTypeIndex index, long version, EventBean[] events, int count, Collection<FilterHandle>[] matches, ExprEvaluatorContext ctx) {
+        // instrumentation and audit report per event
+        if (InstrumentationHelper.ENABLED || ((AuditPath.isAuditEnabled) && (!filterServiceListeners.isEmpty()))) {
+            for (int i = 0; i < count; i++) {
+                evaluateInternal(index, version, events[i], matches[i], ctx);
+            }
+            return version;
+        }
+
+        numEventsEvaluated.addAndGet(count);
+
+        try {
+            index.matchEvents(events, count, matches, ctx);
+        } catch (FilterLockBackoffException ex) {
+            // retry per event on lock back-off
+            for (int i = 0; i < count; i++) {
+                matches[i].clear();
+                retryableMatchEvent(index, events[i], matches[i], ctx);
+            }
+        }
+        return version;
+    }
+
     protected long evaluateInternal(EventBean theEvent, Collection<FilterHandle> matches, int statementId, ExprEvaluatorContext ctx) {
-        long version = filtersVersion;
+        return evaluateInternal(eventTypeIndex, filtersVersion, theEvent, matches, statementId, ctx);
+    }
+
+    protected long evaluateInternal(EventTypeIndex index, long version, EventBean theEvent, Collection<FilterHandle> matches, int statementId, ExprEvaluatorContext ctx) {
         numEventsEvaluated.incrementAndGet();
 
         ArrayDeque<FilterHandle> allMatches = new ArrayDeque<FilterHandle>();
 
         // Finds all matching filters
-        retryableMatchEvent(theEvent, allMatches, ctx);
+        retryableMatchEvent(index, theEvent, allMatches, ctx);
 
         // Add statement matches to collection passed
         for (FilterHandle match : allMatches) {
@@ -144,6 +275,27 @@ public abstract class FilterServiceBase implements FilterServiceSPI {
     @JmxOperation(description = "Reset number of events evaluated")
     public void resetStats() {
         numEventsEvaluated.set(0);
+        for (FilterEventTypeStats stats : statsByType.values()) {
+            stats.reset();
+        }
+        if (reorder != null) {
+            reorder.reset(0);
+        }
+    }
+
+    @JmxGetter(name = "NumIndexReorders", description = "Number of times the filter index tree of an event type was reordered by selectivity")
+    public long getNumIndexReorders() {
+        return reorder == null ? 0 : reorder.getNumReorders();
+    }
+
+    @JmxGetter(name = "FilterMetrics", description = "Filter evaluation counters per event type and filter index")
+    public String[] getFilterMetricsRendered() {
+        List<FilterEventTypeMetric> metrics = getMetrics();
+        String[] rendered = new String[metrics.size()];
+        for (int i = 0; i < rendered.length; i++) {
+            rendered[i] = metrics.get(i).toString();
+        }
+        return rendered;
     }
 
     public void addFilterServiceListener(FilterServiceListener filterServiceListener) {
@@ -174,12 +326,121 @@ public abstract class FilterServiceBase implements FilterServiceSPI {
 
     protected void removeTypeInternal(EventType type) {
         eventTypeIndex.removeType(type);
+        removeTypeStats(type);
+        if (reorder != null) {
+            reorder.removeType(type);
+        }
+    }
+
+    /**
+     * Returns the filter evaluation counters of the event types that the index has filters for, and the counters
+     * of the filter parameter indexes of each event type. Events of an event type count against the event type
+     * only if the event type itself has filters. The events evaluated and filters matched are always counted,
+     * the evaluation time and the index counters are zero unless filter metrics are enabled.
+     * The caller must make sure that filters are not changed concurrently.
+     *
+     * @param index event type index
+     * @return metrics
+     */
+    protected List<FilterEventTypeMetric> getMetricsInternal(EventTypeIndex index) {
+        Set<EventType> types = new LinkedHashSet<>(statsByType.keySet());
+        types.addAll(index.getEventTypes());
+
+        List<FilterEventTypeMetric> metrics = new ArrayList<>(types.size());
+        for (EventType type : types) {
+            List<FilterIndexMetric> indexes = new ArrayList<>();
+            FilterHandleSetNode rootNode = index.get(type);
+            if (rootNode != null) {
+                // the same index can be on the path of many filters
+                Set<Object> visited = Collections.newSetFromMap(new IdentityHashMap<>());
+                rootNode.getTraverseStatement((stack, filterHandle) -> {
+                    for (FilterItem item : stack) {
+                        if (item.getIndex() instanceof FilterParamIndexBase && visited.add(item.getIndex())) {
+                            FilterParamIndexBase paramIndex = (FilterParamIndexBase) item.getIndex();
+                            indexes.add(new FilterIndexMetric(item.getName(), item.getOp().name(), paramIndex.sizeExpensive(), paramIndex.getNumLookups(), paramIndex.getNumForwarded()));
+                        }
+                    }
+                }, null, new ArrayDeque<>());
+            }
+            FilterEventTypeStats stats = statsByType.get(type);
+            if (stats == null) {
+                metrics.add(new FilterEventTypeMetric(type.getName(), 0, 0, 0, indexes));
+            } else {
+                metrics.add(new FilterEventTypeMetric(type.getName(), stats.getNumEventsEvaluated(), stats.getNumMatches(), stats.getEvaluationTimeNanos(), indexes));
+            }
+        }
+        return metrics;
+    }
+
+    protected final void removeTypeStats(EventType type) {
+        statsByType.remove(type);
+    }
+
+    /**
+     * Returns true if filter index trees are reordered by selectivity and the number of evaluated events
+     * reached the next reorder.
+     *
+     * @return indicator
+     */
+    protected final boolean isReorderDue() {
+        return reorder != null && reorder.isDue(numEventsEvaluated.get());
+    }
+
+    /**
+     * Reorder the filter index trees by selectivity. The caller must hold the write lock.
+     */
+    protected void reorderInternal() {
+        Map<EventType, Map<FilterHandle, FilterValueSetParam[][]>> reordered = reorder.reorder(eventTypeIndex, numEventsEvaluated.get());
+        for (Map.Entry<EventType, Map<FilterHandle, FilterValueSetParam[][]>> entry : reordered.entrySet()) {
+            EventTypeIndexReorder.rebuild(eventTypeIndex, entry.getKey(), entry.getValue(), lockFactory);
+        }
+    }
+
+    protected final EventTypeIndexReorder getReorder() {
+        return reorder;
+    }
+
+    protected final FilterServiceGranularLockFactory getLockFactory() {
+        return lockFactory;
+    }
+
+    /**
+     * Returns a new, empty event type index with the settings of this filter service.
+     *
+     * @return event type index
+     */
+    protected final EventTypeIndex makeEventTypeIndex() {
+        return new EventTypeIndex(lockFactory, settings, this::getStats);
+    }
+
+    protected final EventTypeIndex getEventTypeIndex() {
+        return eventTypeIndex;
+    }
+
+    protected final EventTypeIndexBuilder getIndexBuilder() {
+        return indexBuilder;
+    }
+
+    private static Map<EventType, List<FilterServiceEntry>> groupByEventType(Collection<FilterServiceEntry> entries) {
+        Map<EventType, List<FilterServiceEntry>> byType = new LinkedHashMap<>();
+        for (FilterServiceEntry entry : entries) {
+            byType.computeIfAbsent(entry.getEventType(), key -> new ArrayList<>()).add(entry);
+        }
+        return byType;
+    }
+
+    private FilterEventTypeStats getStats(EventType eventType) {
+        FilterEventTypeStats stats = statsByType.get(eventType);
+        if (stats == null) {
+            stats = statsByType.computeIfAbsent(eventType, type -> new FilterEventTypeStats());
+        }
+        return stats;
     }
 
-    private void retryableMatchEvent(EventBean theEvent, Collection<FilterHandle> matches, ExprEvaluatorContext ctx) {
+    private void retryableMatchEvent(EventTypeIndex index, EventBean theEvent, Collection<FilterHandle> matches, ExprEvaluatorContext ctx) {
         // Install lock backoff exception handler that retries the evaluation.
         try {
-            eventTypeIndex.matchEvent(theEvent, matches, ctx);
+            index.matchEvent(theEvent, matches, ctx);
         } catch (FilterLockBackoffException ex) {
             // retry on lock back-off
             // lock-backoff may occur when stateful evaluations take place such as boolean expressions that are subqueries
@@ -202,7 +463,7 @@ public abstract class FilterServiceBase implements FilterServiceSPI {
 
                     // evaluate
                     matches.clear();
-                    eventTypeIndex.matchEvent(theEvent, matches, ctx);
+                    index.matchEvent(theEvent, matches, ctx);
                     break;
                 } catch (FilterLockBackoffException ex2) {
                     // retried
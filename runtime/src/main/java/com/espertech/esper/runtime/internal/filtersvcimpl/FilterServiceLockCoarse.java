@@ -13,9 +13,12 @@ package com.espertech.esper.runtime.internal.filtersvcimpl;
 import com.espertech.esper.common.client.EventBean;
 import com.espertech.esper.common.client.EventType;
 import com.espertech.esper.common.client.meta.EventTypeIdPair;
+import com.espertech.esper.common.client.metric.FilterEventTypeMetric;
+import com.espertech.esper.common.internal.collection.ArrayBackedCollection;
 import com.espertech.esper.common.internal.epl.expression.core.ExprEvaluatorContext;
 import com.espertech.esper.common.internal.filterspec.FilterValueSetParam;
 import com.espertech.esper.common.internal.filtersvc.FilterHandle;
+import com.espertech.esper.common.internal.filtersvc.FilterServiceEntry;
 
 import java.util.Collection;
 import java.util.List;
@@ -27,7 +30,17 @@ public final class FilterServiceLockCoarse extends FilterServiceBase {
     private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
 
     public FilterServiceLockCoarse(int stageId) {
-        super(FilterServiceGranularLockFactoryNone.INSTANCE, stageId);
+        this(stageId, FilterServiceSettings.DEFAULT);
+    }
+
+    /**
+     * Ctor.
+     *
+     * @param stageId  stage id
+     * @param settings settings
+     */
+    public FilterServiceLockCoarse(int stageId, FilterServiceSettings settings) {
+        super(FilterServiceGranularLockFactoryNone.INSTANCE, stageId, settings);
     }
 
     public void acquireWriteLock() {
@@ -47,22 +60,55 @@ public final class FilterServiceLockCoarse extends FilterServiceBase {
         }
     }
 
+    public List<FilterEventTypeMetric> getMetrics() {
+        lock.readLock().lock();
+        try {
+            return super.getMetricsInternal(getEventTypeIndex());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
     public long evaluate(EventBean theEvent, Collection<FilterHandle> matches, ExprEvaluatorContext ctx) {
+        long version;
+        lock.readLock().lock();
+        try {
+            version = super.evaluateInternal(theEvent, matches, ctx);
+        } finally {
+            lock.readLock().unlock();
+        }
+        if (isReorderDue()) {
+            reorderIfUncontended();
+        }
+        return version;
+    }
+
+    public long evaluate(EventBean[] events, int count, ArrayBackedCollection<FilterHandle>[] matches, ExprEvaluatorContext ctx) {
+        long version;
         lock.readLock().lock();
         try {
-            return super.evaluateInternal(theEvent, matches, ctx);
+            version = super.evaluateInternal(events, count, matches, ctx);
         } finally {
             lock.readLock().unlock();
         }
+        if (isReorderDue()) {
+            reorderIfUncontended();
+        }
+        return version;
     }
 
     public long evaluate(EventBean theEvent, Collection<FilterHandle> matches, int statementId, ExprEvaluatorContext ctx) {
+        long version;
         lock.readLock().lock();
         try {
-            return super.evaluateInternal(theEvent, matches, statementId, ctx);
+            version = super.evaluateInternal(theEvent, matches, statementId, ctx);
         } finally {
             lock.readLock().unlock();
         }
+        if (isReorderDue()) {
+            reorderIfUncontended();
+        }
+        return version;
     }
 
     public void add(EventType eventType, FilterValueSetParam[][] valueSet, FilterHandle callback) {
@@ -83,6 +129,24 @@ public final class FilterServiceLockCoarse extends FilterServiceBase {
         }
     }
 
+    public void addAll(Collection<FilterServiceEntry> entries) {
+        lock.writeLock().lock();
+        try {
+            super.addAllInternal(entries);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void removeAll(Collection<FilterServiceEntry> entries) {
+        lock.writeLock().lock();
+        try {
+            super.removeAllInternal(entries);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
     public void removeType(EventType type) {
         lock.writeLock().lock();
         try {
@@ -91,4 +155,18 @@ public final class FilterServiceLockCoarse extends FilterServiceBase {
             lock.writeLock().unlock();
         }
     }
+
+    private void reorderIfUncontended() {
+        // a thread that holds a read lock or that changes filters does not reorder
+        if (lock.isWriteLockedByCurrentThread() || !lock.writeLock().tryLock()) {
+            return;
+        }
+        try {
+            if (isReorderDue()) {
+                super.reorderInternal();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
 }
@@ -13,9 +13,12 @@ package com.espertech.esper.runtime.internal.filtersvcimpl;
 import com.espertech.esper.common.client.EventBean;
 import com.espertech.esper.common.client.EventType;
 import com.espertech.esper.common.client.meta.EventTypeIdPair;
+import com.espertech.esper.common.client.metric.FilterEventTypeMetric;
+import com.espertech.esper.common.internal.collection.ArrayBackedCollection;
 import com.espertech.esper.common.internal.epl.expression.core.ExprEvaluatorContext;
 import com.espertech.esper.common.internal.filterspec.FilterValueSetParam;
 import com.espertech.esper.common.internal.filtersvc.FilterHandle;
+import com.espertech.esper.common.internal.filtersvc.FilterServiceEntry;
 
 import java.util.Collection;
 import java.util.List;
@@ -27,7 +30,7 @@ public final class FilterServiceLockFine extends FilterServiceBase {
     private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
 
     public FilterServiceLockFine(int stageId) {
-        super(new FilterServiceGranularLockFactoryReentrant(), stageId);
+        super(new FilterServiceGranularLockFactoryReentrant(), stageId, FilterServiceSettings.DEFAULT);
     }
 
     public void acquireWriteLock() {
@@ -47,6 +50,15 @@ public final class FilterServiceLockFine extends FilterServiceBase {
         }
     }
 
+    public List<FilterEventTypeMetric> getMetrics() {
+        lock.readLock().lock();
+        try {
+            return super.getMetricsInternal(getEventTypeIndex());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
     public long evaluate(EventBean theEvent, Collection<FilterHandle> matches, ExprEvaluatorContext ctx) {
         lock.readLock().lock();
         try {
@@ -56,6 +68,15 @@ public final class FilterServiceLockFine extends FilterServiceBase {
         }
     }
 
+    public long evaluate(EventBean[] events, int count, ArrayBackedCollection<FilterHandle>[] matches, ExprEvaluatorContext ctx) {
+        lock.readLock().lock();
+        try {
+            return super.evaluateInternal(events, count, matches, ctx);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
     public long evaluate(EventBean theEvent, Collection<FilterHandle> matches, int statementId, ExprEvaluatorContext ctx) {
         lock.readLock().lock();
         try {
@@ -73,6 +94,14 @@ public final class FilterServiceLockFine extends FilterServiceBase {
         super.removeInternal(callback, eventType, valueSet);
     }
 
+    public void addAll(Collection<FilterServiceEntry> entries) {
+        super.addAllInternal(entries);
+    }
+
+    public void removeAll(Collection<FilterServiceEntry> entries) {
+        super.removeAllInternal(entries);
+    }
+
     public void removeType(EventType type) {
         super.removeTypeInternal(type);
     }
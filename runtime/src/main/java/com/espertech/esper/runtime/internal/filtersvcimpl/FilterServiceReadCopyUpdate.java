@@ -0,0 +1,372 @@
+/*
+ ***************************************************************************************
+ *  Copyright (C) 2006 EsperTech, Inc. All rights reserved.                            *
+ *  http://www.espertech.com/esper                                                     *
+ *  http://www.espertech.com                                                           *
+ *  ---------------------------------------------------------------------------------- *
+ *  The software in this package is published under the terms of the GPL license       *
+ *  a copy of which has been included with this distribution in the license.txt file.  *
+ ***************************************************************************************
+ */
+package com.espertech.esper.runtime.internal.filtersvcimpl;
+
+import com.espertech.esper.common.client.EventBean;
+import com.espertech.esper.common.client.EventType;
+import com.espertech.esper.common.client.meta.EventTypeIdPair;
+import com.espertech.esper.common.client.metric.FilterEventTypeMetric;
+import com.espertech.esper.common.internal.collection.ArrayBackedCollection;
+import com.espertech.esper.common.internal.epl.expression.core.ExprEvaluatorContext;
+import com.espertech.esper.common.internal.filterspec.FilterValueSetParam;
+import com.espertech.esper.common.internal.filtersvc.FilterHandle;
+import com.espertech.esper.common.internal.filtersvc.FilterServiceEntry;
+import com.espertech.esper.runtime.internal.metrics.instrumentation.InstrumentationHelper;
+
+import java.util.*;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * Filter service that evaluates events without taking a lock, for filters that are frequently added and removed
+ * while many threads send events.
+ * <p>
+ * The service keeps two copies of the filter indexes. Event evaluation reads the published copy, which does not change
+ * while any thread evaluates against it. Filter changes apply to the other copy. Publishing makes that copy the published
+ * copy, waits until evaluations that may still read the previously-published copy are complete, and then applies
+ * the same changes to the previously-published copy. Filter changes made between {@link #acquireWriteLock()} and
+ * {@link #releaseWriteLock()}, and filters added or removed by {@link #addAll(Collection)} and {@link #removeAll(Collection)},
+ * are published together.
+ * <p>
+ * An evaluation only increments and decrements a counter of a {@link FilterServiceReadIndicator}, which is striped
+ * by thread so that concurrently evaluating threads do not contend. An evaluation by the thread
+ * that holds the write lock reads the copy that holds the changes not yet published.
+ */
+public final class FilterServiceReadCopyUpdate extends FilterServiceBase {
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private final FilterServiceCopy[] copies = new FilterServiceCopy[2];
+    private final FilterServiceReadIndicator[] readIndicators = new FilterServiceReadIndicator[]{new FilterServiceReadIndicator(), new FilterServiceReadIndicator()};
+    private final List<Consumer<FilterServiceCopy>> unpublished = new ArrayList<>();
+    private volatile int publishedIndex;
+    private volatile int readIndicatorIndex;
+    private volatile long filtersVersion = 1;
+    private long numPublished;
+
+    public FilterServiceReadCopyUpdate(int stageId) {
+        this(stageId, FilterServiceSettings.DEFAULT);
+    }
+
+    /**
+     * Ctor.
+     *
+     * @param stageId  stage id
+     * @param settings settings
+     */
+    public FilterServiceReadCopyUpdate(int stageId, FilterServiceSettings settings) {
+        super(FilterServiceGranularLockFactoryNone.INSTANCE, stageId, settings);
+        copies[0] = new FilterServiceCopy(getEventTypeIndex(), getIndexBuilder());
+        EventTypeIndex secondIndex = makeEventTypeIndex();
+        copies[1] = new FilterServiceCopy(secondIndex, new EventTypeIndexBuilder(secondIndex));
+    }
+
+    public long getFiltersVersion() {
+        return filtersVersion;
+    }
+
+    /**
+     * Returns the number of times that filter changes were published.
+     *
+     * @return count
+     */
+    public long getNumPublished() {
+        writeLock.lock();
+        try {
+            return numPublished;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    public void acquireWriteLock() {
+        writeLock.lock();
+    }
+
+    public void releaseWriteLock() {
+        try {
+            if (writeLock.getHoldCount() == 1) {
+                publish();
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    public Map<EventTypeIdPair, Map<Integer, List<FilterItem[]>>> get(Set<Integer> statementId) {
+        writeLock.lock();
+        try {
+            return unpublishedCopy().builder.get(statementId);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    public List<FilterEventTypeMetric> getMetrics() {
+        if (writeLock.isHeldByCurrentThread()) {
+            return super.getMetricsInternal(unpublishedCopy().index);
+        }
+        FilterServiceReadIndicator indicator = readIndicators[readIndicatorIndex];
+        int stripe = indicator.arrive();
+        try {
+            return super.getMetricsInternal(copies[publishedIndex].index);
+        } finally {
+            indicator.depart(stripe);
+        }
+    }
+
+    public long evaluate(EventBean theEvent, Collection<FilterHandle> matches, ExprEvaluatorContext ctx) {
+        if (writeLock.isHeldByCurrentThread()) {
+            FilterServiceCopy copy = unpublishedCopy();
+            return super.evaluateInternal(copy.index, filtersVersion, theEvent, matches, ctx);
+        }
+        long version;
+        FilterServiceReadIndicator indicator = readIndicators[readIndicatorIndex];
+        int stripe = indicator.arrive();
+        try {
+            FilterServiceCopy copy = copies[publishedIndex];
+            version = super.evaluateInternal(copy.index, copy.version, theEvent, matches, ctx);
+        } finally {
+            indicator.depart(stripe);
+        }
+        if (isReorderDue()) {
+            reorderIfUncontended();
+        }
+        return version;
+    }
+
+    public long evaluate(EventBean[] events, int count, ArrayBackedCollection<FilterHandle>[] matches, ExprEvaluatorContext ctx) {
+        if (writeLock.isHeldByCurrentThread()) {
+            FilterServiceCopy copy = unpublishedCopy();
+            return super.evaluateInternal(copy.index, filtersVersion, events, count, matches, ctx);
+        }
+        long version;
+        FilterServiceReadIndicator indicator = readIndicators[readIndicatorIndex];
+        int stripe = indicator.arrive();
+        try {
+            FilterServiceCopy copy = copies[publishedIndex];
+            version = super.evaluateInternal(copy.index, copy.version, events, count, matches, ctx);
+        } finally {
+            indicator.depart(stripe);
+        }
+        if (isReorderDue()) {
+            reorderIfUncontended();
+        }
+        return version;
+    }
+
+    public long evaluate(EventBean theEvent, Collection<FilterHandle> matches, int statementId, ExprEvaluatorContext ctx) {
+        if (writeLock.isHeldByCurrentThread()) {
+            FilterServiceCopy copy = unpublishedCopy();
+            return super.evaluateInternal(copy.index, filtersVersion, theEvent, matches, statementId, ctx);
+        }
+        long version;
+        FilterServiceReadIndicator indicator = readIndicators[readIndicatorIndex];
+        int stripe = indicator.arrive();
+        try {
+            FilterServiceCopy copy = copies[publishedIndex];
+            version = super.evaluateInternal(copy.index, copy.version, theEvent, matches, statementId, ctx);
+        } finally {
+            indicator.depart(stripe);
+        }
+        if (isReorderDue()) {
+            reorderIfUncontended();
+        }
+        return version;
+    }
+
+    public void add(EventType eventType, FilterValueSetParam[][] valueSet, FilterHandle callback) {
+        writeLock.lock();
+        try {
+            if (InstrumentationHelper.ENABLED) {
+                InstrumentationHelper.get().qFilterAdd(eventType, valueSet, callback);
+            }
+
+            FilterValueSetParam[][] ordered = valueSet;
+            EventTypeIndexReorder reorder = getReorder();
+            if (reorder != null) {
+                reorder.add(eventType, valueSet, callback);
+                ordered = reorder.order(eventType, valueSet);
+            }
+            FilterValueSetParam[][] orderedValueSet = ordered;
+            change(copy -> {
+                copy.builder.add(eventType, orderedValueSet, callback, FilterServiceGranularLockFactoryNone.INSTANCE);
+                copy.index.invalidate(eventType);
+            });
+
+            if (InstrumentationHelper.ENABLED) {
+                InstrumentationHelper.get().aFilterAdd();
+            }
+        } finally {
+            releaseWriteLock();
+        }
+    }
+
+    public void remove(FilterHandle callback, EventType eventType, FilterValueSetParam[][] valueSet) {
+        writeLock.lock();
+        try {
+            if (InstrumentationHelper.ENABLED) {
+                InstrumentationHelper.get().qFilterRemove(callback, eventType, valueSet);
+            }
+
+            change(copy -> {
+                copy.builder.remove(callback, eventType, valueSet);
+                copy.index.invalidate(eventType);
+            });
+            if (getReorder() != null) {
+                getReorder().remove(eventType, callback);
+            }
+
+            if (InstrumentationHelper.ENABLED) {
+                InstrumentationHelper.get().aFilterRemove();
+            }
+        } finally {
+            releaseWriteLock();
+        }
+    }
+
+    public void addAll(Collection<FilterServiceEntry> entries) {
+        if (entries.isEmpty()) {
+            return;
+        }
+        // instrumentation reports per filter
+        if (InstrumentationHelper.ENABLED) {
+            for (FilterServiceEntry entry : entries) {
+                add(entry.getEventType(), entry.getValueSet(), entry.getHandle());
+            }
+            return;
+        }
+        writeLock.lock();
+        try {
+            Map<EventType, List<FilterServiceEntry>> byType = groupForAdd(entries);
+            change(copy -> {
+                for (Map.Entry<EventType, List<FilterServiceEntry>> entry : byType.entrySet()) {
+                    copy.builder.add(entry.getKey(), entry.getValue(), FilterServiceGranularLockFactoryNone.INSTANCE);
+                    copy.index.invalidate(entry.getKey());
+                }
+            });
+        } finally {
+            releaseWriteLock();
+        }
+    }
+
+    public void removeAll(Collection<FilterServiceEntry> entries) {
+        if (entries.isEmpty()) {
+            return;
+        }
+        // instrumentation reports per filter
+        if (InstrumentationHelper.ENABLED) {
+            for (FilterServiceEntry entry : entries) {
+                remove(entry.getHandle(), entry.getEventType(), entry.getValueSet());
+            }
+            return;
+        }
+        writeLock.lock();
+        try {
+            Map<EventType, List<FilterServiceEntry>> byType = groupForRemove(entries);
+            change(copy -> {
+                for (Map.Entry<EventType, List<FilterServiceEntry>> entry : byType.entrySet()) {
+                    copy.builder.remove(entry.getKey(), entry.getValue());
+                    copy.index.invalidate(entry.getKey());
+                }
+            });
+        } finally {
+            releaseWriteLock();
+        }
+    }
+
+    public void removeType(EventType type) {
+        writeLock.lock();
+        try {
+            change(copy -> copy.index.removeType(type));
+            removeTypeStats(type);
+            if (getReorder() != null) {
+                getReorder().removeType(type);
+            }
+        } finally {
+            releaseWriteLock();
+        }
+    }
+
+    public void destroy() {
+        super.destroy();
+        copies[1].builder.destroy();
+    }
+
+    private void reorderIfUncontended() {
+        if (writeLock.isHeldByCurrentThread() || !writeLock.tryLock()) {
+            return;
+        }
+        try {
+            if (isReorderDue()) {
+                // fan-out is counted by the published copy, which does not change while holding the write lock
+                Map<EventType, Map<FilterHandle, FilterValueSetParam[][]>> reordered = getReorder().reorder(copies[publishedIndex].index, getNumEventsEvaluated());
+                for (Map.Entry<EventType, Map<FilterHandle, FilterValueSetParam[][]>> entry : reordered.entrySet()) {
+                    change(copy -> EventTypeIndexReorder.rebuild(copy.index, entry.getKey(), entry.getValue(), FilterServiceGranularLockFactoryNone.INSTANCE));
+                }
+            }
+        } finally {
+            releaseWriteLock();
+        }
+    }
+
+    private void change(Consumer<FilterServiceCopy> change) {
+        change.accept(unpublishedCopy());
+        unpublished.add(change);
+        filtersVersion++;
+    }
+
+    private FilterServiceCopy unpublishedCopy() {
+        return copies[1 - publishedIndex];
+    }
+
+    private void publish() {
+        if (unpublished.isEmpty()) {
+            return;
+        }
+
+        // publish the changed copy
+        int changedIndex = 1 - publishedIndex;
+        copies[changedIndex].version = filtersVersion;
+        publishedIndex = changedIndex;
+
+        // wait for evaluations that may have read the previously-published copy
+        int indicatorIndex = readIndicatorIndex;
+        awaitNoReaders(1 - indicatorIndex);
+        readIndicatorIndex = 1 - indicatorIndex;
+        awaitNoReaders(indicatorIndex);
+
+        // bring the previously-published copy up to date
+        FilterServiceCopy previous = copies[1 - changedIndex];
+        for (Consumer<FilterServiceCopy> change : unpublished) {
+            change.accept(previous);
+        }
+        previous.version = filtersVersion;
+        unpublished.clear();
+        numPublished++;
+    }
+
+    private void awaitNoReaders(int indicatorIndex) {
+        FilterServiceReadIndicator indicator = readIndicators[indicatorIndex];
+        while (!indicator.isEmpty()) {
+            Thread.yield();
+        }
+    }
+
+    private static final class FilterServiceCopy {
+        private final EventTypeIndex index;
+        private final EventTypeIndexBuilder builder;
+        private volatile long version = 1;
+
+        FilterServiceCopy(EventTypeIndex index, EventTypeIndexBuilder builder) {
+            this.index = index;
+            this.builder = builder;
+        }
+    }
+}
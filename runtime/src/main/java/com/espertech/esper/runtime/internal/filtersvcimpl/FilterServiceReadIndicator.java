@@ -0,0 +1,84 @@
+/*
+ ***************************************************************************************
+ *  Copyright (C) 2006 EsperTech, Inc. All rights reserved.                            *
+ *  http://www.espertech.com/esper                                                     *
+ *  http://www.espertech.com                                                           *
+ *  ---------------------------------------------------------------------------------- *
+ *  The software in this package is published under the terms of the GPL license       *
+ *  a copy of which has been included with this distribution in the license.txt file.  *
+ ***************************************************************************************
+ */
+package com.espertech.esper.runtime.internal.filtersvcimpl;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Counts the threads that read a copy of the filter indexes, for use by {@link FilterServiceReadCopyUpdate}.
+ * <p>
+ * The count is striped: a thread arrives and departs at the stripe of its thread id, and each stripe is padded
+ * to its own cache line, so that threads evaluating events concurrently do not contend on a single counter.
+ * The indicator is empty when each stripe is zero.
+ */
+public final class FilterServiceReadIndicator {
+    private static final int PADDING = 16;
+    private static final int MAX_STRIPES = 64;
+
+    private final AtomicLongArray stripes;
+    private final int mask;
+
+    /**
+     * Ctor.
+     */
+    public FilterServiceReadIndicator() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Ctor.
+     *
+     * @param numThreads expected number of concurrently reading threads
+     */
+    public FilterServiceReadIndicator(int numThreads) {
+        int numStripes = 1;
+        while (numStripes < numThreads && numStripes < MAX_STRIPES) {
+            numStripes <<= 1;
+        }
+        mask = numStripes - 1;
+        stripes = new AtomicLongArray((numStripes + 1) * PADDING);
+    }
+
+    /**
+     * Count the current thread as reading.
+     *
+     * @return stripe to pass to {@link #depart(int)}
+     */
+    public int arrive() {
+        int stripe = ((int) Thread.currentThread().getId() & mask) * PADDING + PADDING;
+        stripes.incrementAndGet(stripe);
+        return stripe;
+    }
+
+    /**
+     * Count the current thread as no longer reading.
+     *
+     * @param stripe as returned by {@link #arrive()}
+     */
+    public void depart(int stripe) {
+        stripes.decrementAndGet(stripe);
+    }
+
+    /**
+     * Returns true when no thread is counted as reading.
+     * A thread that arrives during the check may or may not be counted.
+     *
+     * @return empty indicator
+     */
+    public boolean isEmpty() {
+        for (int i = PADDING; i < stripes.length(); i += PADDING) {
+            if (stripes.get(i) != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -10,8 +10,13 @@
  */
 package com.espertech.esper.runtime.internal.filtersvcimpl;
 
+import com.espertech.esper.common.client.EventBean;
 import com.espertech.esper.common.client.EventType;
 import com.espertech.esper.common.client.meta.EventTypeIdPair;
+import com.espertech.esper.common.client.metric.FilterEventTypeMetric;
+import com.espertech.esper.common.internal.collection.ArrayBackedCollection;
+import com.espertech.esper.common.internal.epl.expression.core.ExprEvaluatorContext;
+import com.espertech.esper.common.internal.filtersvc.FilterHandle;
 import com.espertech.esper.common.internal.filtersvc.FilterService;
 
 import java.util.Collection;
@@ -24,6 +29,24 @@ import java.util.function.Supplier;
  * Service provider interface for filter service.
  */
 public interface FilterServiceSPI extends FilterService {
+    /**
+     * Finds matching filters for each of a block of events and collects their associated callback methods.
+     * Consecutive events of the same event type are evaluated together: the filter index tree of the
+     * event type is looked up and locked once for the block and each index of the root node evaluates
+     * the whole block before the next index.
+     * <p>
+     * The result is the same as evaluating each event in turn without any filter change between events.
+     * The caller must therefore not process matches of an event, which may add or remove filters or change
+     * state that filter expressions depend on, before evaluating the later events of the block.
+     *
+     * @param events  events to be matched against filters
+     * @param count   number of events in the array to evaluate, starting at the first element
+     * @param matches per-event collections, populated via add method with the handles for the event at the same position
+     * @param ctx     filter evaluator context
+     * @return filter current version
+     */
+    public long evaluate(EventBean[] events, int count, ArrayBackedCollection<FilterHandle>[] matches, ExprEvaluatorContext ctx);
+
     /**
      * Get a set of statements of out the active filters, returning filters.
      *
@@ -48,6 +71,14 @@ public interface FilterServiceSPI extends FilterService {
 
     public int getFilterCountApprox();
 
+    /**
+     * Returns the filter evaluation counters per event type, including the counters of the filter parameter
+     * indexes of each event type. The counters are maintained without locking and are approximate.
+     *
+     * @return metrics
+     */
+    public List<FilterEventTypeMetric> getMetrics();
+
     public int getCountTypes();
 
     /**
@@ -0,0 +1,68 @@
+/*
+ ***************************************************************************************
+ *  Copyright (C) 2006 EsperTech, Inc. All rights reserved.                            *
+ *  http://www.espertech.com/esper                                                     *
+ *  http://www.espertech.com                                                           *
+ *  ---------------------------------------------------------------------------------- *
+ *  The software in this package is published under the terms of the GPL license       *
+ *  a copy of which has been included with this distribution in the license.txt file.  *
+ ***************************************************************************************
+ */
+package com.espertech.esper.runtime.internal.filtersvcimpl;
+
+/**
+ * Settings of the filter service that control compiling, reordering, bitmap indexes and metrics.
+ */
+public final class FilterServiceSettings {
+    /**
+     * Settings that do not compile, do not reorder, do not use bitmap indexes and do not count.
+     */
+    public final static FilterServiceSettings DEFAULT = new FilterServiceSettings(0, 0, false, false);
+
+    private final int compileThreshold;
+    private final long reorderInterval;
+    private final boolean inBitmap;
+    private final boolean metrics;
+
+    /**
+     * Ctor.
+     *
+     * @param compileThreshold number of events of an event type evaluated without filter changes after which
+     *                         the filter index tree of the event type gets compiled, or zero to not compile
+     * @param reorderInterval  number of events evaluated after which the filter index trees get reordered
+     *                         by selectivity, or zero to not reorder
+     * @param inBitmap         whether to use bitmap indexes for in and not-in filter parameters
+     * @param metrics          whether to count filter evaluations per event type and filter index
+     */
+    public FilterServiceSettings(int compileThreshold, long reorderInterval, boolean inBitmap, boolean metrics) {
+        this.compileThreshold = compileThreshold;
+        this.reorderInterval = reorderInterval;
+        this.inBitmap = inBitmap;
+        this.metrics = metrics;
+    }
+
+    public int getCompileThreshold() {
+        return compileThreshold;
+    }
+
+    public long getReorderInterval() {
+        return reorderInterval;
+    }
+
+    public boolean isInBitmap() {
+        return inBitmap;
+    }
+
+    public boolean isMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Returns indicator whether the indexes of filter index trees count lookups, for reordering by selectivity and for filter metrics.
+     *
+     * @return indicator
+     */
+    public boolean isCountLookups() {
+        return reorderInterval > 0 || metrics;
+    }
+}
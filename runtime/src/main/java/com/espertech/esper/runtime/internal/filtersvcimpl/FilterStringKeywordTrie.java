@@ -0,0 +1,272 @@
+/*
+ ***************************************************************************************
+ *  Copyright (C) 2006 EsperTech, Inc. All rights reserved.                            *
+ *  http://www.espertech.com/esper                                                     *
+ *  http://www.espertech.com                                                           *
+ *  ---------------------------------------------------------------------------------- *
+ *  The software in this package is published under the terms of the GPL license       *
+ *  a copy of which has been included with this distribution in the license.txt file.  *
+ ***************************************************************************************
+ */
+package com.espertech.esper.runtime.internal.filtersvcimpl;
+
+import com.espertech.esper.common.client.EventBean;
+import com.espertech.esper.common.internal.epl.expression.core.ExprEvaluatorContext;
+import com.espertech.esper.common.internal.filtersvc.FilterHandle;
+
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.BiConsumer;
+
+/**
+ * Trie of string keywords, for use by the like and regexp filter parameter indexes to find the keywords
+ * that a string starts with, ends with or contains with a single scan of the string.
+ * <p>
+ * A trie for keywords that a string ends with keeps the keywords reversed, see {@link #FilterStringKeywordTrie(boolean)}.
+ * Finding the keywords that a string contains uses the Aho-Corasick automaton of the trie. The failure links of
+ * the automaton are computed by the first search after keywords were added or removed. Adding and removing
+ * keywords takes time proportional to the keyword length. Searches do not allocate, the values found are passed
+ * to a {@link FilterStringKeywordTrieVisitor}.
+ * <p>
+ * Adding and removing keywords is not thread-safe, the calling index must provide for locking. Searches can be
+ * performed by multiple threads at the same time.
+ */
+public final class FilterStringKeywordTrie<V> {
+    private final boolean reversed;
+    private final Node<V> root = new Node<>(null, '\0');
+    private int size;
+    private volatile boolean linked = true;
+
+    /**
+     * Ctor.
+     *
+     * @param reversed true to keep keywords reversed, for finding the keywords that a string ends with
+     */
+    public FilterStringKeywordTrie(boolean reversed) {
+        this.reversed = reversed;
+    }
+
+    public V get(String keyword) {
+        Node<V> node = root;
+        int length = keyword.length();
+        for (int i = 0; i < length && node != null; i++) {
+            node = node.child(charAt(keyword, i));
+        }
+        return node == null ? null : node.value;
+    }
+
+    public V put(String keyword, V value) {
+        Node<V> node = root;
+        int length = keyword.length();
+        for (int i = 0; i < length; i++) {
+            char c = charAt(keyword, i);
+            Node<V> child = node.child(c);
+            if (child == null) {
+                child = new Node<>(node, c);
+                if (node.children == null) {
+                    node.children = new HashMap<>(4);
+                }
+                node.children.put(c, child);
+            }
+            node = child;
+        }
+        V existing = node.value;
+        node.value = value;
+        node.keyword = keyword;
+        if (existing == null) {
+            size++;
+        }
+        linked = false;
+        return existing;
+    }
+
+    public V remove(String keyword) {
+        Node<V> node = root;
+        int length = keyword.length();
+        for (int i = 0; i < length && node != null; i++) {
+            node = node.child(charAt(keyword, i));
+        }
+        if (node == null || node.value == null) {
+            return null;
+        }
+        V existing = node.value;
+        node.value = null;
+        node.keyword = null;
+        size--;
+
+        // remove nodes that no longer lead to a keyword
+        while (node.parent != null && node.value == null && (node.children == null || node.children.isEmpty())) {
+            node.parent.children.remove(node.c);
+            node = node.parent;
+        }
+        linked = false;
+        return existing;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Visit all keywords, as added, and values.
+     *
+     * @param consumer consumer
+     */
+    public void forEach(BiConsumer<String, V> consumer) {
+        forEach(root, new StringBuilder(), consumer);
+    }
+
+    /**
+     * Visit the values of all keywords that the text starts with or, for a reversed trie, that the text ends with.
+     *
+     * @param text     text
+     * @param visitor  visitor
+     * @param theEvent event passed to the visitor
+     * @param matches  matches passed to the visitor
+     * @param ctx      context passed to the visitor
+     * @return sum of the counts returned by the visitor
+     */
+    public int matchPrefixes(String text, FilterStringKeywordTrieVisitor<V> visitor, EventBean theEvent, Collection<FilterHandle> matches, ExprEvaluatorContext ctx) {
+        int count = 0;
+        Node<V> node = root;
+        int length = text.length();
+        for (int i = 0; ; i++) {
+            if (node.value != null) {
+                count += visitor.visit(node.value, text, theEvent, matches, ctx);
+            }
+            if (i == length) {
+                return count;
+            }
+            node = node.child(charAt(text, i));
+            if (node == null) {
+                return count;
+            }
+        }
+    }
+
+    /**
+     * Visit the values of all keywords that the text contains, each value at most once.
+     *
+     * @param text     text
+     * @param visitor  visitor
+     * @param theEvent event passed to the visitor
+     * @param matches  matches passed to the visitor
+     * @param ctx      context passed to the visitor
+     * @return sum of the counts returned by the visitor
+     */
+    public int matchContained(String text, FilterStringKeywordTrieVisitor<V> visitor, EventBean theEvent, Collection<FilterHandle> matches, ExprEvaluatorContext ctx) {
+        if (!linked) {
+            link();
+        }
+        int count = 0;
+        if (root.value != null) {
+            count += visitor.visit(root.value, text, theEvent, matches, ctx);
+        }
+        Node<V> state = root;
+        int length = text.length();
+        for (int i = 0; i < length; i++) {
+            char c = charAt(text, i);
+            Node<V> next = state.child(c);
+            while (next == null && state != root) {
+                state = state.failure;
+                next = state.child(c);
+            }
+            state = next == null ? root : next;
+
+            // visit the keywords that end here, keywords can occur more than once and are visited at their first occurrence
+            Node<V> output = state.value != null ? state : state.output;
+            while (output != null && output != root) {
+                if (isFirstOccurrence(text, output.keyword, i)) {
+                    count += visitor.visit(output.value, text, theEvent, matches, ctx);
+                }
+                output = output.output;
+            }
+        }
+        return count;
+    }
+
+    private synchronized void link() {
+        if (linked) {
+            return;
+        }
+        // breadth-first, so that the failure node of a node is linked before the node
+        ArrayDeque<Node<V>> queue = new ArrayDeque<>();
+        root.failure = root;
+        root.output = null;
+        if (root.children != null) {
+            for (Node<V> child : root.children.values()) {
+                child.failure = root;
+                child.output = null;
+                queue.add(child);
+            }
+        }
+        while (!queue.isEmpty()) {
+            Node<V> node = queue.poll();
+            if (node.children == null) {
+                continue;
+            }
+            for (Node<V> child : node.children.values()) {
+                Node<V> failure = node.failure;
+                Node<V> next = failure.child(child.c);
+                while (next == null && failure != root) {
+                    failure = failure.failure;
+                    next = failure.child(child.c);
+                }
+                child.failure = next == null ? root : next;
+                child.output = child.failure.value != null ? child.failure : child.failure.output;
+                queue.add(child);
+            }
+        }
+        linked = true;
+    }
+
+    private void forEach(Node<V> node, StringBuilder keyword, BiConsumer<String, V> consumer) {
+        if (node.value != null) {
+            consumer.accept(reversed ? new StringBuilder(keyword).reverse().toString() : keyword.toString(), node.value);
+        }
+        if (node.children == null) {
+            return;
+        }
+        for (Node<V> child : node.children.values()) {
+            keyword.append(child.c);
+            forEach(child, keyword, consumer);
+            keyword.setLength(keyword.length() - 1);
+        }
+    }
+
+    private boolean isFirstOccurrence(String text, String keyword, int end) {
+        if (reversed) {
+            return text.lastIndexOf(keyword) == text.length() - 1 - end;
+        }
+        return text.indexOf(keyword) == end - keyword.length() + 1;
+    }
+
+    private char charAt(String text, int index) {
+        return reversed ? text.charAt(text.length() - 1 - index) : text.charAt(index);
+    }
+
+    private static final class Node<V> {
+        private final Node<V> parent;
+        private final char c;
+        private Map<Character, Node<V>> children;
+        private V value;
+        private String keyword;
+        private Node<V> failure;
+        private Node<V> output;
+
+        Node(Node<V> parent, char c) {
+            this.parent = parent;
+            this.c = c;
+        }
+
+        Node<V> child(char c) {
+            return children == null ? null : children.get(c);
+        }
+    }
+}
@@ -0,0 +1,35 @@
+/*
+ ***************************************************************************************
+ *  Copyright (C) 2006 EsperTech, Inc. All rights reserved.                            *
+ *  http://www.espertech.com/esper                                                     *
+ *  http://www.espertech.com                                                           *
+ *  ---------------------------------------------------------------------------------- *
+ *  The software in this package is published under the terms of the GPL license       *
+ *  a copy of which has been included with this distribution in the license.txt file.  *
+ ***************************************************************************************
+ */
+package com.espertech.esper.runtime.internal.filtersvcimpl;
+
+import com.espertech.esper.common.client.EventBean;
+import com.espertech.esper.common.internal.epl.expression.core.ExprEvaluatorContext;
+import com.espertech.esper.common.internal.filtersvc.FilterHandle;
+
+import java.util.Collection;
+
+/**
+ * Visitor for the values of the keywords that a {@link FilterStringKeywordTrie} finds in a string.
+ * The event and matches are passed along so that an index can use a single visitor instance for all events.
+ */
+public interface FilterStringKeywordTrieVisitor<V> {
+    /**
+     * Visit the value of a keyword found in the text.
+     *
+     * @param value    value of the keyword
+     * @param text     text that was searched
+     * @param theEvent event
+     * @param matches  matches
+     * @param ctx      context
+     * @return number of evaluators that the event was forwarded to
+     */
+    int visit(V value, String text, EventBean theEvent, Collection<FilterHandle> matches, ExprEvaluatorContext ctx);
+}
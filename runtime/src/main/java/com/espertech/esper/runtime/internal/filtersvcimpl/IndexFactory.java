@@ -32,18 +32,66 @@ public class IndexFactory {
      * @return the proper index based on the filter operator type
      */
     public static FilterParamIndexBase createIndex(ExprFilterSpecLookupable lookupable, FilterServiceGranularLockFactory lockFactory, FilterOperator filterOperator) {
+        return createIndex(lookupable, lockFactory, filterOperator, false);
+    }
+
+    /**
+     * Factory for indexes that store filter parameter constants for a given event property and filter
+     * operator.
+     * <p>Does not perform any check of validity of property name.
+     *
+     * @param filterOperator is the type of index to use
+     * @param lockFactory    lock factory
+     * @param lookupable     the lookup item
+     * @param inBitmap       whether to use bitmap indexes for the in and not-in operators
+     * @return the proper index based on the filter operator type
+     */
+    public static FilterParamIndexBase createIndex(ExprFilterSpecLookupable lookupable, FilterServiceGranularLockFactory lockFactory, FilterOperator filterOperator, boolean inBitmap) {
+        return createIndex(lookupable, lockFactory, filterOperator, inBitmap, false);
+    }
+
+    /**
+     * Factory for indexes that store filter parameter constants for a given event property and filter
+     * operator.
+     * <p>Does not perform any check of validity of property name.
+     *
+     * @param filterOperator is the type of index to use
+     * @param lockFactory    lock factory
+     * @param lookupable     the lookup item
+     * @param inBitmap       whether to use bitmap indexes for the in and not-in operators
+     * @param countLookups   whether the index counts lookups, for reordering by selectivity and for filter metrics
+     * @return the proper index based on the filter operator type
+     */
+    public static FilterParamIndexBase createIndex(ExprFilterSpecLookupable lookupable, FilterServiceGranularLockFactory lockFactory, FilterOperator filterOperator, boolean inBitmap, boolean countLookups) {
+        FilterParamIndexBase index = makeIndex(lookupable, lockFactory, filterOperator, inBitmap);
+        if (countLookups) {
+            index.enableCountLookups();
+        }
+        return index;
+    }
+
+    private static FilterParamIndexBase makeIndex(ExprFilterSpecLookupable lookupable, FilterServiceGranularLockFactory lockFactory, FilterOperator filterOperator, boolean inBitmap) {
         FilterParamIndexBase index;
         EPTypeClass returnValueType = lookupable.getReturnType();
+        Class primitiveKeyClass = FilterPrimitiveKeyMap.getKeyClass(returnValueType);
 
         // Handle all EQUAL comparisons
         if (filterOperator == FilterOperator.EQUAL) {
-            index = new FilterParamIndexEquals(lookupable, lockFactory.obtainNew());
+            if (primitiveKeyClass != null) {
+                index = new FilterParamIndexEqualsPrimitive(lookupable, lockFactory.obtainNew(), primitiveKeyClass);
+            } else {
+                index = new FilterParamIndexEquals(lookupable, lockFactory.obtainNew());
+            }
             return index;
         }
 
         // Handle all NOT-EQUAL comparisons
         if (filterOperator == FilterOperator.NOT_EQUAL) {
-            index = new FilterParamIndexNotEquals(lookupable, lockFactory.obtainNew());
+            if (primitiveKeyClass != null) {
+                index = new FilterParamIndexNotEqualsPrimitive(lookupable, lockFactory.obtainNew(), primitiveKeyClass);
+            } else {
+                index = new FilterParamIndexNotEquals(lookupable, lockFactory.obtainNew());
+            }
             return index;
         }
 
@@ -89,12 +137,29 @@ public class IndexFactory {
 
         // Handle all IN and NOT IN comparisons
         if (filterOperator == FilterOperator.IN_LIST_OF_VALUES) {
+            if (inBitmap) {
+                return new FilterParamIndexInBitmap(lookupable, lockFactory.obtainNew());
+            }
+            if (primitiveKeyClass != null) {
+                return new FilterParamIndexInPrimitive(lookupable, lockFactory.obtainNew(), primitiveKeyClass);
+            }
             return new FilterParamIndexIn(lookupable, lockFactory.obtainNew());
         }
         if (filterOperator == FilterOperator.NOT_IN_LIST_OF_VALUES) {
+            if (inBitmap) {
+                return new FilterParamIndexNotInBitmap(lookupable, lockFactory.obtainNew());
+            }
             return new FilterParamIndexNotIn(lookupable, lockFactory.obtainNew());
         }
 
+        // Handle like and regexp patterns
+        if (filterOperator == FilterOperator.LIKE) {
+            return new FilterParamIndexLike(lookupable, lockFactory.obtainNew());
+        }
+        if (filterOperator == FilterOperator.REGEXP) {
+            return new FilterParamIndexRegexp(lookupable, lockFactory.obtainNew());
+        }
+
         // Handle re-usable boolean expression
         if (filterOperator == FilterOperator.REBOOL) {
             if (lookupable.getReturnType() == null) {
@@ -39,6 +39,44 @@ public final class IndexTreeBuilderAdd {
                            FilterHandle filterCallback,
                            FilterHandleSetNode topNode,
                            FilterServiceGranularLockFactory lockFactory) {
+        add(valueSet, filterCallback, topNode, lockFactory, false);
+    }
+
+    /**
+     * Add a filter callback according to the filter specification to the top node returning
+     * information to be used to remove the filter callback.
+     *
+     * @param valueSet       is the filter definition
+     * @param filterCallback is the callback to be added
+     * @param topNode        node to be added to any subnode beneath it
+     * @param lockFactory    lock factory
+     * @param inBitmap       whether to use bitmap indexes for in and not-in filter parameters
+     */
+    public static void add(FilterValueSetParam[][] valueSet,
+                           FilterHandle filterCallback,
+                           FilterHandleSetNode topNode,
+                           FilterServiceGranularLockFactory lockFactory,
+                           boolean inBitmap) {
+        add(valueSet, filterCallback, topNode, lockFactory, inBitmap, false);
+    }
+
+    /**
+     * Add a filter callback according to the filter specification to the top node returning
+     * information to be used to remove the filter callback.
+     *
+     * @param valueSet       is the filter definition
+     * @param filterCallback is the callback to be added
+     * @param topNode        node to be added to any subnode beneath it
+     * @param lockFactory    lock factory
+     * @param inBitmap       whether to use bitmap indexes for in and not-in filter parameters
+     * @param countLookups   whether new indexes count lookups, for reordering by selectivity and for filter metrics
+     */
+    public static void add(FilterValueSetParam[][] valueSet,
+                           FilterHandle filterCallback,
+                           FilterHandleSetNode topNode,
+                           FilterServiceGranularLockFactory lockFactory,
+                           boolean inBitmap,
+                           boolean countLookups) {
         if ((ExecutionPathDebugLog.isDebugEnabled) && (log.isDebugEnabled())) {
             log.debug(".add (" + Thread.currentThread().getId() + ") Adding filter callback, " +
                     "  topNode=" + topNode +
@@ -46,13 +84,13 @@ public final class IndexTreeBuilderAdd {
         }
 
         if (valueSet.length == 0) {
-            addToNode(new ArrayDeque<FilterValueSetParam>(1), filterCallback, topNode, lockFactory);
+            addToNode(new ArrayDeque<FilterValueSetParam>(1), filterCallback, topNode, lockFactory, inBitmap, countLookups);
         } else {
             ArrayDeque<FilterValueSetParam> remainingParameters = new ArrayDeque<FilterValueSetParam>(4);
             for (int i = 0; i < valueSet.length; i++) {
                 remainingParameters.clear();
                 Collections.addAll(remainingParameters, valueSet[i]);
-                addToNode(remainingParameters, filterCallback, topNode, lockFactory);
+                addToNode(remainingParameters, filterCallback, topNode, lockFactory, inBitmap, countLookups);
             }
         }
     }
@@ -65,7 +103,9 @@ public final class IndexTreeBuilderAdd {
     private static void addToNode(ArrayDeque<FilterValueSetParam> remainingParameters,
                                   FilterHandle filterCallback,
                                   FilterHandleSetNode currentNode,
-                                  FilterServiceGranularLockFactory lockFactory) {
+                                  FilterServiceGranularLockFactory lockFactory,
+                                  boolean inBitmap,
+                                  boolean countLookups) {
 
         // If no parameters are specified, add to current node, and done
         if (remainingParameters.isEmpty()) {
@@ -89,7 +129,7 @@ public final class IndexTreeBuilderAdd {
                 remainingParameters.remove(pair.getFirst());
                 Object filterForValue = pair.getFirst().getFilterForValue();
                 FilterParamIndexBase index = pair.getSecond();
-                addToIndex(remainingParameters, filterCallback, index, filterForValue, lockFactory);
+                addToIndex(remainingParameters, filterCallback, index, filterForValue, lockFactory, inBitmap, countLookups);
                 return;
             }
         } finally {
@@ -106,7 +146,7 @@ public final class IndexTreeBuilderAdd {
                 remainingParameters.remove(pair.getFirst());
                 Object filterForValue = pair.getFirst().getFilterForValue();
                 FilterParamIndexBase index = pair.getSecond();
-                addToIndex(remainingParameters, filterCallback, index, filterForValue, lockFactory);
+                addToIndex(remainingParameters, filterCallback, index, filterForValue, lockFactory, inBitmap, countLookups);
                 return;
             }
 
@@ -114,10 +154,10 @@ public final class IndexTreeBuilderAdd {
             // Pick the next parameter for an index
             FilterValueSetParam parameterPickedForIndex = remainingParameters.removeFirst();
 
-            FilterParamIndexBase index = IndexFactory.createIndex(parameterPickedForIndex.getLookupable(), lockFactory, parameterPickedForIndex.getFilterOperator());
+            FilterParamIndexBase index = IndexFactory.createIndex(parameterPickedForIndex.getLookupable(), lockFactory, parameterPickedForIndex.getFilterOperator(), inBitmap, countLookups);
 
             currentNode.add(index);
-            addToIndex(remainingParameters, filterCallback, index, parameterPickedForIndex.getFilterForValue(), lockFactory);
+            addToIndex(remainingParameters, filterCallback, index, parameterPickedForIndex.getFilterForValue(), lockFactory, inBitmap, countLookups);
         } finally {
             currentNode.getNodeRWLock().writeLock().unlock();
         }
@@ -133,7 +173,9 @@ public final class IndexTreeBuilderAdd {
                                    FilterHandle filterCallback,
                                    FilterParamIndexBase index,
                                    Object filterForValue,
-                                   FilterServiceGranularLockFactory lockFactory) {
+                                   FilterServiceGranularLockFactory lockFactory,
+                                   boolean inBitmap,
+                                  boolean countLookups) {
 
         index.getReadWriteLock().readLock().lock();
         EventEvaluator eventEvaluator;
@@ -142,7 +184,7 @@ public final class IndexTreeBuilderAdd {
 
             // The filter parameter value already existed in bean, add and release locks
             if (eventEvaluator != null) {
-                boolean added = addToEvaluator(remainingParameters, filterCallback, eventEvaluator, lockFactory);
+                boolean added = addToEvaluator(remainingParameters, filterCallback, eventEvaluator, lockFactory, inBitmap, countLookups);
                 if (added) {
                     return;
                 }
@@ -158,7 +200,7 @@ public final class IndexTreeBuilderAdd {
 
             // It may exist now since another thread could have added the entry
             if (eventEvaluator != null) {
-                boolean added = addToEvaluator(remainingParameters, filterCallback, eventEvaluator, lockFactory);
+                boolean added = addToEvaluator(remainingParameters, filterCallback, eventEvaluator, lockFactory, inBitmap, countLookups);
                 if (added) {
                     return;
                 }
@@ -169,7 +211,7 @@ public final class IndexTreeBuilderAdd {
                 newNode.add(nextIndex);
                 index.remove(filterForValue);
                 index.put(filterForValue, newNode);
-                addToNode(remainingParameters, filterCallback, newNode, lockFactory);
+                addToNode(remainingParameters, filterCallback, newNode, lockFactory, inBitmap, countLookups);
 
                 return;
             }
@@ -178,7 +220,7 @@ public final class IndexTreeBuilderAdd {
             // if there are no remaining parameters, create a node
             if (remainingParameters.isEmpty()) {
                 FilterHandleSetNode node = new FilterHandleSetNode(lockFactory.obtainNew());
-                addToNode(remainingParameters, filterCallback, node, lockFactory);
+                addToNode(remainingParameters, filterCallback, node, lockFactory, inBitmap, countLookups);
                 index.put(filterForValue, node);
                 return;
             }
@@ -186,10 +228,10 @@ public final class IndexTreeBuilderAdd {
             // If there are remaining parameters, create a new index for the next parameter
             FilterValueSetParam parameterPickedForIndex = remainingParameters.removeFirst();
 
-            FilterParamIndexBase nextIndex = IndexFactory.createIndex(parameterPickedForIndex.getLookupable(), lockFactory, parameterPickedForIndex.getFilterOperator());
+            FilterParamIndexBase nextIndex = IndexFactory.createIndex(parameterPickedForIndex.getLookupable(), lockFactory, parameterPickedForIndex.getFilterOperator(), inBitmap, countLookups);
 
             index.put(filterForValue, nextIndex);
-            addToIndex(remainingParameters, filterCallback, nextIndex, parameterPickedForIndex.getFilterForValue(), lockFactory);
+            addToIndex(remainingParameters, filterCallback, nextIndex, parameterPickedForIndex.getFilterForValue(), lockFactory, inBitmap, countLookups);
         } finally {
             index.getReadWriteLock().writeLock().unlock();
         }
@@ -204,10 +246,12 @@ public final class IndexTreeBuilderAdd {
     private static boolean addToEvaluator(ArrayDeque<FilterValueSetParam> remainingParameters,
                                           FilterHandle filterCallback,
                                           EventEvaluator eventEvaluator,
-                                          FilterServiceGranularLockFactory lockFactory) {
+                                          FilterServiceGranularLockFactory lockFactory,
+                                          boolean inBitmap,
+                                  boolean countLookups) {
         if (eventEvaluator instanceof FilterHandleSetNode) {
             FilterHandleSetNode node = (FilterHandleSetNode) eventEvaluator;
-            addToNode(remainingParameters, filterCallback, node, lockFactory);
+            addToNode(remainingParameters, filterCallback, node, lockFactory, inBitmap, countLookups);
             return true;
         }
 
@@ -217,7 +261,7 @@ public final class IndexTreeBuilderAdd {
         FilterValueSetParam parameter = IndexHelper.findParameter(remainingParameters, nextIndex);
         if (parameter != null) {
             remainingParameters.remove(parameter);
-            addToIndex(remainingParameters, filterCallback, nextIndex, parameter.getFilterForValue(), lockFactory);
+            addToIndex(remainingParameters, filterCallback, nextIndex, parameter.getFilterForValue(), lockFactory, inBitmap, countLookups);
             return true;
         }
 
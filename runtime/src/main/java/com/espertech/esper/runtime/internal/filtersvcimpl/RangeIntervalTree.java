@@ -0,0 +1,321 @@
+/*
+ ***************************************************************************************
+ *  Copyright (C) 2006 EsperTech, Inc. All rights reserved.                            *
+ *  http://www.espertech.com/esper                                                     *
+ *  http://www.espertech.com                                                           *
+ *  ---------------------------------------------------------------------------------- *
+ *  The software in this package is published under the terms of the GPL license       *
+ *  a copy of which has been included with this distribution in the license.txt file.  *
+ ***************************************************************************************
+ */
+package com.espertech.esper.runtime.internal.filtersvcimpl;
+
+import com.espertech.esper.common.client.EventBean;
+import com.espertech.esper.common.internal.epl.expression.core.ExprEvaluatorContext;
+import com.espertech.esper.common.internal.filterspec.Range;
+import com.espertech.esper.common.internal.filtersvc.FilterHandle;
+
+import java.util.Collection;
+import java.util.function.BiConsumer;
+
+/**
+ * Interval tree of ranges with non-null endpoints, for use by the range and not-range filter parameter indexes.
+ * <p>
+ * The tree is a balanced (AVL) binary search tree ordered the same as {@link DoubleRangeComparator} and
+ * {@link StringRangeComparator}, by range start and then range end, comparing endpoints by their natural order. Each node keeps, for its subtree, the largest range start and the smallest and the largest
+ * range end. A query for the ranges that contain a value, or that do not contain a value, skips all subtrees that
+ * cannot have a matching range and thereby takes O(log n + k) for k matching ranges, independent of the width
+ * of the ranges. Queries do not allocate and visit matching ranges in the order of the tree.
+ * <p>
+ * The tree is not thread-safe, the calling index must provide for locking.
+ *
+ * @param <R> range type
+ * @param <K> endpoint and value type
+ */
+public final class RangeIntervalTree<R extends Range, K extends Comparable<K>> {
+    private Node<R, K> root;
+    private int size;
+
+    /**
+     * Returns the evaluator for the range.
+     *
+     * @param range range
+     * @return evaluator or null if the range is not found
+     */
+    public EventEvaluator get(R range) {
+        K min = lowEndpoint(range);
+        K max = highEndpoint(range);
+        Node<R, K> node = root;
+        while (node != null) {
+            int comp = compare(min, max, node);
+            if (comp == 0) {
+                return node.evaluator;
+            }
+            node = comp < 0 ? node.left : node.right;
+        }
+        return null;
+    }
+
+    /**
+     * Add or replace the evaluator for the range.
+     *
+     * @param range     range
+     * @param evaluator evaluator
+     */
+    public void put(R range, EventEvaluator evaluator) {
+        root = insert(root, range, evaluator);
+    }
+
+    /**
+     * Remove the range.
+     *
+     * @param range range
+     */
+    public void remove(R range) {
+        root = delete(root, lowEndpoint(range), highEndpoint(range));
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Visit all ranges and evaluators in the order of the tree.
+     *
+     * @param consumer consumer
+     */
+    public void forEach(BiConsumer<R, EventEvaluator> consumer) {
+        forEach(root, consumer);
+    }
+
+    /**
+     * Evaluate the event against the evaluators of all ranges that contain the value.
+     *
+     * @param value      value
+     * @param includeMin true if a value equal to the range start is contained
+     * @param includeMax true if a value equal to the range end is contained
+     * @param theEvent   event
+     * @param matches    matches
+     * @param ctx        evaluation context
+     * @return number of matching ranges
+     */
+    public int matchContaining(K value, boolean includeMin, boolean includeMax, EventBean theEvent, Collection<FilterHandle> matches, ExprEvaluatorContext ctx) {
+        return matchContaining(root, value, includeMin, includeMax, theEvent, matches, ctx);
+    }
+
+    /**
+     * Evaluate the event against the evaluators of all ranges that do not contain the value.
+     *
+     * @param value      value
+     * @param includeMin true if a value equal to the range start is contained
+     * @param includeMax true if a value equal to the range end is contained
+     * @param theEvent   event
+     * @param matches    matches
+     * @param ctx        evaluation context
+     * @return number of matching ranges
+     */
+    public int matchNotContaining(K value, boolean includeMin, boolean includeMax, EventBean theEvent, Collection<FilterHandle> matches, ExprEvaluatorContext ctx) {
+        return matchNotContaining(root, value, includeMin, includeMax, theEvent, matches, ctx);
+    }
+
+    private static <R extends Range, K extends Comparable<K>> int matchContaining(Node<R, K> node, K value, boolean includeMin, boolean includeMax, EventBean theEvent, Collection<FilterHandle> matches, ExprEvaluatorContext ctx) {
+        int count = 0;
+        while (node != null) {
+            // no range of the subtree ends at or after the value
+            if (node.maxOfMax.compareTo(value) < 0) {
+                return count;
+            }
+            count += matchContaining(node.left, value, includeMin, includeMax, theEvent, matches, ctx);
+            // this and all ranges to the right start after the value
+            if (node.min.compareTo(value) > 0) {
+                return count;
+            }
+            int compMin = node.min.compareTo(value);
+            int compMax = node.max.compareTo(value);
+            if ((includeMin ? compMin <= 0 : compMin < 0) && (includeMax ? compMax >= 0 : compMax > 0)) {
+                node.evaluator.matchEvent(theEvent, matches, ctx);
+                count++;
+            }
+            node = node.right;
+        }
+        return count;
+    }
+
+    private static <R extends Range, K extends Comparable<K>> int matchNotContaining(Node<R, K> node, K value, boolean includeMin, boolean includeMax, EventBean theEvent, Collection<FilterHandle> matches, ExprEvaluatorContext ctx) {
+        int count = 0;
+        while (node != null) {
+            // all ranges of the subtree start before and end after the value
+            if (node.maxOfMin.compareTo(value) < 0 && node.minOfMax.compareTo(value) > 0) {
+                return count;
+            }
+            count += matchNotContaining(node.left, value, includeMin, includeMax, theEvent, matches, ctx);
+            int compMin = node.min.compareTo(value);
+            int compMax = node.max.compareTo(value);
+            if ((includeMin ? compMin > 0 : compMin >= 0) || (includeMax ? compMax < 0 : compMax <= 0)) {
+                node.evaluator.matchEvent(theEvent, matches, ctx);
+                count++;
+            }
+            node = node.right;
+        }
+        return count;
+    }
+
+    private static <R extends Range> void forEach(Node<R, ?> node, BiConsumer<R, EventEvaluator> consumer) {
+        while (node != null) {
+            forEach(node.left, consumer);
+            consumer.accept(node.range, node.evaluator);
+            node = node.right;
+        }
+    }
+
+    private Node<R, K> insert(Node<R, K> node, R range, EventEvaluator evaluator) {
+        if (node == null) {
+            size++;
+            return new Node<>(range, lowEndpoint(range), highEndpoint(range), evaluator);
+        }
+        int comp = compare(lowEndpoint(range), highEndpoint(range), node);
+        if (comp == 0) {
+            node.evaluator = evaluator;
+            return node;
+        }
+        if (comp < 0) {
+            node.left = insert(node.left, range, evaluator);
+        } else {
+            node.right = insert(node.right, range, evaluator);
+        }
+        return balance(node);
+    }
+
+    private Node<R, K> delete(Node<R, K> node, K min, K max) {
+        if (node == null) {
+            return null;
+        }
+        int comp = compare(min, max, node);
+        if (comp < 0) {
+            node.left = delete(node.left, min, max);
+        } else if (comp > 0) {
+            node.right = delete(node.right, min, max);
+        } else {
+            if (node.left == null || node.right == null) {
+                size--;
+                return node.left == null ? node.right : node.left;
+            }
+            Node<R, K> successor = node.right;
+            while (successor.left != null) {
+                successor = successor.left;
+            }
+            node.range = successor.range;
+            node.min = successor.min;
+            node.max = successor.max;
+            node.evaluator = successor.evaluator;
+            node.right = delete(node.right, successor.min, successor.max);
+        }
+        return balance(node);
+    }
+
+    private static <R extends Range, K extends Comparable<K>> Node<R, K> balance(Node<R, K> node) {
+        int diff = height(node.left) - height(node.right);
+        if (diff > 1) {
+            if (height(node.left.left) < height(node.left.right)) {
+                node.left = rotateLeft(node.left);
+            }
+            return rotateRight(node);
+        }
+        if (diff < -1) {
+            if (height(node.right.right) < height(node.right.left)) {
+                node.right = rotateRight(node.right);
+            }
+            return rotateLeft(node);
+        }
+        update(node);
+        return node;
+    }
+
+    private static <R extends Range, K extends Comparable<K>> Node<R, K> rotateRight(Node<R, K> node) {
+        Node<R, K> left = node.left;
+        node.left = left.right;
+        left.right = node;
+        update(node);
+        update(left);
+        return left;
+    }
+
+    private static <R extends Range, K extends Comparable<K>> Node<R, K> rotateLeft(Node<R, K> node) {
+        Node<R, K> right = node.right;
+        node.right = right.left;
+        right.left = node;
+        update(node);
+        update(right);
+        return right;
+    }
+
+    private static <R extends Range, K extends Comparable<K>> void update(Node<R, K> node) {
+        node.height = 1 + Math.max(height(node.left), height(node.right));
+        K maxOfMax = node.max;
+        K minOfMax = node.max;
+        if (node.left != null) {
+            maxOfMax = max(maxOfMax, node.left.maxOfMax);
+            minOfMax = min(minOfMax, node.left.minOfMax);
+        }
+        if (node.right != null) {
+            maxOfMax = max(maxOfMax, node.right.maxOfMax);
+            minOfMax = min(minOfMax, node.right.minOfMax);
+        }
+        node.maxOfMax = maxOfMax;
+        node.minOfMax = minOfMax;
+        node.maxOfMin = node.right == null ? node.min : node.right.maxOfMin;
+    }
+
+    private static int height(Node<?, ?> node) {
+        return node == null ? 0 : node.height;
+    }
+
+    private static <K extends Comparable<K>> int compare(K min, K max, Node<?, K> node) {
+        int minCompared = min.compareTo(node.min);
+        if (minCompared != 0) {
+            return minCompared;
+        }
+        return max.compareTo(node.max);
+    }
+
+    private static <K extends Comparable<K>> K max(K one, K two) {
+        return one.compareTo(two) >= 0 ? one : two;
+    }
+
+    private static <K extends Comparable<K>> K min(K one, K two) {
+        return one.compareTo(two) <= 0 ? one : two;
+    }
+
+    private K lowEndpoint(R range) {
+        return (K) range.getLowEndpoint();
+    }
+
+    private K highEndpoint(R range) {
+        return (K) range.getHighEndpoint();
+    }
+
+    private static final class Node<R extends Range, K extends Comparable<K>> {
+        private R range;
+        private K min;
+        private K max;
+        private EventEvaluator evaluator;
+        private Node<R, K> left;
+        private Node<R, K> right;
+        private int height;
+        private K maxOfMin;
+        private K minOfMax;
+        private K maxOfMax;
+
+        Node(R range, K min, K max, EventEvaluator evaluator) {
+            this.range = range;
+            this.min = min;
+            this.max = max;
+            this.evaluator = evaluator;
+            update(this);
+        }
+    }
+}
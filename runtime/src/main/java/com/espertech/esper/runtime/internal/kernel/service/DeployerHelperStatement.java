@@ -10,6 +10,7 @@
  */
 package com.espertech.esper.runtime.internal.kernel.service;
 
+import com.espertech.esper.common.client.util.FilterServiceProfile;
 import com.espertech.esper.common.client.util.NameAccessModifier;
 import com.espertech.esper.common.client.util.StatementProperty;
 import com.espertech.esper.common.internal.context.aifactory.core.StatementAgentInstanceFactory;
@@ -25,6 +26,7 @@ import com.espertech.esper.common.internal.statement.resource.StatementResourceH
 import com.espertech.esper.common.internal.view.core.Viewable;
 import com.espertech.esper.runtime.client.EPDeployException;
 import com.espertech.esper.runtime.client.EPStatement;
+import com.espertech.esper.runtime.internal.filtersvcimpl.FilterServiceSPI;
 import com.espertech.esper.runtime.internal.kernel.statement.EPStatementFactoryArgs;
 import com.espertech.esper.runtime.internal.kernel.statement.EPStatementSPI;
 import com.espertech.esper.runtime.internal.metrics.instrumentation.InstrumentationHelper;
@@ -44,6 +46,12 @@ public class DeployerHelperStatement {
             InstrumentationHelper.get().qRuntimeManagementDeploy(epRuntime.getURI(), deploymentId, lightweights.size());
         }
 
+        // with read-copy-update, start the filters of all statements in a single filter change
+        FilterServiceSPI filterService = epRuntime.getServicesContext().getFilterService();
+        boolean batchFilterChanges = isBatchFilterChanges(epRuntime.getServicesContext());
+        if (batchFilterChanges) {
+            filterService.acquireWriteLock();
+        }
         try {
             EPStatement[] statements = new EPStatement[lightweights.size()];
             int count = 0;
@@ -70,12 +78,27 @@ public class DeployerHelperStatement {
             }
             return statements;
         } finally {
+            if (batchFilterChanges) {
+                filterService.releaseWriteLock();
+            }
             if (InstrumentationHelper.ENABLED) {
                 InstrumentationHelper.get().aRuntimeManagementDeploy(epRuntime.getURI());
             }
         }
     }
 
+    /**
+     * Returns indicator whether the filter changes of the statements of a deployment or undeployment are made
+     * holding the filter service write lock, so that the read-copy-update filter service publishes them as one change.
+     * Other filter service profiles do not hold the write lock, as it would block event evaluation while statements start.
+     *
+     * @param services services
+     * @return indicator
+     */
+    static boolean isBatchFilterChanges(EPServicesContext services) {
+        return services.getConfigSnapshot().getRuntime().getExecution().getFilterServiceProfile() == FilterServiceProfile.READCOPYUPDATE;
+    }
+
     private static EPStatementSPI deployStatement(boolean recovery, StatementLightweight lightweight, EPRuntimeSPI epRuntime) {
         // statement-create: safe operation for registering things
         StatementAgentInstanceFactory statementAgentInstanceFactory = lightweight.getStatementContext().getStatementAIFactoryProvider().getFactory();
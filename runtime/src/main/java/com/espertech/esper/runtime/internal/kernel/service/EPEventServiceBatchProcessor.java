@@ -0,0 +1,28 @@
+/*
+ ***************************************************************************************
+ *  Copyright (C) 2006 EsperTech, Inc. All rights reserved.                            *
+ *  http://www.espertech.com/esper                                                     *
+ *  http://www.espertech.com                                                           *
+ *  ---------------------------------------------------------------------------------- *
+ *  The software in this package is published under the terms of the GPL license       *
+ *  a copy of which has been included with this distribution in the license.txt file.  *
+ ***************************************************************************************
+ */
+package com.espertech.esper.runtime.internal.kernel.service;
+
+import com.espertech.esper.common.client.EventBean;
+
+/**
+ * Event processing steps used by {@link EPEventServiceHelper#processWrappedEventBatch} to process a batch of events.
+ */
+public interface EPEventServiceBatchProcessor {
+    void processWrappedEvent(EventBean eventBean, EPEventServiceThreadLocalEntry tlEntry);
+
+    void processWrappedEventBatch(EventBean[] eventBeans, int count);
+
+    void processMatches(EventBean theEvent, EPEventServiceThreadLocalEntry tlEntry);
+
+    void dispatch();
+
+    void processThreadWorkQueue();
+}
@@ -27,11 +27,13 @@ import com.espertech.esper.common.internal.metrics.instrumentation.Instrumentati
 import com.espertech.esper.common.internal.schedule.SchedulingService;
 import com.espertech.esper.common.internal.schedule.TimeProvider;
 import com.espertech.esper.common.internal.settings.ExceptionHandlingService;
+import com.espertech.esper.runtime.internal.filtersvcimpl.FilterCompiledPlanScratch;
+import com.espertech.esper.runtime.internal.filtersvcimpl.FilterCompiledPlanScratchProvider;
 
 import java.lang.annotation.Annotation;
 import java.util.TimeZone;
 
-public class EPEventServiceExprEvaluatorContext implements ExprEvaluatorContext {
+public class EPEventServiceExprEvaluatorContext implements ExprEvaluatorContext, FilterCompiledPlanScratchProvider {
     private final String runtimeURI;
     private final EventBeanService eventBeanService;
     private final ExceptionHandlingService exceptionHandlingService;
@@ -41,6 +43,7 @@ public class EPEventServiceExprEvaluatorContext implements ExprEvaluatorContext
     private final VariableManagementService variableManagementService;
     private final ExpressionResultCacheService expressionResultCacheService;
     private Object filterReboolConstant;
+    private final FilterCompiledPlanScratch filterCompiledPlanScratch = new FilterCompiledPlanScratch();
 
     public EPEventServiceExprEvaluatorContext(String runtimeURI, EventBeanService eventBeanService, ExceptionHandlingService exceptionHandlingService, ExpressionResultCacheService expressionResultCacheService, SchedulingService schedulingService, TimeZone timeZone, TimeAbacus timeAbacus, VariableManagementService variableManagementService) {
         this.runtimeURI = runtimeURI;
@@ -53,6 +56,10 @@ public class EPEventServiceExprEvaluatorContext implements ExprEvaluatorContext
         this.variableManagementService = variableManagementService;
     }
 
+    public FilterCompiledPlanScratch getFilterCompiledPlanScratch() {
+        return filterCompiledPlanScratch;
+    }
+
     public TimeProvider getTimeProvider() {
         return schedulingService;
     }
@@ -10,6 +10,8 @@
  */
 package com.espertech.esper.runtime.internal.kernel.service;
 
+import com.espertech.esper.common.client.EPException;
+import com.espertech.esper.common.client.EventBean;
 import com.espertech.esper.common.client.configuration.Configuration;
 import com.espertech.esper.common.client.hook.exception.ExceptionHandlerExceptionType;
 import com.espertech.esper.common.client.hook.expr.EventBeanService;
@@ -20,17 +22,28 @@ import com.espertech.esper.common.internal.context.util.StatementAgentInstanceLo
 import com.espertech.esper.common.internal.epl.enummethod.cache.ExpressionResultCacheService;
 import com.espertech.esper.common.internal.epl.expression.core.ExprEvaluatorContext;
 import com.espertech.esper.common.internal.epl.expression.time.abacus.TimeAbacus;
+import com.espertech.esper.common.internal.epl.namedwindow.consume.NamedWindowDispatchService;
 import com.espertech.esper.common.internal.epl.variable.core.VariableManagementService;
 import com.espertech.esper.common.internal.filtersvc.FilterHandle;
 import com.espertech.esper.common.internal.schedule.ScheduleHandle;
 import com.espertech.esper.common.internal.schedule.ScheduleHandleCallback;
 import com.espertech.esper.common.internal.schedule.SchedulingService;
 import com.espertech.esper.common.internal.settings.ExceptionHandlingService;
+import com.espertech.esper.common.internal.statement.dispatch.DispatchService;
+import com.espertech.esper.common.internal.statement.dispatch.Dispatchable;
+import com.espertech.esper.common.internal.util.ManagedReadWriteLock;
 import com.espertech.esper.runtime.internal.metrics.instrumentation.InstrumentationHelper;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
 import java.util.*;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
 
 public class EPEventServiceHelper {
+    private static final Logger log = LoggerFactory.getLogger(EPEventServiceHelper.class);
+
     /**
      * Processing multiple schedule matches for a statement.
      *
@@ -119,13 +132,11 @@ public class EPEventServiceHelper {
             ArrayBackedCollection<FilterHandle> filterHandles = new ArrayBackedCollection<>(100);
             ArrayBackedCollection<ScheduleHandle> scheduleHandles = new ArrayBackedCollection<>(100);
 
-            Map<EPStatementAgentInstanceHandle, Object> matchesPerStmt;
+            EPEventServiceMatchesPerStmt matchesPerStmt = new EPEventServiceMatchesPerStmt();
             Map<EPStatementAgentInstanceHandle, Object> schedulesPerStmt;
             if (isPrioritized) {
-                matchesPerStmt = new TreeMap<>(EPStatementAgentInstanceHandleComparator.INSTANCE);
                 schedulesPerStmt = new TreeMap<>(EPStatementAgentInstanceHandleComparator.INSTANCE);
             } else {
-                matchesPerStmt = new HashMap<>();
                 schedulesPerStmt = new HashMap<>();
             }
 
@@ -152,4 +163,91 @@ public class EPEventServiceHelper {
             return new EPEventServiceThreadLocalEntry(workQueue, filterHandles, scheduleHandles, matchesPerStmt, schedulesPerStmt, runtimeFilterAndDispatchTimeContext);
         });
     }
+
+    /**
+     * Send a batch of events. Events are wrapped first so that an invalid event fails the batch before any event is processed.
+     *
+     * @param events           events
+     * @param eventTypeName    event type name
+     * @param inboundThreading true when inbound threading is enabled, each event is then submitted by itself
+     * @param nullEventLogged  true to log and skip a null event, false to throw an exception for a null event
+     * @param sendEvent        single-event send for use with inbound threading
+     * @param wrapEvent        event wrapper
+     * @param processor        event service
+     * @param <T>              underlying event class
+     */
+    public static <T> void sendEventBatch(Collection<? extends T> events, String eventTypeName, boolean inboundThreading, boolean nullEventLogged, BiConsumer<T, String> sendEvent, BiFunction<T, String, EventBean> wrapEvent, EPEventServiceBatchProcessor processor) {
+        if (events == null) {
+            throw new IllegalArgumentException("Invalid null event collection");
+        }
+
+        if (inboundThreading) {
+            for (T event : events) {
+                sendEvent.accept(event, eventTypeName);
+            }
+            return;
+        }
+
+        EventBean[] eventBeans = new EventBean[events.size()];
+        int count = 0;
+        for (T event : events) {
+            if (event == null) {
+                if (!nullEventLogged) {
+                    throw new IllegalArgumentException("Invalid null event object");
+                }
+                log.error(".sendEvent Null object supplied");
+                continue;
+            }
+            eventBeans[count++] = wrapEvent.apply(event, eventTypeName);
+        }
+        processor.processWrappedEventBatch(eventBeans, count);
+    }
+
+    /**
+     * Process a batch of wrapped events with a single acquisition of the event-processing read lock.
+     * Each event is processed as a single event would be, and when an event leaves results to dispatch or
+     * events to route, the lock is released for dispatch and work queue processing and acquired again for the next event.
+     * With preprocessing or instrumentation each event is processed by itself.
+     *
+     * @param eventBeans                 events
+     * @param count                      number of events in the array
+     * @param tlEntry                    thread-local entry
+     * @param hasPreprocessing           indicator whether the internal event router preprocesses events
+     * @param eventProcessingRWLock      event-processing lock
+     * @param dispatchService            dispatch service
+     * @param namedWindowDispatchService named window dispatch service
+     * @param processor                  event service
+     */
+    public static void processWrappedEventBatch(EventBean[] eventBeans, int count, EPEventServiceThreadLocalEntry tlEntry, boolean hasPreprocessing, ManagedReadWriteLock eventProcessingRWLock, DispatchService dispatchService, NamedWindowDispatchService namedWindowDispatchService, EPEventServiceBatchProcessor processor) {
+        if (hasPreprocessing || InstrumentationHelper.ENABLED) {
+            for (int i = 0; i < count; i++) {
+                processor.processWrappedEvent(eventBeans[i], tlEntry);
+            }
+            return;
+        }
+
+        ArrayDeque<Dispatchable> dispatches = dispatchService.getDispatchStateThreadLocal().get();
+        WorkQueue workQueue = tlEntry.getWorkQueue();
+        int index = 0;
+        while (index < count) {
+            eventProcessingRWLock.acquireReadLock();
+            try {
+                while (index < count) {
+                    processor.processMatches(eventBeans[index++], tlEntry);
+                    if (!dispatches.isEmpty() || !workQueue.isEmpty() || namedWindowDispatchService.isDispatchPending()) {
+                        break;
+                    }
+                }
+            } catch (RuntimeException ex) {
+                tlEntry.getMatchesArrayThreadLocal().clear();
+                throw new EPException(ex);
+            } finally {
+                eventProcessingRWLock.releaseReadLock();
+            }
+
+            // Dispatch results to listeners and work off the event queue outside of the read-lock
+            processor.dispatch();
+            processor.processThreadWorkQueue();
+        }
+    }
 }
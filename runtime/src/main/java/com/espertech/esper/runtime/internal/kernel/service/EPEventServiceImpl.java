@@ -64,7 +64,7 @@ import static com.espertech.esper.runtime.internal.kernel.service.EPEventService
  * Implements runtime interface. Also accepts timer callbacks for synchronizing time events with regular events
  * sent in.
  */
-public class EPEventServiceImpl implements EPEventServiceSPI, InternalEventRouteDest, TimerCallback, EPRuntimeEventProcessWrapped, EPEventServiceQueueProcessor {
+public class EPEventServiceImpl implements EPEventServiceSPI, InternalEventRouteDest, TimerCallback, EPRuntimeEventProcessWrapped, EPEventServiceQueueProcessor, EPEventServiceBatchProcessor, TimerShardProcessor {
     protected static final Logger log = LoggerFactory.getLogger(EPEventServiceImpl.class);
     public static final int MAX_FILTER_FAULT_COUNT = 10;
 
@@ -99,7 +99,7 @@ public class EPEventServiceImpl implements EPEventServiceSPI, InternalEventRoute
 
         initThreadLocals();
 
-        services.getThreadingService().initThreading(getRuntimeURI(), services);
+        services.getThreadingService().initThreading(getRuntimeURI(), services, services.getEventTypeRepositoryBus());
     }
 
     public EPServicesContext getServices() {
@@ -145,7 +145,7 @@ public class EPEventServiceImpl implements EPEventServiceSPI, InternalEventRoute
         }
 
         if (inboundThreading) {
-            services.getThreadingService().submitInbound(new InboundUnitSendAvro(avroGenericDataDotRecord, avroEventTypeName, this, services));
+            services.getThreadingService().submitInbound(InboundUnitKind.AVRO, avroGenericDataDotRecord, avroEventTypeName, this);
         } else {
             EventBean eventBean = wrapEventAvro(avroGenericDataDotRecord, avroEventTypeName);
             processWrappedEvent(eventBean);
@@ -162,7 +162,7 @@ public class EPEventServiceImpl implements EPEventServiceSPI, InternalEventRoute
         }
 
         if (inboundThreading) {
-            services.getThreadingService().submitInbound(new InboundUnitSendJson(json, jsonEventTypeName, this, services));
+            services.getThreadingService().submitInbound(InboundUnitKind.JSON, json, jsonEventTypeName, this);
         } else {
             EventBean eventBean = wrapEventJson(json, jsonEventTypeName);
             processWrappedEvent(eventBean);
@@ -180,7 +180,7 @@ public class EPEventServiceImpl implements EPEventServiceSPI, InternalEventRoute
         }
 
         if (inboundThreading) {
-            services.getThreadingService().submitInbound(new InboundUnitSendEvent(theEvent, eventTypeName, this, services));
+            services.getThreadingService().submitInbound(InboundUnitKind.BEAN, theEvent, eventTypeName, this);
         } else {
             EventBean eventBean = services.getEventTypeResolvingBeanFactory().adapterForBean(theEvent, eventTypeName);
             processWrappedEvent(eventBean);
@@ -227,7 +227,16 @@ public class EPEventServiceImpl implements EPEventServiceSPI, InternalEventRoute
         while (currentTime < targetTime) {
 
             if ((optionalResolution != null) && (optionalResolution > 0)) {
-                currentTime += optionalResolution;
+                // hop to the tick at or after the nearest schedule, skipping ticks at which no schedule is due
+                long resolution = optionalResolution;
+                Long nearest = services.getSchedulingService().getNearestTimeHandle();
+                if (nearest == null || nearest >= targetTime) {
+                    currentTime = targetTime;
+                } else if (nearest - currentTime <= resolution) {
+                    currentTime += resolution;
+                } else {
+                    currentTime += ((nearest - currentTime + resolution - 1) / resolution) * resolution;
+                }
             } else {
                 Long nearest = services.getSchedulingService().getNearestTimeHandle();
                 if (nearest == null) {
@@ -272,7 +281,7 @@ public class EPEventServiceImpl implements EPEventServiceSPI, InternalEventRoute
 
         // Process event
         if (inboundThreading) {
-            services.getThreadingService().submitInbound(new InboundUnitSendDOM(node, eventTypeName, this, services));
+            services.getThreadingService().submitInbound(InboundUnitKind.XMLDOM, node, eventTypeName, this);
         } else {
             EventBean eventBean = wrapEventBeanXMLDOM(node, eventTypeName);
             processWrappedEvent(eventBean);
@@ -289,7 +298,7 @@ public class EPEventServiceImpl implements EPEventServiceSPI, InternalEventRoute
         }
 
         if (inboundThreading) {
-            services.getThreadingService().submitInbound(new InboundUnitSendObjectArray(propertyValues, eventTypeName, this, services));
+            services.getThreadingService().submitInbound(InboundUnitKind.OBJECTARRAY, propertyValues, eventTypeName, this);
         } else {
             EventBean eventBean = wrapEventObjectArray(propertyValues, eventTypeName);
             processWrappedEvent(eventBean);
@@ -306,13 +315,29 @@ public class EPEventServiceImpl implements EPEventServiceSPI, InternalEventRoute
         }
 
         if (inboundThreading) {
-            services.getThreadingService().submitInbound(new InboundUnitSendMap(map, mapEventTypeName, this, services));
+            services.getThreadingService().submitInbound(InboundUnitKind.MAP, map, mapEventTypeName, this);
         } else {
             EventBean eventBean = wrapEventMap(map, mapEventTypeName);
             processWrappedEvent(eventBean);
         }
     }
 
+    public void sendEventObjectArrayBatch(Collection<Object[]> events, String eventTypeName) throws EPException {
+        sendEventBatch(events, eventTypeName, inboundThreading, false, this::sendEventObjectArray, this::wrapEventObjectArray, this);
+    }
+
+    public void sendEventBeanBatch(Collection<?> events, String eventTypeName) {
+        sendEventBatch(events, eventTypeName, inboundThreading, true, this::sendEventBean, (event, typeName) -> services.getEventTypeResolvingBeanFactory().adapterForBean(event, typeName), this);
+    }
+
+    public void sendEventMapBatch(Collection<Map<String, Object>> events, String eventTypeName) throws EPException {
+        sendEventBatch(events, eventTypeName, inboundThreading, false, this::sendEventMap, this::wrapEventMap, this);
+    }
+
+    public void sendEventJsonBatch(Collection<String> events, String jsonEventTypeName) {
+        sendEventBatch(events, jsonEventTypeName, inboundThreading, false, this::sendEventJson, this::wrapEventJson, this);
+    }
+
     public void routeEventBean(EventBean theEvent) {
         threadLocals.get().getWorkQueue().add(theEvent);
     }
@@ -337,11 +362,14 @@ public class EPEventServiceImpl implements EPEventServiceSPI, InternalEventRoute
     }
 
     public void processWrappedEvent(EventBean eventBean) {
+        processWrappedEvent(eventBean, threadLocals.get());
+    }
+
+    public void processWrappedEvent(EventBean eventBean, EPEventServiceThreadLocalEntry tlEntry) {
         if (InstrumentationHelper.ENABLED) {
             InstrumentationHelper.get().qStimulantEvent(eventBean, services.getRuntimeURI());
         }
 
-        EPEventServiceThreadLocalEntry tlEntry = threadLocals.get();
         if (internalEventRouter.isHasPreprocessing()) {
             eventBean = internalEventRouter.preprocess(eventBean, tlEntry.getExprEvaluatorContext(), InstrumentationHelper.get());
             if (eventBean == null) {
@@ -355,7 +383,7 @@ public class EPEventServiceImpl implements EPEventServiceSPI, InternalEventRoute
         }
         services.getEventProcessingRWLock().acquireReadLock();
         try {
-            processMatches(eventBean);
+            processMatches(eventBean, tlEntry);
         } catch (RuntimeException ex) {
             tlEntry.getMatchesArrayThreadLocal().clear();
             throw new EPException(ex);
@@ -371,18 +399,25 @@ public class EPEventServiceImpl implements EPEventServiceSPI, InternalEventRoute
         dispatch();
 
         // Work off the event queue if any events accumulated in there via a route() or insert-into
-        processThreadWorkQueue();
+        processThreadWorkQueue(tlEntry.getWorkQueue());
 
         if (InstrumentationHelper.ENABLED) {
             InstrumentationHelper.get().aStimulantEvent();
         }
     }
 
+    public void processWrappedEventBatch(EventBean[] eventBeans, int count) {
+        EPEventServiceHelper.processWrappedEventBatch(eventBeans, count, threadLocals.get(), internalEventRouter.isHasPreprocessing(), services.getEventProcessingRWLock(), services.getDispatchService(), services.getNamedWindowDispatchService(), this);
+    }
+
     /**
      * Works off the thread's work queue.
      */
     public void processThreadWorkQueue() {
-        WorkQueue queues = threadLocals.get().getWorkQueue();
+        processThreadWorkQueue(threadLocals.get().getWorkQueue());
+    }
+
+    private void processThreadWorkQueue(WorkQueue queues) {
 
         if (queues.isFrontEmpty()) {
             boolean haveDispatched = services.getNamedWindowDispatchService().dispatch();
@@ -495,8 +530,11 @@ public class EPEventServiceImpl implements EPEventServiceSPI, InternalEventRoute
     }
 
     protected void processMatches(EventBean theEvent) {
+        processMatches(theEvent, threadLocals.get());
+    }
+
+    public void processMatches(EventBean theEvent, EPEventServiceThreadLocalEntry tlEntry) {
         // get matching filters
-        EPEventServiceThreadLocalEntry tlEntry = threadLocals.get();
         ArrayBackedCollection<FilterHandle> matches = tlEntry.getMatchesArrayThreadLocal();
         ExprEvaluatorContext ctx = tlEntry.getExprEvaluatorContext();
         long version = services.getFilterService().evaluate(theEvent, matches, ctx);
@@ -520,7 +558,7 @@ public class EPEventServiceImpl implements EPEventServiceSPI, InternalEventRoute
             return;
         }
 
-        Map<EPStatementAgentInstanceHandle, Object> stmtCallbacks = tlEntry.getMatchesPerStmtThreadLocal();
+        EPEventServiceMatchesPerStmt stmtCallbacks = tlEntry.getMatchesPerStmtThreadLocal();
         Object[] matchArray = matches.getArray();
         int entryCount = matches.size();
 
@@ -531,18 +569,7 @@ public class EPEventServiceImpl implements EPEventServiceSPI, InternalEventRoute
             // Self-joins require that the internal dispatch happens after all streams are evaluated.
             // Priority or preemptive settings also require special ordering.
             if (handle.isCanSelfJoin() || isPrioritized) {
-                Object callbacks = stmtCallbacks.get(handle);
-                if (callbacks == null) {
-                    stmtCallbacks.put(handle, handleCallback.getFilterCallback());
-                } else if (callbacks instanceof ArrayDeque) {
-                    ArrayDeque<FilterHandleCallback> q = (ArrayDeque<FilterHandleCallback>) callbacks;
-                    q.add(handleCallback.getFilterCallback());
-                } else {
-                    ArrayDeque<FilterHandleCallback> q = new ArrayDeque<>(4);
-                    q.add((FilterHandleCallback) callbacks);
-                    q.add(handleCallback.getFilterCallback());
-                    stmtCallbacks.put(handle, q);
-                }
+                stmtCallbacks.add(handle, handleCallback.getFilterCallback());
                 continue;
             }
 
@@ -569,39 +596,44 @@ public class EPEventServiceImpl implements EPEventServiceSPI, InternalEventRoute
         if (stmtCallbacks.isEmpty()) {
             return;
         }
+        if (isPrioritized) {
+            stmtCallbacks.sortByPriority();
+        }
 
-        for (Map.Entry<EPStatementAgentInstanceHandle, Object> entry : stmtCallbacks.entrySet()) {
-            EPStatementAgentInstanceHandle handle = entry.getKey();
-            Object callbackList = entry.getValue();
+        try {
+            int groupCount = stmtCallbacks.size();
+            for (int i = 0; i < groupCount; i++) {
+                EPStatementAgentInstanceHandle handle = stmtCallbacks.getHandle(i);
+                Object callbackList = stmtCallbacks.getCallbacks(i);
 
-            if (handle.getStatementHandle().getMetricsHandle().isEnabled()) {
-                long cpuTimeBefore = MetricUtil.getCPUCurrentThread();
-                long wallTimeBefore = MetricUtil.getWall();
+                if (handle.getStatementHandle().getMetricsHandle().isEnabled()) {
+                    long cpuTimeBefore = MetricUtil.getCPUCurrentThread();
+                    long wallTimeBefore = MetricUtil.getWall();
 
-                processStatementFilterMultiple(handle, callbackList, theEvent, version, 0);
+                    processStatementFilterMultiple(handle, callbackList, theEvent, version, 0);
 
-                long wallTimeAfter = MetricUtil.getWall();
-                long cpuTimeAfter = MetricUtil.getCPUCurrentThread();
-                long deltaCPU = cpuTimeAfter - cpuTimeBefore;
-                long deltaWall = wallTimeAfter - wallTimeBefore;
-                int size = 1;
-                if (callbackList instanceof Collection) {
-                    size = ((Collection) callbackList).size();
-                }
-                services.getMetricReportingService().accountTime(handle.getStatementHandle().getMetricsHandle(), deltaCPU, deltaWall, size);
-            } else {
-                if (routeThreading) {
-                    services.getThreadingService().submitRoute(new RouteUnitMultiple(this, callbackList, theEvent, handle, version));
+                    long wallTimeAfter = MetricUtil.getWall();
+                    long cpuTimeAfter = MetricUtil.getCPUCurrentThread();
+                    long deltaCPU = cpuTimeAfter - cpuTimeBefore;
+                    long deltaWall = wallTimeAfter - wallTimeBefore;
+                    services.getMetricReportingService().accountTime(handle.getStatementHandle().getMetricsHandle(), deltaCPU, deltaWall, stmtCallbacks.getCallbackCount(i));
                 } else {
-                    processStatementFilterMultiple(handle, callbackList, theEvent, version, 0);
+                    if (routeThreading) {
+                        // the pooled collection is reused, the route unit requires its own copy
+                        Object callbacksCopy = callbackList instanceof Collection ? new ArrayDeque<>((Collection<FilterHandleCallback>) callbackList) : callbackList;
+                        services.getThreadingService().submitRoute(new RouteUnitMultiple(this, callbacksCopy, theEvent, handle, version));
+                    } else {
+                        processStatementFilterMultiple(handle, callbackList, theEvent, version, 0);
+                    }
                 }
-            }
 
-            if (isPrioritized && handle.isPreemptive()) {
-                break;
+                if (isPrioritized && handle.isPreemptive()) {
+                    break;
+                }
             }
+        } finally {
+            stmtCallbacks.clear();
         }
-        stmtCallbacks.clear();
     }
 
     /**
@@ -830,6 +862,22 @@ public class EPEventServiceImpl implements EPEventServiceSPI, InternalEventRoute
             services.getEventProcessingRWLock().releaseReadLock();
         }
 
+        // Sharded timer execution processes the shards in parallel, each shard acquiring the runtimelock
+        ThreadingTimerShards timerShards = services.getThreadingService().getTimerShards();
+        if (timerShards != null && !isPrioritized && handles.size() > 1) {
+            try {
+                timerShards.process(handles, this);
+            } catch (RuntimeException ex) {
+                handles.clear();
+                throw ex;
+            } finally {
+                if (InstrumentationHelper.ENABLED) {
+                    InstrumentationHelper.get().aTime();
+                }
+            }
+            return;
+        }
+
         services.getEventProcessingRWLock().acquireReadLock();
         try {
             processScheduleHandles(handles);
@@ -844,6 +892,40 @@ public class EPEventServiceImpl implements EPEventServiceSPI, InternalEventRoute
         }
     }
 
+    public void processScheduleShard(Map<EPStatementAgentInstanceHandle, Object> stmtCallbacks) {
+        services.getEventProcessingRWLock().acquireReadLock();
+        try {
+            for (Map.Entry<EPStatementAgentInstanceHandle, Object> entry : stmtCallbacks.entrySet()) {
+                EPStatementAgentInstanceHandle handle = entry.getKey();
+                Object callbackObject = entry.getValue();
+
+                if (handle.getStatementHandle().getMetricsHandle().isEnabled()) {
+                    long cpuTimeBefore = MetricUtil.getCPUCurrentThread();
+                    long wallTimeBefore = MetricUtil.getWall();
+
+                    processStatementScheduleMultiple(handle, callbackObject, services);
+
+                    long wallTimeAfter = MetricUtil.getWall();
+                    long cpuTimeAfter = MetricUtil.getCPUCurrentThread();
+                    long deltaCPU = cpuTimeAfter - cpuTimeBefore;
+                    long deltaWall = wallTimeAfter - wallTimeBefore;
+                    int numInput = (callbackObject instanceof Collection) ? ((Collection) callbackObject).size() : 1;
+                    services.getMetricReportingService().accountTime(handle.getStatementHandle().getMetricsHandle(), deltaCPU, deltaWall, numInput);
+                } else {
+                    processStatementScheduleMultiple(handle, callbackObject, services);
+                }
+            }
+        } finally {
+            services.getEventProcessingRWLock().releaseReadLock();
+        }
+
+        // Let listeners know of results
+        dispatch();
+
+        // Work off the event queue if any events accumulated in there via a route()
+        processThreadWorkQueue();
+    }
+
     public void processScheduleHandles(ArrayBackedCollection<ScheduleHandle> handles) {
         if (ThreadLogUtil.ENABLED_TRACE) {
             ThreadLogUtil.trace("Found schedules for", handles.size());
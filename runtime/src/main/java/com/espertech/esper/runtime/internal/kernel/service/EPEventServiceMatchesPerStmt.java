@@ -0,0 +1,200 @@
+/*
+ ***************************************************************************************
+ *  Copyright (C) 2006 EsperTech, Inc. All rights reserved.                            *
+ *  http://www.espertech.com/esper                                                     *
+ *  http://www.espertech.com                                                           *
+ *  ---------------------------------------------------------------------------------- *
+ *  The software in this package is published under the terms of the GPL license       *
+ *  a copy of which has been included with this distribution in the license.txt file.  *
+ ***************************************************************************************
+ */
+package com.espertech.esper.runtime.internal.kernel.service;
+
+import com.espertech.esper.common.internal.context.util.EPStatementAgentInstanceHandle;
+import com.espertech.esper.common.internal.filtersvc.FilterHandleCallback;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * Thread-local grouping of filter callbacks per statement agent instance handle, for use in processing the
+ * matches for an event.
+ * <p>
+ * Handles are indexed by an open-addressing table of their precomputed hash code. Group entries and their
+ * callback collections are pooled and reused for subsequent events, so that grouping does not allocate
+ * once the high-water mark of the number of handles per event has been reached.
+ * </p>
+ * <p>
+ * Groups are kept in the order of insertion. For prioritized execution the groups are sorted
+ * by {@link EPStatementAgentInstanceHandleComparator}.
+ * </p>
+ */
+public class EPEventServiceMatchesPerStmt {
+    private static final int INITIAL_CAPACITY = 16;
+    private static final Comparator<Group> PRIORITY_COMPARATOR = (o1, o2) -> EPStatementAgentInstanceHandleComparator.INSTANCE.compare(o1.handle, o2.handle);
+
+    private Group[] groups = new Group[INITIAL_CAPACITY];
+    private Group[] table = new Group[INITIAL_CAPACITY * 2];
+    private int size;
+
+    /**
+     * Add a callback for a handle.
+     *
+     * @param handle   statement agent instance handle
+     * @param callback callback
+     */
+    public void add(EPStatementAgentInstanceHandle handle, FilterHandleCallback callback) {
+        int mask = table.length - 1;
+        int slot = spread(handle.hashCode()) & mask;
+        while (true) {
+            Group group = table[slot];
+            if (group == null) {
+                break;
+            }
+            if (group.handle == handle || group.handle.equals(handle)) {
+                group.add(callback);
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        if (size == groups.length) {
+            groups = Arrays.copyOf(groups, size * 2);
+        }
+        Group group = groups[size];
+        if (group == null) {
+            group = new Group();
+            groups[size] = group;
+        }
+        group.handle = handle;
+        group.single = callback;
+        group.count = 1;
+        group.slot = slot;
+        table[slot] = group;
+        size++;
+
+        if (size * 2 > table.length) {
+            rehash(table.length * 2);
+        }
+    }
+
+    /**
+     * Returns indicator whether there are no groups.
+     *
+     * @return empty indicator
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Returns the number of groups i.e. distinct handles.
+     *
+     * @return number of groups
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Sort the groups by priority.
+     */
+    public void sortByPriority() {
+        if (size > 1) {
+            Arrays.sort(groups, 0, size, PRIORITY_COMPARATOR);
+        }
+    }
+
+    /**
+     * Returns the handle of a group.
+     *
+     * @param index group index
+     * @return handle
+     */
+    public EPStatementAgentInstanceHandle getHandle(int index) {
+        return groups[index].handle;
+    }
+
+    /**
+     * Returns the callbacks of a group: the callback itself when there is a single callback,
+     * or a collection of callbacks that is reused after {@link #clear()}.
+     *
+     * @param index group index
+     * @return callback or collection of callbacks
+     */
+    public Object getCallbacks(int index) {
+        Group group = groups[index];
+        return group.count == 1 ? group.single : group.multiple;
+    }
+
+    /**
+     * Returns the number of callbacks of a group.
+     *
+     * @param index group index
+     * @return number of callbacks
+     */
+    public int getCallbackCount(int index) {
+        return groups[index].count;
+    }
+
+    /**
+     * Clear all groups for reuse.
+     */
+    public void clear() {
+        for (int i = 0; i < size; i++) {
+            Group group = groups[i];
+            table[group.slot] = null;
+            group.clear();
+        }
+        size = 0;
+    }
+
+    private void rehash(int capacity) {
+        Group[] newTable = new Group[capacity];
+        int mask = capacity - 1;
+        for (int i = 0; i < size; i++) {
+            Group group = groups[i];
+            int slot = spread(group.handle.hashCode()) & mask;
+            while (newTable[slot] != null) {
+                slot = (slot + 1) & mask;
+            }
+            newTable[slot] = group;
+            group.slot = slot;
+        }
+        table = newTable;
+    }
+
+    private static int spread(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+
+    private static class Group {
+        private EPStatementAgentInstanceHandle handle;
+        private FilterHandleCallback single;
+        private ArrayDeque<FilterHandleCallback> multiple;
+        private int count;
+        private int slot;
+
+        void add(FilterHandleCallback callback) {
+            if (count == 1) {
+                if (multiple == null) {
+                    multiple = new ArrayDeque<>(4);
+                }
+                multiple.add(single);
+                single = null;
+            }
+            multiple.add(callback);
+            count++;
+        }
+
+        void clear() {
+            handle = null;
+            single = null;
+            if (count > 1) {
+                multiple.clear();
+            }
+            count = 0;
+        }
+    }
+}
@@ -22,11 +22,11 @@ public class EPEventServiceThreadLocalEntry {
     private final WorkQueue workQueue;
     private final ArrayBackedCollection<FilterHandle> matchesArrayThreadLocal;
     private final ArrayBackedCollection<ScheduleHandle> scheduleArrayThreadLocal;
-    private final Map<EPStatementAgentInstanceHandle, Object> matchesPerStmtThreadLocal;
+    private final EPEventServiceMatchesPerStmt matchesPerStmtThreadLocal;
     private final Map<EPStatementAgentInstanceHandle, Object> schedulePerStmtThreadLocal;
     private final ExprEvaluatorContext exprEvaluatorContext;
 
-    public EPEventServiceThreadLocalEntry(WorkQueue workQueue, ArrayBackedCollection<FilterHandle> matchesArrayThreadLocal, ArrayBackedCollection<ScheduleHandle> scheduleArrayThreadLocal, Map<EPStatementAgentInstanceHandle, Object> matchesPerStmtThreadLocal, Map<EPStatementAgentInstanceHandle, Object> schedulePerStmtThreadLocal, ExprEvaluatorContext exprEvaluatorContext) {
+    public EPEventServiceThreadLocalEntry(WorkQueue workQueue, ArrayBackedCollection<FilterHandle> matchesArrayThreadLocal, ArrayBackedCollection<ScheduleHandle> scheduleArrayThreadLocal, EPEventServiceMatchesPerStmt matchesPerStmtThreadLocal, Map<EPStatementAgentInstanceHandle, Object> schedulePerStmtThreadLocal, ExprEvaluatorContext exprEvaluatorContext) {
         this.workQueue = workQueue;
         this.matchesArrayThreadLocal = matchesArrayThreadLocal;
         this.scheduleArrayThreadLocal = scheduleArrayThreadLocal;
@@ -47,7 +47,7 @@ public class EPEventServiceThreadLocalEntry {
         return scheduleArrayThreadLocal;
     }
 
-    public Map<EPStatementAgentInstanceHandle, Object> getMatchesPerStmtThreadLocal() {
+    public EPEventServiceMatchesPerStmt getMatchesPerStmtThreadLocal() {
         return matchesPerStmtThreadLocal;
     }
 
@@ -13,6 +13,7 @@ package com.espertech.esper.runtime.internal.kernel.service;
 import com.espertech.esper.common.client.configuration.ConfigurationException;
 import com.espertech.esper.common.client.metric.EPMetricsStatementGroup;
 import com.espertech.esper.common.client.metric.EPMetricsService;
+import com.espertech.esper.common.client.metric.FilterEventTypeMetric;
 import com.espertech.esper.common.client.metric.RuntimeMetric;
 
 import java.util.function.Consumer;
@@ -68,6 +69,10 @@ public class EPMetricsServiceImpl implements EPMetricsService {
         services.getMetricReportingService().iterateMetrics(consumer);
     }
 
+    public void iterateFilterMetrics(Consumer<FilterEventTypeMetric> consumer) {
+        services.getFilterService().getMetrics().forEach(consumer);
+    }
+
     public RuntimeMetric getRuntimeMetric() {
         long inputCount = services.getFilterService().getNumEventsEvaluated();
         long schedDepth = services.getSchedulingService().getScheduleHandleCount();
@@ -197,7 +197,7 @@ public abstract class EPServicesContextFactoryBase implements EPServicesContextF
     public EPServicesContext createServicesContext(EPRuntimeSPI epRuntime, Configuration configs, EPRuntimeOptions options) {
 
         RuntimeEnvContext runtimeEnvContext = new RuntimeEnvContext();
-        ManagedReadWriteLock eventProcessingRWLock = new ManagedReadWriteLock("EventProcLock", configs.getRuntime().getThreading().isRuntimeFairlock());
+        ManagedReadWriteLock eventProcessingRWLock = new ManagedReadWriteLock("EventProcLock", configs.getRuntime().getThreading().isRuntimeFairlock(), configs.getRuntime().getThreading().getRuntimeLockType());
         DeploymentLifecycleServiceImpl deploymentLifecycleService = new DeploymentLifecycleServiceImpl(-1);
 
         RuntimeSettingsService runtimeSettingsService = makeRuntimeSettingsService(configs);
@@ -13,6 +13,9 @@ package com.espertech.esper.runtime.internal.kernel.service;
 import com.espertech.esper.common.client.EventType;
 import com.espertech.esper.common.client.configuration.Configuration;
 import com.espertech.esper.common.client.configuration.common.ConfigurationCommonEventTypeMeta;
+import com.espertech.esper.common.client.configuration.runtime.ConfigurationRuntimeExecution;
+import com.espertech.esper.common.client.util.FilterServiceProfile;
+import com.espertech.esper.common.client.util.SchedulingServiceProfile;
 import com.espertech.esper.common.internal.collection.PathRegistry;
 import com.espertech.esper.common.internal.context.activator.ViewableActivatorFactory;
 import com.espertech.esper.common.internal.context.activator.ViewableActivatorFactoryImpl;
@@ -75,6 +78,8 @@ import com.espertech.esper.runtime.internal.deploymentlifesvc.DeploymentRecovery
 import com.espertech.esper.runtime.internal.deploymentlifesvc.ListenerRecoveryServiceImpl;
 import com.espertech.esper.runtime.internal.deploymentlifesvc.StatementIdRecoveryServiceImpl;
 import com.espertech.esper.runtime.internal.filtersvcimpl.FilterServiceLockCoarse;
+import com.espertech.esper.runtime.internal.filtersvcimpl.FilterServiceReadCopyUpdate;
+import com.espertech.esper.runtime.internal.filtersvcimpl.FilterServiceSettings;
 import com.espertech.esper.runtime.internal.filtersvcimpl.FilterServiceSPI;
 import com.espertech.esper.runtime.internal.kernel.stage.StageRecoveryService;
 import com.espertech.esper.runtime.internal.kernel.stage.StageRecoveryServiceImpl;
@@ -85,6 +90,7 @@ import com.espertech.esper.runtime.internal.kernel.thread.ThreadingServiceImpl;
 import com.espertech.esper.runtime.internal.namedwindow.NamedWindowDispatchServiceImpl;
 import com.espertech.esper.runtime.internal.schedulesvcimpl.SchedulingServiceImpl;
 import com.espertech.esper.runtime.internal.schedulesvcimpl.SchedulingServiceSPI;
+import com.espertech.esper.runtime.internal.schedulesvcimpl.SchedulingServiceTimingWheel;
 import com.espertech.esper.runtime.internal.statementlifesvc.StatementLifecycleServiceImpl;
 
 import java.time.ZoneId;
@@ -105,7 +111,12 @@ public class EPServicesContextFactoryDefault extends EPServicesContextFactoryBas
     }
 
     protected FilterServiceSPI makeFilterService(RuntimeExtensionServices runtimeExt, EventTypeRepository eventTypeRepository, StatementLifecycleServiceImpl statementLifecycleService, RuntimeSettingsService runtimeSettingsService, EventTypeIdResolver eventTypeIdResolver, FilterSharedLookupableRepository filterSharedLookupableRepository) {
-        return new FilterServiceLockCoarse(-1);
+        ConfigurationRuntimeExecution execution = runtimeSettingsService.getConfigurationRuntime().getExecution();
+        FilterServiceSettings settings = new FilterServiceSettings(execution.getFilterIndexCompileThreshold(), execution.getFilterIndexReorderInterval(), execution.isFilterIndexInBitmap(), execution.isFilterMetrics());
+        if (execution.getFilterServiceProfile() == FilterServiceProfile.READCOPYUPDATE) {
+            return new FilterServiceReadCopyUpdate(-1, settings);
+        }
+        return new FilterServiceLockCoarse(-1, settings);
     }
 
     public EPEventServiceImpl createEPRuntime(EPServicesContext services, AtomicBoolean serviceStatusProvider) {
@@ -141,6 +152,9 @@ public class EPServicesContextFactoryDefault extends EPServicesContextFactoryBas
     }
 
     protected SchedulingServiceSPI makeSchedulingService(EPServicesHA epServicesHA, TimeSourceService timeSourceService, RuntimeExtensionServices runtimeExt, RuntimeSettingsService runtimeSettingsService, StatementContextResolver statementContextResolver, ZoneId zoneId) {
+        if (runtimeSettingsService.getConfigurationRuntime().getExecution().getSchedulingServiceProfile() == SchedulingServiceProfile.TIMINGWHEEL) {
+            return new SchedulingServiceTimingWheel(-1, timeSourceService, zoneId);
+        }
         return new SchedulingServiceImpl(-1, timeSourceService, zoneId);
     }
 
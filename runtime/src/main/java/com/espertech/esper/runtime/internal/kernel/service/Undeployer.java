@@ -102,41 +102,52 @@ public class Undeployer {
     }
 
     public static void undeploy(String deploymentId, Map<Long, EventType> deploymentTypes, StatementContext[] reverted, ModuleProvider moduleProvider, EPServicesContext services) {
-        for (StatementContext statement : reverted) {
-            // remove any match-recognize counts
-            if (services.getRowRecogStatePoolEngineSvc() != null) {
-                services.getRowRecogStatePoolEngineSvc().removeStatement(new DeploymentIdNamePair(statement.getDeploymentId(), statement.getStatementName()));
-            }
-
-            Iterator<StatementFinalizeCallback> it = statement.getFinalizeCallbacks();
-            while (it.hasNext()) {
-                it.next().statementDestroyed(statement);
-            }
+        // with read-copy-update, stop the filters of all statements in a single filter change
+        boolean batchFilterChanges = DeployerHelperStatement.isBatchFilterChanges(services);
+        if (batchFilterChanges) {
+            services.getFilterService().acquireWriteLock();
+        }
+        try {
+            for (StatementContext statement : reverted) {
+                // remove any match-recognize counts
+                if (services.getRowRecogStatePoolEngineSvc() != null) {
+                    services.getRowRecogStatePoolEngineSvc().removeStatement(new DeploymentIdNamePair(statement.getDeploymentId(), statement.getStatementName()));
+                }
 
-            try {
-                if (statement.getDestroyCallback() != null) {
-                    statement.getDestroyCallback().destroy(new StatementDestroyServices(services.getFilterService()), statement);
-                } else {
-                    statement.getStatementAIFactoryProvider().getFactory().statementDestroy(statement);
+                Iterator<StatementFinalizeCallback> it = statement.getFinalizeCallbacks();
+                while (it.hasNext()) {
+                    it.next().statementDestroyed(statement);
                 }
-            } catch (Throwable t) {
-                log.error("Exception encountered during stop: " + t.getMessage(), t);
-            }
 
-            if (statement.getContextRuntimeDescriptor() != null) {
                 try {
-                    services.getContextManagementService().stoppedStatement(statement.getContextRuntimeDescriptor().getContextDeploymentId(), statement.getContextName(),
-                        statement.getStatementId(), statement.getStatementName(), statement.getDeploymentId());
+                    if (statement.getDestroyCallback() != null) {
+                        statement.getDestroyCallback().destroy(new StatementDestroyServices(services.getFilterService()), statement);
+                    } else {
+                        statement.getStatementAIFactoryProvider().getFactory().statementDestroy(statement);
+                    }
                 } catch (Throwable t) {
                     log.error("Exception encountered during stop: " + t.getMessage(), t);
                 }
-            }
 
-            services.getEpServicesHA().getListenerRecoveryService().remove(statement.getStatementId());
-            services.getStatementLifecycleService().removeStatement(statement.getStatementId());
-            services.getPatternSubexpressionPoolRuntimeSvc().removeStatement(statement.getStatementId());
-            services.getFilterSharedBoolExprRepository().removeStatement(statement.getStatementId());
-            services.getFilterSharedLookupableRepository().removeReferencesStatement(statement.getStatementId());
+                if (statement.getContextRuntimeDescriptor() != null) {
+                    try {
+                        services.getContextManagementService().stoppedStatement(statement.getContextRuntimeDescriptor().getContextDeploymentId(), statement.getContextName(),
+                            statement.getStatementId(), statement.getStatementName(), statement.getDeploymentId());
+                    } catch (Throwable t) {
+                        log.error("Exception encountered during stop: " + t.getMessage(), t);
+                    }
+                }
+
+                services.getEpServicesHA().getListenerRecoveryService().remove(statement.getStatementId());
+                services.getStatementLifecycleService().removeStatement(statement.getStatementId());
+                services.getPatternSubexpressionPoolRuntimeSvc().removeStatement(statement.getStatementId());
+                services.getFilterSharedBoolExprRepository().removeStatement(statement.getStatementId());
+                services.getFilterSharedLookupableRepository().removeReferencesStatement(statement.getStatementId());
+            }
+        } finally {
+            if (batchFilterChanges) {
+                services.getFilterService().releaseWriteLock();
+            }
         }
 
         ModuleDependenciesRuntime moduleDependencies = moduleProvider.getModuleDependencies();
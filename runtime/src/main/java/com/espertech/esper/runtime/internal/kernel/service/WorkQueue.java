@@ -17,6 +17,7 @@ public interface WorkQueue {
     void add(EventBean theEvent, EPStatementHandle epStatementHandle, boolean addToFront, int precedence);
     void add(EventBean theEvent);
     boolean isFrontEmpty();
+    boolean isEmpty();
     boolean processFront(EPEventServiceQueueProcessor epEventService);
     boolean processBack(EPEventServiceQueueProcessor epEventService);
 }
@@ -40,6 +40,10 @@ public class WorkQueueNoPrecedenceMayLatch implements WorkQueue {
         return front.isEmpty();
     }
 
+    public boolean isEmpty() {
+        return front.isEmpty() && back.isEmpty();
+    }
+
     public boolean processFront(EPEventServiceQueueProcessor epEventService) {
         return process(front, epEventService);
     }
@@ -39,6 +39,9 @@ import com.espertech.esper.common.internal.util.ExecutionPathDebugLog;
 import com.espertech.esper.common.internal.util.MetricUtil;
 import com.espertech.esper.common.internal.util.ThreadLogUtil;
 import com.espertech.esper.runtime.client.UnmatchedListener;
+import com.espertech.esper.runtime.internal.kernel.service.EPEventServiceBatchProcessor;
+import com.espertech.esper.runtime.internal.kernel.service.EPEventServiceHelper;
+import com.espertech.esper.runtime.internal.kernel.service.EPEventServiceMatchesPerStmt;
 import com.espertech.esper.runtime.internal.kernel.service.EPEventServiceQueueProcessor;
 import com.espertech.esper.runtime.internal.kernel.service.EPEventServiceThreadLocalEntry;
 import com.espertech.esper.runtime.internal.kernel.service.EPStatementAgentInstanceHandleComparator;
@@ -61,7 +64,7 @@ import java.util.concurrent.atomic.AtomicLong;
 import static com.espertech.esper.runtime.internal.kernel.service.EPEventServiceHelper.*;
 import static com.espertech.esper.runtime.internal.kernel.service.EPEventServiceImpl.MAX_FILTER_FAULT_COUNT;
 
-public class EPStageEventServiceImpl implements EPStageEventServiceSPI, InternalEventRouteDest, EPRuntimeEventProcessWrapped, EPEventServiceQueueProcessor {
+public class EPStageEventServiceImpl implements EPStageEventServiceSPI, InternalEventRouteDest, EPRuntimeEventProcessWrapped, EPEventServiceQueueProcessor, EPEventServiceBatchProcessor, TimerShardProcessor {
     protected static final Logger log = LoggerFactory.getLogger(EPStageEventServiceImpl.class);
 
     protected StageSpecificServices specificServices;
@@ -93,7 +96,7 @@ public class EPStageEventServiceImpl implements EPStageEventServiceSPI, Internal
 
         initThreadLocals();
 
-        specificServices.getThreadingService().initThreading(stageUri, specificServices);
+        specificServices.getThreadingService().initThreading(stageUri, specificServices, runtimeServices.getEventTypeRepositoryBus());
     }
 
     public StageSpecificServices getSpecificServices() {
@@ -129,7 +132,7 @@ public class EPStageEventServiceImpl implements EPStageEventServiceSPI, Internal
         }
 
         if (inboundThreading) {
-            specificServices.getThreadingService().submitInbound(new InboundUnitSendAvro(avroGenericDataDotRecord, avroEventTypeName, this, specificServices));
+            specificServices.getThreadingService().submitInbound(InboundUnitKind.AVRO, avroGenericDataDotRecord, avroEventTypeName, this);
         } else {
             EventBean eventBean = wrapEventAvro(avroGenericDataDotRecord, avroEventTypeName);
             processWrappedEvent(eventBean);
@@ -146,7 +149,7 @@ public class EPStageEventServiceImpl implements EPStageEventServiceSPI, Internal
         }
 
         if (inboundThreading) {
-            specificServices.getThreadingService().submitInbound(new InboundUnitSendJson(json, jsonEventTypeName, this, specificServices));
+            specificServices.getThreadingService().submitInbound(InboundUnitKind.JSON, json, jsonEventTypeName, this);
         } else {
             EventBean eventBean = wrapEventJson(json, jsonEventTypeName);
             processWrappedEvent(eventBean);
@@ -164,7 +167,7 @@ public class EPStageEventServiceImpl implements EPStageEventServiceSPI, Internal
         }
 
         if (inboundThreading) {
-            specificServices.getThreadingService().submitInbound(new InboundUnitSendEvent(theEvent, eventTypeName, this, specificServices));
+            specificServices.getThreadingService().submitInbound(InboundUnitKind.BEAN, theEvent, eventTypeName, this);
         } else {
             EventBean eventBean = runtimeServices.getEventTypeResolvingBeanFactory().adapterForBean(theEvent, eventTypeName);
             processWrappedEvent(eventBean);
@@ -256,7 +259,7 @@ public class EPStageEventServiceImpl implements EPStageEventServiceSPI, Internal
 
         // Process event
         if (inboundThreading) {
-            specificServices.getThreadingService().submitInbound(new InboundUnitSendDOM(node, eventTypeName, this, specificServices));
+            specificServices.getThreadingService().submitInbound(InboundUnitKind.XMLDOM, node, eventTypeName, this);
         } else {
             EventBean eventBean = wrapEventBeanXMLDOM(node, eventTypeName);
             processWrappedEvent(eventBean);
@@ -273,7 +276,7 @@ public class EPStageEventServiceImpl implements EPStageEventServiceSPI, Internal
         }
 
         if (inboundThreading) {
-            specificServices.getThreadingService().submitInbound(new InboundUnitSendObjectArray(propertyValues, eventTypeName, this, specificServices));
+            specificServices.getThreadingService().submitInbound(InboundUnitKind.OBJECTARRAY, propertyValues, eventTypeName, this);
         } else {
             EventBean eventBean = wrapEventObjectArray(propertyValues, eventTypeName);
             processWrappedEvent(eventBean);
@@ -290,13 +293,29 @@ public class EPStageEventServiceImpl implements EPStageEventServiceSPI, Internal
         }
 
         if (inboundThreading) {
-            specificServices.getThreadingService().submitInbound(new InboundUnitSendMap(map, mapEventTypeName, this, specificServices));
+            specificServices.getThreadingService().submitInbound(InboundUnitKind.MAP, map, mapEventTypeName, this);
         } else {
             EventBean eventBean = wrapEventMap(map, mapEventTypeName);
             processWrappedEvent(eventBean);
         }
     }
 
+    public void sendEventObjectArrayBatch(Collection<Object[]> events, String eventTypeName) throws EPException {
+        sendEventBatch(events, eventTypeName, inboundThreading, false, this::sendEventObjectArray, this::wrapEventObjectArray, this);
+    }
+
+    public void sendEventBeanBatch(Collection<?> events, String eventTypeName) {
+        sendEventBatch(events, eventTypeName, inboundThreading, true, this::sendEventBean, (event, typeName) -> runtimeServices.getEventTypeResolvingBeanFactory().adapterForBean(event, typeName), this);
+    }
+
+    public void sendEventMapBatch(Collection<Map<String, Object>> events, String eventTypeName) throws EPException {
+        sendEventBatch(events, eventTypeName, inboundThreading, false, this::sendEventMap, this::wrapEventMap, this);
+    }
+
+    public void sendEventJsonBatch(Collection<String> events, String jsonEventTypeName) {
+        sendEventBatch(events, jsonEventTypeName, inboundThreading, false, this::sendEventJson, this::wrapEventJson, this);
+    }
+
     public void routeEventBean(EventBean theEvent) {
         threadLocals.get().getWorkQueue().add(theEvent);
     }
@@ -320,11 +339,14 @@ public class EPStageEventServiceImpl implements EPStageEventServiceSPI, Internal
     }
 
     public void processWrappedEvent(EventBean eventBean) {
+        processWrappedEvent(eventBean, threadLocals.get());
+    }
+
+    public void processWrappedEvent(EventBean eventBean, EPEventServiceThreadLocalEntry tlEntry) {
         if (InstrumentationHelper.ENABLED) {
             InstrumentationHelper.get().qStimulantEvent(eventBean, stageUri);
         }
 
-        EPEventServiceThreadLocalEntry tlEntry = threadLocals.get();
         if (internalEventRouter.isHasPreprocessing()) {
             eventBean = internalEventRouter.preprocess(eventBean, tlEntry.getExprEvaluatorContext(), InstrumentationHelper.get());
             if (eventBean == null) {
@@ -338,7 +360,7 @@ public class EPStageEventServiceImpl implements EPStageEventServiceSPI, Internal
         }
         specificServices.getEventProcessingRWLock().acquireReadLock();
         try {
-            processMatches(eventBean);
+            processMatches(eventBean, tlEntry);
         } catch (RuntimeException ex) {
             tlEntry.getMatchesArrayThreadLocal().clear();
             throw new EPException(ex);
@@ -354,18 +376,25 @@ public class EPStageEventServiceImpl implements EPStageEventServiceSPI, Internal
         dispatch();
 
         // Work off the event queue if any events accumulated in there via a route() or insert-into
-        processThreadWorkQueue();
+        processThreadWorkQueue(tlEntry.getWorkQueue());
 
         if (InstrumentationHelper.ENABLED) {
             InstrumentationHelper.get().aStimulantEvent();
         }
     }
 
+    public void processWrappedEventBatch(EventBean[] eventBeans, int count) {
+        EPEventServiceHelper.processWrappedEventBatch(eventBeans, count, threadLocals.get(), internalEventRouter.isHasPreprocessing(), specificServices.getEventProcessingRWLock(), runtimeServices.getDispatchService(), runtimeServices.getNamedWindowDispatchService(), this);
+    }
+
     /**
      * Works off the thread's work queue.
      */
     public void processThreadWorkQueue() {
-        WorkQueue queues = threadLocals.get().getWorkQueue();
+        processThreadWorkQueue(threadLocals.get().getWorkQueue());
+    }
+
+    private void processThreadWorkQueue(WorkQueue queues) {
 
         if (queues.isFrontEmpty()) {
             boolean haveDispatched = runtimeServices.getNamedWindowDispatchService().dispatch();
@@ -478,8 +507,11 @@ public class EPStageEventServiceImpl implements EPStageEventServiceSPI, Internal
     }
 
     protected void processMatches(EventBean theEvent) {
+        processMatches(theEvent, threadLocals.get());
+    }
+
+    public void processMatches(EventBean theEvent, EPEventServiceThreadLocalEntry tlEntry) {
         // get matching filters
-        EPEventServiceThreadLocalEntry tlEntry = threadLocals.get();
         ArrayBackedCollection<FilterHandle> matches = tlEntry.getMatchesArrayThreadLocal();
         long version = specificServices.getFilterService().evaluate(theEvent, matches, tlEntry.getExprEvaluatorContext());
 
@@ -502,7 +534,7 @@ public class EPStageEventServiceImpl implements EPStageEventServiceSPI, Internal
             return;
         }
 
-        Map<EPStatementAgentInstanceHandle, Object> stmtCallbacks = tlEntry.getMatchesPerStmtThreadLocal();
+        EPEventServiceMatchesPerStmt stmtCallbacks = tlEntry.getMatchesPerStmtThreadLocal();
         Object[] matchArray = matches.getArray();
         int entryCount = matches.size();
 
@@ -513,18 +545,7 @@ public class EPStageEventServiceImpl implements EPStageEventServiceSPI, Internal
             // Self-joins require that the internal dispatch happens after all streams are evaluated.
             // Priority or preemptive settings also require special ordering.
             if (handle.isCanSelfJoin() || isPrioritized) {
-                Object callbacks = stmtCallbacks.get(handle);
-                if (callbacks == null) {
-                    stmtCallbacks.put(handle, handleCallback.getFilterCallback());
-                } else if (callbacks instanceof ArrayDeque) {
-                    ArrayDeque<FilterHandleCallback> q = (ArrayDeque<FilterHandleCallback>) callbacks;
-                    q.add(handleCallback.getFilterCallback());
-                } else {
-                    ArrayDeque<FilterHandleCallback> q = new ArrayDeque<>(4);
-                    q.add((FilterHandleCallback) callbacks);
-                    q.add(handleCallback.getFilterCallback());
-                    stmtCallbacks.put(handle, q);
-                }
+                stmtCallbacks.add(handle, handleCallback.getFilterCallback());
                 continue;
             }
 
@@ -551,39 +572,44 @@ public class EPStageEventServiceImpl implements EPStageEventServiceSPI, Internal
         if (stmtCallbacks.isEmpty()) {
             return;
         }
+        if (isPrioritized) {
+            stmtCallbacks.sortByPriority();
+        }
 
-        for (Map.Entry<EPStatementAgentInstanceHandle, Object> entry : stmtCallbacks.entrySet()) {
-            EPStatementAgentInstanceHandle handle = entry.getKey();
-            Object callbackList = entry.getValue();
+        try {
+            int groupCount = stmtCallbacks.size();
+            for (int i = 0; i < groupCount; i++) {
+                EPStatementAgentInstanceHandle handle = stmtCallbacks.getHandle(i);
+                Object callbackList = stmtCallbacks.getCallbacks(i);
 
-            if (handle.getStatementHandle().getMetricsHandle().isEnabled()) {
-                long cpuTimeBefore = MetricUtil.getCPUCurrentThread();
-                long wallTimeBefore = MetricUtil.getWall();
+                if (handle.getStatementHandle().getMetricsHandle().isEnabled()) {
+                    long cpuTimeBefore = MetricUtil.getCPUCurrentThread();
+                    long wallTimeBefore = MetricUtil.getWall();
 
-                processStatementFilterMultiple(handle, callbackList, theEvent, version, 0);
+                    processStatementFilterMultiple(handle, callbackList, theEvent, version, 0);
 
-                long wallTimeAfter = MetricUtil.getWall();
-                long cpuTimeAfter = MetricUtil.getCPUCurrentThread();
-                long deltaCPU = cpuTimeAfter - cpuTimeBefore;
-                long deltaWall = wallTimeAfter - wallTimeBefore;
-                int size = 1;
-                if (callbackList instanceof Collection) {
-                    size = ((Collection) callbackList).size();
-                }
-                specificServices.getMetricReportingService().accountTime(handle.getStatementHandle().getMetricsHandle(), deltaCPU, deltaWall, size);
-            } else {
-                if (routeThreading) {
-                    specificServices.getThreadingService().submitRoute(new RouteUnitMultipleStaged(this, callbackList, theEvent, handle, version));
+                    long wallTimeAfter = MetricUtil.getWall();
+                    long cpuTimeAfter = MetricUtil.getCPUCurrentThread();
+                    long deltaCPU = cpuTimeAfter - cpuTimeBefore;
+                    long deltaWall = wallTimeAfter - wallTimeBefore;
+                    specificServices.getMetricReportingService().accountTime(handle.getStatementHandle().getMetricsHandle(), deltaCPU, deltaWall, stmtCallbacks.getCallbackCount(i));
                 } else {
-                    processStatementFilterMultiple(handle, callbackList, theEvent, version, 0);
+                    if (routeThreading) {
+                        // the pooled collection is reused, the route unit requires its own copy
+                        Object callbacksCopy = callbackList instanceof Collection ? new ArrayDeque<>((Collection<FilterHandleCallback>) callbackList) : callbackList;
+                        specificServices.getThreadingService().submitRoute(new RouteUnitMultipleStaged(this, callbacksCopy, theEvent, handle, version));
+                    } else {
+                        processStatementFilterMultiple(handle, callbackList, theEvent, version, 0);
+                    }
                 }
-            }
 
-            if (isPrioritized && handle.isPreemptive()) {
-                break;
+                if (isPrioritized && handle.isPreemptive()) {
+                    break;
+                }
             }
+        } finally {
+            stmtCallbacks.clear();
         }
-        stmtCallbacks.clear();
     }
 
     /**
@@ -814,6 +840,22 @@ public class EPStageEventServiceImpl implements EPStageEventServiceSPI, Internal
             specificServices.getEventProcessingRWLock().releaseReadLock();
         }
 
+        // Sharded timer execution processes the shards in parallel, each shard acquiring the runtimelock
+        ThreadingTimerShards timerShards = specificServices.getThreadingService().getTimerShards();
+        if (timerShards != null && !isPrioritized && handles.size() > 1) {
+            try {
+                timerShards.process(handles, this);
+            } catch (RuntimeException ex) {
+                handles.clear();
+                throw ex;
+            } finally {
+                if (InstrumentationHelper.ENABLED) {
+                    InstrumentationHelper.get().aTime();
+                }
+            }
+            return;
+        }
+
         specificServices.getEventProcessingRWLock().acquireReadLock();
         try {
             processScheduleHandles(handles);
@@ -828,6 +870,40 @@ public class EPStageEventServiceImpl implements EPStageEventServiceSPI, Internal
         }
     }
 
+    public void processScheduleShard(Map<EPStatementAgentInstanceHandle, Object> stmtCallbacks) {
+        specificServices.getEventProcessingRWLock().acquireReadLock();
+        try {
+            for (Map.Entry<EPStatementAgentInstanceHandle, Object> entry : stmtCallbacks.entrySet()) {
+                EPStatementAgentInstanceHandle handle = entry.getKey();
+                Object callbackObject = entry.getValue();
+
+                if (handle.getStatementHandle().getMetricsHandle().isEnabled()) {
+                    long cpuTimeBefore = MetricUtil.getCPUCurrentThread();
+                    long wallTimeBefore = MetricUtil.getWall();
+
+                    processStatementScheduleMultiple(handle, callbackObject, specificServices);
+
+                    long wallTimeAfter = MetricUtil.getWall();
+                    long cpuTimeAfter = MetricUtil.getCPUCurrentThread();
+                    long deltaCPU = cpuTimeAfter - cpuTimeBefore;
+                    long deltaWall = wallTimeAfter - wallTimeBefore;
+                    int numInput = (callbackObject instanceof Collection) ? ((Collection) callbackObject).size() : 1;
+                    specificServices.getMetricReportingService().accountTime(handle.getStatementHandle().getMetricsHandle(), deltaCPU, deltaWall, numInput);
+                } else {
+                    processStatementScheduleMultiple(handle, callbackObject, specificServices);
+                }
+            }
+        } finally {
+            specificServices.getEventProcessingRWLock().releaseReadLock();
+        }
+
+        // Let listeners know of results
+        dispatch();
+
+        // Work off the event queue if any events accumulated in there via a route()
+        processThreadWorkQueue();
+    }
+
     public void processScheduleHandles(ArrayBackedCollection<ScheduleHandle> handles) {
         if (ThreadLogUtil.ENABLED_TRACE) {
             ThreadLogUtil.trace("Found schedules for", handles.size());
@@ -27,7 +27,7 @@ public abstract class StageRecoveryServiceBase implements StageRecoveryService {
     protected abstract SchedulingServiceSPI makeSchedulingService(int stageId, EPServicesContext servicesContext);
 
     public final StageSpecificServices makeSpecificServices(int stageId, String stageUri, EPServicesContext servicesContext) {
-        ManagedReadWriteLock eventProcessingRWLock = new ManagedReadWriteLock("EventProcLock_" + stageUri, servicesContext.getConfigSnapshot().getRuntime().getThreading().isRuntimeFairlock());
+        ManagedReadWriteLock eventProcessingRWLock = new ManagedReadWriteLock("EventProcLock_" + stageUri, servicesContext.getConfigSnapshot().getRuntime().getThreading().isRuntimeFairlock(), servicesContext.getConfigSnapshot().getRuntime().getThreading().getRuntimeLockType());
         FilterServiceSPI filterService = makeFilterService(stageId, servicesContext);
         SchedulingServiceSPI schedulingService = makeSchedulingService(stageId, servicesContext);
         DeploymentLifecycleService deploymentLifecycleService = new DeploymentLifecycleServiceImpl(stageId);
@@ -10,12 +10,18 @@
  */
 package com.espertech.esper.runtime.internal.kernel.stage;
 
+import com.espertech.esper.common.client.configuration.runtime.ConfigurationRuntimeExecution;
+import com.espertech.esper.common.client.util.FilterServiceProfile;
+import com.espertech.esper.common.client.util.SchedulingServiceProfile;
 import com.espertech.esper.common.internal.schedule.TimeSourceService;
 import com.espertech.esper.runtime.internal.filtersvcimpl.FilterServiceLockCoarse;
+import com.espertech.esper.runtime.internal.filtersvcimpl.FilterServiceReadCopyUpdate;
+import com.espertech.esper.runtime.internal.filtersvcimpl.FilterServiceSettings;
 import com.espertech.esper.runtime.internal.filtersvcimpl.FilterServiceSPI;
 import com.espertech.esper.runtime.internal.kernel.service.EPServicesContext;
 import com.espertech.esper.runtime.internal.schedulesvcimpl.SchedulingServiceImpl;
 import com.espertech.esper.runtime.internal.schedulesvcimpl.SchedulingServiceSPI;
+import com.espertech.esper.runtime.internal.schedulesvcimpl.SchedulingServiceTimingWheel;
 
 import java.time.ZoneId;
 import java.util.Collections;
@@ -68,16 +74,25 @@ public class StageRecoveryServiceImpl extends StageRecoveryServiceBase implement
     }
 
     protected FilterServiceSPI makeFilterService(int stageId, EPServicesContext servicesContext) {
-        return new FilterServiceLockCoarse(stageId);
+        ConfigurationRuntimeExecution execution = servicesContext.getConfigSnapshot().getRuntime().getExecution();
+        FilterServiceSettings settings = new FilterServiceSettings(execution.getFilterIndexCompileThreshold(), execution.getFilterIndexReorderInterval(), execution.isFilterIndexInBitmap(), execution.isFilterMetrics());
+        if (execution.getFilterServiceProfile() == FilterServiceProfile.READCOPYUPDATE) {
+            return new FilterServiceReadCopyUpdate(stageId, settings);
+        }
+        return new FilterServiceLockCoarse(stageId, settings);
     }
 
     protected SchedulingServiceSPI makeSchedulingService(int stageId, EPServicesContext servicesContext) {
         ZoneId zoneId = servicesContext.getClasspathImportServiceRuntime().getTimeZone().toZoneId();
-        return new SchedulingServiceImpl(stageId, new TimeSourceService() {
+        TimeSourceService timeSourceService = new TimeSourceService() {
             public long getTimeMillis() {
                 return servicesContext.getSchedulingService().getTime() + 1;
             }
-        }, zoneId);
+        };
+        if (servicesContext.getConfigSnapshot().getRuntime().getExecution().getSchedulingServiceProfile() == SchedulingServiceProfile.TIMINGWHEEL) {
+            return new SchedulingServiceTimingWheel(stageId, timeSourceService, zoneId);
+        }
+        return new SchedulingServiceImpl(stageId, timeSourceService, zoneId);
     }
 
     private void initDeploymentStages() {
@@ -0,0 +1,146 @@
+/*
+ ***************************************************************************************
+ *  Copyright (C) 2006 EsperTech, Inc. All rights reserved.                            *
+ *  http://www.espertech.com/esper                                                     *
+ *  http://www.espertech.com                                                           *
+ *  ---------------------------------------------------------------------------------- *
+ *  The software in this package is published under the terms of the GPL license       *
+ *  a copy of which has been included with this distribution in the license.txt file.  *
+ ***************************************************************************************
+ */
+package com.espertech.esper.runtime.internal.kernel.thread;
+
+import com.espertech.esper.common.client.EventBean;
+import com.espertech.esper.common.internal.event.util.EPRuntimeEventProcessWrapped;
+import com.espertech.esper.runtime.internal.kernel.service.EPServicesEvaluation;
+import org.w3c.dom.Node;
+
+import java.util.Map;
+
+/**
+ * Kind of inbound event, for use by threading that carries the event and event type name rather than a unit of work.
+ */
+public enum InboundUnitKind {
+    BEAN {
+        public InboundUnitRunnable makeUnit(Object event, String eventTypeName, EPRuntimeEventProcessWrapped runtime, EPServicesEvaluation services) {
+            return new InboundUnitSendEvent(event, eventTypeName, runtime, services);
+        }
+
+        public void process(Object event, String eventTypeName, EPRuntimeEventProcessWrapped runtime, EPServicesEvaluation services) {
+            InboundUnitSendEvent.process(event, eventTypeName, runtime, services);
+        }
+
+        public EventBean wrap(Object event, String eventTypeName, EPServicesEvaluation services) {
+            return services.getEventTypeResolvingBeanFactory().adapterForBean(event, eventTypeName);
+        }
+    },
+    MAP {
+        public InboundUnitRunnable makeUnit(Object event, String eventTypeName, EPRuntimeEventProcessWrapped runtime, EPServicesEvaluation services) {
+            return new InboundUnitSendMap((Map) event, eventTypeName, runtime, services);
+        }
+
+        public void process(Object event, String eventTypeName, EPRuntimeEventProcessWrapped runtime, EPServicesEvaluation services) {
+            InboundUnitSendMap.process((Map) event, eventTypeName, runtime, services);
+        }
+
+        public EventBean wrap(Object event, String eventTypeName, EPServicesEvaluation services) {
+            return services.getEventTypeResolvingBeanFactory().adapterForMap((Map) event, eventTypeName);
+        }
+    },
+    OBJECTARRAY {
+        public InboundUnitRunnable makeUnit(Object event, String eventTypeName, EPRuntimeEventProcessWrapped runtime, EPServicesEvaluation services) {
+            return new InboundUnitSendObjectArray((Object[]) event, eventTypeName, runtime, services);
+        }
+
+        public void process(Object event, String eventTypeName, EPRuntimeEventProcessWrapped runtime, EPServicesEvaluation services) {
+            InboundUnitSendObjectArray.process((Object[]) event, eventTypeName, runtime, services);
+        }
+
+        public EventBean wrap(Object event, String eventTypeName, EPServicesEvaluation services) {
+            return services.getEventTypeResolvingBeanFactory().adapterForObjectArray((Object[]) event, eventTypeName);
+        }
+    },
+    XMLDOM {
+        public InboundUnitRunnable makeUnit(Object event, String eventTypeName, EPRuntimeEventProcessWrapped runtime, EPServicesEvaluation services) {
+            return new InboundUnitSendDOM((Node) event, eventTypeName, runtime, services);
+        }
+
+        public void process(Object event, String eventTypeName, EPRuntimeEventProcessWrapped runtime, EPServicesEvaluation services) {
+            InboundUnitSendDOM.process((Node) event, eventTypeName, runtime, services);
+        }
+
+        public EventBean wrap(Object event, String eventTypeName, EPServicesEvaluation services) {
+            return services.getEventTypeResolvingBeanFactory().adapterForXMLDOM((Node) event, eventTypeName);
+        }
+    },
+    AVRO {
+        public InboundUnitRunnable makeUnit(Object event, String eventTypeName, EPRuntimeEventProcessWrapped runtime, EPServicesEvaluation services) {
+            return new InboundUnitSendAvro(event, eventTypeName, runtime, services);
+        }
+
+        public void process(Object event, String eventTypeName, EPRuntimeEventProcessWrapped runtime, EPServicesEvaluation services) {
+            InboundUnitSendAvro.process(event, eventTypeName, runtime, services);
+        }
+
+        public EventBean wrap(Object event, String eventTypeName, EPServicesEvaluation services) {
+            return services.getEventTypeResolvingBeanFactory().adapterForAvro(event, eventTypeName);
+        }
+    },
+    JSON {
+        public InboundUnitRunnable makeUnit(Object event, String eventTypeName, EPRuntimeEventProcessWrapped runtime, EPServicesEvaluation services) {
+            return new InboundUnitSendJson((String) event, eventTypeName, runtime, services);
+        }
+
+        public void process(Object event, String eventTypeName, EPRuntimeEventProcessWrapped runtime, EPServicesEvaluation services) {
+            InboundUnitSendJson.process((String) event, eventTypeName, runtime, services);
+        }
+
+        public EventBean wrap(Object event, String eventTypeName, EPServicesEvaluation services) {
+            return services.getEventTypeResolvingBeanFactory().adapterForJson((String) event, eventTypeName);
+        }
+    },
+    WRAPPED {
+        public InboundUnitRunnable makeUnit(Object event, String eventTypeName, EPRuntimeEventProcessWrapped runtime, EPServicesEvaluation services) {
+            return new InboundUnitSendWrapped((EventBean) event, runtime, services);
+        }
+
+        public void process(Object event, String eventTypeName, EPRuntimeEventProcessWrapped runtime, EPServicesEvaluation services) {
+            InboundUnitSendWrapped.process((EventBean) event, runtime, services);
+        }
+
+        public EventBean wrap(Object event, String eventTypeName, EPServicesEvaluation services) {
+            return (EventBean) event;
+        }
+    };
+
+    /**
+     * Allocate a unit of work for the event.
+     *
+     * @param event         event, for wrapped events the event bean
+     * @param eventTypeName event type name, or null for wrapped events
+     * @param runtime       runtime to process the event
+     * @param services      services
+     * @return unit
+     */
+    public abstract InboundUnitRunnable makeUnit(Object event, String eventTypeName, EPRuntimeEventProcessWrapped runtime, EPServicesEvaluation services);
+
+    /**
+     * Process the event without allocating a unit of work.
+     *
+     * @param event         event, for wrapped events the event bean
+     * @param eventTypeName event type name, or null for wrapped events
+     * @param runtime       runtime to process the event
+     * @param services      services
+     */
+    public abstract void process(Object event, String eventTypeName, EPRuntimeEventProcessWrapped runtime, EPServicesEvaluation services);
+
+    /**
+     * Wrap the event without processing it.
+     *
+     * @param event         event, for wrapped events the event bean
+     * @param eventTypeName event type name, or null for wrapped events
+     * @param services      services
+     * @return event bean
+     */
+    public abstract EventBean wrap(Object event, String eventTypeName, EPServicesEvaluation services);
+}
@@ -42,6 +42,18 @@ public class InboundUnitSendAvro implements InboundUnitRunnable {
     }
 
     public void run() {
+        process(genericRecordDotData, eventTypeName, runtime, services);
+    }
+
+    /**
+     * Process the event, used by this unit and by ring-buffer threading that does not allocate units.
+     *
+     * @param genericRecordDotData event
+     * @param eventTypeName event type name
+     * @param runtime runtime
+     * @param services services
+     */
+    public static void process(Object genericRecordDotData, String eventTypeName, EPRuntimeEventProcessWrapped runtime, EPServicesEvaluation services) {
         try {
             EventBean eventBean = services.getEventTypeResolvingBeanFactory().adapterForAvro(genericRecordDotData, eventTypeName);
             runtime.processWrappedEvent(eventBean);
@@ -36,6 +36,18 @@ public class InboundUnitSendDOM implements InboundUnitRunnable {
     }
 
     public void run() {
+        process(theEvent, eventTypeName, runtime, services);
+    }
+
+    /**
+     * Process the event, used by this unit and by ring-buffer threading that does not allocate units.
+     *
+     * @param theEvent event
+     * @param eventTypeName event type name
+     * @param runtime runtime
+     * @param services services
+     */
+    public static void process(org.w3c.dom.Node theEvent, String eventTypeName, EPRuntimeEventProcessWrapped runtime, EPServicesEvaluation services) {
         try {
             EventBean eventBean = services.getEventTypeResolvingBeanFactory().adapterForXMLDOM(theEvent, eventTypeName);
             runtime.processWrappedEvent(eventBean);
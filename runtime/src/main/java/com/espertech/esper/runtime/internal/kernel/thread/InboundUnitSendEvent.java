@@ -34,6 +34,18 @@ public class InboundUnitSendEvent implements InboundUnitRunnable {
     }
 
     public void run() {
+        process(theEvent, eventTypeName, runtime, services);
+    }
+
+    /**
+     * Process the event, used by this unit and by ring-buffer threading that does not allocate units.
+     *
+     * @param theEvent event
+     * @param eventTypeName event type name
+     * @param runtime runtime
+     * @param services services
+     */
+    public static void process(Object theEvent, String eventTypeName, EPRuntimeEventProcessWrapped runtime, EPServicesEvaluation services) {
         try {
             EventBean eventBean = services.getEventTypeResolvingBeanFactory().adapterForBean(theEvent, eventTypeName);
             runtime.processWrappedEvent(eventBean);
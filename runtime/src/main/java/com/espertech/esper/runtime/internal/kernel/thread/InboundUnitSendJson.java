@@ -34,6 +34,18 @@ public class InboundUnitSendJson implements InboundUnitRunnable {
     }
 
     public void run() {
+        process(json, eventTypeName, runtime, services);
+    }
+
+    /**
+     * Process the event, used by this unit and by ring-buffer threading that does not allocate units.
+     *
+     * @param json event
+     * @param eventTypeName event type name
+     * @param runtime runtime
+     * @param services services
+     */
+    public static void process(String json, String eventTypeName, EPRuntimeEventProcessWrapped runtime, EPServicesEvaluation services) {
         try {
             EventBean eventBean = services.getEventTypeResolvingBeanFactory().adapterForJson(json, eventTypeName);
             runtime.processWrappedEvent(eventBean);
@@ -36,6 +36,18 @@ public class InboundUnitSendMap implements InboundUnitRunnable {
     }
 
     public void run() {
+        process(map, eventTypeName, runtime, services);
+    }
+
+    /**
+     * Process the event, used by this unit and by ring-buffer threading that does not allocate units.
+     *
+     * @param map event
+     * @param eventTypeName event type name
+     * @param runtime runtime
+     * @param services services
+     */
+    public static void process(Map map, String eventTypeName, EPRuntimeEventProcessWrapped runtime, EPServicesEvaluation services) {
         try {
             EventBean eventBean = services.getEventTypeResolvingBeanFactory().adapterForMap(map, eventTypeName);
             runtime.processWrappedEvent(eventBean);
@@ -32,6 +32,17 @@ public class InboundUnitSendWrapped implements InboundUnitRunnable {
     }
 
     public void run() {
+        process(eventBean, runtime, services);
+    }
+
+    /**
+     * Process the event, used by this unit and by ring-buffer threading that does not allocate units.
+     *
+     * @param eventBean event
+     * @param runtime runtime
+     * @param services services
+     */
+    public static void process(EventBean eventBean, EPRuntimeEventProcessWrapped runtime, EPServicesEvaluation services) {
         try {
             runtime.processWrappedEvent(eventBean);
         } catch (RuntimeException e) {
@@ -0,0 +1,249 @@
+/*
+ ***************************************************************************************
+ *  Copyright (C) 2006 EsperTech, Inc. All rights reserved.                            *
+ *  http://www.espertech.com/esper                                                     *
+ *  http://www.espertech.com                                                           *
+ *  ---------------------------------------------------------------------------------- *
+ *  The software in this package is published under the terms of the GPL license       *
+ *  a copy of which has been included with this distribution in the license.txt file.  *
+ ***************************************************************************************
+ */
+package com.espertech.esper.runtime.internal.kernel.thread;
+
+import com.espertech.esper.common.client.EventBean;
+import com.espertech.esper.common.client.EventPropertyGetter;
+import com.espertech.esper.common.client.EventType;
+import com.espertech.esper.common.client.configuration.ConfigurationException;
+import com.espertech.esper.common.client.util.RingBufferWaitStrategy;
+import com.espertech.esper.common.internal.event.core.EventTypeNameResolver;
+import com.espertech.esper.common.internal.event.util.EPRuntimeEventProcessWrapped;
+import com.espertech.esper.runtime.internal.kernel.service.EPServicesEvaluation;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Key-affine inbound threading: a number of lanes that each have a single thread and their own queue.
+ * <p>
+ * Events of an event type that has a configured key property are assigned to a lane by the hash code of the key value
+ * and are therefore processed by the same thread in the order sent. Such events are wrapped by the sending thread
+ * to obtain the key value. Events of other event types, and events that cannot be wrapped, are assigned to lanes round-robin.
+ * </p>
+ * <p>
+ * A key property that is not a property of its event type fails initialization. For an event type that is not
+ * known at initialization, and that later does not have the key property, a warning is logged once and
+ * the events are assigned to lanes round-robin.
+ * </p>
+ */
+public class ThreadingInboundLanes {
+    private static final Logger log = LoggerFactory.getLogger(ThreadingInboundLanes.class);
+
+    private final Map<String, String> keyProperties;
+    private final EPServicesEvaluation services;
+    private final BlockingQueue<Runnable>[] queues;
+    private final ThreadPoolExecutor[] pools;
+    private final ThreadingRingBuffer[] ringBuffers;
+    private final int numLanes;
+    private final AtomicInteger roundRobin = new AtomicInteger();
+    private final Set<String> warnedTypeNames = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Ctor.
+     *
+     * @param runtimeURI        runtime URI
+     * @param numLanes          number of lanes
+     * @param capacity          capacity per lane or null if unbounded
+     * @param ringBuffer        true to use a ring buffer per lane rather than a blocking queue
+     * @param waitStrategy      ring buffer wait strategy
+     * @param keyProperties     key property name per event type name
+     * @param eventTypeResolver resolves the event types of the key properties
+     * @param services          services
+     * @throws ConfigurationException if a key property is not a property of its event type
+     */
+    public ThreadingInboundLanes(String runtimeURI, int numLanes, Integer capacity, boolean ringBuffer, RingBufferWaitStrategy waitStrategy, Map<String, String> keyProperties, EventTypeNameResolver eventTypeResolver, EPServicesEvaluation services) throws ConfigurationException {
+        validateKeyProperties(keyProperties, eventTypeResolver);
+        this.numLanes = Math.max(1, numLanes);
+        this.keyProperties = keyProperties;
+        this.services = services;
+
+        if (runtimeURI == null) {
+            runtimeURI = "default";
+        }
+        if (log.isInfoEnabled()) {
+            log.info("Starting key-affine inbound threading with " + this.numLanes + " lanes");
+        }
+
+        if (ringBuffer) {
+            queues = null;
+            pools = null;
+            ringBuffers = new ThreadingRingBuffer[this.numLanes];
+            for (int i = 0; i < this.numLanes; i++) {
+                ringBuffers[i] = new ThreadingRingBuffer(runtimeURI, "Inbound-" + i, capacity, 1, waitStrategy, services);
+                ringBuffers[i].start();
+            }
+        } else {
+            ringBuffers = null;
+            queues = new BlockingQueue[this.numLanes];
+            pools = new ThreadPoolExecutor[this.numLanes];
+            for (int i = 0; i < this.numLanes; i++) {
+                String name = "Inbound-" + i;
+                queues[i] = (capacity == null || capacity <= 0 || capacity == Integer.MAX_VALUE) ? new LinkedBlockingQueue<>() : new ArrayBlockingQueue<>(capacity);
+                ThreadGroup threadGroup = new ThreadGroup("com.espertech.esper." + runtimeURI + "-" + name);
+                pools[i] = new ThreadPoolExecutor(1, 1, 1, TimeUnit.SECONDS, queues[i], new EngineThreadFactory(runtimeURI, name, threadGroup, Thread.NORM_PRIORITY));
+                pools[i].prestartAllCoreThreads();
+            }
+        }
+    }
+
+    /**
+     * Submit an inbound event.
+     *
+     * @param kind          kind of event
+     * @param event         event
+     * @param eventTypeName event type name or null for wrapped events
+     * @param runtime       runtime to process the event
+     */
+    public void submit(InboundUnitKind kind, Object event, String eventTypeName, EPRuntimeEventProcessWrapped runtime) {
+        String typeName = kind == InboundUnitKind.WRAPPED ? ((EventBean) event).getEventType().getName() : eventTypeName;
+        String keyProperty = typeName == null ? null : keyProperties.get(typeName);
+        if (keyProperty == null) {
+            submit(nextRoundRobin(), kind, event, eventTypeName, runtime);
+            return;
+        }
+
+        EventBean eventBean;
+        try {
+            eventBean = kind.wrap(event, eventTypeName, services);
+        } catch (RuntimeException ex) {
+            // let the lane report the exception as part of processing
+            submit(nextRoundRobin(), kind, event, eventTypeName, runtime);
+            return;
+        }
+
+        EventPropertyGetter getter = eventBean.getEventType().getGetter(keyProperty);
+        if (getter == null) {
+            if (warnedTypeNames.add(typeName)) {
+                log.warn("Key property '" + keyProperty + "' is not a property of event type '" + typeName + "', events of the event type are assigned to inbound lanes round-robin");
+            }
+            submit(nextRoundRobin(), InboundUnitKind.WRAPPED, eventBean, null, runtime);
+            return;
+        }
+        Object key = getter.get(eventBean);
+        submit(laneFor(key), InboundUnitKind.WRAPPED, eventBean, null, runtime);
+    }
+
+    /**
+     * Submit a unit of work to a lane assigned round-robin.
+     *
+     * @param unit work
+     */
+    public void submit(InboundUnitRunnable unit) {
+        int lane = nextRoundRobin();
+        if (ringBuffers != null) {
+            ringBuffers[lane].publish(unit);
+            return;
+        }
+        put(lane, unit);
+    }
+
+    /**
+     * Returns the lane for a key value.
+     *
+     * @param key key value
+     * @return lane
+     */
+    public int laneFor(Object key) {
+        if (key == null) {
+            return 0;
+        }
+        int hash = key.hashCode();
+        hash ^= (hash >>> 16);
+        return Math.floorMod(hash, numLanes);
+    }
+
+    /**
+     * Returns the number of lanes.
+     *
+     * @return number of lanes
+     */
+    public int getNumLanes() {
+        return numLanes;
+    }
+
+    /**
+     * Returns the number of events and units queued and not yet taken by a lane thread.
+     *
+     * @return size
+     */
+    public int size() {
+        int size = 0;
+        for (int i = 0; i < numLanes; i++) {
+            size += ringBuffers != null ? ringBuffers[i].size() : queues[i].size();
+        }
+        return size;
+    }
+
+    /**
+     * Stop lane threads, discarding any work not yet taken by a lane thread.
+     */
+    public void stop() {
+        if (log.isInfoEnabled()) {
+            log.info("Shutting down key-affine inbound threading");
+        }
+        if (ringBuffers != null) {
+            for (ThreadingRingBuffer ringBuffer : ringBuffers) {
+                ringBuffer.stop(10000);
+            }
+            return;
+        }
+        for (int i = 0; i < numLanes; i++) {
+            queues[i].clear();
+            pools[i].shutdown();
+        }
+        for (ThreadPoolExecutor pool : pools) {
+            try {
+                pool.awaitTermination(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                log.error("Interruped awaiting termination", e);
+            }
+        }
+    }
+
+    private void submit(int lane, InboundUnitKind kind, Object event, String eventTypeName, EPRuntimeEventProcessWrapped runtime) {
+        if (ringBuffers != null) {
+            ringBuffers[lane].publish(kind, event, eventTypeName, runtime);
+            return;
+        }
+        put(lane, kind.makeUnit(event, eventTypeName, runtime, services));
+    }
+
+    private void put(int lane, Runnable unit) {
+        try {
+            queues[lane].put(unit);
+        } catch (InterruptedException e) {
+            log.info("Submit interrupted:" + e);
+        }
+    }
+
+    private static void validateKeyProperties(Map<String, String> keyProperties, EventTypeNameResolver eventTypeResolver) throws ConfigurationException {
+        for (Map.Entry<String, String> entry : keyProperties.entrySet()) {
+            EventType eventType = eventTypeResolver.getTypeByName(entry.getKey());
+            if (eventType == null) {
+                log.warn("Key property '" + entry.getValue() + "' refers to event type '" + entry.getKey() + "' that is not known at initialization, " +
+                    "unless the event type is added later and has the property its events are assigned to inbound lanes round-robin");
+                continue;
+            }
+            if (eventType.getGetter(entry.getValue()) == null) {
+                throw new ConfigurationException("Key property '" + entry.getValue() + "' for key-affine inbound threading is not a property of event type '" + entry.getKey() + "'");
+            }
+        }
+    }
+
+    private int nextRoundRobin() {
+        return Math.floorMod(roundRobin.getAndIncrement(), numLanes);
+    }
+}
@@ -0,0 +1,302 @@
+/*
+ ***************************************************************************************
+ *  Copyright (C) 2006 EsperTech, Inc. All rights reserved.                            *
+ *  http://www.espertech.com/esper                                                     *
+ *  http://www.espertech.com                                                           *
+ *  ---------------------------------------------------------------------------------- *
+ *  The software in this package is published under the terms of the GPL license       *
+ *  a copy of which has been included with this distribution in the license.txt file.  *
+ ***************************************************************************************
+ */
+package com.espertech.esper.runtime.internal.kernel.thread;
+
+import com.espertech.esper.common.client.util.RingBufferWaitStrategy;
+import com.espertech.esper.common.internal.event.util.EPRuntimeEventProcessWrapped;
+import com.espertech.esper.runtime.internal.kernel.service.EPServicesEvaluation;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Bounded multi-producer multi-consumer ring buffer with pre-allocated slots and consumer threads, for use
+ * in place of a thread pool executor over a blocking queue.
+ * <p>
+ * Each slot carries a sequence number that producers and consumers use to claim the slot without locking.
+ * Inbound events are carried as the event and its event type name and are not wrapped into a unit of work,
+ * other work is carried as the runnable. Consumers take all published slots up to the batch size at once
+ * and wait according to the wait strategy when there is no work. Producers wait according to the same
+ * strategy when the ring buffer is full.
+ * </p>
+ * <p>
+ * Stopping works like the shutdown of a thread pool executor: work published before the stop is still processed
+ * by the consumers before they exit, and work published after the stop is discarded.
+ * </p>
+ */
+public class ThreadingRingBuffer {
+    private static final Logger log = LoggerFactory.getLogger(ThreadingRingBuffer.class);
+
+    private static final int DEFAULT_SIZE = 65536;
+    private static final int MAX_BATCH_SIZE = 64;
+    private static final int SPIN_TRIES_BEFORE_PARK = 100;
+    private static final long PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+
+    private final String name;
+    private final Slot[] slots;
+    private final int mask;
+    private final RingBufferWaitStrategy waitStrategy;
+    private final EPServicesEvaluation services;
+    private final AtomicLong producerSequence = new AtomicLong();
+    private final AtomicLong consumerSequence = new AtomicLong();
+    private final Thread[] consumers;
+    private volatile boolean stopped;
+
+    /**
+     * Ctor.
+     *
+     * @param runtimeURI   runtime URI
+     * @param name         name of the ring buffer used for threads
+     * @param capacity     requested capacity or null for default
+     * @param numThreads   number of consumer threads
+     * @param waitStrategy wait strategy
+     * @param services     services
+     */
+    public ThreadingRingBuffer(String runtimeURI, String name, Integer capacity, int numThreads, RingBufferWaitStrategy waitStrategy, EPServicesEvaluation services) {
+        this.name = name;
+        this.waitStrategy = waitStrategy == null ? RingBufferWaitStrategy.PARK : waitStrategy;
+        this.services = services;
+
+        int size = sizeFor(capacity);
+        this.slots = new Slot[size];
+        for (int i = 0; i < size; i++) {
+            slots[i] = new Slot(i);
+        }
+        this.mask = size - 1;
+
+        if (runtimeURI == null) {
+            runtimeURI = "default";
+        }
+        String threadGroupName = "com.espertech.esper." + runtimeURI + "-" + name;
+        ThreadGroup threadGroup = new ThreadGroup(threadGroupName);
+        EngineThreadFactory threadFactory = new EngineThreadFactory(runtimeURI, name, threadGroup, Thread.NORM_PRIORITY);
+        this.consumers = new Thread[numThreads];
+        for (int i = 0; i < numThreads; i++) {
+            consumers[i] = threadFactory.newThread(this::consume);
+        }
+    }
+
+    /**
+     * Start consumer threads.
+     */
+    public void start() {
+        if (log.isInfoEnabled()) {
+            log.info("Starting ring buffer " + name + " with " + consumers.length + " threads and " + slots.length + " slots");
+        }
+        for (Thread consumer : consumers) {
+            consumer.start();
+        }
+    }
+
+    /**
+     * Stop consumer threads after they processed the work published so far, discarding work published afterwards.
+     *
+     * @param timeoutMSec maximum wait time for consumers to complete
+     */
+    public void stop(long timeoutMSec) {
+        if (log.isInfoEnabled()) {
+            log.info("Shutting down ring buffer " + name);
+        }
+        stopped = true;
+        long deadline = System.currentTimeMillis() + timeoutMSec;
+        for (Thread consumer : consumers) {
+            long remaining = deadline - System.currentTimeMillis();
+            if (remaining <= 0) {
+                break;
+            }
+            try {
+                consumer.join(remaining);
+            } catch (InterruptedException e) {
+                log.error("Interruped awaiting termination", e);
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    /**
+     * Publish an inbound event.
+     *
+     * @param kind          kind of event
+     * @param event         event
+     * @param eventTypeName event type name or null for wrapped events
+     * @param runtime       runtime to process the event
+     */
+    public void publish(InboundUnitKind kind, Object event, String eventTypeName, EPRuntimeEventProcessWrapped runtime) {
+        long sequence = claim();
+        if (sequence == -1) {
+            return;
+        }
+        Slot slot = slots[(int) sequence & mask];
+        slot.kind = kind;
+        slot.event = event;
+        slot.eventTypeName = eventTypeName;
+        slot.runtime = runtime;
+        slot.sequence = sequence + 1;
+    }
+
+    /**
+     * Publish a unit of work.
+     *
+     * @param unit work
+     */
+    public void publish(Runnable unit) {
+        long sequence = claim();
+        if (sequence == -1) {
+            return;
+        }
+        Slot slot = slots[(int) sequence & mask];
+        slot.unit = unit;
+        slot.sequence = sequence + 1;
+    }
+
+    /**
+     * Returns the number of slots published and not yet taken by a consumer.
+     *
+     * @return size
+     */
+    public int size() {
+        long size = producerSequence.get() - consumerSequence.get();
+        return size < 0 ? 0 : (int) size;
+    }
+
+    /**
+     * Returns the number of slots.
+     *
+     * @return capacity
+     */
+    public int getCapacity() {
+        return slots.length;
+    }
+
+    private long claim() {
+        int idle = 0;
+        while (true) {
+            if (stopped) {
+                log.info("Submit to ring buffer " + name + " after shutdown, work discarded");
+                return -1;
+            }
+            long sequence = producerSequence.get();
+            Slot slot = slots[(int) sequence & mask];
+            long difference = slot.sequence - sequence;
+            if (difference == 0) {
+                if (producerSequence.compareAndSet(sequence, sequence + 1)) {
+                    return sequence;
+                }
+            } else if (difference < 0) {
+                // full, the slot has not been consumed yet
+                idle = idle(idle);
+            }
+        }
+    }
+
+    private void consume() {
+        int idle = 0;
+        while (true) {
+            long sequence = consumerSequence.get();
+
+            // determine the number of published slots that follow
+            int available = 0;
+            while (available < MAX_BATCH_SIZE && slots[(int) (sequence + available) & mask].sequence == sequence + available + 1) {
+                available++;
+            }
+            if (available == 0) {
+                // when stopped, exit once all claimed slots are taken, waiting for any slot claimed but not yet published
+                if (stopped && sequence == producerSequence.get()) {
+                    return;
+                }
+                if (slots[(int) sequence & mask].sequence - (sequence + 1) < 0) {
+                    idle = idle(idle);
+                }
+                continue;
+            }
+            if (!consumerSequence.compareAndSet(sequence, sequence + available)) {
+                continue;
+            }
+            idle = 0;
+
+            for (int i = 0; i < available; i++) {
+                long current = sequence + i;
+                Slot slot = slots[(int) current & mask];
+                InboundUnitKind kind = slot.kind;
+                Object event = slot.event;
+                String eventTypeName = slot.eventTypeName;
+                EPRuntimeEventProcessWrapped runtime = slot.runtime;
+                Runnable unit = slot.unit;
+                slot.clear();
+                slot.sequence = current + mask + 1;
+
+                try {
+                    if (unit != null) {
+                        unit.run();
+                    } else {
+                        kind.process(event, eventTypeName, runtime, services);
+                    }
+                } catch (Throwable t) {
+                    log.error("Unexpected error processing work of ring buffer " + name + ": " + t.getMessage(), t);
+                }
+            }
+        }
+    }
+
+    private int idle(int idle) {
+        switch (waitStrategy) {
+            case BUSY_SPIN:
+                Thread.onSpinWait();
+                break;
+            case YIELD:
+                Thread.yield();
+                break;
+            default:
+                if (idle < SPIN_TRIES_BEFORE_PARK) {
+                    Thread.onSpinWait();
+                } else {
+                    LockSupport.parkNanos(PARK_NANOS);
+                }
+        }
+        return idle + 1;
+    }
+
+    private static int sizeFor(Integer capacity) {
+        if (capacity == null || capacity <= 0 || capacity == Integer.MAX_VALUE) {
+            return DEFAULT_SIZE;
+        }
+        int size = 1;
+        while (size < capacity && size < (1 << 30)) {
+            size <<= 1;
+        }
+        return size;
+    }
+
+    private static class Slot {
+        private volatile long sequence;
+        private InboundUnitKind kind;
+        private Object event;
+        private String eventTypeName;
+        private EPRuntimeEventProcessWrapped runtime;
+        private Runnable unit;
+
+        Slot(long sequence) {
+            this.sequence = sequence;
+        }
+
+        void clear() {
+            kind = null;
+            event = null;
+            eventTypeName = null;
+            runtime = null;
+            unit = null;
+        }
+    }
+}
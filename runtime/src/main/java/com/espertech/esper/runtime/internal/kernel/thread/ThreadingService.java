@@ -10,6 +10,8 @@
  */
 package com.espertech.esper.runtime.internal.kernel.thread;
 
+import com.espertech.esper.common.internal.event.core.EventTypeNameResolver;
+import com.espertech.esper.common.internal.event.util.EPRuntimeEventProcessWrapped;
 import com.espertech.esper.common.internal.statement.thread.ThreadingCommon;
 import com.espertech.esper.runtime.internal.kernel.service.EPServicesEvaluation;
 
@@ -30,8 +32,9 @@ public interface ThreadingService extends ThreadingCommon {
      *
      * @param uri uri
      * @param services services
+     * @param eventTypeResolver resolves the event types that key-affine inbound threading has key properties for
      */
-    public void initThreading(String uri, EPServicesEvaluation services);
+    public void initThreading(String uri, EPServicesEvaluation services, EventTypeNameResolver eventTypeResolver);
 
     /**
      * Returns true for timer execution threading enabled.
@@ -47,6 +50,13 @@ public interface ThreadingService extends ThreadingCommon {
      */
     public void submitTimerWork(TimerUnit timerUnit);
 
+    /**
+     * Returns the timer shards when sharded timer execution is enabled.
+     *
+     * @return timer shards or null when not enabled
+     */
+    public ThreadingTimerShards getTimerShards();
+
     /**
      * Returns true for inbound threading enabled.
      *
@@ -61,6 +71,16 @@ public interface ThreadingService extends ThreadingCommon {
      */
     public void submitInbound(InboundUnitRunnable unit);
 
+    /**
+     * Submit an inbound event, the threading service determines how the event is carried to the inbound threads.
+     *
+     * @param kind          kind of event
+     * @param event         event
+     * @param eventTypeName event type name
+     * @param runtime       runtime to process the event
+     */
+    public void submitInbound(InboundUnitKind kind, Object event, String eventTypeName, EPRuntimeEventProcessWrapped runtime);
+
     /**
      * Returns true for route execution threading enabled.
      *
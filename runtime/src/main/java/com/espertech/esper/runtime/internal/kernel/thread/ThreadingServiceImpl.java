@@ -12,6 +12,7 @@ package com.espertech.esper.runtime.internal.kernel.thread;
 
 import com.espertech.esper.common.client.EventBean;
 import com.espertech.esper.common.client.configuration.runtime.ConfigurationRuntimeThreading;
+import com.espertech.esper.common.internal.event.core.EventTypeNameResolver;
 import com.espertech.esper.common.internal.event.util.EPRuntimeEventProcessWrapped;
 import com.espertech.esper.runtime.internal.kernel.service.EPServicesEvaluation;
 import org.slf4j.Logger;
@@ -30,6 +31,7 @@ public class ThreadingServiceImpl implements ThreadingService {
     private final boolean isInboundThreading;
     private final boolean isRouteThreading;
     private final boolean isOutboundThreading;
+    private final boolean isRingBuffer;
 
     private BlockingQueue<Runnable> timerQueue;
     private BlockingQueue<Runnable> inboundQueue;
@@ -41,6 +43,14 @@ public class ThreadingServiceImpl implements ThreadingService {
     private ThreadPoolExecutor routeThreadPool;
     private ThreadPoolExecutor outboundThreadPool;
 
+    private ThreadingRingBuffer timerRingBuffer;
+    private ThreadingRingBuffer inboundRingBuffer;
+    private ThreadingRingBuffer routeRingBuffer;
+    private ThreadingRingBuffer outboundRingBuffer;
+
+    private ThreadingInboundLanes inboundLanes;
+    private ThreadingTimerShards timerShards;
+
     private EPServicesEvaluation services;
 
     /**
@@ -54,6 +64,7 @@ public class ThreadingServiceImpl implements ThreadingService {
         isInboundThreading = threadingConfig.isThreadPoolInbound();
         isRouteThreading = threadingConfig.isThreadPoolRouteExec();
         isOutboundThreading = threadingConfig.isThreadPoolOutbound();
+        isRingBuffer = threadingConfig.isThreadPoolRingBuffer();
     }
 
     public boolean isRouteThreading() {
@@ -72,9 +83,22 @@ public class ThreadingServiceImpl implements ThreadingService {
         return isOutboundThreading;
     }
 
-    public void initThreading(String uri, EPServicesEvaluation services) {
+    public void initThreading(String uri, EPServicesEvaluation services, EventTypeNameResolver eventTypeResolver) {
         this.services = services;
-        if (isInboundThreading) {
+        if (isInboundThreading && !config.getThreadPoolInboundKeyProperties().isEmpty()) {
+            inboundLanes = new ThreadingInboundLanes(uri, config.getThreadPoolInboundNumThreads(), config.getThreadPoolInboundCapacity(), isRingBuffer,
+                config.getThreadPoolRingBufferWaitStrategy(), config.getThreadPoolInboundKeyProperties(), eventTypeResolver, services);
+        }
+        if (config.isThreadPoolTimerShard()) {
+            timerShards = new ThreadingTimerShards(uri, config.getThreadPoolTimerShardNumThreads(), services.getExceptionHandlingService());
+        }
+
+        if (isRingBuffer) {
+            initRingBuffers(uri, services);
+            return;
+        }
+
+        if (isInboundThreading && inboundLanes == null) {
             inboundQueue = makeQueue(config.getThreadPoolInboundCapacity());
             inboundThreadPool = getThreadPool(uri, "Inbound", inboundQueue, config.getThreadPoolInboundNumThreads());
         }
@@ -95,6 +119,24 @@ public class ThreadingServiceImpl implements ThreadingService {
         }
     }
 
+    private void initRingBuffers(String uri, EPServicesEvaluation services) {
+        if (isInboundThreading && inboundLanes == null) {
+            inboundRingBuffer = getRingBuffer(uri, "Inbound", config.getThreadPoolInboundCapacity(), config.getThreadPoolInboundNumThreads(), services);
+        }
+
+        if (isTimerThreading) {
+            timerRingBuffer = getRingBuffer(uri, "TimerExec", config.getThreadPoolTimerExecCapacity(), config.getThreadPoolTimerExecNumThreads(), services);
+        }
+
+        if (isRouteThreading) {
+            routeRingBuffer = getRingBuffer(uri, "RouteExec", config.getThreadPoolRouteExecCapacity(), config.getThreadPoolRouteExecNumThreads(), services);
+        }
+
+        if (isOutboundThreading) {
+            outboundRingBuffer = getRingBuffer(uri, "Outbound", config.getThreadPoolOutboundCapacity(), config.getThreadPoolOutboundNumThreads(), services);
+        }
+    }
+
     private BlockingQueue<Runnable> makeQueue(Integer threadPoolTimerExecCapacity) {
         if ((threadPoolTimerExecCapacity == null) ||
                 (threadPoolTimerExecCapacity <= 0) ||
@@ -106,6 +148,10 @@ public class ThreadingServiceImpl implements ThreadingService {
     }
 
     public void submitRoute(RouteUnitRunnable unit) {
+        if (routeRingBuffer != null) {
+            routeRingBuffer.publish(unit);
+            return;
+        }
         try {
             routeQueue.put(unit);
         } catch (InterruptedException e) {
@@ -114,6 +160,14 @@ public class ThreadingServiceImpl implements ThreadingService {
     }
 
     public void submitInbound(InboundUnitRunnable unit) {
+        if (inboundLanes != null) {
+            inboundLanes.submit(unit);
+            return;
+        }
+        if (inboundRingBuffer != null) {
+            inboundRingBuffer.publish(unit);
+            return;
+        }
         try {
             inboundQueue.put(unit);
         } catch (InterruptedException e) {
@@ -121,7 +175,23 @@ public class ThreadingServiceImpl implements ThreadingService {
         }
     }
 
+    public void submitInbound(InboundUnitKind kind, Object event, String eventTypeName, EPRuntimeEventProcessWrapped runtime) {
+        if (inboundLanes != null) {
+            inboundLanes.submit(kind, event, eventTypeName, runtime);
+            return;
+        }
+        if (inboundRingBuffer != null) {
+            inboundRingBuffer.publish(kind, event, eventTypeName, runtime);
+            return;
+        }
+        submitInbound(kind.makeUnit(event, eventTypeName, runtime, services));
+    }
+
     public void submitOutbound(OutboundUnitRunnable unit) {
+        if (outboundRingBuffer != null) {
+            outboundRingBuffer.publish(unit);
+            return;
+        }
         try {
             outboundQueue.put(unit);
         } catch (InterruptedException e) {
@@ -130,6 +200,10 @@ public class ThreadingServiceImpl implements ThreadingService {
     }
 
     public void submitTimerWork(TimerUnit unit) {
+        if (timerRingBuffer != null) {
+            timerRingBuffer.publish(unit);
+            return;
+        }
         try {
             timerQueue.put(unit);
         } catch (InterruptedException e) {
@@ -169,6 +243,28 @@ public class ThreadingServiceImpl implements ThreadingService {
         return inboundThreadPool;
     }
 
+    /**
+     * Returns the inbound ring buffer, when using ring-buffer threading.
+     *
+     * @return ring buffer or null
+     */
+    public ThreadingRingBuffer getInboundRingBuffer() {
+        return inboundRingBuffer;
+    }
+
+    public ThreadingTimerShards getTimerShards() {
+        return timerShards;
+    }
+
+    /**
+     * Returns the inbound lanes, when using key-affine inbound threading.
+     *
+     * @return lanes or null
+     */
+    public ThreadingInboundLanes getInboundLanes() {
+        return inboundLanes;
+    }
+
     public synchronized void destroy() {
         if (timerThreadPool != null) {
             stopPool(timerThreadPool, timerQueue, "TimerExec");
@@ -183,10 +279,27 @@ public class ThreadingServiceImpl implements ThreadingService {
             stopPool(inboundThreadPool, inboundQueue, "Inbound");
         }
 
+        stopRingBuffer(timerRingBuffer);
+        stopRingBuffer(routeRingBuffer);
+        stopRingBuffer(outboundRingBuffer);
+        stopRingBuffer(inboundRingBuffer);
+        if (inboundLanes != null) {
+            inboundLanes.stop();
+        }
+        if (timerShards != null) {
+            timerShards.stop();
+        }
+
         timerThreadPool = null;
         routeThreadPool = null;
         outboundThreadPool = null;
         inboundThreadPool = null;
+        timerRingBuffer = null;
+        routeRingBuffer = null;
+        outboundRingBuffer = null;
+        inboundRingBuffer = null;
+        inboundLanes = null;
+        timerShards = null;
     }
 
     public Thread makeEventSourceThread(String runtimeURI, String sourceName, Runnable runnable) {
@@ -200,7 +313,19 @@ public class ThreadingServiceImpl implements ThreadingService {
     }
 
     public void submitInbound(EventBean event, EPRuntimeEventProcessWrapped runtimeEventSender) {
-        submitInbound(new InboundUnitSendWrapped(event, runtimeEventSender, services));
+        submitInbound(InboundUnitKind.WRAPPED, event, null, runtimeEventSender);
+    }
+
+    private void stopRingBuffer(ThreadingRingBuffer ringBuffer) {
+        if (ringBuffer != null) {
+            ringBuffer.stop(10000);
+        }
+    }
+
+    private ThreadingRingBuffer getRingBuffer(String runtimeURI, String name, Integer capacity, int numThreads, EPServicesEvaluation services) {
+        ThreadingRingBuffer ringBuffer = new ThreadingRingBuffer(runtimeURI, name, capacity, numThreads, config.getThreadPoolRingBufferWaitStrategy(), services);
+        ringBuffer.start();
+        return ringBuffer;
     }
 
     private void stopPool(ThreadPoolExecutor threadPool, BlockingQueue<Runnable> queue, String name) {
@@ -0,0 +1,254 @@
+/*
+ ***************************************************************************************
+ *  Copyright (C) 2006 EsperTech, Inc. All rights reserved.                            *
+ *  http://www.espertech.com/esper                                                     *
+ *  http://www.espertech.com                                                           *
+ *  ---------------------------------------------------------------------------------- *
+ *  The software in this package is published under the terms of the GPL license       *
+ *  a copy of which has been included with this distribution in the license.txt file.  *
+ ***************************************************************************************
+ */
+package com.espertech.esper.runtime.internal.kernel.thread;
+
+import com.espertech.esper.common.internal.collection.ArrayBackedCollection;
+import com.espertech.esper.common.internal.context.util.EPStatementAgentInstanceHandle;
+import com.espertech.esper.common.internal.context.util.EPStatementHandleCallbackSchedule;
+import com.espertech.esper.common.internal.schedule.ScheduleHandle;
+import com.espertech.esper.common.internal.schedule.ScheduleHandleCallback;
+import com.espertech.esper.common.internal.settings.ExceptionHandlingService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayDeque;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Phaser;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sharded timer execution: the schedules that are due for a time advance are divided into shards by statement agent instance
+ * and the shards are processed in parallel by a thread pool with one thread per shard.
+ * <p>
+ * All schedules of an agent instance are in the same shard and are processed in the order they were evaluated.
+ * Processing returns when all shards have been processed. When all schedules fall into a single shard,
+ * that shard is processed by the calling thread.
+ * </p>
+ * <p>
+ * An exception thrown by a shard processed by the pool is passed to the runtime exception handler as an exception
+ * not associated to a statement, same as for the inbound pool. The shard maps and tasks are kept per calling thread
+ * and reused for each time advance.
+ * </p>
+ */
+public class ThreadingTimerShards {
+    private static final Logger log = LoggerFactory.getLogger(ThreadingTimerShards.class);
+
+    private final String runtimeURI;
+    private final int numShards;
+    private final ExceptionHandlingService exceptionHandlingService;
+    private final LinkedBlockingQueue<Runnable> queue;
+    private final ThreadPoolExecutor pool;
+
+    private final ThreadLocal<ShardBatch> batches = new ThreadLocal<ShardBatch>() {
+        protected synchronized ShardBatch initialValue() {
+            return new ShardBatch();
+        }
+    };
+
+    /**
+     * Ctor.
+     *
+     * @param runtimeURI               runtime URI
+     * @param numThreads               number of threads and shards
+     * @param exceptionHandlingService exception handling service
+     */
+    public ThreadingTimerShards(String runtimeURI, int numThreads, ExceptionHandlingService exceptionHandlingService) {
+        this.runtimeURI = runtimeURI;
+        this.numShards = Math.max(1, numThreads);
+        this.exceptionHandlingService = exceptionHandlingService;
+
+        if (runtimeURI == null) {
+            runtimeURI = "default";
+        }
+        if (log.isInfoEnabled()) {
+            log.info("Starting sharded timer execution with " + numShards + " shards");
+        }
+
+        String name = "TimerShard";
+        ThreadGroup threadGroup = new ThreadGroup("com.espertech.esper." + runtimeURI + "-" + name);
+        queue = new LinkedBlockingQueue<>();
+        pool = new ThreadPoolExecutor(numShards, numShards, 1, TimeUnit.SECONDS, queue, new EngineThreadFactory(runtimeURI, name, threadGroup, Thread.NORM_PRIORITY));
+        pool.prestartAllCoreThreads();
+    }
+
+    /**
+     * Divide the schedule handles into shards, process the shards and wait for all shards to complete.
+     * The handles are cleared.
+     *
+     * @param handles   schedule handles that are due
+     * @param processor processor for a shard
+     */
+    public void process(ArrayBackedCollection<ScheduleHandle> handles, TimerShardProcessor processor) {
+        Object[] handleArray = handles.getArray();
+        int entryCount = handles.size();
+        ShardBatch batch = batches.get();
+        LinkedHashMap<EPStatementAgentInstanceHandle, Object>[] shards = batch.shards;
+
+        try {
+            // sort the schedules into shards by agent instance, keeping the order of schedules per agent instance
+            int numNonEmpty = 0;
+            for (int i = 0; i < entryCount; i++) {
+                EPStatementHandleCallbackSchedule handleCallback = (EPStatementHandleCallbackSchedule) handleArray[i];
+                EPStatementAgentInstanceHandle handle = handleCallback.getAgentInstanceHandle();
+                ScheduleHandleCallback callback = handleCallback.getScheduleCallback();
+
+                Map<EPStatementAgentInstanceHandle, Object> stmtCallbacks = shards[shardFor(handle)];
+                if (stmtCallbacks.isEmpty()) {
+                    numNonEmpty++;
+                }
+                addCallback(stmtCallbacks, handle, callback);
+            }
+            handles.clear();
+
+            if (numNonEmpty == 0) {
+                return;
+            }
+
+            // handle a single shard in the calling thread
+            if (numNonEmpty == 1) {
+                for (Map<EPStatementAgentInstanceHandle, Object> stmtCallbacks : shards) {
+                    if (!stmtCallbacks.isEmpty()) {
+                        processor.processScheduleShard(stmtCallbacks);
+                    }
+                }
+                return;
+            }
+
+            // the calling thread is a registered party of the phaser, the phase cannot advance until it arrives
+            for (ShardTask task : batch.tasks) {
+                if (task.stmtCallbacks.isEmpty()) {
+                    continue;
+                }
+                task.processor = processor;
+                batch.phaser.register();
+                try {
+                    pool.execute(task);
+                } catch (RejectedExecutionException ex) {
+                    task.run();
+                }
+            }
+
+            // the time advance is complete only when all shards are complete
+            batch.phaser.arriveAndAwaitAdvance();
+        } finally {
+            for (ShardTask task : batch.tasks) {
+                task.processor = null;
+                task.stmtCallbacks.clear();
+            }
+        }
+    }
+
+    /**
+     * Returns the number of shards.
+     *
+     * @return shards
+     */
+    public int getNumShards() {
+        return numShards;
+    }
+
+    /**
+     * Returns the thread pool.
+     *
+     * @return pool
+     */
+    public ThreadPoolExecutor getPool() {
+        return pool;
+    }
+
+    /**
+     * Stop the thread pool.
+     */
+    public void stop() {
+        if (log.isInfoEnabled()) {
+            log.info("Shutting down sharded timer execution");
+        }
+        queue.clear();
+        pool.shutdown();
+        try {
+            pool.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            log.error("Interruped awaiting termination", e);
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void handleShardException(RuntimeException e) {
+        log.error("Unexpected error processing timer shard: " + e.getMessage(), e);
+        exceptionHandlingService.handleInboundPoolException(runtimeURI, e, null);
+    }
+
+    private int shardFor(EPStatementAgentInstanceHandle handle) {
+        int hash = handle.hashCode();
+        return Math.floorMod(hash ^ (hash >>> 16), numShards);
+    }
+
+    private static void addCallback(Map<EPStatementAgentInstanceHandle, Object> stmtCallbacks, EPStatementAgentInstanceHandle handle, ScheduleHandleCallback callback) {
+        Object entry = stmtCallbacks.get(handle);
+
+        // This statement has not been encountered before
+        if (entry == null) {
+            stmtCallbacks.put(handle, callback);
+            return;
+        }
+
+        // This statement has been encountered once before
+        if (entry instanceof ScheduleHandleCallback) {
+            ArrayDeque<ScheduleHandleCallback> entries = new ArrayDeque<>();
+            entries.add((ScheduleHandleCallback) entry);
+            entries.add(callback);
+            stmtCallbacks.put(handle, entries);
+            return;
+        }
+
+        // This statement has been encountered more then once before
+        ArrayDeque<ScheduleHandleCallback> entries = (ArrayDeque<ScheduleHandleCallback>) entry;
+        entries.add(callback);
+    }
+
+    private class ShardBatch {
+        private final LinkedHashMap<EPStatementAgentInstanceHandle, Object>[] shards = new LinkedHashMap[numShards];
+        private final ShardTask[] tasks = new ShardTask[numShards];
+        private final Phaser phaser = new Phaser(1);
+
+        private ShardBatch() {
+            for (int i = 0; i < numShards; i++) {
+                shards[i] = new LinkedHashMap<>();
+                tasks[i] = new ShardTask(shards[i], phaser);
+            }
+        }
+    }
+
+    private class ShardTask implements Runnable {
+        private final LinkedHashMap<EPStatementAgentInstanceHandle, Object> stmtCallbacks;
+        private final Phaser phaser;
+        private TimerShardProcessor processor;
+
+        private ShardTask(LinkedHashMap<EPStatementAgentInstanceHandle, Object> stmtCallbacks, Phaser phaser) {
+            this.stmtCallbacks = stmtCallbacks;
+            this.phaser = phaser;
+        }
+
+        public void run() {
+            try {
+                processor.processScheduleShard(stmtCallbacks);
+            } catch (RuntimeException e) {
+                handleShardException(e);
+            } finally {
+                phaser.arriveAndDeregister();
+            }
+        }
+    }
+}
@@ -0,0 +1,27 @@
+/*
+ ***************************************************************************************
+ *  Copyright (C) 2006 EsperTech, Inc. All rights reserved.                            *
+ *  http://www.espertech.com/esper                                                     *
+ *  http://www.espertech.com                                                           *
+ *  ---------------------------------------------------------------------------------- *
+ *  The software in this package is published under the terms of the GPL license       *
+ *  a copy of which has been included with this distribution in the license.txt file.  *
+ ***************************************************************************************
+ */
+package com.espertech.esper.runtime.internal.kernel.thread;
+
+import com.espertech.esper.common.internal.context.util.EPStatementAgentInstanceHandle;
+
+import java.util.Map;
+
+/**
+ * Processor for a shard of schedule callbacks, for use with sharded timer execution.
+ */
+public interface TimerShardProcessor {
+    /**
+     * Process the schedule callbacks of a shard, including listener dispatch and the events routed during processing.
+     *
+     * @param stmtCallbacks schedule callback or deque of callbacks per statement agent instance handle
+     */
+    void processScheduleShard(Map<EPStatementAgentInstanceHandle, Object> stmtCallbacks);
+}
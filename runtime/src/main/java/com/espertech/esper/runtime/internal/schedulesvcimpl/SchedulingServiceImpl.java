@@ -37,8 +37,8 @@ public final class SchedulingServiceImpl implements SchedulingServiceSPI {
     // Map of time and handle
     private final SortedMap<Long, SortedMap<Long, ScheduleHandle>> timeHandleMap;
 
-    // Map of handle and handle list for faster removal
-    private final Map<ScheduleHandle, SortedMap<Long, ScheduleHandle>> handleSetMap;
+    // Map of handle and trigger time for faster removal
+    private final Map<ScheduleHandle, Long> handleTimeMap;
 
     // Current time - used for evaluation as well as for adding new handles
     private volatile long currentTime;
@@ -54,14 +54,14 @@ public final class SchedulingServiceImpl implements SchedulingServiceSPI {
         this.stageId = stageId;
         this.defaultDateTimeFormatter = DateTimeFormatter.ofPattern(DateTime.DEFAULT_XMLLIKE_DATE_FORMAT).withZone(defaultFormatterTimeZone);
         this.timeHandleMap = new TreeMap<Long, SortedMap<Long, ScheduleHandle>>();
-        this.handleSetMap = new HashMap<ScheduleHandle, SortedMap<Long, ScheduleHandle>>();
+        this.handleTimeMap = new HashMap<ScheduleHandle, Long>();
         // initialize time to just before now as there is a check for duplicate external time events
         this.currentTime = timeSourceService.getTimeMillis() - 1;
     }
 
     public void destroy() {
         log.debug("Destroying scheduling service");
-        handleSetMap.clear();
+        handleTimeMap.clear();
         timeHandleMap.clear();
     }
 
@@ -80,7 +80,7 @@ public final class SchedulingServiceImpl implements SchedulingServiceSPI {
             InstrumentationHelper.get().qScheduleAdd(currentTime, afterTime, handle, slot);
         }
 
-        if (handleSetMap.containsKey(handle)) {
+        if (handleTimeMap.containsKey(handle)) {
             remove(handle, slot);
         }
 
@@ -97,14 +97,20 @@ public final class SchedulingServiceImpl implements SchedulingServiceSPI {
             InstrumentationHelper.get().qScheduleRemove(handle, slot);
         }
 
-        SortedMap<Long, ScheduleHandle> handleSet = handleSetMap.get(handle);
-        if (handleSet == null) {
+        Long triggerTime = handleTimeMap.remove(handle);
+        if (triggerTime == null) {
             // If it already has been removed then that's fine;
             // Such could be the case when 2 timers fireStatementStopped at the same time, and one stops the other
             return;
         }
+
+        // Remove the time when it has no more handles, so that the time map does not hold times that were
+        // all removed such as for short-lived schedules that rarely fire
+        SortedMap<Long, ScheduleHandle> handleSet = timeHandleMap.get(triggerTime);
         handleSet.remove(slot);
-        handleSetMap.remove(handle);
+        if (handleSet.isEmpty()) {
+            timeHandleMap.remove(triggerTime);
+        }
 
         if (InstrumentationHelper.ENABLED) {
             InstrumentationHelper.get().aScheduleRemove();
@@ -127,27 +133,14 @@ public final class SchedulingServiceImpl implements SchedulingServiceSPI {
             return;
         }
 
-        // First determine all triggers to shoot
-        List<Long> removeKeys = new ArrayList<Long>();
-        for (Map.Entry<Long, SortedMap<Long, ScheduleHandle>> entry : headMap.entrySet()) {
-            Long key = entry.getKey();
-            SortedMap<Long, ScheduleHandle> value = entry.getValue();
-            removeKeys.add(key);
-            for (ScheduleHandle handle : value.values()) {
+        // Determine all triggers to shoot and remove the triggered msec values and their handles in a single pass
+        Iterator<Map.Entry<Long, SortedMap<Long, ScheduleHandle>>> it = headMap.entrySet().iterator();
+        while (it.hasNext()) {
+            for (ScheduleHandle handle : it.next().getValue().values()) {
                 handles.add(handle);
+                handleTimeMap.remove(handle);
             }
-        }
-
-        // Next remove all handles
-        for (Map.Entry<Long, SortedMap<Long, ScheduleHandle>> entry : headMap.entrySet()) {
-            for (ScheduleHandle handle : entry.getValue().values()) {
-                handleSetMap.remove(handle);
-            }
-        }
-
-        // Remove all triggered msec values
-        for (Long key : removeKeys) {
-            timeHandleMap.remove(key);
+            it.remove();
         }
 
         if (InstrumentationHelper.ENABLED) {
@@ -158,15 +151,20 @@ public final class SchedulingServiceImpl implements SchedulingServiceSPI {
     public void transfer(Set<Integer> statementIds, SchedulingServiceSPI schedulingService) {
         long currentTime = getTime();
         long targetTime = schedulingService.getTime();
+        // collect first as removing a handle may remove its time from the map
+        List<TransferEntry> transfers = new ArrayList<>();
         for (Map.Entry<Long, SortedMap<Long, ScheduleHandle>> schedule : timeHandleMap.entrySet()) {
             for (Map.Entry<Long, ScheduleHandle> entry : schedule.getValue().entrySet()) {
                 if (statementIds.contains(entry.getValue().getStatementId())) {
-                    long relative = ScheduleTransferHelper.computeTransferTime(currentTime, targetTime, schedule.getKey());
-                    remove(entry.getValue(), entry.getKey());
-                    schedulingService.add(relative, entry.getValue(), entry.getKey());
+                    transfers.add(new TransferEntry(schedule.getKey(), entry.getKey(), entry.getValue()));
                 }
             }
         }
+        for (TransferEntry transfer : transfers) {
+            long relative = ScheduleTransferHelper.computeTransferTime(currentTime, targetTime, transfer.time);
+            remove(transfer.handle, transfer.slot);
+            schedulingService.add(relative, transfer.handle, transfer.slot);
+        }
     }
 
     public void init() {
@@ -180,7 +178,7 @@ public final class SchedulingServiceImpl implements SchedulingServiceSPI {
             timeHandleMap.put(triggerTime, handleSet);
         }
         handleSet.put(slot, handle);
-        handleSetMap.put(handle, handleSet);
+        handleTimeMap.put(handle, triggerTime);
     }
 
     @JmxGetter(name = "TimeHandleCount", description = "Number of outstanding time evaluations")
@@ -214,11 +212,11 @@ public final class SchedulingServiceImpl implements SchedulingServiceSPI {
     }
 
     public int getScheduleHandleCount() {
-        return handleSetMap.size();
+        return handleTimeMap.size();
     }
 
     public boolean isScheduled(ScheduleHandle handle) {
-        return handleSetMap.containsKey(handle);
+        return handleTimeMap.containsKey(handle);
     }
 
     @Override
@@ -226,13 +224,7 @@ public final class SchedulingServiceImpl implements SchedulingServiceSPI {
         if (timeHandleMap.isEmpty()) {
             return null;
         }
-        for (Map.Entry<Long, SortedMap<Long, ScheduleHandle>> entry : timeHandleMap.entrySet()) {
-            if (entry.getValue().isEmpty()) {
-                continue;
-            }
-            return entry.getKey();
-        }
-        return null;
+        return timeHandleMap.firstKey();
     }
 
     public void visitSchedules(ScheduleVisitor visitor) {
@@ -252,5 +244,17 @@ public final class SchedulingServiceImpl implements SchedulingServiceSPI {
         return defaultDateTimeFormatter;
     }
 
+    private static final class TransferEntry {
+        private final long time;
+        private final long slot;
+        private final ScheduleHandle handle;
+
+        TransferEntry(long time, long slot, ScheduleHandle handle) {
+            this.time = time;
+            this.slot = slot;
+            this.handle = handle;
+        }
+    }
+
     private static final Logger log = LoggerFactory.getLogger(SchedulingServiceImpl.class);
 }
@@ -0,0 +1,494 @@
+/*
+ ***************************************************************************************
+ *  Copyright (C) 2006 EsperTech, Inc. All rights reserved.                            *
+ *  http://www.espertech.com/esper                                                     *
+ *  http://www.espertech.com                                                           *
+ *  ---------------------------------------------------------------------------------- *
+ *  The software in this package is published under the terms of the GPL license       *
+ *  a copy of which has been included with this distribution in the license.txt file.  *
+ ***************************************************************************************
+ */
+package com.espertech.esper.runtime.internal.schedulesvcimpl;
+
+import com.espertech.esper.common.client.util.DateTime;
+import com.espertech.esper.common.internal.collection.RefCountedSet;
+import com.espertech.esper.common.internal.schedule.ScheduleHandle;
+import com.espertech.esper.common.internal.schedule.ScheduleServiceException;
+import com.espertech.esper.common.internal.schedule.TimeSourceService;
+import com.espertech.esper.runtime.internal.metrics.instrumentation.InstrumentationHelper;
+import com.espertech.esper.runtime.internal.metrics.jmx.JmxGetter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.*;
+
+/**
+ * Implements the schedule service as a hierarchical timing wheel.
+ * <p>
+ * The wheel has levels of 64 buckets each, every level covering the next 6 bits of the millisecond time.
+ * A schedule is kept at the level of the highest bit in which its time differs from the time the wheel was
+ * last evaluated at, in the bucket given by its time bits at that level, so that adding and removing a schedule
+ * does not depend on the number of schedules. When evaluating, whole levels and buckets that are due are taken
+ * and the one bucket that is partially due is spread to the lower levels. Buckets are found using
+ * a bitmap of non-empty buckets per level.
+ * <p>
+ * Handles that are due are returned ordered by time and slot, the same as {@link SchedulingServiceImpl}.
+ * <p>
+ * Synchronized since statement creation and event evaluation by multiple (event send) threads
+ * can lead to callbacks added/removed asynchronously.
+ */
+public final class SchedulingServiceTimingWheel implements SchedulingServiceSPI {
+    private static final int BITS_PER_LEVEL = 6;
+    private static final int BUCKETS_PER_LEVEL = 1 << BITS_PER_LEVEL;
+    private static final int BUCKET_MASK = BUCKETS_PER_LEVEL - 1;
+    private static final int NUM_LEVELS = (Long.SIZE + BITS_PER_LEVEL - 1) / BITS_PER_LEVEL;
+    private static final int MAX_POOLED_ENTRIES = 1024;
+
+    private static final Comparator<Entry> TIME_SLOT_COMPARATOR = new Comparator<Entry>() {
+        public int compare(Entry o1, Entry o2) {
+            int compared = Long.compare(o1.time, o2.time);
+            return compared != 0 ? compared : Long.compare(o1.slot, o2.slot);
+        }
+    };
+
+    private final int stageId;
+    private final DateTimeFormatter defaultDateTimeFormatter;
+
+    // Buckets per level, each bucket the head of a doubly-linked list of entries
+    private final Entry[][] buckets = new Entry[NUM_LEVELS][BUCKETS_PER_LEVEL];
+
+    // Bitmap of non-empty buckets per level
+    private final long[] occupied = new long[NUM_LEVELS];
+
+    // Entries at or before the wheel time that have not been evaluated
+    private Entry due;
+
+    // Map of handle and entry for faster removal
+    private final Map<ScheduleHandle, Entry> handleEntryMap = new HashMap<>();
+
+    // Number of entries per distinct time, for the count of outstanding times
+    private final RefCountedSet<Long> timeCounts = new RefCountedSet<>();
+
+    // Reused for collecting due entries
+    private final ArrayList<Entry> evaluated = new ArrayList<>();
+
+    // Entries for reuse
+    private Entry free;
+    private int freeCount;
+
+    // Time at which the wheel was last evaluated, each entry is kept relative to this time
+    private long wheelTime;
+
+    // Current time - used for evaluation as well as for adding new handles
+    private volatile long currentTime;
+
+    /**
+     * Constructor.
+     *
+     * @param stageId                  stage id or -1 when not applicable
+     * @param timeSourceService        time source provider
+     * @param defaultFormatterTimeZone time zone for audit formatter
+     */
+    public SchedulingServiceTimingWheel(int stageId, TimeSourceService timeSourceService, ZoneId defaultFormatterTimeZone) {
+        this.stageId = stageId;
+        this.defaultDateTimeFormatter = DateTimeFormatter.ofPattern(DateTime.DEFAULT_XMLLIKE_DATE_FORMAT).withZone(defaultFormatterTimeZone);
+        // initialize time to just before now as there is a check for duplicate external time events
+        this.currentTime = timeSourceService.getTimeMillis() - 1;
+        this.wheelTime = currentTime;
+    }
+
+    public synchronized void destroy() {
+        log.debug("Destroying scheduling service");
+        handleEntryMap.clear();
+        timeCounts.clear();
+        for (int level = 0; level < NUM_LEVELS; level++) {
+            Arrays.fill(buckets[level], null);
+            occupied[level] = 0;
+        }
+        due = null;
+        free = null;
+        freeCount = 0;
+    }
+
+    public long getTime() {
+        // note that this.currentTime is volatile
+        return this.currentTime;
+    }
+
+    public synchronized final void setTime(long currentTime) {
+        this.currentTime = currentTime;
+    }
+
+    public synchronized final void add(long afterTime, ScheduleHandle handle, long slot)
+            throws ScheduleServiceException {
+        if (InstrumentationHelper.ENABLED) {
+            InstrumentationHelper.get().qScheduleAdd(currentTime, afterTime, handle, slot);
+        }
+
+        Entry entry = handleEntryMap.get(handle);
+        if (entry != null) {
+            unlink(entry);
+            timeCounts.remove(entry.time);
+        } else {
+            entry = allocate(handle);
+            handleEntryMap.put(handle, entry);
+        }
+        entry.time = currentTime + afterTime;
+        entry.slot = slot;
+        timeCounts.add(entry.time);
+        link(entry);
+
+        if (InstrumentationHelper.ENABLED) {
+            InstrumentationHelper.get().aScheduleAdd();
+        }
+    }
+
+    public synchronized final void remove(ScheduleHandle handle, long slot) {
+        if (InstrumentationHelper.ENABLED) {
+            InstrumentationHelper.get().qScheduleRemove(handle, slot);
+        }
+
+        Entry entry = handleEntryMap.remove(handle);
+        if (entry == null) {
+            // If it already has been removed then that's fine;
+            // Such could be the case when 2 timers fireStatementStopped at the same time, and one stops the other
+            return;
+        }
+        unlink(entry);
+        timeCounts.remove(entry.time);
+        release(entry);
+
+        if (InstrumentationHelper.ENABLED) {
+            InstrumentationHelper.get().aScheduleRemove();
+        }
+    }
+
+    public synchronized final void evaluate(Collection<ScheduleHandle> handles) {
+        if (InstrumentationHelper.ENABLED) {
+            InstrumentationHelper.get().qScheduleEval(currentTime);
+        }
+
+        long time = currentTime;
+        if (time > wheelTime) {
+            advance(time);
+        } else if (time < wheelTime) {
+            rebase(time);
+        }
+
+        if (due == null) {
+            if (InstrumentationHelper.ENABLED) {
+                InstrumentationHelper.get().aScheduleEval(handles);
+            }
+            return;
+        }
+
+        // Take all due entries, ordered by time and slot
+        for (Entry entry = due; entry != null; entry = entry.next) {
+            evaluated.add(entry);
+        }
+        due = null;
+        if (evaluated.size() > 1) {
+            evaluated.sort(TIME_SLOT_COMPARATOR);
+        }
+
+        for (Entry entry : evaluated) {
+            handles.add(entry.handle);
+            handleEntryMap.remove(entry.handle);
+            timeCounts.remove(entry.time);
+            release(entry);
+        }
+        evaluated.clear();
+
+        if (InstrumentationHelper.ENABLED) {
+            InstrumentationHelper.get().aScheduleEval(handles);
+        }
+    }
+
+    public void transfer(Set<Integer> statementIds, SchedulingServiceSPI schedulingService) {
+        long currentTime = getTime();
+        long targetTime = schedulingService.getTime();
+        for (Entry entry : collectOrdered()) {
+            if (statementIds.contains(entry.handle.getStatementId())) {
+                long relative = ScheduleTransferHelper.computeTransferTime(currentTime, targetTime, entry.time);
+                remove(entry.handle, entry.slot);
+                schedulingService.add(relative, entry.handle, entry.slot);
+            }
+        }
+    }
+
+    public void init() {
+        // no action required
+    }
+
+    @JmxGetter(name = "TimeHandleCount", description = "Number of outstanding time evaluations")
+    public synchronized int getTimeHandleCount() {
+        return timeCounts.getRefSet().size();
+    }
+
+    @JmxGetter(name = "FurthestTimeHandle", description = "Furthest outstanding time evaluation")
+    public String getFurthestTimeHandleDate() {
+        Long handle = getFurthestTimeHandle();
+        if (handle != null) {
+            return DateTime.print(handle);
+        }
+        return null;
+    }
+
+    @JmxGetter(name = "NearestTimeHandle", description = "Nearest outstanding time evaluation")
+    public String getNearestTimeHandleDate() {
+        Long handle = getNearestTimeHandle();
+        if (handle != null) {
+            return DateTime.print(handle);
+        }
+        return null;
+    }
+
+    public synchronized Long getFurthestTimeHandle() {
+        // entries at a higher level or bucket are always later than entries at a lower level or bucket
+        for (int level = NUM_LEVELS - 1; level >= 0; level--) {
+            if (occupied[level] != 0) {
+                int bucket = Long.SIZE - 1 - Long.numberOfLeadingZeros(occupied[level]);
+                return maxTime(buckets[level][bucket]);
+            }
+        }
+        return due == null ? null : maxTime(due);
+    }
+
+    public synchronized int getScheduleHandleCount() {
+        return handleEntryMap.size();
+    }
+
+    public synchronized boolean isScheduled(ScheduleHandle handle) {
+        return handleEntryMap.containsKey(handle);
+    }
+
+    @Override
+    public synchronized Long getNearestTimeHandle() {
+        // entries that are due are always earlier than entries in the wheel
+        if (due != null) {
+            return minTime(due);
+        }
+        for (int level = 0; level < NUM_LEVELS; level++) {
+            if (occupied[level] != 0) {
+                int bucket = Long.numberOfTrailingZeros(occupied[level]);
+                return minTime(buckets[level][bucket]);
+            }
+        }
+        return null;
+    }
+
+    public void visitSchedules(ScheduleVisitor visitor) {
+        ScheduleVisit visit = new ScheduleVisit();
+        for (Entry entry : collectOrdered()) {
+            visit.setTimestamp(entry.time);
+            visit.setStatementId(entry.handle.getStatementId());
+            visit.setAgentInstanceId(entry.handle.getAgentInstanceId());
+            visitor.visit(visit);
+        }
+    }
+
+    public DateTimeFormatter getDefaultFormatter() {
+        return defaultDateTimeFormatter;
+    }
+
+    private void advance(long time) {
+        long previous = key(wheelTime);
+        long next = key(time);
+        int topLevel = levelOf(previous ^ next);
+        wheelTime = time;
+
+        // all entries below the top level changing are due
+        for (int level = 0; level < topLevel; level++) {
+            takeLevel(level);
+        }
+
+        // at the top level changing, buckets before the bucket of the new time are due and
+        // entries in the bucket of the new time are spread to the lower levels, relative to the new time
+        int nextBucket = bucketOf(next, topLevel);
+        long bits = occupied[topLevel] & (nextBucket == BUCKET_MASK ? -1L : (1L << (nextBucket + 1)) - 1);
+        while (bits != 0) {
+            int bucket = Long.numberOfTrailingZeros(bits);
+            bits &= bits - 1;
+            Entry entry = buckets[topLevel][bucket];
+            buckets[topLevel][bucket] = null;
+            occupied[topLevel] &= ~(1L << bucket);
+            if (bucket < nextBucket) {
+                appendDue(entry);
+            } else {
+                while (entry != null) {
+                    Entry following = entry.next;
+                    link(entry);
+                    entry = following;
+                }
+            }
+        }
+    }
+
+    private void rebase(long time) {
+        List<Entry> entries = new ArrayList<>(handleEntryMap.values());
+        for (int level = 0; level < NUM_LEVELS; level++) {
+            Arrays.fill(buckets[level], null);
+            occupied[level] = 0;
+        }
+        due = null;
+        wheelTime = time;
+        for (Entry entry : entries) {
+            link(entry);
+        }
+    }
+
+    private void takeLevel(int level) {
+        long bits = occupied[level];
+        while (bits != 0) {
+            int bucket = Long.numberOfTrailingZeros(bits);
+            bits &= bits - 1;
+            appendDue(buckets[level][bucket]);
+            buckets[level][bucket] = null;
+        }
+        occupied[level] = 0;
+    }
+
+    private void appendDue(Entry first) {
+        Entry last = first;
+        while (last.next != null) {
+            last.level = -1;
+            last = last.next;
+        }
+        last.level = -1;
+        last.next = due;
+        if (due != null) {
+            due.prev = last;
+        }
+        first.prev = null;
+        due = first;
+    }
+
+    private void link(Entry entry) {
+        entry.prev = null;
+        if (entry.time <= wheelTime) {
+            entry.level = -1;
+            entry.next = due;
+            if (due != null) {
+                due.prev = entry;
+            }
+            due = entry;
+            return;
+        }
+        long key = key(entry.time);
+        int level = levelOf(key ^ key(wheelTime));
+        int bucket = bucketOf(key, level);
+        entry.level = level;
+        entry.bucket = bucket;
+        Entry head = buckets[level][bucket];
+        entry.next = head;
+        if (head != null) {
+            head.prev = entry;
+        }
+        buckets[level][bucket] = entry;
+        occupied[level] |= 1L << bucket;
+    }
+
+    private void unlink(Entry entry) {
+        if (entry.next != null) {
+            entry.next.prev = entry.prev;
+        }
+        if (entry.prev != null) {
+            entry.prev.next = entry.next;
+        } else if (entry.level == -1) {
+            due = entry.next;
+        } else {
+            buckets[entry.level][entry.bucket] = entry.next;
+            if (entry.next == null) {
+                occupied[entry.level] &= ~(1L << entry.bucket);
+            }
+        }
+        entry.prev = null;
+        entry.next = null;
+    }
+
+    private Entry allocate(ScheduleHandle handle) {
+        Entry entry = free;
+        if (entry == null) {
+            entry = new Entry();
+        } else {
+            free = entry.next;
+            freeCount--;
+            entry.next = null;
+        }
+        entry.handle = handle;
+        return entry;
+    }
+
+    private void release(Entry entry) {
+        entry.handle = null;
+        entry.prev = null;
+        if (freeCount < MAX_POOLED_ENTRIES) {
+            entry.next = free;
+            free = entry;
+            freeCount++;
+        } else {
+            entry.next = null;
+        }
+    }
+
+    private synchronized List<Entry> collectOrdered() {
+        List<Entry> entries = new ArrayList<>(handleEntryMap.size());
+        for (Entry entry : handleEntryMap.values()) {
+            entries.add(new Entry(entry.handle, entry.time, entry.slot));
+        }
+        entries.sort(TIME_SLOT_COMPARATOR);
+        return entries;
+    }
+
+    private static long minTime(Entry entry) {
+        long min = entry.time;
+        for (Entry current = entry.next; current != null; current = current.next) {
+            min = Math.min(min, current.time);
+        }
+        return min;
+    }
+
+    private static long maxTime(Entry entry) {
+        long max = entry.time;
+        for (Entry current = entry.next; current != null; current = current.next) {
+            max = Math.max(max, current.time);
+        }
+        return max;
+    }
+
+    // Flip the sign bit so that unsigned ordering of keys is the same as signed ordering of time
+    private static long key(long time) {
+        return time ^ Long.MIN_VALUE;
+    }
+
+    private static int levelOf(long difference) {
+        return (Long.SIZE - 1 - Long.numberOfLeadingZeros(difference)) / BITS_PER_LEVEL;
+    }
+
+    private static int bucketOf(long key, int level) {
+        return (int) (key >>> (level * BITS_PER_LEVEL)) & BUCKET_MASK;
+    }
+
+    private static class Entry {
+        private ScheduleHandle handle;
+        private long time;
+        private long slot;
+        private int level;
+        private int bucket;
+        private Entry prev;
+        private Entry next;
+
+        Entry() {
+        }
+
+        Entry(ScheduleHandle handle, long time, long slot) {
+            this.handle = handle;
+            this.time = time;
+            this.slot = slot;
+        }
+    }
+
+    private static final Logger log = LoggerFactory.getLogger(SchedulingServiceTimingWheel.class);
+}
@@ -0,0 +1,152 @@
+/*
+ ***************************************************************************************
+ *  Copyright (C) 2006 EsperTech, Inc. All rights reserved.                            *
+ *  http://www.espertech.com/esper                                                     *
+ *  http://www.espertech.com                                                           *
+ *  ---------------------------------------------------------------------------------- *
+ *  The software in this package is published under the terms of the GPL license       *
+ *  a copy of which has been included with this distribution in the license.txt file.  *
+ ***************************************************************************************
+ */
+package com.espertech.esper.runtime.internal.filtersvcimpl;
+
+import com.espertech.esper.common.client.EventBean;
+import com.espertech.esper.common.client.EventType;
+import com.espertech.esper.common.internal.collection.Pair;
+import com.espertech.esper.common.internal.filterspec.FilterOperator;
+import com.espertech.esper.common.internal.filterspec.FilterValueSetParam;
+import com.espertech.esper.common.internal.filtersvc.FilterHandle;
+import com.espertech.esper.common.internal.support.SupportBean;
+import com.espertech.esper.runtime.internal.support.SupportEventBeanFactory;
+import com.espertech.esper.runtime.internal.support.SupportEventTypeFactory;
+import junit.framework.TestCase;
+
+import java.util.*;
+
+public class TestEventTypeIndexReorder extends TestCase {
+    private EventType eventType;
+
+    public void setUp() {
+        eventType = SupportEventTypeFactory.createBeanType(SupportBean.class);
+    }
+
+    public void testReorderLockCoarse() {
+        runAssertionReorder(new FilterServiceLockCoarse(-1, new FilterServiceSettings(0, 100, false, false)));
+    }
+
+    public void testReorderReadCopyUpdate() {
+        runAssertionReorder(new FilterServiceReadCopyUpdate(-1, new FilterServiceSettings(0, 100, false, false)));
+    }
+
+    public void testNoReorderWhenDisabled() {
+        FilterServiceLockCoarse filterService = new FilterServiceLockCoarse(-1);
+        addFilters(filterService);
+        for (int i = 0; i < 500; i++) {
+            filterService.evaluate(makeEvent("X", 1), new ArrayList<>(), null);
+        }
+        assertEquals(0, filterService.getNumIndexReorders());
+        assertEquals(FilterOperator.GREATER, getRootIndex(filterService).getFilterOperator());
+
+        // indexes do not count lookups when not reordering
+        assertFalse(getRootIndex(filterService).isCountLookups());
+        assertEquals(0, getRootIndex(filterService).getNumLookups());
+    }
+
+    public void testSortByFanOut() {
+        EventTypeIndexReorder reorder = new EventTypeIndexReorder(10);
+        FilterValueSetParam[][] valueSet = build("intPrimitive", FilterOperator.GREATER, 0, "theString", FilterOperator.EQUAL, "A");
+        SupportFilterHandle handle = new SupportFilterHandle();
+        reorder.add(eventType, valueSet, handle);
+
+        // not reordered, the order is unchanged
+        assertSame(valueSet, reorder.order(eventType, valueSet));
+        assertFalse(reorder.isDue(9));
+        assertTrue(reorder.isDue(10));
+
+        // no statistics when the filter index tree has not evaluated events
+        EventTypeIndex index = new EventTypeIndex(FilterServiceGranularLockFactoryNone.INSTANCE);
+        new EventTypeIndexBuilder(index).add(eventType, valueSet, handle, FilterServiceGranularLockFactoryNone.INSTANCE);
+        assertTrue(reorder.reorder(index, 10).isEmpty());
+        assertFalse(reorder.isDue(19));
+        assertTrue(reorder.getFanOut(eventType).isEmpty());
+
+        reorder.remove(eventType, handle);
+        assertTrue(reorder.reorder(index, 20).isEmpty());
+    }
+
+    private void runAssertionReorder(FilterServiceBase filterService) {
+        List<SupportFilterHandle> handles = addFilters(filterService);
+        assertEquals(FilterOperator.GREATER, getRootIndex(filterService).getFilterOperator());
+
+        // all events pass "intPrimitive > 0", no event passes "theString = ..."
+        for (int i = 0; i < 99; i++) {
+            assertMatches(filterService, makeEvent("X", 1));
+        }
+        assertEquals(0, filterService.getNumIndexReorders());
+        assertMatches(filterService, makeEvent("X", 1));
+        assertEquals(1, filterService.getNumIndexReorders());
+        assertEquals(FilterOperator.EQUAL, getRootIndex(filterService).getFilterOperator());
+
+        Map<Pair<String, FilterOperator>, Double> fanOut = filterService.getReorder().getFanOut(eventType);
+        assertEquals(1d, fanOut.get(new Pair<>("intPrimitive", FilterOperator.GREATER)));
+        assertEquals(0d, fanOut.get(new Pair<>("theString", FilterOperator.EQUAL)));
+
+        // matches are unchanged
+        assertMatches(filterService, makeEvent("S1", 1), handles.get(1));
+        assertMatches(filterService, makeEvent("S1", 0));
+
+        // the order does not change again
+        for (int i = 0; i < 200; i++) {
+            filterService.evaluate(makeEvent("S" + (i % 20), 1), new ArrayList<>(), null);
+        }
+        assertEquals(1, filterService.getNumIndexReorders());
+
+        // filters added after the reorder use the same order and all filters can be removed
+        SupportFilterHandle added = new SupportFilterHandle();
+        FilterValueSetParam[][] addedValueSet = build("intPrimitive", FilterOperator.GREATER, 10, "theString", FilterOperator.EQUAL, "S1");
+        filterService.add(eventType, addedValueSet, added);
+        assertMatches(filterService, makeEvent("S1", 11), handles.get(1), added);
+        assertEquals(1, getRootNode(filterService).getIndizes().size());
+
+        filterService.remove(added, eventType, addedValueSet);
+        for (int i = 0; i < handles.size(); i++) {
+            filterService.remove(handles.get(i), eventType, build("intPrimitive", FilterOperator.GREATER, 0, "theString", FilterOperator.EQUAL, "S" + i));
+        }
+        assertTrue(getRootNode(filterService).isEmpty());
+    }
+
+    private List<SupportFilterHandle> addFilters(FilterServiceSPI filterService) {
+        List<SupportFilterHandle> handles = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            SupportFilterHandle handle = new SupportFilterHandle();
+            filterService.add(eventType, build("intPrimitive", FilterOperator.GREATER, 0, "theString", FilterOperator.EQUAL, "S" + i), handle);
+            handles.add(handle);
+        }
+        return handles;
+    }
+
+    private FilterHandleSetNode getRootNode(FilterServiceBase filterService) {
+        return filterService.getEventTypeIndex().get(eventType);
+    }
+
+    private FilterParamIndexBase getRootIndex(FilterServiceBase filterService) {
+        List<FilterParamIndexBase> indizes = getRootNode(filterService).getIndizes();
+        assertEquals(1, indizes.size());
+        return indizes.get(0);
+    }
+
+    private void assertMatches(FilterServiceSPI filterService, EventBean event, FilterHandle... expected) {
+        List<FilterHandle> matches = new ArrayList<>();
+        filterService.evaluate(event, matches, null);
+        assertEquals(new HashSet<>(Arrays.asList(expected)), new HashSet<>(matches));
+        assertEquals(expected.length, matches.size());
+    }
+
+    private FilterValueSetParam[][] build(Object... params) {
+        return SupportFilterSpecBuilder.build(eventType, params).getValueSet(null, null, null, null);
+    }
+
+    private EventBean makeEvent(String theString, int intPrimitive) {
+        return SupportEventBeanFactory.createObject(new SupportBean(theString, intPrimitive));
+    }
+}
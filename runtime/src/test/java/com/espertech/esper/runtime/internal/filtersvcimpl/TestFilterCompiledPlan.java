@@ -0,0 +1,186 @@
+/*
+ ***************************************************************************************
+ *  Copyright (C) 2006 EsperTech, Inc. All rights reserved.                            *
+ *  http://www.espertech.com/esper                                                     *
+ *  http://www.espertech.com                                                           *
+ *  ---------------------------------------------------------------------------------- *
+ *  The software in this package is published under the terms of the GPL license       *
+ *  a copy of which has been included with this distribution in the license.txt file.  *
+ ***************************************************************************************
+ */
+package com.espertech.esper.runtime.internal.filtersvcimpl;
+
+import com.espertech.esper.common.client.EventBean;
+import com.espertech.esper.common.client.EventType;
+import com.espertech.esper.common.internal.epl.expression.core.ExprEvaluatorContext;
+import com.espertech.esper.common.internal.filterspec.FilterOperator;
+import com.espertech.esper.common.internal.filterspec.FilterValueSetParam;
+import com.espertech.esper.common.internal.filtersvc.FilterHandle;
+import com.espertech.esper.common.internal.support.SupportBean;
+import com.espertech.esper.runtime.internal.kernel.service.EPEventServiceExprEvaluatorContext;
+import com.espertech.esper.runtime.internal.support.SupportEventBeanFactory;
+import com.espertech.esper.runtime.internal.support.SupportEventTypeFactory;
+import junit.framework.TestCase;
+
+import java.util.*;
+
+public class TestFilterCompiledPlan extends TestCase {
+    private static final String[] STRINGS = new String[]{"A", "B", "C", null};
+
+    private EventType eventType;
+
+    public void setUp() {
+        eventType = SupportEventTypeFactory.createBeanType(SupportBean.class);
+    }
+
+    public void testCompileAndInvalidate() {
+        EventTypeIndex index = new EventTypeIndex(FilterServiceGranularLockFactoryNone.INSTANCE, new FilterServiceSettings(3, 0, false, false), null);
+        EventTypeIndexBuilder builder = new EventTypeIndexBuilder(index);
+        SupportFilterHandle handleOne = new SupportFilterHandle();
+        SupportFilterHandle handleTwo = new SupportFilterHandle();
+        FilterValueSetParam[][] specOne = build("theString", FilterOperator.EQUAL, "A", "intPrimitive", FilterOperator.EQUAL, 1);
+        FilterValueSetParam[][] specTwo = build("theString", FilterOperator.NOT_EQUAL, "A", "intPrimitive", FilterOperator.GREATER, 5);
+        builder.add(eventType, specOne, handleOne, FilterServiceGranularLockFactoryNone.INSTANCE);
+        builder.add(eventType, specTwo, handleTwo, FilterServiceGranularLockFactoryNone.INSTANCE);
+
+        for (int i = 0; i < 2; i++) {
+            assertMatches(index, makeEvent("A", 1), handleOne);
+        }
+        assertNull(index.getCompiledPlan(eventType));
+        assertMatches(index, makeEvent("A", 1), handleOne);
+        FilterCompiledPlan plan = index.getCompiledPlan(eventType);
+        assertNotNull(plan);
+        assertEquals(2, plan.getNumValueSlots());
+        assertEquals(3, plan.getNumCompiledIndexes());
+
+        assertMatches(index, makeEvent("A", 1), handleOne);
+        assertMatches(index, makeEvent("B", 6), handleTwo);
+        assertMatches(index, makeEvent("B", 1));
+
+        builder.remove(handleOne, eventType, specOne);
+        index.invalidate(eventType);
+        assertNull(index.getCompiledPlan(eventType));
+        assertMatches(index, makeEvent("A", 1));
+        assertMatches(index, makeEvent("B", 6), handleTwo);
+    }
+
+    public void testScratchFromContext() {
+        EPEventServiceExprEvaluatorContext ctx = new EPEventServiceExprEvaluatorContext("default", null, null, null, null, null, null, null);
+        FilterCompiledPlanScratch scratch = ctx.getFilterCompiledPlanScratch();
+        EventTypeIndex index = new EventTypeIndex(FilterServiceGranularLockFactoryNone.INSTANCE, new FilterServiceSettings(1, 0, false, false), null);
+        EventTypeIndexBuilder builder = new EventTypeIndexBuilder(index);
+        SupportFilterHandle handleOne = new SupportFilterHandle();
+        SupportFilterHandle handleTwo = new SupportFilterHandle();
+        builder.add(eventType, build("theString", FilterOperator.EQUAL, "A"), handleOne, FilterServiceGranularLockFactoryNone.INSTANCE);
+
+        assertMatches(index, makeEvent("A", 1), ctx, handleOne);
+        assertEquals(1, index.getCompiledPlan(eventType).getNumValueSlots());
+        assertMatches(index, makeEvent("A", 1), ctx, handleOne);
+        assertFalse(scratch.isInUse());
+
+        // the recompiled plan has more slots and uses the same scratch
+        builder.add(eventType, build("theString", FilterOperator.EQUAL, "A", "intPrimitive", FilterOperator.EQUAL, 2), handleTwo, FilterServiceGranularLockFactoryNone.INSTANCE);
+        index.invalidate(eventType);
+        assertMatches(index, makeEvent("A", 2), ctx, handleTwo, handleOne);
+        assertEquals(2, index.getCompiledPlan(eventType).getNumValueSlots());
+        assertMatches(index, makeEvent("A", 2), ctx, handleTwo, handleOne);
+        assertMatches(index, makeEvent("A", 1), ctx, handleOne);
+        assertFalse(scratch.isInUse());
+        assertSame(scratch, ctx.getFilterCompiledPlanScratch());
+    }
+
+    public void testCountLookups() {
+        EventTypeIndex index = new EventTypeIndex(FilterServiceGranularLockFactoryNone.INSTANCE, new FilterServiceSettings(1, 0, false, true), null);
+        EventTypeIndexBuilder builder = new EventTypeIndexBuilder(index);
+        SupportFilterHandle handleOne = new SupportFilterHandle();
+        SupportFilterHandle handleTwo = new SupportFilterHandle();
+        builder.add(eventType, build("theString", FilterOperator.EQUAL, "A"), handleOne, FilterServiceGranularLockFactoryNone.INSTANCE);
+        builder.add(eventType, build("intPrimitive", FilterOperator.NOT_EQUAL, 1), handleTwo, FilterServiceGranularLockFactoryNone.INSTANCE);
+
+        assertMatches(index, makeEvent("A", 1), handleOne);
+        assertNotNull(index.getCompiledPlan(eventType));
+        List<FilterParamIndexBase> indizes = index.get(eventType).getIndizes();
+        FilterParamIndexBase equals = indizes.get(0).getFilterOperator() == FilterOperator.EQUAL ? indizes.get(0) : indizes.get(1);
+        FilterParamIndexBase notEquals = equals == indizes.get(0) ? indizes.get(1) : indizes.get(0);
+        long lookupsEquals = equals.getNumLookups();
+        long lookupsNotEquals = notEquals.getNumLookups();
+        long forwardedEquals = equals.getNumForwarded();
+        long forwardedNotEquals = notEquals.getNumForwarded();
+
+        assertMatches(index, makeEvent("A", 2), handleOne, handleTwo);
+        assertMatches(index, makeEvent("B", 1));
+        assertEquals(lookupsEquals + 2, equals.getNumLookups());
+        assertEquals(forwardedEquals + 1, equals.getNumForwarded());
+        assertEquals(lookupsNotEquals + 2, notEquals.getNumLookups());
+        assertEquals(forwardedNotEquals + 1, notEquals.getNumForwarded());
+    }
+
+    public void testSameAsInterpreted() {
+        Random random = new Random(1);
+        FilterServiceLockCoarse interpreted = new FilterServiceLockCoarse(-1);
+        FilterServiceLockCoarse compiled = new FilterServiceLockCoarse(-1, new FilterServiceSettings(5, 0, false, false));
+        List<SupportFilterHandle> handles = new ArrayList<>();
+        Map<SupportFilterHandle, FilterValueSetParam[][]> specs = new HashMap<>();
+
+        for (int step = 0; step < 3000; step++) {
+            int action = random.nextInt(20);
+            if (action < 2 || handles.isEmpty()) {
+                SupportFilterHandle handle = new SupportFilterHandle();
+                FilterValueSetParam[][] spec = randomSpec(random);
+                interpreted.add(eventType, spec, handle);
+                compiled.add(eventType, spec, handle);
+                handles.add(handle);
+                specs.put(handle, spec);
+            } else if (action < 3) {
+                SupportFilterHandle handle = handles.remove(random.nextInt(handles.size()));
+                FilterValueSetParam[][] spec = specs.remove(handle);
+                interpreted.remove(handle, eventType, spec);
+                compiled.remove(handle, eventType, spec);
+            } else {
+                EventBean event = makeEvent(STRINGS[random.nextInt(STRINGS.length)], random.nextInt(4));
+                List<FilterHandle> expected = new ArrayList<>();
+                List<FilterHandle> received = new ArrayList<>();
+                interpreted.evaluate(event, expected, null);
+                compiled.evaluate(event, received, null);
+                assertEquals(new HashSet<>(expected), new HashSet<>(received));
+                assertEquals(expected.size(), received.size());
+            }
+        }
+    }
+
+    private FilterValueSetParam[][] randomSpec(Random random) {
+        List<Object> params = new ArrayList<>();
+        if (random.nextBoolean()) {
+            FilterOperator[] operators = new FilterOperator[]{FilterOperator.EQUAL, FilterOperator.NOT_EQUAL, FilterOperator.IS, FilterOperator.IS_NOT};
+            params.add("theString");
+            params.add(operators[random.nextInt(operators.length)]);
+            params.add(STRINGS[random.nextInt(STRINGS.length)]);
+        }
+        if (random.nextBoolean()) {
+            FilterOperator[] operators = new FilterOperator[]{FilterOperator.EQUAL, FilterOperator.NOT_EQUAL, FilterOperator.GREATER};
+            params.add("intPrimitive");
+            params.add(operators[random.nextInt(operators.length)]);
+            params.add(random.nextInt(4));
+        }
+        return build(params.toArray());
+    }
+
+    private void assertMatches(EventTypeIndex index, EventBean event, FilterHandle... expected) {
+        assertMatches(index, event, null, expected);
+    }
+
+    private void assertMatches(EventTypeIndex index, EventBean event, ExprEvaluatorContext ctx, FilterHandle... expected) {
+        List<FilterHandle> matches = new ArrayList<>();
+        index.matchEvent(event, matches, ctx);
+        assertEquals(Arrays.asList(expected), matches);
+    }
+
+    private FilterValueSetParam[][] build(Object... params) {
+        return SupportFilterSpecBuilder.build(eventType, params).getValueSet(null, null, null, null);
+    }
+
+    private EventBean makeEvent(String theString, int intPrimitive) {
+        SupportBean bean = new SupportBean(theString, intPrimitive);
+        return SupportEventBeanFactory.createObject(bean);
+    }
+}
@@ -0,0 +1,128 @@
+/*
+ ***************************************************************************************
+ *  Copyright (C) 2006 EsperTech, Inc. All rights reserved.                            *
+ *  http://www.espertech.com/esper                                                     *
+ *  http://www.espertech.com                                                           *
+ *  ---------------------------------------------------------------------------------- *
+ *  The software in this package is published under the terms of the GPL license       *
+ *  a copy of which has been included with this distribution in the license.txt file.  *
+ ***************************************************************************************
+ */
+package com.espertech.esper.runtime.internal.filtersvcimpl;
+
+import junit.framework.TestCase;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+
+public class TestFilterIdBitmap extends TestCase {
+
+    public void testAddRemove() {
+        FilterIdBitmap bitmap = new FilterIdBitmap();
+        assertTrue(bitmap.isEmpty());
+        assertEquals(0, bitmap.firstAbsent());
+
+        assertTrue(bitmap.add(3));
+        assertFalse(bitmap.add(3));
+        assertTrue(bitmap.add(0));
+        assertEquals(2, bitmap.size());
+        assertTrue(bitmap.contains(3));
+        assertFalse(bitmap.contains(2));
+        assertFalse(bitmap.contains(1000));
+        assertEquals(1, bitmap.firstAbsent());
+        assertFalse(bitmap.isBitmap());
+        assertIds(bitmap, 0, 3);
+
+        // dense ids are kept in a bitmap
+        for (int i = 0; i < 200; i++) {
+            bitmap.add(i);
+        }
+        assertTrue(bitmap.isBitmap());
+        assertEquals(200, bitmap.size());
+        assertEquals(200, bitmap.firstAbsent());
+        assertTrue(bitmap.remove(64));
+        assertFalse(bitmap.remove(64));
+        assertFalse(bitmap.remove(5000));
+        assertEquals(64, bitmap.firstAbsent());
+
+        // sparse ids are kept in an array
+        for (int i = 0; i < 199; i++) {
+            bitmap.remove(i);
+        }
+        assertFalse(bitmap.isBitmap());
+        assertIds(bitmap, 199);
+        assertEquals(0, bitmap.firstAbsent());
+    }
+
+    public void testRandomSameAsSet() {
+        Random random = new Random(1);
+        FilterIdBitmap bitmap = new FilterIdBitmap();
+        FilterIdBitmap excluded = new FilterIdBitmap();
+        TreeSet<Integer> set = new TreeSet<>();
+        TreeSet<Integer> excludedSet = new TreeSet<>();
+        for (int i = 0; i < 20000; i++) {
+            // alternate between mostly-dense and mostly-sparse phases
+            int range = (i / 5000) % 2 == 0 ? 300 : 3000;
+            int id = random.nextInt(range);
+            if (random.nextInt(3) == 0) {
+                assertEquals(set.remove(id), bitmap.remove(id));
+            } else {
+                assertEquals(set.add(id), bitmap.add(id));
+            }
+            int excludedId = random.nextInt(range);
+            if (random.nextBoolean()) {
+                assertEquals(excludedSet.remove(excludedId), excluded.remove(excludedId));
+            } else {
+                assertEquals(excludedSet.add(excludedId), excluded.add(excludedId));
+            }
+
+            if (i % 100 == 0) {
+                assertEquals(set.size(), bitmap.size());
+                assertEquals(new ArrayList<>(set), toList(bitmap));
+                int firstAbsent = 0;
+                while (set.contains(firstAbsent)) {
+                    firstAbsent++;
+                }
+                assertEquals(firstAbsent, bitmap.firstAbsent());
+                assertAndNot(bitmap, excluded, set, excludedSet);
+            }
+        }
+    }
+
+    private static void assertAndNot(FilterIdBitmap bitmap, FilterIdBitmap excluded, TreeSet<Integer> set, TreeSet<Integer> excludedSet) {
+        int max = set.isEmpty() ? 0 : set.last() + 1;
+        SupportEventEvaluator[] evaluators = new SupportEventEvaluator[max];
+        for (int i = 0; i < max; i++) {
+            evaluators[i] = new SupportEventEvaluator();
+        }
+        int count = bitmap.matchEventAndNot(excluded, evaluators, null, null, null);
+        int expected = 0;
+        for (int i = 0; i < max; i++) {
+            boolean match = set.contains(i) && !excludedSet.contains(i);
+            assertEquals(match ? 1 : 0, evaluators[i].getAndResetCountInvoked());
+            expected += match ? 1 : 0;
+        }
+        assertEquals(expected, count);
+
+        assertEquals(set.size(), bitmap.matchEvent(evaluators, null, null, null));
+        for (int i = 0; i < max; i++) {
+            assertEquals(set.contains(i) ? 1 : 0, evaluators[i].getAndResetCountInvoked());
+        }
+    }
+
+    private static void assertIds(FilterIdBitmap bitmap, Integer... expected) {
+        List<Integer> list = new ArrayList<>();
+        for (Integer id : expected) {
+            list.add(id);
+        }
+        assertEquals(list, toList(bitmap));
+    }
+
+    private static List<Integer> toList(FilterIdBitmap bitmap) {
+        List<Integer> ids = new ArrayList<>();
+        bitmap.forEach(ids::add);
+        return ids;
+    }
+}
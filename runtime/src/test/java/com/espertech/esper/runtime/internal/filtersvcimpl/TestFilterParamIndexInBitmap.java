@@ -0,0 +1,182 @@
+/*
+ ***************************************************************************************
+ *  Copyright (C) 2006 EsperTech, Inc. All rights reserved.                            *
+ *  http://www.espertech.com/esper                                                     *
+ *  http://www.espertech.com                                                           *
+ *  ---------------------------------------------------------------------------------- *
+ *  The software in this package is published under the terms of the GPL license       *
+ *  a copy of which has been included with this distribution in the license.txt file.  *
+ ***************************************************************************************
+ */
+package com.espertech.esper.runtime.internal.filtersvcimpl;
+
+import com.espertech.esper.common.client.EventBean;
+import com.espertech.esper.common.client.EventType;
+import com.espertech.esper.common.client.type.EPTypeClass;
+import com.espertech.esper.common.client.util.HashableMultiKey;
+import com.espertech.esper.common.internal.epl.expression.core.ExprFilterSpecLookupable;
+import com.espertech.esper.common.internal.filterspec.FilterOperator;
+import com.espertech.esper.common.internal.filtersvc.FilterHandle;
+import com.espertech.esper.common.internal.support.SupportBean;
+import com.espertech.esper.runtime.internal.support.SupportEventBeanFactory;
+import com.espertech.esper.runtime.internal.support.SupportExprEventEvaluator;
+import junit.framework.TestCase;
+
+import java.util.*;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+public class TestFilterParamIndexInBitmap extends TestCase {
+    private SupportEventEvaluator[] testEvaluators;
+    private SupportBean testBean;
+    private EventBean testEventBean;
+    private EventType testEventType;
+    private List<FilterHandle> matchesList;
+
+    public void setUp() {
+        testEvaluators = new SupportEventEvaluator[4];
+        for (int i = 0; i < testEvaluators.length; i++) {
+            testEvaluators[i] = new SupportEventEvaluator();
+        }
+
+        testBean = new SupportBean();
+        testEventBean = SupportEventBeanFactory.createObject(testBean);
+        testEventType = testEventBean.getEventType();
+        matchesList = new LinkedList<FilterHandle>();
+    }
+
+    public void testIndexIn() {
+        FilterParamIndexInBitmap index = new FilterParamIndexInBitmap(makeLookupable("longBoxed"), new ReentrantReadWriteLock());
+        assertEquals(FilterOperator.IN_LIST_OF_VALUES, index.getFilterOperator());
+        assertTrue(index.isEmpty());
+
+        index.put(new HashableMultiKey(new Object[]{2L, 5L}), testEvaluators[0]);
+        index.put(new HashableMultiKey(new Object[]{3L, 4L, 5L}), testEvaluators[1]);
+        index.put(new HashableMultiKey(new Object[]{1L, 4L, 5L, 4L}), testEvaluators[2]);
+        assertEquals(5, index.sizeExpensive());
+
+        verify(index, 0L, false, false, false);
+        verify(index, 1L, false, false, true);
+        verify(index, 4L, false, true, true);
+        verify(index, 5L, true, true, true);
+        verify(index, null, false, false, false);
+
+        HashableMultiKey inList = new HashableMultiKey(new Object[]{3L, 4L, 5L});
+        assertEquals(testEvaluators[1], index.get(inList));
+        assertTrue(index.getReadWriteLock() != null);
+        index.remove(inList);
+        index.remove(inList);
+        assertEquals(null, index.get(inList));
+        verify(index, 4L, false, false, true);
+        verify(index, 3L, false, false, false);
+
+        // the freed id is reused
+        index.put(new HashableMultiKey(new Object[]{3L}), testEvaluators[3]);
+        assertEquals(3, index.allIds.size());
+        assertEquals(3, index.allIds.firstAbsent());
+        verify(index, 3L, false, false, false, true);
+
+        try {
+            index.put("a", testEvaluators[0]);
+            fail();
+        } catch (Exception ex) {
+            // Expected
+        }
+    }
+
+    public void testIndexNotIn() {
+        FilterParamIndexNotInBitmap index = new FilterParamIndexNotInBitmap(makeLookupable("longBoxed"), new ReentrantReadWriteLock());
+        assertEquals(FilterOperator.NOT_IN_LIST_OF_VALUES, index.getFilterOperator());
+
+        index.put(new HashableMultiKey(new Object[]{2L, 5L}), testEvaluators[0]);
+        index.put(new HashableMultiKey(new Object[]{3L, 4L, 5L}), testEvaluators[1]);
+        index.put(new HashableMultiKey(new Object[]{1L, 4L, 5L}), testEvaluators[2]);
+        index.put(new HashableMultiKey(new Object[]{2L}), testEvaluators[3]);
+
+        verify(index, 0L, true, true, true, true);
+        verify(index, 1L, true, true, false, true);
+        verify(index, 2L, false, true, true, false);
+        verify(index, 3L, true, false, true, true);
+        verify(index, 4L, true, false, false, true);
+        verify(index, 5L, false, false, false, true);
+        verify(index, null, false, false, false, false);
+
+        HashableMultiKey inList = new HashableMultiKey(new Object[]{3L, 4L, 5L});
+        assertEquals(testEvaluators[1], index.get(inList));
+        index.remove(inList);
+        index.remove(inList);
+        assertEquals(null, index.get(inList));
+
+        verify(index, 0L, true, false, true, true);
+        verify(index, 3L, true, false, true, true);
+        verify(index, 5L, false, false, false, true);
+    }
+
+    public void testSameAsListIndexes() {
+        Random random = new Random(1);
+        FilterParamIndexBase[] indexes = new FilterParamIndexBase[]{
+            new FilterParamIndexIn(makeLookupable("intBoxed"), new ReentrantReadWriteLock()),
+            new FilterParamIndexInBitmap(makeLookupable("intBoxed"), new ReentrantReadWriteLock()),
+            new FilterParamIndexNotIn(makeLookupable("intBoxed"), new ReentrantReadWriteLock()),
+            new FilterParamIndexNotInBitmap(makeLookupable("intBoxed"), new ReentrantReadWriteLock())
+        };
+        SupportEventEvaluator[] evaluators = new SupportEventEvaluator[300];
+        HashableMultiKey[] keys = new HashableMultiKey[evaluators.length];
+        Set<HashableMultiKey> used = new HashSet<>();
+        for (int i = 0; i < evaluators.length; i++) {
+            evaluators[i] = new SupportEventEvaluator();
+        }
+
+        for (int round = 0; round < 3000; round++) {
+            int slot = random.nextInt(evaluators.length);
+            if (keys[slot] != null) {
+                for (FilterParamIndexBase index : indexes) {
+                    index.remove(keys[slot]);
+                }
+                used.remove(keys[slot]);
+                keys[slot] = null;
+            } else {
+                // the filter index tree does not put the same in-list twice
+                do {
+                    keys[slot] = makeDistinctKeys(random, 1 + random.nextInt(20), 50);
+                } while (!used.add(keys[slot]));
+                for (FilterParamIndexBase index : indexes) {
+                    index.put(keys[slot], evaluators[slot]);
+                }
+            }
+
+            testBean.setIntBoxed(random.nextInt(55));
+            for (int i = 0; i < indexes.length; i += 2) {
+                indexes[i].matchEvent(testEventBean, matchesList, null);
+                int[] expected = new int[evaluators.length];
+                for (int j = 0; j < evaluators.length; j++) {
+                    expected[j] = evaluators[j].getAndResetCountInvoked();
+                }
+                indexes[i + 1].matchEvent(testEventBean, matchesList, null);
+                for (int j = 0; j < evaluators.length; j++) {
+                    assertEquals(expected[j], evaluators[j].getAndResetCountInvoked());
+                }
+            }
+        }
+    }
+
+    private static HashableMultiKey makeDistinctKeys(Random random, int size, int range) {
+        Set<Integer> values = new LinkedHashSet<>();
+        while (values.size() < size) {
+            values.add(random.nextInt(range));
+        }
+        return new HashableMultiKey(values.toArray());
+    }
+
+    private void verify(FilterParamIndexBase index, Long testValue, boolean... expected) {
+        testBean.setLongBoxed(testValue);
+        index.matchEvent(testEventBean, matchesList, null);
+        for (int i = 0; i < expected.length; i++) {
+            assertEquals("value " + testValue + " index " + i, expected[i] ? 1 : 0, testEvaluators[i].getAndResetCountInvoked());
+        }
+    }
+
+    private ExprFilterSpecLookupable makeLookupable(String fieldName) {
+        SupportExprEventEvaluator eval = new SupportExprEventEvaluator(testEventType.getGetter(fieldName));
+        return new ExprFilterSpecLookupable(fieldName, eval, null, (EPTypeClass) testEventType.getPropertyEPType(fieldName), false, null);
+    }
+}
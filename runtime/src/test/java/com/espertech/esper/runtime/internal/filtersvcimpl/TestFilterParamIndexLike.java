@@ -0,0 +1,172 @@
+/*
+ ***************************************************************************************
+ *  Copyright (C) 2006 EsperTech, Inc. All rights reserved.                            *
+ *  http://www.espertech.com/esper                                                     *
+ *  http://www.espertech.com                                                           *
+ *  ---------------------------------------------------------------------------------- *
+ *  The software in this package is published under the terms of the GPL license       *
+ *  a copy of which has been included with this distribution in the license.txt file.  *
+ ***************************************************************************************
+ */
+package com.espertech.esper.runtime.internal.filtersvcimpl;
+
+import com.espertech.esper.common.client.EventBean;
+import com.espertech.esper.common.client.EventType;
+import com.espertech.esper.common.client.type.EPTypeClass;
+import com.espertech.esper.common.internal.epl.expression.core.ExprFilterSpecLookupable;
+import com.espertech.esper.common.internal.filterspec.FilterOperator;
+import com.espertech.esper.common.internal.filtersvc.FilterHandle;
+import com.espertech.esper.common.internal.support.SupportBean;
+import com.espertech.esper.common.internal.util.LikeUtil;
+import com.espertech.esper.runtime.internal.support.SupportEventBeanFactory;
+import com.espertech.esper.runtime.internal.support.SupportExprEventEvaluator;
+import junit.framework.TestCase;
+
+import java.util.*;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import static com.espertech.esper.runtime.internal.filtersvcimpl.FilterParamIndexLike.LikePattern.Kind.*;
+
+public class TestFilterParamIndexLike extends TestCase {
+    private SupportBean testBean;
+    private EventBean testEventBean;
+    private EventType testEventType;
+    private List<FilterHandle> matchesList;
+
+    public void setUp() {
+        testBean = new SupportBean();
+        testEventBean = SupportEventBeanFactory.createObject(testBean);
+        testEventType = testEventBean.getEventType();
+        matchesList = new LinkedList<FilterHandle>();
+    }
+
+    public void testParse() {
+        assertParse("abc", EXACT, "abc");
+        assertParse("", EXACT, "");
+        assertParse("abc%", PREFIX, "abc");
+        assertParse("abc%%", PREFIX, "abc");
+        assertParse("%", PREFIX, "");
+        assertParse("%%", PREFIX, "");
+        assertParse("%abc", SUFFIX, "abc");
+        assertParse("%abc%", CONTAINED, "abc");
+        assertParse("%%abc%%", CONTAINED, "abc");
+        assertParse("a\\%c%", PREFIX, "a%c");
+        assertParse("\\_abc", EXACT, "_abc");
+        assertParse("%\\_%", CONTAINED, "_");
+        assertParse("abc\\", EXACT, "abc");
+        assertParse("a_c", OTHER, null);
+        assertParse("a%c", OTHER, null);
+        assertParse("%a%c%", OTHER, null);
+        assertParse("a%\\%", OTHER, null);
+    }
+
+    public void testIndex() {
+        SupportEventEvaluator[] evaluators = new SupportEventEvaluator[7];
+        for (int i = 0; i < evaluators.length; i++) {
+            evaluators[i] = new SupportEventEvaluator();
+        }
+        FilterParamIndexLike index = new FilterParamIndexLike(makeLookupable("theString"), new ReentrantReadWriteLock());
+        assertEquals(FilterOperator.LIKE, index.getFilterOperator());
+        assertTrue(index.isEmpty());
+
+        index.put("IBM", evaluators[0]);
+        index.put("IBM%", evaluators[1]);
+        index.put("%BM", evaluators[2]);
+        index.put("%B%", evaluators[3]);
+        index.put("I_M%", evaluators[4]);
+        index.put("%", evaluators[5]);
+        index.put("%M%", evaluators[6]);
+        assertEquals(7, index.sizeExpensive());
+        assertSame(evaluators[3], index.get("%B%"));
+
+        verify(index, "IBM", evaluators, true, true, true, true, true, true, true);
+        verify(index, "IBMX", evaluators, false, true, false, true, true, true, true);
+        verify(index, "XIBM", evaluators, false, false, true, true, false, true, true);
+        verify(index, "ICMBB", evaluators, false, false, false, true, true, true, true);
+        verify(index, "", evaluators, false, false, false, false, false, true, false);
+        verify(index, null, evaluators, false, false, false, false, false, false, false);
+
+        index.remove("%B%");
+        index.remove("%B%");
+        index.remove("%");
+        assertNull(index.get("%B%"));
+        assertEquals(5, index.sizeExpensive());
+        verify(index, "IBM", evaluators, true, true, true, false, true, false, true);
+        verify(index, "XBX", evaluators, false, false, false, false, false, false, false);
+    }
+
+    public void testSameAsLikeUtil() {
+        Random random = new Random(1);
+        String[] patterns = new String[200];
+        SupportEventEvaluator[] evaluators = new SupportEventEvaluator[patterns.length];
+        FilterParamIndexLike index = new FilterParamIndexLike(makeLookupable("theString"), new ReentrantReadWriteLock());
+        Set<String> distinct = new HashSet<>();
+        for (int i = 0; i < patterns.length; i++) {
+            String pattern;
+            do {
+                pattern = randomPattern(random);
+            } while (!distinct.add(pattern));
+            patterns[i] = pattern;
+            evaluators[i] = new SupportEventEvaluator();
+            index.put(pattern, evaluators[i]);
+        }
+
+        for (int round = 0; round < 2000; round++) {
+            String value = randomString(random, "abc", 6);
+            boolean[] expected = new boolean[patterns.length];
+            for (int i = 0; i < patterns.length; i++) {
+                expected[i] = new LikeUtil(patterns[i], '\\', false).compare(value);
+            }
+            verify(index, value, evaluators, expected);
+
+            // replace a pattern
+            if (round % 10 == 0) {
+                int replaced = random.nextInt(patterns.length);
+                index.remove(patterns[replaced]);
+                distinct.remove(patterns[replaced]);
+                String pattern;
+                do {
+                    pattern = randomPattern(random);
+                } while (!distinct.add(pattern));
+                patterns[replaced] = pattern;
+                index.put(pattern, evaluators[replaced]);
+            }
+        }
+    }
+
+    private static String randomPattern(Random random) {
+        String text = randomString(random, "abc%_", 4);
+        if (random.nextInt(5) == 0) {
+            return "%" + text + "%";
+        }
+        return text;
+    }
+
+    private static String randomString(Random random, String alphabet, int maxLength) {
+        int length = random.nextInt(maxLength + 1);
+        StringBuilder builder = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            builder.append(alphabet.charAt(random.nextInt(alphabet.length())));
+        }
+        return builder.toString();
+    }
+
+    private void assertParse(String pattern, FilterParamIndexLike.LikePattern.Kind kind, String literal) {
+        FilterParamIndexLike.LikePattern parsed = FilterParamIndexLike.LikePattern.parse(pattern);
+        assertEquals(pattern, kind, parsed.getKind());
+        assertEquals(pattern, literal, parsed.getLiteral());
+    }
+
+    private void verify(FilterParamIndexBase index, String testValue, SupportEventEvaluator[] evaluators, boolean... expected) {
+        testBean.setTheString(testValue);
+        index.matchEvent(testEventBean, matchesList, null);
+        for (int i = 0; i < expected.length; i++) {
+            assertEquals("value '" + testValue + "' index " + i, expected[i] ? 1 : 0, evaluators[i].getAndResetCountInvoked());
+        }
+    }
+
+    private ExprFilterSpecLookupable makeLookupable(String fieldName) {
+        SupportExprEventEvaluator eval = new SupportExprEventEvaluator(testEventType.getGetter(fieldName));
+        return new ExprFilterSpecLookupable(fieldName, eval, null, (EPTypeClass) testEventType.getPropertyEPType(fieldName), false, null);
+    }
+}
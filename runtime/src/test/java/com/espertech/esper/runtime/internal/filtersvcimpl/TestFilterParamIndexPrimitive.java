@@ -0,0 +1,209 @@
+/*
+ ***************************************************************************************
+ *  Copyright (C) 2006 EsperTech, Inc. All rights reserved.                            *
+ *  http://www.espertech.com/esper                                                     *
+ *  http://www.espertech.com                                                           *
+ *  ---------------------------------------------------------------------------------- *
+ *  The software in this package is published under the terms of the GPL license       *
+ *  a copy of which has been included with this distribution in the license.txt file.  *
+ ***************************************************************************************
+ */
+package com.espertech.esper.runtime.internal.filtersvcimpl;
+
+import com.espertech.esper.common.client.EventBean;
+import com.espertech.esper.common.client.EventType;
+import com.espertech.esper.common.client.type.EPTypeClass;
+import com.espertech.esper.common.client.util.HashableMultiKey;
+import com.espertech.esper.common.client.type.EPTypePremade;
+import com.espertech.esper.common.internal.epl.expression.core.ExprEvaluatorContext;
+import com.espertech.esper.common.internal.epl.expression.core.ExprEventEvaluatorDouble;
+import com.espertech.esper.common.internal.epl.expression.core.ExprEventEvaluatorLong;
+import com.espertech.esper.common.internal.epl.expression.core.ExprFilterSpecLookupable;
+import com.espertech.esper.common.internal.filterspec.FilterOperator;
+import com.espertech.esper.common.internal.filtersvc.FilterHandle;
+import com.espertech.esper.common.internal.support.SupportBean;
+import com.espertech.esper.runtime.internal.support.SupportEventBeanFactory;
+import com.espertech.esper.runtime.internal.support.SupportExprEventEvaluator;
+import junit.framework.TestCase;
+
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+public class TestFilterParamIndexPrimitive extends TestCase {
+    private SupportEventEvaluator testEvaluator;
+    private SupportBean testBean;
+    private EventBean testEventBean;
+    private EventType testEventType;
+    private List<FilterHandle> matchesList;
+
+    public void setUp() {
+        testEvaluator = new SupportEventEvaluator();
+        testBean = new SupportBean();
+        testEventBean = SupportEventBeanFactory.createObject(testBean);
+        testEventType = testEventBean.getEventType();
+        matchesList = new LinkedList<FilterHandle>();
+    }
+
+    public void testEqualsLong() {
+        FilterParamIndexEqualsPrimitive index = new FilterParamIndexEqualsPrimitive(makeLookupable("longBoxed"), new ReentrantReadWriteLock(), Long.class);
+        assertEquals(FilterOperator.EQUAL, index.getFilterOperator());
+
+        index.put(1L, testEvaluator);
+        index.put(Long.MIN_VALUE, testEvaluator);
+        index.put(null, testEvaluator);
+        index.put(2, testEvaluator);    // not of the key class, never matches
+        assertEquals(4, index.sizeExpensive());
+
+        verifyLongBoxed(index, 1L, 1);
+        verifyLongBoxed(index, Long.MIN_VALUE, 1);
+        verifyLongBoxed(index, 2L, 0);
+        verifyLongBoxed(index, null, 0);
+
+        assertEquals(testEvaluator, index.get(1L));
+        assertEquals(testEvaluator, index.get(2));
+        assertNull(index.get(2L));
+        index.remove(1L);
+        index.remove(1L);
+        index.remove(2);
+        assertNull(index.get(1L));
+        verifyLongBoxed(index, 1L, 0);
+        assertEquals(2, index.sizeExpensive());
+    }
+
+    public void testEqualsDouble() {
+        FilterParamIndexEqualsPrimitive index = new FilterParamIndexEqualsPrimitive(makeLookupable("doublePrimitive"), new ReentrantReadWriteLock(), Double.class);
+
+        index.put(1.5d, testEvaluator);
+        index.put(0d, testEvaluator);
+
+        verifyDoublePrimitive(index, 1.5d, 1);
+        verifyDoublePrimitive(index, 0d, 1);
+        verifyDoublePrimitive(index, -0d, 0);   // same as Double.equals
+        verifyDoublePrimitive(index, 2.2d, 0);
+        assertEquals(testEvaluator, index.get(1.5d));
+    }
+
+    public void testNotEquals() {
+        FilterParamIndexNotEqualsPrimitive index = new FilterParamIndexNotEqualsPrimitive(makeLookupable("intPrimitive"), new ReentrantReadWriteLock(), Integer.class);
+        assertEquals(FilterOperator.NOT_EQUAL, index.getFilterOperator());
+
+        index.put(1, testEvaluator);
+        index.put(2, testEvaluator);
+        index.put(null, testEvaluator);
+        index.put(3L, testEvaluator);    // not of the key class, never equal
+
+        verifyIntPrimitive(index, 1, 2);
+        verifyIntPrimitive(index, 2, 2);
+        verifyIntPrimitive(index, 10, 3);
+
+        index.remove(1);
+        verifyIntPrimitive(index, 2, 1);
+        verifyIntPrimitive(index, 1, 2);
+    }
+
+    public void testIn() {
+        FilterParamIndexInPrimitive index = new FilterParamIndexInPrimitive(makeLookupable("longBoxed"), new ReentrantReadWriteLock(), Long.class);
+        assertEquals(FilterOperator.IN_LIST_OF_VALUES, index.getFilterOperator());
+
+        HashableMultiKey inList = new HashableMultiKey(new Object[]{2L, 5L});
+        index.put(inList, testEvaluator);
+        inList = new HashableMultiKey(new Object[]{10L, 5L});
+        index.put(inList, testEvaluator);
+
+        verifyLongBoxed(index, 1L, 0);
+        verifyLongBoxed(index, 2L, 1);
+        verifyLongBoxed(index, 5L, 2);
+        verifyLongBoxed(index, 10L, 1);
+        verifyLongBoxed(index, 999L, 0);
+        verifyLongBoxed(index, null, 0);
+
+        assertEquals(testEvaluator, index.get(inList));
+        index.remove(inList);
+        index.remove(inList);
+        assertEquals(null, index.get(inList));
+        verifyLongBoxed(index, 5L, 1);
+        verifyLongBoxed(index, 10L, 0);
+
+        try {
+            index.put("a", testEvaluator);
+            fail();
+        } catch (Exception ex) {
+            // Expected
+        }
+    }
+
+    public void testUnboxedKeyEval() {
+        ExprEventEvaluatorLong evalInt = new ExprEventEvaluatorLong() {
+            public long evalLong(EventBean event, ExprEvaluatorContext ctx) {
+                return ((SupportBean) event.getUnderlying()).getIntPrimitive();
+            }
+
+            public Object eval(EventBean event, ExprEvaluatorContext ctx) {
+                throw new UnsupportedOperationException("boxed value not expected");
+            }
+        };
+        ExprFilterSpecLookupable lookupableInt = new ExprFilterSpecLookupable("intPrimitive", evalInt, null, EPTypePremade.INTEGERPRIMITIVE.getEPType(), false, null);
+
+        FilterParamIndexEqualsPrimitive equals = new FilterParamIndexEqualsPrimitive(lookupableInt, new ReentrantReadWriteLock(), Integer.class);
+        equals.put(1, testEvaluator);
+        equals.put(2L, testEvaluator);    // not of the key class, never matches
+        verifyIntPrimitive(equals, 1, 1);
+        verifyIntPrimitive(equals, 2, 0);
+
+        FilterParamIndexNotEqualsPrimitive notEquals = new FilterParamIndexNotEqualsPrimitive(lookupableInt, new ReentrantReadWriteLock(), Integer.class);
+        notEquals.put(1, testEvaluator);
+        notEquals.put(2, testEvaluator);
+        notEquals.put(null, testEvaluator);
+        notEquals.put(3L, testEvaluator);    // not of the key class, never equal
+        verifyIntPrimitive(notEquals, 1, 2);
+        verifyIntPrimitive(notEquals, 10, 3);
+
+        FilterParamIndexInPrimitive in = new FilterParamIndexInPrimitive(lookupableInt, new ReentrantReadWriteLock(), Integer.class);
+        in.put(new HashableMultiKey(new Object[]{2, 5}), testEvaluator);
+        in.put(new HashableMultiKey(new Object[]{10, 5}), testEvaluator);
+        verifyIntPrimitive(in, 5, 2);
+        verifyIntPrimitive(in, 10, 1);
+        verifyIntPrimitive(in, 1, 0);
+
+        ExprEventEvaluatorDouble evalDouble = new ExprEventEvaluatorDouble() {
+            public double evalDouble(EventBean event, ExprEvaluatorContext ctx) {
+                return ((SupportBean) event.getUnderlying()).getDoublePrimitive();
+            }
+
+            public Object eval(EventBean event, ExprEvaluatorContext ctx) {
+                throw new UnsupportedOperationException("boxed value not expected");
+            }
+        };
+        ExprFilterSpecLookupable lookupableDouble = new ExprFilterSpecLookupable("doublePrimitive", evalDouble, null, EPTypePremade.DOUBLEPRIMITIVE.getEPType(), false, null);
+        FilterParamIndexEqualsPrimitive equalsDouble = new FilterParamIndexEqualsPrimitive(lookupableDouble, new ReentrantReadWriteLock(), Double.class);
+        equalsDouble.put(1.5d, testEvaluator);
+        equalsDouble.put(0d, testEvaluator);
+        verifyDoublePrimitive(equalsDouble, 1.5d, 1);
+        verifyDoublePrimitive(equalsDouble, -0d, 0);   // same as Double.equals
+        verifyDoublePrimitive(equalsDouble, 2.2d, 0);
+    }
+
+    private void verifyLongBoxed(FilterParamIndexBase index, Long testValue, int numExpected) {
+        testBean.setLongBoxed(testValue);
+        index.matchEvent(testEventBean, matchesList, null);
+        assertEquals(numExpected, testEvaluator.getAndResetCountInvoked());
+    }
+
+    private void verifyIntPrimitive(FilterParamIndexBase index, int testValue, int numExpected) {
+        testBean.setIntPrimitive(testValue);
+        index.matchEvent(testEventBean, matchesList, null);
+        assertEquals(numExpected, testEvaluator.getAndResetCountInvoked());
+    }
+
+    private void verifyDoublePrimitive(FilterParamIndexBase index, double testValue, int numExpected) {
+        testBean.setDoublePrimitive(testValue);
+        index.matchEvent(testEventBean, matchesList, null);
+        assertEquals(numExpected, testEvaluator.getAndResetCountInvoked());
+    }
+
+    private ExprFilterSpecLookupable makeLookupable(String fieldName) {
+        SupportExprEventEvaluator eval = new SupportExprEventEvaluator(testEventType.getGetter(fieldName));
+        return new ExprFilterSpecLookupable(fieldName, eval, null, (EPTypeClass) testEventType.getPropertyEPType(fieldName), false, null);
+    }
+}
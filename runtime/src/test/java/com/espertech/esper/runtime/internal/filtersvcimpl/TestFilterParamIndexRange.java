@@ -179,6 +179,25 @@ public class TestFilterParamIndexRange extends TestCase {
         verifyDoublePrimitive(index, 50, 26);
     }
 
+    public void testDoubleNegativeZeroAndNaN() {
+        FilterParamIndexDoubleRange index = makeOne("doublePrimitive", FilterOperator.RANGE_CLOSED, testEventType);
+        index.put(new DoubleRange(0d, 5d), testEvaluator);
+        index.put(new DoubleRange(-5d, 0d), testEvaluator);
+
+        verifyDoublePrimitive(index, 0, 2);
+        verifyDoublePrimitive(index, -0d, 2);
+        verifyDoublePrimitive(index, Double.NaN, 0);
+
+        FilterParamIndexDoubleRangeInverted inverted = new FilterParamIndexDoubleRangeInverted(makeLookupable("doublePrimitive"), new ReentrantReadWriteLock(), FilterOperator.NOT_RANGE_OPEN);
+        inverted.put(new DoubleRange(0d, 5d), testEvaluator);
+        inverted.put(new DoubleRange(-5d, 0d), testEvaluator);
+
+        verifyDoublePrimitive(inverted, 0, 2);
+        verifyDoublePrimitive(inverted, -0d, 2);
+        verifyDoublePrimitive(inverted, 1, 1);
+        verifyDoublePrimitive(inverted, Double.NaN, 0);
+    }
+
     private FilterParamIndexDoubleRange getLongDataset(FilterOperator operatorType) {
         FilterParamIndexDoubleRange index = makeOne("longPrimitive", operatorType, testEventType);
 
@@ -0,0 +1,136 @@
+/*
+ ***************************************************************************************
+ *  Copyright (C) 2006 EsperTech, Inc. All rights reserved.                            *
+ *  http://www.espertech.com/esper                                                     *
+ *  http://www.espertech.com                                                           *
+ *  ---------------------------------------------------------------------------------- *
+ *  The software in this package is published under the terms of the GPL license       *
+ *  a copy of which has been included with this distribution in the license.txt file.  *
+ ***************************************************************************************
+ */
+package com.espertech.esper.runtime.internal.filtersvcimpl;
+
+import com.espertech.esper.common.client.EventBean;
+import com.espertech.esper.common.client.EventType;
+import com.espertech.esper.common.client.type.EPTypeClass;
+import com.espertech.esper.common.internal.epl.expression.core.ExprFilterSpecLookupable;
+import com.espertech.esper.common.internal.filterspec.FilterOperator;
+import com.espertech.esper.common.internal.filtersvc.FilterHandle;
+import com.espertech.esper.common.internal.support.SupportBean;
+import com.espertech.esper.runtime.internal.support.SupportEventBeanFactory;
+import com.espertech.esper.runtime.internal.support.SupportExprEventEvaluator;
+import junit.framework.TestCase;
+
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+public class TestFilterParamIndexRegexp extends TestCase {
+    private SupportBean testBean;
+    private EventBean testEventBean;
+    private EventType testEventType;
+    private List<FilterHandle> matchesList;
+
+    public void setUp() {
+        testBean = new SupportBean();
+        testEventBean = SupportEventBeanFactory.createObject(testBean);
+        testEventType = testEventBean.getEventType();
+        matchesList = new LinkedList<FilterHandle>();
+    }
+
+    public void testRequiredLiteral() {
+        assertEquals("abc", FilterParamIndexRegexp.getRequiredLiteral("abc"));
+        assertEquals("abc", FilterParamIndexRegexp.getRequiredLiteral("abc.*"));
+        assertEquals("abc", FilterParamIndexRegexp.getRequiredLiteral(".*abc.*"));
+        assertEquals("abc", FilterParamIndexRegexp.getRequiredLiteral("^abc$"));
+        assertEquals("yz", FilterParamIndexRegexp.getRequiredLiteral("x\\d+yz"));
+        assertEquals("ab", FilterParamIndexRegexp.getRequiredLiteral("ab+c"));
+        assertEquals("cde", FilterParamIndexRegexp.getRequiredLiteral("ab?cde"));
+        assertEquals("cde", FilterParamIndexRegexp.getRequiredLiteral("ab{2}cde"));
+        assertEquals("bc", FilterParamIndexRegexp.getRequiredLiteral("[]a]bc"));
+        assertEquals("bc", FilterParamIndexRegexp.getRequiredLiteral("[^]a]bc"));
+        assertEquals("xyz", FilterParamIndexRegexp.getRequiredLiteral("(a|b)xyz"));
+        assertEquals("a.b", FilterParamIndexRegexp.getRequiredLiteral("a\\.b"));
+        assertEquals("ab", FilterParamIndexRegexp.getRequiredLiteral("\\bab\\b"));
+        assertNull(FilterParamIndexRegexp.getRequiredLiteral(""));
+        assertNull(FilterParamIndexRegexp.getRequiredLiteral(".*"));
+        assertNull(FilterParamIndexRegexp.getRequiredLiteral("a|b"));
+        assertNull(FilterParamIndexRegexp.getRequiredLiteral("(?i)abc"));
+        assertNull(FilterParamIndexRegexp.getRequiredLiteral("\\Qabc\\E"));
+        assertNull(FilterParamIndexRegexp.getRequiredLiteral("(a)\\1bc"));
+        assertNull(FilterParamIndexRegexp.getRequiredLiteral("\\x41bc"));
+        assertNull(FilterParamIndexRegexp.getRequiredLiteral("\\p{Lu}bc"));
+    }
+
+    public void testIndex() {
+        SupportEventEvaluator[] evaluators = new SupportEventEvaluator[5];
+        for (int i = 0; i < evaluators.length; i++) {
+            evaluators[i] = new SupportEventEvaluator();
+        }
+        FilterParamIndexRegexp index = new FilterParamIndexRegexp(makeLookupable("theString"), new ReentrantReadWriteLock());
+        assertEquals(FilterOperator.REGEXP, index.getFilterOperator());
+        assertTrue(index.isEmpty());
+
+        index.put("IBM", evaluators[0]);
+        index.put(".*BM.*", evaluators[1]);
+        index.put("[A-Z]+", evaluators[2]);
+        index.put("I.M", evaluators[3]);
+        index.put(".*B.*", evaluators[4]);
+        assertEquals(5, index.sizeExpensive());
+        assertSame(evaluators[1], index.get(".*BM.*"));
+
+        verify(index, "IBM", evaluators, true, true, true, true, true);
+        verify(index, "xIBMx", evaluators, false, true, false, false, true);
+        verify(index, "ICM", evaluators, false, false, true, true, false);
+        verify(index, "", evaluators, false, false, false, false, false);
+        verify(index, null, evaluators, false, false, false, false, false);
+
+        index.remove(".*BM.*");
+        index.remove(".*BM.*");
+        index.remove("[A-Z]+");
+        assertNull(index.get(".*BM.*"));
+        assertEquals(3, index.sizeExpensive());
+        verify(index, "IBM", evaluators, true, false, false, true, true);
+    }
+
+    public void testSameAsPatternMatches() {
+        String[] patterns = new String[] {"abc", "a.c", ".*ab.*", "a+b", "ab*c", "(ab|ba)c.*", "[ab]+c", "c?ba", ".*c\\.a",
+            "\\w+bc", "a{2}bc", "a[^b]c", ".*(bc)+", "b\\b.*", "ab\\.*c"};
+        SupportEventEvaluator[] evaluators = new SupportEventEvaluator[patterns.length];
+        FilterParamIndexRegexp index = new FilterParamIndexRegexp(makeLookupable("theString"), new ReentrantReadWriteLock());
+        for (int i = 0; i < patterns.length; i++) {
+            evaluators[i] = new SupportEventEvaluator();
+            index.put(patterns[i], evaluators[i]);
+        }
+
+        Random random = new Random(1);
+        for (int round = 0; round < 2000; round++) {
+            int length = random.nextInt(7);
+            StringBuilder builder = new StringBuilder(length);
+            for (int i = 0; i < length; i++) {
+                builder.append("abc. ".charAt(random.nextInt(5)));
+            }
+            String value = builder.toString();
+            boolean[] expected = new boolean[patterns.length];
+            for (int i = 0; i < patterns.length; i++) {
+                expected[i] = Pattern.matches(patterns[i], value);
+            }
+            verify(index, value, evaluators, expected);
+        }
+    }
+
+    private void verify(FilterParamIndexBase index, String testValue, SupportEventEvaluator[] evaluators, boolean... expected) {
+        testBean.setTheString(testValue);
+        index.matchEvent(testEventBean, matchesList, null);
+        for (int i = 0; i < expected.length; i++) {
+            assertEquals("value '" + testValue + "' index " + i, expected[i] ? 1 : 0, evaluators[i].getAndResetCountInvoked());
+        }
+    }
+
+    private ExprFilterSpecLookupable makeLookupable(String fieldName) {
+        SupportExprEventEvaluator eval = new SupportExprEventEvaluator(testEventType.getGetter(fieldName));
+        return new ExprFilterSpecLookupable(fieldName, eval, null, (EPTypeClass) testEventType.getPropertyEPType(fieldName), false, null);
+    }
+}
@@ -0,0 +1,82 @@
+/*
+ ***************************************************************************************
+ *  Copyright (C) 2006 EsperTech, Inc. All rights reserved.                            *
+ *  http://www.espertech.com/esper                                                     *
+ *  http://www.espertech.com                                                           *
+ *  ---------------------------------------------------------------------------------- *
+ *  The software in this package is published under the terms of the GPL license       *
+ *  a copy of which has been included with this distribution in the license.txt file.  *
+ ***************************************************************************************
+ */
+package com.espertech.esper.runtime.internal.filtersvcimpl;
+
+import com.espertech.esper.common.client.type.EPTypePremade;
+import junit.framework.TestCase;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+public class TestFilterPrimitiveKeyMap extends TestCase {
+
+    public void testKeyClass() {
+        assertEquals(Long.class, FilterPrimitiveKeyMap.getKeyClass(EPTypePremade.LONGPRIMITIVE.getEPType()));
+        assertEquals(Long.class, FilterPrimitiveKeyMap.getKeyClass(EPTypePremade.LONGBOXED.getEPType()));
+        assertEquals(Integer.class, FilterPrimitiveKeyMap.getKeyClass(EPTypePremade.INTEGERPRIMITIVE.getEPType()));
+        assertEquals(Double.class, FilterPrimitiveKeyMap.getKeyClass(EPTypePremade.DOUBLEBOXED.getEPType()));
+        assertNull(FilterPrimitiveKeyMap.getKeyClass(EPTypePremade.STRING.getEPType()));
+        assertNull(FilterPrimitiveKeyMap.getKeyClass(EPTypePremade.SHORTBOXED.getEPType()));
+        assertNull(FilterPrimitiveKeyMap.getKeyClass(null));
+    }
+
+    public void testSameAsHashMap() {
+        runAssertionSameAsHashMap(Long.class);
+        runAssertionSameAsHashMap(Integer.class);
+        runAssertionSameAsHashMap(Double.class);
+    }
+
+    private void runAssertionSameAsHashMap(Class keyClass) {
+        Random random = new Random(1);
+        FilterPrimitiveKeyMap<String> map = new FilterPrimitiveKeyMap<>(keyClass);
+        Map<Object, String> expected = new HashMap<>();
+
+        for (int step = 0; step < 50000; step++) {
+            Object key = randomKey(random, keyClass);
+            int action = random.nextInt(3);
+            if (action == 0) {
+                String value = "v" + step;
+                assertEquals(expected.put(key, value), map.put(key, value));
+            } else if (action == 1) {
+                assertEquals(expected.remove(key), map.remove(key));
+            } else {
+                assertEquals(expected.get(key), map.get(key));
+                if (map.isPrimitiveKey(key)) {
+                    assertEquals(expected.get(key), map.getPrimitive(map.toPrimitiveKey(key)));
+                }
+            }
+            assertEquals(expected.size(), map.size());
+        }
+
+        Map<Object, String> visited = new HashMap<>();
+        map.forEach(visited::put);
+        assertEquals(expected, visited);
+    }
+
+    private static Object randomKey(Random random, Class keyClass) {
+        int choice = random.nextInt(100);
+        if (choice == 0) {
+            return null;
+        }
+        if (choice == 1) {
+            return "x" + random.nextInt(3);
+        }
+        int value = random.nextInt(500) - 250;
+        if (keyClass == Long.class) {
+            return value * 1000000007L;
+        }
+        if (keyClass == Integer.class) {
+            return value;
+        }
+        return value / 4d;
+    }
+}
@@ -12,11 +12,15 @@ package com.espertech.esper.runtime.internal.filtersvcimpl;
 
 import com.espertech.esper.common.client.EventBean;
 import com.espertech.esper.common.client.EventType;
+import com.espertech.esper.common.client.metric.FilterEventTypeMetric;
+import com.espertech.esper.common.client.metric.FilterIndexMetric;
+import com.espertech.esper.common.internal.collection.ArrayBackedCollection;
 import com.espertech.esper.common.internal.collection.Pair;
 import com.espertech.esper.common.internal.filterspec.FilterOperator;
 import com.espertech.esper.common.internal.filterspec.FilterValueSetParam;
 import com.espertech.esper.common.internal.filtersvc.FilterHandle;
 import com.espertech.esper.common.internal.filtersvc.FilterHandleCallback;
+import com.espertech.esper.common.internal.filtersvc.FilterServiceEntry;
 import com.espertech.esper.common.internal.support.SupportBean;
 import com.espertech.esper.common.internal.support.SupportBeanSimple;
 import com.espertech.esper.runtime.internal.support.SupportEventBeanFactory;
@@ -25,7 +29,9 @@ import junit.framework.TestCase;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Vector;
@@ -103,6 +109,143 @@ public class TestFilterServiceImpl extends TestCase {
     }
 
     public void testEvalEvents() {
+        assertEvalEvents();
+    }
+
+    public void testAddAllRemoveAll() {
+        filterService = new FilterServiceLockCoarse(-1);
+        List<FilterServiceEntry> entries = new ArrayList<>();
+        for (int i = filterSpecs.size() - 1; i >= 0; i--) {
+            entries.add(new FilterServiceEntry(filterSpecs.get(i).getFirst(), filterSpecs.get(i).getSecond(), filterCallbacks.get(i)));
+        }
+
+        long version = filterService.getFiltersVersion();
+        filterService.addAll(entries);
+        assertEquals(version + 1, filterService.getFiltersVersion());
+        assertEquals(2, filterService.getCountTypes());
+        assertEvalEvents();
+
+        filterService.removeAll(entries.subList(0, 2));
+        assertEquals(version + 2, filterService.getFiltersVersion());
+        List<FilterHandle> matches = new ArrayList<>();
+        filterService.evaluate(makeTypeTwoEvent("Hello", 2), matches, null);
+        assertTrue(matches.isEmpty());
+        filterService.evaluate(makeTypeOneEvent(15, "HELLO", false, 101), matches, null);
+        assertEquals(2, matches.size());
+
+        filterService.removeAll(entries.subList(2, 4));
+        assertEquals(0, filterService.getFilterCountApprox());
+
+        // an empty batch is not a change
+        filterService.removeAll(Collections.emptyList());
+        assertEquals(version + 3, filterService.getFiltersVersion());
+    }
+
+    public void testEvalEventsBatch() {
+        assertEvalEventsBatch(filterService);
+
+        // compiled plans, fine-grained locking and read-copy-update
+        FilterServiceSPI[] services = new FilterServiceSPI[]{new FilterServiceLockCoarse(-1, new FilterServiceSettings(2, 0, false, false)), new FilterServiceLockFine(-1), new FilterServiceReadCopyUpdate(-1)};
+        for (FilterServiceSPI service : services) {
+            for (int i = 0; i < filterSpecs.size(); i++) {
+                service.add(filterSpecs.get(i).getFirst(), filterSpecs.get(i).getSecond(), filterCallbacks.get(i));
+            }
+            assertEvalEventsBatch(service);
+            assertEvalEventsBatch(service);
+        }
+    }
+
+    public void testMetrics() {
+        // events and matches are always counted, time and index lookups only when metrics are enabled
+        assertEvalEvents();
+        for (FilterEventTypeMetric metric : filterService.getMetrics()) {
+            boolean typeOne = metric.getEventTypeName().equals(eventTypeOne.getName());
+            assertEquals(typeOne ? 6 : 5, metric.getNumEventsEvaluated());
+            assertEquals(typeOne ? 8 : 7, metric.getNumMatches());
+            assertEquals(0, metric.getEvaluationTimeNanos());
+            assertEquals(0, metric.getNumIndexLookups());
+        }
+
+        filterService = new FilterServiceLockCoarse(-1, new FilterServiceSettings(0, 0, false, true));
+        for (int i = 0; i < filterSpecs.size(); i++) {
+            filterService.add(filterSpecs.get(i).getFirst(), filterSpecs.get(i).getSecond(), filterCallbacks.get(i));
+        }
+        assertEvalEvents();
+
+        List<FilterEventTypeMetric> metrics = filterService.getMetrics();
+        assertEquals(2, metrics.size());
+        for (FilterEventTypeMetric metric : metrics) {
+            boolean typeOne = metric.getEventTypeName().equals(eventTypeOne.getName());
+            assertEquals(typeOne ? 6 : 5, metric.getNumEventsEvaluated());
+            assertEquals(typeOne ? 8 : 7, metric.getNumMatches());
+            assertTrue(metric.getEvaluationTimeNanos() > 0);
+            assertEquals(typeOne ? 4 : 2, metric.getIndexes().size());
+            assertEquals(typeOne ? 6 : 5, metric.getIndexes().get(0).getNumLookups());
+            assertTrue(metric.getNumIndexLookups() >= metric.getIndexes().get(0).getNumLookups());
+            for (FilterIndexMetric index : metric.getIndexes()) {
+                assertEquals(1, index.getSize());
+            }
+        }
+        assertEquals(2, filterService.getFilterMetricsRendered().length);
+
+        // batch evaluation counts the same
+        ArrayBackedCollection<FilterHandle>[] matches = new ArrayBackedCollection[events.size()];
+        for (int i = 0; i < matches.length; i++) {
+            matches[i] = new ArrayBackedCollection<>(2);
+        }
+        filterService.resetStats();
+        filterService.evaluate(events.toArray(new EventBean[0]), events.size(), matches, null);
+        long numMatches = 0;
+        for (FilterEventTypeMetric metric : filterService.getMetrics()) {
+            assertEquals(metric.getEventTypeName().equals(eventTypeOne.getName()) ? 6 : 5, metric.getNumEventsEvaluated());
+            numMatches += metric.getNumMatches();
+        }
+        assertEquals(15, numMatches);
+
+        filterService.removeType(eventTypeTwo);
+        metrics = filterService.getMetrics();
+        assertEquals(1, metrics.size());
+        assertEquals(eventTypeOne.getName(), metrics.get(0).getEventTypeName());
+    }
+
+    private void assertEvalEventsBatch(FilterServiceSPI service) {
+        // each event twice in a row and then all events again, for blocks of the same type
+        List<EventBean> batch = new ArrayList<>();
+        List<int[]> expected = new ArrayList<>();
+        for (int i = 0; i < events.size(); i++) {
+            for (int j = 0; j < 2; j++) {
+                batch.add(events.get(i));
+                expected.add(matchesExpected.get(i));
+            }
+        }
+        batch.addAll(events);
+        expected.addAll(matchesExpected);
+
+        ArrayBackedCollection<FilterHandle>[] matches = new ArrayBackedCollection[batch.size() + 1];
+        for (int i = 0; i < matches.length; i++) {
+            matches[i] = new ArrayBackedCollection<>(2);
+        }
+        long version = service.evaluate(batch.toArray(new EventBean[0]), batch.size(), matches, null);
+        assertEquals(service.getFiltersVersion(), version);
+        assertEquals(0, matches[batch.size()].size());
+
+        for (int i = 0; i < batch.size(); i++) {
+            List<FilterHandle> single = new ArrayList<>();
+            service.evaluate(batch.get(i), single, null);
+            Object[] array = matches[i].getArray();
+            assertEquals(single.size(), matches[i].size());
+            for (int j = 0; j < single.size(); j++) {
+                assertSame(single.get(j), array[j]);
+                ((SupportFilterHandle) array[j]).matchFound(batch.get(i), null);
+            }
+            int[] expectedCounts = expected.get(i);
+            for (int j = 0; j < expectedCounts.length; j++) {
+                assertEquals(expectedCounts[j], filterCallbacks.get(j).getAndResetCountInvoked());
+            }
+        }
+    }
+
+    private void assertEvalEvents() {
         for (int i = 0; i < events.size(); i++) {
             List<FilterHandle> matchList = new LinkedList<FilterHandle>();
             filterService.evaluate(events.get(i), matchList, null);
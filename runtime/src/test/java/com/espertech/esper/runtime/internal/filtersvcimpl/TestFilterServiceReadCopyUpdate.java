@@ -0,0 +1,228 @@
+/*
+ ***************************************************************************************
+ *  Copyright (C) 2006 EsperTech, Inc. All rights reserved.                            *
+ *  http://www.espertech.com/esper                                                     *
+ *  http://www.espertech.com                                                           *
+ *  ---------------------------------------------------------------------------------- *
+ *  The software in this package is published under the terms of the GPL license       *
+ *  a copy of which has been included with this distribution in the license.txt file.  *
+ ***************************************************************************************
+ */
+package com.espertech.esper.runtime.internal.filtersvcimpl;
+
+import com.espertech.esper.common.client.EventBean;
+import com.espertech.esper.common.client.EventType;
+import com.espertech.esper.common.internal.filterspec.FilterOperator;
+import com.espertech.esper.common.internal.filterspec.FilterValueSetParam;
+import com.espertech.esper.common.internal.filtersvc.FilterHandle;
+import com.espertech.esper.common.internal.filtersvc.FilterServiceEntry;
+import com.espertech.esper.common.internal.support.SupportBean;
+import com.espertech.esper.runtime.internal.support.SupportEventBeanFactory;
+import com.espertech.esper.runtime.internal.support.SupportEventTypeFactory;
+import junit.framework.TestCase;
+
+import java.util.*;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+public class TestFilterServiceReadCopyUpdate extends TestCase {
+    private EventType eventType;
+    private FilterServiceReadCopyUpdate filterService;
+
+    public void setUp() {
+        eventType = SupportEventTypeFactory.createBeanType(SupportBean.class);
+        filterService = new FilterServiceReadCopyUpdate(-1);
+    }
+
+    public void testAddRemove() {
+        SupportFilterHandle handleA = new SupportFilterHandle();
+        SupportFilterHandle handleB = new SupportFilterHandle();
+        FilterValueSetParam[][] specA = build("theString", FilterOperator.EQUAL, "A");
+        FilterValueSetParam[][] specB = build("intPrimitive", FilterOperator.GREATER, 5);
+
+        long versionBefore = filterService.getFiltersVersion();
+        filterService.add(eventType, specA, handleA);
+        filterService.add(eventType, specB, handleB);
+        assertEquals(versionBefore + 2, filterService.getFiltersVersion());
+        assertEquals(2, filterService.getNumPublished());
+
+        assertMatches(makeEvent("A", 1), handleA);
+        assertMatches(makeEvent("A", 10), handleA, handleB);
+        assertMatches(makeEvent("B", 1));
+
+        filterService.remove(handleA, eventType, specA);
+        assertMatches(makeEvent("A", 10), handleB);
+        assertEquals(3, filterService.getNumPublished());
+
+        // both copies have the same filters
+        filterService.remove(handleB, eventType, specB);
+        assertMatches(makeEvent("A", 10));
+        filterService.add(eventType, specA, handleA);
+        assertMatches(makeEvent("A", 10), handleA);
+        assertEquals(1, filterService.getFilterCountApprox());
+    }
+
+    public void testPublishOnReleaseWriteLock() throws Exception {
+        SupportFilterHandle handle = new SupportFilterHandle();
+        FilterValueSetParam[][] spec = build("theString", FilterOperator.EQUAL, "A");
+        EventBean event = makeEvent("A", 1);
+
+        filterService.acquireWriteLock();
+        filterService.add(eventType, spec, handle);
+        long version = filterService.getFiltersVersion();
+
+        // the thread holding the write lock sees its changes
+        assertMatches(event, handle);
+
+        // other threads do not see the changes until published
+        List<FilterHandle> matches = evaluateByOtherThread(event);
+        assertTrue(matches.isEmpty());
+        assertEquals(0, filterService.getNumPublished());
+
+        filterService.releaseWriteLock();
+        assertEquals(1, filterService.getNumPublished());
+        assertEquals(Collections.<FilterHandle>singletonList(handle), evaluateByOtherThread(event));
+        assertEquals(version, filterService.evaluate(event, new ArrayList<>(), null));
+    }
+
+    public void testAddAllRemoveAllPublishOnce() {
+        List<FilterServiceEntry> entries = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            String property = i % 2 == 0 ? "theString" : "intPrimitive";
+            Object value = i % 2 == 0 ? "A" : (Object) i;
+            entries.add(new FilterServiceEntry(eventType, build(property, FilterOperator.EQUAL, value), new SupportFilterHandle()));
+        }
+
+        filterService.addAll(entries);
+        assertEquals(1, filterService.getNumPublished());
+        assertMatches(makeEvent("A", 3), entries.get(0).getHandle(), entries.get(2).getHandle(), entries.get(4).getHandle(),
+            entries.get(6).getHandle(), entries.get(8).getHandle(), entries.get(3).getHandle());
+
+        filterService.removeAll(entries.subList(0, 5));
+        assertEquals(2, filterService.getNumPublished());
+        assertMatches(makeEvent("A", 3), entries.get(6).getHandle(), entries.get(8).getHandle());
+
+        // both copies have the same filters
+        filterService.removeAll(entries.subList(5, 10));
+        assertEquals(0, filterService.getFilterCountApprox());
+        filterService.acquireWriteLock();
+        assertMatches(makeEvent("A", 7));
+        filterService.releaseWriteLock();
+    }
+
+    public void testReadIndicator() throws Exception {
+        FilterServiceReadIndicator indicator = new FilterServiceReadIndicator(4);
+        assertTrue(indicator.isEmpty());
+
+        int stripe = indicator.arrive();
+        assertFalse(indicator.isEmpty());
+
+        // other threads count at their own stripe
+        CountDownLatch arrived = new CountDownLatch(1);
+        CountDownLatch depart = new CountDownLatch(1);
+        Thread thread = new Thread(() -> {
+            int other = indicator.arrive();
+            arrived.countDown();
+            try {
+                depart.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            indicator.depart(other);
+        });
+        thread.start();
+        arrived.await();
+        indicator.depart(stripe);
+        assertFalse(indicator.isEmpty());
+
+        depart.countDown();
+        thread.join();
+        assertTrue(indicator.isEmpty());
+    }
+
+    public void testConcurrentReadersOneWriter() throws Exception {
+        int numReaders = 4;
+        AtomicBoolean done = new AtomicBoolean();
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        SupportFilterHandle always = new SupportFilterHandle();
+        filterService.add(eventType, build("intPrimitive", FilterOperator.GREATER_OR_EQUAL, 0), always);
+
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < numReaders; i++) {
+            Thread thread = new Thread(() -> {
+                EventBean event = makeEvent("A", 1);
+                try {
+                    while (!done.get()) {
+                        List<FilterHandle> matches = new ArrayList<>();
+                        filterService.evaluate(event, matches, null);
+                        if (!matches.contains(always) || new HashSet<>(matches).size() != matches.size()) {
+                            throw new IllegalStateException("Unexpected matches " + matches);
+                        }
+                    }
+                } catch (Throwable t) {
+                    failure.set(t);
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+
+        Random random = new Random(1);
+        Map<SupportFilterHandle, FilterValueSetParam[][]> added = new HashMap<>();
+        for (int i = 0; i < 2000; i++) {
+            if (added.isEmpty() || random.nextBoolean()) {
+                SupportFilterHandle handle = new SupportFilterHandle();
+                FilterValueSetParam[][] spec = build("theString", FilterOperator.EQUAL, random.nextBoolean() ? "A" : "B");
+                filterService.add(eventType, spec, handle);
+                added.put(handle, spec);
+            } else {
+                SupportFilterHandle handle = added.keySet().iterator().next();
+                filterService.remove(handle, eventType, added.remove(handle));
+            }
+        }
+        done.set(true);
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertNull(failure.get());
+
+        List<FilterHandle> expected = new ArrayList<>();
+        expected.add(always);
+        for (Map.Entry<SupportFilterHandle, FilterValueSetParam[][]> entry : added.entrySet()) {
+            if ("A".equals(entry.getValue()[0][0].getFilterForValue())) {
+                expected.add(entry.getKey());
+            }
+        }
+        assertMatches(makeEvent("A", 1), expected.toArray(new FilterHandle[0]));
+        filterService.acquireWriteLock();
+        assertMatches(makeEvent("A", 1), expected.toArray(new FilterHandle[0]));
+        filterService.releaseWriteLock();
+    }
+
+    private List<FilterHandle> evaluateByOtherThread(EventBean event) throws InterruptedException {
+        List<FilterHandle> matches = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch latch = new CountDownLatch(1);
+        new Thread(() -> {
+            filterService.evaluate(event, matches, null);
+            latch.countDown();
+        }).start();
+        latch.await();
+        return new ArrayList<>(matches);
+    }
+
+    private void assertMatches(EventBean event, FilterHandle... expected) {
+        List<FilterHandle> matches = new ArrayList<>();
+        filterService.evaluate(event, matches, null);
+        assertEquals(new HashSet<>(Arrays.asList(expected)), new HashSet<>(matches));
+        assertEquals(expected.length, matches.size());
+    }
+
+    private FilterValueSetParam[][] build(Object... params) {
+        return SupportFilterSpecBuilder.build(eventType, params).getValueSet(null, null, null, null);
+    }
+
+    private EventBean makeEvent(String theString, int intPrimitive) {
+        return SupportEventBeanFactory.createObject(new SupportBean(theString, intPrimitive));
+    }
+}
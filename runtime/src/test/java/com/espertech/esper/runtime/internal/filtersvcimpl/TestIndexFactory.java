@@ -52,6 +52,15 @@ public class TestIndexFactory extends TestCase {
         assertTrue(getPropName(index).equals("string"));
         assertTrue(index.getFilterOperator() == FilterOperator.NOT_EQUAL);
 
+        // Create "equals" and "not equals" indexes for numeric properties
+        index = IndexFactory.createIndex(makeLookupable("longPrimitive"), lockFactory, FilterOperator.EQUAL);
+        assertTrue(index instanceof FilterParamIndexEqualsPrimitive);
+        assertTrue(index.getFilterOperator() == FilterOperator.EQUAL);
+        index = IndexFactory.createIndex(makeLookupable("intBoxed"), lockFactory, FilterOperator.NOT_EQUAL);
+        assertTrue(index instanceof FilterParamIndexNotEqualsPrimitive);
+        index = IndexFactory.createIndex(makeLookupable("shortBoxed"), lockFactory, FilterOperator.EQUAL);
+        assertTrue(index instanceof FilterParamIndexEquals);
+
         // Create a range index
         index = IndexFactory.createIndex(makeLookupable("doubleBoxed"), lockFactory, FilterOperator.RANGE_CLOSED);
         assertTrue(index instanceof FilterParamIndexDoubleRange);
@@ -60,6 +69,8 @@ public class TestIndexFactory extends TestCase {
 
         // Create a in-index
         index = IndexFactory.createIndex(makeLookupable("doubleBoxed"), lockFactory, FilterOperator.IN_LIST_OF_VALUES);
+        assertTrue(index instanceof FilterParamIndexInPrimitive);
+        index = IndexFactory.createIndex(makeLookupable("theString"), lockFactory, FilterOperator.IN_LIST_OF_VALUES);
         assertTrue(index instanceof FilterParamIndexIn);
         index = IndexFactory.createIndex(makeLookupable("doubleBoxed"), lockFactory, FilterOperator.NOT_IN_LIST_OF_VALUES);
         assertTrue(index instanceof FilterParamIndexNotIn);
@@ -0,0 +1,177 @@
+/*
+ ***************************************************************************************
+ *  Copyright (C) 2006 EsperTech, Inc. All rights reserved.                            *
+ *  http://www.espertech.com/esper                                                     *
+ *  http://www.espertech.com                                                           *
+ *  ---------------------------------------------------------------------------------- *
+ *  The software in this package is published under the terms of the GPL license       *
+ *  a copy of which has been included with this distribution in the license.txt file.  *
+ ***************************************************************************************
+ */
+package com.espertech.esper.runtime.internal.filtersvcimpl;
+
+import com.espertech.esper.common.client.EventBean;
+import com.espertech.esper.common.internal.epl.expression.core.ExprEvaluatorContext;
+import com.espertech.esper.common.internal.filterspec.DoubleRange;
+import com.espertech.esper.common.internal.filterspec.StringRange;
+import com.espertech.esper.common.internal.filtersvc.FilterHandle;
+import junit.framework.TestCase;
+
+import java.util.*;
+
+public class TestRangeIntervalTree extends TestCase {
+
+    public void testPutGetRemove() {
+        RangeIntervalTree<DoubleRange, Double> tree = new RangeIntervalTree<>();
+        HandleEvaluator one = new HandleEvaluator();
+        HandleEvaluator two = new HandleEvaluator();
+        assertTrue(tree.isEmpty());
+
+        tree.put(new DoubleRange(1d, 10d), one);
+        tree.put(new DoubleRange(5d, 6d), two);
+        tree.put(new DoubleRange(1d, 10d), two);
+        assertEquals(2, tree.size());
+        assertSame(two, tree.get(new DoubleRange(1d, 10d)));
+        assertNull(tree.get(new DoubleRange(1d, 11d)));
+
+        assertMatches(tree, 1, true, true, two);
+        assertMatches(tree, 1, false, true);
+        assertMatches(tree, 5.5, false, false, two, two);
+        assertMatchesNot(tree, 1, false, true, two, two);
+        assertMatchesNot(tree, 5, true, true);
+        assertMatchesNot(tree, 11, true, true, two, two);
+
+        tree.remove(new DoubleRange(1d, 10d));
+        tree.remove(new DoubleRange(1d, 10d));
+        assertEquals(1, tree.size());
+        assertNull(tree.get(new DoubleRange(1d, 10d)));
+        assertMatches(tree, 5, true, true, two);
+    }
+
+    public void testDoubleSameAsScan() {
+        Random random = new Random(1);
+        RangeIntervalTree<DoubleRange, Double> tree = new RangeIntervalTree<>();
+        TreeMap<DoubleRange, HandleEvaluator> reference = new TreeMap<>(DoubleRangeComparator.INSTANCE);
+
+        for (int step = 0; step < 20000; step++) {
+            int action = random.nextInt(10);
+            if (action < 3) {
+                double min = random.nextInt(100);
+                double max = min + (random.nextInt(10) == 0 ? random.nextInt(1000) : random.nextInt(5));
+                DoubleRange range = new DoubleRange(min, max);
+                HandleEvaluator evaluator = new HandleEvaluator();
+                tree.put(range, evaluator);
+                reference.put(range, evaluator);
+            } else if (action < 5) {
+                if (!reference.isEmpty()) {
+                    DoubleRange range = new ArrayList<>(reference.keySet()).get(random.nextInt(reference.size()));
+                    tree.remove(range);
+                    reference.remove(range);
+                }
+            } else {
+                double value = random.nextInt(120) - 10 + (random.nextBoolean() ? 0 : 0.5);
+                boolean includeMin = random.nextBoolean();
+                boolean includeMax = random.nextBoolean();
+                List<FilterHandle> expected = new ArrayList<>();
+                List<FilterHandle> expectedNot = new ArrayList<>();
+                for (Map.Entry<DoubleRange, HandleEvaluator> entry : reference.entrySet()) {
+                    double min = entry.getKey().getMin();
+                    double max = entry.getKey().getMax();
+                    if ((includeMin ? value >= min : value > min) && (includeMax ? value <= max : value < max)) {
+                        expected.add(entry.getValue());
+                    } else {
+                        expectedNot.add(entry.getValue());
+                    }
+                }
+                List<FilterHandle> received = new ArrayList<>();
+                tree.matchContaining(value, includeMin, includeMax, null, received, null);
+                assertEquals(expected, received);
+                received.clear();
+                tree.matchNotContaining(value, includeMin, includeMax, null, received, null);
+                assertEquals(expectedNot, received);
+            }
+            assertEquals(reference.size(), tree.size());
+        }
+
+        List<DoubleRange> ranges = new ArrayList<>();
+        tree.forEach((range, evaluator) -> ranges.add(range));
+        assertEquals(new ArrayList<>(reference.keySet()), ranges);
+    }
+
+    public void testStringSameAsScan() {
+        Random random = new Random(1);
+        RangeIntervalTree<StringRange, String> tree = new RangeIntervalTree<>();
+        TreeMap<StringRange, HandleEvaluator> reference = new TreeMap<>(StringRangeComparator.INSTANCE);
+
+        for (int step = 0; step < 10000; step++) {
+            int action = random.nextInt(10);
+            if (action < 3) {
+                StringRange range = new StringRange(randomString(random), randomString(random));
+                HandleEvaluator evaluator = new HandleEvaluator();
+                tree.put(range, evaluator);
+                reference.put(range, evaluator);
+            } else if (action < 5) {
+                if (!reference.isEmpty()) {
+                    StringRange range = new ArrayList<>(reference.keySet()).get(random.nextInt(reference.size()));
+                    tree.remove(range);
+                    reference.remove(range);
+                }
+            } else {
+                String value = randomString(random);
+                boolean includeMin = random.nextBoolean();
+                boolean includeMax = random.nextBoolean();
+                List<FilterHandle> expected = new ArrayList<>();
+                List<FilterHandle> expectedNot = new ArrayList<>();
+                for (Map.Entry<StringRange, HandleEvaluator> entry : reference.entrySet()) {
+                    int compMin = entry.getKey().getMin().compareTo(value);
+                    int compMax = entry.getKey().getMax().compareTo(value);
+                    if ((includeMin ? compMin <= 0 : compMin < 0) && (includeMax ? compMax >= 0 : compMax > 0)) {
+                        expected.add(entry.getValue());
+                    } else {
+                        expectedNot.add(entry.getValue());
+                    }
+                }
+                List<FilterHandle> received = new ArrayList<>();
+                tree.matchContaining(value, includeMin, includeMax, null, received, null);
+                assertEquals(expected, received);
+                received.clear();
+                tree.matchNotContaining(value, includeMin, includeMax, null, received, null);
+                assertEquals(expectedNot, received);
+            }
+            assertEquals(reference.size(), tree.size());
+        }
+    }
+
+    private static String randomString(Random random) {
+        return new String(new char[]{(char) ('a' + random.nextInt(10)), (char) ('a' + random.nextInt(10))});
+    }
+
+    private static void assertMatches(RangeIntervalTree<DoubleRange, Double> tree, double value, boolean includeMin, boolean includeMax, HandleEvaluator... expected) {
+        List<FilterHandle> received = new ArrayList<>();
+        tree.matchContaining(value, includeMin, includeMax, null, received, null);
+        assertEquals(Arrays.asList(expected), received);
+    }
+
+    private static void assertMatchesNot(RangeIntervalTree<DoubleRange, Double> tree, double value, boolean includeMin, boolean includeMax, HandleEvaluator... expected) {
+        List<FilterHandle> received = new ArrayList<>();
+        tree.matchNotContaining(value, includeMin, includeMax, null, received, null);
+        assertEquals(Arrays.asList(expected), received);
+    }
+
+    private static class HandleEvaluator implements EventEvaluator, FilterHandle {
+        public void matchEvent(EventBean theEvent, Collection<FilterHandle> matches, ExprEvaluatorContext ctx) {
+            matches.add(this);
+        }
+
+        public void getTraverseStatement(EventTypeIndexTraverse traverse, Set<Integer> statementIds, ArrayDeque<FilterItem> evaluatorStack) {
+        }
+
+        public int getStatementId() {
+            return 0;
+        }
+
+        public int getAgentInstanceId() {
+            return 0;
+        }
+    }
+}
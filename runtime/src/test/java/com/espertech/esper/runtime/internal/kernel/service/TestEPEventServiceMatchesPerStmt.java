@@ -0,0 +1,118 @@
+/*
+ ***************************************************************************************
+ *  Copyright (C) 2006 EsperTech, Inc. All rights reserved.                            *
+ *  http://www.espertech.com/esper                                                     *
+ *  http://www.espertech.com                                                           *
+ *  ---------------------------------------------------------------------------------- *
+ *  The software in this package is published under the terms of the GPL license       *
+ *  a copy of which has been included with this distribution in the license.txt file.  *
+ ***************************************************************************************
+ */
+package com.espertech.esper.runtime.internal.kernel.service;
+
+import com.espertech.esper.common.client.EventBean;
+import com.espertech.esper.common.internal.context.util.EPStatementAgentInstanceHandle;
+import com.espertech.esper.common.internal.context.util.EPStatementHandle;
+import com.espertech.esper.common.internal.filtersvc.FilterHandleCallback;
+import junit.framework.TestCase;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+public class TestEPEventServiceMatchesPerStmt extends TestCase {
+
+    public void testGroupAndReuse() {
+        EPEventServiceMatchesPerStmt matches = new EPEventServiceMatchesPerStmt();
+        assertTrue(matches.isEmpty());
+
+        EPStatementAgentInstanceHandle h1 = makeHandle(1, 0);
+        EPStatementAgentInstanceHandle h2 = makeHandle(2, 0);
+        FilterHandleCallback c1 = new SupportCallback();
+        FilterHandleCallback c2 = new SupportCallback();
+        FilterHandleCallback c3 = new SupportCallback();
+
+        matches.add(h1, c1);
+        matches.add(h2, c2);
+        matches.add(h1, c3);
+        assertEquals(2, matches.size());
+        assertSame(h1, matches.getHandle(0));
+        assertEquals(2, matches.getCallbackCount(0));
+        assertEquals(Arrays.asList(c1, c3), new ArrayList<>((Collection<?>) matches.getCallbacks(0)));
+        assertSame(h2, matches.getHandle(1));
+        assertSame(c2, matches.getCallbacks(1));
+
+        Object pooled = matches.getCallbacks(0);
+        matches.clear();
+        assertTrue(matches.isEmpty());
+
+        matches.add(h2, c1);
+        matches.add(h2, c2);
+        assertEquals(1, matches.size());
+        assertSame(pooled, matches.getCallbacks(0));
+        assertEquals(Arrays.asList(c1, c2), new ArrayList<>((Collection<?>) matches.getCallbacks(0)));
+        matches.clear();
+    }
+
+    public void testManyHandles() {
+        EPEventServiceMatchesPerStmt matches = new EPEventServiceMatchesPerStmt();
+        List<EPStatementAgentInstanceHandle> handles = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            handles.add(makeHandle(i % 100, i / 100));
+        }
+        for (int round = 0; round < 3; round++) {
+            for (EPStatementAgentInstanceHandle handle : handles) {
+                matches.add(handle, new SupportCallback());
+            }
+            for (int i = handles.size() - 1; i >= 0; i--) {
+                matches.add(handles.get(i), new SupportCallback());
+            }
+            assertEquals(handles.size(), matches.size());
+            for (int i = 0; i < handles.size(); i++) {
+                assertSame(handles.get(i), matches.getHandle(i));
+                assertEquals(2, matches.getCallbackCount(i));
+            }
+            matches.clear();
+        }
+    }
+
+    public void testSortByPriority() {
+        EPEventServiceMatchesPerStmt matches = new EPEventServiceMatchesPerStmt();
+        EPStatementAgentInstanceHandle low = makeHandle(1, 0, 1);
+        EPStatementAgentInstanceHandle high = makeHandle(2, 0, 10);
+        EPStatementAgentInstanceHandle mid = makeHandle(3, 0, 5);
+        matches.add(low, new SupportCallback());
+        matches.add(high, new SupportCallback());
+        matches.add(mid, new SupportCallback());
+
+        matches.sortByPriority();
+        assertSame(high, matches.getHandle(0));
+        assertSame(mid, matches.getHandle(1));
+        assertSame(low, matches.getHandle(2));
+
+        // lookup remains valid after sorting
+        matches.add(low, new SupportCallback());
+        assertEquals(3, matches.size());
+        assertEquals(2, matches.getCallbackCount(2));
+        matches.clear();
+    }
+
+    private static EPStatementAgentInstanceHandle makeHandle(int statementId, int agentInstanceId) {
+        return makeHandle(statementId, agentInstanceId, 0);
+    }
+
+    private static EPStatementAgentInstanceHandle makeHandle(int statementId, int agentInstanceId, int priority) {
+        EPStatementHandle statementHandle = new EPStatementHandle("s" + statementId, "d", statementId, null, priority, false, false, null, false, false, null, null, null);
+        return new EPStatementAgentInstanceHandle(statementHandle, agentInstanceId, null);
+    }
+
+    private static class SupportCallback implements FilterHandleCallback {
+        public void matchFound(EventBean theEvent, Collection<FilterHandleCallback> allStmtMatches) {
+        }
+
+        public boolean isSubSelect() {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,105 @@
+/*
+ ***************************************************************************************
+ *  Copyright (C) 2006 EsperTech, Inc. All rights reserved.                            *
+ *  http://www.espertech.com/esper                                                     *
+ *  http://www.espertech.com                                                           *
+ *  ---------------------------------------------------------------------------------- *
+ *  The software in this package is published under the terms of the GPL license       *
+ *  a copy of which has been included with this distribution in the license.txt file.  *
+ ***************************************************************************************
+ */
+package com.espertech.esper.runtime.internal.kernel.thread;
+
+import com.espertech.esper.common.client.util.RingBufferWaitStrategy;
+import junit.framework.TestCase;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class TestThreadingRingBuffer extends TestCase {
+
+    public void testCapacity() {
+        assertEquals(128, new ThreadingRingBuffer(null, "Test", 100, 1, RingBufferWaitStrategy.PARK, null).getCapacity());
+        assertEquals(65536, new ThreadingRingBuffer(null, "Test", null, 1, RingBufferWaitStrategy.PARK, null).getCapacity());
+        assertEquals(1, new ThreadingRingBuffer(null, "Test", 1, 1, RingBufferWaitStrategy.PARK, null).getCapacity());
+    }
+
+    public void testMultiProducerMultiConsumer() throws Exception {
+        for (RingBufferWaitStrategy waitStrategy : new RingBufferWaitStrategy[]{RingBufferWaitStrategy.YIELD, RingBufferWaitStrategy.PARK}) {
+            tryMultiProducerMultiConsumer(waitStrategy);
+        }
+    }
+
+    public void testStopProcessesQueuedWork() throws Exception {
+        final int numEvents = 1000;
+        ThreadingRingBuffer ringBuffer = new ThreadingRingBuffer(null, "Test", numEvents, 1, RingBufferWaitStrategy.PARK, null);
+        ringBuffer.start();
+
+        // the first unit holds up the consumer so that the remaining units are queued when stopping
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicLong count = new AtomicLong();
+        ringBuffer.publish(() -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            count.incrementAndGet();
+        });
+        for (int i = 1; i < numEvents; i++) {
+            ringBuffer.publish(count::incrementAndGet);
+        }
+
+        Thread stopper = new Thread(() -> ringBuffer.stop(10000));
+        stopper.start();
+        while (stopper.isAlive() && stopper.getState() != Thread.State.TIMED_WAITING) {
+            Thread.sleep(1);
+        }
+        release.countDown();
+        stopper.join();
+
+        assertEquals(numEvents, count.get());
+        assertEquals(0, ringBuffer.size());
+
+        // work published after stopping is discarded
+        ringBuffer.publish(count::incrementAndGet);
+        assertEquals(numEvents, count.get());
+    }
+
+    private void tryMultiProducerMultiConsumer(RingBufferWaitStrategy waitStrategy) throws Exception {
+        final int numProducers = 3;
+        final int numEvents = 20000;
+        ThreadingRingBuffer ringBuffer = new ThreadingRingBuffer(null, "Test", 16, 2, waitStrategy, null);
+        ringBuffer.start();
+
+        AtomicLong sum = new AtomicLong();
+        AtomicLong count = new AtomicLong();
+        Thread[] producers = new Thread[numProducers];
+        for (int i = 0; i < numProducers; i++) {
+            producers[i] = new Thread(() -> {
+                for (int j = 0; j < numEvents; j++) {
+                    final int value = j;
+                    ringBuffer.publish(() -> {
+                        sum.addAndGet(value);
+                        count.incrementAndGet();
+                    });
+                }
+            });
+            producers[i].start();
+        }
+        for (Thread producer : producers) {
+            producer.join();
+        }
+
+        long expected = numProducers * ((long) numEvents * (numEvents - 1) / 2);
+        long deadline = System.currentTimeMillis() + 10000;
+        while (count.get() < numProducers * numEvents && System.currentTimeMillis() < deadline) {
+            Thread.sleep(1);
+        }
+        ringBuffer.stop(1000);
+
+        assertEquals(numProducers * numEvents, count.get());
+        assertEquals(expected, sum.get());
+        assertEquals(0, ringBuffer.size());
+    }
+}
@@ -0,0 +1,179 @@
+/*
+ ***************************************************************************************
+ *  Copyright (C) 2006 EsperTech, Inc. All rights reserved.                            *
+ *  http://www.espertech.com/esper                                                     *
+ *  http://www.espertech.com                                                           *
+ *  ---------------------------------------------------------------------------------- *
+ *  The software in this package is published under the terms of the GPL license       *
+ *  a copy of which has been included with this distribution in the license.txt file.  *
+ ***************************************************************************************
+ */
+package com.espertech.esper.runtime.internal.kernel.thread;
+
+import com.espertech.esper.common.client.hook.exception.ExceptionHandlerContext;
+import com.espertech.esper.common.client.hook.exception.ExceptionHandlerContextUnassociated;
+import com.espertech.esper.common.client.hook.exception.ExceptionHandlerInboundPool;
+import com.espertech.esper.common.internal.collection.ArrayBackedCollection;
+import com.espertech.esper.common.internal.context.util.EPStatementAgentInstanceHandle;
+import com.espertech.esper.common.internal.context.util.EPStatementHandle;
+import com.espertech.esper.common.internal.context.util.EPStatementHandleCallbackSchedule;
+import com.espertech.esper.common.internal.schedule.ScheduleHandle;
+import com.espertech.esper.common.internal.schedule.ScheduleHandleCallback;
+import com.espertech.esper.common.internal.settings.ExceptionHandlingService;
+import junit.framework.TestCase;
+
+import java.util.*;
+
+public class TestThreadingTimerShards extends TestCase {
+    private final static int NUM_AGENT_INSTANCES = 32;
+    private final static int NUM_CALLBACKS_PER_AGENT_INSTANCE = 3;
+
+    public void testShardsComplete() {
+        ThreadingTimerShards shards = new ThreadingTimerShards("test", 4, new ExceptionHandlingService("test", Collections.emptyList(), Collections.emptyList()));
+        try {
+            EPStatementAgentInstanceHandle[] handles = new EPStatementAgentInstanceHandle[NUM_AGENT_INSTANCES];
+            for (int i = 0; i < handles.length; i++) {
+                handles[i] = makeHandle(i);
+            }
+
+            for (int round = 0; round < 10; round++) {
+                ArrayBackedCollection<ScheduleHandle> due = new ArrayBackedCollection<>(16);
+                Map<EPStatementAgentInstanceHandle, List<ScheduleHandleCallback>> expected = new HashMap<>();
+                for (int i = 0; i < NUM_CALLBACKS_PER_AGENT_INSTANCE; i++) {
+                    for (EPStatementAgentInstanceHandle handle : handles) {
+                        ScheduleHandleCallback callback = new SupportCallback();
+                        expected.computeIfAbsent(handle, k -> new ArrayList<>()).add(callback);
+                        due.add(new EPStatementHandleCallbackSchedule(handle, callback));
+                    }
+                }
+
+                SupportProcessor processor = new SupportProcessor();
+                shards.process(due, processor);
+                assertEquals(0, due.size());
+
+                // each agent instance processed once by one shard with its callbacks in order
+                assertEquals(expected, processor.getReceived());
+                assertTrue(processor.getThreads().size() <= 4);
+                assertFalse(processor.getThreads().contains(Thread.currentThread()));
+            }
+        } finally {
+            shards.stop();
+        }
+    }
+
+    public void testSingleShardInCallingThread() {
+        ThreadingTimerShards shards = new ThreadingTimerShards("test", 4, new ExceptionHandlingService("test", Collections.emptyList(), Collections.emptyList()));
+        try {
+            EPStatementAgentInstanceHandle handle = makeHandle(0);
+            ArrayBackedCollection<ScheduleHandle> due = new ArrayBackedCollection<>(16);
+            ScheduleHandleCallback first = new SupportCallback();
+            ScheduleHandleCallback second = new SupportCallback();
+            due.add(new EPStatementHandleCallbackSchedule(handle, first));
+            due.add(new EPStatementHandleCallbackSchedule(handle, second));
+
+            SupportProcessor processor = new SupportProcessor();
+            shards.process(due, processor);
+            assertEquals(Collections.singletonMap(handle, Arrays.asList(first, second)), processor.getReceived());
+            assertEquals(Collections.singleton(Thread.currentThread()), processor.getThreads());
+        } finally {
+            shards.stop();
+        }
+    }
+
+    public void testShardExceptionHandled() {
+        SupportExceptionHandler exceptionHandler = new SupportExceptionHandler();
+        ExceptionHandlingService exceptionHandlingService = new ExceptionHandlingService("test", Collections.singletonList(exceptionHandler), Collections.emptyList());
+        ThreadingTimerShards shards = new ThreadingTimerShards("test", 4, exceptionHandlingService);
+        try {
+            EPStatementAgentInstanceHandle[] handles = new EPStatementAgentInstanceHandle[NUM_AGENT_INSTANCES];
+            for (int i = 0; i < handles.length; i++) {
+                handles[i] = makeHandle(i);
+            }
+
+            for (int round = 0; round < 3; round++) {
+                ArrayBackedCollection<ScheduleHandle> due = new ArrayBackedCollection<>(16);
+                for (EPStatementAgentInstanceHandle handle : handles) {
+                    due.add(new EPStatementHandleCallbackSchedule(handle, new SupportCallback()));
+                }
+
+                SupportProcessor processor = new SupportProcessor(handles[0]);
+                shards.process(due, processor);
+
+                // the failing shard is reported and the other shards are processed
+                assertEquals(round + 1, exceptionHandler.getContexts().size());
+                ExceptionHandlerContextUnassociated context = exceptionHandler.getContexts().get(round);
+                assertEquals("test", context.getRuntimeURI());
+                assertEquals("Failed for agent instance 0", context.getThrowable().getMessage());
+                assertNull(context.getCurrentEvent());
+                assertFalse(processor.getReceived().containsKey(handles[0]));
+                assertTrue(processor.getReceived().size() > 1);
+            }
+        } finally {
+            shards.stop();
+        }
+    }
+
+    private static EPStatementAgentInstanceHandle makeHandle(int agentInstanceId) {
+        EPStatementHandle statementHandle = new EPStatementHandle("s0", "d", 1, null, 0, false, false, null, false, false, null, null, null);
+        return new EPStatementAgentInstanceHandle(statementHandle, agentInstanceId, null);
+    }
+
+    private static class SupportProcessor implements TimerShardProcessor {
+        private final Map<EPStatementAgentInstanceHandle, List<ScheduleHandleCallback>> received = new HashMap<>();
+        private final Set<Thread> threads = new HashSet<>();
+        private final EPStatementAgentInstanceHandle failFor;
+
+        SupportProcessor() {
+            this(null);
+        }
+
+        SupportProcessor(EPStatementAgentInstanceHandle failFor) {
+            this.failFor = failFor;
+        }
+
+        public synchronized void processScheduleShard(Map<EPStatementAgentInstanceHandle, Object> stmtCallbacks) {
+            threads.add(Thread.currentThread());
+            if (failFor != null && stmtCallbacks.containsKey(failFor)) {
+                throw new RuntimeException("Failed for agent instance " + failFor.getAgentInstanceId());
+            }
+            for (Map.Entry<EPStatementAgentInstanceHandle, Object> entry : stmtCallbacks.entrySet()) {
+                assertFalse(received.containsKey(entry.getKey()));
+                List<ScheduleHandleCallback> callbacks = new ArrayList<>();
+                if (entry.getValue() instanceof ArrayDeque) {
+                    callbacks.addAll((ArrayDeque<ScheduleHandleCallback>) entry.getValue());
+                } else {
+                    callbacks.add((ScheduleHandleCallback) entry.getValue());
+                }
+                received.put(entry.getKey(), callbacks);
+            }
+        }
+
+        public synchronized Map<EPStatementAgentInstanceHandle, List<ScheduleHandleCallback>> getReceived() {
+            return received;
+        }
+
+        public synchronized Set<Thread> getThreads() {
+            return threads;
+        }
+    }
+
+    private static class SupportCallback implements ScheduleHandleCallback {
+        public void scheduledTrigger() {
+        }
+    }
+
+    private static class SupportExceptionHandler implements ExceptionHandlerInboundPool {
+        private final List<ExceptionHandlerContextUnassociated> contexts = new ArrayList<>();
+
+        public void handle(ExceptionHandlerContext context) {
+        }
+
+        public synchronized void handleInboundPoolUnassociated(ExceptionHandlerContextUnassociated context) {
+            contexts.add(context);
+        }
+
+        public synchronized List<ExceptionHandlerContextUnassociated> getContexts() {
+            return contexts;
+        }
+    }
+}
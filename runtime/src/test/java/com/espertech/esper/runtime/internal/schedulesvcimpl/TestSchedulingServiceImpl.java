@@ -21,6 +21,7 @@ import org.slf4j.LoggerFactory;
 import java.time.ZoneId;
 import java.util.Calendar;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.LinkedList;
 import java.util.TimeZone;
 
@@ -126,6 +127,49 @@ public class TestSchedulingServiceImpl extends TestCase {
         checkCallbacks(callbacks, new Integer[]{0, 0, 0, 0, 0});
     }
 
+    public void testRemoveKeepsNoEmptyTimes() {
+        service.setTime(0);
+        service.add(10, callbacks[0], slots[0][0]);
+        service.add(20, callbacks[1], slots[0][1]);
+        service.add(20, callbacks[2], slots[1][0]);
+        service.add(30, callbacks[3], slots[1][1]);
+        assertEquals(3, service.getTimeHandleCount());
+        assertEquals(10L, (long) service.getNearestTimeHandle());
+
+        service.remove(callbacks[0], slots[0][0]);
+        assertEquals(2, service.getTimeHandleCount());
+        assertEquals(20L, (long) service.getNearestTimeHandle());
+
+        service.remove(callbacks[1], slots[0][1]);
+        assertEquals(2, service.getTimeHandleCount());
+        service.remove(callbacks[2], slots[1][0]);
+        assertEquals(1, service.getTimeHandleCount());
+        assertEquals(30L, (long) service.getNearestTimeHandle());
+
+        service.setTime(30);
+        evaluateSchedule();
+        assertTrue(callbacks[3].clearAndGetOrderTriggered() > 0);
+        assertEquals(0, service.getTimeHandleCount());
+        assertEquals(0, service.getScheduleHandleCount());
+        assertNull(service.getNearestTimeHandle());
+    }
+
+    public void testTransfer() {
+        service.setTime(0);
+        service.add(10, callbacks[0], slots[0][0]);
+        service.add(10, callbacks[1], slots[0][1]);
+        service.add(20, callbacks[2], slots[1][0]);
+
+        SchedulingServiceImpl target = new SchedulingServiceImpl(-1, new TimeSourceServiceImpl(), ZoneId.systemDefault());
+        target.setTime(0);
+        service.transfer(Collections.singleton(1), target);
+        assertEquals(0, service.getScheduleHandleCount());
+        assertEquals(0, service.getTimeHandleCount());
+        assertEquals(3, target.getScheduleHandleCount());
+        assertEquals(2, target.getTimeHandleCount());
+        assertEquals(10L, (long) target.getNearestTimeHandle());
+    }
+
     public void testWaitAndSpecTogether() {
         Calendar calendar = Calendar.getInstance();
         calendar.set(2004, 11, 9, 15, 27, 10);
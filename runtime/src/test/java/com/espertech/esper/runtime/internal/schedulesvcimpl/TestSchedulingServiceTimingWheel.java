@@ -0,0 +1,243 @@
+/*
+ ***************************************************************************************
+ *  Copyright (C) 2006 EsperTech, Inc. All rights reserved.                            *
+ *  http://www.espertech.com/esper                                                     *
+ *  http://www.espertech.com                                                           *
+ *  ---------------------------------------------------------------------------------- *
+ *  The software in this package is published under the terms of the GPL license       *
+ *  a copy of which has been included with this distribution in the license.txt file.  *
+ ***************************************************************************************
+ */
+package com.espertech.esper.runtime.internal.schedulesvcimpl;
+
+import com.espertech.esper.common.internal.schedule.ScheduleBucket;
+import com.espertech.esper.common.internal.schedule.ScheduleHandle;
+import com.espertech.esper.common.internal.schedule.ScheduleHandleCallback;
+import com.espertech.esper.runtime.internal.schedulesvcimpl.TestSchedulingServiceImpl.SupportScheduleCallback;
+import com.espertech.esper.runtime.internal.timer.TimeSourceServiceImpl;
+import junit.framework.TestCase;
+
+import java.time.ZoneId;
+import java.util.*;
+
+public class TestSchedulingServiceTimingWheel extends TestCase {
+    private SchedulingServiceTimingWheel service;
+
+    private long slots[][];
+    private SupportScheduleCallback callbacks[];
+
+    public void setUp() {
+        service = new SchedulingServiceTimingWheel(-1, new TimeSourceServiceImpl(), ZoneId.systemDefault());
+
+        ScheduleBucket[] buckets = new ScheduleBucket[3];
+        slots = new long[buckets.length][2];
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i] = new ScheduleBucket(i);
+            slots[i] = new long[2];
+            for (int j = 0; j < slots[i].length; j++) {
+                slots[i][j] = buckets[i].allocateSlot();
+            }
+        }
+
+        callbacks = new SupportScheduleCallback[5];
+        for (int i = 0; i < callbacks.length; i++) {
+            callbacks[i] = new SupportScheduleCallback();
+        }
+    }
+
+    public void testTrigger() {
+        long startTime = 0;
+
+        service.setTime(0);
+
+        service.add(20, callbacks[3], slots[1][1]);
+        service.add(20, callbacks[2], slots[1][0]);
+        service.add(20, callbacks[1], slots[0][1]);
+        service.add(21, callbacks[0], slots[0][0]);
+        assertTrue(service.isScheduled(callbacks[3]));
+        assertTrue(service.isScheduled(callbacks[0]));
+        assertEquals(4, service.getScheduleHandleCount());
+        assertEquals(2, service.getTimeHandleCount());
+        assertEquals(20L, (long) service.getNearestTimeHandle());
+        assertEquals(21L, (long) service.getFurthestTimeHandle());
+
+        startTime += 19;
+        service.setTime(startTime);
+        evaluateSchedule();
+        checkCallbacks(new Integer[]{0, 0, 0, 0, 0});
+        assertTrue(service.isScheduled(callbacks[3]));
+
+        // Evaluate exactly on the within time, expect a result ordered by slot
+        SupportScheduleCallback.setCallbackOrderNum(0);
+        startTime += 1;
+        service.setTime(startTime);
+        evaluateSchedule();
+        checkCallbacks(new Integer[]{0, 1, 2, 3, 0});
+        assertFalse(service.isScheduled(callbacks[3]));
+
+        startTime += 1;
+        service.setTime(startTime);
+        evaluateSchedule();
+        checkCallbacks(new Integer[]{4, 0, 0, 0, 0});
+        assertEquals(0, service.getScheduleHandleCount());
+        assertEquals(0, service.getTimeHandleCount());
+        assertNull(service.getNearestTimeHandle());
+        assertNull(service.getFurthestTimeHandle());
+
+        // Adding the same callback again reschedules it, removing it twice is fine
+        service.add(20, callbacks[0], slots[0][0]);
+        service.add(28, callbacks[0], slots[0][0]);
+        assertEquals(1, service.getScheduleHandleCount());
+        assertEquals(1, service.getTimeHandleCount());
+        service.remove(callbacks[0], slots[0][0]);
+        service.remove(callbacks[0], slots[0][0]);
+        assertFalse(service.isScheduled(callbacks[0]));
+        assertEquals(0, service.getTimeHandleCount());
+
+        service.add(20, callbacks[2], slots[1][0]);
+        service.add(25, callbacks[1], slots[0][1]);
+        service.remove(callbacks[1], slots[0][1]);
+        service.add(21, callbacks[0], slots[0][0]);
+        service.add(21, callbacks[3], slots[1][1]);
+        service.add(20, callbacks[1], slots[0][1]);
+        SupportScheduleCallback.setCallbackOrderNum(0);
+
+        // Skip past both times at once, expect results ordered by time and slot
+        startTime += 21;
+        service.setTime(startTime);
+        evaluateSchedule();
+        checkCallbacks(new Integer[]{3, 1, 2, 4, 0});
+
+        service.setTime(startTime + Integer.MAX_VALUE);
+        evaluateSchedule();
+        checkCallbacks(new Integer[]{0, 0, 0, 0, 0});
+    }
+
+    public void testFarFutureAndTimeBackwards() {
+        service.setTime(1000);
+        service.add(1000L * 60 * 60 * 24 * 365, callbacks[0], slots[0][0]);
+        service.add(100, callbacks[1], slots[0][1]);
+        service.add(5000, callbacks[2], slots[1][0]);
+        assertEquals(1100L, (long) service.getNearestTimeHandle());
+        assertEquals(1000L + 1000L * 60 * 60 * 24 * 365, (long) service.getFurthestTimeHandle());
+
+        SupportScheduleCallback.setCallbackOrderNum(0);
+        service.setTime(5999);
+        evaluateSchedule();
+        checkCallbacks(new Integer[]{0, 1, 0, 0, 0});
+
+        // Moving time backwards keeps the remaining schedules
+        service.setTime(3000);
+        evaluateSchedule();
+        checkCallbacks(new Integer[]{0, 0, 0, 0, 0});
+        service.add(10, callbacks[3], slots[1][1]);
+
+        service.setTime(3010);
+        evaluateSchedule();
+        checkCallbacks(new Integer[]{0, 0, 0, 2, 0});
+
+        service.setTime(6000);
+        evaluateSchedule();
+        checkCallbacks(new Integer[]{0, 0, 3, 0, 0});
+
+        service.setTime(1000L + 1000L * 60 * 60 * 24 * 365);
+        evaluateSchedule();
+        checkCallbacks(new Integer[]{4, 0, 0, 0, 0});
+    }
+
+    public void testNegativeTime() {
+        service.setTime(-100);
+        service.add(50, callbacks[0], slots[0][0]);
+        service.add(150, callbacks[1], slots[0][1]);
+
+        SupportScheduleCallback.setCallbackOrderNum(0);
+        service.setTime(-1);
+        evaluateSchedule();
+        checkCallbacks(new Integer[]{1, 0, 0, 0, 0});
+
+        service.setTime(50);
+        evaluateSchedule();
+        checkCallbacks(new Integer[]{0, 2, 0, 0, 0});
+    }
+
+    public void testVisitAndTransfer() {
+        service.setTime(0);
+        service.add(30, callbacks[0], slots[0][0]);
+        service.add(10, callbacks[1], slots[0][1]);
+
+        List<Long> timestamps = new ArrayList<>();
+        service.visitSchedules(visit -> timestamps.add(visit.getTimestamp()));
+        assertEquals(Arrays.asList(10L, 30L), timestamps);
+
+        SchedulingServiceImpl target = new SchedulingServiceImpl(-1, new TimeSourceServiceImpl(), ZoneId.systemDefault());
+        target.setTime(5);
+        service.transfer(Collections.singleton(1), target);
+        assertEquals(0, service.getScheduleHandleCount());
+        assertEquals(2, target.getScheduleHandleCount());
+        assertEquals(10L, (long) target.getNearestTimeHandle());
+        assertEquals(30L, (long) target.getFurthestTimeHandle());
+    }
+
+    public void testSameAsSorted() {
+        Random random = new Random(1);
+        SchedulingServiceImpl sorted = new SchedulingServiceImpl(-1, new TimeSourceServiceImpl(), ZoneId.systemDefault());
+        ScheduleBucket bucket = new ScheduleBucket(0);
+        List<SupportScheduleCallback> handles = new ArrayList<>();
+        Map<ScheduleHandle, Long> handleSlots = new HashMap<>();
+        for (int i = 0; i < 500; i++) {
+            SupportScheduleCallback handle = new SupportScheduleCallback();
+            handles.add(handle);
+            handleSlots.put(handle, bucket.allocateSlot());
+        }
+
+        long time = 1000;
+        sorted.setTime(time);
+        service.setTime(time);
+        long[] ranges = new long[]{10, 1000, 100000, 100000000L};
+        for (int step = 0; step < 20000; step++) {
+            int action = random.nextInt(10);
+            if (action < 5) {
+                SupportScheduleCallback handle = handles.get(random.nextInt(handles.size()));
+                long after = (long) (random.nextDouble() * ranges[random.nextInt(ranges.length)]);
+                sorted.add(after, handle, handleSlots.get(handle));
+                service.add(after, handle, handleSlots.get(handle));
+            } else if (action < 6) {
+                SupportScheduleCallback handle = handles.get(random.nextInt(handles.size()));
+                sorted.remove(handle, handleSlots.get(handle));
+                service.remove(handle, handleSlots.get(handle));
+            } else {
+                if (random.nextInt(50) == 0) {
+                    time -= random.nextInt(1000);
+                } else {
+                    time += (long) (random.nextDouble() * ranges[random.nextInt(ranges.length)]);
+                }
+                sorted.setTime(time);
+                service.setTime(time);
+                List<ScheduleHandle> expected = new ArrayList<>();
+                List<ScheduleHandle> received = new ArrayList<>();
+                sorted.evaluate(expected);
+                service.evaluate(received);
+                assertEquals(expected, received);
+            }
+            assertEquals(sorted.getScheduleHandleCount(), service.getScheduleHandleCount());
+            assertEquals(sorted.getTimeHandleCount(), service.getTimeHandleCount());
+            assertEquals(sorted.getNearestTimeHandle(), service.getNearestTimeHandle());
+        }
+    }
+
+    private void checkCallbacks(Integer[] results) {
+        for (int i = 0; i < callbacks.length; i++) {
+            assertEquals((int) results[i], callbacks[i].clearAndGetOrderTriggered());
+        }
+    }
+
+    private void evaluateSchedule() {
+        Collection<ScheduleHandle> handles = new LinkedList<ScheduleHandle>();
+        service.evaluate(handles);
+
+        for (ScheduleHandle handle : handles) {
+            ScheduleHandleCallback cb = (ScheduleHandleCallback) handle;
+            cb.scheduledTrigger();
+        }
+    }
+}